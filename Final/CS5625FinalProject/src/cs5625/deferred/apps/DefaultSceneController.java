@@ -3,15 +3,22 @@ package cs5625.deferred.apps;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.glu.GLU;
 import javax.vecmath.AxisAngle4f;
 import javax.vecmath.Color3f;
 import javax.vecmath.Point3f;
 import javax.vecmath.Quat4f;
 
 import cs5625.deferred.materials.LambertianMaterial;
+import cs5625.deferred.materials.TextureAtlas;
 import cs5625.deferred.misc.Util;
 import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.Mesh;
 import cs5625.deferred.scenegraph.PointLight;
 
 /**
@@ -38,13 +45,26 @@ public class DefaultSceneController extends SceneController
 	/* Used to calculate mouse deltas to orbit the camera in mouseDragged(). */ 
 	private Point mLastMouseDrag;
 	
+	/* Pages the scene's textured materials were moved onto, or null; see TextureAtlas. */
+	private TextureAtlas mTextureAtlas = null;
+	
 	@Override
 	public void initializeScene()
 	{
 		try
 		{
-			/* Load default scene with materials. */
-			mSceneRoot.addGeometry(Geometry.load("models/default-scene.obj", true, true));
+			/* Load default scene with materials, and move its textured ones onto a shared atlas page, so 
+			 * the objects using them draw with one binding. */
+			List<Geometry> sceneGeometry = Geometry.load("models/default-scene.obj", true, true);
+			mSceneRoot.addGeometry(sceneGeometry);
+			
+			List<Mesh> meshes = new ArrayList<Mesh>();
+			for (Geometry object : sceneGeometry)
+			{
+				meshes.addAll(object.getMeshes());
+			}
+			GL2 gl = GLU.getCurrentGL().getGL2();
+			mTextureAtlas = TextureAtlas.build(gl, meshes, 1024, 8);
 			
 			/* Example of manipulating an object by name. */
 			mSceneRoot.findDescendantByName("fighter1").getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, -(float)Math.PI / 4.0f));
@@ -71,6 +91,18 @@ public class DefaultSceneController extends SceneController
 		updateCamera();
 	}
 		
+	@Override
+	public void disposeGL(GLAutoDrawable drawable)
+	{
+		if (mTextureAtlas != null)
+		{
+			mTextureAtlas.releaseGPUResources(drawable.getGL().getGL2());
+			mTextureAtlas = null;
+		}
+		
+		super.disposeGL(drawable);
+	}
+		
 	/**
 	 * Updates the camera position and orientation based on orbit parameters.
 	 */
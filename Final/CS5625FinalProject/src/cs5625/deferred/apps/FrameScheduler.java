@@ -0,0 +1,470 @@
+package cs5625.deferred.apps;
+
+import java.util.concurrent.locks.LockSupport;
+
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+import cs5625.deferred.rendering.RollingStatistics;
+import cs5625.deferred.scenegraph.SceneObject;
+
+/**
+ * FrameScheduler.java
+ *
+ * Runs a scene's simulation on its own thread at a fixed timestep, decoupled from rendering. After
+ * each tick the scene is captured in a `SimulationSnapshot`, which is published to the render thread
+ * by swapping a single reference; neither thread ever waits for the other. Snapshots come from a small
+ * pool, and are recaptured once neither thread can read them, so ticks don't allocate. The render
+ * thread calls `beginRender()` before drawing, which applies the interpolation of the two most
+ * recent snapshots for the current time, so motion stays smooth whatever the two rates are.
+ *
+ * If the simulation falls behind (because a tick took too long, or the thread wasn't scheduled),
+ * up to `maxCatchUpTicks` ticks run back to back; any further ticks are dropped, and the simulation
+ * runs slower than real time rather than spiralling.
+ *
+ *     mFrameScheduler = new FrameScheduler(mSceneRoot, simulation, 60.0, 5);
+ *     mFrameScheduler.start();
+ *     ...
+ *     mFrameScheduler.beginRender();
+ *     mRenderer.render(...);
+ *     mFrameScheduler.endRender();
+ *
+ * Tick jitter (how late each tick starts) and overlap (ticks running while a frame renders, and vice
+ * versa) are measured, to check that the two threads actually run in parallel.
+ *
+ * Only the simulation thread may change the scene while the scheduler runs; see
+ * `SceneObject.setRenderTransform()` for what the renderer reads from snapshots.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameScheduler
+{
+	/**
+	 * Advances a scene by one tick; called on the simulation thread.
+	 */
+	public interface Simulation
+	{
+		/**
+		 * @param dt The length of the tick, in seconds; always the same.
+		 */
+		public void tick(float dt);
+	}
+
+	/**
+	 * Notified on the simulation thread whenever a new snapshot has been published, e.g. to request
+	 * a render. The snapshot is recaptured a few ticks later, so don't keep it.
+	 */
+	public interface Listener
+	{
+		public void snapshotPublished(SimulationSnapshot snapshot);
+	}
+
+	/** Default number of ticks per second. */
+	public static final double DEFAULT_TICK_RATE = 60.0;
+
+	/** Default number of ticks run back to back when the simulation falls behind. */
+	public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+	/* Number of tick and render samples kept for statistics. */
+	private static final int STATISTICS_WINDOW = 600;
+
+	/* Snapshots in use at once: the latest and the one before it, and the pair the render thread is
+	 * drawing, which may be one tick older; plus one to capture into. */
+	private static final int SNAPSHOT_POOL_SIZE = 5;
+
+	private final SceneObject mSceneRoot;
+	private final Simulation mSimulation;
+	private final long mTickNanos;
+	private final int mMaxCatchUpTicks;
+	private volatile Listener mListener = null;
+
+	/* The latest snapshot (its previous one is `getPrevious()`), written by the simulation thread, and the
+	 * one the render thread last applied, written by it; neither is recaptured, nor are their previous ones. */
+	private final SimulationSnapshot mSnapshotPool[] = new SimulationSnapshot[SNAPSHOT_POOL_SIZE];
+	private volatile SimulationSnapshot mLatest = null;
+	private volatile SimulationSnapshot mRendered = null;
+	private Thread mThread = null;
+	private volatile boolean mRunning = false;
+	private long mTick = 0;
+
+	/* Set while each thread is in its critical section, to measure overlap. */
+	private volatile boolean mTicking = false;
+	private volatile boolean mRendering = false;
+
+	/* Each counter is only written by one thread. */
+	private volatile long mTickCount = 0;
+	private volatile long mDroppedTickCount = 0;
+	private volatile long mOverlappedTickCount = 0;
+	private volatile long mRenderCount = 0;
+	private volatile long mOverlappedRenderCount = 0;
+
+	/* Guarded by themselves; written by the simulation thread, read by anyone. */
+	private final RollingStatistics mTickLateness = new RollingStatistics(STATISTICS_WINDOW);
+	private final RollingStatistics mTickTime = new RollingStatistics(STATISTICS_WINDOW);
+
+	/* Render thread scratch objects and state. */
+	private final Point3f mScratchPosition = new Point3f();
+	private final Quat4f mScratchOrientation = new Quat4f();
+	private SimulationSnapshot mAppliedSnapshot = null;
+	private boolean mRenderOverlapped = false;
+	private float mAlpha = 1.0f;
+
+	/**
+	 * Creates a stopped scheduler.
+	 *
+	 * @param sceneRoot The scene the simulation changes; captured after each tick.
+	 * @param simulation Advances the scene.
+	 * @param tickRate Number of ticks per second.
+	 * @param maxCatchUpTicks Number of ticks run back to back when the simulation falls behind, at least 1.
+	 */
+	public FrameScheduler(SceneObject sceneRoot, Simulation simulation, double tickRate, int maxCatchUpTicks)
+	{
+		if (tickRate <= 0.0 || maxCatchUpTicks < 1)
+		{
+			throw new IllegalArgumentException("A frame scheduler needs a positive tick rate and catch-up limit.");
+		}
+
+		mSceneRoot = sceneRoot;
+		mSimulation = simulation;
+		mTickNanos = Math.round(1.0e9 / tickRate);
+		mMaxCatchUpTicks = maxCatchUpTicks;
+	}
+
+	/**
+	 * Creates a stopped scheduler ticking at `DEFAULT_TICK_RATE`.
+	 */
+	public FrameScheduler(SceneObject sceneRoot, Simulation simulation)
+	{
+		this(sceneRoot, simulation, DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP_TICKS);
+	}
+
+	public void setListener(Listener listener)
+	{
+		mListener = listener;
+	}
+
+	/**
+	 * Publishes a snapshot of the scene as it is now, then starts the simulation thread. From now on
+	 * only the simulation thread may change the scene.
+	 */
+	public synchronized void start()
+	{
+		if (mThread != null)
+		{
+			return;
+		}
+
+		long now = System.nanoTime();
+		SimulationSnapshot snapshot = acquireSnapshot();
+		snapshot.recapture(mSceneRoot, mTick, now, null);
+		mLatest = snapshot;
+
+		mRunning = true;
+		mThread = new Thread(new Runnable() {
+			@Override
+			public void run()
+			{
+				simulate();
+			}
+		}, "Simulation");
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+
+	/**
+	 * Stops the simulation thread after its current tick. The last published snapshot is still drawn.
+	 *
+	 * @param timeoutMillis How long to wait for the thread to stop.
+	 * @return False if it didn't stop in time.
+	 */
+	public synchronized boolean stop(long timeoutMillis) throws InterruptedException
+	{
+		if (mThread == null)
+		{
+			return true;
+		}
+
+		mRunning = false;
+		LockSupport.unpark(mThread);
+		mThread.join(timeoutMillis);
+
+		boolean stopped = !mThread.isAlive();
+		mThread = null;
+		return stopped;
+	}
+
+	public boolean isRunning()
+	{
+		return mRunning;
+	}
+
+	/* The simulation thread's loop: tick at each multiple of the tick length, catching up if late. */
+	private void simulate()
+	{
+		long nextTick = mLatest.getTimeNanos() + mTickNanos;
+
+		while (mRunning)
+		{
+			long now = System.nanoTime();
+			if (now < nextTick)
+			{
+				LockSupport.parkNanos(nextTick - now);
+				continue;
+			}
+
+			for (int i = 0; i < mMaxCatchUpTicks && now >= nextTick && mRunning; ++i)
+			{
+				tick(nextTick, now);
+				nextTick += mTickNanos;
+				now = System.nanoTime();
+			}
+
+			/* Still behind after catching up: skip the missed ticks instead of falling further behind. */
+			if (now >= nextTick)
+			{
+				long missed = (now - nextTick) / mTickNanos + 1;
+				mDroppedTickCount += missed;
+				nextTick += missed * mTickNanos;
+			}
+		}
+	}
+
+	private void tick(long scheduledNanos, long startNanos)
+	{
+		mTicking = true;
+		boolean overlapped = mRendering;
+
+		mSimulation.tick(mTickNanos / 1.0e9f);
+		++mTick;
+
+		/* A tick advances the simulation to the time it was scheduled for. */
+		SimulationSnapshot snapshot = acquireSnapshot();
+		snapshot.recapture(mSceneRoot, mTick, scheduledNanos, mLatest);
+		mLatest = snapshot;
+
+		if (overlapped || mRendering)
+		{
+			++mOverlappedTickCount;
+		}
+		mTicking = false;
+		++mTickCount;
+
+		synchronized (mTickLateness)
+		{
+			mTickLateness.add((startNanos - scheduledNanos) / 1.0e6);
+			mTickTime.add((System.nanoTime() - startNanos) / 1.0e6);
+		}
+
+		Listener listener = mListener;
+		if (listener != null)
+		{
+			listener.snapshotPublished(snapshot);
+		}
+	}
+
+	/*
+	 * Returns a snapshot of the pool which neither thread can be reading: not the latest or the one
+	 * the render thread applied, nor the ones before those. Called by whichever thread changes the scene.
+	 */
+	private SimulationSnapshot acquireSnapshot()
+	{
+		SimulationSnapshot latest = mLatest;
+		SimulationSnapshot rendered = mRendered;
+		for (int i = 0; i < mSnapshotPool.length; ++i)
+		{
+			SimulationSnapshot snapshot = mSnapshotPool[i];
+			if (snapshot == null)
+			{
+				snapshot = mSnapshotPool[i] = new SimulationSnapshot();
+			}
+
+			if (!isInUse(snapshot, latest) && !isInUse(snapshot, rendered))
+			{
+				return snapshot;
+			}
+		}
+
+		throw new IllegalStateException("Every simulation snapshot is in use.");
+	}
+
+	private static boolean isInUse(SimulationSnapshot snapshot, SimulationSnapshot current)
+	{
+		return current != null && (snapshot == current || snapshot == current.getPrevious());
+	}
+
+	/**
+	 * Applies the interpolation of the latest snapshots for the current time to the scene, for the
+	 * renderer. Called on the render thread before drawing; pair with `endRender()`. Doesn't allocate.
+	 *
+	 * @return The newest snapshot applied, or null before `start()`.
+	 */
+	public SimulationSnapshot beginRender()
+	{
+		mRendering = true;
+		mRenderOverlapped = mTicking;
+
+		/* Mark the latest snapshot as being drawn, then check it still is the latest: once it is marked, 
+		 * the simulation thread won't recapture it or the one before it. */
+		SimulationSnapshot current = mLatest;
+		if (current == null)
+		{
+			return null;
+		}
+		while (true)
+		{
+			mRendered = current;
+			SimulationSnapshot latest = mLatest;
+			if (latest == current)
+			{
+				break;
+			}
+			current = latest;
+		}
+		SimulationSnapshot previous = current.getPrevious();
+
+		/* Draw the state a tick behind now, so there is normally a snapshot on each side of it. */
+		mAlpha = 1.0f;
+		if (previous != null)
+		{
+			long renderNanos = System.nanoTime() - mTickNanos;
+			long previousNanos = previous.getTimeNanos();
+			long span = Math.max(1, current.getTimeNanos() - previousNanos);
+			mAlpha = Math.max(0.0f, Math.min(1.0f, (renderNanos - previousNanos) / (float)span));
+		}
+
+		current.apply(previous, mAlpha, mScratchPosition, mScratchOrientation);
+		mAppliedSnapshot = current;
+		return current;
+	}
+
+	/**
+	 * Ends a render started with `beginRender()`.
+	 */
+	public void endRender()
+	{
+		if (mRenderOverlapped || mTicking)
+		{
+			++mOverlappedRenderCount;
+		}
+		mRendering = false;
+		++mRenderCount;
+	}
+
+	/**
+	 * Returns the newest snapshot published by the simulation thread, or null before `start()`. 
+	 * Snapshots are recaptured a few ticks after they're published, so read what you need right away.
+	 */
+	public SimulationSnapshot getLatestSnapshot()
+	{
+		return mLatest;
+	}
+
+	/**
+	 * Returns the snapshot applied by the last `beginRender()`, or null.
+	 */
+	public SimulationSnapshot getAppliedSnapshot()
+	{
+		return mAppliedSnapshot;
+	}
+
+	/**
+	 * Returns the interpolation factor used by the last `beginRender()`: 0 drew the snapshot before
+	 * the applied one, 1 the applied one.
+	 */
+	public float getAlpha()
+	{
+		return mAlpha;
+	}
+
+	/**
+	 * Returns the length of a tick, in seconds.
+	 */
+	public float getTickLength()
+	{
+		return mTickNanos / 1.0e9f;
+	}
+
+	public int getMaxCatchUpTicks()
+	{
+		return mMaxCatchUpTicks;
+	}
+
+	/**
+	 * Returns the number of ticks run.
+	 */
+	public long getTickCount()
+	{
+		return mTickCount;
+	}
+
+	/**
+	 * Returns the number of ticks skipped because the simulation was still behind after catching up.
+	 */
+	public long getDroppedTickCount()
+	{
+		return mDroppedTickCount;
+	}
+
+	/**
+	 * Returns the number of ticks which started or ended while a frame was rendering.
+	 */
+	public long getOverlappedTickCount()
+	{
+		return mOverlappedTickCount;
+	}
+
+	/**
+	 * Returns the number of renders between `beginRender()` and `endRender()`.
+	 */
+	public long getRenderCount()
+	{
+		return mRenderCount;
+	}
+
+	/**
+	 * Returns the number of renders which began or ended while a tick was running.
+	 */
+	public long getOverlappedRenderCount()
+	{
+		return mOverlappedRenderCount;
+	}
+
+	/**
+	 * Returns the average, 99th percentile, and maximum of how late (in milliseconds) recent ticks
+	 * started, as { average, p99, max }.
+	 */
+	public double[] getTickLatenessStatistics()
+	{
+		synchronized (mTickLateness)
+		{
+			return new double[] { mTickLateness.getAverage(), mTickLateness.getP99(), mTickLateness.getMax() };
+		}
+	}
+
+	/**
+	 * Returns the average, 99th percentile, and maximum time (in milliseconds) recent ticks took,
+	 * including capturing their snapshot, as { average, p99, max }.
+	 */
+	public double[] getTickTimeStatistics()
+	{
+		synchronized (mTickLateness)
+		{
+			return new double[] { mTickTime.getAverage(), mTickTime.getP99(), mTickTime.getMax() };
+		}
+	}
+
+	/**
+	 * Returns a one-line summary of the scheduler's statistics.
+	 */
+	public String getSummary()
+	{
+		double lateness[] = getTickLatenessStatistics();
+		double time[] = getTickTimeStatistics();
+
+		return String.format("ticks %d (%d dropped, %d overlapping a render), renders %d (%d overlapping a tick), " +
+				"tick lateness avg %.3f / p99 %.3f / max %.3f ms, tick time avg %.3f / p99 %.3f / max %.3f ms",
+				getTickCount(), getDroppedTickCount(), getOverlappedTickCount(), getRenderCount(), getOverlappedRenderCount(),
+				lateness[0], lateness[1], lateness[2], time[0], time[1], time[2]);
+	}
+}
@@ -14,6 +14,7 @@ import javax.vecmath.Quat4f;
 import cs5625.deferred.materials.UnshadedMaterial;
 import cs5625.deferred.misc.Util;
 import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.MeshRegistry;
 import cs5625.deferred.scenegraph.PointLight;
 import cs5625.deferred.scenegraph.SceneObject;
 
@@ -78,8 +79,9 @@ public class ManyLightsSceneController extends SceneController
 						(rand.nextFloat() - 0.5f) * 8.0f, 
 						(rand.nextFloat() - 0.5f) * 8.0f));
 				
-				/* Add a sphere as a child of the light (so we can see where it is), and set the sphere to the same color as the light. */
-				Geometry sphere = Geometry.load("models/lowpolysphere.obj", false, false).get(0);
+				/* Add a sphere as a child of the light (so we can see where it is), and set the sphere to the same color as the light. 
+				 * The spheres share one copy of the mesh, so the renderer draws them all at once. */
+				Geometry sphere = MeshRegistry.getShared().loadFirst("models/lowpolysphere.obj");
 				sphere.setScale(0.1f);
 				sphere.getMeshes().get(0).setMaterial(new UnshadedMaterial(lightColor));
 				light.addChild(sphere);
@@ -7,6 +7,8 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.io.File;
+import java.io.IOException;
 
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
@@ -17,7 +19,9 @@ import javax.vecmath.Quat4f;
 import cs5625.deferred.custom.CustomSceneController;
 import cs5625.deferred.misc.Util;
 import cs5625.deferred.rendering.Camera;
+import cs5625.deferred.rendering.FrameRecorder;
 import cs5625.deferred.rendering.Renderer;
+import cs5625.deferred.scenegraph.CompactVertexData;
 import cs5625.deferred.scenegraph.SceneObject;
 import cs5625.deferred.ui.MainViewWindow;
 
@@ -57,6 +61,9 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 	@SuppressWarnings("unused")
 	private static SceneController globalController = null;
 	
+	/* Runs the simulation on its own thread, if this controller animates that way; see FrameScheduler. */
+	protected FrameScheduler mFrameScheduler = null;
+	
 	/**
 	 * SceneController contains the application main() method. It creates an OpenGL 
 	 * window and renderer and a default controller instance to manage the scene.
@@ -134,9 +141,20 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 	 */
 	public void renderGL(GLAutoDrawable drawable)
 	{
+		/* Draw the scene as the simulation snapshots have it, rather than as the simulation thread is changing it. */
+		if (mFrameScheduler != null)
+		{
+			mFrameScheduler.beginRender();
+		}
+		
 		mRenderer.render(drawable, mSceneRoot, isShadowCamMode ? mShadowCamera : mCamera, 
 				!isShadowCamMode && hasShadows ? mShadowCamera : null, 
 				mRenderer.getRenderSnow() ? mSnowCamera : null);
+		
+		if (mFrameScheduler != null)
+		{
+			mFrameScheduler.endRender();
+		}
 	}
 
 	/**
@@ -148,6 +166,27 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 	{
 		mRenderer = new Renderer();
 		mRenderer.init(drawable);
+		
+		/* Run with -Dcs5625.allocationCheck (or =strict) to verify frames don't allocate. */
+		String allocationCheck = System.getProperty("cs5625.allocationCheck");
+		if (allocationCheck != null)
+		{
+			mRenderer.setAllocationCheck(true, allocationCheck.equals("strict"));
+		}
+		
+		/* Run with -Dcs5625.record=<directory> to save every frame there as a numbered PNG file. */
+		String recordDirectory = System.getProperty("cs5625.record");
+		if (recordDirectory != null)
+		{
+			try
+			{
+				mRenderer.setFrameRecorder(new FrameRecorder(new File(recordDirectory), "frame"));
+			}
+			catch (IOException err)
+			{
+				err.printStackTrace();
+			}
+		}
 		mShadowCamera.setIsShadowMapCamera(true);
 		mSnowCamera.setIsSnowOcclusionMapCamera(true);
 		
@@ -164,6 +203,19 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 	public void disposeGL(GLAutoDrawable drawable)
 	{
 		GL2 gl = drawable.getGL().getGL2();
+		
+		if (mFrameScheduler != null)
+		{
+			try
+			{
+				mFrameScheduler.stop(1000);
+			}
+			catch (InterruptedException err)
+			{
+				err.printStackTrace();
+			}
+		}
+		
 		mCamera.releaseGPUResources(gl);
 		mSceneRoot.releaseGPUResources(gl);
 		mRenderer.releaseGPUResources(gl);
@@ -220,6 +272,15 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 	 * 'f'/'F': Decrease/Increase the shadow map sample width.
 	 * 
 	 * 'o': Toggles rendering of snow accumulation effects.
+	 * 
+	 * 'u': Toggle occlusion culling.
+	 * 'U': Print the last frame's occlusion culling statistics.
+	 * 'l': Toggle levels of detail.
+	 * 'L': Print the last frame's level of detail statistics.
+	 * 'k': Toggle drawing from compact vertex data (meshes that dropped their float buffers always draw compactly).
+	 * 'K': Print the scene's resident vertex memory, against what it would take as floats.
+	 * 'p': Toggle frame profiling and its overlay.
+	 * 'P': Print the profile, and write it to profile.csv and profile.json.
 	 */
 	@Override
 	public void keyTyped(KeyEvent key)
@@ -335,6 +396,46 @@ public abstract class SceneController implements MouseListener, MouseMotionListe
 			System.out.println("Render snow: " + mRenderer.getRenderSnow());
 			requiresRender();
 		}
+		else if (c == 'u') {
+			mRenderer.setOcclusionCulling(!mRenderer.getOcclusionCulling());
+			System.out.println("Occlusion culling: " + mRenderer.getOcclusionCulling());
+			requiresRender();
+		}
+		else if (c == 'U') {
+			System.out.println(mRenderer.getOcclusionCuller().getSummary());
+		}
+		else if (c == 'l') {
+			mRenderer.setLevelOfDetail(!mRenderer.getLevelOfDetail());
+			System.out.println("Levels of detail: " + mRenderer.getLevelOfDetail());
+			requiresRender();
+		}
+		else if (c == 'L') {
+			System.out.println(mRenderer.getLevelOfDetailSelector().getSummary());
+		}
+		else if (c == 'k') {
+			mRenderer.setCompactVertices(!mRenderer.getCompactVertices());
+			System.out.println("Compact vertices: " + mRenderer.getCompactVertices());
+			requiresRender();
+		}
+		else if (c == 'K') {
+			System.out.println(CompactVertexData.getMemorySummary("Scene", mSceneRoot.getChildren()));
+		}
+		else if (c == 'p') {
+			mRenderer.setProfiling(!mRenderer.getProfiling());
+			mRenderer.setShowProfilerOverlay(mRenderer.getProfiling());
+			System.out.println("Profiling: " + mRenderer.getProfiling());
+			requiresRender();
+		}
+		else if (c == 'P' && mRenderer.getProfiler() != null) {
+			System.out.print(mRenderer.getProfiler().getSummary());
+			try {
+				mRenderer.getProfiler().dump("profile.csv");
+				mRenderer.getProfiler().dump("profile.json");
+				System.out.println("Wrote profile.csv and profile.json");
+			} catch (IOException err) {
+				err.printStackTrace();
+			}
+		}
 	}
 
 	/**
@@ -59,8 +59,13 @@ public class ShadowMapSceneController extends SceneController
 		mSceneRoot.findChildByName("");
 		try
 		{
-			/* Load default scene with materials. */
-			mSceneRoot.addGeometry(Geometry.load("models/default-scene.obj", true, true));
+			/* Load default scene with materials. None of it moves on its own, so its shadows can be cached. */
+			List<Geometry> sceneGeometry = Geometry.load("models/default-scene.obj", true, true);
+			for (Geometry geometry : sceneGeometry)
+			{
+				geometry.setStatic(true);
+			}
+			mSceneRoot.addGeometry(sceneGeometry);
 			
 			/* Example of manipulating an object by name. */
 			mSceneRoot.findDescendantByName("fighter1").getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, -(float)Math.PI / 4.0f));
@@ -0,0 +1,272 @@
+package cs5625.deferred.apps;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+import cs5625.deferred.custom.ParticleSystem;
+import cs5625.deferred.scenegraph.SceneObject;
+
+/**
+ * SimulationSnapshot.java
+ *
+ * The state of a scene after one simulation tick: the transform of every object and the positions
+ * of every particle system's particles. Captured on the simulation thread and not changed while the
+ * render thread may read it; see `FrameScheduler`, which recaptures into its snapshots once neither
+ * thread needs them any more, so that ticks don't allocate.
+ *
+ * The render thread draws a snapshot by applying it to the scene (as render transforms and particle
+ * render positions), interpolating transforms from the snapshot before it.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public final class SimulationSnapshot
+{
+	/* Floats stored per object: position xyz, orientation xyzw, scale. */
+	private static final int TRANSFORM_FLOATS = 8;
+
+	private long mTick = 0;
+	private long mTimeNanos = 0;
+	private SimulationSnapshot mPrevious = null;
+
+	/* Objects in depth-first order, and their transforms. The arrays only grow, and are reused by each capture. */
+	private SceneObject mObjects[] = new SceneObject[0];
+	private float mTransforms[] = new float[0];
+	private int mObjectCount = 0;
+
+	private ParticleSystem mParticleSystems[] = new ParticleSystem[0];
+	private float mParticlePositions[][] = new float[0][];
+	private int mParticleCounts[] = new int[0];
+	private int mParticleSystemCount = 0;
+
+	/**
+	 * Creates an empty snapshot, for `recapture()`.
+	 */
+	SimulationSnapshot()
+	{
+	}
+
+	/**
+	 * Captures the state of a scene in a new snapshot. Must be called on the thread which changes the scene.
+	 *
+	 * @param root The scene to capture.
+	 * @param tick Number of ticks simulated so far.
+	 * @param timeNanos The time (in `System.nanoTime()` nanoseconds) the state is for.
+	 */
+	public static SimulationSnapshot capture(SceneObject root, long tick, long timeNanos)
+	{
+		SimulationSnapshot snapshot = new SimulationSnapshot();
+		snapshot.recapture(root, tick, timeNanos, null);
+		return snapshot;
+	}
+
+	/**
+	 * Captures the state of a scene into this snapshot, reusing its arrays (they only grow when the 
+	 * scene does). The caller makes sure nothing else reads this snapshot meanwhile.
+	 *
+	 * @param previous The snapshot before this one, returned by `getPrevious()`; may be null.
+	 */
+	void recapture(SceneObject root, long tick, long timeNanos, SimulationSnapshot previous)
+	{
+		mTick = tick;
+		mTimeNanos = timeNanos;
+		mPrevious = previous;
+
+		/* Clear the last capture's references, so removed objects aren't kept alive. */
+		for (int i = 0; i < mObjectCount; ++i)
+		{
+			mObjects[i] = null;
+		}
+		for (int i = 0; i < mParticleSystemCount; ++i)
+		{
+			mParticleSystems[i] = null;
+		}
+		mObjectCount = 0;
+		mParticleSystemCount = 0;
+		collect(root);
+
+		if (mTransforms.length < mObjectCount * TRANSFORM_FLOATS)
+		{
+			mTransforms = new float[mObjects.length * TRANSFORM_FLOATS];
+		}
+
+		for (int i = 0; i < mObjectCount; ++i)
+		{
+			SceneObject obj = mObjects[i];
+			Point3f position = obj.getPosition();
+			Quat4f orientation = obj.getOrientation();
+			int t = i * TRANSFORM_FLOATS;
+
+			mTransforms[t] = position.x;
+			mTransforms[t + 1] = position.y;
+			mTransforms[t + 2] = position.z;
+			mTransforms[t + 3] = orientation.x;
+			mTransforms[t + 4] = orientation.y;
+			mTransforms[t + 5] = orientation.z;
+			mTransforms[t + 6] = orientation.w;
+			mTransforms[t + 7] = obj.getScale();
+		}
+
+		/* Each snapshot keeps its own position arrays, since the render thread may be drawing another's. */
+		if (mParticlePositions.length < mParticleSystems.length)
+		{
+			mParticlePositions = Arrays.copyOf(mParticlePositions, mParticleSystems.length);
+			mParticleCounts = new int[mParticleSystems.length];
+		}
+		for (int i = 0; i < mParticleSystemCount; ++i)
+		{
+			ParticleSystem system = mParticleSystems[i];
+			mParticlePositions[i] = system.copyParticlePositions(mParticlePositions[i]);
+			mParticleCounts[i] = system.getNumCopied();
+		}
+	}
+
+	private void collect(SceneObject obj)
+	{
+		if (mObjectCount == mObjects.length)
+		{
+			mObjects = Arrays.copyOf(mObjects, Math.max(16, 2 * mObjects.length));
+		}
+		mObjects[mObjectCount++] = obj;
+
+		if (obj instanceof ParticleSystem)
+		{
+			if (mParticleSystemCount == mParticleSystems.length)
+			{
+				mParticleSystems = Arrays.copyOf(mParticleSystems, Math.max(4, 2 * mParticleSystems.length));
+			}
+			mParticleSystems[mParticleSystemCount++] = (ParticleSystem)obj;
+		}
+
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			collect(children.get(i));
+		}
+	}
+
+	/**
+	 * Makes the renderer draw the scene as it is between `previous` and this snapshot. Transforms are
+	 * interpolated (positions and scales linearly, orientations by normalized lerp along the shorter
+	 * arc); particles are drawn as in this snapshot, since they're born and die between ticks. Must be
+	 * called on the render thread. Doesn't allocate.
+	 *
+	 * @param previous The snapshot before this one, or null to draw this one as is.
+	 * @param alpha 0 to draw `previous`, 1 to draw this snapshot.
+	 * @param scratchPosition Scratch object written by this method.
+	 * @param scratchOrientation Scratch object written by this method.
+	 */
+	public void apply(SimulationSnapshot previous, float alpha, Point3f scratchPosition, Quat4f scratchOrientation)
+	{
+		/* Only interpolate if no objects were added or removed between the snapshots. */
+		boolean interpolate = (previous != null && previous.mObjectCount == mObjectCount);
+
+		for (int i = 0; i < mObjectCount; ++i)
+		{
+			int t = i * TRANSFORM_FLOATS;
+			float c[] = mTransforms;
+
+			if (interpolate && previous.mObjects[i] == mObjects[i])
+			{
+				float p[] = previous.mTransforms;
+
+				scratchPosition.x = p[t] + (c[t] - p[t]) * alpha;
+				scratchPosition.y = p[t + 1] + (c[t + 1] - p[t + 1]) * alpha;
+				scratchPosition.z = p[t + 2] + (c[t + 2] - p[t + 2]) * alpha;
+
+				/* q and -q are the same rotation; flip the previous one if it's on the far side. */
+				float dot = p[t + 3] * c[t + 3] + p[t + 4] * c[t + 4] + p[t + 5] * c[t + 5] + p[t + 6] * c[t + 6];
+				float sign = (dot < 0.0f ? -1.0f : 1.0f);
+				scratchOrientation.x = sign * p[t + 3] * (1.0f - alpha) + c[t + 3] * alpha;
+				scratchOrientation.y = sign * p[t + 4] * (1.0f - alpha) + c[t + 4] * alpha;
+				scratchOrientation.z = sign * p[t + 5] * (1.0f - alpha) + c[t + 5] * alpha;
+				scratchOrientation.w = sign * p[t + 6] * (1.0f - alpha) + c[t + 6] * alpha;
+
+				float length = (float)Math.sqrt(scratchOrientation.x * scratchOrientation.x + scratchOrientation.y * scratchOrientation.y
+						+ scratchOrientation.z * scratchOrientation.z + scratchOrientation.w * scratchOrientation.w);
+				if (length > 0.0f)
+				{
+					scratchOrientation.scale(1.0f / length);
+				}
+
+				mObjects[i].setRenderTransform(scratchPosition, scratchOrientation, p[t + 7] + (c[t + 7] - p[t + 7]) * alpha);
+			}
+			else
+			{
+				scratchPosition.set(c[t], c[t + 1], c[t + 2]);
+				scratchOrientation.set(c[t + 3], c[t + 4], c[t + 5], c[t + 6]);
+				mObjects[i].setRenderTransform(scratchPosition, scratchOrientation, c[t + 7]);
+			}
+		}
+
+		for (int i = 0; i < mParticleSystemCount; ++i)
+		{
+			mParticleSystems[i].setRenderPositions(mParticlePositions[i], mParticleCounts[i]);
+		}
+	}
+
+	/**
+	 * Makes the renderer draw the objects in this snapshot with their live transforms and particles
+	 * again. Must be called on the render thread.
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < mObjectCount; ++i)
+		{
+			mObjects[i].clearRenderTransform();
+		}
+
+		for (int i = 0; i < mParticleSystemCount; ++i)
+		{
+			mParticleSystems[i].setRenderPositions(null, 0);
+		}
+	}
+
+	/**
+	 * Returns the snapshot captured the tick before this one, if it was passed to `recapture()`.
+	 */
+	SimulationSnapshot getPrevious()
+	{
+		return mPrevious;
+	}
+
+	/**
+	 * Returns the number of ticks simulated before this snapshot was captured.
+	 */
+	public long getTick()
+	{
+		return mTick;
+	}
+
+	/**
+	 * Returns the time (in `System.nanoTime()` nanoseconds) this snapshot's state is for.
+	 */
+	public long getTimeNanos()
+	{
+		return mTimeNanos;
+	}
+
+	/**
+	 * Returns the number of objects in this snapshot.
+	 */
+	public int getObjectCount()
+	{
+		return mObjectCount;
+	}
+
+	/**
+	 * Returns the number of particles captured in this snapshot, over all particle systems.
+	 */
+	public int getParticleCount()
+	{
+		int count = 0;
+		for (int i = 0; i < mParticleSystemCount; ++i)
+		{
+			count += mParticleCounts[i];
+		}
+		return count;
+	}
+}
@@ -0,0 +1,66 @@
+package cs5625.deferred.checks;
+
+/**
+ * Benchmark.java
+ *
+ * Times one piece of work for the benchmark programs in this package. Subclass it (usually anonymously)
+ * with the work in `run()`, and call `best()`, which runs it a few times untimed so that the JIT compiles
+ * it, then returns the fastest of several timed runs.
+ *
+ * The benchmarks print their timings with `CheckReport.note()`, and use the same report to check that what
+ * they time produces the right output (e.g. that a fast path matches the code it replaced), so they exit
+ * with status 1 only if an output is wrong, never because of a timing. Timings depend on the machine, so
+ * the figures quoted in commit messages are for comparison between rows of one run, not across machines.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public abstract class Benchmark
+{
+	private double mLastTime = 0.0;
+
+	/**
+	 * Does the work being timed once.
+	 */
+	protected abstract void run() throws Exception;
+
+	/**
+	 * Runs `run()` `warmups` times untimed, then `runs` times timed.
+	 *
+	 * @return The fastest timed run, in milliseconds.
+	 */
+	public double best(int warmups, int runs) throws Exception
+	{
+		for (int i = 0; i < warmups; ++i)
+		{
+			run();
+		}
+
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i < runs; ++i)
+		{
+			long start = System.nanoTime();
+			run();
+			mLastTime = (System.nanoTime() - start) / 1.0e6;
+			best = Math.min(best, mLastTime);
+		}
+
+		return best;
+	}
+
+	/**
+	 * Returns the time of the last timed run, in milliseconds.
+	 */
+	public double getLastTime()
+	{
+		return mLastTime;
+	}
+
+	/**
+	 * Returns the given number of bytes processed in the given milliseconds as MB/s.
+	 */
+	public static double getThroughput(long bytes, double milliseconds)
+	{
+		return bytes / (1024.0 * 1024.0) / (milliseconds / 1000.0);
+	}
+}
@@ -0,0 +1,285 @@
+package cs5625.deferred.checks;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import cs5625.deferred.materials.BlockCompressor;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.TextureData;
+
+/**
+ * BlockCompressorBenchmark.java
+ *
+ * Measures the quality (PSNR after a round trip) and speed of `BlockCompressor` on the bundled textures,
+ * in DXT1 and in DXT5 (with a smooth alpha channel added), next to a plain bounding-box DXT1 encoder
+ * (end points at the block's per-channel minimum and maximum, rounded to 565) as a baseline. Checks that
+ * quality clears a floor and beats the baseline, that single-color blocks come back within 1 of their
+ * color, and that flipping compressed data is lossless.
+ *
+ * Exits with status 1 if an output is wrong; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class BlockCompressorBenchmark
+{
+	private static final String TEXTURES[] = {
+		"textures/stoneBrickDiffuse.jpg", "textures/cubemap/backyard_front.png", "textures/Diffuse_example.jpg",
+		"textures/brick1.png", "textures/fighter1.jpg", "textures/stoneBrickNormal.jpg"};
+
+	/* Lowest acceptable RGB PSNR, in dB, on these textures; DXT typically gives 32-42. */
+	private static final double MIN_PSNR = 30.0;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("BlockCompressorBenchmark");
+
+		report.note("%-38s %10s %11s %10s %11s %11s %11s", "texture", "size", "DXT1 dB", "DXT1 ms", "box DXT1 dB", "DXT5 dB", "DXT5 a dB");
+		for (String identifier : TEXTURES)
+		{
+			benchmarkTexture(report, identifier);
+		}
+
+		checkSingleColors(report);
+		checkFlip(report);
+
+		report.finish();
+	}
+
+	private static void benchmarkTexture(CheckReport report, String identifier) throws Exception
+	{
+		URL url = BlockCompressorBenchmark.class.getClassLoader().getResource(identifier);
+		TextureData data = TextureData.read(url);
+		final int width = data.getWidth(), height = data.getHeight();
+		final byte rgba[] = new byte[4 * width * height];
+		data.getData().rewind();
+		data.getData().get(rgba);
+
+		final byte dxt1[][] = new byte[1][];
+		double dxt1Time = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				dxt1[0] = BlockCompressor.encode(Format.DXT1, rgba, width, height);
+			}
+		}.best(2, 5);
+		double dxt1PSNR = getPSNR(rgba, BlockCompressor.decode(Format.DXT1, dxt1[0], width, height), 0, 3);
+
+		byte box[] = encodeBoundingBox(rgba, width, height);
+		double boxPSNR = getPSNR(rgba, BlockCompressor.decode(Format.DXT1, box, width, height), 0, 3);
+
+		/* Smooth, curved alpha, as in a decal or a soft mask, for DXT5. */
+		byte withAlpha[] = rgba.clone();
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				withAlpha[4 * (y * width + x) + 3] = (byte)Math.round(127.5 + 127.5 * Math.sin(x * 0.05) * Math.cos(y * 0.07));
+			}
+		}
+		byte dxt5[] = BlockCompressor.encode(Format.DXT5, withAlpha, width, height);
+		byte dxt5Decoded[] = BlockCompressor.decode(Format.DXT5, dxt5, width, height);
+		double dxt5PSNR = getPSNR(withAlpha, dxt5Decoded, 0, 3);
+		double alphaPSNR = getPSNR(withAlpha, dxt5Decoded, 3, 4);
+
+		report.expect(dxt1PSNR >= MIN_PSNR, identifier + ": DXT1 PSNR " + dxt1PSNR + " dB is under " + MIN_PSNR);
+		report.expect(dxt1PSNR >= boxPSNR, identifier + ": DXT1 PSNR " + dxt1PSNR + " dB is under the bounding-box encoder's " + boxPSNR);
+		report.expect(dxt5PSNR >= MIN_PSNR && alphaPSNR >= 40.0, identifier + ": DXT5 PSNR " + dxt5PSNR + " dB, alpha " + alphaPSNR + " dB");
+
+		report.note("%-38s %10s %11.2f %10.1f %11.2f %11.2f %11.2f", identifier, width + "x" + height, dxt1PSNR, dxt1Time, boxPSNR, dxt5PSNR, alphaPSNR);
+	}
+
+	/*
+	 * Blocks of one color come back within 1 of that color, in both formats: the best 2/3 : 1/3 blend of
+	 * two 565 end points reaches every 8-bit value within 1 (136 of 256 red and blue values and 245 green
+	 * values exactly), where rounding to 565 is off by up to 4.
+	 */
+	private static void checkSingleColors(CheckReport report)
+	{
+		Random random = new Random(5625);
+		byte block[] = new byte[4 * 16];
+		int maxError[] = new int[2];
+		int exact[] = new int[2];
+		for (int i = 0; i < 4096; ++i)
+		{
+			int r = (i == 0 ? 128 : random.nextInt(256)), g = (i == 0 ? 64 : random.nextInt(256)), b = (i == 0 ? 32 : random.nextInt(256));
+			for (int t = 0; t < 16; ++t)
+			{
+				block[4 * t] = (byte)r;
+				block[4 * t + 1] = (byte)g;
+				block[4 * t + 2] = (byte)b;
+				block[4 * t + 3] = (byte)255;
+			}
+
+			for (int f = 0; f < 2; ++f)
+			{
+				Format format = (f == 0 ? Format.DXT1 : Format.DXT5);
+				byte decoded[] = BlockCompressor.decode(format, BlockCompressor.encode(format, block, 4, 4), 4, 4);
+				int error = 0;
+				for (int c = 0; c < decoded.length; ++c)
+				{
+					error = Math.max(error, Math.abs((decoded[c] & 0xff) - (block[c] & 0xff)));
+				}
+				maxError[f] = Math.max(maxError[f], error);
+				exact[f] += (error == 0 ? 1 : 0);
+				if (i == 0)
+				{
+					report.expect(error == 0, format + ": single-color block (128, 64, 32) round-trips exactly");
+				}
+			}
+		}
+		report.expect(maxError[0] <= 1 && maxError[1] <= 1, "Single-color blocks are off by " + maxError[0] + " in DXT1, " + maxError[1] + " in DXT5");
+		report.note("Single-color blocks: %d (DXT1) and %d (DXT5) of 4096 random colors exact, the rest off by 1.", exact[0], exact[1]);
+	}
+
+	/* Flipping compressed data gives the flipped image, for heights which are and aren't multiples of 4. */
+	private static void checkFlip(CheckReport report)
+	{
+		Random random = new Random(5625);
+		int sizes[][] = {{64, 64}, {32, 8}, {12, 20}, {16, 2}, {8, 10}};
+		for (int size[] : sizes)
+		{
+			int width = size[0], height = size[1];
+			byte rgba[] = new byte[4 * width * height];
+			for (int i = 0; i < rgba.length; ++i)
+			{
+				rgba[i] = (byte)(8 * (i / 4 % width) + 12 * (i / 4 / width) + 40 * (i % 4) + random.nextInt(8));
+			}
+
+			for (Format format : new Format[] {Format.DXT1, Format.DXT5})
+			{
+				byte blocks[] = BlockCompressor.encode(format, rgba, width, height);
+				byte decoded[] = BlockCompressor.decode(format, blocks, width, height);
+				byte flipped[] = BlockCompressor.decode(format, BlockCompressor.flipVertically(format, blocks, width, height), width, height);
+
+				/* Flipping is lossless unless the padding of the last row of blocks has to move. */
+				boolean lossless = (height <= 4 || height % 4 == 0);
+				boolean same = true;
+				for (int y = 0; lossless && same && y < height; ++y)
+				{
+					same = ByteBuffer.wrap(decoded, 4 * width * y, 4 * width).equals(ByteBuffer.wrap(flipped, 4 * width * (height - 1 - y), 4 * width));
+				}
+				double psnr = getPSNR(flipVertically(decoded, width, height), flipped, 0, 3);
+				report.expect(lossless ? same : psnr >= MIN_PSNR, format + " " + width + "x" + height + ": flipped data decodes as the flipped image (" + psnr + " dB)");
+			}
+		}
+	}
+
+	/* Baseline DXT1: end points at the block's bounding box, rounded to 565, each texel to the nearest of the 4 colors. */
+	private static byte[] encodeBoundingBox(byte rgba[], int width, int height)
+	{
+		byte result[] = new byte[BlockCompressor.getCompressedSize(Format.DXT1, width, height)];
+		int offset = 0;
+		int palette[][] = new int[4][3];
+
+		for (int by = 0; by < height; by += 4)
+		{
+			for (int bx = 0; bx < width; bx += 4)
+			{
+				int min[] = {255, 255, 255}, max[] = {0, 0, 0};
+				for (int t = 0; t < 16; ++t)
+				{
+					int pixel = getPixelOffset(bx + t % 4, by + t / 4, width, height);
+					for (int c = 0; c < 3; ++c)
+					{
+						min[c] = Math.min(min[c], rgba[pixel + c] & 0xff);
+						max[c] = Math.max(max[c], rgba[pixel + c] & 0xff);
+					}
+				}
+
+				int color0 = to565(max), color1 = to565(min);
+				if (color0 < color1)
+				{
+					int swap = color0;
+					color0 = color1;
+					color1 = swap;
+				}
+				from565(color0, palette[0]);
+				from565(color1, palette[1]);
+				for (int c = 0; c < 3; ++c)
+				{
+					palette[2][c] = (2 * palette[0][c] + palette[1][c]) / 3;
+					palette[3][c] = (palette[0][c] + 2 * palette[1][c]) / 3;
+				}
+
+				int indices = 0;
+				for (int t = 0; t < 16; ++t)
+				{
+					int pixel = getPixelOffset(bx + t % 4, by + t / 4, width, height);
+					int best = 0, bestDistance = Integer.MAX_VALUE;
+					for (int p = 0; p < (color0 == color1 ? 1 : 4); ++p)
+					{
+						int distance = 0;
+						for (int c = 0; c < 3; ++c)
+						{
+							int d = (rgba[pixel + c] & 0xff) - palette[p][c];
+							distance += d * d;
+						}
+						if (distance < bestDistance)
+						{
+							best = p;
+							bestDistance = distance;
+						}
+					}
+					indices |= best << (2 * t);
+				}
+
+				result[offset++] = (byte)color0;
+				result[offset++] = (byte)(color0 >> 8);
+				result[offset++] = (byte)color1;
+				result[offset++] = (byte)(color1 >> 8);
+				for (int i = 0; i < 4; ++i)
+				{
+					result[offset++] = (byte)(indices >> (8 * i));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static int getPixelOffset(int x, int y, int width, int height)
+	{
+		return 4 * (Math.min(y, height - 1) * width + Math.min(x, width - 1));
+	}
+
+	private static int to565(int rgb[])
+	{
+		return (Math.round(rgb[0] * 31 / 255.0f) << 11) | (Math.round(rgb[1] * 63 / 255.0f) << 5) | Math.round(rgb[2] * 31 / 255.0f);
+	}
+
+	private static void from565(int color, int rgb[])
+	{
+		rgb[0] = ((color >> 11) & 31) * 255 / 31;
+		rgb[1] = ((color >> 5) & 63) * 255 / 63;
+		rgb[2] = (color & 31) * 255 / 31;
+	}
+
+	private static byte[] flipVertically(byte rgba[], int width, int height)
+	{
+		byte result[] = new byte[rgba.length];
+		for (int y = 0; y < height; ++y)
+		{
+			System.arraycopy(rgba, 4 * width * y, result, 4 * width * (height - 1 - y), 4 * width);
+		}
+		return result;
+	}
+
+	/* PSNR over channels [first, end) of every pixel, in dB. */
+	private static double getPSNR(byte expected[], byte actual[], int first, int end)
+	{
+		double sum = 0.0;
+		long count = 0;
+		for (int pixel = 0; pixel < expected.length; pixel += 4)
+		{
+			for (int c = first; c < end; ++c)
+			{
+				int d = (expected[pixel + c] & 0xff) - (actual[pixel + c] & 0xff);
+				sum += d * d;
+				++count;
+			}
+		}
+		return (sum == 0.0 ? Double.POSITIVE_INFINITY : 10.0 * Math.log10(255.0 * 255.0 / (sum / count)));
+	}
+}
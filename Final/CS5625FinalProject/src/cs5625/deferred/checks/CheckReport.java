@@ -0,0 +1,104 @@
+package cs5625.deferred.checks;
+
+/**
+ * CheckReport.java
+ *
+ * Tallies the expectations of one check program, printing each failure as it happens. `finish()` prints
+ * a summary and exits with status 1 if anything failed, so that a check can be run from a script:
+ *
+ *     java -cp bin:src:lib/* cs5625.deferred.checks.FrameAllocationCheck
+ *
+ * (Checks which load models, textures, or shaders need `src` on the class path, as the application does.)
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class CheckReport
+{
+	private final String mName;
+	private int mCheckCount = 0;
+	private int mFailureCount = 0;
+
+	/**
+	 * Creates a report for the check with the given name.
+	 */
+	public CheckReport(String name)
+	{
+		mName = name;
+	}
+
+	/**
+	 * Records an expectation, printing `description` if it failed.
+	 *
+	 * @return `condition`.
+	 */
+	public boolean expect(boolean condition, String description)
+	{
+		++mCheckCount;
+
+		if (!condition)
+		{
+			++mFailureCount;
+			System.out.println("FAILED: " + description);
+		}
+
+		return condition;
+	}
+
+	/**
+	 * Records that `actual` is within `tolerance` of `expected`.
+	 */
+	public boolean expectClose(double actual, double expected, double tolerance, String description)
+	{
+		return expect(Math.abs(actual - expected) <= tolerance, description + ": " + actual + " is not within " + tolerance + " of " + expected);
+	}
+
+	/**
+	 * Records that `actual` is at most `limit`.
+	 */
+	public boolean expectAtMost(long actual, long limit, String description)
+	{
+		return expect(actual <= limit, description + ": " + actual + " is more than " + limit);
+	}
+
+	/**
+	 * Records that `actual` is at most `limit`.
+	 */
+	public boolean expectAtMost(double actual, double limit, String description)
+	{
+		return expect(actual <= limit, description + ": " + actual + " is more than " + limit);
+	}
+
+	/**
+	 * Prints a line of information which isn't an expectation, e.g. a measured value.
+	 */
+	public void note(String format, Object... args)
+	{
+		System.out.println("  " + String.format(format, args));
+	}
+
+	/**
+	 * Returns the number of failed expectations so far.
+	 */
+	public int getFailureCount()
+	{
+		return mFailureCount;
+	}
+
+	/**
+	 * Prints a summary, and exits with status 1 if any expectation failed, or 0 otherwise.
+	 */
+	public void finish()
+	{
+		if (mFailureCount == 0)
+		{
+			System.out.println(mName + ": all " + mCheckCount + " checks passed.");
+			System.exit(0);
+		}
+		else
+		{
+			System.out.println(mName + ": " + mFailureCount + " of " + mCheckCount + " checks FAILED.");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+package cs5625.deferred.checks;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3f;
+
+import cs5625.deferred.scenegraph.CompactVertexData;
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.Mesh;
+
+/**
+ * CompactVertexDataCheck.java
+ *
+ * Round-trips the encodings of `CompactVertexData` and measures their error: every half float, random
+ * floats and texture coordinates through half floats, random directions through the octahedral normal
+ * and tangent encodings, and the positions of every mesh of the bundled models through quantization.
+ * Prints the vertex memory report of each model, before and after dropping the float buffers.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class CompactVertexDataCheck
+{
+	/* Random directions to round-trip. */
+	private static final int DIRECTION_COUNT = 1000000;
+
+	/* Largest angle, in degrees, a normal or tangent may move; 2 16-bit components allow about 0.005. */
+	private static final double MAX_ANGLE_ERROR = 0.05;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("CompactVertexDataCheck");
+
+		checkSNorm(report);
+		checkHalf(report);
+		checkNormals(report);
+		checkTangents(report);
+		checkModel(report, "models/sphere.obj");
+		checkModel(report, "models/monkey.obj");
+		checkModel(report, "models/default-scene.obj");
+
+		report.finish();
+	}
+
+	private static void checkSNorm(CheckReport report)
+	{
+		report.expect(CompactVertexData.encodeSNorm(1.0f) == CompactVertexData.SHORT_SCALE, "1 encodes as the largest short");
+		report.expect(CompactVertexData.encodeSNorm(-1.0f) == -CompactVertexData.SHORT_SCALE, "-1 encodes as its negative");
+		report.expect(CompactVertexData.encodeSNorm(0.0f) == 0, "0 encodes as 0");
+		report.expect(CompactVertexData.encodeSNorm(3.0f) == CompactVertexData.SHORT_SCALE, "Values above 1 clamp");
+		report.expect(CompactVertexData.decodeSNorm((short)-32768) == -1.0f, "-32768 decodes as -1, as OpenGL reads it");
+
+		double maxError = 0.0;
+		for (int i = -CompactVertexData.SHORT_SCALE; i <= CompactVertexData.SHORT_SCALE; ++i)
+		{
+			report.expect(CompactVertexData.encodeSNorm(CompactVertexData.decodeSNorm((short)i)) == i, "Short " + i + " round-trips");
+
+			float value = (i + 0.37f) / CompactVertexData.SHORT_SCALE;
+			maxError = Math.max(maxError, Math.abs(CompactVertexData.decodeSNorm(CompactVertexData.encodeSNorm(value)) - value));
+		}
+		report.expectAtMost(maxError * CompactVertexData.SHORT_SCALE, 0.5 + 1.0e-3, "Normalized short error, in steps");
+	}
+
+	private static void checkHalf(CheckReport report)
+	{
+		/* Every half float but the NaNs decodes and encodes back to itself. */
+		int exact = 0, nans = 0;
+		for (int bits = 0; bits <= 0xffff; ++bits)
+		{
+			float value = CompactVertexData.decodeHalf((short)bits);
+			short encoded = CompactVertexData.encodeHalf(value);
+			if (Float.isNaN(value))
+			{
+				++nans;
+				report.expect(Float.isNaN(CompactVertexData.decodeHalf(encoded)), "Half NaN 0x" + Integer.toHexString(bits) + " stays NaN");
+			}
+			else if ((encoded & 0xffff) == bits)
+			{
+				++exact;
+			}
+			else
+			{
+				report.expect(false, "Half 0x" + Integer.toHexString(bits) + " (" + value + ") encodes as 0x" + Integer.toHexString(encoded & 0xffff));
+			}
+		}
+		report.expect(exact + nans == 0x10000 && nans == 2 * 1023, exact + " halves round-trip exactly, and " + nans + " are NaN");
+
+		report.expect(CompactVertexData.decodeHalf(CompactVertexData.encodeHalf(65504.0f)) == 65504.0f, "Largest half is exact");
+		report.expect(Float.isInfinite(CompactVertexData.decodeHalf(CompactVertexData.encodeHalf(70000.0f))), "Too large becomes infinity");
+		report.expect(CompactVertexData.decodeHalf(CompactVertexData.encodeHalf(1.0e-9f)) == 0.0f, "Too small becomes zero");
+		report.expect(CompactVertexData.encodeHalf(-1.0e-9f) == (short)0x8000, "Too small and negative becomes -0");
+		report.expect(CompactVertexData.encodeHalf(1.0f + 1.0f / 2048) == CompactVertexData.encodeHalf(1.0f), "Ties round to even, down");
+		report.expect(CompactVertexData.encodeHalf(1.0f + 3.0f / 2048) == CompactVertexData.encodeHalf(1.0f + 2.0f / 1024), "Ties round to even, up");
+
+		/* Normal halves, [2^-14, 2^15): relative error at most half a unit in the last of 10 mantissa bits. */
+		Random random = new Random(5625);
+		double maxRelative = 0.0;
+		for (int i = 0; i < DIRECTION_COUNT; ++i)
+		{
+			float value = (float)Math.scalb(1.0 + random.nextDouble(), random.nextInt(29) - 14) * (random.nextBoolean() ? 1 : -1);
+			float decoded = CompactVertexData.decodeHalf(CompactVertexData.encodeHalf(value));
+			maxRelative = Math.max(maxRelative, Math.abs(decoded - value) / Math.abs(value));
+		}
+		report.expectAtMost(maxRelative, Math.scalb(1.0, -11), "Half float relative error on random normal values");
+
+		/* Texture coordinates in [0, 1], and a little outside for wrapping, lose at most half an ulp at 1.5: 2^-11. */
+		double maxTexCoord = 0.0;
+		for (int i = 0; i < DIRECTION_COUNT; ++i)
+		{
+			float value = -0.5f + 2.0f * random.nextFloat();
+			maxTexCoord = Math.max(maxTexCoord, Math.abs(CompactVertexData.decodeHalf(CompactVertexData.encodeHalf(value)) - value));
+		}
+		report.expectAtMost(maxTexCoord, Math.scalb(1.0, -11), "Half float absolute error on texture coordinates in [-0.5, 1.5]");
+		report.note("Half floats: relative error %.3g on random values, absolute error %.3g on texture coordinates.", maxRelative, maxTexCoord);
+	}
+
+	private static void checkNormals(CheckReport report)
+	{
+		short encoded[] = new short[2];
+		float decoded[] = new float[3];
+
+		double maxAngle = 0.0;
+		float directions[][] = getDirections();
+		for (float direction[] : directions)
+		{
+			CompactVertexData.encodeOctahedral(direction[0], direction[1], direction[2], encoded, 0);
+			CompactVertexData.decodeOctahedral(encoded, 0, decoded, 0);
+			maxAngle = Math.max(maxAngle, getAngle(direction, decoded));
+		}
+		report.expectAtMost(maxAngle, MAX_ANGLE_ERROR, "Octahedral normal angle error, in degrees, over " + directions.length + " directions");
+		report.note("Octahedral normals: %.4f degrees at most.", maxAngle);
+
+		/* Unnormalized directions encode like their normalized selves. */
+		CompactVertexData.encodeOctahedral(0.0f, 0.0f, -7.0f, encoded, 0);
+		CompactVertexData.decodeOctahedral(encoded, 0, decoded, 0);
+		report.expect(getAngle(new float[] {0.0f, 0.0f, -1.0f}, decoded) < MAX_ANGLE_ERROR, "Long -z normal decodes as -z");
+
+		CompactVertexData.encodeOctahedral(0.0f, 0.0f, 0.0f, encoded, 0);
+		CompactVertexData.decodeOctahedral(encoded, 0, decoded, 0);
+		report.expect(decoded[2] == 1.0f, "Zero vector decodes as +z");
+	}
+
+	private static void checkTangents(CheckReport report)
+	{
+		short encoded[] = new short[2];
+		float decoded[] = new float[4];
+
+		double maxAngle = 0.0;
+		int handednessErrors = 0;
+		float directions[][] = getDirections();
+		for (int i = 0; i < directions.length; ++i)
+		{
+			float direction[] = directions[i];
+			float w = ((i & 1) == 0 ? 1.0f : -1.0f);
+			CompactVertexData.encodeTangent(direction[0], direction[1], direction[2], w, encoded, 0);
+			CompactVertexData.decodeTangent(encoded, 0, decoded, 0);
+			maxAngle = Math.max(maxAngle, getAngle(direction, decoded));
+			if (decoded[3] != w)
+			{
+				++handednessErrors;
+			}
+		}
+		report.expectAtMost(maxAngle, MAX_ANGLE_ERROR, "Tangent angle error, in degrees, over " + directions.length + " directions");
+		report.expect(handednessErrors == 0, "Handedness preserved; " + handednessErrors + " flipped");
+		report.note("Tangents: %.4f degrees at most.", maxAngle);
+	}
+
+	/* Quantizes every mesh of a model and checks the decoded positions, bounds, normals and tangents. */
+	private static void checkModel(CheckReport report, String identifier) throws Exception
+	{
+		List<Geometry> objects = Geometry.load(identifier, false, false);
+		for (Geometry object : objects)
+		{
+			object.calculateTangentVectorsForAllGeometry();
+			object.compactVertexDataForAllGeometry();
+		}
+
+		double maxSteps = 0.0, maxNormalAngle = 0.0, maxTexCoord = 0.0;
+		int meshCount = 0;
+		for (Geometry object : objects)
+		{
+			for (Mesh mesh : object.getMeshes())
+			{
+				CompactVertexData compact = mesh.getCompactVertexData();
+				if (!report.expect(compact != null, identifier + ": mesh " + mesh.getName() + " has compact data"))
+				{
+					continue;
+				}
+				++meshCount;
+
+				int vertexCount = mesh.getVertexCount();
+				report.expect(compact.getVertexCount() == vertexCount, identifier + ": compact vertex count");
+
+				FloatBuffer vertices = mesh.getVertexData();
+				ShortBuffer positions = compact.getPositions();
+				Point3f offset = compact.getPositionOffset();
+				float scale = compact.getPositionScale();
+				for (int v = 0; v < vertexCount; ++v)
+				{
+					maxSteps = Math.max(maxSteps, Math.abs(offset.x + scale * positions.get(3 * v + 0) - vertices.get(3 * v + 0)) / scale);
+					maxSteps = Math.max(maxSteps, Math.abs(offset.y + scale * positions.get(3 * v + 1) - vertices.get(3 * v + 1)) / scale);
+					maxSteps = Math.max(maxSteps, Math.abs(offset.z + scale * positions.get(3 * v + 2) - vertices.get(3 * v + 2)) / scale);
+				}
+
+				FloatBuffer normals = mesh.getNormalData();
+				ShortBuffer compactNormals = compact.getNormals();
+				if (normals != null && report.expect(compactNormals != null, identifier + ": normals are compacted"))
+				{
+					short encoded[] = new short[2];
+					float normal[] = new float[3], decoded[] = new float[3];
+					for (int v = 0; v < vertexCount; ++v)
+					{
+						normals.position(3 * v);
+						normals.get(normal);
+						if (normal[0] == 0.0f && normal[1] == 0.0f && normal[2] == 0.0f)
+						{
+							continue;
+						}
+						encoded[0] = compactNormals.get(2 * v);
+						encoded[1] = compactNormals.get(2 * v + 1);
+						CompactVertexData.decodeOctahedral(encoded, 0, decoded, 0);
+						maxNormalAngle = Math.max(maxNormalAngle, getAngle(normal, decoded));
+					}
+					normals.rewind();
+				}
+
+				FloatBuffer texcoords = mesh.getTexCoordData();
+				ShortBuffer compactTexCoords = compact.getTexCoords();
+				if (texcoords != null && report.expect(compactTexCoords != null, identifier + ": texture coordinates are compacted"))
+				{
+					for (int i = 0; i < texcoords.capacity(); ++i)
+					{
+						float value = texcoords.get(i);
+						float error = Math.abs(CompactVertexData.decodeHalf(compactTexCoords.get(i)) - value);
+						maxTexCoord = Math.max(maxTexCoord, error / Math.max(1.0f, Math.abs(value)));
+					}
+				}
+
+				report.expect(mesh.vertexAttribData.get("VertexTangent") == null || compact.getAttribData("VertexTangent") != null,
+						identifier + ": tangents are compacted");
+
+				/* The bounds survive dropping the floats. */
+				Point3f min = new Point3f(), max = new Point3f(), compactMin = new Point3f(), compactMax = new Point3f();
+				mesh.getBounds(min, max);
+				if (mesh.discardFloatVertexData())
+				{
+					mesh.getBounds(compactMin, compactMax);
+					report.expect(min.equals(compactMin) && max.equals(compactMax), identifier + ": bounds kept after dropping the float buffers");
+					report.expect(mesh.getVertexCount() == vertexCount, identifier + ": vertex count kept after dropping the float buffers");
+				}
+			}
+		}
+
+		report.expect(meshCount > 0, identifier + ": " + meshCount + " meshes compacted");
+		report.expectAtMost(maxSteps, 0.5 + 1.0e-2, identifier + ": position error, in quantization steps");
+		report.expectAtMost(maxNormalAngle, MAX_ANGLE_ERROR, identifier + ": normal angle error, in degrees");
+		report.expectAtMost(maxTexCoord, Math.scalb(1.0, -11), identifier + ": texture coordinate error, relative to max(1, |value|)");
+		report.note("%s: position error %.3f steps, normal error %.4f degrees, texture coordinate error %.3g.",
+				identifier, maxSteps, maxNormalAngle, maxTexCoord);
+		report.note("%s", CompactVertexData.getMemorySummary(identifier, objects));
+	}
+
+	/* Random directions, from a seeded generator, plus the axes and the diagonals the octahedron folds at. */
+	private static float[][] getDirections()
+	{
+		float directions[][] = new float[DIRECTION_COUNT + 26][];
+		int count = 0;
+		for (int x = -1; x <= 1; ++x)
+		{
+			for (int y = -1; y <= 1; ++y)
+			{
+				for (int z = -1; z <= 1; ++z)
+				{
+					if (x != 0 || y != 0 || z != 0)
+					{
+						directions[count++] = new float[] {x, y, z};
+					}
+				}
+			}
+		}
+
+		Random random = new Random(5625);
+		while (count < directions.length)
+		{
+			float x = (float)random.nextGaussian(), y = (float)random.nextGaussian(), z = (float)random.nextGaussian();
+			float length = (float)Math.sqrt(x * x + y * y + z * z);
+			if (length > 1.0e-6f)
+			{
+				directions[count++] = new float[] {x / length, y / length, z / length};
+			}
+		}
+		return directions;
+	}
+
+	/* Angle between two directions, in degrees; neither need be normalized. */
+	private static double getAngle(float a[], float b[])
+	{
+		double cross = Math.sqrt(sq(a[1] * b[2] - a[2] * b[1]) + sq(a[2] * b[0] - a[0] * b[2]) + sq(a[0] * b[1] - a[1] * b[0]));
+		double dot = a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+		return Math.toDegrees(Math.atan2(cross, dot));
+	}
+
+	private static double sq(double value)
+	{
+		return value * value;
+	}
+}
@@ -0,0 +1,384 @@
+package cs5625.deferred.checks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLAutoDrawable;
+
+/**
+ * FakeGL2.java
+ *
+ * A GL2 without a GPU, for running renderer code in checks and benchmarks. Nothing is drawn, but enough
+ * state is kept for the renderer to get through initialization and frames as it would on a real context:
+ *
+ *  - Object names (buffers, textures, framebuffers, shaders, queries, fences) are handed out in order.
+ *  - Shaders compile, programs link, framebuffers are complete, and every extension and function is
+ *    available unless turned off with `setExtensionAvailable()`.
+ *  - Buffer objects have storage, so mapping one returns its contents, and `glGetTexImage()` into a
+ *    pixel pack buffer fills it with the low byte of the texture's name.
+ *  - NV fences are signaled only once `finishCommands()` has been called after them, the way a GPU
+ *    which is behind would leave them.
+ *
+ * None of the calls a frame makes allocate, so that allocation checks measure only the renderer.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FakeGL2 extends NullGL2
+{
+	private int mNextName = 1;
+	private final HashSet<String> mUnavailable = new HashSet<String>();
+
+	/* Bound state the renderer asks for back. */
+	private int mActiveTexture = GL_TEXTURE0;
+	private final int mBoundTextures[] = new int[32];
+	private int mBoundFramebuffer = 0;
+	private int mCurrentProgram = 0;
+	private int mBoundPackBuffer = 0, mBoundUnpackBuffer = 0, mBoundArrayBuffer = 0, mBoundElementBuffer = 0, mBoundUniformBuffer = 0;
+
+	/* Storage of buffer objects, and the size last given to glBufferData(), indexed by name. */
+	private ByteBuffer mBufferStorage[] = new ByteBuffer[64];
+	private int mBufferSizes[] = new int[64];
+
+	/* Command number each NV fence was set at, indexed by name, and the last command the "GPU" finished. */
+	private long mFenceCommands[] = new long[64];
+	private long mCommandCount = 0;
+	private long mFinishedCommand = 0;
+
+	private long mTimestamp = 0;
+	private long mDrawCount = 0;
+
+	/**
+	 * Returns a drawable whose `getGL()` is this object, for `Renderer.init()`, `render()`, and so on.
+	 */
+	public GLAutoDrawable createDrawable()
+	{
+		final GL gl = this;
+		return (GLAutoDrawable)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { GLAutoDrawable.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if (method.getName().equals("getGL"))
+				{
+					return gl;
+				}
+				else if (method.getReturnType() == boolean.class)
+				{
+					return Boolean.FALSE;
+				}
+				else if (method.getReturnType() == int.class)
+				{
+					return Integer.valueOf(0);
+				}
+				else
+				{
+					return null;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Makes an extension or function (e.g. "GL_NV_fence", "glDrawElementsInstanced") unavailable, or
+	 * available again.
+	 */
+	public void setExtensionAvailable(String name, boolean available)
+	{
+		if (available)
+		{
+			mUnavailable.remove(name);
+		}
+		else
+		{
+			mUnavailable.add(name);
+		}
+	}
+
+	/**
+	 * Lets the "GPU" catch up: every fence set so far becomes signaled.
+	 */
+	public void finishCommands()
+	{
+		mFinishedCommand = mCommandCount;
+	}
+
+	/**
+	 * Returns the number of glDraw*() calls made so far.
+	 */
+	public long getDrawCount()
+	{
+		return mDrawCount;
+	}
+
+	/**
+	 * Returns the name of the texture bound to the active texture unit.
+	 */
+	public int getBoundTexture()
+	{
+		return mBoundTextures[(mActiveTexture - GL_TEXTURE0) % mBoundTextures.length];
+	}
+
+	/**
+	 * Returns the storage of a buffer object, or null if it has none.
+	 */
+	public ByteBuffer getBufferStorage(int buffer)
+	{
+		return (buffer < mBufferStorage.length ? mBufferStorage[buffer] : null);
+	}
+
+	/**
+	 * Returns the value `glGetIntegerv()` reports for a parameter the fake doesn't track;
+	 * override to change limits.
+	 */
+	protected int getIntegerLimit(int pname)
+	{
+		switch (pname)
+		{
+		case GL_MAX_COLOR_ATTACHMENTS:              return 8;
+		case GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS:   return mBoundTextures.length;
+		case GL_MAX_VERTEX_UNIFORM_COMPONENTS:      return 4096;
+		case GL_MAX_TEXTURE_SIZE:                   return 8192;
+		case GL_PACK_ALIGNMENT:
+		case GL_UNPACK_ALIGNMENT:                   return 4;
+		default:                                    return 0;
+		}
+	}
+
+	/* Names. */
+
+	private void generateNames(int n, int names[], int offset)
+	{
+		for (int i = 0; i < n; ++i)
+		{
+			names[offset + i] = mNextName++;
+		}
+	}
+
+	private void generateNames(int n, IntBuffer names)
+	{
+		for (int i = 0; i < n; ++i)
+		{
+			names.put(names.position() + i, mNextName++);
+		}
+	}
+
+	@Override public void glGenBuffers(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenBuffers(int n, IntBuffer names) { generateNames(n, names); }
+	@Override public void glGenTextures(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenTextures(int n, IntBuffer names) { generateNames(n, names); }
+	@Override public void glGenFramebuffers(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenFramebuffers(int n, IntBuffer names) { generateNames(n, names); }
+	@Override public void glGenRenderbuffers(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenQueries(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenVertexArrays(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public void glGenFencesNV(int n, int names[], int offset) { generateNames(n, names, offset); }
+	@Override public int glCreateShader(int type) { return mNextName++; }
+	@Override public int glCreateProgram() { return mNextName++; }
+
+	/* Capabilities. */
+
+	@Override public boolean isExtensionAvailable(String name) { return !mUnavailable.contains(name); }
+	@Override public boolean isFunctionAvailable(String name) { return !mUnavailable.contains(name); }
+	@Override public boolean isGL2() { return true; }
+	@Override public javax.media.opengl.GL getGL() { return this; }
+	@Override public javax.media.opengl.GL2 getGL2() { return this; }
+	@Override public String glGetString(int name) { return "FakeGL2"; }
+	@Override public int glCheckFramebufferStatus(int target) { return GL_FRAMEBUFFER_COMPLETE; }
+
+	/* Shaders: everything compiles and links, without logs or active uniforms. */
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, int params[], int offset)
+	{
+		params[offset] = (pname == GL_COMPILE_STATUS ? GL_TRUE : 0);
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, int params[], int offset)
+	{
+		params[offset] = (pname == GL_LINK_STATUS || pname == GL_VALIDATE_STATUS ? GL_TRUE : 0);
+	}
+
+	@Override public int glGetUniformLocation(int program, String name) { return 1; }
+	@Override public int glGetAttribLocation(int program, String name) { return 1; }
+	@Override public int glGetUniformBlockIndex(int program, String name) { return 0; }
+	@Override public void glUseProgram(int program) { mCurrentProgram = program; }
+
+	/* State queries. */
+
+	@Override
+	public void glGetIntegerv(int pname, int params[], int offset)
+	{
+		params[offset] = getInteger(pname);
+	}
+
+	@Override
+	public void glGetIntegerv(int pname, IntBuffer params)
+	{
+		params.put(params.position(), getInteger(pname));
+	}
+
+	private int getInteger(int pname)
+	{
+		switch (pname)
+		{
+		case GL_ACTIVE_TEXTURE:      return mActiveTexture;
+		case GL_FRAMEBUFFER_BINDING: return mBoundFramebuffer;
+		case GL_CURRENT_PROGRAM:     return mCurrentProgram;
+		default:                     return getIntegerLimit(pname);
+		}
+	}
+
+	@Override public void glActiveTexture(int texture) { mActiveTexture = texture; }
+	@Override public void glBindFramebuffer(int target, int framebuffer) { mBoundFramebuffer = framebuffer; }
+
+	@Override
+	public void glBindTexture(int target, int texture)
+	{
+		mBoundTextures[(mActiveTexture - GL_TEXTURE0) % mBoundTextures.length] = texture;
+	}
+
+	/* Queries: results are available at once, and timestamps advance 1 us per query. */
+
+	@Override
+	public void glGetQueryObjectiv(int query, int pname, int params[], int offset)
+	{
+		params[offset] = (pname == GL_QUERY_RESULT_AVAILABLE ? GL_TRUE : 0);
+	}
+
+	@Override
+	public void glGetQueryObjectui64v(int query, int pname, long params[], int offset)
+	{
+		mTimestamp += 1000;
+		params[offset] = mTimestamp;
+	}
+
+	/* Buffer objects. */
+
+	@Override
+	public void glBindBuffer(int target, int buffer)
+	{
+		switch (target)
+		{
+		case GL_PIXEL_PACK_BUFFER:    mBoundPackBuffer = buffer; break;
+		case GL_PIXEL_UNPACK_BUFFER:  mBoundUnpackBuffer = buffer; break;
+		case GL_ARRAY_BUFFER:         mBoundArrayBuffer = buffer; break;
+		case GL_ELEMENT_ARRAY_BUFFER: mBoundElementBuffer = buffer; break;
+		case GL_UNIFORM_BUFFER:       mBoundUniformBuffer = buffer; break;
+		}
+	}
+
+	private int getBoundBuffer(int target)
+	{
+		switch (target)
+		{
+		case GL_PIXEL_PACK_BUFFER:    return mBoundPackBuffer;
+		case GL_PIXEL_UNPACK_BUFFER:  return mBoundUnpackBuffer;
+		case GL_ARRAY_BUFFER:         return mBoundArrayBuffer;
+		case GL_ELEMENT_ARRAY_BUFFER: return mBoundElementBuffer;
+		case GL_UNIFORM_BUFFER:       return mBoundUniformBuffer;
+		default:                      return 0;
+		}
+	}
+
+	@Override
+	public void glBufferData(int target, long size, java.nio.Buffer data, int usage)
+	{
+		int buffer = getBoundBuffer(target);
+		if (buffer == 0)
+		{
+			return;
+		}
+
+		if (buffer >= mBufferStorage.length)
+		{
+			mBufferStorage = Arrays.copyOf(mBufferStorage, Math.max(2 * mBufferStorage.length, buffer + 1));
+			mBufferSizes = Arrays.copyOf(mBufferSizes, mBufferStorage.length);
+		}
+
+		/* Storage is only reallocated to grow, so respecifying a buffer every frame doesn't allocate. */
+		ByteBuffer storage = mBufferStorage[buffer];
+		if (storage == null || storage.capacity() < size)
+		{
+			storage = ByteBuffer.allocateDirect((int)size).order(ByteOrder.nativeOrder());
+			mBufferStorage[buffer] = storage;
+		}
+		mBufferSizes[buffer] = (int)size;
+		storage.clear();
+		storage.limit((int)size);
+	}
+
+	@Override
+	public ByteBuffer glMapBuffer(int target, int access)
+	{
+		/* Callers may have moved the limit of the storage while it was last mapped. */
+		int buffer = getBoundBuffer(target);
+		ByteBuffer storage = getBufferStorage(buffer);
+		if (storage != null)
+		{
+			storage.clear();
+			storage.limit(mBufferSizes[buffer]);
+		}
+		return storage;
+	}
+
+	@Override public boolean glUnmapBuffer(int target) { return true; }
+
+	@Override
+	public void glGetTexImage(int target, int level, int format, int type, long offset)
+	{
+		ByteBuffer storage = getBufferStorage(mBoundPackBuffer);
+		if (storage == null)
+		{
+			return;
+		}
+
+		byte value = (byte)getBoundTexture();
+		storage.clear();
+		storage.limit(mBufferSizes[mBoundPackBuffer]);
+		for (int i = (int)offset; i < storage.limit(); ++i)
+		{
+			storage.put(i, value);
+		}
+	}
+
+	/* NV fences. */
+
+	@Override
+	public void glSetFenceNV(int fence, int condition)
+	{
+		if (fence >= mFenceCommands.length)
+		{
+			mFenceCommands = Arrays.copyOf(mFenceCommands, Math.max(2 * mFenceCommands.length, fence + 1));
+		}
+		mFenceCommands[fence] = ++mCommandCount;
+	}
+
+	@Override
+	public boolean glTestFenceNV(int fence)
+	{
+		return mFenceCommands[fence] <= mFinishedCommand;
+	}
+
+	@Override
+	public void glFinishFenceNV(int fence)
+	{
+		mFinishedCommand = Math.max(mFinishedCommand, mFenceCommands[fence]);
+	}
+
+	@Override public void glFinish() { finishCommands(); }
+
+	/* Draws. */
+
+	@Override public void glDrawArrays(int mode, int first, int count) { ++mDrawCount; }
+	@Override public void glDrawElements(int mode, int count, int type, long offset) { ++mDrawCount; }
+	@Override public void glDrawElements(int mode, int count, int type, java.nio.Buffer indices) { ++mDrawCount; }
+	@Override public void glDrawElementsInstanced(int mode, int count, int type, java.nio.Buffer indices, int instances) { ++mDrawCount; }
+}
@@ -0,0 +1,236 @@
+package cs5625.deferred.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
+
+import cs5625.deferred.scenegraph.FlatSceneGraph;
+import cs5625.deferred.scenegraph.SceneObject;
+
+/**
+ * FlatSceneGraphBenchmark.java
+ *
+ * Times `FlatSceneGraph.update()` on graphs of 100,001 nodes with random local transforms, against a
+ * recursive walk keeping a stack of Matrix4f world matrices, as a traversal without the flat graph would.
+ * The graphs are a wide tree (100 groups of 1000 nodes) and a random tree (each node's parent picked among
+ * the nodes before it). Checks that both give the same matrices, and that they agree with
+ * `SceneObject.transformPointToWorldSpace()`, also on a 5000-deep chain. Also times the first update, which
+ * flattens the graph, and checks that adding a node makes the next update flatten it again.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FlatSceneGraphBenchmark
+{
+	private static final int NODE_COUNT = 100001;
+
+	/* Largest error of a transformed point, relative to its distance from the origin (or 1, if less). */
+	private static final float MAX_RELATIVE_ERROR = 1e-5f;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("FlatSceneGraphBenchmark");
+
+		report.note("%-28s %8s %14s %12s %12s %8s", "graph", "nodes", "first update", "recursive", "flat", "speedup");
+		benchmarkGraph(report, "wide (100 groups of 1000)", createWideTree(new Random(5625)));
+		benchmarkGraph(report, "random tree", createRandomTree(new Random(5625)));
+		checkChain(report, 5000);
+		checkRestructure(report);
+
+		report.finish();
+	}
+
+	private static void benchmarkGraph(CheckReport report, String name, final SceneObject root) throws Exception
+	{
+		long start = System.nanoTime();
+		final FlatSceneGraph graph = new FlatSceneGraph(root);
+		graph.update();
+		double first = (System.nanoTime() - start) / 1.0e6;
+
+		report.expect(graph.getNodeCount() == NODE_COUNT, name + ": " + graph.getNodeCount() + " nodes flattened");
+
+		final float recursive[] = new float[12 * graph.getNodeCount()];
+		double recursiveTime = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				Matrix4f stack[] = new Matrix4f[64];
+				stack[0] = new Matrix4f();
+				stack[0].setIdentity();
+				updateRecursively(root, stack, 0, new Matrix4f(), recursive);
+			}
+		}.best(10, 30);
+
+		double flatTime = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				graph.update();
+			}
+		}.best(10, 30);
+
+		float maxDifference = 0.0f;
+		float world[] = graph.getWorldMatrices();
+		for (int i = 0; i < recursive.length; ++i)
+		{
+			maxDifference = Math.max(maxDifference, Math.abs(world[i] - recursive[i]) / Math.max(1.0f, Math.abs(recursive[i])));
+		}
+		report.expect(maxDifference <= MAX_RELATIVE_ERROR, name + ": flat and recursive matrices differ by " + maxDifference);
+
+		float error = getPointError(graph);
+		report.expect(error <= MAX_RELATIVE_ERROR, name + ": transformPointToWorldSpace() differs by " + error);
+
+		report.note("%-28s %8d %11.1f ms %9.2f ms %9.2f ms %7.2fx", name, graph.getNodeCount(), first, recursiveTime, flatTime, recursiveTime / flatTime);
+		report.note("%-28s largest relative difference from the recursive walk %.2g, from transformPointToWorldSpace() %.2g", "", maxDifference, error);
+	}
+
+	/* A chain is the worst case for accumulated error, and for recursion; the graph has neither. */
+	private static void checkChain(CheckReport report, int length) throws Exception
+	{
+		Random random = new Random(5625);
+		SceneObject root = new SceneObject();
+		SceneObject last = root;
+		for (int i = 1; i < length; ++i)
+		{
+			SceneObject node = new SceneObject();
+			node.getPosition().set(0.1f * (random.nextFloat() - 0.5f), 0.1f * (random.nextFloat() - 0.5f), 0.1f * (random.nextFloat() - 0.5f));
+			node.setOrientation(getRandomOrientation(random, 0.05f));
+			last.addChild(node);
+			last = node;
+		}
+
+		FlatSceneGraph graph = new FlatSceneGraph(root);
+		graph.update();
+		float error = getPointError(graph);
+		report.expect(graph.getNodeCount() == length && error <= 2.0f * MAX_RELATIVE_ERROR, length + "-deep chain: transformPointToWorldSpace() differs by " + error);
+		report.note("%d-deep chain: largest relative difference from transformPointToWorldSpace() %.2g", length, error);
+	}
+
+	/* Adding and removing nodes marks the graph as changed; the next update flattens it again. */
+	private static void checkRestructure(CheckReport report) throws Exception
+	{
+		SceneObject root = createWideTree(new Random(5625));
+		FlatSceneGraph graph = new FlatSceneGraph(root);
+		graph.update();
+
+		SceneObject group = root.getChildren().get(50);
+		SceneObject added = new SceneObject();
+		added.getPosition().set(1.0f, 2.0f, 3.0f);
+		group.addChild(added);
+		report.expect(graph.isChanged(), "Adding a node marks the graph as changed");
+
+		graph.update();
+		report.expect(!graph.isChanged() && graph.getNodeCount() == NODE_COUNT + 1 && graph.getObject(added.getFlatIndex()) == added,
+				"The next update flattens it again, with " + graph.getNodeCount() + " nodes");
+		report.expect(getPointError(graph) <= MAX_RELATIVE_ERROR, "Matrices are right after flattening again");
+
+		group.removeChild(added);
+		graph.update();
+		report.expect(graph.getNodeCount() == NODE_COUNT && added.getFlatGraph() == null, "Removing it flattens it again, without it");
+	}
+
+	/*
+	 * World matrices by recursion with a stack of Matrix4f: each node's is its parent's times its local
+	 * matrix. Stored in `result` at the node's flat index, in the graph's layout, for comparison.
+	 */
+	private static void updateRecursively(SceneObject node, Matrix4f stack[], int depth, Matrix4f local, float result[])
+	{
+		Quat4f orientation = new Quat4f();
+		orientation.normalize(node.getOrientation());
+		local.set(orientation, new Vector3f(node.getPosition()), node.getScale());
+
+		if (stack[depth + 1] == null)
+		{
+			stack[depth + 1] = new Matrix4f();
+		}
+		Matrix4f world = stack[depth + 1];
+		world.mul(stack[depth], local);
+
+		int i = 12 * node.getFlatIndex();
+		result[i] = world.m00;     result[i + 1] = world.m01; result[i + 2] = world.m02;   result[i + 3] = world.m03;
+		result[i + 4] = world.m10; result[i + 5] = world.m11; result[i + 6] = world.m12;   result[i + 7] = world.m13;
+		result[i + 8] = world.m20; result[i + 9] = world.m21; result[i + 10] = world.m22; result[i + 11] = world.m23;
+
+		List<SceneObject> children = node.getChildren();
+		for (int c = 0; c < children.size(); ++c)
+		{
+			updateRecursively(children.get(c), stack, depth + 1, local, result);
+		}
+	}
+
+	/* The largest difference between a point transformed by each node's flat matrix and by the node itself. */
+	private static float getPointError(FlatSceneGraph graph)
+	{
+		Point3f point = new Point3f(0.3f, -0.2f, 0.5f);
+		Point3f flat = new Point3f();
+		Matrix4f matrix = new Matrix4f();
+
+		float maxError = 0.0f;
+		for (int i = 0; i < graph.getNodeCount(); ++i)
+		{
+			Point3f expected = graph.getObject(i).transformPointToWorldSpace(point);
+			graph.getWorldMatrix(i, matrix);
+			matrix.transform(point, flat);
+
+			float distance = (float)Math.sqrt(expected.x * expected.x + expected.y * expected.y + expected.z * expected.z);
+			maxError = Math.max(maxError, flat.distance(expected) / Math.max(1.0f, distance));
+		}
+		return maxError;
+	}
+
+	/* The root, with 100 groups of 1000 nodes: each group and its 999 children. */
+	private static SceneObject createWideTree(Random random) throws Exception
+	{
+		SceneObject root = createNode(random);
+		for (int g = 0; g < (NODE_COUNT - 1) / 1000; ++g)
+		{
+			SceneObject group = createNode(random);
+			root.addChild(group);
+			for (int i = 1; i < 1000; ++i)
+			{
+				group.addChild(createNode(random));
+			}
+		}
+		return root;
+	}
+
+	/* Each node's parent is a random node from before it; about ln(100000), so 12, deep on average. */
+	private static SceneObject createRandomTree(Random random) throws Exception
+	{
+		ArrayList<SceneObject> nodes = new ArrayList<SceneObject>(NODE_COUNT);
+		nodes.add(createNode(random));
+		for (int i = 1; i < NODE_COUNT; ++i)
+		{
+			SceneObject node = createNode(random);
+			nodes.get(random.nextInt(i)).addChild(node);
+			nodes.add(node);
+		}
+		return nodes.get(0);
+	}
+
+	private static SceneObject createNode(Random random)
+	{
+		SceneObject node = new SceneObject();
+		node.getPosition().set(2.0f * random.nextFloat() - 1.0f, 2.0f * random.nextFloat() - 1.0f, 2.0f * random.nextFloat() - 1.0f);
+		node.setOrientation(getRandomOrientation(random, 1.0f));
+		node.setScale(0.9f + 0.2f * random.nextFloat());
+		return node;
+	}
+
+	/* A unit quaternion rotating by up to `amount` times a half turn about a random axis. */
+	private static Quat4f getRandomOrientation(Random random, float amount)
+	{
+		Vector3f axis = new Vector3f((float)random.nextGaussian(), (float)random.nextGaussian(), (float)random.nextGaussian());
+		axis.normalize();
+		float angle = amount * (float)Math.PI * random.nextFloat();
+		float s = (float)Math.sin(angle / 2.0f);
+		return new Quat4f(axis.x * s, axis.y * s, axis.z * s, (float)Math.cos(angle / 2.0f));
+	}
+}
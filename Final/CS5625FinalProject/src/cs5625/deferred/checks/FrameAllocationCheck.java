@@ -0,0 +1,166 @@
+package cs5625.deferred.checks;
+
+import java.util.ArrayList;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.vecmath.AxisAngle4f;
+import javax.vecmath.Color3f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+import cs5625.deferred.custom.Circ;
+import cs5625.deferred.custom.Effector;
+import cs5625.deferred.custom.Gravity;
+import cs5625.deferred.custom.ParticleSystem;
+import cs5625.deferred.materials.AnisotropicWardMaterial;
+import cs5625.deferred.materials.UnshadedMaterial;
+import cs5625.deferred.rendering.Camera;
+import cs5625.deferred.rendering.FrameAllocationMonitor;
+import cs5625.deferred.rendering.Renderer;
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.MeshRegistry;
+import cs5625.deferred.scenegraph.PointLight;
+import cs5625.deferred.scenegraph.SceneObject;
+
+/**
+ * FrameAllocationCheck.java
+ *
+ * Renders frames of a scene like the custom scene (the default scene with levels of detail and compact
+ * vertex data, a particle system, shadows, snow, and a cloud of instanced light spheres) on a
+ * `FakeGL2`, and fails if frames after warm-up allocate heap memory, as measured by the renderer's
+ * `FrameAllocationMonitor`. The scene is animated between frames, outside of the measurement.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameAllocationCheck
+{
+	private static final int WARMUP_FRAMES = 300;
+	private static final int MEASURED_FRAMES = 300;
+
+	/* While C2 is still recompiling the renderer, a frame now and then allocates a few hundred bytes in 
+	 * the runtime (with -XX:TieredStopAtLevel=1 or -Xint, none do), so a handful of allocating frames is 
+	 * tolerated. Anything the renderer itself allocates shows up in every frame, or every few. */
+	private static final int MAX_ALLOCATING_FRAMES = MEASURED_FRAMES / 100;
+
+	/* Scene time (ms) simulated before the first frame: longer than a particle lives, so that the particle
+	 * system is at its steady-state population and buffers sized by it are done growing. */
+	private static final float SETTLE_TIME = 20000.0f;
+	private static final float FRAME_TIME = 1000.0f / 60.0f;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("FrameAllocationCheck");
+
+		FakeGL2 gl = new FakeGL2();
+		GLAutoDrawable drawable = gl.createDrawable();
+
+		Renderer renderer = new Renderer();
+		renderer.init(drawable);
+		renderer.resize(drawable, 800, 600);
+		renderer.setAllocationCheck(true, false);
+
+		FrameAllocationMonitor monitor = renderer.getAllocationMonitor();
+		if (!monitor.isSupported())
+		{
+			System.out.println("FrameAllocationCheck: this JVM doesn't report per-thread allocations; skipped.");
+			return;
+		}
+		monitor.setWarmupFrames(WARMUP_FRAMES);
+
+		SceneObject root = createScene();
+		Camera camera = createCamera(new Point3f(8.0f, 8.0f, 8.0f), 45.0f, -36.0f);
+		Camera shadowCamera = createCamera(new Point3f(-8.0f, 8.0f, 8.0f), -45.0f, -36.0f);
+		shadowCamera.setIsShadowMapCamera(true);
+		Camera snowCamera = createCamera(new Point3f(0.0f, 15.0f, 0.0f), 0.0f, -90.0f);
+		snowCamera.setIsSnowOcclusionMapCamera(true);
+		snowCamera.setWidth(15.0f);
+		snowCamera.setHeight(15.0f);
+
+		for (float time = 0.0f; time < SETTLE_TIME; time += FRAME_TIME)
+		{
+			root.animate(FRAME_TIME);
+		}
+
+		long allocatedBytes = 0;
+		for (int frame = 0; frame < WARMUP_FRAMES + MEASURED_FRAMES; ++frame)
+		{
+			root.animate(FRAME_TIME);
+			renderer.render(drawable, root, camera, shadowCamera, snowCamera);
+
+			if (frame >= WARMUP_FRAMES)
+			{
+				allocatedBytes += monitor.getLastFrameAllocatedBytes();
+			}
+		}
+
+		report.note("%d frames after warm-up allocated %d bytes in all (%d frames allocated).",
+				MEASURED_FRAMES, allocatedBytes, monitor.getAllocatingFrameCount());
+		report.expectAtMost(monitor.getAllocatingFrameCount(), MAX_ALLOCATING_FRAMES, "Frames which allocated");
+
+		report.finish();
+	}
+
+	/* The custom scene, without the simulation thread. */
+	private static SceneObject createScene() throws Exception
+	{
+		SceneObject root = new SceneObject();
+
+		ArrayList<Effector> effectors = new ArrayList<Effector>();
+		effectors.add(new Gravity(new Point3f(), -0.000002f, new AxisAngle4f()));
+		effectors.add(new Circ(new Point3f(), 0.000001f, new AxisAngle4f()));
+		root.addChild(new ParticleSystem(1000, 12, 6, 15000, 1, new Point3f(0.0f, 10.0f, 0.0f), 9.0f, effectors));
+
+		PointLight moonlight = new PointLight();
+		moonlight.setPosition(new Point3f(10.0f, 12.0f, 10.0f));
+		root.addChild(moonlight);
+
+		/* Materials can't be loaded without a current context, so the torus gets a material which needs 
+		 * tangents, to cover drawing generic attributes from compact data. */
+		root.addGeometry(Geometry.load("models/default-scene.obj", false, true));
+		((Geometry)root.findDescendantByName("Torus")).getMeshes().get(0).setMaterial(new AnisotropicWardMaterial());
+		root.calculateTangentVectorsForAllGeometry();
+		root.generateLevelsOfDetailForAllGeometry(4, 0.5f);
+		root.compactVertexDataForAllGeometry();
+
+		SceneObject lightCloud = new SceneObject();
+		lightCloud.getPosition().y = 2.0f;
+		root.addChild(lightCloud);
+
+		for (int i = 0; i < 30; ++i)
+		{
+			float angle = (float)(2.0 * Math.PI * i / 30.0);
+
+			PointLight light = new PointLight();
+			Color3f color = new Color3f(0.5f + 0.5f * (float)Math.cos(angle), 0.5f + 0.5f * (float)Math.sin(angle), 1.0f);
+			light.setColor(color);
+			light.setPosition(new Point3f(4.0f * (float)Math.cos(angle), (i % 5) - 2.0f, 4.0f * (float)Math.sin(angle)));
+
+			Geometry sphere = MeshRegistry.getShared().loadFirst("models/lowpolysphere.obj");
+			sphere.setScale(0.1f);
+			sphere.getMeshes().get(0).setMaterial(new UnshadedMaterial(color));
+			light.addChild(sphere);
+
+			lightCloud.addChild(light);
+		}
+
+		return root;
+	}
+
+	/* A camera at `position`, turned `longitude` degrees about y and then `latitude` degrees about x. */
+	private static Camera createCamera(Point3f position, float longitude, float latitude)
+	{
+		Camera camera = new Camera();
+		camera.setPosition(position);
+
+		Quat4f turn = new Quat4f();
+		turn.set(new AxisAngle4f(0.0f, 1.0f, 0.0f, (float)Math.toRadians(longitude)));
+		Quat4f tilt = new Quat4f();
+		tilt.set(new AxisAngle4f(1.0f, 0.0f, 0.0f, (float)Math.toRadians(latitude)));
+		camera.getOrientation().mul(turn, tilt);
+
+		return camera;
+	}
+}
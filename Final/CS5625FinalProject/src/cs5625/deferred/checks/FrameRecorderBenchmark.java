@@ -0,0 +1,215 @@
+package cs5625.deferred.checks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.PngDecoder;
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.materials.TextureData;
+import cs5625.deferred.rendering.AsyncReadback;
+import cs5625.deferred.rendering.FrameRecorder;
+
+/**
+ * FrameRecorderBenchmark.java
+ *
+ * Measures the sustained throughput and compression ratio of `FrameRecorder` at each setting of its
+ * encoder ladder, on synthetic 1280x720 frames (a moving gradient with some noise, so they compress like
+ * rendered frames rather than like noise) submitted as fast as the recorder takes them, and which setting
+ * a 30 fps target settles on. Checks that no frame is dropped or fails, that every file decodes to exactly
+ * the pixels submitted, and that frames captured through `AsyncReadback` on a `FakeGL2` reuse their
+ * readback buffers once encoded.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameRecorderBenchmark
+{
+	private static final int WIDTH = 1280;
+	private static final int HEIGHT = 720;
+	private static final int FRAME_COUNT = 24;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("FrameRecorderBenchmark");
+
+		ByteBuffer frames[] = new ByteBuffer[FRAME_COUNT];
+		Random random = new Random(5625);
+		for (int i = 0; i < FRAME_COUNT; ++i)
+		{
+			frames[i] = createFrame(WIDTH, HEIGHT, i, random);
+		}
+
+		File directory = new File(System.getProperty("java.io.tmpdir"), "cs5625-frame-benchmark-" + System.nanoTime());
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		/* One untimed pass over the ladder, so that the JIT has compiled the encoders before any is measured. */
+		for (int ladderIndex = 0; ladderIndex < 4; ++ladderIndex)
+		{
+			FrameRecorder recorder = new FrameRecorder(directory, "warmup" + ladderIndex + "_", threads, FrameRecorder.DEFAULT_MAX_QUEUED_FRAMES);
+			recorder.setLadderIndex(ladderIndex);
+			record(recorder, frames, 4);
+		}
+
+		report.note("%d %dx%d frames per setting, %d encoder threads on %d cores", FRAME_COUNT, WIDTH, HEIGHT, threads, Runtime.getRuntime().availableProcessors());
+		report.note("%-16s %10s %8s %12s", "setting", "MB/s", "ratio", "queue waits");
+		for (int ladderIndex = 0; ladderIndex < 4; ++ladderIndex)
+		{
+			FrameRecorder recorder = new FrameRecorder(directory, "ladder" + ladderIndex + "_", threads, FrameRecorder.DEFAULT_MAX_QUEUED_FRAMES);
+			recorder.setLadderIndex(ladderIndex);
+			String name = recorder.getLadderFilter(ladderIndex).name().replace("FILTER_", "") + "/" + recorder.getLadderCompression(ladderIndex);
+
+			report.expect(record(recorder, frames, FRAME_COUNT), name + ": recording finished");
+			report.expect(recorder.getWrittenCount() == FRAME_COUNT && recorder.getFailedCount() == 0,
+					name + ": " + recorder.getWrittenCount() + " of " + FRAME_COUNT + " frames written, " + recorder.getFailedCount() + " failed");
+			report.expect(matchFrames(recorder, frames), name + ": every file decodes to the frame submitted");
+
+			report.note("%-16s %10.1f %8.2f %12d", name, recorder.getSustainedThroughput() / (1024.0 * 1024.0),
+					recorder.getFileBytes() / (double)recorder.getRawBytes(), recorder.getQueueWaitCount());
+		}
+
+		benchmarkTarget(report, directory, frames, threads);
+		checkBufferRecycling(report, directory);
+
+		for (File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+
+		report.finish();
+	}
+
+	/* Records 72 frames with a 30 fps target, starting from the strongest setting, and reports where it settled. */
+	private static void benchmarkTarget(CheckReport report, File directory, ByteBuffer frames[], int threads) throws Exception
+	{
+		FrameRecorder recorder = new FrameRecorder(directory, "target_", threads, FrameRecorder.DEFAULT_MAX_QUEUED_FRAMES);
+		recorder.setLadderIndex(0);
+		recorder.setThroughputTarget(WIDTH * HEIGHT * 3 * 30.0);
+
+		for (int pass = 0; pass < 3; ++pass)
+		{
+			for (ByteBuffer frame : frames)
+			{
+				recorder.submit(frame, WIDTH, HEIGHT);
+			}
+		}
+		report.expect(recorder.finish(null, null, 600000), "30 fps target: recording finished");
+		recorder.shutdown();
+
+		report.expect(recorder.getWrittenCount() == 3 * FRAME_COUNT && recorder.getFailedCount() == 0,
+				"30 fps target: " + recorder.getWrittenCount() + " of " + (3 * FRAME_COUNT) + " frames written");
+
+		int ladderIndex = recorder.getLadderIndex();
+		report.note("30 fps target (%.1f MB/s): settled on %s/%d, sustained %.1f MB/s, ratio %.2f", recorder.getThroughputTarget() / (1024.0 * 1024.0),
+				recorder.getLadderFilter(ladderIndex).name().replace("FILTER_", ""), recorder.getLadderCompression(ladderIndex),
+				recorder.getSustainedThroughput() / (1024.0 * 1024.0), recorder.getFileBytes() / (double)recorder.getRawBytes());
+	}
+
+	/*
+	 * Captures 300 64x64 frames through AsyncReadback into a recorder with 4 encoders and 8 queued frames;
+	 * every readback buffer goes back to the pool once encoded, so at most one per readback slot and queued
+	 * frame, plus the one `capture()` reads into while it waits for a queue slot, is ever allocated.
+	 */
+	private static void checkBufferRecycling(CheckReport report, File directory) throws Exception
+	{
+		FakeGL2 gl = new FakeGL2();
+		AsyncReadback readback = new AsyncReadback();
+		Texture2D scene = new Texture2D(gl, Format.RGB, Datatype.INT8, 64, 64, null);
+		FrameRecorder recorder = new FrameRecorder(directory, "readback_", 4, 8);
+		recorder.setLadderIndex(3);
+
+		for (int frame = 0; frame < 300; ++frame)
+		{
+			recorder.capture(gl, readback, scene);
+			gl.finishCommands();
+			readback.update(gl);
+		}
+		report.expect(recorder.finish(gl, readback, 60000), "Captured frames: recording finished");
+		recorder.shutdown();
+
+		long allocated = readback.getAllocatedBufferCount();
+		report.expect(recorder.getWrittenCount() == 300 && recorder.getFailedCount() == 0, "Captured frames: " + recorder.getWrittenCount() + " of 300 written");
+		report.expect(allocated <= readback.getSlotCount() + 8 + 1, "Captured frames: " + allocated + " readback buffers allocated for 300 frames");
+		report.note("300 captured 64x64 frames (4 encoders, 8 queued) allocated %d readback buffers", allocated);
+	}
+
+	/* Submits the first `count` frames and waits until they're saved. */
+	private static boolean record(FrameRecorder recorder, ByteBuffer frames[], int count) throws Exception
+	{
+		for (int i = 0; i < count; ++i)
+		{
+			recorder.submit(frames[i], WIDTH, HEIGHT);
+		}
+		boolean finished = recorder.finish(null, null, 600000);
+		recorder.shutdown();
+		return finished;
+	}
+
+	/* Decodes every file the recorder wrote, and compares it with the RGB8 frame submitted. */
+	private static boolean matchFrames(FrameRecorder recorder, ByteBuffer frames[]) throws Exception
+	{
+		for (int frame = 0; frame < recorder.getFrameCount(); ++frame)
+		{
+			InputStream stream = new FileInputStream(recorder.getFile(frame));
+			TextureData data;
+			try
+			{
+				data = PngDecoder.decode(stream, recorder.getFile(frame).getName());
+			}
+			finally
+			{
+				stream.close();
+			}
+
+			if (data.getWidth() != WIDTH || data.getHeight() != HEIGHT)
+			{
+				return false;
+			}
+
+			/* The decoder gives RGBA8, bottom row first, as the frames are. */
+			ByteBuffer decoded = data.getData();
+			ByteBuffer expected = frames[frame];
+			for (int pixel = 0; pixel < WIDTH * HEIGHT; ++pixel)
+			{
+				for (int c = 0; c < 3; ++c)
+				{
+					if (decoded.get(4 * pixel + c) != expected.get(3 * pixel + c))
+					{
+						return false;
+					}
+				}
+				if (decoded.get(4 * pixel + 3) != (byte)0xff)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/* An RGB8 frame: gradients which move from frame to frame, plus a little noise. */
+	private static ByteBuffer createFrame(int width, int height, int frame, Random random)
+	{
+		ByteBuffer data = Buffers.newDirectByteBuffer(3 * width * height);
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				data.put((byte)((x + 4 * frame) / 5 + random.nextInt(4)));
+				data.put((byte)((y + 3 * frame) / 3 + random.nextInt(4)));
+				data.put((byte)(((x + y) / 7 + 8 * frame) + random.nextInt(4)));
+			}
+		}
+		data.rewind();
+		return data;
+	}
+}
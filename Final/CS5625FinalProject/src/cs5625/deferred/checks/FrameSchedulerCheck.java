@@ -0,0 +1,331 @@
+package cs5625.deferred.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.vecmath.AxisAngle4f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+import cs5625.deferred.apps.FrameScheduler;
+import cs5625.deferred.apps.SimulationSnapshot;
+import cs5625.deferred.custom.Effector;
+import cs5625.deferred.custom.Gravity;
+import cs5625.deferred.custom.ParticleSystem;
+import cs5625.deferred.scenegraph.SceneObject;
+
+/**
+ * FrameSchedulerCheck.java
+ *
+ * Checks the fixed-timestep simulation thread and its snapshots, without a window. First
+ * `SimulationSnapshot` on its own: interpolation of transforms, and that captured particles don't change
+ * with the live ones. Then a `FrameScheduler` runs a simulation which moves an object at a constant speed
+ * while this thread "renders" frames, checking that frames never see a torn or recaptured snapshot, that
+ * motion is smooth, and that ticks keep pace, catch up, and drop as documented. Tick jitter and
+ * simulation/render overlap are printed.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameSchedulerCheck
+{
+	private static final double TICK_RATE = 60.0;
+	private static final long RUN_MILLIS = 2000;
+
+	/* Units the moving object travels per second, along x and y together. */
+	private static final float SPEED = 6.0f;
+
+	/* Moves an object at `SPEED`, writing x and y separately so that a capture during a tick would tear. */
+	private static class MovingSimulation implements FrameScheduler.Simulation
+	{
+		final SceneObject object;
+		volatile long stallTick = -1;
+		volatile long stallMillis = 0;
+		long tickCount = 0;
+		float lastDt = -1.0f;
+		boolean constantDt = true;
+
+		MovingSimulation(SceneObject object)
+		{
+			this.object = object;
+		}
+
+		@Override
+		public void tick(float dt)
+		{
+			constantDt &= (lastDt < 0.0f || lastDt == dt);
+			lastDt = dt;
+
+			object.getPosition().x += SPEED * dt;
+			Thread.yield();
+			object.getPosition().y += SPEED * dt;
+
+			if (tickCount++ == stallTick)
+			{
+				sleep(stallMillis);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("FrameSchedulerCheck");
+
+		checkInterpolation(report);
+		checkParticleSnapshots(report);
+		checkScheduler(report);
+		checkCatchUp(report);
+
+		report.finish();
+	}
+
+	private static void checkInterpolation(CheckReport report) throws Exception
+	{
+		SceneObject root = new SceneObject();
+		SceneObject child = new SceneObject();
+		root.addChild(child);
+
+		SimulationSnapshot before = SimulationSnapshot.capture(root, 0, 0);
+
+		child.getPosition().set(10.0f, -4.0f, 2.0f);
+		child.getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, (float)Math.PI / 2.0f));
+		child.setScale(3.0f);
+		SimulationSnapshot after = SimulationSnapshot.capture(root, 1, 1000);
+
+		report.expect(before.getObjectCount() == 2 && after.getObjectCount() == 2, "Snapshots hold the root and its child");
+
+		/* Changing the live scene doesn't change a snapshot. */
+		child.getPosition().set(100.0f, 100.0f, 100.0f);
+
+		Point3f scratchPosition = new Point3f();
+		Quat4f scratchOrientation = new Quat4f();
+
+		after.apply(before, 0.5f, scratchPosition, scratchOrientation);
+		report.expect(child.getRenderPosition().epsilonEquals(new Point3f(5.0f, -2.0f, 1.0f), 1e-6f), "Halfway position: " + child.getRenderPosition());
+		report.expectClose(child.getRenderScale(), 2.0, 1e-6, "Halfway scale");
+		report.expectClose(getAngle(child.getRenderOrientation()), Math.PI / 4.0, 1e-5, "Halfway rotation (radians)");
+		report.expectClose(length(child.getRenderOrientation()), 1.0, 1e-6, "Interpolated orientation is normalized");
+
+		after.apply(before, 0.0f, scratchPosition, scratchOrientation);
+		report.expect(child.getRenderPosition().epsilonEquals(new Point3f(), 1e-6f), "alpha 0 draws the previous snapshot");
+		after.apply(before, 1.0f, scratchPosition, scratchOrientation);
+		report.expect(child.getRenderPosition().epsilonEquals(new Point3f(10.0f, -4.0f, 2.0f), 1e-6f), "alpha 1 draws the latest snapshot");
+		after.apply(null, 0.25f, scratchPosition, scratchOrientation);
+		report.expect(child.getRenderPosition().epsilonEquals(new Point3f(10.0f, -4.0f, 2.0f), 1e-6f), "Without a previous snapshot, the latest is drawn as is");
+		report.expect(child.getPosition().x == 100.0f, "Applying a snapshot leaves the live transform alone");
+
+		/* q and -q are the same rotation: interpolation takes the short way round. */
+		child.getPosition().set(0.0f, 0.0f, 0.0f);
+		child.getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, 0.2f));
+		SimulationSnapshot near = SimulationSnapshot.capture(root, 2, 2000);
+		child.getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, 0.4f));
+		child.getOrientation().negate();
+		SimulationSnapshot flipped = SimulationSnapshot.capture(root, 3, 3000);
+		flipped.apply(near, 0.5f, scratchPosition, scratchOrientation);
+		report.expectClose(getAngle(child.getRenderOrientation()), 0.3, 1e-5, "Interpolating to a negated quaternion takes the short arc");
+
+		/* Objects added between snapshots: nothing is interpolated. */
+		root.addChild(new SceneObject());
+		SimulationSnapshot grown = SimulationSnapshot.capture(root, 4, 4000);
+		grown.apply(near, 0.5f, scratchPosition, scratchOrientation);
+		report.expectClose(getAngle(child.getRenderOrientation()), 0.4, 1e-5, "Snapshots of different scenes aren't interpolated");
+
+		grown.clear();
+		report.expect(child.getRenderPosition() == child.getPosition(), "clear() gives the live transform back to the renderer");
+	}
+
+	private static void checkParticleSnapshots(CheckReport report) throws Exception
+	{
+		ArrayList<Effector> effectors = new ArrayList<Effector>();
+		effectors.add(new Gravity(new Point3f(), -0.000002f, new AxisAngle4f()));
+		ParticleSystem particles = new ParticleSystem(200, 12, 6, 15000, 1, new Point3f(0.0f, 10.0f, 0.0f), 9.0f, effectors);
+
+		SceneObject root = new SceneObject();
+		root.addChild(particles);
+
+		for (int i = 0; i < 120; ++i)
+		{
+			root.animate(1000.0f / 60.0f);
+		}
+
+		SimulationSnapshot snapshot = SimulationSnapshot.capture(root, 0, 0);
+		report.expect(snapshot.getParticleCount() > 0, "Snapshot captured " + snapshot.getParticleCount() + " particles");
+
+		snapshot.apply(null, 1.0f, new Point3f(), new Quat4f());
+		float captured[] = Arrays.copyOf(particles.getRenderPositions(), 3 * particles.getRenderCount());
+		report.expect(particles.getRenderCount() == snapshot.getParticleCount(), "Renderer is given every captured particle");
+
+		for (int i = 0; i < 60; ++i)
+		{
+			root.animate(1000.0f / 60.0f);
+		}
+
+		snapshot.apply(null, 1.0f, new Point3f(), new Quat4f());
+		float later[] = Arrays.copyOf(particles.getRenderPositions(), 3 * particles.getRenderCount());
+		report.expect(Arrays.equals(captured, later), "Captured particle positions don't change as the simulation runs on");
+
+		snapshot.clear();
+		report.expect(particles.getRenderPositions() == null, "clear() gives the live particles back to the renderer");
+	}
+
+	private static void checkScheduler(CheckReport report) throws Exception
+	{
+		final ArrayList<Throwable> errors = new ArrayList<Throwable>();
+		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread thread, Throwable error)
+			{
+				synchronized (errors)
+				{
+					errors.add(error);
+				}
+			}
+		});
+
+		SceneObject root = new SceneObject();
+		SceneObject mover = new SceneObject();
+		root.addChild(mover);
+
+		MovingSimulation simulation = new MovingSimulation(mover);
+		FrameScheduler scheduler = new FrameScheduler(root, simulation, TICK_RATE, FrameScheduler.DEFAULT_MAX_CATCH_UP_TICKS);
+
+		/* Every snapshot ever published, to see that they come from a small pool. */
+		final Map<SimulationSnapshot, Boolean> published = Collections.synchronizedMap(new IdentityHashMap<SimulationSnapshot, Boolean>());
+		scheduler.setListener(new FrameScheduler.Listener() {
+			@Override
+			public void snapshotPublished(SimulationSnapshot snapshot)
+			{
+				published.put(snapshot, Boolean.TRUE);
+			}
+		});
+
+		report.expect(scheduler.beginRender() == null, "Nothing to render before start()");
+		scheduler.endRender();
+
+		long startNanos = System.nanoTime();
+		scheduler.start();
+
+		/* "Render" at roughly 100 frames per second, half of each frame spent drawing. */
+		int frames = 0;
+		boolean torn = false, recaptured = false, backwards = false;
+		float lastX = -1.0f;
+		while (System.nanoTime() - startNanos < RUN_MILLIS * 1000000L)
+		{
+			SimulationSnapshot snapshot = scheduler.beginRender();
+			long tick = snapshot.getTick();
+			Point3f position = mover.getRenderPosition();
+
+			torn |= (position.x != position.y);
+			backwards |= (position.x < lastX - 1e-4f);
+			lastX = position.x;
+
+			spin(3);
+			sleep(2);
+
+			recaptured |= (snapshot.getTick() != tick);
+			scheduler.endRender();
+			++frames;
+
+			sleep(5);
+		}
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		report.expect(scheduler.stop(1000), "Simulation thread stops");
+		long ticksAtStop = scheduler.getTickCount();
+		sleep(100);
+
+		synchronized (errors)
+		{
+			report.expect(errors.isEmpty(), "Simulation thread threw " + errors);
+		}
+		report.expect(scheduler.getTickCount() == ticksAtStop, "No ticks after stop()");
+		report.expect(!torn, "Rendered transforms are never torn by a tick in progress");
+		report.expect(!recaptured, "A snapshot is never recaptured while it's being rendered");
+		report.expect(!backwards, "Rendered motion never goes backwards");
+		report.expect(simulation.constantDt, "Every tick has the same length");
+		report.expectClose(simulation.lastDt, 1.0 / TICK_RATE, 1e-6, "Tick length");
+		report.expectAtMost(published.size(), 5, "Distinct snapshots published");
+
+		/* Ticks keep pace with real time: every tick is run or dropped. */
+		double expectedTicks = elapsedNanos / 1.0e9 * TICK_RATE;
+		long accounted = scheduler.getTickCount() + scheduler.getDroppedTickCount();
+		report.expectClose(accounted, expectedTicks, 0.05 * expectedTicks + 2, "Ticks run or dropped");
+		/* The render before start() counts too. */
+		report.expect(scheduler.getRenderCount() == frames + 1, "Renders counted: " + scheduler.getRenderCount() + " of " + (frames + 1));
+		report.expect(scheduler.getOverlappedTickCount() > 0 && scheduler.getOverlappedRenderCount() > 0, "Ticks and renders overlap");
+
+		double lateness[] = scheduler.getTickLatenessStatistics();
+		report.expectAtMost(lateness[0], 1000.0 / TICK_RATE, "Average tick lateness (ms)");
+		report.note("%d frames in %.0f ms; %s", frames, elapsedNanos / 1.0e6, scheduler.getSummary());
+	}
+
+	private static void checkCatchUp(CheckReport report) throws Exception
+	{
+		SceneObject root = new SceneObject();
+		SceneObject mover = new SceneObject();
+		root.addChild(mover);
+
+		/* 100 ticks per second, at most 2 back to back; the 20th tick takes 200 ms, i.e. 20 ticks. */
+		MovingSimulation simulation = new MovingSimulation(mover);
+		simulation.stallTick = 20;
+		simulation.stallMillis = 200;
+		FrameScheduler scheduler = new FrameScheduler(root, simulation, 100.0, 2);
+
+		scheduler.start();
+		sleep(600);
+		scheduler.stop(1000);
+
+		report.expect(scheduler.getDroppedTickCount() >= 10, "A long tick makes the scheduler drop ticks it can't catch up on: "
+				+ scheduler.getDroppedTickCount() + " dropped");
+		report.expectAtMost(scheduler.getTickLatenessStatistics()[2], 250.0, "Worst tick lateness after a stall (ms)");
+		report.note("After a 200 ms tick: %s", scheduler.getSummary());
+
+		boolean threw = false;
+		try
+		{
+			new FrameScheduler(root, simulation, 60.0, 0);
+		}
+		catch (IllegalArgumentException e)
+		{
+			threw = true;
+		}
+		report.expect(threw, "A catch-up limit of 0 is refused");
+	}
+
+	/* Angle of the rotation a unit quaternion represents, in radians. */
+	private static double getAngle(Quat4f q)
+	{
+		return 2.0 * Math.acos(Math.min(1.0, Math.abs(q.w) / length(q)));
+	}
+
+	private static double length(Quat4f q)
+	{
+		return Math.sqrt(q.x * q.x + q.y * q.y + q.z * q.z + q.w * q.w);
+	}
+
+	private static void spin(long millis)
+	{
+		long end = System.nanoTime() + millis * 1000000L;
+		while (System.nanoTime() < end)
+		{
+			Thread.yield();
+		}
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package cs5625.deferred.checks;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URL;
+
+import cs5625.deferred.rendering.GaussianKernel;
+
+/**
+ * GaussianKernelCheck.java
+ *
+ * Checks the weights `GaussianKernel` precomputes for the blur shaders: texel weights follow the Gaussian and
+ * sum to 1, the bilinear taps reproduce the texel weights exactly, radii are clamped, kernels are cached,
+ * and `MAX_TAPS` matches the array size in gaussian_blur.fp.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class GaussianKernelCheck
+{
+	private static final double TOLERANCE = 1e-6;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("GaussianKernelCheck");
+
+		int radii[] = { 0, 1, 2, 3, 4, 7, 8, 16, 33, GaussianKernel.MAX_RADIUS };
+		float variances[] = { 0.5f, 1.0f, 4.0f, 25.0f, 400.0f };
+
+		for (int radius : radii)
+		{
+			for (float variance : variances)
+			{
+				checkKernel(report, GaussianKernel.get(radius, variance));
+			}
+		}
+
+		/* Without a positive variance, the kernel is the center texel alone. */
+		GaussianKernel identity = GaussianKernel.get(5, 0.0f);
+		report.expectClose(identity.getTexelWeight(0), 1.0, TOLERANCE, "Center weight of a zero-variance kernel");
+		report.expectClose(identity.getTexelWeight(1), 0.0, TOLERANCE, "Off-center weight of a zero-variance kernel");
+		checkKernel(report, identity);
+
+		/* Radii are clamped to [0, MAX_RADIUS], and the widest kernel fits the shader's arrays. */
+		report.expect(GaussianKernel.get(10 * GaussianKernel.MAX_RADIUS, 4.0f).getRadius() == GaussianKernel.MAX_RADIUS, "Radius above MAX_RADIUS is clamped");
+		report.expect(GaussianKernel.get(-3, 4.0f).getRadius() == 0, "Negative radius is clamped to 0");
+		report.expectAtMost(GaussianKernel.get(GaussianKernel.MAX_RADIUS, 4.0f).getTapCount(), GaussianKernel.MAX_TAPS, "Taps of the widest kernel");
+
+		Integer shaderTaps = readShaderTapCount("shaders/gaussian_blur.fp");
+		report.expect(shaderTaps != null && shaderTaps == GaussianKernel.MAX_TAPS,
+				"MAX_KERNEL_TAPS in gaussian_blur.fp is " + shaderTaps + ", but GaussianKernel.MAX_TAPS is " + GaussianKernel.MAX_TAPS);
+
+		/* Kernels are cached: the same one comes back, even after others were asked for. */
+		GaussianKernel first = GaussianKernel.get(6, 3.0f);
+		GaussianKernel.get(7, 3.0f);
+		GaussianKernel.get(6, 2.0f);
+		report.expect(GaussianKernel.get(6, 3.0f) == first, "Kernel is cached per (radius, variance)");
+		report.expect(GaussianKernel.get(6, 3.0f) == GaussianKernel.get(6, 3.0f), "Kernel asked for twice in a row is the same object");
+
+		report.finish();
+	}
+
+	private static void checkKernel(CheckReport report, GaussianKernel kernel)
+	{
+		int radius = kernel.getRadius();
+		float variance = kernel.getVariance();
+		String name = "Kernel (radius " + radius + ", variance " + variance + ")";
+
+		/* Texel weights sum to 1 over [-radius, radius], fall off with distance, and follow exp(-x^2 / 2v). */
+		double total = 0.0;
+		for (int i = -radius; i <= radius; ++i)
+		{
+			total += kernel.getTexelWeight(i);
+		}
+		report.expectClose(total, 1.0, 1e-5, name + ": sum of texel weights");
+
+		for (int i = 1; i <= radius; ++i)
+		{
+			report.expect(kernel.getTexelWeight(i) <= kernel.getTexelWeight(i - 1), name + ": weight of texel " + i + " is larger than texel " + (i - 1));
+			report.expectClose(kernel.getTexelWeight(-i), kernel.getTexelWeight(i), 0.0, name + ": weights are symmetric at " + i);
+
+			if (variance > 0.0f && kernel.getTexelWeight(0) > 0.0f)
+			{
+				double expected = kernel.getTexelWeight(0) * Math.exp(-(double)i * i / (2.0 * variance));
+				report.expectClose(kernel.getTexelWeight(i), expected, TOLERANCE, name + ": weight of texel " + i);
+			}
+		}
+		report.expectClose(kernel.getTexelWeight(radius + 1), 0.0, 0.0, name + ": weight outside the radius");
+
+		/* Reading the taps with linear filtering gives back every texel's weight. */
+		int tapCount = kernel.getTapCount();
+		float weights[] = kernel.getTapWeights();
+		float offsets[] = kernel.getTapOffsets();
+		report.expect(tapCount == 1 + (radius + 1) / 2, name + ": " + tapCount + " taps for " + (2 * radius + 1) + " texels");
+		report.expectClose(offsets[0], 0.0, 0.0, name + ": offset of the center tap");
+
+		double reconstructed[] = new double[radius + 2];
+		reconstructed[0] = weights[0];
+		for (int t = 1; t < tapCount; ++t)
+		{
+			int texel = (int)Math.floor(offsets[t]);
+			double fraction = offsets[t] - texel;
+			report.expect(texel == 2 * t - 1 && fraction >= 0.0 && fraction <= 1.0, name + ": tap " + t + " at " + offsets[t] + " isn't between texels " + (2 * t - 1) + " and " + (2 * t));
+
+			if (texel >= 0 && texel + 1 < reconstructed.length)
+			{
+				reconstructed[texel] += weights[t] * (1.0 - fraction);
+				reconstructed[texel + 1] += weights[t] * fraction;
+			}
+		}
+
+		for (int i = 0; i <= radius; ++i)
+		{
+			report.expectClose(reconstructed[i], kernel.getTexelWeight(i), TOLERANCE, name + ": weight of texel " + i + " read through the taps");
+		}
+	}
+
+	/* Reads the value of `#define MAX_KERNEL_TAPS` from a shader on the class path, or null if it's missing. */
+	private static Integer readShaderTapCount(String identifier) throws Exception
+	{
+		URL url = GaussianKernelCheck.class.getClassLoader().getResource(identifier);
+		if (url == null)
+		{
+			return null;
+		}
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream()));
+		try
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String tokens[] = line.trim().split("\\s+");
+				if (tokens.length >= 3 && tokens[0].equals("#define") && tokens[1].equals("MAX_KERNEL_TAPS"))
+				{
+					return Integer.valueOf(tokens[2]);
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return null;
+	}
+}
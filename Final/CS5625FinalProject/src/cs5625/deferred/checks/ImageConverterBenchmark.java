@@ -0,0 +1,203 @@
+package cs5625.deferred.checks;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.ImageConverter;
+import cs5625.deferred.materials.TextureCubeMap;
+
+/**
+ * ImageConverterBenchmark.java
+ *
+ * Times `ImageConverter.toRGBA()` against the per-pixel `getRGB()` loop Texture2D and TextureCubeMap used
+ * before it, for each raster type ImageIO produces (and one which takes the fallback path), at several
+ * sizes, checking that both give the same bytes. Then times loading the backyard cube map, whose faces
+ * are decoded in parallel, against decoding and converting the six faces one after another the old way.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ImageConverterBenchmark
+{
+	private static final int SIZES[] = {256, 1024, 2048};
+
+	private static final int TYPES[] = {
+		BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB,
+		BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_565_RGB};
+
+	private static final String TYPE_NAMES[] = {
+		"TYPE_4BYTE_ABGR", "TYPE_3BYTE_BGR", "TYPE_INT_ARGB", "TYPE_INT_RGB", "TYPE_INT_BGR", "TYPE_BYTE_GRAY", "TYPE_USHORT_565_RGB"};
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("ImageConverterBenchmark");
+
+		report.note("%-20s %6s %12s %12s %8s", "type", "size", "getRGB ms", "bulk ms", "speedup");
+		for (int t = 0; t < TYPES.length; ++t)
+		{
+			for (int size : SIZES)
+			{
+				benchmarkConversion(report, TYPES[t], TYPE_NAMES[t], size);
+			}
+		}
+
+		benchmarkCubeMap(report, "textures/cubemap/backyard_", ".png");
+
+		report.finish();
+	}
+
+	private static void benchmarkConversion(CheckReport report, int type, String typeName, int size) throws Exception
+	{
+		final BufferedImage image = createRandomImage(type, size, new Random(5625 + type * size));
+		final ByteBuffer reference = Buffers.newDirectByteBuffer(4 * size * size);
+		final ByteBuffer converted = Buffers.newDirectByteBuffer(4 * size * size);
+
+		int runs = (size >= 2048 ? 3 : 10);
+		int warmups = (size >= 2048 ? 1 : 20);
+		double perPixel = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				reference.clear();
+				convertPerPixel(image, reference);
+			}
+		}.best(warmups, runs);
+
+		double bulk = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				converted.clear();
+				ImageConverter.toRGBA(image, converted);
+			}
+		}.best(warmups, runs);
+
+		/* getRGB() brightens linear gray on the way to sRGB; the fast path keeps the stored values. */
+		if (type == BufferedImage.TYPE_BYTE_GRAY)
+		{
+			report.expect(matchesGray(image, converted), typeName + " " + size + ": gray values are copied into red, green and blue");
+		}
+		else
+		{
+			report.expect(reference.rewind().equals(converted.rewind()), typeName + " " + size + ": same bytes as the per-pixel conversion");
+		}
+		report.expect(ImageConverter.hasFastPath(image) == (type != BufferedImage.TYPE_USHORT_565_RGB),
+				typeName + ": fast path " + (ImageConverter.hasFastPath(image) ? "taken" : "not taken"));
+
+		report.note("%-20s %6d %12.2f %12.2f %7.1fx", typeName, size, perPixel, bulk, perPixel / bulk);
+	}
+
+	private static void benchmarkCubeMap(CheckReport report, final String identifier, final String extension) throws Exception
+	{
+		final FakeGL2 gl = new FakeGL2();
+		final URL urls[] = new URL[6];
+		final String postfixes[] = {"right", "left", "bottom", "top", "front", "back"};
+		for (int i = 0; i < 6; ++i)
+		{
+			urls[i] = ImageConverterBenchmark.class.getClassLoader().getResource(identifier + postfixes[i] + extension);
+		}
+
+		final ByteBuffer faces[] = new ByteBuffer[6];
+		double sequential = new Benchmark() {
+			@Override
+			protected void run() throws Exception
+			{
+				for (int i = 0; i < 6; ++i)
+				{
+					BufferedImage image = ImageIO.read(urls[i]);
+					faces[i] = Buffers.newDirectByteBuffer(4 * image.getWidth() * image.getHeight());
+					convertPerPixel(image, faces[i]);
+				}
+			}
+		}.best(1, 3);
+
+		double parallel = new Benchmark() {
+			@Override
+			protected void run() throws Exception
+			{
+				TextureCubeMap.load(gl, identifier, extension, false).releaseGPUResources(gl);
+			}
+		}.best(1, 3);
+
+		report.note("Cube map %s*%s, %dx%d faces: ImageIO + getRGB one face at a time %.1f ms, TextureCubeMap.load() %.1f ms (%.1fx) on %d cores",
+				identifier, extension, (int)Math.sqrt(faces[0].capacity() / 4), (int)Math.sqrt(faces[0].capacity() / 4),
+				sequential, parallel, sequential / parallel, Runtime.getRuntime().availableProcessors());
+	}
+
+	/* The conversion Texture2D.createBufferFromImage() did before ImageConverter. */
+	private static void convertPerPixel(BufferedImage image, ByteBuffer result)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				int pixel = image.getRGB(x, height - 1 - y);
+
+				result.put((byte)(pixel >> 16));
+				result.put((byte)(pixel >> 8));
+				result.put((byte)pixel);
+				result.put((byte)(pixel >> 24));
+			}
+		}
+	}
+
+	private static boolean matchesGray(BufferedImage image, ByteBuffer converted)
+	{
+		byte gray[] = ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+		int width = image.getWidth(), height = image.getHeight();
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				byte value = gray[(height - 1 - y) * width + x];
+				int i = 4 * (y * width + x);
+				if (converted.get(i) != value || converted.get(i + 1) != value || converted.get(i + 2) != value || converted.get(i + 3) != (byte)0xff)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/* An image of the given type with random contents, written straight into its raster. */
+	private static BufferedImage createRandomImage(int type, int size, Random random)
+	{
+		BufferedImage image = new BufferedImage(size, size, type);
+		DataBuffer data = image.getRaster().getDataBuffer();
+		if (data instanceof DataBufferByte)
+		{
+			random.nextBytes(((DataBufferByte)data).getData());
+		}
+		else if (data instanceof DataBufferInt)
+		{
+			int pixels[] = ((DataBufferInt)data).getData();
+			for (int i = 0; i < pixels.length; ++i)
+			{
+				pixels[i] = random.nextInt();
+			}
+		}
+		else
+		{
+			for (int i = 0; i < data.getSize(); ++i)
+			{
+				data.setElem(i, random.nextInt(0x10000));
+			}
+		}
+		return image;
+	}
+}
@@ -0,0 +1,276 @@
+package cs5625.deferred.checks;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+
+import cs5625.deferred.rendering.LevelOfDetailSelector;
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.Mesh;
+import cs5625.deferred.scenegraph.TorusGenerator;
+
+/**
+ * LevelOfDetailBenchmark.java
+ *
+ * Times `Geometry.generateLevelsOfDetail()` (5 levels, each keeping half the triangles of the last) on the
+ * bundled models and a generated quad torus, and prints each level's triangle count and error. Checks that
+ * each level is close to its target, that errors grow with the level, that simplified meshes only use
+ * positions of the original, that the closed sphere stays closed at every level, and that objects with
+ * nothing to simplify (flat-shaded or tiny) get no levels. Then moves the monkey away from and back toward a 600 pixel
+ * high, 45 degree camera with `LevelOfDetailSelector`, printing the distances where it switches levels,
+ * and checks that the chosen level's error stays within a pixel, that the switches coming closer happen
+ * nearer than the ones going away, and that jittering around a switch distance doesn't switch.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class LevelOfDetailBenchmark
+{
+	private static final int LEVELS = 5;
+	private static final float REDUCTION = 0.5f;
+
+	private static final float FOV = 45.0f;
+	private static final float VIEWPORT_HEIGHT = 600.0f;
+
+	/* Objects of the default scene with nothing to simplify: every vertex of the flat-shaded cylinder and
+	 * cube is split by hard edges, so none may be removed, and the plane is two triangles. */
+	private static final List<String> UNSIMPLIFIED_OBJECTS = Arrays.asList("Cylinder", "Cube", "Plane");
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("LevelOfDetailBenchmark");
+
+		report.note("%-24s %8s  %-40s %s", "object", "ms", "triangles per level", "errors");
+		benchmarkFile(report, "models/monkey.obj", false);
+		benchmarkFile(report, "models/sphere.obj", true);
+
+		TorusGenerator torus = new TorusGenerator(1.0f, 0.25f, 96, 96);
+		Geometry torusObject = new Geometry();
+		torusObject.addMesh(torus.generate());
+		benchmarkObject(report, "torus 96x96 (quads)", torusObject, false);
+
+		for (Geometry object : Geometry.load("models/default-scene.obj", false, false))
+		{
+			String name = "default-scene " + object.getName();
+			if (UNSIMPLIFIED_OBJECTS.contains(object.getName()))
+			{
+				object.generateLevelsOfDetail(LEVELS, REDUCTION);
+				report.expect(object.getLevelOfDetailCount() == 1, name + ": isn't simplified (" + object.getLevelOfDetailCount() + " levels)");
+				report.note("%-24s %8s  %-40s", name, "-", "not simplified");
+			}
+			else
+			{
+				benchmarkObject(report, name, object, false);
+			}
+		}
+
+		checkSelection(report);
+
+		report.finish();
+	}
+
+	private static void benchmarkFile(CheckReport report, String identifier, boolean closed) throws Exception
+	{
+		List<Geometry> objects = Geometry.load(identifier, false, false);
+		benchmarkObject(report, identifier, objects.get(0), closed);
+	}
+
+	/* Times generating the levels, and checks each of them against the full resolution meshes. */
+	private static void benchmarkObject(CheckReport report, String name, final Geometry object, boolean closed) throws Exception
+	{
+		double time = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				object.generateLevelsOfDetail(LEVELS, REDUCTION);
+			}
+		}.best(3, 5);
+
+		int levelCount = object.getLevelOfDetailCount();
+		report.expect(levelCount > 1, name + ": " + levelCount + " levels generated");
+
+		HashSet<String> originalPositions = getPositions(object.getLevelOfDetailMeshes(0));
+		StringBuilder triangles = new StringBuilder();
+		StringBuilder errors = new StringBuilder();
+		for (int level = 0; level < levelCount; ++level)
+		{
+			int count = object.getLevelOfDetailTriangleCount(level);
+			float error = object.getLevelOfDetailError(level);
+			triangles.append(level > 0 ? "/" : "").append(count);
+			errors.append(level > 0 ? "/" : "").append(String.format(Locale.US, "%.2g", error));
+
+			if (level > 0)
+			{
+				int previous = object.getLevelOfDetailTriangleCount(level - 1);
+				report.expect(count <= 0.9f * previous && count >= 0.4f * previous, name + ": level " + level + " keeps " + count + " of " + previous + " triangles");
+				report.expect(error >= object.getLevelOfDetailError(level - 1), name + ": level " + level + " error " + error + " is under the last level's");
+				report.expect(originalPositions.containsAll(getPositions(object.getLevelOfDetailMeshes(level))), name + ": level " + level + " only uses original positions");
+			}
+			if (closed)
+			{
+				report.expect(isClosed(object.getLevelOfDetailMeshes(level)), name + ": level " + level + " is closed");
+			}
+		}
+
+		report.note("%-24s %8.1f  %-40s %s", name, time, triangles, errors);
+	}
+
+	/*
+	 * Moves the monkey from 1 to 40 units away and back in steps of 0.1, then jitters it by 2% around the
+	 * distance where it first went to level 1.
+	 */
+	private static void checkSelection(CheckReport report) throws Exception
+	{
+		Geometry monkey = Geometry.load("models/monkey.obj", false, false).get(0);
+		monkey.generateLevelsOfDetail(LEVELS, REDUCTION);
+		LevelOfDetailSelector selector = new LevelOfDetailSelector();
+		Matrix4f modelview = new Matrix4f();
+
+		int levelCount = monkey.getLevelOfDetailCount();
+		float away[] = new float[levelCount], closer[] = new float[levelCount];
+		int overThreshold = 0;
+
+		for (int step = 0; step <= 2 * 390; ++step)
+		{
+			float distance = (step <= 390 ? 1.0f + 0.1f * step : 40.0f - 0.1f * (step - 390));
+			int previous = monkey.getLevelOfDetail();
+			int level = select(selector, monkey, modelview, distance);
+
+			if (level > previous)
+			{
+				away[level] = distance;
+			}
+			else if (level < previous)
+			{
+				closer[previous] = distance;
+			}
+			if (getPixelError(monkey, level, distance) > selector.getPixelError() * 1.0001f)
+			{
+				++overThreshold;
+			}
+		}
+		report.expect(overThreshold == 0, "Monkey: chosen level's error is over a pixel at " + overThreshold + " distances");
+
+		StringBuilder awayText = new StringBuilder(), closerText = new StringBuilder();
+		for (int level = 1; level < levelCount; ++level)
+		{
+			report.expect(away[level] > 0.0f && closer[level] > 0.0f && closer[level] < away[level],
+					"Monkey: level " + level + " is entered at " + away[level] + " going away and left at " + closer[level] + " coming closer");
+			report.expect(level == 1 || away[level] > away[level - 1], "Monkey: level " + level + " is entered farther than level " + (level - 1));
+			awayText.append(String.format(Locale.US, " L%d at %.1f", level, away[level]));
+			closerText.append(String.format(Locale.US, " L%d at %.1f", level - 1, closer[level]));
+		}
+
+		/* Jitter 2% around the distance where level 1 starts. */
+		select(selector, monkey, modelview, away[1]);
+		int switches = 0;
+		for (int i = 0; i < 200; ++i)
+		{
+			int previous = monkey.getLevelOfDetail();
+			float distance = away[1] * (1.0f + 0.02f * (float)Math.sin(i * 0.7));
+			if (select(selector, monkey, modelview, distance) != previous)
+			{
+				++switches;
+			}
+		}
+		report.expect(switches == 0, "Monkey: jittering 2% around the level 1 distance switched levels " + switches + " times");
+
+		report.note("Monkey at %.0f px and FOV %.0f, moving away:%s", VIEWPORT_HEIGHT, FOV, awayText);
+		report.note("Monkey at %.0f px and FOV %.0f, moving closer:%s", VIEWPORT_HEIGHT, FOV, closerText);
+		report.note("Jittering 2%% around the L0/L1 distance: %d switches in 200 frames", switches);
+	}
+
+	/* Selects a level for an object `distance` units in front of the camera. */
+	private static int select(LevelOfDetailSelector selector, Geometry object, Matrix4f modelview, float distance)
+	{
+		modelview.setIdentity();
+		modelview.m23 = -distance;
+		selector.beginPass(FOV, VIEWPORT_HEIGHT);
+		return selector.select(object, modelview);
+	}
+
+	/* A level's error projected to the screen, measured as the selector does, at the near side of the bounding sphere. */
+	private static float getPixelError(Geometry object, int level, float distance)
+	{
+		Point3f min = new Point3f(), max = new Point3f();
+		object.getBounds(min, max);
+		float centerZ = 0.5f * (min.z + max.z);
+		Point3f center = new Point3f(0.5f * (min.x + max.x), 0.5f * (min.y + max.y), centerZ - distance);
+		float near = (float)Math.sqrt(center.x * center.x + center.y * center.y + center.z * center.z) - 0.5f * min.distance(max);
+		float pixelsPerUnit = VIEWPORT_HEIGHT / (2.0f * (float)Math.tan(Math.toRadians(FOV) / 2.0));
+		return (near <= 0.0f ? 0.0f : object.getLevelOfDetailError(level) * pixelsPerUnit / near);
+	}
+
+	/* The positions of every vertex used by some polygon of the meshes, as exact text keys. */
+	private static HashSet<String> getPositions(List<Mesh> meshes)
+	{
+		HashSet<String> positions = new HashSet<String>();
+		for (Mesh mesh : meshes)
+		{
+			FloatBuffer vertices = mesh.getVertexData();
+			IntBuffer polygons = mesh.getPolygonData();
+			for (int i = 0; i < polygons.capacity(); ++i)
+			{
+				int v = polygons.get(i);
+				positions.add(vertices.get(3 * v) + " " + vertices.get(3 * v + 1) + " " + vertices.get(3 * v + 2));
+			}
+		}
+		return positions;
+	}
+
+	/* Whether every edge, between positions rather than vertices (which seams split), has exactly two triangles. */
+	private static boolean isClosed(List<Mesh> meshes)
+	{
+		HashMap<String, Integer> positionIndices = new HashMap<String, Integer>();
+		HashMap<Long, Integer> edgeCounts = new HashMap<Long, Integer>();
+
+		for (Mesh mesh : meshes)
+		{
+			FloatBuffer vertices = mesh.getVertexData();
+			IntBuffer polygons = mesh.getPolygonData();
+			int n = mesh.getVerticesPerPolygon();
+			for (int p = 0; p < mesh.getPolygonCount(); ++p)
+			{
+				for (int k = 0; k < n; ++k)
+				{
+					int a = getPositionIndex(positionIndices, vertices, polygons.get(p * n + k));
+					int b = getPositionIndex(positionIndices, vertices, polygons.get(p * n + (k + 1) % n));
+					long key = ((long)Math.min(a, b) << 32) | Math.max(a, b);
+					Integer count = edgeCounts.get(key);
+					edgeCounts.put(key, count == null ? 1 : count + 1);
+				}
+			}
+		}
+
+		for (Map.Entry<Long, Integer> entry : edgeCounts.entrySet())
+		{
+			if (entry.getValue() != 2)
+			{
+				return false;
+			}
+		}
+		return !edgeCounts.isEmpty();
+	}
+
+	private static int getPositionIndex(HashMap<String, Integer> positionIndices, FloatBuffer vertices, int vertex)
+	{
+		String key = vertices.get(3 * vertex) + " " + vertices.get(3 * vertex + 1) + " " + vertices.get(3 * vertex + 2);
+		Integer index = positionIndices.get(key);
+		if (index == null)
+		{
+			index = positionIndices.size();
+			positionIndices.put(key, index);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,376 @@
+package cs5625.deferred.checks;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import javax.vecmath.Point3f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.MengerSponge;
+import cs5625.deferred.scenegraph.MengerSpongeGenerator;
+import cs5625.deferred.scenegraph.Mesh;
+import cs5625.deferred.scenegraph.Quadmesh;
+
+/**
+ * MengerSpongeBenchmark.java
+ *
+ * Times building a Menger sponge with `MengerSpongeGenerator` against the way PA4's `MengerSponge` builds
+ * it (cube.obj stamped once per cell, through a Point3f per vertex), and compares their sizes. Checks that
+ * the generator gives 2 * 20^n + 4 * 8^n faces, exactly the faces of the stamped cubes which aren't shared
+ * by two of them, wound counterclockwise about their normals, and that the sponge is closed: every edge
+ * between welded positions is used once in each direction.
+ *
+ * Depths 0 to 4 are checked, and depths 3 and 4 timed; pass 5 as an argument to also build depth 5, which
+ * needs about 1 GB of direct buffers and is too big for the stamped version and the optimizer.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MengerSpongeBenchmark
+{
+	private static final int CHECKED_DEPTH = 4;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("MengerSpongeBenchmark");
+
+		for (int depth = 0; depth <= CHECKED_DEPTH; ++depth)
+		{
+			checkDepth(report, depth);
+		}
+
+		report.note("%-6s %-30s %-30s %s", "depth", "stamped cube.obj", "MengerSpongeGenerator", "MengerSponge (optimized)");
+		benchmarkDepth(report, 3, true);
+		benchmarkDepth(report, 4, true);
+		if (args.length > 0 && Integer.parseInt(args[0]) >= 5)
+		{
+			benchmarkDepth(report, 5, false);
+		}
+
+		report.finish();
+	}
+
+	/* Compares the generated sponge's faces with the stamped one's, and checks windings and closure. */
+	private static void checkDepth(CheckReport report, int depth) throws Exception
+	{
+		MengerSpongeGenerator generator = new MengerSpongeGenerator(depth);
+		generator.setOptimize(false);
+		Mesh sponge = generator.generate();
+
+		int eights = 1, twenties = 1;
+		for (int i = 0; i < depth; ++i)
+		{
+			eights *= 8;
+			twenties *= 20;
+		}
+		report.expect(sponge.getPolygonCount() == 2 * twenties + 4 * eights && sponge.getVertexCount() == 4 * sponge.getPolygonCount(),
+				"Depth " + depth + ": " + sponge.getPolygonCount() + " faces and " + sponge.getVertexCount() + " vertices");
+
+		int gridSize = 1;
+		for (int i = 0; i < depth; ++i)
+		{
+			gridSize *= 3;
+		}
+
+		/* The stamped faces which no other stamped face covers. */
+		Mesh stamped = stampCubes(depth);
+		HashMap<Long, Integer> stampedPositions = new HashMap<Long, Integer>();
+		for (int f = 0; f < stamped.getPolygonCount(); ++f)
+		{
+			long key = getFaceKey(stamped, f, gridSize) >> 3;
+			Integer count = stampedPositions.get(key);
+			stampedPositions.put(key, count == null ? 1 : count + 1);
+		}
+		HashSet<Long> visible = new HashSet<Long>();
+		for (int f = 0; f < stamped.getPolygonCount(); ++f)
+		{
+			long key = getFaceKey(stamped, f, gridSize);
+			if (stampedPositions.get(key >> 3) == 1)
+			{
+				visible.add(key);
+			}
+		}
+
+		HashSet<Long> generated = new HashSet<Long>();
+		for (int f = 0; f < sponge.getPolygonCount(); ++f)
+		{
+			generated.add(getFaceKey(sponge, f, gridSize));
+		}
+		report.expect(generated.size() == sponge.getPolygonCount() && generated.equals(visible),
+				"Depth " + depth + ": faces are the " + visible.size() + " uncovered faces of the " + stamped.getPolygonCount() + " stamped ones");
+
+		report.expect(getClockwiseFaceCount(sponge) == 0, "Depth " + depth + ": " + getClockwiseFaceCount(sponge) + " faces wound clockwise about their normals");
+		report.expect(isClosed(sponge, gridSize), "Depth " + depth + ": every welded edge is used once in each direction");
+	}
+
+	/* Times each way of building a sponge; the stamped one and the optimized `MengerSponge` only if `small`. */
+	private static void benchmarkDepth(CheckReport report, final int depth, boolean small) throws Exception
+	{
+		String stampedText = "-";
+		if (small)
+		{
+			final Mesh stamped[] = new Mesh[1];
+			double time = new Benchmark() {
+				@Override
+				protected void run() throws Exception
+				{
+					stamped[0] = stampCubes(depth);
+				}
+			}.best(depth >= 4 ? 2 : 10, 3);
+			stampedText = String.format("%d quads %.0f ms %.1f MB", stamped[0].getPolygonCount(), time, getMegabytes(stamped[0]));
+			stamped[0] = null;
+		}
+
+		final Mesh generated[] = new Mesh[1];
+		final MengerSpongeGenerator generator = new MengerSpongeGenerator(depth);
+		generator.setOptimize(false);
+		double generatorTime = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				generated[0] = null;
+				generated[0] = generator.generate();
+			}
+		}.best(small ? 10 : 0, small ? 3 : 1);
+		String generatorText = String.format("%d quads %.0f ms %.1f MB", generated[0].getPolygonCount(), generatorTime, getMegabytes(generated[0]));
+		generated[0] = null;
+
+		/* The optimizer keeps a second copy of the mesh while it works, which depth 5 has no room for. */
+		String spongeText = "-";
+		if (small)
+		{
+			double spongeTime = new Benchmark() {
+				@Override
+				protected void run()
+				{
+					generated[0] = null;
+					generated[0] = new MengerSponge(depth);
+				}
+			}.best(2, 3);
+			spongeText = String.format("%.0f ms", spongeTime);
+			generated[0] = null;
+		}
+
+		report.note("%-6d %-30s %-30s %s", depth, stampedText, generatorText, spongeText);
+	}
+
+	/*
+	 * The sponge as PA4's MengerSponge builds it: the cube in cube.obj, centered, scaled and copied into
+	 * every cell, with a Point3f for every cell center and every vertex.
+	 */
+	private static Mesh stampCubes(int steps) throws Exception
+	{
+		Mesh cube = Geometry.load("models/cube.obj", false, true).get(0).getMeshes().get(0);
+
+		int cubeSize = 4 * cube.getPolygonCount();
+		FloatBuffer cubePoints = cube.getVertexData();
+		FloatBuffer cubeNormals = cube.getNormalData();
+		FloatBuffer cubeTexture = cube.getTexCoordData();
+		IntBuffer cubeIndices = cube.getPolygonData();
+
+		ArrayList<Point3f> cubeCenters = new ArrayList<Point3f>();
+		mengerStep(cubeCenters, new Point3f(), 1.0f, steps);
+
+		FloatBuffer vertexData = Buffers.newDirectFloatBuffer(3 * cubeSize * cubeCenters.size());
+		FloatBuffer normalData = Buffers.newDirectFloatBuffer(3 * cubeSize * cubeCenters.size());
+		FloatBuffer texCoordData = Buffers.newDirectFloatBuffer(2 * cubeSize * cubeCenters.size());
+		IntBuffer polygonData = Buffers.newDirectIntBuffer(cubeSize * cubeCenters.size());
+
+		int cubeCount = 0;
+		float finalScale = (float)Math.pow(1.0f / 3.0f, steps);
+		for (Point3f center : cubeCenters)
+		{
+			for (int i = 0; i < cubeSize; i++)
+			{
+				Point3f cubePoint = new Point3f();
+				cubePoint.x = cubePoints.get();
+				cubePoint.y = cubePoints.get();
+				cubePoint.z = cubePoints.get();
+
+				cubePoint.scale(finalScale);
+				cubePoint.add(center);
+
+				vertexData.put(cubePoint.x);
+				vertexData.put(cubePoint.y);
+				vertexData.put(cubePoint.z);
+
+				for (int j = 0; j < 3; j++)
+				{
+					normalData.put(cubeNormals.get());
+				}
+				for (int j = 0; j < 2; j++)
+				{
+					texCoordData.put(cubeTexture.get());
+				}
+
+				polygonData.put(cubeIndices.get() + cubeCount * cubeSize);
+			}
+
+			cubePoints.rewind();
+			cubeNormals.rewind();
+			cubeTexture.rewind();
+			cubeIndices.rewind();
+
+			cubeCount++;
+		}
+
+		vertexData.rewind();
+		normalData.rewind();
+		texCoordData.rewind();
+		polygonData.rewind();
+
+		Quadmesh result = new Quadmesh();
+		result.setVertexData(vertexData);
+		result.setNormalData(normalData);
+		result.setTexCoordData(texCoordData);
+		result.setPolygonData(polygonData);
+		return result;
+	}
+
+	private static void mengerStep(ArrayList<Point3f> cubeCenters, Point3f center, float scale, int stepsToGo)
+	{
+		if (stepsToGo <= 0)
+		{
+			cubeCenters.add(center);
+		}
+		else
+		{
+			float newScale = scale / 3.0f;
+			for (int x = -1; x <= 1; x++)
+			{
+				for (int y = -1; y <= 1; y++)
+				{
+					for (int z = -1; z <= 1; z++)
+					{
+						if ((x != 0 && y != 0) || (x != 0 && z != 0) || (y != 0 && z != 0))
+						{
+							Point3f newCenter = new Point3f(center);
+							newCenter.x += 2.0f * (float)x * newScale;
+							newCenter.y += 2.0f * (float)y * newScale;
+							newCenter.z += 2.0f * (float)z * newScale;
+
+							mengerStep(cubeCenters, newCenter, newScale, stepsToGo - 1);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * A face's center on the grid of half cells (so it's a whole number), and the direction of its normal
+	 * in the low 3 bits: the axis times 2, plus 1 if it points down the axis.
+	 */
+	private static long getFaceKey(Mesh mesh, int face, int gridSize)
+	{
+		FloatBuffer vertices = mesh.getVertexData();
+		FloatBuffer normals = mesh.getNormalData();
+		IntBuffer polygons = mesh.getPolygonData();
+
+		long key = 0;
+		for (int c = 0; c < 3; ++c)
+		{
+			float sum = 0.0f;
+			for (int k = 0; k < 4; ++k)
+			{
+				sum += vertices.get(3 * polygons.get(4 * face + k) + c);
+			}
+			key = key * 1024 + Math.round((sum / 4.0f + 1.0f) * gridSize);
+		}
+
+		int first = polygons.get(4 * face);
+		int direction = 0;
+		for (int c = 0; c < 3; ++c)
+		{
+			float n = normals.get(3 * first + c);
+			if (n != 0.0f)
+			{
+				direction = 2 * c + (n < 0.0f ? 1 : 0);
+			}
+		}
+		return key * 8 + direction;
+	}
+
+	/* The number of faces whose corners don't turn counterclockwise about their normal. */
+	private static int getClockwiseFaceCount(Mesh mesh)
+	{
+		FloatBuffer vertices = mesh.getVertexData();
+		FloatBuffer normals = mesh.getNormalData();
+		IntBuffer polygons = mesh.getPolygonData();
+
+		int count = 0;
+		for (int f = 0; f < mesh.getPolygonCount(); ++f)
+		{
+			int a = polygons.get(4 * f), b = polygons.get(4 * f + 1), c = polygons.get(4 * f + 2);
+			float e1x = vertices.get(3 * b) - vertices.get(3 * a), e1y = vertices.get(3 * b + 1) - vertices.get(3 * a + 1), e1z = vertices.get(3 * b + 2) - vertices.get(3 * a + 2);
+			float e2x = vertices.get(3 * c) - vertices.get(3 * a), e2y = vertices.get(3 * c + 1) - vertices.get(3 * a + 1), e2z = vertices.get(3 * c + 2) - vertices.get(3 * a + 2);
+			float nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+			if (nx * normals.get(3 * a) + ny * normals.get(3 * a + 1) + nz * normals.get(3 * a + 2) <= 0.0f)
+			{
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/* Whether every directed edge between welded (grid) positions is matched by one going the other way. */
+	private static boolean isClosed(Mesh mesh, int gridSize)
+	{
+		FloatBuffer vertices = mesh.getVertexData();
+		IntBuffer polygons = mesh.getPolygonData();
+
+		HashMap<Long, Integer> edges = new HashMap<Long, Integer>();
+		for (int f = 0; f < mesh.getPolygonCount(); ++f)
+		{
+			for (int k = 0; k < 4; ++k)
+			{
+				long from = getPositionKey(vertices, polygons.get(4 * f + k), gridSize);
+				long to = getPositionKey(vertices, polygons.get(4 * f + (k + 1) % 4), gridSize);
+				long forward = (from << 32) | to, backward = (to << 32) | from;
+
+				Integer count = edges.get(backward);
+				if (count != null)
+				{
+					if (count == 1)
+					{
+						edges.remove(backward);
+					}
+					else
+					{
+						edges.put(backward, count - 1);
+					}
+				}
+				else
+				{
+					count = edges.get(forward);
+					edges.put(forward, count == null ? 1 : count + 1);
+				}
+			}
+		}
+		return edges.isEmpty();
+	}
+
+	private static long getPositionKey(FloatBuffer vertices, int vertex, int gridSize)
+	{
+		long key = 0;
+		for (int c = 0; c < 3; ++c)
+		{
+			key = key * 1024 + Math.round((vertices.get(3 * vertex + c) + 1.0f) * gridSize);
+		}
+		return key;
+	}
+
+	/* Bytes of the mesh's vertex, normal, texture coordinate and polygon buffers, in MB. */
+	private static double getMegabytes(Mesh mesh)
+	{
+		long bytes = 4L * (8L * mesh.getVertexCount() + (long)mesh.getVerticesPerPolygon() * mesh.getPolygonCount());
+		return bytes / (1024.0 * 1024.0);
+	}
+}
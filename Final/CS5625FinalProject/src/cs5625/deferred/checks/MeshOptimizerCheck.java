@@ -0,0 +1,289 @@
+package cs5625.deferred.checks;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.GridGenerator;
+import cs5625.deferred.scenegraph.MengerSpongeGenerator;
+import cs5625.deferred.scenegraph.Mesh;
+import cs5625.deferred.scenegraph.MeshGenerator;
+import cs5625.deferred.scenegraph.MeshOptimizer;
+import cs5625.deferred.scenegraph.SphereGenerator;
+import cs5625.deferred.scenegraph.TorusGenerator;
+
+/**
+ * MeshOptimizerCheck.java
+ *
+ * Measures the ACMR (vertices transformed per triangle, with a FIFO cache of 16) of generated and loaded
+ * meshes before and after `MeshOptimizer`, and checks that optimizing never makes it worse, that it is a
+ * pure reordering (the same polygons, attributes and edges, with vertices numbered by first use), and that
+ * the optimizer's statistics add up.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MeshOptimizerCheck
+{
+	private static final int CACHE_SIZE = MeshOptimizer.DEFAULT_CACHE_SIZE;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("MeshOptimizerCheck");
+
+		checkGenerated(report, "grid 200x200", new GridGenerator(10.0f, 10.0f, 200, 200), 0.75f);
+		checkGenerated(report, "sphere 128x64", new SphereGenerator(1.0f, 128, 64), 0.75f);
+		checkGenerated(report, "torus 128x64", new TorusGenerator(1.0f, 0.25f, 128, 64), 0.75f);
+		/* The sponge's quads share no vertices, so there's nothing to gain, but nothing may be lost either. */
+		checkGenerated(report, "sponge depth 3", new MengerSpongeGenerator(3), 2.0f);
+		checkShuffled(report);
+		checkOverdraw(report);
+		checkLoaded(report, "models/sphere.obj");
+		checkLoaded(report, "models/monkey.obj");
+
+		report.finish();
+	}
+
+	/* Generates an unoptimized mesh, optimizes it, and compares ACMR and contents. */
+	private static void checkGenerated(CheckReport report, String name, MeshGenerator generator, float maxACMR)
+	{
+		generator.setOptimize(false);
+		Mesh mesh = generator.generate();
+		checkOptimize(report, name, mesh, new MeshOptimizer(), maxACMR);
+	}
+
+	/* A sphere with its polygons in random order, the worst case for the cache. */
+	private static void checkShuffled(CheckReport report)
+	{
+		SphereGenerator generator = new SphereGenerator(1.0f, 64, 32);
+		generator.setOptimize(false);
+		Mesh mesh = generator.generate();
+
+		shufflePolygons(mesh, new Random(5625));
+		float shuffled = MeshOptimizer.getACMR(mesh, CACHE_SIZE);
+		report.expect(shuffled > 2.0f, "Shuffled sphere starts with a poor ACMR: " + shuffled);
+
+		checkOptimize(report, "shuffled sphere 64x32", mesh, new MeshOptimizer(), 0.75f);
+	}
+
+	/* Sorting clusters for overdraw costs a little cache locality, but still beats the input order. */
+	private static void checkOverdraw(CheckReport report)
+	{
+		SphereGenerator generator = new SphereGenerator(1.0f, 64, 32);
+		generator.setOptimize(false);
+
+		Mesh plain = generator.generate();
+		shufflePolygons(plain, new Random(5625));
+		Mesh sorted = generator.generate();
+		shufflePolygons(sorted, new Random(5625));
+
+		new MeshOptimizer().optimize(plain);
+		MeshOptimizer overdraw = new MeshOptimizer();
+		overdraw.setOptimizeOverdraw(true);
+		report.expect(overdraw.getOptimizeOverdraw(), "Overdraw sorting is enabled");
+		checkOptimize(report, "shuffled sphere 64x32 with overdraw sorting", sorted, overdraw, 0.8f);
+
+		float plainACMR = MeshOptimizer.getACMR(plain, CACHE_SIZE);
+		float sortedACMR = MeshOptimizer.getACMR(sorted, CACHE_SIZE);
+		report.expectAtMost(sortedACMR, plainACMR * 1.1, "ACMR with overdraw sorting, against " + plainACMR + " without");
+	}
+
+	/* Loaded meshes are already optimized by `Geometry.load()`; the shared optimizer's totals show the gain. */
+	private static void checkLoaded(CheckReport report, String identifier) throws Exception
+	{
+		MeshOptimizer shared = MeshOptimizer.getShared();
+		shared.resetStatistics();
+
+		List<Geometry> objects = Geometry.load(identifier, false, false);
+
+		int triangleCount = 0;
+		long misses = 0;
+		for (Geometry object : objects)
+		{
+			for (Mesh mesh : object.getMeshes())
+			{
+				int triangles = mesh.getPolygonCount() * Math.max(0, mesh.getVerticesPerPolygon() - 2);
+				triangleCount += triangles;
+				misses += Math.round(MeshOptimizer.getACMR(mesh, shared.getCacheSize()) * triangles);
+				checkFirstUseOrder(report, identifier, mesh);
+			}
+		}
+
+		report.expect(triangleCount > 0, identifier + ": loaded " + triangleCount + " triangles");
+		report.expectAtMost(shared.getACMRAfter(), shared.getACMRBefore(), identifier + ": ACMR after loading");
+		report.expectClose(shared.getACMRAfter(), (double)misses / Math.max(1, triangleCount), 1.0e-3,
+				identifier + ": shared optimizer's ACMR after matches the loaded meshes");
+		report.note("%s: %s", identifier, shared.getSummary());
+		shared.resetStatistics();
+	}
+
+	/* Optimizes a mesh and checks that it got no worse and is the same mesh, reordered. */
+	private static void checkOptimize(CheckReport report, String name, Mesh mesh, MeshOptimizer optimizer, float maxACMR)
+	{
+		/* A generic attribute which repeats the positions, and edges along each polygon's first side. */
+		mesh.vertexAttribData.put("position copy", copy(mesh.getVertexData()));
+		int polygonCount = mesh.getPolygonCount();
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		int edges[] = new int[2 * polygonCount];
+		for (int p = 0; p < polygonCount; ++p)
+		{
+			edges[2 * p] = mesh.getPolygonData().get(verticesPerPolygon * p);
+			edges[2 * p + 1] = mesh.getPolygonData().get(verticesPerPolygon * p + 1);
+		}
+		mesh.setEdgeData(Buffers.newDirectIntBuffer(edges));
+
+		int vertexCount = mesh.getVertexCount();
+		String polygonsBefore[] = describePolygons(mesh);
+		String edgesBefore[] = describeEdges(mesh);
+		float before = MeshOptimizer.getACMR(mesh, CACHE_SIZE);
+
+		optimizer.optimize(mesh);
+
+		float after = MeshOptimizer.getACMR(mesh, CACHE_SIZE);
+		report.expectAtMost(after, before, name + ": ACMR after optimizing");
+		report.expectAtMost(after, maxACMR, name + ": ACMR after optimizing");
+		report.expectClose(optimizer.getACMRBefore(), before, 1.0e-4, name + ": optimizer's ACMR before");
+		report.expectClose(optimizer.getACMRAfter(), after, 1.0e-4, name + ": optimizer's ACMR after");
+
+		report.expect(mesh.getVertexCount() == vertexCount && mesh.getPolygonCount() == polygonCount,
+				name + ": vertex and polygon counts unchanged");
+		report.expect(Arrays.equals(describePolygons(mesh), polygonsBefore), name + ": the same polygons, with the same attributes");
+		report.expect(Arrays.equals(describeEdges(mesh), edgesBefore), name + ": the same edges");
+
+		FloatBuffer vertices = mesh.getVertexData();
+		FloatBuffer positionCopy = mesh.vertexAttribData.get("position copy");
+		boolean attributesMatch = (positionCopy.capacity() == vertices.capacity());
+		for (int i = 0; attributesMatch && i < vertices.capacity(); ++i)
+		{
+			attributesMatch = (positionCopy.get(i) == vertices.get(i));
+		}
+		report.expect(attributesMatch, name + ": generic attributes are reordered with the vertices");
+
+		checkFirstUseOrder(report, name, mesh);
+		report.note("%s: %d triangles, ACMR %.3f -> %.3f, %.1f ms", name, polygonCount * (verticesPerPolygon - 2), before, after, optimizer.getTime());
+	}
+
+	/* Every vertex index first appears right after the highest one used before it. */
+	private static void checkFirstUseOrder(CheckReport report, String name, Mesh mesh)
+	{
+		IntBuffer polygons = mesh.getPolygonData();
+		int next = 0;
+		boolean ordered = true;
+		for (int i = 0; ordered && i < polygons.capacity(); ++i)
+		{
+			int index = polygons.get(i);
+			if (index == next)
+			{
+				++next;
+			}
+			else
+			{
+				ordered = (index < next);
+			}
+		}
+		report.expect(ordered, name + ": vertices are numbered in order of first use");
+	}
+
+	/* One string per polygon, with every vertex's position, normal and texture coordinate, sorted. */
+	private static String[] describePolygons(Mesh mesh)
+	{
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		String polygons[] = new String[mesh.getPolygonCount()];
+		StringBuilder builder = new StringBuilder();
+		for (int p = 0; p < polygons.length; ++p)
+		{
+			builder.setLength(0);
+			for (int k = 0; k < verticesPerPolygon; ++k)
+			{
+				describeVertex(builder, mesh, mesh.getPolygonData().get(verticesPerPolygon * p + k));
+			}
+			polygons[p] = builder.toString();
+		}
+
+		Arrays.sort(polygons);
+		return polygons;
+	}
+
+	private static String[] describeEdges(Mesh mesh)
+	{
+		IntBuffer edges = mesh.getEdgeData();
+		String descriptions[] = new String[edges.capacity() / 2];
+		StringBuilder builder = new StringBuilder();
+		for (int e = 0; e < descriptions.length; ++e)
+		{
+			builder.setLength(0);
+			describeVertex(builder, mesh, edges.get(2 * e));
+			describeVertex(builder, mesh, edges.get(2 * e + 1));
+			descriptions[e] = builder.toString();
+		}
+
+		Arrays.sort(descriptions);
+		return descriptions;
+	}
+
+	private static void describeVertex(StringBuilder builder, Mesh mesh, int v)
+	{
+		FloatBuffer vertices = mesh.getVertexData();
+		FloatBuffer normals = mesh.getNormalData();
+		FloatBuffer texcoords = mesh.getTexCoordData();
+
+		builder.append('(');
+		for (int c = 0; c < 3; ++c)
+		{
+			builder.append(vertices.get(3 * v + c)).append(' ');
+		}
+		for (int c = 0; normals != null && c < 3; ++c)
+		{
+			builder.append(normals.get(3 * v + c)).append(' ');
+		}
+		for (int c = 0; texcoords != null && c < 2; ++c)
+		{
+			builder.append(texcoords.get(2 * v + c)).append(' ');
+		}
+		builder.append(')');
+	}
+
+	private static void shufflePolygons(Mesh mesh, Random random)
+	{
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		List<int[]> polygons = new ArrayList<int[]>();
+		for (int p = 0; p < mesh.getPolygonCount(); ++p)
+		{
+			int polygon[] = new int[verticesPerPolygon];
+			for (int k = 0; k < verticesPerPolygon; ++k)
+			{
+				polygon[k] = mesh.getPolygonData().get(verticesPerPolygon * p + k);
+			}
+			polygons.add(polygon);
+		}
+
+		Collections.shuffle(polygons, random);
+
+		IntBuffer shuffled = Buffers.newDirectIntBuffer(verticesPerPolygon * polygons.size());
+		for (int polygon[] : polygons)
+		{
+			shuffled.put(polygon);
+		}
+		shuffled.rewind();
+		mesh.setPolygonData(shuffled);
+	}
+
+	private static FloatBuffer copy(FloatBuffer buffer)
+	{
+		FloatBuffer copy = Buffers.newDirectFloatBuffer(buffer.capacity());
+		for (int i = 0; i < buffer.capacity(); ++i)
+		{
+			copy.put(i, buffer.get(i));
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,200 @@
+package cs5625.deferred.checks;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.MipBaker;
+import cs5625.deferred.materials.MipCache;
+import cs5625.deferred.materials.MipChain;
+import cs5625.deferred.materials.TextureData;
+
+/**
+ * MipBakerBenchmark.java
+ *
+ * Times baking a full mip chain of a 2048x2048 RGBA image with each `MipBaker` mode, against halving it
+ * level by level with GLU's scalar `HalveImage.halveImage_ubyte()`, and times loading a texture's chain
+ * through `MipCache`, baked on a miss and read back as DDS on a hit. Checks that the linear box filter
+ * matches `halveImage_ubyte()` exactly, that constant images stay constant in every mode (including every
+ * sRGB value), and that cached chains read back exactly as they were baked.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MipBakerBenchmark
+{
+	private static final int SIZE = 2048;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("MipBakerBenchmark");
+
+		final TextureData image = createImage(SIZE, new Random(5625));
+		final MipChain reference[] = new MipChain[1];
+
+		double glu = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				reference[0] = halveWithGLU(image);
+			}
+		}.best(2, 5);
+		report.note("%-28s %8.1f ms", "HalveImage.halveImage_ubyte", glu);
+
+		for (MipBaker.Filter filter : MipBaker.Filter.values())
+		{
+			for (boolean srgb : new boolean[] {false, true})
+			{
+				final MipBaker baker = new MipBaker(filter, srgb);
+				baker.setCache(null);
+				final MipChain chain[] = new MipChain[1];
+
+				double time = new Benchmark() {
+					@Override
+					protected void run()
+					{
+						chain[0] = baker.bake(image);
+					}
+				}.best(2, 5);
+				report.note("%-28s %8.1f ms (%.2fx GLU)", "MipBaker " + baker.getKey(), time, glu / time);
+
+				report.expect(chain[0].getLevelCount() == reference[0].getLevelCount(), baker.getKey() + ": " + chain[0].getLevelCount() + " levels");
+				if (filter == MipBaker.Filter.BOX && !srgb)
+				{
+					for (int level = 0; level < chain[0].getLevelCount(); ++level)
+					{
+						report.expect(equal(chain[0].getData(level), reference[0].getData(level)), baker.getKey() + ": level " + level + " matches halveImage_ubyte");
+					}
+				}
+			}
+		}
+
+		checkConstantImages(report);
+		benchmarkCache(report, "textures/brick1.png");
+
+		report.finish();
+	}
+
+	/* Every mode keeps a constant image constant; in sRGB mode, for every 8-bit value. */
+	private static void checkConstantImages(CheckReport report)
+	{
+		for (MipBaker.Filter filter : MipBaker.Filter.values())
+		{
+			for (boolean srgb : new boolean[] {false, true})
+			{
+				MipBaker baker = new MipBaker(filter, srgb);
+				baker.setCache(null);
+
+				int changed = 0;
+				for (int value = 0; value < 256; ++value)
+				{
+					ByteBuffer data = Buffers.newDirectByteBuffer(4 * 16 * 16);
+					for (int i = 0; i < data.capacity(); ++i)
+					{
+						data.put(i, (byte)(i % 4 == 3 ? 255 - value : value));
+					}
+
+					MipChain chain = baker.bake(new TextureData(16, 16, data));
+					ByteBuffer last = chain.getData(chain.getLevelCount() - 1);
+					if (last.get(0) != (byte)value || last.get(1) != (byte)value || last.get(2) != (byte)value || last.get(3) != (byte)(255 - value))
+					{
+						++changed;
+					}
+				}
+				report.expect(changed == 0, baker.getKey() + ": " + changed + " of 256 constant images changed value");
+			}
+		}
+	}
+
+	/* Loads a chain through a fresh cache twice: baked and written the first time, read the second. */
+	private static void benchmarkCache(CheckReport report, String identifier) throws Exception
+	{
+		URL url = MipBakerBenchmark.class.getClassLoader().getResource(identifier);
+		File directory = new File(System.getProperty("java.io.tmpdir"), "cs5625-mip-benchmark-" + System.nanoTime());
+		MipCache cache = new MipCache(directory);
+
+		MipBaker baker = new MipBaker(MipBaker.Filter.KAISER, true);
+		baker.setCache(cache);
+
+		long start = System.nanoTime();
+		MipChain baked = baker.load(url);
+		double miss = (System.nanoTime() - start) / 1.0e6;
+
+		double hit = Double.MAX_VALUE;
+		MipChain cached = null;
+		for (int i = 0; i < 5; ++i)
+		{
+			start = System.nanoTime();
+			cached = baker.load(url);
+			hit = Math.min(hit, (System.nanoTime() - start) / 1.0e6);
+		}
+
+		report.expect(cache.getMissCount() == 1 && cache.getHitCount() == 5, identifier + ": " + cache.getMissCount() + " misses and " + cache.getHitCount() + " hits");
+		boolean same = (cached.getLevelCount() == baked.getLevelCount());
+		for (int level = 0; same && level < baked.getLevelCount(); ++level)
+		{
+			same = equal(cached.getData(level), baked.getData(level));
+		}
+		report.expect(same, identifier + ": cached chain reads back exactly as baked");
+		report.note("%s (%dx%d) with %s: decode, bake and cache %.1f ms; read from the cache %.1f ms",
+				identifier, baked.getWidth(0), baked.getHeight(0), baker.getKey(), miss, hit);
+
+		for (File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	/* The chain GLU's mipmap builder would make, halving each level with the scalar kernel. */
+	private static MipChain halveWithGLU(TextureData image)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		ByteBuffer levels[] = new ByteBuffer[MipChain.computeLevelCount(width, height)];
+		levels[0] = image.getData();
+
+		for (int level = 1; level < levels.length; ++level)
+		{
+			int newWidth = Math.max(1, width / 2), newHeight = Math.max(1, height / 2);
+			levels[level] = Buffers.newDirectByteBuffer(4 * newWidth * newHeight);
+			levels[level - 1].rewind();
+			HalveImage.halveImage_ubyte(4, width, height, levels[level - 1], levels[level], 1, 4 * width, 4);
+			levels[level].rewind();
+			width = newWidth;
+			height = newHeight;
+		}
+		levels[0].rewind();
+
+		return new MipChain(image.getWidth(), image.getHeight(), levels);
+	}
+
+	/* A gradient with noise, so that levels differ from each other. */
+	private static TextureData createImage(int size, Random random)
+	{
+		ByteBuffer data = Buffers.newDirectByteBuffer(4 * size * size);
+		for (int y = 0; y < size; ++y)
+		{
+			for (int x = 0; x < size; ++x)
+			{
+				data.put((byte)(x + random.nextInt(32)));
+				data.put((byte)(y + random.nextInt(32)));
+				data.put((byte)((x ^ y) + random.nextInt(32)));
+				data.put((byte)(random.nextInt(256)));
+			}
+		}
+		data.rewind();
+		return new TextureData(size, size, data);
+	}
+
+	private static boolean equal(ByteBuffer a, ByteBuffer b)
+	{
+		return a.duplicate().rewind().equals(b.duplicate().rewind());
+	}
+}
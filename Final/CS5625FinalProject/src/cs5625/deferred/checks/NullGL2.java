@@ -0,0 +1,2406 @@
+package cs5625.deferred.checks;
+
+/**
+ * NullGL2.java
+ *
+ * GENERATED by `NullGL2Generator` from javax.media.opengl.GL2; do not edit. Every method does nothing and
+ * returns 0, false or null. Subclass it to fake the few calls a check depends on.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+@SuppressWarnings("deprecation")
+public class NullGL2 implements javax.media.opengl.GL2
+{
+	public int getBoundFramebuffer(int a0) { return 0; }
+	public javax.media.opengl.GLContext getContext() { return null; }
+	public int getDefaultDrawFramebuffer() { return 0; }
+	public int getDefaultReadFramebuffer() { return 0; }
+	public java.lang.Object getExtension(java.lang.String a0) { return null; }
+	public javax.media.opengl.GL getGL() { return null; }
+	public javax.media.opengl.GL2 getGL2() { return null; }
+	public javax.media.opengl.GL2ES1 getGL2ES1() { return null; }
+	public javax.media.opengl.GL2ES2 getGL2ES2() { return null; }
+	public javax.media.opengl.GL2GL3 getGL2GL3() { return null; }
+	public javax.media.opengl.GL3 getGL3() { return null; }
+	public javax.media.opengl.GL3bc getGL3bc() { return null; }
+	public javax.media.opengl.GL4 getGL4() { return null; }
+	public javax.media.opengl.GL4bc getGL4bc() { return null; }
+	public javax.media.opengl.GLES1 getGLES1() { return null; }
+	public javax.media.opengl.GLES2 getGLES2() { return null; }
+	public javax.media.opengl.GLProfile getGLProfile() { return null; }
+	public int getMaxRenderbufferSamples() { return 0; }
+	public java.lang.Object getPlatformGLExtensions() { return null; }
+	public int getSwapInterval() { return 0; }
+	public void glAccum(int a0, float a1) { }
+	public void glActiveShaderProgram(int a0, int a1) { }
+	public void glActiveStencilFaceEXT(int a0) { }
+	public void glActiveTexture(int a0) { }
+	public java.nio.ByteBuffer glAllocateMemoryNV(int a0, float a1, float a2, float a3) { return null; }
+	public void glAlphaFunc(int a0, float a1) { }
+	public void glApplyTextureEXT(int a0) { }
+	public boolean glAreTexturesResident(int a0, int[] a1, int a2, byte[] a3, int a4) { return false; }
+	public boolean glAreTexturesResident(int a0, java.nio.IntBuffer a1, java.nio.ByteBuffer a2) { return false; }
+	public void glArrayElement(int a0) { }
+	public void glAttachObjectARB(int a0, int a1) { }
+	public void glAttachShader(int a0, int a1) { }
+	public void glBegin(int a0) { }
+	public void glBeginConditionalRender(int a0, int a1) { }
+	public void glBeginOcclusionQueryNV(int a0) { }
+	public void glBeginPerfMonitorAMD(int a0) { }
+	public void glBeginQuery(int a0, int a1) { }
+	public void glBeginQueryIndexed(int a0, int a1, int a2) { }
+	public void glBeginTransformFeedback(int a0) { }
+	public void glBeginVertexShaderEXT() { }
+	public void glBeginVideoCaptureNV(int a0) { }
+	public void glBindAttribLocation(int a0, int a1, java.lang.String a2) { }
+	public void glBindBuffer(int a0, int a1) { }
+	public void glBindBufferBase(int a0, int a1, int a2) { }
+	public void glBindBufferOffset(int a0, int a1, int a2, long a3) { }
+	public void glBindBufferRange(int a0, int a1, int a2, long a3, long a4) { }
+	public void glBindFragDataLocation(int a0, int a1, java.lang.String a2) { }
+	public void glBindFragDataLocationIndexed(int a0, int a1, int a2, java.lang.String a3) { }
+	public void glBindFramebuffer(int a0, int a1) { }
+	public void glBindImageTexture(int a0, int a1, int a2, boolean a3, int a4, int a5, int a6) { }
+	public int glBindLightParameterEXT(int a0, int a1) { return 0; }
+	public int glBindMaterialParameterEXT(int a0, int a1) { return 0; }
+	public void glBindMultiTextureEXT(int a0, int a1, int a2) { }
+	public int glBindParameterEXT(int a0) { return 0; }
+	public void glBindProgramARB(int a0, int a1) { }
+	public void glBindProgramPipeline(int a0) { }
+	public void glBindRenderbuffer(int a0, int a1) { }
+	public void glBindSampler(int a0, int a1) { }
+	public int glBindTexGenParameterEXT(int a0, int a1, int a2) { return 0; }
+	public void glBindTexture(int a0, int a1) { }
+	public int glBindTextureUnitParameterEXT(int a0, int a1) { return 0; }
+	public void glBindTransformFeedback(int a0, int a1) { }
+	public void glBindTransformFeedbackNV(int a0, int a1) { }
+	public void glBindVertexArray(int a0) { }
+	public void glBindVertexShaderEXT(int a0) { }
+	public void glBindVideoCaptureStreamBufferNV(int a0, int a1, int a2, long a3) { }
+	public void glBindVideoCaptureStreamTextureNV(int a0, int a1, int a2, int a3, int a4) { }
+	public void glBitmap(int a0, int a1, float a2, float a3, float a4, float a5, byte[] a6, int a7) { }
+	public void glBitmap(int a0, int a1, float a2, float a3, float a4, float a5, java.nio.ByteBuffer a6) { }
+	public void glBitmap(int a0, int a1, float a2, float a3, float a4, float a5, long a6) { }
+	public void glBlendColor(float a0, float a1, float a2, float a3) { }
+	public void glBlendEquation(int a0) { }
+	public void glBlendEquationIndexedAMD(int a0, int a1) { }
+	public void glBlendEquationSeparate(int a0, int a1) { }
+	public void glBlendEquationSeparateIndexedAMD(int a0, int a1, int a2) { }
+	public void glBlendEquationSeparatei(int a0, int a1, int a2) { }
+	public void glBlendEquationi(int a0, int a1) { }
+	public void glBlendFunc(int a0, int a1) { }
+	public void glBlendFuncIndexedAMD(int a0, int a1, int a2) { }
+	public void glBlendFuncSeparate(int a0, int a1, int a2, int a3) { }
+	public void glBlendFuncSeparateINGR(int a0, int a1, int a2, int a3) { }
+	public void glBlendFuncSeparateIndexedAMD(int a0, int a1, int a2, int a3, int a4) { }
+	public void glBlendFuncSeparatei(int a0, int a1, int a2, int a3, int a4) { }
+	public void glBlendFunci(int a0, int a1, int a2) { }
+	public void glBlitFramebuffer(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9) { }
+	public void glBufferAddressRangeNV(int a0, int a1, long a2, long a3) { }
+	public void glBufferData(int a0, long a1, java.nio.Buffer a2, int a3) { }
+	public void glBufferParameteri(int a0, int a1, int a2) { }
+	public void glBufferSubData(int a0, long a1, long a2, java.nio.Buffer a3) { }
+	public void glCallList(int a0) { }
+	public void glCallLists(int a0, int a1, java.nio.Buffer a2) { }
+	public int glCheckFramebufferStatus(int a0) { return 0; }
+	public int glCheckNamedFramebufferStatusEXT(int a0, int a1) { return 0; }
+	public void glClampColor(int a0, int a1) { }
+	public void glClear(int a0) { }
+	public void glClearAccum(float a0, float a1, float a2, float a3) { }
+	public void glClearBufferfi(int a0, int a1, float a2, int a3) { }
+	public void glClearBufferfv(int a0, int a1, float[] a2, int a3) { }
+	public void glClearBufferfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glClearBufferiv(int a0, int a1, int[] a2, int a3) { }
+	public void glClearBufferiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glClearBufferuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glClearBufferuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glClearColor(float a0, float a1, float a2, float a3) { }
+	public void glClearColorIi(int a0, int a1, int a2, int a3) { }
+	public void glClearColorIui(int a0, int a1, int a2, int a3) { }
+	public void glClearDepth(double a0) { }
+	public void glClearDepthf(float a0) { }
+	public void glClearIndex(float a0) { }
+	public void glClearStencil(int a0) { }
+	public void glClientActiveTexture(int a0) { }
+	public void glClientAttribDefaultEXT(int a0) { }
+	public void glClipPlane(int a0, double[] a1, int a2) { }
+	public void glClipPlane(int a0, java.nio.DoubleBuffer a1) { }
+	public void glColor3b(byte a0, byte a1, byte a2) { }
+	public void glColor3bv(byte[] a0, int a1) { }
+	public void glColor3bv(java.nio.ByteBuffer a0) { }
+	public void glColor3d(double a0, double a1, double a2) { }
+	public void glColor3dv(double[] a0, int a1) { }
+	public void glColor3dv(java.nio.DoubleBuffer a0) { }
+	public void glColor3f(float a0, float a1, float a2) { }
+	public void glColor3fv(float[] a0, int a1) { }
+	public void glColor3fv(java.nio.FloatBuffer a0) { }
+	public void glColor3h(short a0, short a1, short a2) { }
+	public void glColor3hv(short[] a0, int a1) { }
+	public void glColor3hv(java.nio.ShortBuffer a0) { }
+	public void glColor3i(int a0, int a1, int a2) { }
+	public void glColor3iv(int[] a0, int a1) { }
+	public void glColor3iv(java.nio.IntBuffer a0) { }
+	public void glColor3s(short a0, short a1, short a2) { }
+	public void glColor3sv(short[] a0, int a1) { }
+	public void glColor3sv(java.nio.ShortBuffer a0) { }
+	public void glColor3ub(byte a0, byte a1, byte a2) { }
+	public void glColor3ubv(byte[] a0, int a1) { }
+	public void glColor3ubv(java.nio.ByteBuffer a0) { }
+	public void glColor3ui(int a0, int a1, int a2) { }
+	public void glColor3uiv(int[] a0, int a1) { }
+	public void glColor3uiv(java.nio.IntBuffer a0) { }
+	public void glColor3us(short a0, short a1, short a2) { }
+	public void glColor3usv(short[] a0, int a1) { }
+	public void glColor3usv(java.nio.ShortBuffer a0) { }
+	public void glColor4b(byte a0, byte a1, byte a2, byte a3) { }
+	public void glColor4bv(byte[] a0, int a1) { }
+	public void glColor4bv(java.nio.ByteBuffer a0) { }
+	public void glColor4d(double a0, double a1, double a2, double a3) { }
+	public void glColor4dv(double[] a0, int a1) { }
+	public void glColor4dv(java.nio.DoubleBuffer a0) { }
+	public void glColor4f(float a0, float a1, float a2, float a3) { }
+	public void glColor4fv(float[] a0, int a1) { }
+	public void glColor4fv(java.nio.FloatBuffer a0) { }
+	public void glColor4h(short a0, short a1, short a2, short a3) { }
+	public void glColor4hv(short[] a0, int a1) { }
+	public void glColor4hv(java.nio.ShortBuffer a0) { }
+	public void glColor4i(int a0, int a1, int a2, int a3) { }
+	public void glColor4iv(int[] a0, int a1) { }
+	public void glColor4iv(java.nio.IntBuffer a0) { }
+	public void glColor4s(short a0, short a1, short a2, short a3) { }
+	public void glColor4sv(short[] a0, int a1) { }
+	public void glColor4sv(java.nio.ShortBuffer a0) { }
+	public void glColor4ub(byte a0, byte a1, byte a2, byte a3) { }
+	public void glColor4ubv(byte[] a0, int a1) { }
+	public void glColor4ubv(java.nio.ByteBuffer a0) { }
+	public void glColor4ui(int a0, int a1, int a2, int a3) { }
+	public void glColor4uiv(int[] a0, int a1) { }
+	public void glColor4uiv(java.nio.IntBuffer a0) { }
+	public void glColor4us(short a0, short a1, short a2, short a3) { }
+	public void glColor4usv(short[] a0, int a1) { }
+	public void glColor4usv(java.nio.ShortBuffer a0) { }
+	public void glColorFormatNV(int a0, int a1, int a2) { }
+	public void glColorMask(boolean a0, boolean a1, boolean a2, boolean a3) { }
+	public void glColorMaskIndexed(int a0, boolean a1, boolean a2, boolean a3, boolean a4) { }
+	public void glColorMaski(int a0, boolean a1, boolean a2, boolean a3, boolean a4) { }
+	public void glColorMaterial(int a0, int a1) { }
+	public void glColorP3ui(int a0, int a1) { }
+	public void glColorP3uiv(int a0, int[] a1, int a2) { }
+	public void glColorP3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glColorP4ui(int a0, int a1) { }
+	public void glColorP4uiv(int a0, int[] a1, int a2) { }
+	public void glColorP4uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glColorPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glColorPointer(int a0, int a1, int a2, long a3) { }
+	public void glColorPointer(javax.media.opengl.GLArrayData a0) { }
+	public void glColorSubTable(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glColorSubTable(int a0, int a1, int a2, int a3, int a4, long a5) { }
+	public void glColorTable(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glColorTable(int a0, int a1, int a2, int a3, int a4, long a5) { }
+	public void glColorTableParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glColorTableParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glColorTableParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glColorTableParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glCompileShader(int a0) { }
+	public void glCompileShaderARB(int a0) { }
+	public void glCompileShaderIncludeARB(int a0, int a1, java.lang.String[] a2, int[] a3, int a4) { }
+	public void glCompileShaderIncludeARB(int a0, int a1, java.lang.String[] a2, java.nio.IntBuffer a3) { }
+	public void glCompressedMultiTexImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glCompressedMultiTexImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glCompressedMultiTexImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glCompressedMultiTexSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glCompressedMultiTexSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glCompressedMultiTexSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10, java.nio.Buffer a11) { }
+	public void glCompressedTexImage1D(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6) { }
+	public void glCompressedTexImage1D(int a0, int a1, int a2, int a3, int a4, int a5, long a6) { }
+	public void glCompressedTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glCompressedTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, long a7) { }
+	public void glCompressedTexImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glCompressedTexImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, long a8) { }
+	public void glCompressedTexSubImage1D(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6) { }
+	public void glCompressedTexSubImage1D(int a0, int a1, int a2, int a3, int a4, int a5, long a6) { }
+	public void glCompressedTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glCompressedTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, long a8) { }
+	public void glCompressedTexSubImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, java.nio.Buffer a10) { }
+	public void glCompressedTexSubImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, long a10) { }
+	public void glCompressedTextureImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glCompressedTextureImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glCompressedTextureImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glCompressedTextureSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glCompressedTextureSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glCompressedTextureSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10, java.nio.Buffer a11) { }
+	public void glConvolutionFilter1D(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glConvolutionFilter1D(int a0, int a1, int a2, int a3, int a4, long a5) { }
+	public void glConvolutionFilter2D(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6) { }
+	public void glConvolutionFilter2D(int a0, int a1, int a2, int a3, int a4, int a5, long a6) { }
+	public void glConvolutionParameterf(int a0, int a1, float a2) { }
+	public void glConvolutionParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glConvolutionParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glConvolutionParameteri(int a0, int a1, int a2) { }
+	public void glConvolutionParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glConvolutionParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glCopyBufferSubData(int a0, int a1, long a2, long a3, long a4) { }
+	public void glCopyColorSubTable(int a0, int a1, int a2, int a3, int a4) { }
+	public void glCopyColorTable(int a0, int a1, int a2, int a3, int a4) { }
+	public void glCopyConvolutionFilter1D(int a0, int a1, int a2, int a3, int a4) { }
+	public void glCopyConvolutionFilter2D(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glCopyImageSubDataNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10, int a11, int a12, int a13, int a14) { }
+	public void glCopyMultiTexImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) { }
+	public void glCopyMultiTexImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8) { }
+	public void glCopyMultiTexSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glCopyMultiTexSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8) { }
+	public void glCopyMultiTexSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9) { }
+	public void glCopyPixels(int a0, int a1, int a2, int a3, int a4) { }
+	public void glCopyTexImage1D(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glCopyTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) { }
+	public void glCopyTexSubImage1D(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glCopyTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) { }
+	public void glCopyTexSubImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8) { }
+	public void glCopyTextureImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7) { }
+	public void glCopyTextureImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8) { }
+	public void glCopyTextureSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glCopyTextureSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8) { }
+	public void glCopyTextureSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9) { }
+	public int glCreateProgram() { return 0; }
+	public int glCreateProgramObjectARB() { return 0; }
+	public int glCreateShader(int a0) { return 0; }
+	public int glCreateShaderObjectARB(int a0) { return 0; }
+	public int glCreateShaderProgramv(int a0, int a1, com.jogamp.common.nio.PointerBuffer a2) { return 0; }
+	public long glCreateSyncFromCLeventARB(java.nio.Buffer a0, java.nio.Buffer a1, int a2) { return 0; }
+	public void glCullFace(int a0) { }
+	public void glCullParameterdvEXT(int a0, double[] a1, int a2) { }
+	public void glCullParameterdvEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glCullParameterfvEXT(int a0, float[] a1, int a2) { }
+	public void glCullParameterfvEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glCurrentPaletteMatrix(int a0) { }
+	public void glDebugMessageControlARB(int a0, int a1, int a2, int a3, int[] a4, int a5, boolean a6) { }
+	public void glDebugMessageControlARB(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4, boolean a5) { }
+	public void glDebugMessageEnableAMD(int a0, int a1, int a2, int[] a3, int a4, boolean a5) { }
+	public void glDebugMessageEnableAMD(int a0, int a1, int a2, java.nio.IntBuffer a3, boolean a4) { }
+	public void glDebugMessageInsertAMD(int a0, int a1, int a2, int a3, java.lang.String a4) { }
+	public void glDebugMessageInsertARB(int a0, int a1, int a2, int a3, int a4, java.lang.String a5) { }
+	public void glDeleteBuffers(int a0, int[] a1, int a2) { }
+	public void glDeleteBuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteFencesAPPLE(int a0, int[] a1, int a2) { }
+	public void glDeleteFencesAPPLE(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteFencesNV(int a0, int[] a1, int a2) { }
+	public void glDeleteFencesNV(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteFramebuffers(int a0, int[] a1, int a2) { }
+	public void glDeleteFramebuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteLists(int a0, int a1) { }
+	public void glDeleteNamedStringARB(int a0, java.lang.String a1) { }
+	public void glDeleteNamesAMD(int a0, int a1, int[] a2, int a3) { }
+	public void glDeleteNamesAMD(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glDeleteObjectARB(int a0) { }
+	public void glDeleteOcclusionQueriesNV(int a0, int[] a1, int a2) { }
+	public void glDeleteOcclusionQueriesNV(int a0, java.nio.IntBuffer a1) { }
+	public void glDeletePerfMonitorsAMD(int a0, int[] a1, int a2) { }
+	public void glDeletePerfMonitorsAMD(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteProgram(int a0) { }
+	public void glDeleteProgramPipelines(int a0, int[] a1, int a2) { }
+	public void glDeleteProgramPipelines(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteProgramsARB(int a0, int[] a1, int a2) { }
+	public void glDeleteProgramsARB(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteQueries(int a0, int[] a1, int a2) { }
+	public void glDeleteQueries(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteRenderbuffers(int a0, int[] a1, int a2) { }
+	public void glDeleteRenderbuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteSamplers(int a0, int[] a1, int a2) { }
+	public void glDeleteSamplers(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteShader(int a0) { }
+	public void glDeleteTextures(int a0, int[] a1, int a2) { }
+	public void glDeleteTextures(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteTransformFeedbacks(int a0, int[] a1, int a2) { }
+	public void glDeleteTransformFeedbacks(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteTransformFeedbacksNV(int a0, int[] a1, int a2) { }
+	public void glDeleteTransformFeedbacksNV(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteVertexArrays(int a0, int[] a1, int a2) { }
+	public void glDeleteVertexArrays(int a0, java.nio.IntBuffer a1) { }
+	public void glDeleteVertexShaderEXT(int a0) { }
+	public void glDepthBoundsEXT(double a0, double a1) { }
+	public void glDepthFunc(int a0) { }
+	public void glDepthMask(boolean a0) { }
+	public void glDepthRange(double a0, double a1) { }
+	public void glDepthRangeArrayv(int a0, int a1, double[] a2, int a3) { }
+	public void glDepthRangeArrayv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glDepthRangeIndexed(int a0, double a1, double a2) { }
+	public void glDepthRangef(float a0, float a1) { }
+	public void glDetachObjectARB(int a0, int a1) { }
+	public void glDetachShader(int a0, int a1) { }
+	public void glDisable(int a0) { }
+	public void glDisableClientState(int a0) { }
+	public void glDisableClientStateIndexedEXT(int a0, int a1) { }
+	public void glDisableIndexed(int a0, int a1) { }
+	public void glDisableVariantClientStateEXT(int a0) { }
+	public void glDisableVertexAttribAPPLE(int a0, int a1) { }
+	public void glDisableVertexAttribArray(int a0) { }
+	public void glDisableVertexAttribArrayARB(int a0) { }
+	public void glDisablei(int a0, int a1) { }
+	public void glDrawArrays(int a0, int a1, int a2) { }
+	public void glDrawArraysInstanced(int a0, int a1, int a2, int a3) { }
+	public void glDrawArraysInstancedBaseInstance(int a0, int a1, int a2, int a3, int a4) { }
+	public void glDrawBuffer(int a0) { }
+	public void glDrawBuffers(int a0, int[] a1, int a2) { }
+	public void glDrawBuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glDrawBuffersATI(int a0, int[] a1, int a2) { }
+	public void glDrawBuffersATI(int a0, java.nio.IntBuffer a1) { }
+	public void glDrawElements(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glDrawElements(int a0, int a1, int a2, long a3) { }
+	public void glDrawElementsBaseVertex(int a0, int a1, int a2, java.nio.Buffer a3, int a4) { }
+	public void glDrawElementsInstanced(int a0, int a1, int a2, java.nio.Buffer a3, int a4) { }
+	public void glDrawElementsInstancedBaseInstance(int a0, int a1, int a2, java.nio.Buffer a3, int a4, int a5) { }
+	public void glDrawElementsInstancedBaseVertex(int a0, int a1, int a2, java.nio.Buffer a3, int a4, int a5) { }
+	public void glDrawElementsInstancedBaseVertexBaseInstance(int a0, int a1, int a2, java.nio.Buffer a3, int a4, int a5, int a6) { }
+	public void glDrawPixels(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glDrawPixels(int a0, int a1, int a2, int a3, long a4) { }
+	public void glDrawRangeElements(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glDrawRangeElements(int a0, int a1, int a2, int a3, int a4, long a5) { }
+	public void glDrawRangeElementsBaseVertex(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5, int a6) { }
+	public void glDrawTransformFeedback(int a0, int a1) { }
+	public void glDrawTransformFeedbackInstanced(int a0, int a1, int a2) { }
+	public void glDrawTransformFeedbackNV(int a0, int a1) { }
+	public void glDrawTransformFeedbackStream(int a0, int a1, int a2) { }
+	public void glDrawTransformFeedbackStreamInstanced(int a0, int a1, int a2, int a3) { }
+	public void glEdgeFlag(boolean a0) { }
+	public void glEdgeFlagFormatNV(int a0) { }
+	public void glEdgeFlagPointer(int a0, java.nio.Buffer a1) { }
+	public void glEdgeFlagPointer(int a0, long a1) { }
+	public void glEdgeFlagv(byte[] a0, int a1) { }
+	public void glEdgeFlagv(java.nio.ByteBuffer a0) { }
+	public void glEnable(int a0) { }
+	public void glEnableClientState(int a0) { }
+	public void glEnableClientStateIndexedEXT(int a0, int a1) { }
+	public void glEnableIndexed(int a0, int a1) { }
+	public void glEnableVariantClientStateEXT(int a0) { }
+	public void glEnableVertexAttribAPPLE(int a0, int a1) { }
+	public void glEnableVertexAttribArray(int a0) { }
+	public void glEnableVertexAttribArrayARB(int a0) { }
+	public void glEnablei(int a0, int a1) { }
+	public void glEnd() { }
+	public void glEndConditionalRender() { }
+	public void glEndList() { }
+	public void glEndOcclusionQueryNV() { }
+	public void glEndPerfMonitorAMD(int a0) { }
+	public void glEndQuery(int a0) { }
+	public void glEndQueryIndexed(int a0, int a1) { }
+	public void glEndTransformFeedback() { }
+	public void glEndVertexShaderEXT() { }
+	public void glEndVideoCaptureNV(int a0) { }
+	public void glEvalCoord1d(double a0) { }
+	public void glEvalCoord1dv(double[] a0, int a1) { }
+	public void glEvalCoord1dv(java.nio.DoubleBuffer a0) { }
+	public void glEvalCoord1f(float a0) { }
+	public void glEvalCoord1fv(float[] a0, int a1) { }
+	public void glEvalCoord1fv(java.nio.FloatBuffer a0) { }
+	public void glEvalCoord2d(double a0, double a1) { }
+	public void glEvalCoord2dv(double[] a0, int a1) { }
+	public void glEvalCoord2dv(java.nio.DoubleBuffer a0) { }
+	public void glEvalCoord2f(float a0, float a1) { }
+	public void glEvalCoord2fv(float[] a0, int a1) { }
+	public void glEvalCoord2fv(java.nio.FloatBuffer a0) { }
+	public void glEvalMapsNV(int a0, int a1) { }
+	public void glEvalMesh1(int a0, int a1, int a2) { }
+	public void glEvalMesh2(int a0, int a1, int a2, int a3, int a4) { }
+	public void glEvalPoint1(int a0) { }
+	public void glEvalPoint2(int a0, int a1) { }
+	public void glExtractComponentEXT(int a0, int a1, int a2) { }
+	public void glFeedbackBuffer(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glFinish() { }
+	public void glFinishFenceAPPLE(int a0) { }
+	public void glFinishFenceNV(int a0) { }
+	public void glFinishObjectAPPLE(int a0, int a1) { }
+	public void glFinishRenderAPPLE() { }
+	public void glFinishTextureSUNX() { }
+	public void glFlush() { }
+	public void glFlushMappedBufferRange(int a0, long a1, long a2) { }
+	public void glFlushMappedNamedBufferRangeEXT(int a0, long a1, long a2) { }
+	public void glFlushPixelDataRangeNV(int a0) { }
+	public void glFlushRenderAPPLE() { }
+	public void glFlushVertexArrayRangeAPPLE(int a0, java.nio.Buffer a1) { }
+	public void glFlushVertexArrayRangeNV() { }
+	public void glFogCoordFormatNV(int a0, int a1) { }
+	public void glFogCoordPointer(int a0, int a1, java.nio.Buffer a2) { }
+	public void glFogCoordPointer(int a0, int a1, long a2) { }
+	public void glFogCoordd(double a0) { }
+	public void glFogCoorddv(double[] a0, int a1) { }
+	public void glFogCoorddv(java.nio.DoubleBuffer a0) { }
+	public void glFogCoordf(float a0) { }
+	public void glFogCoordfv(float[] a0, int a1) { }
+	public void glFogCoordfv(java.nio.FloatBuffer a0) { }
+	public void glFogCoordh(short a0) { }
+	public void glFogCoordhv(short[] a0, int a1) { }
+	public void glFogCoordhv(java.nio.ShortBuffer a0) { }
+	public void glFogf(int a0, float a1) { }
+	public void glFogfv(int a0, float[] a1, int a2) { }
+	public void glFogfv(int a0, java.nio.FloatBuffer a1) { }
+	public void glFogi(int a0, int a1) { }
+	public void glFogiv(int a0, int[] a1, int a2) { }
+	public void glFogiv(int a0, java.nio.IntBuffer a1) { }
+	public void glFrameTerminatorGREMEDY() { }
+	public void glFramebufferDrawBufferEXT(int a0, int a1) { }
+	public void glFramebufferDrawBuffersEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glFramebufferDrawBuffersEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glFramebufferReadBufferEXT(int a0, int a1) { }
+	public void glFramebufferRenderbuffer(int a0, int a1, int a2, int a3) { }
+	public void glFramebufferTexture1D(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTexture2D(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTexture3D(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glFramebufferTextureARB(int a0, int a1, int a2, int a3) { }
+	public void glFramebufferTextureEXT(int a0, int a1, int a2, int a3) { }
+	public void glFramebufferTextureFaceARB(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTextureFaceEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTextureLayer(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTextureLayerARB(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFramebufferTextureLayerEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glFrontFace(int a0) { }
+	public void glFrustum(double a0, double a1, double a2, double a3, double a4, double a5) { }
+	public void glFrustumf(float a0, float a1, float a2, float a3, float a4, float a5) { }
+	public void glGenBuffers(int a0, int[] a1, int a2) { }
+	public void glGenBuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glGenFencesAPPLE(int a0, int[] a1, int a2) { }
+	public void glGenFencesAPPLE(int a0, java.nio.IntBuffer a1) { }
+	public void glGenFencesNV(int a0, int[] a1, int a2) { }
+	public void glGenFencesNV(int a0, java.nio.IntBuffer a1) { }
+	public void glGenFramebuffers(int a0, int[] a1, int a2) { }
+	public void glGenFramebuffers(int a0, java.nio.IntBuffer a1) { }
+	public int glGenLists(int a0) { return 0; }
+	public void glGenNamesAMD(int a0, int a1, int[] a2, int a3) { }
+	public void glGenNamesAMD(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGenOcclusionQueriesNV(int a0, int[] a1, int a2) { }
+	public void glGenOcclusionQueriesNV(int a0, java.nio.IntBuffer a1) { }
+	public void glGenPerfMonitorsAMD(int a0, int[] a1, int a2) { }
+	public void glGenPerfMonitorsAMD(int a0, java.nio.IntBuffer a1) { }
+	public void glGenProgramPipelines(int a0, int[] a1, int a2) { }
+	public void glGenProgramPipelines(int a0, java.nio.IntBuffer a1) { }
+	public void glGenProgramsARB(int a0, int[] a1, int a2) { }
+	public void glGenProgramsARB(int a0, java.nio.IntBuffer a1) { }
+	public void glGenQueries(int a0, int[] a1, int a2) { }
+	public void glGenQueries(int a0, java.nio.IntBuffer a1) { }
+	public void glGenRenderbuffers(int a0, int[] a1, int a2) { }
+	public void glGenRenderbuffers(int a0, java.nio.IntBuffer a1) { }
+	public void glGenSamplers(int a0, int[] a1, int a2) { }
+	public void glGenSamplers(int a0, java.nio.IntBuffer a1) { }
+	public int glGenSymbolsEXT(int a0, int a1, int a2, int a3) { return 0; }
+	public void glGenTextures(int a0, int[] a1, int a2) { }
+	public void glGenTextures(int a0, java.nio.IntBuffer a1) { }
+	public void glGenTransformFeedbacks(int a0, int[] a1, int a2) { }
+	public void glGenTransformFeedbacks(int a0, java.nio.IntBuffer a1) { }
+	public void glGenTransformFeedbacksNV(int a0, int[] a1, int a2) { }
+	public void glGenTransformFeedbacksNV(int a0, java.nio.IntBuffer a1) { }
+	public void glGenVertexArrays(int a0, int[] a1, int a2) { }
+	public void glGenVertexArrays(int a0, java.nio.IntBuffer a1) { }
+	public int glGenVertexShadersEXT(int a0) { return 0; }
+	public void glGenerateMipmap(int a0) { }
+	public void glGenerateMultiTexMipmapEXT(int a0, int a1) { }
+	public void glGenerateTextureMipmapEXT(int a0, int a1) { }
+	public void glGetActiveAtomicCounterBufferiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetActiveAtomicCounterBufferiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetActiveAttrib(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) { }
+	public void glGetActiveAttrib(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.ByteBuffer a6) { }
+	public void glGetActiveSubroutineName(int a0, int a1, int a2, int a3, int[] a4, int a5, byte[] a6, int a7) { }
+	public void glGetActiveSubroutineName(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4, java.nio.ByteBuffer a5) { }
+	public void glGetActiveSubroutineUniformName(int a0, int a1, int a2, int a3, int[] a4, int a5, byte[] a6, int a7) { }
+	public void glGetActiveSubroutineUniformName(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4, java.nio.ByteBuffer a5) { }
+	public void glGetActiveSubroutineUniformiv(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glGetActiveSubroutineUniformiv(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetActiveUniform(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) { }
+	public void glGetActiveUniform(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.ByteBuffer a6) { }
+	public void glGetActiveUniformARB(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) { }
+	public void glGetActiveUniformARB(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.ByteBuffer a6) { }
+	public void glGetActiveUniformBlockName(int a0, int a1, int a2, int[] a3, int a4, byte[] a5, int a6) { }
+	public void glGetActiveUniformBlockName(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.ByteBuffer a4) { }
+	public void glGetActiveUniformBlockiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetActiveUniformBlockiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetActiveUniformName(int a0, int a1, int a2, int[] a3, int a4, byte[] a5, int a6) { }
+	public void glGetActiveUniformName(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.ByteBuffer a4) { }
+	public void glGetActiveUniformsiv(int a0, int a1, int[] a2, int a3, int a4, int[] a5, int a6) { }
+	public void glGetActiveUniformsiv(int a0, int a1, java.nio.IntBuffer a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetAttachedObjectsARB(int a0, int a1, int[] a2, int a3, int[] a4, int a5) { }
+	public void glGetAttachedObjectsARB(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3) { }
+	public void glGetAttachedShaders(int a0, int a1, int[] a2, int a3, int[] a4, int a5) { }
+	public void glGetAttachedShaders(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3) { }
+	public int glGetAttribLocation(int a0, java.lang.String a1) { return 0; }
+	public void glGetBooleanIndexedv(int a0, int a1, byte[] a2, int a3) { }
+	public void glGetBooleanIndexedv(int a0, int a1, java.nio.ByteBuffer a2) { }
+	public void glGetBooleani_v(int a0, int a1, byte[] a2, int a3) { }
+	public void glGetBooleani_v(int a0, int a1, java.nio.ByteBuffer a2) { }
+	public void glGetBooleanv(int a0, byte[] a1, int a2) { }
+	public void glGetBooleanv(int a0, java.nio.ByteBuffer a1) { }
+	public int glGetBoundBuffer(int a0) { return 0; }
+	public void glGetBufferParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetBufferParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetBufferParameterui64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetBufferParameterui64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public long glGetBufferSize(int a0) { return 0; }
+	public void glGetBufferSubData(int a0, long a1, long a2, java.nio.Buffer a3) { }
+	public void glGetClipPlane(int a0, double[] a1, int a2) { }
+	public void glGetClipPlane(int a0, java.nio.DoubleBuffer a1) { }
+	public void glGetColorTable(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetColorTable(int a0, int a1, int a2, long a3) { }
+	public void glGetColorTableParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetColorTableParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetColorTableParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetColorTableParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetCompressedMultiTexImageEXT(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetCompressedTexImage(int a0, int a1, java.nio.Buffer a2) { }
+	public void glGetCompressedTexImage(int a0, int a1, long a2) { }
+	public void glGetCompressedTextureImageEXT(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetConvolutionFilter(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetConvolutionFilter(int a0, int a1, int a2, long a3) { }
+	public void glGetConvolutionParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetConvolutionParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetConvolutionParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetConvolutionParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public int glGetDebugMessageLogAMD(int a0, int a1, int[] a2, int a3, int[] a4, int a5, int[] a6, int a7, int[] a8, int a9, byte[] a10, int a11) { return 0; }
+	public int glGetDebugMessageLogAMD(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.ByteBuffer a6) { return 0; }
+	public int glGetDebugMessageLogARB(int a0, int a1, int[] a2, int a3, int[] a4, int a5, int[] a6, int a7, int[] a8, int a9, int[] a10, int a11, byte[] a12, int a13) { return 0; }
+	public int glGetDebugMessageLogARB(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.IntBuffer a6, java.nio.ByteBuffer a7) { return 0; }
+	public void glGetDoubleIndexedvEXT(int a0, int a1, double[] a2, int a3) { }
+	public void glGetDoubleIndexedvEXT(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetDoublei_v(int a0, int a1, double[] a2, int a3) { }
+	public void glGetDoublei_v(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetDoublev(int a0, double[] a1, int a2) { }
+	public void glGetDoublev(int a0, java.nio.DoubleBuffer a1) { }
+	public int glGetError() { return 0; }
+	public void glGetFenceivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetFenceivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetFloatIndexedvEXT(int a0, int a1, float[] a2, int a3) { }
+	public void glGetFloatIndexedvEXT(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetFloati_v(int a0, int a1, float[] a2, int a3) { }
+	public void glGetFloati_v(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetFloatv(int a0, float[] a1, int a2) { }
+	public void glGetFloatv(int a0, java.nio.FloatBuffer a1) { }
+	public int glGetFragDataIndex(int a0, java.lang.String a1) { return 0; }
+	public int glGetFragDataLocation(int a0, java.lang.String a1) { return 0; }
+	public void glGetFramebufferAttachmentParameteriv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetFramebufferAttachmentParameteriv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetFramebufferParameterivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetFramebufferParameterivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public int glGetGraphicsResetStatus() { return 0; }
+	public int glGetHandleARB(int a0) { return 0; }
+	public void glGetHistogram(int a0, boolean a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glGetHistogram(int a0, boolean a1, int a2, int a3, long a4) { }
+	public void glGetHistogramParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetHistogramParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetHistogramParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetHistogramParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetInfoLogARB(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetInfoLogARB(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetIntegerIndexedv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetIntegerIndexedv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetIntegeri_v(int a0, int a1, int[] a2, int a3) { }
+	public void glGetIntegeri_v(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetIntegerui64i_vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetIntegerui64i_vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetIntegerui64vNV(int a0, long[] a1, int a2) { }
+	public void glGetIntegerui64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glGetIntegerv(int a0, int[] a1, int a2) { }
+	public void glGetIntegerv(int a0, java.nio.IntBuffer a1) { }
+	public void glGetInternalformativ(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glGetInternalformativ(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetInvariantBooleanvEXT(int a0, int a1, byte[] a2, int a3) { }
+	public void glGetInvariantBooleanvEXT(int a0, int a1, java.nio.ByteBuffer a2) { }
+	public void glGetInvariantFloatvEXT(int a0, int a1, float[] a2, int a3) { }
+	public void glGetInvariantFloatvEXT(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetInvariantIntegervEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetInvariantIntegervEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetLightfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetLightfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetLightiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetLightiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetLocalConstantBooleanvEXT(int a0, int a1, byte[] a2, int a3) { }
+	public void glGetLocalConstantBooleanvEXT(int a0, int a1, java.nio.ByteBuffer a2) { }
+	public void glGetLocalConstantFloatvEXT(int a0, int a1, float[] a2, int a3) { }
+	public void glGetLocalConstantFloatvEXT(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetLocalConstantIntegervEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetLocalConstantIntegervEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetMapAttribParameterfvNV(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetMapAttribParameterfvNV(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetMapAttribParameterivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMapAttribParameterivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMapControlPointsNV(int a0, int a1, int a2, int a3, int a4, boolean a5, java.nio.Buffer a6) { }
+	public void glGetMapParameterfvNV(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMapParameterfvNV(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetMapParameterivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetMapParameterivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetMapdv(int a0, int a1, double[] a2, int a3) { }
+	public void glGetMapdv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetMapfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMapfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetMapiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetMapiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetMaterialfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMaterialfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetMaterialiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetMaterialiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetMinmax(int a0, boolean a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glGetMinmax(int a0, boolean a1, int a2, int a3, long a4) { }
+	public void glGetMinmaxParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMinmaxParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetMinmaxParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetMinmaxParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetMultiTexEnvfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetMultiTexEnvfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetMultiTexEnvivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMultiTexEnvivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMultiTexGendvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glGetMultiTexGendvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glGetMultiTexGenfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetMultiTexGenfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetMultiTexGenivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMultiTexGenivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMultiTexImageEXT(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glGetMultiTexLevelParameterfvEXT(int a0, int a1, int a2, int a3, float[] a4, int a5) { }
+	public void glGetMultiTexLevelParameterfvEXT(int a0, int a1, int a2, int a3, java.nio.FloatBuffer a4) { }
+	public void glGetMultiTexLevelParameterivEXT(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glGetMultiTexLevelParameterivEXT(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetMultiTexParameterIivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMultiTexParameterIivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMultiTexParameterIuivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMultiTexParameterIuivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMultiTexParameterfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetMultiTexParameterfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetMultiTexParameterivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetMultiTexParameterivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetMultisamplefv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMultisamplefv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetMultisamplefvNV(int a0, int a1, float[] a2, int a3) { }
+	public void glGetMultisamplefvNV(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetNamedBufferParameterivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetNamedBufferParameterivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetNamedBufferParameterui64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetNamedBufferParameterui64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetNamedBufferSubDataEXT(int a0, long a1, long a2, java.nio.Buffer a3) { }
+	public void glGetNamedFramebufferAttachmentParameterivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetNamedFramebufferAttachmentParameterivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetNamedProgramLocalParameterIivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetNamedProgramLocalParameterIivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetNamedProgramLocalParameterIuivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetNamedProgramLocalParameterIuivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetNamedProgramLocalParameterdvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glGetNamedProgramLocalParameterdvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glGetNamedProgramLocalParameterfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetNamedProgramLocalParameterfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetNamedProgramStringEXT(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetNamedProgramivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetNamedProgramivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetNamedRenderbufferParameterivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetNamedRenderbufferParameterivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetNamedStringARB(int a0, java.lang.String a1, int a2, int[] a3, int a4, byte[] a5, int a6) { }
+	public void glGetNamedStringARB(int a0, java.lang.String a1, int a2, java.nio.IntBuffer a3, java.nio.ByteBuffer a4) { }
+	public void glGetNamedStringivARB(int a0, java.lang.String a1, int a2, int[] a3, int a4) { }
+	public void glGetNamedStringivARB(int a0, java.lang.String a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetObjectParameterfvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glGetObjectParameterfvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetObjectParameterivAPPLE(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetObjectParameterivAPPLE(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetObjectParameterivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glGetObjectParameterivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetOcclusionQueryivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetOcclusionQueryivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetOcclusionQueryuivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetOcclusionQueryuivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetPerfMonitorCounterDataAMD(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6) { }
+	public void glGetPerfMonitorCounterDataAMD(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4) { }
+	public void glGetPerfMonitorCounterInfoAMD(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetPerfMonitorCounterStringAMD(int a0, int a1, int a2, int[] a3, int a4, byte[] a5, int a6) { }
+	public void glGetPerfMonitorCounterStringAMD(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.ByteBuffer a4) { }
+	public void glGetPerfMonitorCountersAMD(int a0, int[] a1, int a2, int[] a3, int a4, int a5, int[] a6, int a7) { }
+	public void glGetPerfMonitorCountersAMD(int a0, java.nio.IntBuffer a1, java.nio.IntBuffer a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetPerfMonitorGroupStringAMD(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetPerfMonitorGroupStringAMD(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetPerfMonitorGroupsAMD(int[] a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetPerfMonitorGroupsAMD(java.nio.IntBuffer a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetPixelMapfv(int a0, float[] a1, int a2) { }
+	public void glGetPixelMapfv(int a0, java.nio.FloatBuffer a1) { }
+	public void glGetPixelMapfv(int a0, long a1) { }
+	public void glGetPixelMapuiv(int a0, int[] a1, int a2) { }
+	public void glGetPixelMapuiv(int a0, java.nio.IntBuffer a1) { }
+	public void glGetPixelMapuiv(int a0, long a1) { }
+	public void glGetPixelMapusv(int a0, short[] a1, int a2) { }
+	public void glGetPixelMapusv(int a0, java.nio.ShortBuffer a1) { }
+	public void glGetPixelMapusv(int a0, long a1) { }
+	public void glGetPolygonStipple(byte[] a0, int a1) { }
+	public void glGetPolygonStipple(java.nio.ByteBuffer a0) { }
+	public void glGetPolygonStipple(long a0) { }
+	public void glGetProgramBinary(int a0, int a1, int[] a2, int a3, int[] a4, int a5, java.nio.Buffer a6) { }
+	public void glGetProgramBinary(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3, java.nio.Buffer a4) { }
+	public void glGetProgramEnvParameterIivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramEnvParameterIivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramEnvParameterIuivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramEnvParameterIuivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramEnvParameterdvARB(int a0, int a1, double[] a2, int a3) { }
+	public void glGetProgramEnvParameterdvARB(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetProgramEnvParameterfvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glGetProgramEnvParameterfvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetProgramInfoLog(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetProgramInfoLog(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetProgramLocalParameterIivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramLocalParameterIivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramLocalParameterIuivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramLocalParameterIuivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramLocalParameterdvARB(int a0, int a1, double[] a2, int a3) { }
+	public void glGetProgramLocalParameterdvARB(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetProgramLocalParameterfvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glGetProgramLocalParameterfvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetProgramPipelineInfoLog(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetProgramPipelineInfoLog(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetProgramPipelineiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramPipelineiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramStageiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetProgramStageiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetProgramStringARB(int a0, int a1, java.nio.Buffer a2) { }
+	public void glGetProgramSubroutineParameteruivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramSubroutineParameteruivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetProgramivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glGetProgramivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetQueryIndexediv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetQueryIndexediv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetQueryObjecti64v(int a0, int a1, long[] a2, int a3) { }
+	public void glGetQueryObjecti64v(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetQueryObjecti64vEXT(int a0, int a1, long[] a2, int a3) { }
+	public void glGetQueryObjecti64vEXT(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetQueryObjectiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetQueryObjectiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetQueryObjectui64v(int a0, int a1, long[] a2, int a3) { }
+	public void glGetQueryObjectui64v(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetQueryObjectui64vEXT(int a0, int a1, long[] a2, int a3) { }
+	public void glGetQueryObjectui64vEXT(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetQueryObjectuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetQueryObjectuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetQueryiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetQueryiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetRenderbufferParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetRenderbufferParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetSamplerParameterIiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetSamplerParameterIiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetSamplerParameterIuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetSamplerParameterIuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetSamplerParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetSamplerParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetSamplerParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetSamplerParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetSeparableFilter(int a0, int a1, int a2, java.nio.Buffer a3, java.nio.Buffer a4, java.nio.Buffer a5) { }
+	public void glGetSeparableFilter(int a0, int a1, int a2, long a3, long a4, long a5) { }
+	public void glGetShaderInfoLog(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetShaderInfoLog(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetShaderPrecisionFormat(int a0, int a1, int[] a2, int a3, int[] a4, int a5) { }
+	public void glGetShaderPrecisionFormat(int a0, int a1, java.nio.IntBuffer a2, java.nio.IntBuffer a3) { }
+	public void glGetShaderSource(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetShaderSource(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetShaderSourceARB(int a0, int a1, int[] a2, int a3, byte[] a4, int a5) { }
+	public void glGetShaderSourceARB(int a0, int a1, java.nio.IntBuffer a2, java.nio.ByteBuffer a3) { }
+	public void glGetShaderiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetShaderiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public java.lang.String glGetString(int a0) { return null; }
+	public java.lang.String glGetStringi(int a0, int a1) { return null; }
+	public int glGetSubroutineIndex(int a0, int a1, java.lang.String a2) { return 0; }
+	public int glGetSubroutineUniformLocation(int a0, int a1, java.lang.String a2) { return 0; }
+	public void glGetTexEnvfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetTexEnvfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetTexEnviv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetTexEnviv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetTexGendv(int a0, int a1, double[] a2, int a3) { }
+	public void glGetTexGendv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetTexGenfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetTexGenfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetTexGeniv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetTexGeniv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetTexImage(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glGetTexImage(int a0, int a1, int a2, int a3, long a4) { }
+	public void glGetTexLevelParameterfv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetTexLevelParameterfv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetTexLevelParameteriv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetTexLevelParameteriv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetTexParameterIiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetTexParameterIiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetTexParameterIuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetTexParameterIuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetTexParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetTexParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetTexParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetTexParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetTextureImageEXT(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glGetTextureLevelParameterfvEXT(int a0, int a1, int a2, int a3, float[] a4, int a5) { }
+	public void glGetTextureLevelParameterfvEXT(int a0, int a1, int a2, int a3, java.nio.FloatBuffer a4) { }
+	public void glGetTextureLevelParameterivEXT(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glGetTextureLevelParameterivEXT(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glGetTextureParameterIivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetTextureParameterIivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetTextureParameterIuivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetTextureParameterIuivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetTextureParameterfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetTextureParameterfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetTextureParameterivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetTextureParameterivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetTransformFeedbackVarying(int a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6, int[] a7, int a8, byte[] a9, int a10) { }
+	public void glGetTransformFeedbackVarying(int a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4, java.nio.IntBuffer a5, java.nio.ByteBuffer a6) { }
+	public int glGetUniformBlockIndex(int a0, java.lang.String a1) { return 0; }
+	public int glGetUniformBufferSizeEXT(int a0, int a1) { return 0; }
+	public void glGetUniformIndices(int a0, int a1, java.lang.String[] a2, int[] a3, int a4) { }
+	public void glGetUniformIndices(int a0, int a1, java.lang.String[] a2, java.nio.IntBuffer a3) { }
+	public int glGetUniformLocation(int a0, java.lang.String a1) { return 0; }
+	public int glGetUniformLocationARB(int a0, java.lang.String a1) { return 0; }
+	public long glGetUniformOffsetEXT(int a0, int a1) { return 0; }
+	public void glGetUniformSubroutineuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetUniformSubroutineuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetUniformfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetUniformfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetUniformfvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glGetUniformfvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetUniformiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetUniformiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetUniformivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glGetUniformivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetUniformui64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetUniformui64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetUniformuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetUniformuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVariantBooleanvEXT(int a0, int a1, byte[] a2, int a3) { }
+	public void glGetVariantBooleanvEXT(int a0, int a1, java.nio.ByteBuffer a2) { }
+	public void glGetVariantFloatvEXT(int a0, int a1, float[] a2, int a3) { }
+	public void glGetVariantFloatvEXT(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetVariantIntegervEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVariantIntegervEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribIiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribIiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribIivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribIivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribIuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribIuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribIuivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribIuivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribLdv(int a0, int a1, double[] a2, int a3) { }
+	public void glGetVertexAttribLdv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetVertexAttribLi64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetVertexAttribLi64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetVertexAttribLui64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glGetVertexAttribLui64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glGetVertexAttribdv(int a0, int a1, double[] a2, int a3) { }
+	public void glGetVertexAttribdv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetVertexAttribdvARB(int a0, int a1, double[] a2, int a3) { }
+	public void glGetVertexAttribdvARB(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glGetVertexAttribfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetVertexAttribfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetVertexAttribfvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glGetVertexAttribfvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetVertexAttribiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVertexAttribivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVertexAttribivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetVideoCaptureStreamdvNV(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glGetVideoCaptureStreamdvNV(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glGetVideoCaptureStreamfvNV(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetVideoCaptureStreamfvNV(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetVideoCaptureStreamivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetVideoCaptureStreamivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetVideoCaptureivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glGetVideoCaptureivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetnColorTable(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glGetnCompressedTexImage(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glGetnConvolutionFilter(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glGetnHistogram(int a0, boolean a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glGetnMapdv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glGetnMapdv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glGetnMapfv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetnMapfv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetnMapiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetnMapiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetnMinmax(int a0, boolean a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glGetnPixelMapfv(int a0, int a1, float[] a2, int a3) { }
+	public void glGetnPixelMapfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glGetnPixelMapuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glGetnPixelMapuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glGetnPixelMapusv(int a0, int a1, short[] a2, int a3) { }
+	public void glGetnPixelMapusv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glGetnPolygonStipple(int a0, byte[] a1, int a2) { }
+	public void glGetnPolygonStipple(int a0, java.nio.ByteBuffer a1) { }
+	public void glGetnSeparableFilter(int a0, int a1, int a2, int a3, java.nio.Buffer a4, int a5, java.nio.Buffer a6, java.nio.Buffer a7) { }
+	public void glGetnTexImage(int a0, int a1, int a2, int a3, int a4, java.nio.Buffer a5) { }
+	public void glGetnUniformdv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glGetnUniformdv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glGetnUniformfv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glGetnUniformfv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glGetnUniformiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetnUniformiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glGetnUniformuiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glGetnUniformuiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glHint(int a0, int a1) { }
+	public void glHintPGI(int a0, int a1) { }
+	public void glHistogram(int a0, int a1, int a2, boolean a3) { }
+	public long glImportSyncEXT(int a0, long a1, int a2) { return 0; }
+	public void glIndexFormatNV(int a0, int a1) { }
+	public void glIndexFuncEXT(int a0, float a1) { }
+	public void glIndexMask(int a0) { }
+	public void glIndexMaterialEXT(int a0, int a1) { }
+	public void glIndexPointer(int a0, int a1, java.nio.Buffer a2) { }
+	public void glIndexd(double a0) { }
+	public void glIndexdv(double[] a0, int a1) { }
+	public void glIndexdv(java.nio.DoubleBuffer a0) { }
+	public void glIndexf(float a0) { }
+	public void glIndexfv(float[] a0, int a1) { }
+	public void glIndexfv(java.nio.FloatBuffer a0) { }
+	public void glIndexi(int a0) { }
+	public void glIndexiv(int[] a0, int a1) { }
+	public void glIndexiv(java.nio.IntBuffer a0) { }
+	public void glIndexs(short a0) { }
+	public void glIndexsv(short[] a0, int a1) { }
+	public void glIndexsv(java.nio.ShortBuffer a0) { }
+	public void glIndexub(byte a0) { }
+	public void glIndexubv(byte[] a0, int a1) { }
+	public void glIndexubv(java.nio.ByteBuffer a0) { }
+	public void glInitNames() { }
+	public void glInsertComponentEXT(int a0, int a1, int a2) { }
+	public void glInterleavedArrays(int a0, int a1, java.nio.Buffer a2) { }
+	public void glInterleavedArrays(int a0, int a1, long a2) { }
+	public boolean glIsBuffer(int a0) { return false; }
+	public boolean glIsBufferResidentNV(int a0) { return false; }
+	public boolean glIsEnabled(int a0) { return false; }
+	public boolean glIsEnabledIndexed(int a0, int a1) { return false; }
+	public boolean glIsEnabledi(int a0, int a1) { return false; }
+	public boolean glIsFenceAPPLE(int a0) { return false; }
+	public boolean glIsFenceNV(int a0) { return false; }
+	public boolean glIsFramebuffer(int a0) { return false; }
+	public boolean glIsList(int a0) { return false; }
+	public boolean glIsNameAMD(int a0, int a1) { return false; }
+	public boolean glIsNamedBufferResidentNV(int a0) { return false; }
+	public boolean glIsNamedStringARB(int a0, java.lang.String a1) { return false; }
+	public boolean glIsOcclusionQueryNV(int a0) { return false; }
+	public boolean glIsPBOPackEnabled() { return false; }
+	public boolean glIsPBOUnpackEnabled() { return false; }
+	public boolean glIsProgram(int a0) { return false; }
+	public boolean glIsProgramARB(int a0) { return false; }
+	public boolean glIsProgramPipeline(int a0) { return false; }
+	public boolean glIsQuery(int a0) { return false; }
+	public boolean glIsRenderbuffer(int a0) { return false; }
+	public boolean glIsSampler(int a0) { return false; }
+	public boolean glIsShader(int a0) { return false; }
+	public boolean glIsTexture(int a0) { return false; }
+	public boolean glIsTransformFeedback(int a0) { return false; }
+	public boolean glIsTransformFeedbackNV(int a0) { return false; }
+	public boolean glIsVBOArrayEnabled() { return false; }
+	public boolean glIsVBOElementArrayEnabled() { return false; }
+	public boolean glIsVariantEnabledEXT(int a0, int a1) { return false; }
+	public boolean glIsVertexArray(int a0) { return false; }
+	public boolean glIsVertexAttribEnabledAPPLE(int a0, int a1) { return false; }
+	public void glLightModelf(int a0, float a1) { }
+	public void glLightModelfv(int a0, float[] a1, int a2) { }
+	public void glLightModelfv(int a0, java.nio.FloatBuffer a1) { }
+	public void glLightModeli(int a0, int a1) { }
+	public void glLightModeliv(int a0, int[] a1, int a2) { }
+	public void glLightModeliv(int a0, java.nio.IntBuffer a1) { }
+	public void glLightf(int a0, int a1, float a2) { }
+	public void glLightfv(int a0, int a1, float[] a2, int a3) { }
+	public void glLightfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glLighti(int a0, int a1, int a2) { }
+	public void glLightiv(int a0, int a1, int[] a2, int a3) { }
+	public void glLightiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glLineStipple(int a0, short a1) { }
+	public void glLineWidth(float a0) { }
+	public void glLinkProgram(int a0) { }
+	public void glLinkProgramARB(int a0) { }
+	public void glListBase(int a0) { }
+	public void glLoadIdentity() { }
+	public void glLoadMatrixd(double[] a0, int a1) { }
+	public void glLoadMatrixd(java.nio.DoubleBuffer a0) { }
+	public void glLoadMatrixf(float[] a0, int a1) { }
+	public void glLoadMatrixf(java.nio.FloatBuffer a0) { }
+	public void glLoadName(int a0) { }
+	public void glLoadTransposeMatrixd(double[] a0, int a1) { }
+	public void glLoadTransposeMatrixd(java.nio.DoubleBuffer a0) { }
+	public void glLoadTransposeMatrixf(float[] a0, int a1) { }
+	public void glLoadTransposeMatrixf(java.nio.FloatBuffer a0) { }
+	public void glLockArraysEXT(int a0, int a1) { }
+	public void glLogicOp(int a0) { }
+	public void glMakeBufferNonResidentNV(int a0) { }
+	public void glMakeBufferResidentNV(int a0, int a1) { }
+	public void glMakeNamedBufferNonResidentNV(int a0) { }
+	public void glMakeNamedBufferResidentNV(int a0, int a1) { }
+	public void glMap1d(int a0, double a1, double a2, int a3, int a4, double[] a5, int a6) { }
+	public void glMap1d(int a0, double a1, double a2, int a3, int a4, java.nio.DoubleBuffer a5) { }
+	public void glMap1f(int a0, float a1, float a2, int a3, int a4, float[] a5, int a6) { }
+	public void glMap1f(int a0, float a1, float a2, int a3, int a4, java.nio.FloatBuffer a5) { }
+	public void glMap2d(int a0, double a1, double a2, int a3, int a4, double a5, double a6, int a7, int a8, double[] a9, int a10) { }
+	public void glMap2d(int a0, double a1, double a2, int a3, int a4, double a5, double a6, int a7, int a8, java.nio.DoubleBuffer a9) { }
+	public void glMap2f(int a0, float a1, float a2, int a3, int a4, float a5, float a6, int a7, int a8, float[] a9, int a10) { }
+	public void glMap2f(int a0, float a1, float a2, int a3, int a4, float a5, float a6, int a7, int a8, java.nio.FloatBuffer a9) { }
+	public java.nio.ByteBuffer glMapBuffer(int a0, int a1) { return null; }
+	public java.nio.ByteBuffer glMapBufferRange(int a0, long a1, long a2, int a3) { return null; }
+	public void glMapControlPointsNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, boolean a7, java.nio.Buffer a8) { }
+	public void glMapGrid1d(int a0, double a1, double a2) { }
+	public void glMapGrid1f(int a0, float a1, float a2) { }
+	public void glMapGrid2d(int a0, double a1, double a2, int a3, double a4, double a5) { }
+	public void glMapGrid2f(int a0, float a1, float a2, int a3, float a4, float a5) { }
+	public java.nio.ByteBuffer glMapNamedBufferEXT(int a0, int a1) { return null; }
+	public java.nio.ByteBuffer glMapNamedBufferRangeEXT(int a0, long a1, long a2, int a3) { return null; }
+	public void glMapParameterfvNV(int a0, int a1, float[] a2, int a3) { }
+	public void glMapParameterfvNV(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glMapParameterivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glMapParameterivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMapVertexAttrib1dAPPLE(int a0, int a1, double a2, double a3, int a4, int a5, double[] a6, int a7) { }
+	public void glMapVertexAttrib1dAPPLE(int a0, int a1, double a2, double a3, int a4, int a5, java.nio.DoubleBuffer a6) { }
+	public void glMapVertexAttrib1fAPPLE(int a0, int a1, float a2, float a3, int a4, int a5, float[] a6, int a7) { }
+	public void glMapVertexAttrib1fAPPLE(int a0, int a1, float a2, float a3, int a4, int a5, java.nio.FloatBuffer a6) { }
+	public void glMapVertexAttrib2dAPPLE(int a0, int a1, double a2, double a3, int a4, int a5, double a6, double a7, int a8, int a9, double[] a10, int a11) { }
+	public void glMapVertexAttrib2dAPPLE(int a0, int a1, double a2, double a3, int a4, int a5, double a6, double a7, int a8, int a9, java.nio.DoubleBuffer a10) { }
+	public void glMapVertexAttrib2fAPPLE(int a0, int a1, float a2, float a3, int a4, int a5, float a6, float a7, int a8, int a9, float[] a10, int a11) { }
+	public void glMapVertexAttrib2fAPPLE(int a0, int a1, float a2, float a3, int a4, int a5, float a6, float a7, int a8, int a9, java.nio.FloatBuffer a10) { }
+	public void glMaterialf(int a0, int a1, float a2) { }
+	public void glMaterialfv(int a0, int a1, float[] a2, int a3) { }
+	public void glMaterialfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glMateriali(int a0, int a1, int a2) { }
+	public void glMaterialiv(int a0, int a1, int[] a2, int a3) { }
+	public void glMaterialiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMatrixFrustumEXT(int a0, double a1, double a2, double a3, double a4, double a5, double a6) { }
+	public void glMatrixIndexPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glMatrixIndexubvARB(int a0, byte[] a1, int a2) { }
+	public void glMatrixIndexubvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glMatrixIndexuivARB(int a0, int[] a1, int a2) { }
+	public void glMatrixIndexuivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glMatrixIndexusvARB(int a0, short[] a1, int a2) { }
+	public void glMatrixIndexusvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glMatrixLoadIdentityEXT(int a0) { }
+	public void glMatrixLoadTransposedEXT(int a0, double[] a1, int a2) { }
+	public void glMatrixLoadTransposedEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMatrixLoadTransposefEXT(int a0, float[] a1, int a2) { }
+	public void glMatrixLoadTransposefEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glMatrixLoaddEXT(int a0, double[] a1, int a2) { }
+	public void glMatrixLoaddEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMatrixLoadfEXT(int a0, float[] a1, int a2) { }
+	public void glMatrixLoadfEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glMatrixMode(int a0) { }
+	public void glMatrixMultTransposedEXT(int a0, double[] a1, int a2) { }
+	public void glMatrixMultTransposedEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMatrixMultTransposefEXT(int a0, float[] a1, int a2) { }
+	public void glMatrixMultTransposefEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glMatrixMultdEXT(int a0, double[] a1, int a2) { }
+	public void glMatrixMultdEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMatrixMultfEXT(int a0, float[] a1, int a2) { }
+	public void glMatrixMultfEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glMatrixOrthoEXT(int a0, double a1, double a2, double a3, double a4, double a5, double a6) { }
+	public void glMatrixPopEXT(int a0) { }
+	public void glMatrixPushEXT(int a0) { }
+	public void glMatrixRotatedEXT(int a0, double a1, double a2, double a3, double a4) { }
+	public void glMatrixRotatefEXT(int a0, float a1, float a2, float a3, float a4) { }
+	public void glMatrixScaledEXT(int a0, double a1, double a2, double a3) { }
+	public void glMatrixScalefEXT(int a0, float a1, float a2, float a3) { }
+	public void glMatrixTranslatedEXT(int a0, double a1, double a2, double a3) { }
+	public void glMatrixTranslatefEXT(int a0, float a1, float a2, float a3) { }
+	public void glMemoryBarrier(int a0) { }
+	public void glMinSampleShading(float a0) { }
+	public void glMinmax(int a0, int a1, boolean a2) { }
+	public void glMultMatrixd(double[] a0, int a1) { }
+	public void glMultMatrixd(java.nio.DoubleBuffer a0) { }
+	public void glMultMatrixf(float[] a0, int a1) { }
+	public void glMultMatrixf(java.nio.FloatBuffer a0) { }
+	public void glMultTransposeMatrixd(double[] a0, int a1) { }
+	public void glMultTransposeMatrixd(java.nio.DoubleBuffer a0) { }
+	public void glMultTransposeMatrixf(float[] a0, int a1) { }
+	public void glMultTransposeMatrixf(java.nio.FloatBuffer a0) { }
+	public void glMultiDrawArrays(int a0, int[] a1, int a2, int[] a3, int a4, int a5) { }
+	public void glMultiDrawArrays(int a0, java.nio.IntBuffer a1, java.nio.IntBuffer a2, int a3) { }
+	public void glMultiDrawArraysIndirectAMD(int a0, java.nio.Buffer a1, int a2, int a3) { }
+	public void glMultiDrawElements(int a0, int[] a1, int a2, int a3, com.jogamp.common.nio.PointerBuffer a4, int a5) { }
+	public void glMultiDrawElements(int a0, java.nio.IntBuffer a1, int a2, com.jogamp.common.nio.PointerBuffer a3, int a4) { }
+	public void glMultiDrawElementsIndirectAMD(int a0, int a1, java.nio.Buffer a2, int a3, int a4) { }
+	public void glMultiTexBufferEXT(int a0, int a1, int a2, int a3) { }
+	public void glMultiTexCoord1d(int a0, double a1) { }
+	public void glMultiTexCoord1dv(int a0, double[] a1, int a2) { }
+	public void glMultiTexCoord1dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMultiTexCoord1f(int a0, float a1) { }
+	public void glMultiTexCoord1fv(int a0, float[] a1, int a2) { }
+	public void glMultiTexCoord1fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glMultiTexCoord1h(int a0, short a1) { }
+	public void glMultiTexCoord1hv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord1hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord1i(int a0, int a1) { }
+	public void glMultiTexCoord1iv(int a0, int[] a1, int a2) { }
+	public void glMultiTexCoord1iv(int a0, java.nio.IntBuffer a1) { }
+	public void glMultiTexCoord1s(int a0, short a1) { }
+	public void glMultiTexCoord1sv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord1sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord2d(int a0, double a1, double a2) { }
+	public void glMultiTexCoord2dv(int a0, double[] a1, int a2) { }
+	public void glMultiTexCoord2dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMultiTexCoord2f(int a0, float a1, float a2) { }
+	public void glMultiTexCoord2fv(int a0, float[] a1, int a2) { }
+	public void glMultiTexCoord2fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glMultiTexCoord2h(int a0, short a1, short a2) { }
+	public void glMultiTexCoord2hv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord2hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord2i(int a0, int a1, int a2) { }
+	public void glMultiTexCoord2iv(int a0, int[] a1, int a2) { }
+	public void glMultiTexCoord2iv(int a0, java.nio.IntBuffer a1) { }
+	public void glMultiTexCoord2s(int a0, short a1, short a2) { }
+	public void glMultiTexCoord2sv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord2sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord3d(int a0, double a1, double a2, double a3) { }
+	public void glMultiTexCoord3dv(int a0, double[] a1, int a2) { }
+	public void glMultiTexCoord3dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMultiTexCoord3f(int a0, float a1, float a2, float a3) { }
+	public void glMultiTexCoord3fv(int a0, float[] a1, int a2) { }
+	public void glMultiTexCoord3fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glMultiTexCoord3h(int a0, short a1, short a2, short a3) { }
+	public void glMultiTexCoord3hv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord3hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord3i(int a0, int a1, int a2, int a3) { }
+	public void glMultiTexCoord3iv(int a0, int[] a1, int a2) { }
+	public void glMultiTexCoord3iv(int a0, java.nio.IntBuffer a1) { }
+	public void glMultiTexCoord3s(int a0, short a1, short a2, short a3) { }
+	public void glMultiTexCoord3sv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord3sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord4d(int a0, double a1, double a2, double a3, double a4) { }
+	public void glMultiTexCoord4dv(int a0, double[] a1, int a2) { }
+	public void glMultiTexCoord4dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glMultiTexCoord4f(int a0, float a1, float a2, float a3, float a4) { }
+	public void glMultiTexCoord4fv(int a0, float[] a1, int a2) { }
+	public void glMultiTexCoord4fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glMultiTexCoord4h(int a0, short a1, short a2, short a3, short a4) { }
+	public void glMultiTexCoord4hv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord4hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoord4i(int a0, int a1, int a2, int a3, int a4) { }
+	public void glMultiTexCoord4iv(int a0, int[] a1, int a2) { }
+	public void glMultiTexCoord4iv(int a0, java.nio.IntBuffer a1) { }
+	public void glMultiTexCoord4s(int a0, short a1, short a2, short a3, short a4) { }
+	public void glMultiTexCoord4sv(int a0, short[] a1, int a2) { }
+	public void glMultiTexCoord4sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glMultiTexCoordP1ui(int a0, int a1, int a2) { }
+	public void glMultiTexCoordP1uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glMultiTexCoordP1uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMultiTexCoordP2ui(int a0, int a1, int a2) { }
+	public void glMultiTexCoordP2uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glMultiTexCoordP2uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMultiTexCoordP3ui(int a0, int a1, int a2) { }
+	public void glMultiTexCoordP3uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glMultiTexCoordP3uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMultiTexCoordP4ui(int a0, int a1, int a2) { }
+	public void glMultiTexCoordP4uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glMultiTexCoordP4uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glMultiTexCoordPointerEXT(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glMultiTexEnvfEXT(int a0, int a1, int a2, float a3) { }
+	public void glMultiTexEnvfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glMultiTexEnvfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glMultiTexEnviEXT(int a0, int a1, int a2, int a3) { }
+	public void glMultiTexEnvivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glMultiTexEnvivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glMultiTexGendEXT(int a0, int a1, int a2, double a3) { }
+	public void glMultiTexGendvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glMultiTexGendvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glMultiTexGenfEXT(int a0, int a1, int a2, float a3) { }
+	public void glMultiTexGenfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glMultiTexGenfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glMultiTexGeniEXT(int a0, int a1, int a2, int a3) { }
+	public void glMultiTexGenivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glMultiTexGenivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glMultiTexImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glMultiTexImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glMultiTexImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, java.nio.Buffer a10) { }
+	public void glMultiTexParameterIivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glMultiTexParameterIivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glMultiTexParameterIuivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glMultiTexParameterIuivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glMultiTexParameterfEXT(int a0, int a1, int a2, float a3) { }
+	public void glMultiTexParameterfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glMultiTexParameterfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glMultiTexParameteriEXT(int a0, int a1, int a2, int a3) { }
+	public void glMultiTexParameterivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glMultiTexParameterivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glMultiTexRenderbufferEXT(int a0, int a1, int a2) { }
+	public void glMultiTexSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glMultiTexSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glMultiTexSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10, java.nio.Buffer a11) { }
+	public void glNamedBufferDataEXT(int a0, long a1, java.nio.Buffer a2, int a3) { }
+	public void glNamedBufferSubDataEXT(int a0, long a1, long a2, java.nio.Buffer a3) { }
+	public void glNamedCopyBufferSubDataEXT(int a0, int a1, long a2, long a3, long a4) { }
+	public void glNamedFramebufferRenderbufferEXT(int a0, int a1, int a2, int a3) { }
+	public void glNamedFramebufferTexture1DEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glNamedFramebufferTexture2DEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glNamedFramebufferTexture3DEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glNamedFramebufferTextureEXT(int a0, int a1, int a2, int a3) { }
+	public void glNamedFramebufferTextureFaceEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glNamedFramebufferTextureLayerEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glNamedProgramLocalParameter4dEXT(int a0, int a1, int a2, double a3, double a4, double a5, double a6) { }
+	public void glNamedProgramLocalParameter4dvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glNamedProgramLocalParameter4dvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glNamedProgramLocalParameter4fEXT(int a0, int a1, int a2, float a3, float a4, float a5, float a6) { }
+	public void glNamedProgramLocalParameter4fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glNamedProgramLocalParameter4fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glNamedProgramLocalParameterI4iEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glNamedProgramLocalParameterI4ivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glNamedProgramLocalParameterI4ivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glNamedProgramLocalParameterI4uiEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glNamedProgramLocalParameterI4uivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glNamedProgramLocalParameterI4uivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glNamedProgramLocalParameters4fvEXT(int a0, int a1, int a2, int a3, float[] a4, int a5) { }
+	public void glNamedProgramLocalParameters4fvEXT(int a0, int a1, int a2, int a3, java.nio.FloatBuffer a4) { }
+	public void glNamedProgramLocalParametersI4ivEXT(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glNamedProgramLocalParametersI4ivEXT(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glNamedProgramLocalParametersI4uivEXT(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glNamedProgramLocalParametersI4uivEXT(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glNamedProgramStringEXT(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glNamedRenderbufferStorageEXT(int a0, int a1, int a2, int a3) { }
+	public void glNamedRenderbufferStorageMultisampleCoverageEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glNamedRenderbufferStorageMultisampleEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glNamedStringARB(int a0, int a1, java.lang.String a2, int a3, java.lang.String a4) { }
+	public void glNewList(int a0, int a1) { }
+	public void glNormal3b(byte a0, byte a1, byte a2) { }
+	public void glNormal3bv(byte[] a0, int a1) { }
+	public void glNormal3bv(java.nio.ByteBuffer a0) { }
+	public void glNormal3d(double a0, double a1, double a2) { }
+	public void glNormal3dv(double[] a0, int a1) { }
+	public void glNormal3dv(java.nio.DoubleBuffer a0) { }
+	public void glNormal3f(float a0, float a1, float a2) { }
+	public void glNormal3fv(float[] a0, int a1) { }
+	public void glNormal3fv(java.nio.FloatBuffer a0) { }
+	public void glNormal3h(short a0, short a1, short a2) { }
+	public void glNormal3hv(short[] a0, int a1) { }
+	public void glNormal3hv(java.nio.ShortBuffer a0) { }
+	public void glNormal3i(int a0, int a1, int a2) { }
+	public void glNormal3iv(int[] a0, int a1) { }
+	public void glNormal3iv(java.nio.IntBuffer a0) { }
+	public void glNormal3s(short a0, short a1, short a2) { }
+	public void glNormal3sv(short[] a0, int a1) { }
+	public void glNormal3sv(java.nio.ShortBuffer a0) { }
+	public void glNormalFormatNV(int a0, int a1) { }
+	public void glNormalP3ui(int a0, int a1) { }
+	public void glNormalP3uiv(int a0, int[] a1, int a2) { }
+	public void glNormalP3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glNormalPointer(int a0, int a1, java.nio.Buffer a2) { }
+	public void glNormalPointer(int a0, int a1, long a2) { }
+	public void glNormalPointer(javax.media.opengl.GLArrayData a0) { }
+	public int glObjectPurgeableAPPLE(int a0, int a1, int a2) { return 0; }
+	public int glObjectUnpurgeableAPPLE(int a0, int a1, int a2) { return 0; }
+	public void glOrtho(double a0, double a1, double a2, double a3, double a4, double a5) { }
+	public void glOrthof(float a0, float a1, float a2, float a3, float a4, float a5) { }
+	public void glPNTrianglesfATI(int a0, float a1) { }
+	public void glPNTrianglesiATI(int a0, int a1) { }
+	public void glPassThrough(float a0) { }
+	public void glPauseTransformFeedback() { }
+	public void glPauseTransformFeedbackNV() { }
+	public void glPixelDataRangeNV(int a0, int a1, java.nio.Buffer a2) { }
+	public void glPixelMapfv(int a0, int a1, float[] a2, int a3) { }
+	public void glPixelMapfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glPixelMapfv(int a0, int a1, long a2) { }
+	public void glPixelMapuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glPixelMapuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glPixelMapuiv(int a0, int a1, long a2) { }
+	public void glPixelMapusv(int a0, int a1, short[] a2, int a3) { }
+	public void glPixelMapusv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glPixelMapusv(int a0, int a1, long a2) { }
+	public void glPixelStoref(int a0, float a1) { }
+	public void glPixelStorei(int a0, int a1) { }
+	public void glPixelTransferf(int a0, float a1) { }
+	public void glPixelTransferi(int a0, int a1) { }
+	public void glPixelTransformParameterfEXT(int a0, int a1, float a2) { }
+	public void glPixelTransformParameterfvEXT(int a0, int a1, float[] a2, int a3) { }
+	public void glPixelTransformParameterfvEXT(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glPixelTransformParameteriEXT(int a0, int a1, int a2) { }
+	public void glPixelTransformParameterivEXT(int a0, int a1, int[] a2, int a3) { }
+	public void glPixelTransformParameterivEXT(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glPixelZoom(float a0, float a1) { }
+	public void glPointParameterf(int a0, float a1) { }
+	public void glPointParameterfv(int a0, float[] a1, int a2) { }
+	public void glPointParameterfv(int a0, java.nio.FloatBuffer a1) { }
+	public void glPointParameteri(int a0, int a1) { }
+	public void glPointParameteriv(int a0, int[] a1, int a2) { }
+	public void glPointParameteriv(int a0, java.nio.IntBuffer a1) { }
+	public void glPointSize(float a0) { }
+	public void glPolygonMode(int a0, int a1) { }
+	public void glPolygonOffset(float a0, float a1) { }
+	public void glPolygonStipple(byte[] a0, int a1) { }
+	public void glPolygonStipple(java.nio.ByteBuffer a0) { }
+	public void glPolygonStipple(long a0) { }
+	public void glPopAttrib() { }
+	public void glPopClientAttrib() { }
+	public void glPopMatrix() { }
+	public void glPopName() { }
+	public void glPrimitiveRestartIndex(int a0) { }
+	public void glPrimitiveRestartIndexNV(int a0) { }
+	public void glPrimitiveRestartNV() { }
+	public void glPrioritizeTextures(int a0, int[] a1, int a2, float[] a3, int a4) { }
+	public void glPrioritizeTextures(int a0, java.nio.IntBuffer a1, java.nio.FloatBuffer a2) { }
+	public void glProgramBinary(int a0, int a1, java.nio.Buffer a2, int a3) { }
+	public void glProgramBufferParametersIivNV(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glProgramBufferParametersIivNV(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glProgramBufferParametersIuivNV(int a0, int a1, int a2, int a3, int[] a4, int a5) { }
+	public void glProgramBufferParametersIuivNV(int a0, int a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glProgramBufferParametersfvNV(int a0, int a1, int a2, int a3, float[] a4, int a5) { }
+	public void glProgramBufferParametersfvNV(int a0, int a1, int a2, int a3, java.nio.FloatBuffer a4) { }
+	public void glProgramEnvParameter4dARB(int a0, int a1, double a2, double a3, double a4, double a5) { }
+	public void glProgramEnvParameter4dvARB(int a0, int a1, double[] a2, int a3) { }
+	public void glProgramEnvParameter4dvARB(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glProgramEnvParameter4fARB(int a0, int a1, float a2, float a3, float a4, float a5) { }
+	public void glProgramEnvParameter4fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glProgramEnvParameter4fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glProgramEnvParameterI4iNV(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramEnvParameterI4ivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glProgramEnvParameterI4ivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glProgramEnvParameterI4uiNV(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramEnvParameterI4uivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glProgramEnvParameterI4uivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glProgramEnvParameters4fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramEnvParameters4fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramEnvParametersI4ivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramEnvParametersI4ivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramEnvParametersI4uivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramEnvParametersI4uivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramLocalParameter4dARB(int a0, int a1, double a2, double a3, double a4, double a5) { }
+	public void glProgramLocalParameter4dvARB(int a0, int a1, double[] a2, int a3) { }
+	public void glProgramLocalParameter4dvARB(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glProgramLocalParameter4fARB(int a0, int a1, float a2, float a3, float a4, float a5) { }
+	public void glProgramLocalParameter4fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glProgramLocalParameter4fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glProgramLocalParameterI4iNV(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramLocalParameterI4ivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glProgramLocalParameterI4ivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glProgramLocalParameterI4uiNV(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramLocalParameterI4uivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glProgramLocalParameterI4uivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glProgramLocalParameters4fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramLocalParameters4fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramLocalParametersI4ivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramLocalParametersI4ivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramLocalParametersI4uivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramLocalParametersI4uivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramParameteri(int a0, int a1, int a2) { }
+	public void glProgramParameteriARB(int a0, int a1, int a2) { }
+	public void glProgramStringARB(int a0, int a1, int a2, java.lang.String a3) { }
+	public void glProgramSubroutineParametersuivNV(int a0, int a1, int[] a2, int a3) { }
+	public void glProgramSubroutineParametersuivNV(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glProgramUniform1d(int a0, int a1, double a2) { }
+	public void glProgramUniform1dEXT(int a0, int a1, double a2) { }
+	public void glProgramUniform1dv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform1dv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform1dvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform1dvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform1f(int a0, int a1, float a2) { }
+	public void glProgramUniform1fEXT(int a0, int a1, float a2) { }
+	public void glProgramUniform1fv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform1fv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform1fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform1fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform1i(int a0, int a1, int a2) { }
+	public void glProgramUniform1iEXT(int a0, int a1, int a2) { }
+	public void glProgramUniform1iv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform1iv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform1ivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform1ivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform1ui(int a0, int a1, int a2) { }
+	public void glProgramUniform1uiEXT(int a0, int a1, int a2) { }
+	public void glProgramUniform1uiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform1uiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform1uivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform1uivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform2d(int a0, int a1, double a2, double a3) { }
+	public void glProgramUniform2dEXT(int a0, int a1, double a2, double a3) { }
+	public void glProgramUniform2dv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform2dv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform2dvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform2dvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform2f(int a0, int a1, float a2, float a3) { }
+	public void glProgramUniform2fEXT(int a0, int a1, float a2, float a3) { }
+	public void glProgramUniform2fv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform2fv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform2fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform2fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform2i(int a0, int a1, int a2, int a3) { }
+	public void glProgramUniform2iEXT(int a0, int a1, int a2, int a3) { }
+	public void glProgramUniform2iv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform2iv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform2ivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform2ivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform2ui(int a0, int a1, int a2, int a3) { }
+	public void glProgramUniform2uiEXT(int a0, int a1, int a2, int a3) { }
+	public void glProgramUniform2uiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform2uiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform2uivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform2uivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform3d(int a0, int a1, double a2, double a3, double a4) { }
+	public void glProgramUniform3dEXT(int a0, int a1, double a2, double a3, double a4) { }
+	public void glProgramUniform3dv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform3dv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform3dvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform3dvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform3f(int a0, int a1, float a2, float a3, float a4) { }
+	public void glProgramUniform3fEXT(int a0, int a1, float a2, float a3, float a4) { }
+	public void glProgramUniform3fv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform3fv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform3fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform3fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform3i(int a0, int a1, int a2, int a3, int a4) { }
+	public void glProgramUniform3iEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glProgramUniform3iv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform3iv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform3ivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform3ivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform3ui(int a0, int a1, int a2, int a3, int a4) { }
+	public void glProgramUniform3uiEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glProgramUniform3uiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform3uiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform3uivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform3uivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform4d(int a0, int a1, double a2, double a3, double a4, double a5) { }
+	public void glProgramUniform4dEXT(int a0, int a1, double a2, double a3, double a4, double a5) { }
+	public void glProgramUniform4dv(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform4dv(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform4dvEXT(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glProgramUniform4dvEXT(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glProgramUniform4f(int a0, int a1, float a2, float a3, float a4, float a5) { }
+	public void glProgramUniform4fEXT(int a0, int a1, float a2, float a3, float a4, float a5) { }
+	public void glProgramUniform4fv(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform4fv(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform4fvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glProgramUniform4fvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glProgramUniform4i(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramUniform4iEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramUniform4iv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform4iv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform4ivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform4ivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform4ui(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramUniform4uiEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glProgramUniform4uiv(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform4uiv(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniform4uivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glProgramUniform4uivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glProgramUniformMatrix2dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix2fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix2x3dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2x3dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2x3dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2x3dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2x3fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2x3fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix2x3fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2x3fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix2x4dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2x4dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2x4dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix2x4dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix2x4fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2x4fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix2x4fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix2x4fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3x2dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3x2dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3x2dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3x2dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3x2fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3x2fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3x2fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3x2fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3x4dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3x4dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3x4dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix3x4dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix3x4fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3x4fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix3x4fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix3x4fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4x2dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4x2dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4x2dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4x2dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4x2fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4x2fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4x2fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4x2fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4x3dv(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4x3dv(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4x3dvEXT(int a0, int a1, int a2, boolean a3, double[] a4, int a5) { }
+	public void glProgramUniformMatrix4x3dvEXT(int a0, int a1, int a2, boolean a3, java.nio.DoubleBuffer a4) { }
+	public void glProgramUniformMatrix4x3fv(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4x3fv(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformMatrix4x3fvEXT(int a0, int a1, int a2, boolean a3, float[] a4, int a5) { }
+	public void glProgramUniformMatrix4x3fvEXT(int a0, int a1, int a2, boolean a3, java.nio.FloatBuffer a4) { }
+	public void glProgramUniformui64NV(int a0, int a1, long a2) { }
+	public void glProgramUniformui64vNV(int a0, int a1, int a2, long[] a3, int a4) { }
+	public void glProgramUniformui64vNV(int a0, int a1, int a2, java.nio.LongBuffer a3) { }
+	public void glProgramVertexLimitNV(int a0, int a1) { }
+	public void glProvokingVertex(int a0) { }
+	public void glProvokingVertexEXT(int a0) { }
+	public void glPushAttrib(int a0) { }
+	public void glPushClientAttrib(int a0) { }
+	public void glPushClientAttribDefaultEXT(int a0) { }
+	public void glPushMatrix() { }
+	public void glPushName(int a0) { }
+	public void glQueryCounter(int a0, int a1) { }
+	public void glRasterPos2d(double a0, double a1) { }
+	public void glRasterPos2dv(double[] a0, int a1) { }
+	public void glRasterPos2dv(java.nio.DoubleBuffer a0) { }
+	public void glRasterPos2f(float a0, float a1) { }
+	public void glRasterPos2fv(float[] a0, int a1) { }
+	public void glRasterPos2fv(java.nio.FloatBuffer a0) { }
+	public void glRasterPos2i(int a0, int a1) { }
+	public void glRasterPos2iv(int[] a0, int a1) { }
+	public void glRasterPos2iv(java.nio.IntBuffer a0) { }
+	public void glRasterPos2s(short a0, short a1) { }
+	public void glRasterPos2sv(short[] a0, int a1) { }
+	public void glRasterPos2sv(java.nio.ShortBuffer a0) { }
+	public void glRasterPos3d(double a0, double a1, double a2) { }
+	public void glRasterPos3dv(double[] a0, int a1) { }
+	public void glRasterPos3dv(java.nio.DoubleBuffer a0) { }
+	public void glRasterPos3f(float a0, float a1, float a2) { }
+	public void glRasterPos3fv(float[] a0, int a1) { }
+	public void glRasterPos3fv(java.nio.FloatBuffer a0) { }
+	public void glRasterPos3i(int a0, int a1, int a2) { }
+	public void glRasterPos3iv(int[] a0, int a1) { }
+	public void glRasterPos3iv(java.nio.IntBuffer a0) { }
+	public void glRasterPos3s(short a0, short a1, short a2) { }
+	public void glRasterPos3sv(short[] a0, int a1) { }
+	public void glRasterPos3sv(java.nio.ShortBuffer a0) { }
+	public void glRasterPos4d(double a0, double a1, double a2, double a3) { }
+	public void glRasterPos4dv(double[] a0, int a1) { }
+	public void glRasterPos4dv(java.nio.DoubleBuffer a0) { }
+	public void glRasterPos4f(float a0, float a1, float a2, float a3) { }
+	public void glRasterPos4fv(float[] a0, int a1) { }
+	public void glRasterPos4fv(java.nio.FloatBuffer a0) { }
+	public void glRasterPos4i(int a0, int a1, int a2, int a3) { }
+	public void glRasterPos4iv(int[] a0, int a1) { }
+	public void glRasterPos4iv(java.nio.IntBuffer a0) { }
+	public void glRasterPos4s(short a0, short a1, short a2, short a3) { }
+	public void glRasterPos4sv(short[] a0, int a1) { }
+	public void glRasterPos4sv(java.nio.ShortBuffer a0) { }
+	public void glReadBuffer(int a0) { }
+	public void glReadPixels(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6) { }
+	public void glReadPixels(int a0, int a1, int a2, int a3, int a4, int a5, long a6) { }
+	public void glReadnPixels(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glRectd(double a0, double a1, double a2, double a3) { }
+	public void glRectdv(double[] a0, int a1, double[] a2, int a3) { }
+	public void glRectdv(java.nio.DoubleBuffer a0, java.nio.DoubleBuffer a1) { }
+	public void glRectf(float a0, float a1, float a2, float a3) { }
+	public void glRectfv(float[] a0, int a1, float[] a2, int a3) { }
+	public void glRectfv(java.nio.FloatBuffer a0, java.nio.FloatBuffer a1) { }
+	public void glRecti(int a0, int a1, int a2, int a3) { }
+	public void glRectiv(int[] a0, int a1, int[] a2, int a3) { }
+	public void glRectiv(java.nio.IntBuffer a0, java.nio.IntBuffer a1) { }
+	public void glRects(short a0, short a1, short a2, short a3) { }
+	public void glRectsv(short[] a0, int a1, short[] a2, int a3) { }
+	public void glRectsv(java.nio.ShortBuffer a0, java.nio.ShortBuffer a1) { }
+	public void glReleaseShaderCompiler() { }
+	public int glRenderMode(int a0) { return 0; }
+	public void glRenderbufferStorage(int a0, int a1, int a2, int a3) { }
+	public void glRenderbufferStorageMultisample(int a0, int a1, int a2, int a3, int a4) { }
+	public void glRenderbufferStorageMultisampleCoverageNV(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glResetHistogram(int a0) { }
+	public void glResetMinmax(int a0) { }
+	public void glResumeTransformFeedback() { }
+	public void glResumeTransformFeedbackNV() { }
+	public void glRotated(double a0, double a1, double a2, double a3) { }
+	public void glRotatef(float a0, float a1, float a2, float a3) { }
+	public void glSampleCoverage(float a0, boolean a1) { }
+	public void glSampleMaskIndexedNV(int a0, int a1) { }
+	public void glSampleMaski(int a0, int a1) { }
+	public void glSamplerParameterIiv(int a0, int a1, int[] a2, int a3) { }
+	public void glSamplerParameterIiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glSamplerParameterIuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glSamplerParameterIuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glSamplerParameterf(int a0, int a1, float a2) { }
+	public void glSamplerParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glSamplerParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glSamplerParameteri(int a0, int a1, int a2) { }
+	public void glSamplerParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glSamplerParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glScaled(double a0, double a1, double a2) { }
+	public void glScalef(float a0, float a1, float a2) { }
+	public void glScissor(int a0, int a1, int a2, int a3) { }
+	public void glScissorArrayv(int a0, int a1, int[] a2, int a3) { }
+	public void glScissorArrayv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glScissorIndexed(int a0, int a1, int a2, int a3, int a4) { }
+	public void glScissorIndexedv(int a0, int[] a1, int a2) { }
+	public void glScissorIndexedv(int a0, java.nio.IntBuffer a1) { }
+	public void glSecondaryColor3b(byte a0, byte a1, byte a2) { }
+	public void glSecondaryColor3bv(byte[] a0, int a1) { }
+	public void glSecondaryColor3bv(java.nio.ByteBuffer a0) { }
+	public void glSecondaryColor3d(double a0, double a1, double a2) { }
+	public void glSecondaryColor3dv(double[] a0, int a1) { }
+	public void glSecondaryColor3dv(java.nio.DoubleBuffer a0) { }
+	public void glSecondaryColor3f(float a0, float a1, float a2) { }
+	public void glSecondaryColor3fv(float[] a0, int a1) { }
+	public void glSecondaryColor3fv(java.nio.FloatBuffer a0) { }
+	public void glSecondaryColor3h(short a0, short a1, short a2) { }
+	public void glSecondaryColor3hv(short[] a0, int a1) { }
+	public void glSecondaryColor3hv(java.nio.ShortBuffer a0) { }
+	public void glSecondaryColor3i(int a0, int a1, int a2) { }
+	public void glSecondaryColor3iv(int[] a0, int a1) { }
+	public void glSecondaryColor3iv(java.nio.IntBuffer a0) { }
+	public void glSecondaryColor3s(short a0, short a1, short a2) { }
+	public void glSecondaryColor3sv(short[] a0, int a1) { }
+	public void glSecondaryColor3sv(java.nio.ShortBuffer a0) { }
+	public void glSecondaryColor3ub(byte a0, byte a1, byte a2) { }
+	public void glSecondaryColor3ubv(byte[] a0, int a1) { }
+	public void glSecondaryColor3ubv(java.nio.ByteBuffer a0) { }
+	public void glSecondaryColor3ui(int a0, int a1, int a2) { }
+	public void glSecondaryColor3uiv(int[] a0, int a1) { }
+	public void glSecondaryColor3uiv(java.nio.IntBuffer a0) { }
+	public void glSecondaryColor3us(short a0, short a1, short a2) { }
+	public void glSecondaryColor3usv(short[] a0, int a1) { }
+	public void glSecondaryColor3usv(java.nio.ShortBuffer a0) { }
+	public void glSecondaryColorFormatNV(int a0, int a1, int a2) { }
+	public void glSecondaryColorP3ui(int a0, int a1) { }
+	public void glSecondaryColorP3uiv(int a0, int[] a1, int a2) { }
+	public void glSecondaryColorP3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glSecondaryColorPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glSecondaryColorPointer(int a0, int a1, int a2, long a3) { }
+	public void glSelectBuffer(int a0, java.nio.IntBuffer a1) { }
+	public void glSelectPerfMonitorCountersAMD(int a0, boolean a1, int a2, int a3, int[] a4, int a5) { }
+	public void glSelectPerfMonitorCountersAMD(int a0, boolean a1, int a2, int a3, java.nio.IntBuffer a4) { }
+	public void glSeparableFilter2D(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6, java.nio.Buffer a7) { }
+	public void glSeparableFilter2D(int a0, int a1, int a2, int a3, int a4, int a5, long a6, long a7) { }
+	public void glSetFenceAPPLE(int a0) { }
+	public void glSetFenceNV(int a0, int a1) { }
+	public void glSetInvariantEXT(int a0, int a1, java.nio.Buffer a2) { }
+	public void glSetLocalConstantEXT(int a0, int a1, java.nio.Buffer a2) { }
+	public void glSetMultisamplefvAMD(int a0, int a1, float[] a2, int a3) { }
+	public void glSetMultisamplefvAMD(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glShadeModel(int a0) { }
+	public void glShaderBinary(int a0, int[] a1, int a2, int a3, java.nio.Buffer a4, int a5) { }
+	public void glShaderBinary(int a0, java.nio.IntBuffer a1, int a2, java.nio.Buffer a3, int a4) { }
+	public void glShaderOp1EXT(int a0, int a1, int a2) { }
+	public void glShaderOp2EXT(int a0, int a1, int a2, int a3) { }
+	public void glShaderOp3EXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glShaderSource(int a0, int a1, java.lang.String[] a2, int[] a3, int a4) { }
+	public void glShaderSource(int a0, int a1, java.lang.String[] a2, java.nio.IntBuffer a3) { }
+	public void glShaderSourceARB(int a0, int a1, java.lang.String[] a2, int[] a3, int a4) { }
+	public void glShaderSourceARB(int a0, int a1, java.lang.String[] a2, java.nio.IntBuffer a3) { }
+	public void glStencilClearTagEXT(int a0, int a1) { }
+	public void glStencilFunc(int a0, int a1, int a2) { }
+	public void glStencilFuncSeparate(int a0, int a1, int a2, int a3) { }
+	public void glStencilMask(int a0) { }
+	public void glStencilMaskSeparate(int a0, int a1) { }
+	public void glStencilOp(int a0, int a1, int a2) { }
+	public void glStencilOpSeparate(int a0, int a1, int a2, int a3) { }
+	public void glStencilOpValueAMD(int a0, int a1) { }
+	public void glStringMarkerGREMEDY(int a0, java.nio.Buffer a1) { }
+	public void glSwapAPPLE() { }
+	public void glSwizzleEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glTessellationFactorAMD(float a0) { }
+	public void glTessellationModeAMD(int a0) { }
+	public boolean glTestFenceAPPLE(int a0) { return false; }
+	public boolean glTestFenceNV(int a0) { return false; }
+	public boolean glTestObjectAPPLE(int a0, int a1) { return false; }
+	public void glTexBuffer(int a0, int a1, int a2) { }
+	public void glTexCoord1d(double a0) { }
+	public void glTexCoord1dv(double[] a0, int a1) { }
+	public void glTexCoord1dv(java.nio.DoubleBuffer a0) { }
+	public void glTexCoord1f(float a0) { }
+	public void glTexCoord1fv(float[] a0, int a1) { }
+	public void glTexCoord1fv(java.nio.FloatBuffer a0) { }
+	public void glTexCoord1h(short a0) { }
+	public void glTexCoord1hv(short[] a0, int a1) { }
+	public void glTexCoord1hv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord1i(int a0) { }
+	public void glTexCoord1iv(int[] a0, int a1) { }
+	public void glTexCoord1iv(java.nio.IntBuffer a0) { }
+	public void glTexCoord1s(short a0) { }
+	public void glTexCoord1sv(short[] a0, int a1) { }
+	public void glTexCoord1sv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord2d(double a0, double a1) { }
+	public void glTexCoord2dv(double[] a0, int a1) { }
+	public void glTexCoord2dv(java.nio.DoubleBuffer a0) { }
+	public void glTexCoord2f(float a0, float a1) { }
+	public void glTexCoord2fv(float[] a0, int a1) { }
+	public void glTexCoord2fv(java.nio.FloatBuffer a0) { }
+	public void glTexCoord2h(short a0, short a1) { }
+	public void glTexCoord2hv(short[] a0, int a1) { }
+	public void glTexCoord2hv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord2i(int a0, int a1) { }
+	public void glTexCoord2iv(int[] a0, int a1) { }
+	public void glTexCoord2iv(java.nio.IntBuffer a0) { }
+	public void glTexCoord2s(short a0, short a1) { }
+	public void glTexCoord2sv(short[] a0, int a1) { }
+	public void glTexCoord2sv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord3d(double a0, double a1, double a2) { }
+	public void glTexCoord3dv(double[] a0, int a1) { }
+	public void glTexCoord3dv(java.nio.DoubleBuffer a0) { }
+	public void glTexCoord3f(float a0, float a1, float a2) { }
+	public void glTexCoord3fv(float[] a0, int a1) { }
+	public void glTexCoord3fv(java.nio.FloatBuffer a0) { }
+	public void glTexCoord3h(short a0, short a1, short a2) { }
+	public void glTexCoord3hv(short[] a0, int a1) { }
+	public void glTexCoord3hv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord3i(int a0, int a1, int a2) { }
+	public void glTexCoord3iv(int[] a0, int a1) { }
+	public void glTexCoord3iv(java.nio.IntBuffer a0) { }
+	public void glTexCoord3s(short a0, short a1, short a2) { }
+	public void glTexCoord3sv(short[] a0, int a1) { }
+	public void glTexCoord3sv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord4d(double a0, double a1, double a2, double a3) { }
+	public void glTexCoord4dv(double[] a0, int a1) { }
+	public void glTexCoord4dv(java.nio.DoubleBuffer a0) { }
+	public void glTexCoord4f(float a0, float a1, float a2, float a3) { }
+	public void glTexCoord4fv(float[] a0, int a1) { }
+	public void glTexCoord4fv(java.nio.FloatBuffer a0) { }
+	public void glTexCoord4h(short a0, short a1, short a2, short a3) { }
+	public void glTexCoord4hv(short[] a0, int a1) { }
+	public void glTexCoord4hv(java.nio.ShortBuffer a0) { }
+	public void glTexCoord4i(int a0, int a1, int a2, int a3) { }
+	public void glTexCoord4iv(int[] a0, int a1) { }
+	public void glTexCoord4iv(java.nio.IntBuffer a0) { }
+	public void glTexCoord4s(short a0, short a1, short a2, short a3) { }
+	public void glTexCoord4sv(short[] a0, int a1) { }
+	public void glTexCoord4sv(java.nio.ShortBuffer a0) { }
+	public void glTexCoordFormatNV(int a0, int a1, int a2) { }
+	public void glTexCoordP1ui(int a0, int a1) { }
+	public void glTexCoordP1uiv(int a0, int[] a1, int a2) { }
+	public void glTexCoordP1uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glTexCoordP2ui(int a0, int a1) { }
+	public void glTexCoordP2uiv(int a0, int[] a1, int a2) { }
+	public void glTexCoordP2uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glTexCoordP3ui(int a0, int a1) { }
+	public void glTexCoordP3uiv(int a0, int[] a1, int a2) { }
+	public void glTexCoordP3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glTexCoordP4ui(int a0, int a1) { }
+	public void glTexCoordP4uiv(int a0, int[] a1, int a2) { }
+	public void glTexCoordP4uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glTexCoordPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glTexCoordPointer(int a0, int a1, int a2, long a3) { }
+	public void glTexCoordPointer(javax.media.opengl.GLArrayData a0) { }
+	public void glTexEnvf(int a0, int a1, float a2) { }
+	public void glTexEnvfv(int a0, int a1, float[] a2, int a3) { }
+	public void glTexEnvfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glTexEnvi(int a0, int a1, int a2) { }
+	public void glTexEnviv(int a0, int a1, int[] a2, int a3) { }
+	public void glTexEnviv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glTexGend(int a0, int a1, double a2) { }
+	public void glTexGendv(int a0, int a1, double[] a2, int a3) { }
+	public void glTexGendv(int a0, int a1, java.nio.DoubleBuffer a2) { }
+	public void glTexGenf(int a0, int a1, float a2) { }
+	public void glTexGenfv(int a0, int a1, float[] a2, int a3) { }
+	public void glTexGenfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glTexGeni(int a0, int a1, int a2) { }
+	public void glTexGeniv(int a0, int a1, int[] a2, int a3) { }
+	public void glTexGeniv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glTexImage1D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glTexImage1D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, long a7) { }
+	public void glTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glTexImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, long a8) { }
+	public void glTexImage2DMultisample(int a0, int a1, int a2, int a3, int a4, boolean a5) { }
+	public void glTexImage2DMultisampleCoverageNV(int a0, int a1, int a2, int a3, int a4, int a5, boolean a6) { }
+	public void glTexImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glTexImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, long a9) { }
+	public void glTexImage3DMultisample(int a0, int a1, int a2, int a3, int a4, int a5, boolean a6) { }
+	public void glTexImage3DMultisampleCoverageNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, boolean a7) { }
+	public void glTexParameterIiv(int a0, int a1, int[] a2, int a3) { }
+	public void glTexParameterIiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glTexParameterIuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glTexParameterIuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glTexParameterf(int a0, int a1, float a2) { }
+	public void glTexParameterfv(int a0, int a1, float[] a2, int a3) { }
+	public void glTexParameterfv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glTexParameteri(int a0, int a1, int a2) { }
+	public void glTexParameteriv(int a0, int a1, int[] a2, int a3) { }
+	public void glTexParameteriv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glTexRenderbufferNV(int a0, int a1) { }
+	public void glTexStorage1D(int a0, int a1, int a2, int a3) { }
+	public void glTexStorage2D(int a0, int a1, int a2, int a3, int a4) { }
+	public void glTexStorage3D(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glTexSubImage1D(int a0, int a1, int a2, int a3, int a4, int a5, java.nio.Buffer a6) { }
+	public void glTexSubImage1D(int a0, int a1, int a2, int a3, int a4, int a5, long a6) { }
+	public void glTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glTexSubImage2D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, long a8) { }
+	public void glTexSubImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, java.nio.Buffer a10) { }
+	public void glTexSubImage3D(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, long a10) { }
+	public void glTextureBarrierNV() { }
+	public void glTextureBufferEXT(int a0, int a1, int a2, int a3) { }
+	public void glTextureImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, java.nio.Buffer a8) { }
+	public void glTextureImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glTextureImage2DMultisampleCoverageNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, boolean a7) { }
+	public void glTextureImage2DMultisampleNV(int a0, int a1, int a2, int a3, int a4, int a5, boolean a6) { }
+	public void glTextureImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, java.nio.Buffer a10) { }
+	public void glTextureImage3DMultisampleCoverageNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, boolean a8) { }
+	public void glTextureImage3DMultisampleNV(int a0, int a1, int a2, int a3, int a4, int a5, int a6, boolean a7) { }
+	public void glTextureLightEXT(int a0) { }
+	public void glTextureMaterialEXT(int a0, int a1) { }
+	public void glTextureNormalEXT(int a0) { }
+	public void glTextureParameterIivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glTextureParameterIivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glTextureParameterIuivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glTextureParameterIuivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glTextureParameterfEXT(int a0, int a1, int a2, float a3) { }
+	public void glTextureParameterfvEXT(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glTextureParameterfvEXT(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glTextureParameteriEXT(int a0, int a1, int a2, int a3) { }
+	public void glTextureParameterivEXT(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glTextureParameterivEXT(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glTextureRangeAPPLE(int a0, int a1, java.nio.Buffer a2) { }
+	public void glTextureRenderbufferEXT(int a0, int a1, int a2) { }
+	public void glTextureStorage1DEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glTextureStorage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public void glTextureStorage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6) { }
+	public void glTextureSubImage1DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, java.nio.Buffer a7) { }
+	public void glTextureSubImage2DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, java.nio.Buffer a9) { }
+	public void glTextureSubImage3DEXT(int a0, int a1, int a2, int a3, int a4, int a5, int a6, int a7, int a8, int a9, int a10, java.nio.Buffer a11) { }
+	public void glTransformFeedbackVaryings(int a0, int a1, java.lang.String[] a2, int a3) { }
+	public void glTranslated(double a0, double a1, double a2) { }
+	public void glTranslatef(float a0, float a1, float a2) { }
+	public void glUniform(javax.media.opengl.GLUniformData a0) { }
+	public void glUniform1f(int a0, float a1) { }
+	public void glUniform1fARB(int a0, float a1) { }
+	public void glUniform1fv(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform1fv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform1fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform1fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform1i(int a0, int a1) { }
+	public void glUniform1iARB(int a0, int a1) { }
+	public void glUniform1iv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform1iv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform1ivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform1ivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform1ui(int a0, int a1) { }
+	public void glUniform1uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform1uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform2f(int a0, float a1, float a2) { }
+	public void glUniform2fARB(int a0, float a1, float a2) { }
+	public void glUniform2fv(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform2fv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform2fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform2fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform2i(int a0, int a1, int a2) { }
+	public void glUniform2iARB(int a0, int a1, int a2) { }
+	public void glUniform2iv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform2iv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform2ivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform2ivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform2ui(int a0, int a1, int a2) { }
+	public void glUniform2uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform2uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform3f(int a0, float a1, float a2, float a3) { }
+	public void glUniform3fARB(int a0, float a1, float a2, float a3) { }
+	public void glUniform3fv(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform3fv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform3fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform3fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform3i(int a0, int a1, int a2, int a3) { }
+	public void glUniform3iARB(int a0, int a1, int a2, int a3) { }
+	public void glUniform3iv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform3iv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform3ivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform3ivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform3ui(int a0, int a1, int a2, int a3) { }
+	public void glUniform3uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform3uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform4f(int a0, float a1, float a2, float a3, float a4) { }
+	public void glUniform4fARB(int a0, float a1, float a2, float a3, float a4) { }
+	public void glUniform4fv(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform4fv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform4fvARB(int a0, int a1, float[] a2, int a3) { }
+	public void glUniform4fvARB(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glUniform4i(int a0, int a1, int a2, int a3, int a4) { }
+	public void glUniform4iARB(int a0, int a1, int a2, int a3, int a4) { }
+	public void glUniform4iv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform4iv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform4ivARB(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform4ivARB(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniform4ui(int a0, int a1, int a2, int a3, int a4) { }
+	public void glUniform4uiv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniform4uiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniformBlockBinding(int a0, int a1, int a2) { }
+	public void glUniformBufferEXT(int a0, int a1, int a2) { }
+	public void glUniformMatrix2fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix2fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix2fvARB(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix2fvARB(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix2x3fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix2x3fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix2x4fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix2x4fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix3fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix3fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix3fvARB(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix3fvARB(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix3x2fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix3x2fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix3x4fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix3x4fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix4fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix4fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix4fvARB(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix4fvARB(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix4x2fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix4x2fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformMatrix4x3fv(int a0, int a1, boolean a2, float[] a3, int a4) { }
+	public void glUniformMatrix4x3fv(int a0, int a1, boolean a2, java.nio.FloatBuffer a3) { }
+	public void glUniformSubroutinesuiv(int a0, int a1, int[] a2, int a3) { }
+	public void glUniformSubroutinesuiv(int a0, int a1, java.nio.IntBuffer a2) { }
+	public void glUniformui64NV(int a0, long a1) { }
+	public void glUniformui64vNV(int a0, int a1, long[] a2, int a3) { }
+	public void glUniformui64vNV(int a0, int a1, java.nio.LongBuffer a2) { }
+	public void glUnlockArraysEXT() { }
+	public boolean glUnmapBuffer(int a0) { return false; }
+	public boolean glUnmapNamedBufferEXT(int a0) { return false; }
+	public void glUseProgram(int a0) { }
+	public void glUseProgramObjectARB(int a0) { }
+	public void glUseProgramStages(int a0, int a1, int a2) { }
+	public void glVDPAUFiniNV() { }
+	public void glVDPAUGetSurfaceivNV(long a0, int a1, int a2, int[] a3, int a4, int[] a5, int a6) { }
+	public void glVDPAUGetSurfaceivNV(long a0, int a1, int a2, java.nio.IntBuffer a3, java.nio.IntBuffer a4) { }
+	public void glVDPAUInitNV(java.nio.Buffer a0, java.nio.Buffer a1) { }
+	public void glVDPAUIsSurfaceNV(long a0) { }
+	public void glVDPAUMapSurfacesNV(int a0, long[] a1, int a2) { }
+	public void glVDPAUMapSurfacesNV(int a0, java.nio.LongBuffer a1) { }
+	public long glVDPAURegisterOutputSurfaceNV(java.nio.Buffer a0, int a1, int a2, int[] a3, int a4) { return 0; }
+	public long glVDPAURegisterOutputSurfaceNV(java.nio.Buffer a0, int a1, int a2, java.nio.IntBuffer a3) { return 0; }
+	public long glVDPAURegisterVideoSurfaceNV(java.nio.Buffer a0, int a1, int a2, int[] a3, int a4) { return 0; }
+	public long glVDPAURegisterVideoSurfaceNV(java.nio.Buffer a0, int a1, int a2, java.nio.IntBuffer a3) { return 0; }
+	public void glVDPAUSurfaceAccessNV(long a0, int a1) { }
+	public void glVDPAUUnmapSurfacesNV(int a0, long[] a1, int a2) { }
+	public void glVDPAUUnmapSurfacesNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVDPAUUnregisterSurfaceNV(long a0) { }
+	public void glValidateProgram(int a0) { }
+	public void glValidateProgramARB(int a0) { }
+	public void glValidateProgramPipeline(int a0) { }
+	public void glVariantPointerEXT(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glVariantPointerEXT(int a0, int a1, int a2, long a3) { }
+	public void glVariantbvEXT(int a0, byte[] a1, int a2) { }
+	public void glVariantbvEXT(int a0, java.nio.ByteBuffer a1) { }
+	public void glVariantdvEXT(int a0, double[] a1, int a2) { }
+	public void glVariantdvEXT(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVariantfvEXT(int a0, float[] a1, int a2) { }
+	public void glVariantfvEXT(int a0, java.nio.FloatBuffer a1) { }
+	public void glVariantivEXT(int a0, int[] a1, int a2) { }
+	public void glVariantivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVariantsvEXT(int a0, short[] a1, int a2) { }
+	public void glVariantsvEXT(int a0, java.nio.ShortBuffer a1) { }
+	public void glVariantubvEXT(int a0, byte[] a1, int a2) { }
+	public void glVariantubvEXT(int a0, java.nio.ByteBuffer a1) { }
+	public void glVariantuivEXT(int a0, int[] a1, int a2) { }
+	public void glVariantuivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVariantusvEXT(int a0, short[] a1, int a2) { }
+	public void glVariantusvEXT(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertex2d(double a0, double a1) { }
+	public void glVertex2dv(double[] a0, int a1) { }
+	public void glVertex2dv(java.nio.DoubleBuffer a0) { }
+	public void glVertex2f(float a0, float a1) { }
+	public void glVertex2fv(float[] a0, int a1) { }
+	public void glVertex2fv(java.nio.FloatBuffer a0) { }
+	public void glVertex2h(short a0, short a1) { }
+	public void glVertex2hv(short[] a0, int a1) { }
+	public void glVertex2hv(java.nio.ShortBuffer a0) { }
+	public void glVertex2i(int a0, int a1) { }
+	public void glVertex2iv(int[] a0, int a1) { }
+	public void glVertex2iv(java.nio.IntBuffer a0) { }
+	public void glVertex2s(short a0, short a1) { }
+	public void glVertex2sv(short[] a0, int a1) { }
+	public void glVertex2sv(java.nio.ShortBuffer a0) { }
+	public void glVertex3d(double a0, double a1, double a2) { }
+	public void glVertex3dv(double[] a0, int a1) { }
+	public void glVertex3dv(java.nio.DoubleBuffer a0) { }
+	public void glVertex3f(float a0, float a1, float a2) { }
+	public void glVertex3fv(float[] a0, int a1) { }
+	public void glVertex3fv(java.nio.FloatBuffer a0) { }
+	public void glVertex3h(short a0, short a1, short a2) { }
+	public void glVertex3hv(short[] a0, int a1) { }
+	public void glVertex3hv(java.nio.ShortBuffer a0) { }
+	public void glVertex3i(int a0, int a1, int a2) { }
+	public void glVertex3iv(int[] a0, int a1) { }
+	public void glVertex3iv(java.nio.IntBuffer a0) { }
+	public void glVertex3s(short a0, short a1, short a2) { }
+	public void glVertex3sv(short[] a0, int a1) { }
+	public void glVertex3sv(java.nio.ShortBuffer a0) { }
+	public void glVertex4d(double a0, double a1, double a2, double a3) { }
+	public void glVertex4dv(double[] a0, int a1) { }
+	public void glVertex4dv(java.nio.DoubleBuffer a0) { }
+	public void glVertex4f(float a0, float a1, float a2, float a3) { }
+	public void glVertex4fv(float[] a0, int a1) { }
+	public void glVertex4fv(java.nio.FloatBuffer a0) { }
+	public void glVertex4h(short a0, short a1, short a2, short a3) { }
+	public void glVertex4hv(short[] a0, int a1) { }
+	public void glVertex4hv(java.nio.ShortBuffer a0) { }
+	public void glVertex4i(int a0, int a1, int a2, int a3) { }
+	public void glVertex4iv(int[] a0, int a1) { }
+	public void glVertex4iv(java.nio.IntBuffer a0) { }
+	public void glVertex4s(short a0, short a1, short a2, short a3) { }
+	public void glVertex4sv(short[] a0, int a1) { }
+	public void glVertex4sv(java.nio.ShortBuffer a0) { }
+	public void glVertexArrayParameteriAPPLE(int a0, int a1) { }
+	public void glVertexArrayRangeAPPLE(int a0, java.nio.Buffer a1) { }
+	public void glVertexArrayRangeNV(int a0, java.nio.Buffer a1) { }
+	public void glVertexAttrib1d(int a0, double a1) { }
+	public void glVertexAttrib1dARB(int a0, double a1) { }
+	public void glVertexAttrib1dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib1dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib1dvARB(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib1dvARB(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib1f(int a0, float a1) { }
+	public void glVertexAttrib1fARB(int a0, float a1) { }
+	public void glVertexAttrib1fv(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib1fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib1fvARB(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib1fvARB(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib1h(int a0, short a1) { }
+	public void glVertexAttrib1hv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib1hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib1s(int a0, short a1) { }
+	public void glVertexAttrib1sARB(int a0, short a1) { }
+	public void glVertexAttrib1sv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib1sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib1svARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib1svARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib2d(int a0, double a1, double a2) { }
+	public void glVertexAttrib2dARB(int a0, double a1, double a2) { }
+	public void glVertexAttrib2dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib2dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib2dvARB(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib2dvARB(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib2f(int a0, float a1, float a2) { }
+	public void glVertexAttrib2fARB(int a0, float a1, float a2) { }
+	public void glVertexAttrib2fv(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib2fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib2fvARB(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib2fvARB(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib2h(int a0, short a1, short a2) { }
+	public void glVertexAttrib2hv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib2hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib2s(int a0, short a1, short a2) { }
+	public void glVertexAttrib2sARB(int a0, short a1, short a2) { }
+	public void glVertexAttrib2sv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib2sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib2svARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib2svARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib3d(int a0, double a1, double a2, double a3) { }
+	public void glVertexAttrib3dARB(int a0, double a1, double a2, double a3) { }
+	public void glVertexAttrib3dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib3dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib3dvARB(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib3dvARB(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib3f(int a0, float a1, float a2, float a3) { }
+	public void glVertexAttrib3fARB(int a0, float a1, float a2, float a3) { }
+	public void glVertexAttrib3fv(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib3fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib3fvARB(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib3fvARB(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib3h(int a0, short a1, short a2, short a3) { }
+	public void glVertexAttrib3hv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib3hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib3s(int a0, short a1, short a2, short a3) { }
+	public void glVertexAttrib3sARB(int a0, short a1, short a2, short a3) { }
+	public void glVertexAttrib3sv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib3sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib3svARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib3svARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4Nbv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4Nbv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4NbvARB(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4NbvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4Niv(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4Niv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4NivARB(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4NivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4Nsv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4Nsv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4NsvARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4NsvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4Nub(int a0, byte a1, byte a2, byte a3, byte a4) { }
+	public void glVertexAttrib4NubARB(int a0, byte a1, byte a2, byte a3, byte a4) { }
+	public void glVertexAttrib4Nubv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4Nubv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4NubvARB(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4NubvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4Nuiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4Nuiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4NuivARB(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4NuivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4Nusv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4Nusv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4NusvARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4NusvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4bv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4bv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4bvARB(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4bvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4d(int a0, double a1, double a2, double a3, double a4) { }
+	public void glVertexAttrib4dARB(int a0, double a1, double a2, double a3, double a4) { }
+	public void glVertexAttrib4dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib4dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib4dvARB(int a0, double[] a1, int a2) { }
+	public void glVertexAttrib4dvARB(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttrib4f(int a0, float a1, float a2, float a3, float a4) { }
+	public void glVertexAttrib4fARB(int a0, float a1, float a2, float a3, float a4) { }
+	public void glVertexAttrib4fv(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib4fv(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib4fvARB(int a0, float[] a1, int a2) { }
+	public void glVertexAttrib4fvARB(int a0, java.nio.FloatBuffer a1) { }
+	public void glVertexAttrib4h(int a0, short a1, short a2, short a3, short a4) { }
+	public void glVertexAttrib4hv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4hv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4iv(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4iv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4ivARB(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4ivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4s(int a0, short a1, short a2, short a3, short a4) { }
+	public void glVertexAttrib4sARB(int a0, short a1, short a2, short a3, short a4) { }
+	public void glVertexAttrib4sv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4svARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4svARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4ubv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4ubv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4ubvARB(int a0, byte[] a1, int a2) { }
+	public void glVertexAttrib4ubvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttrib4uiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4uivARB(int a0, int[] a1, int a2) { }
+	public void glVertexAttrib4uivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttrib4usv(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4usv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttrib4usvARB(int a0, short[] a1, int a2) { }
+	public void glVertexAttrib4usvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttribFormatNV(int a0, int a1, int a2, boolean a3, int a4) { }
+	public void glVertexAttribI1i(int a0, int a1) { }
+	public void glVertexAttribI1iEXT(int a0, int a1) { }
+	public void glVertexAttribI1iv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI1iv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI1ivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI1ivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI1ui(int a0, int a1) { }
+	public void glVertexAttribI1uiEXT(int a0, int a1) { }
+	public void glVertexAttribI1uiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI1uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI1uivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI1uivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI2i(int a0, int a1, int a2) { }
+	public void glVertexAttribI2iEXT(int a0, int a1, int a2) { }
+	public void glVertexAttribI2iv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI2iv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI2ivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI2ivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI2ui(int a0, int a1, int a2) { }
+	public void glVertexAttribI2uiEXT(int a0, int a1, int a2) { }
+	public void glVertexAttribI2uiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI2uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI2uivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI2uivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI3i(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribI3iEXT(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribI3iv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI3iv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI3ivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI3ivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI3ui(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribI3uiEXT(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribI3uiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI3uivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI3uivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI4bv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttribI4bv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttribI4bvEXT(int a0, byte[] a1, int a2) { }
+	public void glVertexAttribI4bvEXT(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttribI4i(int a0, int a1, int a2, int a3, int a4) { }
+	public void glVertexAttribI4iEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glVertexAttribI4iv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI4iv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI4ivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI4ivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI4sv(int a0, short[] a1, int a2) { }
+	public void glVertexAttribI4sv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttribI4svEXT(int a0, short[] a1, int a2) { }
+	public void glVertexAttribI4svEXT(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttribI4ubv(int a0, byte[] a1, int a2) { }
+	public void glVertexAttribI4ubv(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttribI4ubvEXT(int a0, byte[] a1, int a2) { }
+	public void glVertexAttribI4ubvEXT(int a0, java.nio.ByteBuffer a1) { }
+	public void glVertexAttribI4ui(int a0, int a1, int a2, int a3, int a4) { }
+	public void glVertexAttribI4uiEXT(int a0, int a1, int a2, int a3, int a4) { }
+	public void glVertexAttribI4uiv(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI4uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI4uivEXT(int a0, int[] a1, int a2) { }
+	public void glVertexAttribI4uivEXT(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexAttribI4usv(int a0, short[] a1, int a2) { }
+	public void glVertexAttribI4usv(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttribI4usvEXT(int a0, short[] a1, int a2) { }
+	public void glVertexAttribI4usvEXT(int a0, java.nio.ShortBuffer a1) { }
+	public void glVertexAttribIFormatNV(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribIPointer(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glVertexAttribIPointer(int a0, int a1, int a2, int a3, long a4) { }
+	public void glVertexAttribIPointerEXT(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glVertexAttribL1d(int a0, double a1) { }
+	public void glVertexAttribL1dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttribL1dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttribL1i64NV(int a0, long a1) { }
+	public void glVertexAttribL1i64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL1i64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL1ui64NV(int a0, long a1) { }
+	public void glVertexAttribL1ui64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL1ui64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL2d(int a0, double a1, double a2) { }
+	public void glVertexAttribL2dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttribL2dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttribL2i64NV(int a0, long a1, long a2) { }
+	public void glVertexAttribL2i64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL2i64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL2ui64NV(int a0, long a1, long a2) { }
+	public void glVertexAttribL2ui64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL2ui64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL3d(int a0, double a1, double a2, double a3) { }
+	public void glVertexAttribL3dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttribL3dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttribL3i64NV(int a0, long a1, long a2, long a3) { }
+	public void glVertexAttribL3i64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL3i64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL3ui64NV(int a0, long a1, long a2, long a3) { }
+	public void glVertexAttribL3ui64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL3ui64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL4d(int a0, double a1, double a2, double a3, double a4) { }
+	public void glVertexAttribL4dv(int a0, double[] a1, int a2) { }
+	public void glVertexAttribL4dv(int a0, java.nio.DoubleBuffer a1) { }
+	public void glVertexAttribL4i64NV(int a0, long a1, long a2, long a3, long a4) { }
+	public void glVertexAttribL4i64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL4i64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribL4ui64NV(int a0, long a1, long a2, long a3, long a4) { }
+	public void glVertexAttribL4ui64vNV(int a0, long[] a1, int a2) { }
+	public void glVertexAttribL4ui64vNV(int a0, java.nio.LongBuffer a1) { }
+	public void glVertexAttribLFormatNV(int a0, int a1, int a2, int a3) { }
+	public void glVertexAttribLPointer(int a0, int a1, int a2, int a3, java.nio.Buffer a4) { }
+	public void glVertexAttribLPointer(int a0, int a1, int a2, int a3, long a4) { }
+	public void glVertexAttribP1ui(int a0, int a1, boolean a2, int a3) { }
+	public void glVertexAttribP1uiv(int a0, int a1, boolean a2, int[] a3, int a4) { }
+	public void glVertexAttribP1uiv(int a0, int a1, boolean a2, java.nio.IntBuffer a3) { }
+	public void glVertexAttribP2ui(int a0, int a1, boolean a2, int a3) { }
+	public void glVertexAttribP2uiv(int a0, int a1, boolean a2, int[] a3, int a4) { }
+	public void glVertexAttribP2uiv(int a0, int a1, boolean a2, java.nio.IntBuffer a3) { }
+	public void glVertexAttribP3ui(int a0, int a1, boolean a2, int a3) { }
+	public void glVertexAttribP3uiv(int a0, int a1, boolean a2, int[] a3, int a4) { }
+	public void glVertexAttribP3uiv(int a0, int a1, boolean a2, java.nio.IntBuffer a3) { }
+	public void glVertexAttribP4ui(int a0, int a1, boolean a2, int a3) { }
+	public void glVertexAttribP4uiv(int a0, int a1, boolean a2, int[] a3, int a4) { }
+	public void glVertexAttribP4uiv(int a0, int a1, boolean a2, java.nio.IntBuffer a3) { }
+	public void glVertexAttribPointer(int a0, int a1, int a2, boolean a3, int a4, java.nio.Buffer a5) { }
+	public void glVertexAttribPointer(int a0, int a1, int a2, boolean a3, int a4, long a5) { }
+	public void glVertexAttribPointer(javax.media.opengl.GLArrayData a0) { }
+	public void glVertexAttribPointerARB(int a0, int a1, int a2, boolean a3, int a4, java.nio.Buffer a5) { }
+	public void glVertexAttribPointerARB(int a0, int a1, int a2, boolean a3, int a4, long a5) { }
+	public void glVertexAttribs1hv(int a0, int a1, short[] a2, int a3) { }
+	public void glVertexAttribs1hv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glVertexAttribs2hv(int a0, int a1, short[] a2, int a3) { }
+	public void glVertexAttribs2hv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glVertexAttribs3hv(int a0, int a1, short[] a2, int a3) { }
+	public void glVertexAttribs3hv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glVertexAttribs4hv(int a0, int a1, short[] a2, int a3) { }
+	public void glVertexAttribs4hv(int a0, int a1, java.nio.ShortBuffer a2) { }
+	public void glVertexBlendARB(int a0) { }
+	public void glVertexFormatNV(int a0, int a1, int a2) { }
+	public void glVertexP2ui(int a0, int a1) { }
+	public void glVertexP2uiv(int a0, int[] a1, int a2) { }
+	public void glVertexP2uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexP3ui(int a0, int a1) { }
+	public void glVertexP3uiv(int a0, int[] a1, int a2) { }
+	public void glVertexP3uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexP4ui(int a0, int a1) { }
+	public void glVertexP4uiv(int a0, int[] a1, int a2) { }
+	public void glVertexP4uiv(int a0, java.nio.IntBuffer a1) { }
+	public void glVertexPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glVertexPointer(int a0, int a1, int a2, long a3) { }
+	public void glVertexPointer(javax.media.opengl.GLArrayData a0) { }
+	public void glVertexWeightPointerEXT(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glVertexWeightPointerEXT(int a0, int a1, int a2, long a3) { }
+	public void glVertexWeightfEXT(float a0) { }
+	public void glVertexWeightfvEXT(float[] a0, int a1) { }
+	public void glVertexWeightfvEXT(java.nio.FloatBuffer a0) { }
+	public void glVertexWeighth(short a0) { }
+	public void glVertexWeighthv(short[] a0, int a1) { }
+	public void glVertexWeighthv(java.nio.ShortBuffer a0) { }
+	public int glVideoCaptureNV(int a0, int[] a1, int a2, long[] a3, int a4) { return 0; }
+	public int glVideoCaptureNV(int a0, java.nio.IntBuffer a1, java.nio.LongBuffer a2) { return 0; }
+	public void glVideoCaptureStreamParameterdvNV(int a0, int a1, int a2, double[] a3, int a4) { }
+	public void glVideoCaptureStreamParameterdvNV(int a0, int a1, int a2, java.nio.DoubleBuffer a3) { }
+	public void glVideoCaptureStreamParameterfvNV(int a0, int a1, int a2, float[] a3, int a4) { }
+	public void glVideoCaptureStreamParameterfvNV(int a0, int a1, int a2, java.nio.FloatBuffer a3) { }
+	public void glVideoCaptureStreamParameterivNV(int a0, int a1, int a2, int[] a3, int a4) { }
+	public void glVideoCaptureStreamParameterivNV(int a0, int a1, int a2, java.nio.IntBuffer a3) { }
+	public void glViewport(int a0, int a1, int a2, int a3) { }
+	public void glViewportArrayv(int a0, int a1, float[] a2, int a3) { }
+	public void glViewportArrayv(int a0, int a1, java.nio.FloatBuffer a2) { }
+	public void glViewportIndexedf(int a0, float a1, float a2, float a3, float a4) { }
+	public void glViewportIndexedfv(int a0, float[] a1, int a2) { }
+	public void glViewportIndexedfv(int a0, java.nio.FloatBuffer a1) { }
+	public void glWeightPointer(int a0, int a1, int a2, java.nio.Buffer a3) { }
+	public void glWeightbvARB(int a0, byte[] a1, int a2) { }
+	public void glWeightbvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glWeightdvARB(int a0, double[] a1, int a2) { }
+	public void glWeightdvARB(int a0, java.nio.DoubleBuffer a1) { }
+	public void glWeightfvARB(int a0, float[] a1, int a2) { }
+	public void glWeightfvARB(int a0, java.nio.FloatBuffer a1) { }
+	public void glWeightivARB(int a0, int[] a1, int a2) { }
+	public void glWeightivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glWeightsvARB(int a0, short[] a1, int a2) { }
+	public void glWeightsvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glWeightubvARB(int a0, byte[] a1, int a2) { }
+	public void glWeightubvARB(int a0, java.nio.ByteBuffer a1) { }
+	public void glWeightuivARB(int a0, int[] a1, int a2) { }
+	public void glWeightuivARB(int a0, java.nio.IntBuffer a1) { }
+	public void glWeightusvARB(int a0, short[] a1, int a2) { }
+	public void glWeightusvARB(int a0, java.nio.ShortBuffer a1) { }
+	public void glWindowPos2d(double a0, double a1) { }
+	public void glWindowPos2dv(double[] a0, int a1) { }
+	public void glWindowPos2dv(java.nio.DoubleBuffer a0) { }
+	public void glWindowPos2f(float a0, float a1) { }
+	public void glWindowPos2fv(float[] a0, int a1) { }
+	public void glWindowPos2fv(java.nio.FloatBuffer a0) { }
+	public void glWindowPos2i(int a0, int a1) { }
+	public void glWindowPos2iv(int[] a0, int a1) { }
+	public void glWindowPos2iv(java.nio.IntBuffer a0) { }
+	public void glWindowPos2s(short a0, short a1) { }
+	public void glWindowPos2sv(short[] a0, int a1) { }
+	public void glWindowPos2sv(java.nio.ShortBuffer a0) { }
+	public void glWindowPos3d(double a0, double a1, double a2) { }
+	public void glWindowPos3dv(double[] a0, int a1) { }
+	public void glWindowPos3dv(java.nio.DoubleBuffer a0) { }
+	public void glWindowPos3f(float a0, float a1, float a2) { }
+	public void glWindowPos3fv(float[] a0, int a1) { }
+	public void glWindowPos3fv(java.nio.FloatBuffer a0) { }
+	public void glWindowPos3i(int a0, int a1, int a2) { }
+	public void glWindowPos3iv(int[] a0, int a1) { }
+	public void glWindowPos3iv(java.nio.IntBuffer a0) { }
+	public void glWindowPos3s(short a0, short a1, short a2) { }
+	public void glWindowPos3sv(short[] a0, int a1) { }
+	public void glWindowPos3sv(java.nio.ShortBuffer a0) { }
+	public void glWriteMaskEXT(int a0, int a1, int a2, int a3, int a4, int a5) { }
+	public boolean hasBasicFBOSupport() { return false; }
+	public boolean hasFullFBOSupport() { return false; }
+	public boolean hasGLSL() { return false; }
+	public boolean isExtensionAvailable(java.lang.String a0) { return false; }
+	public boolean isFunctionAvailable(java.lang.String a0) { return false; }
+	public boolean isGL() { return false; }
+	public boolean isGL2() { return false; }
+	public boolean isGL2ES1() { return false; }
+	public boolean isGL2ES2() { return false; }
+	public boolean isGL2GL3() { return false; }
+	public boolean isGL3() { return false; }
+	public boolean isGL3bc() { return false; }
+	public boolean isGL4() { return false; }
+	public boolean isGL4bc() { return false; }
+	public boolean isGLES() { return false; }
+	public boolean isGLES1() { return false; }
+	public boolean isGLES2() { return false; }
+	public boolean isGLES2Compatible() { return false; }
+	public boolean isNPOTTextureAvailable() { return false; }
+	public boolean isTextureFormatBGRA8888Available() { return false; }
+	public void setSwapInterval(int a0) { }
+}
@@ -0,0 +1,133 @@
+package cs5625.deferred.checks;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.media.opengl.GL2;
+
+/**
+ * NullGL2Generator.java
+ *
+ * Writes `NullGL2.java`, an implementation of every method of the GL2 interface which does nothing and
+ * returns 0, false or null. GL2 has too many methods to be implemented by a java.lang.reflect.Proxy, and
+ * far too many to write by hand, so the class is generated from the JOGL jar on the class path. Run this
+ * again after updating JOGL:
+ *
+ *     java cs5625.deferred.checks.NullGL2Generator src/cs5625/deferred/checks/NullGL2.java
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class NullGL2Generator
+{
+	public static void main(String[] args) throws IOException
+	{
+		PrintWriter out;
+		if (args.length > 0)
+		{
+			out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(args[0]), "UTF-8"));
+		}
+		else
+		{
+			out = new PrintWriter(System.out);
+		}
+
+		write(out);
+		out.close();
+	}
+
+	/**
+	 * Writes the source of NullGL2 to `out`.
+	 */
+	public static void write(PrintWriter out)
+	{
+		/* GL2 inherits some methods from several interfaces, with covariant return types; keep the most specific. */
+		Map<String, Method> methods = new LinkedHashMap<String, Method>();
+		for (Method method : GL2.class.getMethods())
+		{
+			String key = method.getName() + Arrays.toString(method.getParameterTypes());
+			Method other = methods.get(key);
+
+			if (other == null || other.getReturnType().isAssignableFrom(method.getReturnType()))
+			{
+				methods.put(key, method);
+			}
+		}
+
+		ArrayList<Method> sorted = new ArrayList<Method>(methods.values());
+		Collections.sort(sorted, new Comparator<Method>() {
+			public int compare(Method a, Method b)
+			{
+				int order = a.getName().compareTo(b.getName());
+				return (order != 0 ? order : Arrays.toString(a.getParameterTypes()).compareTo(Arrays.toString(b.getParameterTypes())));
+			}
+		});
+
+		out.println("package cs5625.deferred.checks;");
+		out.println();
+		out.println("/**");
+		out.println(" * NullGL2.java");
+		out.println(" *");
+		out.println(" * GENERATED by `NullGL2Generator` from " + GL2.class.getName() + "; do not edit. Every method does nothing and");
+		out.println(" * returns 0, false or null. Subclass it to fake the few calls a check depends on.");
+		out.println(" *");
+		out.println(" * Written for Cornell CS 5625 (Interactive Computer Graphics).");
+		out.println(" * Copyright (c) 2013, Computer Science Department, Cornell University.");
+		out.println(" */");
+		out.println("@SuppressWarnings(\"deprecation\")");
+		out.println("public class NullGL2 implements javax.media.opengl.GL2");
+		out.println("{");
+
+		for (Method method : sorted)
+		{
+			Class<?> result = method.getReturnType();
+			Class<?> parameters[] = method.getParameterTypes();
+
+			StringBuilder line = new StringBuilder("\tpublic ");
+			line.append(getTypeName(result)).append(' ').append(method.getName()).append('(');
+			for (int i = 0; i < parameters.length; ++i)
+			{
+				line.append(i > 0 ? ", " : "").append(getTypeName(parameters[i])).append(" a").append(i);
+			}
+			line.append(") { ");
+
+			if (result == boolean.class)
+			{
+				line.append("return false; ");
+			}
+			else if (result.isPrimitive() && result != void.class)
+			{
+				line.append("return 0; ");
+			}
+			else if (!result.isPrimitive())
+			{
+				line.append("return null; ");
+			}
+			out.println(line.append('}'));
+		}
+
+		out.println("}");
+	}
+
+	/* Source name of a type, e.g. "java.nio.IntBuffer" or "int[]". */
+	private static String getTypeName(Class<?> type)
+	{
+		if (type.isArray())
+		{
+			return getTypeName(type.getComponentType()) + "[]";
+		}
+		else
+		{
+			return type.getName().replace('$', '.');
+		}
+	}
+}
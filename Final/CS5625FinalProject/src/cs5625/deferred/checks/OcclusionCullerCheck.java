@@ -0,0 +1,335 @@
+package cs5625.deferred.checks;
+
+import java.util.Random;
+
+import javax.vecmath.Color3f;
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Vector3f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.UnshadedMaterial;
+import cs5625.deferred.rendering.Camera;
+import cs5625.deferred.rendering.OcclusionCuller;
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.Trimesh;
+
+/**
+ * OcclusionCullerCheck.java
+ *
+ * Checks `OcclusionCuller` headless, in view space with a 45 degree camera: a wall facing the camera
+ * hides boxes behind it and nothing else; random boxes are never culled unless they are really hidden
+ * (and most hidden ones are); each pyramid level holds the maximum of the level below; occluders are
+ * chosen by size and polygon count; and compact (quantized) occluders rasterize like float ones.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class OcclusionCullerCheck
+{
+	/* The wall: a 4x4 square facing the camera, 5 units away. */
+	private static final float WALL_HALF_SIZE = 2.0f;
+	private static final float WALL_DISTANCE = 5.0f;
+
+	private static final int RANDOM_BOXES = 2000;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("OcclusionCullerCheck");
+
+		Matrix4f projection = new Camera().getProjectionMatrix(256.0f, 256.0f);
+
+		checkWall(report, projection);
+		checkRandomBoxes(report, projection);
+		checkPyramid(report, projection);
+		checkOccluderSelection(report, projection);
+		checkCompactOccluder(report, projection);
+
+		report.finish();
+	}
+
+	private static void checkWall(CheckReport report, Matrix4f projection)
+	{
+		OcclusionCuller culler = new OcclusionCuller(128);
+		Geometry wall = createWall(false);
+		Geometry box = createBox(0.25f);
+
+		/* The wall covers the left half of the screen's middle: its right edge is at x = 0. */
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(wall, translation(-WALL_HALF_SIZE, 0.0f, -WALL_DISTANCE));
+		culler.rasterizeOccluders();
+		report.expect(culler.getOccluderCount() == 1 && culler.getOccluderTriangleCount() == 2,
+				"Wall is rasterized as 2 triangles: " + culler.getOccluderCount() + " occluders, " + culler.getOccluderTriangleCount() + " triangles");
+
+		report.expect(culler.isCulled(box, translation(-1.0f, 0.0f, -10.0f)), "Box behind the wall is culled");
+		report.expect(culler.isCulled(box, translation(-2.0f, -1.0f, -8.0f)), "Box behind the wall, lower down, is culled");
+		report.expect(!culler.isCulled(box, translation(-1.0f, 0.0f, -3.0f)), "Box in front of the wall isn't culled");
+		report.expect(!culler.isCulled(box, translation(-1.0f, 0.0f, -WALL_DISTANCE - 0.1f)), "Box touching the wall from behind isn't culled");
+		report.expect(!culler.isCulled(box, translation(1.0f, 0.0f, -10.0f)), "Box behind the wall's plane but beside it on screen isn't culled");
+		report.expect(!culler.isCulled(box, translation(0.0f, 0.0f, -10.0f)), "Box peeking past the wall's edge isn't culled");
+		report.expect(!culler.isCulled(box, translation(0.0f, 0.0f, -0.1f)), "Box crossing the near plane isn't culled");
+		report.expect(!culler.isCulled(createBox(8.0f), translation(-1.0f, 0.0f, -12.0f)), "Box larger than the wall behind it isn't culled");
+
+		report.expect(culler.isCulled(box, translation(0.0f, 0.0f, 5.0f)), "Box behind the camera is culled");
+		report.expect(culler.isCulled(box, translation(50.0f, 0.0f, -10.0f)), "Box off screen is culled");
+		report.expect(culler.isCulled(box, translation(0.0f, 0.0f, -200.0f)), "Box past the far plane is culled");
+
+		report.expect(culler.getTestedCount() == 11 && culler.getOccludedCount() == 2 && culler.getFrustumCulledCount() == 3,
+				"Counters: " + culler.getSummary());
+		report.expect(culler.getCPUTime() > 0.0, "CPU time is measured: " + culler.getCPUTime() + " ms");
+
+		/* Without occluders, only the frustum culls. */
+		culler.beginPass(projection, 1.0f);
+		culler.rasterizeOccluders();
+		report.expect(!culler.isCulled(box, translation(0.0f, 0.0f, -10.0f)), "Nothing is occluded without occluders");
+	}
+
+	/*
+	 * Random boxes around and behind the wall. A box is really hidden if it is entirely behind the wall's
+	 * plane and its silhouette lies within the wall's; culling one which isn't is a bug, and most which are
+	 * should be culled.
+	 */
+	private static void checkRandomBoxes(CheckReport report, Matrix4f projection)
+	{
+		OcclusionCuller culler = new OcclusionCuller();
+		Geometry wall = createWall(false);
+		Random random = new Random(5625);
+
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(wall, translation(0.0f, 0.0f, -WALL_DISTANCE));
+		culler.rasterizeOccluders();
+
+		int hidden = 0, culledHidden = 0, wronglyCulled = 0;
+		for (int i = 0; i < RANDOM_BOXES; ++i)
+		{
+			float size = 0.05f + 0.5f * random.nextFloat();
+			float z = -1.0f - 20.0f * random.nextFloat();
+			float x = (random.nextFloat() * 2.0f - 1.0f) * 0.6f * -z;
+			float y = (random.nextFloat() * 2.0f - 1.0f) * 0.6f * -z;
+
+			/* Only culling by the occluders is checked here; frustum culling is checked above. */
+			int occluded = culler.getOccludedCount();
+			boolean reallyHidden = isHiddenByWall(x, y, z, size);
+			boolean culled = culler.isCulled(createBox(size), translation(x, y, z)) && culler.getOccludedCount() > occluded;
+
+			if (reallyHidden)
+			{
+				++hidden;
+				culledHidden += (culled ? 1 : 0);
+			}
+			else if (culled)
+			{
+				++wronglyCulled;
+				report.expect(false, String.format("Visible box of size %.3f at (%.3f, %.3f, %.3f) is culled", size, x, y, z));
+			}
+		}
+
+		report.expect(wronglyCulled == 0, wronglyCulled + " visible boxes were culled");
+		report.expect(hidden > 100, "Enough random boxes are hidden to be meaningful: " + hidden);
+		report.expect(culledHidden >= 0.75 * hidden, culledHidden + " of " + hidden + " hidden boxes were culled");
+		report.note("%d of %d hidden boxes culled; %s", culledHidden, hidden, culler.getSummary());
+	}
+
+	private static void checkPyramid(CheckReport report, Matrix4f projection)
+	{
+		/* A wide viewport, so that levels have odd sizes along the way. */
+		OcclusionCuller culler = new OcclusionCuller(100);
+		culler.beginPass(projection, 100.0f / 37.0f);
+		culler.addOccluderCandidate(createWall(false), translation(-1.0f, 0.5f, -WALL_DISTANCE));
+		culler.addOccluderCandidate(createWall(false), translation(2.0f, -1.0f, -9.0f));
+		culler.rasterizeOccluders();
+
+		report.expect(culler.getWidth() == 100 && culler.getHeight() == 37, "Depth buffer is " + culler.getWidth() + "x" + culler.getHeight());
+
+		boolean covered = false, cleared = false, inRange = true, isMax = true;
+		int width = culler.getWidth(), height = culler.getHeight();
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				float depth = culler.getDepth(0, x, y);
+				covered |= (depth < 1.0f);
+				cleared |= (depth == 1.0f);
+				inRange &= (depth >= 0.0f && depth <= 1.0f);
+			}
+		}
+
+		for (int level = 1; level < culler.getLevelCount(); ++level)
+		{
+			int levelWidth = (width + (1 << level) - 1) >> level;
+			int levelHeight = (height + (1 << level) - 1) >> level;
+			int sourceWidth = (width + (1 << (level - 1)) - 1) >> (level - 1);
+			int sourceHeight = (height + (1 << (level - 1)) - 1) >> (level - 1);
+
+			for (int y = 0; y < levelHeight; ++y)
+			{
+				for (int x = 0; x < levelWidth; ++x)
+				{
+					float expected = 0.0f;
+					for (int dy = 0; dy < 2; ++dy)
+					{
+						for (int dx = 0; dx < 2; ++dx)
+						{
+							expected = Math.max(expected, culler.getDepth(level - 1, Math.min(2 * x + dx, sourceWidth - 1), Math.min(2 * y + dy, sourceHeight - 1)));
+						}
+					}
+					isMax &= (culler.getDepth(level, x, y) == expected);
+				}
+			}
+		}
+
+		report.expect(covered && cleared && inRange, "Level 0 has occluder and cleared texels, all within [0, 1]");
+		report.expect(isMax, "Each pyramid texel is the maximum of the 2x2 texels below it");
+		report.expect(culler.getDepth(culler.getLevelCount() - 1, 0, 0) == 1.0f, "The top of a partly covered pyramid is the far plane");
+	}
+
+	private static void checkOccluderSelection(CheckReport report, Matrix4f projection)
+	{
+		OcclusionCuller culler = new OcclusionCuller(64);
+		Geometry near = createWall(false);
+		Geometry far = createWall(false);
+		Geometry box = createBox(0.25f);
+
+		/* Only the larger on screen is kept, whatever the order. */
+		culler.setMaxOccluders(1);
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(far, translation(0.0f, 0.0f, -20.0f));
+		culler.addOccluderCandidate(near, translation(0.0f, 0.0f, -WALL_DISTANCE));
+		culler.rasterizeOccluders();
+		report.expect(culler.getOccluderCount() == 1, "One occluder kept with maxOccluders 1");
+		report.expect(culler.isCulled(box, translation(0.0f, 0.0f, -10.0f)), "The nearer, larger wall is the one kept");
+
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(near, translation(0.0f, 0.0f, -WALL_DISTANCE));
+		culler.addOccluderCandidate(far, translation(0.0f, 0.0f, -20.0f));
+		culler.rasterizeOccluders();
+		report.expect(culler.isCulled(box, translation(0.0f, 0.0f, -10.0f)), "The larger wall is kept when offered first, too");
+
+		/* Too detailed, or too small on screen: not an occluder. */
+		culler.setMaxOccluders(OcclusionCuller.DEFAULT_MAX_OCCLUDERS);
+		culler.setMaxOccluderPolygons(1);
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(near, translation(0.0f, 0.0f, -WALL_DISTANCE));
+		culler.rasterizeOccluders();
+		report.expect(culler.getOccluderCount() == 0, "Occluder with more than maxOccluderPolygons polygons is skipped");
+
+		culler.setMaxOccluderPolygons(OcclusionCuller.DEFAULT_MAX_OCCLUDER_POLYGONS);
+		culler.setMinOccluderArea(0.5f);
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(far, translation(0.0f, 0.0f, -20.0f));
+		culler.rasterizeOccluders();
+		report.expect(culler.getOccluderCount() == 0, "Occluder covering less than minOccluderArea is skipped");
+
+		culler.setMaxOccluders(0);
+		culler.setMinOccluderArea(OcclusionCuller.DEFAULT_MIN_OCCLUDER_AREA);
+		culler.beginPass(projection, 1.0f);
+		culler.addOccluderCandidate(near, translation(0.0f, 0.0f, -WALL_DISTANCE));
+		culler.rasterizeOccluders();
+		report.expect(culler.getOccluderCount() == 0, "No occluders with maxOccluders 0");
+	}
+
+	private static void checkCompactOccluder(CheckReport report, Matrix4f projection)
+	{
+		OcclusionCuller floats = new OcclusionCuller(64);
+		floats.beginPass(projection, 1.0f);
+		floats.addOccluderCandidate(createWall(false), translation(0.3f, -0.2f, -WALL_DISTANCE));
+		floats.rasterizeOccluders();
+
+		Geometry compactWall = createWall(true);
+		report.expect(compactWall.getMeshes().get(0).getVertexData() == null, "Compact wall has no float positions");
+
+		OcclusionCuller compact = new OcclusionCuller(64);
+		compact.beginPass(projection, 1.0f);
+		compact.addOccluderCandidate(compactWall, translation(0.3f, -0.2f, -WALL_DISTANCE));
+		compact.rasterizeOccluders();
+
+		double maxDifference = 0.0;
+		int coverageDifferences = 0;
+		for (int y = 0; y < floats.getHeight(); ++y)
+		{
+			for (int x = 0; x < floats.getWidth(); ++x)
+			{
+				float a = floats.getDepth(0, x, y), b = compact.getDepth(0, x, y);
+				if ((a == 1.0f) != (b == 1.0f))
+				{
+					++coverageDifferences;
+				}
+				else
+				{
+					maxDifference = Math.max(maxDifference, Math.abs(a - b));
+				}
+			}
+		}
+
+		report.expect(compact.getOccluderCount() == 1, "Compact wall is rasterized");
+		report.expectAtMost(coverageDifferences, 2 * floats.getWidth() / 16, "Texels covered by only one of the float and compact walls");
+		report.expectAtMost(maxDifference, 1e-4, "Largest depth difference between the float and compact walls");
+	}
+
+	/* Whether a box of half size `size` at (x, y, z) is behind the wall and within its silhouette. */
+	private static boolean isHiddenByWall(float x, float y, float z, float size)
+	{
+		float nearZ = z + size;
+		if (nearZ >= -WALL_DISTANCE)
+		{
+			return false;
+		}
+
+		/* The silhouette is widest at the box's near face, seen from the origin. */
+		float scale = WALL_DISTANCE / -nearZ;
+		return Math.abs(x) + size <= WALL_HALF_SIZE / scale && Math.abs(y) + size <= WALL_HALF_SIZE / scale;
+	}
+
+	private static Matrix4f translation(float x, float y, float z)
+	{
+		Matrix4f matrix = new Matrix4f();
+		matrix.set(new Vector3f(x, y, z));
+		return matrix;
+	}
+
+	/* The wall, in the z = 0 plane; optionally with only quantized positions, as after `Mesh.discardFloatVertexData()`. */
+	private static Geometry createWall(boolean compact)
+	{
+		float h = WALL_HALF_SIZE;
+		Trimesh mesh = new Trimesh();
+		mesh.setVertexData(Buffers.newDirectFloatBuffer(new float[] { -h, -h, 0, h, -h, 0, h, h, 0, -h, h, 0 }));
+		mesh.setNormalData(Buffers.newDirectFloatBuffer(new float[] { 0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1 }));
+		mesh.setPolygonData(Buffers.newDirectIntBuffer(new int[] { 0, 1, 2, 0, 2, 3 }));
+		mesh.setMaterial(new UnshadedMaterial(new Color3f(1.0f, 1.0f, 1.0f)));
+
+		if (compact)
+		{
+			mesh.compactVertexData();
+			mesh.discardFloatVertexData();
+		}
+
+		Geometry geometry = new Geometry();
+		geometry.addMesh(mesh);
+		return geometry;
+	}
+
+	/* A cube from -size to size on each axis. */
+	private static Geometry createBox(float size)
+	{
+		float s = size;
+		float vertices[] = new float[3 * 8];
+		for (int i = 0; i < 8; ++i)
+		{
+			vertices[3 * i] = ((i & 1) == 0 ? -s : s);
+			vertices[3 * i + 1] = ((i & 2) == 0 ? -s : s);
+			vertices[3 * i + 2] = ((i & 4) == 0 ? -s : s);
+		}
+
+		Trimesh mesh = new Trimesh();
+		mesh.setVertexData(Buffers.newDirectFloatBuffer(vertices));
+		mesh.setPolygonData(Buffers.newDirectIntBuffer(new int[] {
+				0, 2, 3, 0, 3, 1,  4, 5, 7, 4, 7, 6,  0, 1, 5, 0, 5, 4,
+				2, 6, 7, 2, 7, 3,  0, 4, 6, 0, 6, 2,  1, 3, 7, 1, 7, 5 }));
+
+		Geometry geometry = new Geometry();
+		geometry.addMesh(mesh);
+		return geometry;
+	}
+}
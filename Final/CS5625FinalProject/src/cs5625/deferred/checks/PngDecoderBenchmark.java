@@ -0,0 +1,215 @@
+package cs5625.deferred.checks;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import cs5625.deferred.materials.ImageConverter;
+import cs5625.deferred.materials.PngDecoder;
+import cs5625.deferred.materials.TextureData;
+
+/**
+ * PngDecoderBenchmark.java
+ *
+ * Times `PngDecoder` against reading the same PNG file with ImageIO and converting it with
+ * `ImageConverter`, which is what `TextureData.read()` does for other files. The images are synthetic
+ * (a gradient with some noise, so they compress like textures rather than like noise), one per PNG color
+ * type, and the bundled PNG textures are timed as well. The decoder's output is checked against the samples
+ * written, and against ImageIO's where ImageIO keeps them (8-bit color, gray and palette images).
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class PngDecoderBenchmark
+{
+	private static final int SIZE = 2048;
+
+	/* {bit depth, alpha, gray} of each synthetic image, written with pngj; the palette image is added by ImageIO. */
+	private static final int FORMATS[][] = {
+		{8, 0, 0}, {8, 1, 0}, {16, 1, 0}, {8, 0, 1}, {8, 1, 1}, {16, 0, 1}};
+
+	private static final String FORMAT_NAMES[] = {
+		"RGB8", "RGBA8", "RGBA16", "gray8", "gray+alpha8", "gray16"};
+
+	private static final String FILES[] = {
+		"textures/brick1.png", "textures/cubemap/backyard_front.png"};
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("PngDecoderBenchmark");
+
+		report.note("%-36s %10s %14s %12s %8s", "image", "file KB", "ImageIO ms", "pngj ms", "speedup");
+		for (int f = 0; f < FORMATS.length; ++f)
+		{
+			int format[] = FORMATS[f];
+			int channels = (format[2] != 0 ? 1 : 3) + format[1];
+			int samples[][] = createSamples(SIZE, channels, format[0], new Random(5625 + f));
+			byte file[] = writePNG(samples, SIZE, format[0], format[1] != 0, format[2] != 0);
+
+			/* ImageIO keeps 8-bit samples as they are, but brightens 16-bit and alpha gray through getRGB(). */
+			boolean imageIOExact = (format[0] == 8 && !(format[2] != 0 && format[1] != 0));
+			benchmarkFile(report, FORMAT_NAMES[f] + " " + SIZE + "x" + SIZE, file, expectedRGBA(samples, SIZE, format[0], format[1] != 0, format[2] != 0), imageIOExact, 3);
+		}
+
+		benchmarkPalette(report);
+
+		for (String identifier : FILES)
+		{
+			InputStream stream = PngDecoderBenchmark.class.getClassLoader().getResourceAsStream(identifier);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte buffer[] = new byte[65536];
+			for (int count; (count = stream.read(buffer)) > 0; )
+			{
+				bytes.write(buffer, 0, count);
+			}
+			stream.close();
+			/* ImageIO rounds 16-bit samples to 8 bits, where the decoder keeps their high byte. */
+			byte file[] = bytes.toByteArray();
+			benchmarkFile(report, identifier, file, null, file[24] == 8, 10);
+		}
+
+		report.finish();
+	}
+
+	/*
+	 * Times both decoders on a file, and checks the decoder's output against `expected` and/or ImageIO's.
+	 * Smaller files need more warm-up runs before the JIT has compiled the decoders' paths for them.
+	 */
+	private static void benchmarkFile(CheckReport report, String name, final byte file[], ByteBuffer expected, boolean imageIOExact, int warmups) throws Exception
+	{
+		final TextureData results[] = new TextureData[2];
+
+		double imageIO = new Benchmark() {
+			@Override
+			protected void run() throws Exception
+			{
+				BufferedImage image = ImageIO.read(new ByteArrayInputStream(file));
+				results[0] = new TextureData(image.getWidth(), image.getHeight(), ImageConverter.toRGBA(image));
+			}
+		}.best(warmups, 5);
+
+		double pngj = new Benchmark() {
+			@Override
+			protected void run() throws Exception
+			{
+				results[1] = PngDecoder.decode(new ByteArrayInputStream(file), "benchmark");
+			}
+		}.best(warmups, 5);
+
+		if (expected != null)
+		{
+			report.expect(results[1].getData().equals(expected.rewind()), name + ": decoded pixels match the samples written");
+		}
+		if (imageIOExact)
+		{
+			report.expect(results[1].getWidth() == results[0].getWidth() && results[1].getHeight() == results[0].getHeight()
+					&& results[1].getData().rewind().equals(results[0].getData().rewind()), name + ": decoded pixels match ImageIO's");
+		}
+
+		report.note("%-36s %10.1f %14.1f %12.1f %7.1fx", name, file.length / 1024.0, imageIO, pngj, imageIO / pngj);
+	}
+
+	/* A palette image with transparent entries, which ImageIO writes with a tRNS chunk. */
+	private static void benchmarkPalette(CheckReport report) throws Exception
+	{
+		byte r[] = new byte[256], g[] = new byte[256], b[] = new byte[256], a[] = new byte[256];
+		for (int i = 0; i < 256; ++i)
+		{
+			r[i] = (byte)i;
+			g[i] = (byte)(255 - i);
+			b[i] = (byte)(i * 7);
+			a[i] = (byte)(i % 4 == 0 ? 0 : 255 - i / 2);
+		}
+
+		BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 256, r, g, b, a));
+		byte indices[] = ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+		Random random = new Random(5625);
+		for (int y = 0; y < SIZE; ++y)
+		{
+			for (int x = 0; x < SIZE; ++x)
+			{
+				indices[y * SIZE + x] = (byte)((x / 8 + y / 8) + random.nextInt(4));
+			}
+		}
+
+		ByteBuffer expected = ByteBuffer.allocate(4 * SIZE * SIZE);
+		for (int y = SIZE - 1; y >= 0; --y)
+		{
+			for (int x = 0; x < SIZE; ++x)
+			{
+				int index = indices[y * SIZE + x] & 0xff;
+				expected.put(r[index]).put(g[index]).put(b[index]).put(a[index]);
+			}
+		}
+
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", file);
+		benchmarkFile(report, "palette8 + tRNS " + SIZE + "x" + SIZE, file.toByteArray(), expected, true, 3);
+	}
+
+	/* Samples, row by row from the top, of a gradient plus noise, in the full range of the bit depth. */
+	private static int[][] createSamples(int size, int channels, int bitDepth, Random random)
+	{
+		int samples[][] = new int[size][size * channels];
+		int max = (1 << bitDepth) - 1;
+		for (int y = 0; y < size; ++y)
+		{
+			for (int x = 0; x < size; ++x)
+			{
+				for (int c = 0; c < channels; ++c)
+				{
+					int gradient = (x * 3 + y * 5 + c * 40) & 0xff;
+					int value = (bitDepth == 16 ? gradient * 257 + random.nextInt(256) : gradient + random.nextInt(16));
+					samples[y][x * channels + c] = Math.min(value, max);
+				}
+			}
+		}
+		return samples;
+	}
+
+	private static byte[] writePNG(int samples[][], int size, int bitDepth, boolean alpha, boolean gray) throws Exception
+	{
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		PngWriter writer = new PngWriter(file, new ImageInfo(size, size, bitDepth, alpha, gray, false), "benchmark");
+		for (int y = 0; y < size; ++y)
+		{
+			writer.writeRow(samples[y], y);
+		}
+		writer.end();
+		return file.toByteArray();
+	}
+
+	/* The RGBA8 data, bottom row first, `PngDecoder` should produce from the samples. */
+	private static ByteBuffer expectedRGBA(int samples[][], int size, int bitDepth, boolean alpha, boolean gray)
+	{
+		int channels = (gray ? 1 : 3) + (alpha ? 1 : 0);
+		int shift = (bitDepth == 16 ? 8 : 0);
+		ByteBuffer expected = ByteBuffer.allocate(4 * size * size);
+		for (int y = size - 1; y >= 0; --y)
+		{
+			for (int x = 0; x < size; ++x)
+			{
+				int pixel = x * channels;
+				for (int c = 0; c < 3; ++c)
+				{
+					expected.put((byte)(samples[y][pixel + (gray ? 0 : c)] >> shift));
+				}
+				expected.put(alpha ? (byte)(samples[y][pixel + channels - 1] >> shift) : (byte)0xff);
+			}
+		}
+		expected.rewind();
+		return expected;
+	}
+}
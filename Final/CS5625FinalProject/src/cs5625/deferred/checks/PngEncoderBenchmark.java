@@ -0,0 +1,245 @@
+package cs5625.deferred.checks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import jogamp.opengl.util.pngj.FilterType;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.PngDecoder;
+import cs5625.deferred.materials.PngEncoder;
+import cs5625.deferred.materials.TextureData;
+import cs5625.deferred.rendering.ReadbackWriter;
+
+/**
+ * PngEncoderBenchmark.java
+ *
+ * Times `PngEncoder` against pngj's `PngWriter` (through `ReadbackWriter.writePNG()`) on a synthetic
+ * 2048x2048 RGBA image at several zlib levels, and compares file sizes. Checks that both files decode to
+ * the source pixels, and that the encoder's output round-trips exactly over every filter, several levels,
+ * image sizes and band sizes (down to one row per band), with every chunk CRC and the zlib Adler-32 of the
+ * stitched IDAT stream checked separately by `java.util.zip`.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class PngEncoderBenchmark
+{
+	private static final int SIZE = 2048;
+	private static final int THREADS = 4;
+	private static final int LEVELS[] = {1, 3, 6, 9};
+
+	/* Images of the round-trip sweep: a single pixel, and odd and even sizes. */
+	private static final int SWEEP_SIZES[][] = {{1, 1}, {7, 3}, {64, 64}, {333, 129}};
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("PngEncoderBenchmark");
+
+		final ByteBuffer image = createImage(SIZE, SIZE, 4, new Random(5625));
+		final PngEncoder encoder = new PngEncoder(THREADS);
+
+		report.note("%dx%d RGBA, PngEncoder on %d threads, %d cores", SIZE, SIZE, THREADS, Runtime.getRuntime().availableProcessors());
+		report.note("%-6s %14s %12s %14s %12s %8s", "level", "PngWriter ms", "MB", "PngEncoder ms", "MB", "speedup");
+		for (final int level : LEVELS)
+		{
+			final ByteArrayOutputStream files[] = new ByteArrayOutputStream[2];
+
+			double writer = new Benchmark() {
+				@Override
+				protected void run() throws Exception
+				{
+					files[0] = new ByteArrayOutputStream(SIZE * SIZE * 4);
+					ReadbackWriter.writePNG(files[0], image, SIZE, SIZE, true, level, FilterType.FILTER_DEFAULT, "benchmark");
+				}
+			}.best(1, 3);
+
+			encoder.setCompLevel(level);
+			encoder.setFilterType(FilterType.FILTER_DEFAULT);
+			encoder.setBandBytes(PngEncoder.DEFAULT_BAND_BYTES);
+			double parallel = new Benchmark() {
+				@Override
+				protected void run() throws Exception
+				{
+					files[1] = new ByteArrayOutputStream(SIZE * SIZE * 4);
+					encoder.encode(files[1], image, SIZE, SIZE, true);
+				}
+			}.best(1, 3);
+
+			byte writerFile[] = files[0].toByteArray(), encoderFile[] = files[1].toByteArray();
+			report.expect(roundTrips(writerFile, image, SIZE, SIZE, true), "Level " + level + ": PngWriter's file decodes to the source");
+			report.expect(roundTrips(encoderFile, image, SIZE, SIZE, true), "Level " + level + ": PngEncoder's file decodes to the source");
+			report.expect(checkStream(encoderFile) == null, "Level " + level + ": PngEncoder's file: " + checkStream(encoderFile));
+
+			report.note("%-6d %14.1f %12.2f %14.1f %12.2f %7.2fx", level, writer, writerFile.length / (1024.0 * 1024.0),
+					parallel, encoderFile.length / (1024.0 * 1024.0), writer / parallel);
+		}
+
+		checkRoundTrips(report, encoder);
+		encoder.shutdown();
+
+		report.finish();
+	}
+
+	/* Encodes every combination of channels, size, filter, level and band size, and decodes it again. */
+	private static void checkRoundTrips(CheckReport report, PngEncoder encoder) throws Exception
+	{
+		Random random = new Random(5625);
+		int count = 0, failed = 0;
+		String firstFailure = null;
+
+		for (boolean alpha : new boolean[] {false, true})
+		{
+			for (int size[] : SWEEP_SIZES)
+			{
+				int width = size[0], height = size[1];
+				int rowBytes = width * (alpha ? 4 : 3);
+				ByteBuffer pixels = createImage(width, height, alpha ? 4 : 3, random);
+
+				for (FilterType filter : FilterType.values())
+				{
+					for (int level : new int[] {0, 1, 6, 9})
+					{
+						for (int bandBytes : new int[] {1, 4 * rowBytes + 1, PngEncoder.DEFAULT_BAND_BYTES})
+						{
+							encoder.setFilterType(filter);
+							encoder.setCompLevel(level);
+							encoder.setBandBytes(bandBytes);
+
+							ByteArrayOutputStream file = new ByteArrayOutputStream();
+							encoder.encode(file, pixels, width, height, alpha);
+							byte bytes[] = file.toByteArray();
+
+							String error = checkStream(bytes);
+							if (error == null && !roundTrips(bytes, pixels, width, height, alpha))
+							{
+								error = "pixels differ";
+							}
+
+							++count;
+							if (error != null)
+							{
+								++failed;
+								if (firstFailure == null)
+								{
+									firstFailure = (alpha ? "RGBA " : "RGB ") + width + "x" + height + " " + filter + " level " + level + " bands of " + bandBytes + " bytes: " + error;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		report.expect(failed == 0, failed + " of " + count + " round trips failed" + (firstFailure != null ? "; first: " + firstFailure : ""));
+		report.note("%d round trips (RGB and RGBA, %d sizes, %d filters, levels 0/1/6/9, 3 band sizes) decoded exactly", count, SWEEP_SIZES.length, FilterType.values().length);
+	}
+
+	/* Decodes a file with `PngDecoder` (RGBA8, bottom row first) and compares it with the source pixels. */
+	private static boolean roundTrips(byte file[], ByteBuffer pixels, int width, int height, boolean alpha) throws Exception
+	{
+		TextureData data = PngDecoder.decode(new ByteArrayInputStream(file), "benchmark");
+		if (data.getWidth() != width || data.getHeight() != height)
+		{
+			return false;
+		}
+
+		int channels = (alpha ? 4 : 3);
+		ByteBuffer decoded = data.getData();
+		for (int pixel = 0; pixel < width * height; ++pixel)
+		{
+			for (int c = 0; c < 4; ++c)
+			{
+				byte expected = (c < channels ? pixels.get(channels * pixel + c) : (byte)0xff);
+				if (decoded.get(4 * pixel + c) != expected)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Walks the chunks of a PNG file, checking each CRC, and inflates the IDAT data as one zlib stream,
+	 * which checks its Adler-32. Returns what's wrong, or null.
+	 */
+	private static String checkStream(byte file[])
+	{
+		ByteArrayOutputStream idat = new ByteArrayOutputStream();
+		int offset = 8;
+		while (offset + 12 <= file.length)
+		{
+			int length = getInt(file, offset);
+			String type = new String(file, offset + 4, 4);
+			CRC32 crc = new CRC32();
+			crc.update(file, offset + 4, length + 4);
+			if ((int)crc.getValue() != getInt(file, offset + 8 + length))
+			{
+				return "bad CRC in a " + type + " chunk";
+			}
+			if (type.equals("IDAT"))
+			{
+				idat.write(file, offset + 8, length);
+			}
+			offset += length + 12;
+		}
+
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(idat.toByteArray());
+			byte buffer[] = new byte[65536];
+			while (!inflater.finished())
+			{
+				if (inflater.inflate(buffer) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+				{
+					return "the IDAT stream ends early";
+				}
+			}
+			return null;
+		}
+		catch (DataFormatException err)
+		{
+			return "bad IDAT stream: " + err.getMessage();
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	private static int getInt(byte bytes[], int offset)
+	{
+		return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+	}
+
+	/* A gradient with some noise, so that it compresses like a screenshot rather than like noise. */
+	private static ByteBuffer createImage(int width, int height, int channels, Random random)
+	{
+		ByteBuffer data = Buffers.newDirectByteBuffer(channels * width * height);
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				data.put((byte)(x / 3 + random.nextInt(8)));
+				data.put((byte)(y / 5 + random.nextInt(8)));
+				data.put((byte)((x ^ y) / 16 + random.nextInt(8)));
+				if (channels == 4)
+				{
+					data.put((byte)(255 - (x + y) / 16));
+				}
+			}
+		}
+		data.rewind();
+		return data;
+	}
+}
@@ -0,0 +1,312 @@
+package cs5625.deferred.checks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.rendering.AsyncReadback;
+import cs5625.deferred.rendering.ReadbackRing;
+
+/**
+ * ReadbackCheck.java
+ *
+ * Checks the bookkeeping of asynchronous readbacks without a GPU: first `ReadbackRing` with stub fences
+ * (completion order, latencies, drops, stalls, and that every fence is released once), then
+ * `AsyncReadback` on a `FakeGL2`, whose NV fences are signaled only when the check lets the "GPU" catch
+ * up, and whose pack buffers are filled with the name of the texture read.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ReadbackCheck
+{
+	/* A fence the check signals by hand. */
+	private static class StubFence implements ReadbackRing.Fence
+	{
+		boolean signaled = false;
+		int releaseCount = 0;
+
+		@Override
+		public boolean isSignaled()
+		{
+			return signaled;
+		}
+
+		@Override
+		public void release()
+		{
+			++releaseCount;
+		}
+	}
+
+	/* Keeps every readback it's handed, recycling the data after checking it if asked to. */
+	private static class CollectingListener implements AsyncReadback.Listener
+	{
+		final ArrayList<AsyncReadback.Readback> readbacks = new ArrayList<AsyncReadback.Readback>();
+		final boolean recycle;
+		boolean dataMatches = true;
+
+		CollectingListener(boolean recycle)
+		{
+			this.recycle = recycle;
+		}
+
+		@Override
+		public void readbackCompleted(GL2 gl, AsyncReadback.Readback readback)
+		{
+			readbacks.add(readback);
+
+			/* FakeGL2 fills the pack buffer with the name of the texture read. */
+			ByteBuffer data = readback.getData();
+			byte expected = (byte)readback.getTexture().getHandle();
+			dataMatches &= (data.isDirect() && data.position() == 0 && data.limit() == readback.getWidth() * readback.getHeight() * 4);
+			for (int i = 0; i < data.limit(); ++i)
+			{
+				dataMatches &= (data.get(i) == expected);
+			}
+
+			if (recycle)
+			{
+				readback.recycle();
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("ReadbackCheck");
+
+		checkRingOrderAndDrops(report);
+		checkRingLatencies(report);
+		checkAsyncReadback(report);
+		checkUnfencedReadback(report);
+		checkBufferPooling(report);
+
+		report.finish();
+	}
+
+	private static void checkRingOrderAndDrops(CheckReport report)
+	{
+		ReadbackRing<String> ring = new ReadbackRing<String>(3, 2, 8);
+		StubFence fences[] = new StubFence[3];
+
+		for (int i = 0; i < 3; ++i)
+		{
+			int slot = ring.acquire();
+			report.expect(slot == i, "Free slots are handed out in order: got " + slot + " for readback " + i);
+			fences[i] = new StubFence();
+			report.expect(ring.submit(fences[i], "r" + i) == slot, "submit() uses the acquired slot");
+		}
+
+		report.expect(ring.acquire() == -1 && ring.getDroppedCount() == 1, "acquire() drops a readback when every slot is pending");
+
+		boolean threw = false;
+		try
+		{
+			ring.submit(new StubFence(), "extra");
+		}
+		catch (IllegalStateException e)
+		{
+			threw = true;
+		}
+		report.expect(threw, "submit() on a full ring throws");
+
+		/* Completion is in submission order: a later signaled fence waits for an earlier one. */
+		ring.beginFrame();
+		fences[1].signaled = true;
+		report.expect(ring.poll() == -1, "Signaled readback behind an unsignaled one isn't returned");
+
+		fences[0].signaled = true;
+		int slot = ring.poll();
+		report.expect(slot == 0 && ring.getRequest(slot).equals("r0"), "Oldest readback is returned first");
+		slot = ring.poll();
+		report.expect(slot == 1 && ring.getRequest(slot).equals("r1"), "Next signaled readback follows");
+		report.expect(ring.poll() == -1, "Unsignaled readback isn't returned before its maximum latency");
+		report.expect(fences[0].releaseCount == 1 && fences[1].releaseCount == 1 && fences[2].releaseCount == 0,
+				"Fences are released when their readback is returned");
+
+		/* The freed slots are reused, wrapping around the ring. */
+		report.expect(ring.acquire() == 0, "Ring wraps around to the first freed slot");
+		StubFence wrapped = new StubFence();
+		ring.submit(wrapped, "r3");
+		report.expect(ring.getPendingCount() == 2, "Two readbacks pending: " + ring.getPendingCount());
+
+		report.expect(ring.removeAll() == 2, "removeAll() counts the pending readbacks");
+		report.expect(fences[2].releaseCount == 1 && wrapped.releaseCount == 1, "removeAll() releases pending fences");
+		report.expect(ring.getPendingCount() == 0 && ring.acquire() == 0, "Ring is empty after removeAll()");
+
+		report.expect(ring.getSubmittedCount() == 4 && ring.getCompletedCount() == 2 && ring.getStalledCount() == 0,
+				"Counters: " + ring.getSubmittedCount() + " submitted, " + ring.getCompletedCount() + " completed, " + ring.getStalledCount() + " stalled");
+
+		threw = false;
+		try
+		{
+			new ReadbackRing<String>(2, 5, 3);
+		}
+		catch (IllegalArgumentException e)
+		{
+			threw = true;
+		}
+		report.expect(threw, "maxLatency below minLatency is refused");
+	}
+
+	private static void checkRingLatencies(CheckReport report)
+	{
+		ReadbackRing<String> ring = new ReadbackRing<String>(4, 2, 5);
+
+		/* Without a fence, a readback completes after minLatency frames. */
+		ring.acquire();
+		ring.submit(null, "unfenced");
+		ring.beginFrame();
+		report.expect(ring.poll() == -1, "Unfenced readback isn't complete after 1 frame");
+		ring.beginFrame();
+		report.expect(ring.poll() >= 0, "Unfenced readback is complete after minLatency frames");
+		report.expect(ring.getStalledCount() == 0, "Unfenced readback after minLatency isn't a stall");
+
+		/* An unsignaled fence is given up on after maxLatency frames, as a stall. */
+		StubFence late = new StubFence();
+		ring.acquire();
+		ring.submit(late, "late");
+		int frames = 0;
+		int slot = -1;
+		while (slot < 0 && frames < 100)
+		{
+			ring.beginFrame();
+			++frames;
+			slot = ring.poll();
+		}
+		report.expect(frames == 5, "Unsignaled readback is returned after maxLatency frames, not " + frames);
+		report.expect(ring.getStalledCount() == 1 && late.releaseCount == 1, "Overdue readback counts as a stall and releases its fence");
+
+		/* pollOldest() takes the oldest at once, stalling if need be. */
+		StubFence forced = new StubFence();
+		ring.acquire();
+		ring.submit(forced, "forced");
+		slot = ring.pollOldest();
+		report.expect(slot >= 0 && ring.getRequest(slot).equals("forced"), "pollOldest() returns the oldest readback at once");
+		report.expect(ring.getStalledCount() == 2 && forced.releaseCount == 1, "Forced readback counts as a stall");
+		report.expect(ring.pollOldest() == -1, "pollOldest() on an empty ring returns -1");
+	}
+
+	private static void checkAsyncReadback(CheckReport report) throws Exception
+	{
+		FakeGL2 gl = new FakeGL2();
+		AsyncReadback readback = new AsyncReadback(4);
+		CollectingListener listener = new CollectingListener(false);
+
+		Texture2D textures[] = new Texture2D[5];
+		for (int i = 0; i < textures.length; ++i)
+		{
+			textures[i] = new Texture2D(gl, Format.RGBA, Datatype.INT8, 16 + i, 8, null);
+		}
+
+		for (int i = 0; i < 4; ++i)
+		{
+			report.expect(readback.readTexture(gl, textures[i], listener), "Readback " + i + " is started");
+		}
+		report.expect(readback.isFull(), "Four readbacks fill a ring of four");
+		report.expect(!readback.readTexture(gl, textures[4], listener) && readback.getDroppedCount() == 1, "Fifth readback is dropped");
+
+		/* The GPU hasn't caught up: nothing is delivered. */
+		readback.update(gl);
+		readback.update(gl);
+		report.expect(listener.readbacks.isEmpty(), "Nothing delivered before the fences are signaled");
+
+		/* Once it has, everything is delivered, in order, on the next update. */
+		gl.finishCommands();
+		readback.update(gl);
+		report.expect(listener.readbacks.size() == 4, listener.readbacks.size() + " readbacks delivered once the fences are signaled");
+		for (int i = 0; i < listener.readbacks.size(); ++i)
+		{
+			AsyncReadback.Readback delivered = listener.readbacks.get(i);
+			report.expect(delivered.getTexture() == textures[i] && delivered.getWidth() == 16 + i && delivered.getHeight() == 8 && delivered.getFace() == -1,
+					"Readback " + i + " is delivered in order with its texture's size");
+			report.expect(delivered.getFrame() == 0, "Readback " + i + " remembers the frame it was started in");
+		}
+		report.expect(listener.dataMatches, "Delivered data is the texture's pixels, tightly packed, in a direct buffer");
+		report.expect(readback.getStalledCount() == 0 && readback.getPendingCount() == 0, "No stalls, and nothing pending");
+		report.expect(readback.getCompletedBytes() == 4L * 8 * (16 + 17 + 18 + 19), "Completed bytes: " + readback.getCompletedBytes());
+
+		/* A readback whose fence is never signaled is delivered after the maximum latency, as a stall. */
+		listener.readbacks.clear();
+		readback.readTexture(gl, textures[4], listener);
+		int frames = 0;
+		while (listener.readbacks.isEmpty() && frames < 100)
+		{
+			readback.update(gl);
+			++frames;
+		}
+		report.expect(frames == AsyncReadback.DEFAULT_MAX_LATENCY, "Unsignaled readback is delivered after " + frames + " frames");
+		report.expect(readback.getStalledCount() == 1, "Overdue readback is counted as a stall");
+
+		/* collectOldest() makes room at once. */
+		listener.readbacks.clear();
+		for (int i = 0; i < 4; ++i)
+		{
+			readback.readTexture(gl, textures[i], listener);
+		}
+		report.expect(readback.collectOldest(gl) && listener.readbacks.size() == 1 && listener.readbacks.get(0).getTexture() == textures[0],
+				"collectOldest() delivers the oldest readback at once");
+		report.expect(!readback.isFull() && readback.readTexture(gl, textures[4], listener), "collectOldest() makes room for another readback");
+
+		readback.releaseGPUResources(gl);
+		report.expect(readback.getPendingCount() == 0, "releaseGPUResources() drops pending readbacks");
+	}
+
+	private static void checkUnfencedReadback(CheckReport report) throws Exception
+	{
+		FakeGL2 gl = new FakeGL2();
+		gl.setExtensionAvailable("GL_NV_fence", false);
+
+		AsyncReadback readback = new AsyncReadback(2);
+		CollectingListener listener = new CollectingListener(true);
+		Texture2D texture = new Texture2D(gl, Format.RGBA, Datatype.INT8, 4, 4, null);
+
+		readback.readTexture(gl, texture, listener);
+		int frames = 0;
+		while (listener.readbacks.isEmpty() && frames < 100)
+		{
+			readback.update(gl);
+			++frames;
+		}
+		report.expect(frames == AsyncReadback.DEFAULT_MIN_LATENCY, "Without fences, a readback is delivered after " + frames + " frames");
+		report.expect(readback.getStalledCount() == 0 && listener.dataMatches, "Unfenced readback isn't a stall, and its data is right");
+	}
+
+	private static void checkBufferPooling(CheckReport report) throws Exception
+	{
+		FakeGL2 gl = new FakeGL2();
+		AsyncReadback readback = new AsyncReadback(3);
+		CollectingListener listener = new CollectingListener(true);
+		Texture2D texture = new Texture2D(gl, Format.RGBA, Datatype.INT8, 32, 32, null);
+		Texture2D smaller = new Texture2D(gl, Format.RGBA, Datatype.INT8, 16, 16, null);
+
+		/* One readback a frame, each recycled by its listener: only the first allocates. */
+		for (int frame = 0; frame < 50; ++frame)
+		{
+			readback.readTexture(gl, (frame % 2 == 0 ? texture : smaller), listener);
+			gl.finishCommands();
+			readback.update(gl);
+		}
+
+		report.expect(listener.readbacks.size() == 50 && listener.dataMatches, "Every readback was delivered with the right data");
+		report.expect(readback.getAllocatedBufferCount() == 1, "Recycled buffers are reused: " + readback.getAllocatedBufferCount() + " allocated");
+
+		/* A listener which keeps its buffers makes the service allocate one per readback, once the pooled
+		 * buffer is taken by the first. */
+		CollectingListener keeper = new CollectingListener(false);
+		for (int frame = 0; frame < 5; ++frame)
+		{
+			readback.readTexture(gl, texture, keeper);
+			gl.finishCommands();
+			readback.update(gl);
+		}
+		report.expect(readback.getAllocatedBufferCount() == 1 + 4, "Buffers kept by listeners aren't reused: " + readback.getAllocatedBufferCount() + " allocated");
+	}
+}
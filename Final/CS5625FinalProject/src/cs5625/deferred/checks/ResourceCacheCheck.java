@@ -0,0 +1,216 @@
+package cs5625.deferred.checks;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.materials.TextureCache;
+import cs5625.deferred.misc.OpenGLResourceObject;
+import cs5625.deferred.misc.ResourceCache;
+
+/**
+ * ResourceCacheCheck.java
+ *
+ * Checks the policy of `ResourceCache` without OpenGL: acquire/add/release reference counting, the
+ * hit/miss/eviction counters, least-recently-used eviction of unreferenced resources only, and the byte
+ * budget. Then checks that `TextureCache` shares textures loaded from the same file, on a `FakeGL2`.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ResourceCacheCheck
+{
+	/* A resource which only remembers whether it was released. */
+	private static class Resource implements OpenGLResourceObject
+	{
+		final String name;
+		int releaseCount = 0;
+
+		Resource(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public void releaseGPUResources(GL2 gl)
+		{
+			++releaseCount;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("ResourceCacheCheck");
+
+		checkReferenceCounting(report);
+		checkEviction(report);
+		checkBudgetChanges(report);
+		checkTextureCache(report);
+
+		report.finish();
+	}
+
+	private static void checkReferenceCounting(CheckReport report)
+	{
+		/* The policy never calls OpenGL, so no GL is passed at all. */
+		GL2 gl = null;
+		ResourceCache<Resource> cache = new ResourceCache<Resource>(1000);
+
+		report.expect(cache.acquire("a") == null, "Acquiring from an empty cache misses");
+
+		Resource a = new Resource("a");
+		cache.add(gl, "a", a, 100);
+		report.expect(cache.getReferenceCount(a) == 1, "Added resource holds the caller's reference");
+
+		report.expect(cache.acquire("a") == a, "Acquiring a cached key returns its resource");
+		report.expect(cache.getReferenceCount(a) == 2, "Acquiring adds a reference");
+		report.expect(cache.getHitCount() == 1 && cache.getMissCount() == 1,
+				"Counters after one hit and one miss: " + cache.getHitCount() + " hits, " + cache.getMissCount() + " misses");
+
+		report.expect(cache.release(gl, a), "Releasing a cached resource");
+		report.expect(cache.release(gl, a), "Releasing it again");
+		report.expect(cache.getReferenceCount(a) == 0, "No references after every one was given back");
+		report.expect(cache.release(gl, a) && cache.getReferenceCount(a) == 0, "Releasing too often doesn't go below 0");
+
+		/* Unreferenced but within budget: stays resident, and acquiring it is still a hit. */
+		report.expect(a.releaseCount == 0 && cache.contains(a), "Unreferenced resource within budget stays resident");
+		report.expect(cache.acquire("a") == a, "Unreferenced resident resource is acquired again");
+		report.expect(cache.getHitCount() == 2, "Acquiring a resident unreferenced resource is a hit");
+		cache.release(gl, a);
+
+		report.expect(!cache.release(gl, new Resource("stranger")), "Releasing a resource which isn't cached returns false");
+		report.expect(!cache.release(gl, null), "Releasing null returns false");
+
+		boolean threw = false;
+		try
+		{
+			cache.add(gl, "a", new Resource("a again"), 10);
+		}
+		catch (IllegalArgumentException e)
+		{
+			threw = true;
+		}
+		report.expect(threw, "Adding a key twice throws");
+
+		cache.resetCounters();
+		report.expect(cache.getHitCount() == 0 && cache.getMissCount() == 0 && cache.getEvictionCount() == 0, "Counters are reset");
+	}
+
+	private static void checkEviction(CheckReport report)
+	{
+		GL2 gl = null;
+		ResourceCache<Resource> cache = new ResourceCache<Resource>(300);
+
+		Resource a = new Resource("a"), b = new Resource("b"), c = new Resource("c");
+		cache.add(gl, "a", a, 100);
+		cache.add(gl, "b", b, 100);
+		cache.add(gl, "c", c, 100);
+		cache.release(gl, a);
+		cache.release(gl, b);
+		cache.release(gl, c);
+		report.expect(cache.getResidentBytes() == 300 && cache.getEntryCount() == 3, "Three unreferenced resources fill the budget exactly");
+
+		/* Touch a, so that b is the least recently used. */
+		cache.acquire("a");
+		cache.release(gl, a);
+
+		Resource d = new Resource("d");
+		cache.add(gl, "d", d, 100);
+		report.expect(b.releaseCount == 1 && !cache.contains(b), "Least recently used unreferenced resource is evicted");
+		report.expect(a.releaseCount == 0 && c.releaseCount == 0 && cache.contains(a) && cache.contains(c), "Others stay resident");
+		report.expect(cache.getEvictionCount() == 1, "One eviction counted");
+		report.expect(cache.getResidentBytes() == 300, "Resident bytes after eviction: " + cache.getResidentBytes());
+		report.expect(cache.acquire("b") == null, "Evicted key misses");
+
+		/* Referenced resources are never evicted, even over budget. */
+		cache.acquire("a");
+		cache.acquire("c");
+		Resource e = new Resource("e");
+		cache.add(gl, "e", e, 250);
+		report.expect(a.releaseCount == 0 && c.releaseCount == 0 && d.releaseCount == 0 && e.releaseCount == 0,
+				"Referenced resources survive a trim over budget");
+		report.expect(cache.getResidentBytes() == 550, "Cache goes over budget while everything is referenced: " + cache.getResidentBytes());
+
+		/* Releasing them brings the cache back within budget, one at a time as they become unreferenced. */
+		cache.release(gl, d);
+		report.expect(d.releaseCount == 1 && cache.getResidentBytes() == 450, "Releasing the last reference of a resource over budget evicts it");
+		cache.release(gl, a);
+		report.expect(a.releaseCount == 1 && cache.getResidentBytes() == 350, "Eviction continues while over budget: " + cache.getResidentBytes() + " bytes");
+		cache.release(gl, c);
+		report.expect(c.releaseCount == 1 && cache.getResidentBytes() == 250, "Cache is back within budget: " + cache.getResidentBytes() + " bytes");
+
+		/* Within budget, a released resource stays; resizing counts its new size. */
+		Resource f = new Resource("f");
+		cache.add(gl, "f", f, 40);
+		cache.release(gl, f);
+		cache.resize(gl, e, 50);
+		report.expect(cache.getResidentBytes() == 90 && f.releaseCount == 0, "Resize updates resident bytes: " + cache.getResidentBytes());
+
+		cache.evictUnreferenced(gl);
+		report.expect(f.releaseCount == 1 && cache.contains(e) && cache.getEntryCount() == 1, "evictUnreferenced() keeps only referenced resources");
+
+		cache.clear(gl);
+		report.expect(e.releaseCount == 1 && cache.getEntryCount() == 0 && cache.getResidentBytes() == 0, "clear() releases everything");
+
+		/* Every resource was released exactly once. */
+		for (Resource resource : new Resource[] { a, b, c, d, e, f })
+		{
+			report.expect(resource.releaseCount == 1, "Resource " + resource + " was released " + resource.releaseCount + " times");
+		}
+	}
+
+	private static void checkBudgetChanges(CheckReport report)
+	{
+		GL2 gl = null;
+		ResourceCache<Resource> cache = new ResourceCache<Resource>(1000);
+
+		Resource resources[] = new Resource[10];
+		for (int i = 0; i < resources.length; ++i)
+		{
+			resources[i] = new Resource("r" + i);
+			cache.add(gl, resources[i].name, resources[i], 100);
+			cache.release(gl, resources[i]);
+		}
+
+		cache.setBudget(gl, 450);
+		report.expect(cache.getEntryCount() == 4 && cache.getResidentBytes() == 400, "Lowering the budget evicts down to it: "
+				+ cache.getEntryCount() + " entries, " + cache.getResidentBytes() + " bytes");
+		report.expect(resources[5].releaseCount == 1 && resources[6].releaseCount == 0, "Lowering the budget evicts the oldest first");
+
+		cache.setBudget(gl, 0);
+		report.expect(cache.getEntryCount() == 0, "A budget of 0 keeps nothing unreferenced");
+		report.expect(cache.getEvictionCount() == 10, "Eviction count after emptying: " + cache.getEvictionCount());
+	}
+
+	/* The real texture cache, loading files synchronously on a fake context. */
+	private static void checkTextureCache(CheckReport report) throws Exception
+	{
+		GL2 gl = new FakeGL2();
+		TextureCache cache = new TextureCache(TextureCache.DEFAULT_BUDGET);
+
+		Texture2D first = cache.load(gl, "textures/brick1.png");
+		Texture2D second = cache.load(gl, "textures/brick1.png");
+		Texture2D rect = cache.load(gl, "textures/brick1.png", true);
+
+		report.expect(first == second, "Same file loaded twice is shared");
+		report.expect(rect != first, "Rectangular texture of the same file is cached separately");
+		report.expect(cache.getHitCount() == 1 && cache.getMissCount() == 2,
+				"Texture cache counters: " + cache.getHitCount() + " hits, " + cache.getMissCount() + " misses");
+		report.expect(cache.getReferenceCount(first) == 2, "Shared texture holds a reference per load");
+		report.expect(cache.getResidentBytes() == 2 * TextureCache.getByteSize(first),
+				"Texture cache resident bytes: " + cache.getResidentBytes() + " for two copies of " + TextureCache.getByteSize(first));
+
+		cache.release(gl, first);
+		cache.release(gl, second);
+		cache.release(gl, rect);
+		cache.setBudget(gl, 0);
+		report.expect(cache.getEntryCount() == 0 && cache.getEvictionCount() == 2, "Unreferenced textures are evicted");
+	}
+}
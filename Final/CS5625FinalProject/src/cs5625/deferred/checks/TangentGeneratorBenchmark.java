@@ -0,0 +1,275 @@
+package cs5625.deferred.checks;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import javax.vecmath.GMatrix;
+import javax.vecmath.GVector;
+import javax.vecmath.Vector3f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.scenegraph.Mesh;
+import cs5625.deferred.scenegraph.Quadmesh;
+import cs5625.deferred.scenegraph.Trimesh;
+
+/**
+ * TangentGeneratorBenchmark.java
+ *
+ * Times `TangentGenerator` on a 1,002,528 triangle grid whose right half has mirrored texture coordinates,
+ * against the structure `Mesh.computeAndAccumulateTangentVectors()` and `averageAndNormalizeAllTangentVectors()`
+ * had before it (Vector3f, GMatrix and GVector objects per triangle and per vertex), completed with the same
+ * math. Checks that both give the same tangents and handedness, that tangents are unit length and
+ * perpendicular to the normals, that exactly the mirrored half gets a handedness of -1, and that the same
+ * grid as quads gives exactly the triangles' result.
+ *
+ * The generator splits the work into one chunk per processor; run with -XX:ActiveProcessorCount=8 to
+ * check its parallel path on a machine with fewer cores.
+ *
+ * Exits with status 1 if an output differs; see `Benchmark`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TangentGeneratorBenchmark
+{
+	/* Quads per side of the grid: 2 * 708^2 = 1,002,528 triangles. */
+	private static final int SIZE = 708;
+
+	private static final float EPS = 1e-7f;
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("TangentGeneratorBenchmark");
+
+		final Mesh triangles = createGrid(SIZE, new Trimesh());
+		final Mesh quads = createGrid(SIZE, new Quadmesh());
+		final FloatBuffer results[] = new FloatBuffer[3];
+
+		double reference = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				results[0] = generateWithObjects(triangles);
+			}
+		}.best(2, 10);
+
+		double generator = new Benchmark() {
+			@Override
+			protected void run()
+			{
+				results[1] = triangles.calculateTangentVectors();
+			}
+		}.best(5, 10);
+
+		results[2] = quads.calculateTangentVectors();
+
+		report.note("%,d triangles, %,d vertices, %d cores", triangles.getPolygonCount(), triangles.getVertexCount(), Runtime.getRuntime().availableProcessors());
+		report.note("Allocating reference (Vector3f/GMatrix/GVector): %.1f ms", reference);
+		report.note("TangentGenerator: %.1f ms (%.1fx)", generator, reference / generator);
+
+		compare(report, triangles, results[0], results[1]);
+		report.expect(results[2].equals(results[1]), "Quads give exactly the result of the same quads as triangle fans");
+
+		report.finish();
+	}
+
+	/* Compares the generator's tangents with the reference's, and checks the frames themselves. */
+	private static void compare(CheckReport report, Mesh mesh, FloatBuffer expected, FloatBuffer actual)
+	{
+		FloatBuffer normals = mesh.getNormalData();
+		int vertexCount = mesh.getVertexCount();
+
+		float maxDifference = 0.0f, maxDot = 0.0f, maxLengthError = 0.0f;
+		int handednessDifferences = 0, mirroredCount = 0, wrongHandedness = 0;
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			for (int c = 0; c < 3; ++c)
+			{
+				maxDifference = Math.max(maxDifference, Math.abs(expected.get(4 * v + c) - actual.get(4 * v + c)));
+			}
+			if (expected.get(4 * v + 3) != actual.get(4 * v + 3))
+			{
+				++handednessDifferences;
+			}
+
+			float x = actual.get(4 * v), y = actual.get(4 * v + 1), z = actual.get(4 * v + 2);
+			float nx = normals.get(3 * v), ny = normals.get(3 * v + 1), nz = normals.get(3 * v + 2);
+			maxDot = Math.max(maxDot, Math.abs(x * nx + y * ny + z * nz) / (float)Math.sqrt(nx * nx + ny * ny + nz * nz));
+			maxLengthError = Math.max(maxLengthError, Math.abs((float)Math.sqrt(x * x + y * y + z * z) - 1.0f));
+
+			/* createGrid() puts the mirrored half's vertices second. */
+			boolean mirrored = (v >= vertexCount / 2);
+			if (actual.get(4 * v + 3) < 0.0f)
+			{
+				++mirroredCount;
+			}
+			if ((actual.get(4 * v + 3) < 0.0f) != mirrored)
+			{
+				++wrongHandedness;
+			}
+		}
+
+		report.expect(maxDifference <= 1e-4f, "Largest tangent component difference from the reference: " + maxDifference);
+		report.expect(handednessDifferences == 0, handednessDifferences + " handedness differences from the reference");
+		report.expect(maxDot <= 1e-6f, "Largest |n.t|: " + maxDot);
+		report.expect(maxLengthError <= 1e-5f, "Largest tangent length error: " + maxLengthError);
+		report.expect(wrongHandedness == 0, wrongHandedness + " vertices have the wrong handedness for their half of the grid");
+		report.note("Largest difference from the reference %.2g, largest |n.t| %.2g, %,d of %,d vertices mirrored (w = -1)",
+				maxDifference, maxDot, mirroredCount, vertexCount);
+	}
+
+	/*
+	 * A gently curved grid over [0, 1]^2 in x and z, of `size` quads a side, in two halves which don't share
+	 * vertices: the left half's u grows with x, and the right half's u shrinks, as in a mirrored texture;
+ * v shrinks with z, so that the left half's texture space is right-handed about the upward normals.
+	 * The right half's vertices are the second half of the vertex data. Triangle meshes fan each quad.
+	 */
+	private static Mesh createGrid(int size, Mesh mesh)
+	{
+		int half = size / 2;
+		int columns = half + 1, rows = size + 1;
+		int vertexCount = 2 * columns * rows;
+
+		FloatBuffer vertices = Buffers.newDirectFloatBuffer(3 * vertexCount);
+		FloatBuffer normals = Buffers.newDirectFloatBuffer(3 * vertexCount);
+		FloatBuffer texcoords = Buffers.newDirectFloatBuffer(2 * vertexCount);
+		for (int side = 0; side < 2; ++side)
+		{
+			for (int row = 0; row < rows; ++row)
+			{
+				for (int column = 0; column < columns; ++column)
+				{
+					float x = (float)(side * half + column) / size, z = (float)row / size;
+					float dydx = 0.15f * (float)Math.cos(3.0f * x) * (float)Math.cos(2.0f * z);
+					float dydz = -0.1f * (float)Math.sin(3.0f * x) * (float)Math.sin(2.0f * z);
+					vertices.put(x).put(0.05f * (float)Math.sin(3.0f * x) * (float)Math.cos(2.0f * z)).put(z);
+					normals.put(-dydx).put(1.0f).put(-dydz);
+					texcoords.put(side == 0 ? x : 1.0f - x).put(1.0f - z);
+				}
+			}
+		}
+		vertices.rewind();
+		normals.rewind();
+		texcoords.rewind();
+
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		int polygonsPerQuad = (verticesPerPolygon == 3 ? 2 : 1);
+		IntBuffer polygons = Buffers.newDirectIntBuffer(2 * half * size * polygonsPerQuad * verticesPerPolygon);
+		for (int side = 0; side < 2; ++side)
+		{
+			int base = side * columns * rows;
+			for (int row = 0; row < size; ++row)
+			{
+				for (int column = 0; column < half; ++column)
+				{
+					int a = base + row * columns + column, b = a + columns, c = b + 1, d = a + 1;
+					if (verticesPerPolygon == 3)
+					{
+						polygons.put(a).put(b).put(c);
+						polygons.put(a).put(c).put(d);
+					}
+					else
+					{
+						polygons.put(a).put(b).put(c).put(d);
+					}
+				}
+			}
+		}
+		polygons.rewind();
+
+		mesh.setVertexData(vertices);
+		mesh.setNormalData(normals);
+		mesh.setTexCoordData(texcoords);
+		mesh.setPolygonData(polygons);
+		return mesh;
+	}
+
+	/*
+	 * Tangents computed the way Mesh's helpers were structured before TangentGenerator, with their TODOs
+	 * filled in: objects for every triangle's positions, Q matrix, inverse texture matrix and tangents, and
+	 * for every vertex's normal, tangent and bitangent.
+	 */
+	private static FloatBuffer generateWithObjects(Mesh mesh)
+	{
+		FloatBuffer vertexData = mesh.getVertexData();
+		FloatBuffer normalData = mesh.getNormalData();
+		FloatBuffer texCoordData = mesh.getTexCoordData();
+		IntBuffer polygons = mesh.getPolygonData();
+		int vertexCount = mesh.getVertexCount();
+
+		float tan1[] = new float[3 * vertexCount];
+		float tan2[] = new float[3 * vertexCount];
+
+		for (int p = 0; p < mesh.getPolygonCount(); ++p)
+		{
+			int i1 = polygons.get(3 * p), i2 = polygons.get(3 * p + 1), i3 = polygons.get(3 * p + 2);
+
+			Vector3f p0 = new Vector3f(vertexData.get(3 * i1), vertexData.get(3 * i1 + 1), vertexData.get(3 * i1 + 2));
+			Vector3f p1 = new Vector3f(vertexData.get(3 * i2), vertexData.get(3 * i2 + 1), vertexData.get(3 * i2 + 2));
+			Vector3f p2 = new Vector3f(vertexData.get(3 * i3), vertexData.get(3 * i3 + 1), vertexData.get(3 * i3 + 2));
+
+			Vector3f q1 = new Vector3f();
+			Vector3f q2 = new Vector3f();
+			q1.sub(p1, p0);
+			q2.sub(p2, p0);
+
+			GMatrix matQ = new GMatrix(2, 3, new double[] {q1.x, q1.y, q1.z, q2.x, q2.y, q2.z});
+
+			float u1 = texCoordData.get(2 * i1), v1 = texCoordData.get(2 * i1 + 1);
+			float s1 = texCoordData.get(2 * i2) - u1, t1 = texCoordData.get(2 * i2 + 1) - v1;
+			float s2 = texCoordData.get(2 * i3) - u1, t2 = texCoordData.get(2 * i3 + 1) - v1;
+			float determinant = s1 * t2 - s2 * t1;
+			if (Math.abs(determinant) < EPS)
+			{
+				continue;
+			}
+
+			float r = 1.0f / determinant;
+			GMatrix matST = new GMatrix(2, 2, new double[] {t2 * r, -t1 * r, -s2 * r, s1 * r});
+			GMatrix matTB = new GMatrix(2, 3);
+			matTB.mul(matST, matQ);
+
+			GVector tangent = new GVector(3);
+			GVector bitangent = new GVector(3);
+			matTB.getRow(0, tangent);
+			matTB.getRow(1, bitangent);
+
+			for (int i : new int[] {i1, i2, i3})
+			{
+				for (int c = 0; c < 3; ++c)
+				{
+					tan1[3 * i + c] += (float)tangent.getElement(c);
+					tan2[3 * i + c] += (float)bitangent.getElement(c);
+				}
+			}
+		}
+
+		FloatBuffer result = Buffers.newDirectFloatBuffer(4 * vertexCount);
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			Vector3f normal = new Vector3f(normalData.get(3 * v), normalData.get(3 * v + 1), normalData.get(3 * v + 2));
+			normal.normalize();
+
+			Vector3f tangent = new Vector3f(tan1[3 * v], tan1[3 * v + 1], tan1[3 * v + 2]);
+			Vector3f bitangent = new Vector3f(tan2[3 * v], tan2[3 * v + 1], tan2[3 * v + 2]);
+
+			Vector3f scaledNormal = new Vector3f(normal);
+			scaledNormal.scale(normal.dot(tangent));
+			Vector3f orthogonal = new Vector3f();
+			orthogonal.sub(tangent, scaledNormal);
+			orthogonal.normalize();
+
+			Vector3f cross = new Vector3f();
+			cross.cross(normal, orthogonal);
+			float handedness = (cross.dot(bitangent) < 0.0f ? -1.0f : 1.0f);
+
+			result.put(4 * v, orthogonal.x);
+			result.put(4 * v + 1, orthogonal.y);
+			result.put(4 * v + 2, orthogonal.z);
+			result.put(4 * v + 3, handedness);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,261 @@
+package cs5625.deferred.checks;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.materials.TextureStreamer;
+import cs5625.deferred.materials.UploadScheduler;
+
+/**
+ * TextureStreamingCheck.java
+ *
+ * Checks how `UploadScheduler` splits uploads into bands under a per-frame byte budget, without a GPU,
+ * and then streams real images through a `TextureStreamer` on a `FakeGL2`, with and without pixel buffer
+ * objects: every frame stays within budget, every row arrives exactly once, placeholders get their
+ * images, and the decode queue and upload metrics add up.
+ *
+ * Exits with status 1 on failure; see `CheckReport`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TextureStreamingCheck
+{
+	/* Frames to wait for the decoder threads before giving up. */
+	private static final int MAX_FRAMES = 10000;
+
+	/* A FakeGL2 which records the rows uploaded to each texture, and whether they came from a pixel buffer. */
+	private static class UploadRecordingGL2 extends FakeGL2
+	{
+		int pixelBufferBands = 0;
+		int clientMemoryBands = 0;
+		long frameRowBytes = 0;
+
+		/* Rows received by each texture name, counted per row. */
+		final ArrayList<int[]> rowsReceived = new ArrayList<int[]>();
+
+		@Override
+		public void glTexSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, long offset)
+		{
+			++pixelBufferBands;
+			record(y, width, height);
+		}
+
+		@Override
+		public void glTexSubImage2D(int target, int level, int x, int y, int width, int height, int format, int type, Buffer pixels)
+		{
+			++clientMemoryBands;
+			record(y, width, height);
+		}
+
+		private void record(int y, int width, int height)
+		{
+			int texture = getBoundTexture();
+			while (rowsReceived.size() <= texture)
+			{
+				rowsReceived.add(null);
+			}
+			if (rowsReceived.get(texture) == null)
+			{
+				rowsReceived.set(texture, new int[y + height]);
+			}
+
+			int rows[] = rowsReceived.get(texture);
+			if (rows.length < y + height)
+			{
+				int grown[] = new int[y + height];
+				System.arraycopy(rows, 0, grown, 0, rows.length);
+				rowsReceived.set(texture, rows = grown);
+			}
+
+			for (int row = y; row < y + height; ++row)
+			{
+				++rows[row];
+			}
+			frameRowBytes += (long)width * height * 4;
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		CheckReport report = new CheckReport("TextureStreamingCheck");
+
+		checkScheduler(report);
+		checkStreamer(report, true);
+		checkStreamer(report, false);
+
+		report.finish();
+	}
+
+	private static void checkScheduler(CheckReport report)
+	{
+		UploadScheduler<String> scheduler = new UploadScheduler<String>(1000);
+
+		/* 10 rows of 300 bytes: 3 rows fit a frame. */
+		UploadScheduler.Upload<String> first = scheduler.enqueue("first", 10, 300);
+		/* Rows bigger than the budget still go one per frame. */
+		UploadScheduler.Upload<String> huge = scheduler.enqueue("huge", 2, 5000);
+		/* Small rows fill up what's left of a frame. */
+		UploadScheduler.Upload<String> small = scheduler.enqueue("small", 100, 10);
+
+		report.expect(scheduler.getPendingCount() == 3, "Three uploads pending");
+
+		ArrayList<String> order = new ArrayList<String>();
+		int nextRow[] = new int[3];
+		int frames = 0;
+		long frameBytes[] = new long[100];
+
+		while (scheduler.getPendingCount() > 0 && frames < frameBytes.length)
+		{
+			scheduler.beginFrame();
+			report.expect(scheduler.getFrameBytes() == 0, "beginFrame() resets the frame's bytes");
+
+			UploadScheduler.Upload<String> upload;
+			while ((upload = scheduler.nextBand()) != null)
+			{
+				int index = (upload == first ? 0 : (upload == huge ? 1 : 2));
+				report.expect(upload.getBandRowCount() >= 1, upload.getTarget() + ": band has at least one row");
+				report.expect(upload.getBandFirstRow() == nextRow[index],
+						upload.getTarget() + ": band starts at row " + upload.getBandFirstRow() + " rather than " + nextRow[index]);
+				nextRow[index] += upload.getBandRowCount();
+
+				if (order.isEmpty() || !order.get(order.size() - 1).equals(upload.getTarget()))
+				{
+					order.add(upload.getTarget());
+				}
+			}
+
+			frameBytes[frames++] = scheduler.getFrameBytes();
+		}
+
+		report.expect(scheduler.getPendingCount() == 0, "Every upload finished within " + frameBytes.length + " frames");
+		report.expect(nextRow[0] == 10 && nextRow[1] == 2 && nextRow[2] == 100,
+				"Every row scheduled exactly once: " + nextRow[0] + ", " + nextRow[1] + ", " + nextRow[2]);
+		report.expect(order.size() == 3 && order.get(0).equals("first") && order.get(1).equals("huge") && order.get(2).equals("small"),
+				"Uploads served in the order queued: " + order);
+		report.expect(first.isComplete() && huge.isComplete() && small.isComplete(), "Every upload is complete");
+		report.expect(scheduler.getTotalBytes() == 10 * 300 + 2 * 5000 + 100 * 10, "Total bytes: " + scheduler.getTotalBytes());
+
+		/* A frame goes over budget only when it sends a single band of one row larger than the budget. */
+		for (int i = 0; i < frames; ++i)
+		{
+			report.expect(frameBytes[i] <= 1000 || frameBytes[i] == 5000, "Frame " + i + " scheduled " + frameBytes[i] + " bytes");
+		}
+		report.expect(frameBytes[0] == 900, "First frame sends three 300-byte rows: " + frameBytes[0]);
+		report.note("Scheduler: %d frames for %d bytes with a budget of 1000.", frames, scheduler.getTotalBytes());
+
+		/* removeAll() empties the queue. */
+		scheduler.enqueue("a", 5, 10);
+		scheduler.enqueue("b", 5, 10);
+		report.expect(scheduler.removeAll().size() == 2 && scheduler.getPendingCount() == 0, "removeAll() returns and removes every upload");
+		scheduler.beginFrame();
+		report.expect(scheduler.nextBand() == null, "Nothing is scheduled from an empty queue");
+	}
+
+	private static void checkStreamer(CheckReport report, boolean pixelBuffers) throws Exception
+	{
+		String mode = (pixelBuffers ? "with pixel buffers" : "without pixel buffers");
+
+		UploadRecordingGL2 gl = new UploadRecordingGL2();
+		gl.setExtensionAvailable("GL_ARB_pixel_buffer_object", pixelBuffers);
+
+		/* A quarter of brick1.png's rows per frame. */
+		long budget = 1024 * 4 * 256;
+		TextureStreamer streamer = new TextureStreamer(2, budget);
+
+		final ArrayList<Texture2D> streamed = new ArrayList<Texture2D>();
+		TextureStreamer.Listener listener = new TextureStreamer.Listener() {
+			@Override
+			public void textureStreamed(GL2 gl, Texture2D texture)
+			{
+				streamed.add(texture);
+			}
+		};
+
+		Texture2D brick = streamer.load(gl, "textures/brick1.png", listener);
+		Texture2D tile = streamer.load(gl, "textures/tile.jpg", false, listener);
+		Texture2D broken = streamer.load(gl, "models/lowpolysphere.obj", listener);
+		report.note("Streamer %s: the error printed for lowpolysphere.obj is expected.", mode);
+
+		report.expect(brick.getWidth() == 1 && brick.getHeight() == 1, mode + ": placeholder is 1x1");
+		report.expect(streamer.getDecodeQueueDepth() <= 3, mode + ": decode queue depth " + streamer.getDecodeQueueDepth());
+
+		boolean threw = false;
+		try
+		{
+			streamer.load(gl, "textures/no-such-file.png", listener);
+		}
+		catch (java.io.IOException e)
+		{
+			threw = true;
+		}
+		report.expect(threw, mode + ": missing file is reported by load()");
+
+		int frames = 0;
+		int uploadingFrames = 0;
+		long maxFrameBytes = 0;
+		while (!streamer.isIdle() && frames < MAX_FRAMES)
+		{
+			gl.frameRowBytes = 0;
+			streamer.update(gl);
+			++frames;
+
+			report.expect(gl.frameRowBytes == streamer.getFrameUploadBytes(),
+					mode + ": frame " + frames + " uploaded " + gl.frameRowBytes + " bytes but reported " + streamer.getFrameUploadBytes());
+			if (streamer.getFrameUploadBytes() > 0)
+			{
+				++uploadingFrames;
+			}
+			maxFrameBytes = Math.max(maxFrameBytes, streamer.getFrameUploadBytes());
+
+			if (streamer.getDecodeQueueDepth() > 0)
+			{
+				Thread.sleep(1);
+			}
+		}
+
+		report.expect(streamer.isIdle(), mode + ": streamer finished within " + MAX_FRAMES + " frames");
+		report.expectAtMost(maxFrameBytes, budget, mode + ": most bytes uploaded in a frame");
+		report.expect(streamer.getCompletedCount() == 2 && streamer.getFailedCount() == 1,
+				mode + ": " + streamer.getCompletedCount() + " textures completed and " + streamer.getFailedCount() + " failed");
+		report.expect(streamer.getDecodeQueueDepth() == 0 && streamer.getPendingUploadCount() == 0, mode + ": queues are empty");
+
+		report.expect(brick.getWidth() == 1024 && brick.getHeight() == 1024, mode + ": brick1.png arrived as " + brick.getWidth() + "x" + brick.getHeight());
+		report.expect(tile.getWidth() > 1 && tile.getHeight() > 1, mode + ": tile.jpg arrived as " + tile.getWidth() + "x" + tile.getHeight());
+		report.expect(broken.getWidth() == 1 && broken.getHeight() == 1, mode + ": undecodable file keeps its placeholder");
+		report.expect(streamed.size() == 2 && streamed.contains(brick) && streamed.contains(tile), mode + ": listener told of both textures");
+
+		long expectedBytes = 4L * (brick.getWidth() * brick.getHeight() + tile.getWidth() * tile.getHeight());
+		report.expect(streamer.getTotalUploadBytes() == expectedBytes, mode + ": uploaded " + streamer.getTotalUploadBytes() + " bytes rather than " + expectedBytes);
+		report.expect(uploadingFrames >= 4, mode + ": brick1.png alone needs 4 frames at this budget, but uploads took " + uploadingFrames);
+
+		/* Each row of each image went up exactly once, and all of it by the expected path. */
+		int imageCount = 0;
+		for (int rows[] : gl.rowsReceived)
+		{
+			if (rows == null)
+			{
+				continue;
+			}
+
+			++imageCount;
+			boolean once = true;
+			for (int count : rows)
+			{
+				once &= (count == 1);
+			}
+			report.expect(once, mode + ": every row of an image was uploaded exactly once");
+		}
+		report.expect(imageCount == 2, mode + ": " + imageCount + " textures received rows");
+		report.expect(pixelBuffers ? gl.clientMemoryBands == 0 && gl.pixelBufferBands > 0 : gl.pixelBufferBands == 0 && gl.clientMemoryBands > 0,
+				mode + ": " + gl.pixelBufferBands + " bands through pixel buffers, " + gl.clientMemoryBands + " from client memory");
+
+		report.note("Streamer %s: %d bytes in %d uploading frames (%d frames in all), at most %d bytes per frame.",
+				mode, streamer.getTotalUploadBytes(), uploadingFrames, frames, maxFrameBytes);
+
+		streamer.releaseGPUResources(gl);
+	}
+}
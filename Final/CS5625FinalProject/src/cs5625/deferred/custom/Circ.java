@@ -9,7 +9,7 @@ public class Circ extends Effector {
 	
 	private float strength;
 	private AxisAngle4f direction;
-	Circ(Point3f p, float s, AxisAngle4f dir) {
+	public Circ(Point3f p, float s, AxisAngle4f dir) {
 		super(p);
 		this.strength = s;
 		this.direction = dir;
@@ -12,10 +12,13 @@ import javax.vecmath.Color3f;
 import javax.vecmath.Point3f;
 import javax.vecmath.Quat4f;
 
+import cs5625.deferred.apps.FrameScheduler;
 import cs5625.deferred.apps.SceneController;
+import cs5625.deferred.apps.SimulationSnapshot;
 import cs5625.deferred.materials.UnshadedMaterial;
 import cs5625.deferred.misc.Util;
 import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.MeshRegistry;
 import cs5625.deferred.scenegraph.PointLight;
 import cs5625.deferred.scenegraph.SceneObject;
 
@@ -39,8 +42,6 @@ public class CustomSceneController extends SceneController {
 	/* The object containing all the little lights. */
 	private SceneObject mLightCloud;
 	
-	private float dt = System.nanoTime()/1000000f;
-	
 	@Override
 	public void initializeScene()
 	{
@@ -64,8 +65,15 @@ public class CustomSceneController extends SceneController {
 			
 			
 			
-			/* Load the default scene without materials. */
+			/* Load the default scene without materials, with levels of detail for the denser objects, drawn from compact vertex data. 
+			 * Its default materials all decode compact data, so the float copies are dropped where compact texture coordinates can be drawn. */
 			mSceneRoot.addGeometry(Geometry.load("models/default-scene.obj", false, true));
+			mSceneRoot.generateLevelsOfDetailForAllGeometry(4, 0.5f);
+			mSceneRoot.compactVertexDataForAllGeometry();
+			if (mRenderer.getHalfFloatVertices())
+			{
+				mSceneRoot.discardFloatVertexDataForAllGeometry();
+			}
 						
 			/* Example of manipulating an object by name. */
 			mSceneRoot.findDescendantByName("fighter1").getOrientation().set(new AxisAngle4f(0.0f, 1.0f, 0.0f, -(float)Math.PI / 4.0f));
@@ -90,8 +98,9 @@ public class CustomSceneController extends SceneController {
 						(rand.nextFloat() - 0.5f) * 8.0f, 
 						(rand.nextFloat() - 0.5f) * 8.0f));
 				
-				/* Add a sphere as a child of the light (so we can see where it is), and set the sphere to the same color as the light. */
-				Geometry sphere = Geometry.load("models/lowpolysphere.obj", false, false).get(0);
+				/* Add a sphere as a child of the light (so we can see where it is), and set the sphere to the same color as the light. 
+				 * The spheres share one copy of the mesh, so the renderer draws them all at once. */
+				Geometry sphere = MeshRegistry.getShared().loadFirst("models/lowpolysphere.obj");
 				sphere.setScale(0.1f);
 				sphere.getMeshes().get(0).setMaterial(new UnshadedMaterial(lightColor));
 				light.addChild(sphere);
@@ -100,21 +109,19 @@ public class CustomSceneController extends SceneController {
 				mLightCloud.addChild(light);
 			}
 			
-			Runnable r = new Runnable() {   
-			     public void run() {  
-			           try {
-			        	   while(true) {
-			        		   nextFrame(System.nanoTime()/1000000f - dt);
-			        		   dt = System.nanoTime()/1000000f;
-			        		   Thread.sleep((long) 16.67);
-			        	   }
-					} catch (InterruptedException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-			     }  
-			};  
-			new Thread(r).start();  
+			/* Animate on a fixed-timestep simulation thread; the particle effectors are tuned for milliseconds. */
+			mFrameScheduler = new FrameScheduler(mSceneRoot, new FrameScheduler.Simulation() {
+				@Override
+				public void tick(float dt) {
+					mSceneRoot.animate(dt * 1000.0f);
+				}
+			});
+			mFrameScheduler.setListener(new FrameScheduler.Listener() {
+				@Override
+				public void snapshotPublished(SimulationSnapshot snapshot) {
+					requiresRender();
+				}
+			});
 		}
 		catch (Exception err)
 		{
@@ -146,6 +153,9 @@ public class CustomSceneController extends SceneController {
 		
 		mSnowCamera.setWidth(SNOW_CAM_FRUSTUM_WIDTH);
 		mSnowCamera.setHeight(SNOW_CAM_FRUSTUM_HEIGHT);
+		
+		/* The scene is set up; from now on the simulation thread changes it. */
+		mFrameScheduler.start();
 	}
 	
 	/**
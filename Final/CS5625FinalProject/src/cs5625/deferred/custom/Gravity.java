@@ -9,7 +9,7 @@ public class Gravity extends Effector {
 	
 	private float strength;
 	private AxisAngle4f direction;
-	Gravity(Point3f p, float s, AxisAngle4f dir) {
+	public Gravity(Point3f p, float s, AxisAngle4f dir) {
 		super(p);
 		this.strength = s;
 		this.direction = dir;
@@ -25,8 +25,12 @@ public class ParticleSystem extends SceneObject{
 	private float mass;
 	private float emitterSize;
 	private static boolean d = false;
+	private Particle[] liveScratch = new Particle[0];
+	private int numCopied = 0;
+	private volatile float[] renderPositions = null;
+	private volatile int renderCount = 0;
 	
-	ParticleSystem(int num, float birth, float drag, float life, float mass, Point3f pos, float emitSize, ArrayList<Effector> effects) {
+	public ParticleSystem(int num, float birth, float drag, float life, float mass, Point3f pos, float emitSize, ArrayList<Effector> effects) {
 		this.numParticles = num;
 		this.birthRate = birth;
 		this.dragCoefficient = drag;
@@ -84,6 +88,66 @@ public class ParticleSystem extends SceneObject{
 		return fb;
 	}
 	
+	/**
+	 * Copies the live particle positions into `dest` as packed xyz triples, growing it if needed.
+	 * Unlike getParticlePositions(), this doesn't allocate once `dest` is big enough, so the 
+	 * renderer can call it every frame.
+	 * @return the (possibly new) destination array; getNumCopied() gives the particle count
+	 */
+	public float[] copyParticlePositions(float[] dest) {
+		if (liveScratch.length < numParticles) {
+			liveScratch = new Particle[numParticles];
+		}
+		Particle[] part = live.toArray(liveScratch);
+		int n = 0;
+		while (n < part.length && part[n] != null) {
+			n++;
+		}
+		if (dest == null || dest.length < 3*n) {
+			dest = new float[3*Math.max(n, numParticles)];
+		}
+		for (int i = 0; i < n; i++) {
+			Point3f p = part[i].getPosition();
+			dest[3*i] = p.x;
+			dest[3*i+1] = p.y;
+			dest[3*i+2] = p.z;
+			part[i] = null;
+		}
+		numCopied = n;
+		return dest;
+	}
+	
+	/**
+	 * Number of particles written by the last call to copyParticlePositions().
+	 */
+	public int getNumCopied() {
+		return numCopied;
+	}
+	
+	/**
+	 * Sets the particle positions the renderer draws, from a snapshot published by the simulation
+	 * thread (see FrameScheduler), so it never reads the live queue while step() changes it.
+	 * Null makes the renderer copy the live particles again.
+	 */
+	public void setRenderPositions(float[] positions, int count) {
+		renderCount = count;
+		renderPositions = positions;
+	}
+	
+	/**
+	 * Positions set by setRenderPositions(), or null.
+	 */
+	public float[] getRenderPositions() {
+		return renderPositions;
+	}
+	
+	/**
+	 * Number of particles in getRenderPositions().
+	 */
+	public int getRenderCount() {
+		return renderCount;
+	}
+	
 	public void step(float timeStep) {
 		for(Particle p : live) {
 			//kill particles
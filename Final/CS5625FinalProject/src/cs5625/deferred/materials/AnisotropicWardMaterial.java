@@ -25,6 +25,9 @@ public class AnisotropicWardMaterial extends Material
 	private float mAlphaX = 0.15f;	
 	private float mAlphaY = 0.5f;
 	
+	/* Returned by `getRequiredVertexAttributes()`; callers must not modify it. */
+	private static final String REQUIRED_ATTRIBUTES[] = new String[] {"VertexTangent"};
+	
 	/* Optional textures for texture parameterized rendering. */
 	private Texture2D mDiffuseTexture = null;
 	private Texture2D mSpecularTexture = null;
@@ -142,7 +145,7 @@ public class AnisotropicWardMaterial extends Material
 
 	@Override
 	public String[] getRequiredVertexAttributes() {
-		return new String[] {"VertexTangent"};
+		return REQUIRED_ATTRIBUTES;
 	}
 	
 	@Override
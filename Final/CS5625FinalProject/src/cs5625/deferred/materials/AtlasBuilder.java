@@ -0,0 +1,397 @@
+package cs5625.deferred.materials;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.packrect.LevelSet;
+import com.jogamp.opengl.util.packrect.Rect;
+
+/**
+ * AtlasBuilder.java
+ *
+ * Packs many small images into a few large atlas pages, so that everything drawn with them can share
+ * one texture binding. Packing uses JOGL's `LevelSet`, which fills a page shelf by shelf; images are
+ * added tallest first, which keeps shelves tight.
+ *
+ * Each entry is a set of "layers" of equal size, e.g. the diffuse and specular map of one material;
+ * layer i of every entry goes to page i of the same layout, so one set of texture coordinates reads all
+ * of an entry's layers.
+ *
+ * Every image is surrounded by a gutter of copies of its edge texels, and placed at a multiple of the
+ * gutter size. That keeps bilinear filtering from bleeding neighbors in for the first log2(gutter) mip
+ * levels, which is as many levels as `getMipLevelCount()` allows. Texture coordinates of an entry must
+ * stay within [0, 1]; repeating textures can't be atlased.
+ *
+ * The builder is independent of OpenGL; `TextureAtlas` uploads its pages and remaps meshes onto them.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class AtlasBuilder
+{
+	/** Default width and height of atlas pages, in texels. */
+	public static final int DEFAULT_PAGE_SIZE = 2048;
+
+	/** Default gutter around each image, in texels. */
+	public static final int DEFAULT_GUTTER = 4;
+
+	/**
+	 * Where an entry's images ended up: a page, and the texel rectangle of the images (without gutter).
+	 */
+	public static class Region
+	{
+		private final int mPage;
+		private final int mX, mY, mWidth, mHeight;
+		private final float mScaleU, mScaleV, mOffsetU, mOffsetV;
+
+		Region(int page, int x, int y, int width, int height, int pageSize)
+		{
+			mPage = page;
+			mX = x;
+			mY = y;
+			mWidth = width;
+			mHeight = height;
+
+			mScaleU = (float)width / pageSize;
+			mScaleV = (float)height / pageSize;
+			mOffsetU = (float)x / pageSize;
+			mOffsetV = (float)y / pageSize;
+		}
+
+		public int getPage()
+		{
+			return mPage;
+		}
+
+		public int getX()
+		{
+			return mX;
+		}
+
+		public int getY()
+		{
+			return mY;
+		}
+
+		public int getWidth()
+		{
+			return mWidth;
+		}
+
+		public int getHeight()
+		{
+			return mHeight;
+		}
+
+		/**
+		 * Returns the page texture coordinates of an image texture coordinate: `u * scaleU + offsetU`, and
+		 * likewise for v, in `result[0]` and `result[1]`.
+		 */
+		public void map(float u, float v, float result[])
+		{
+			result[0] = u * mScaleU + mOffsetU;
+			result[1] = v * mScaleV + mOffsetV;
+		}
+
+		public float getScaleU()
+		{
+			return mScaleU;
+		}
+
+		public float getScaleV()
+		{
+			return mScaleV;
+		}
+
+		public float getOffsetU()
+		{
+			return mOffsetU;
+		}
+
+		public float getOffsetV()
+		{
+			return mOffsetV;
+		}
+	}
+
+	/* An added entry, and its packing rectangle (with gutter, rounded up to a multiple of it). */
+	private static class Entry
+	{
+		final TextureData layers[];
+		final Rect rect;
+		int page = -1;
+
+		Entry(TextureData layers[], int gutter)
+		{
+			this.layers = layers;
+			this.rect = new Rect(0, 0, roundUp(layers[0].getWidth() + 2 * gutter, gutter), roundUp(layers[0].getHeight() + 2 * gutter, gutter), this);
+		}
+	}
+
+	private final int mPageSize;
+	private final int mGutter;
+	private final int mLayerCount;
+
+	/* Entries in the order they were added, and by key. */
+	private final List<Entry> mEntries = new ArrayList<Entry>();
+	private final IdentityHashMap<Object, Entry> mEntriesByKey = new IdentityHashMap<Object, Entry>();
+
+	private int mPageCount = 0;
+	private long mUsedPageTexels = 0;
+	private boolean mPacked = false;
+
+	/**
+	 * Creates an empty builder.
+	 *
+	 * @param pageSize Width and height of each page, in texels; a power of two.
+	 * @param gutter Texels of gutter around each image; a power of two.
+	 * @param layerCount Number of images in each entry, and so of pages sharing each layout.
+	 */
+	public AtlasBuilder(int pageSize, int gutter, int layerCount)
+	{
+		if (Integer.bitCount(pageSize) != 1 || Integer.bitCount(gutter) != 1 || layerCount < 1)
+		{
+			throw new IllegalArgumentException("Atlas page size and gutter must be powers of two, and there must be a layer.");
+		}
+
+		mPageSize = pageSize;
+		mGutter = gutter;
+		mLayerCount = layerCount;
+	}
+
+	public int getPageSize()
+	{
+		return mPageSize;
+	}
+
+	public int getGutter()
+	{
+		return mGutter;
+	}
+
+	public int getLayerCount()
+	{
+		return mLayerCount;
+	}
+
+	/**
+	 * Adds an entry to be packed. Adding a key again does nothing.
+	 *
+	 * @param key Identifies the entry in `getRegion()`; compared by identity.
+	 * @param layers One RGBA8 image per layer, all the same size.
+	 * @return False if the images are too large to fit a page with their gutter, in which case nothing is added.
+	 */
+	public boolean add(Object key, TextureData layers[])
+	{
+		if (layers.length != mLayerCount)
+		{
+			throw new IllegalArgumentException("Atlas entries need " + mLayerCount + " layers, not " + layers.length + ".");
+		}
+		for (int layer = 1; layer < layers.length; ++layer)
+		{
+			if (layers[layer].getWidth() != layers[0].getWidth() || layers[layer].getHeight() != layers[0].getHeight())
+			{
+				throw new IllegalArgumentException("The layers of an atlas entry must all be the same size.");
+			}
+		}
+
+		if (mEntriesByKey.containsKey(key))
+		{
+			return true;
+		}
+
+		Entry entry = new Entry(layers, mGutter);
+		if (entry.rect.w() > mPageSize || entry.rect.h() > mPageSize)
+		{
+			return false;
+		}
+
+		mEntries.add(entry);
+		mEntriesByKey.put(key, entry);
+		mPacked = false;
+		return true;
+	}
+
+	public int getEntryCount()
+	{
+		return mEntries.size();
+	}
+
+	/**
+	 * Places every entry on a page, opening pages as needed. Called by the methods that need a layout,
+	 * after entries were added.
+	 */
+	public void pack()
+	{
+		if (mPacked)
+		{
+			return;
+		}
+
+		List<Entry> sorted = new ArrayList<Entry>(mEntries);
+		Collections.sort(sorted, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry a, Entry b)
+			{
+				/* Tallest first, then widest, so shelves are filled by similar heights. */
+				if (a.rect.h() != b.rect.h())
+				{
+					return b.rect.h() - a.rect.h();
+				}
+				return b.rect.w() - a.rect.w();
+			}
+		});
+
+		List<LevelSet> pages = new ArrayList<LevelSet>();
+
+		for (Entry entry : sorted)
+		{
+			entry.page = -1;
+
+			for (int page = 0; page < pages.size() && entry.page < 0; ++page)
+			{
+				if (pages.get(page).add(entry.rect))
+				{
+					entry.page = page;
+				}
+			}
+
+			if (entry.page < 0)
+			{
+				LevelSet page = new LevelSet(mPageSize, mPageSize);
+				page.add(entry.rect);
+				pages.add(page);
+				entry.page = pages.size() - 1;
+			}
+		}
+
+		mPageCount = pages.size();
+		mUsedPageTexels = 0;
+		for (LevelSet page : pages)
+		{
+			mUsedPageTexels += (long)mPageSize * page.getUsedHeight();
+		}
+
+		mPacked = true;
+	}
+
+	/**
+	 * Returns the number of pages per layer.
+	 */
+	public int getPageCount()
+	{
+		pack();
+		return mPageCount;
+	}
+
+	/**
+	 * Returns where an entry was placed, or null if it wasn't added.
+	 */
+	public Region getRegion(Object key)
+	{
+		Entry entry = mEntriesByKey.get(key);
+		if (entry == null)
+		{
+			return null;
+		}
+
+		pack();
+		return new Region(entry.page, entry.rect.x() + mGutter, entry.rect.y() + mGutter, entry.layers[0].getWidth(), entry.layers[0].getHeight(), mPageSize);
+	}
+
+	/**
+	 * Returns the fraction of the pages' texels covered by images (not gutter or free space), counting
+	 * each page up to its top shelf, since the rest is free for more images.
+	 */
+	public float getPackingEfficiency()
+	{
+		pack();
+		if (mUsedPageTexels == 0)
+		{
+			return 0.0f;
+		}
+
+		long used = 0;
+		for (Entry entry : mEntries)
+		{
+			used += (long)entry.layers[0].getWidth() * entry.layers[0].getHeight();
+		}
+
+		return (float)((double)used / mUsedPageTexels);
+	}
+
+	/**
+	 * Returns how many mip levels the pages can have without images bleeding into each other: those
+	 * whose texels are no larger than the gutter.
+	 */
+	public int getMipLevelCount()
+	{
+		return Integer.numberOfTrailingZeros(mGutter) + 1;
+	}
+
+	/**
+	 * Draws one layer of a page: every image on it with its gutter, and transparent black elsewhere.
+	 *
+	 * @return A direct buffer of RGBA8 pixels, bottom row first, `getPageSize()` square.
+	 */
+	public ByteBuffer composePage(int page, int layer)
+	{
+		pack();
+
+		byte pixels[] = new byte[mPageSize * mPageSize * 4];
+		for (Entry entry : mEntries)
+		{
+			if (entry.page == page)
+			{
+				drawEntry(entry.layers[layer], entry.rect, pixels);
+			}
+		}
+
+		return Buffers.newDirectByteBuffer(pixels);
+	}
+
+	/**
+	 * Copies an image into its rectangle, repeating its edge texels across the gutter and the rounding.
+	 */
+	private void drawEntry(TextureData image, Rect rect, byte pixels[])
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int pageRowBytes = mPageSize * 4;
+
+		ByteBuffer data = image.getData().duplicate();
+		data.rewind();
+		byte source[] = new byte[width * height * 4];
+		data.get(source);
+
+		for (int y = 0; y < rect.h(); ++y)
+		{
+			int sourceRow = Math.max(0, Math.min(height - 1, y - mGutter)) * width * 4;
+			int dst = (rect.y() + y) * pageRowBytes + rect.x() * 4;
+
+			/* Left gutter, the row, then the right gutter and rounding. */
+			for (int x = 0; x < mGutter; ++x, dst += 4)
+			{
+				System.arraycopy(source, sourceRow, pixels, dst, 4);
+			}
+
+			System.arraycopy(source, sourceRow, pixels, dst, width * 4);
+			dst += width * 4;
+
+			for (int x = mGutter + width; x < rect.w(); ++x, dst += 4)
+			{
+				System.arraycopy(source, sourceRow + (width - 1) * 4, pixels, dst, 4);
+			}
+		}
+	}
+
+	private static int roundUp(int value, int multiple)
+	{
+		return (value + multiple - 1) / multiple * multiple;
+	}
+}
@@ -1,13 +1,9 @@
 package cs5625.deferred.materials;
 
-import java.nio.FloatBuffer;
-
 import javax.media.opengl.GL2;
 import javax.vecmath.Color3f;
-import javax.vecmath.Matrix4f;
 
 import cs5625.deferred.misc.OpenGLException;
-import cs5625.deferred.misc.Util;
 import cs5625.deferred.rendering.ShaderProgram;
 
 /**
@@ -23,11 +19,9 @@ import cs5625.deferred.rendering.ShaderProgram;
  */
 public class BlinnPhongMaterial extends Material
 {
+	/* Snow occlusion map set by the renderer, or null when snow is off. The other snow parameters 
+	 * and the camera matrices come from the FrameConstants uniform block, uploaded once per pass. */
 	public static Texture2D occlMapTexture = null;
-	public static boolean renderSnow = false;
-	public static float snowMapWidth, snowMapHeight;
-	public static Matrix4f occlMapMatrix, viewMatrix, inverseViewMatrix, transposeInverseViewMatrix;
-	public static float snowAmount = 0.5f;
 	
 	/* Blinn-Phong material properties. */
 	private Color3f mDiffuseColor = new Color3f(1.0f, 1.0f, 1.0f);
@@ -47,15 +41,6 @@ public class BlinnPhongMaterial extends Material
 	private int mHasSpecularTextureUniformLocation = -1;
 	private int mHasExponentTextureUniformLocation = -1;
 	
-	private int mRenderSnowUniformLocation = -1;
-	private int mSnowMapWidthUniformLocation = -1;
-	private int mSnowMapHeightUniformLocation = -1;
-	private int mOcclMapMatrixUniformLocation = -1;
-	private int mViewMatrixUniformLocation = -1;
-	private int mInverseViewMatrixUniformLocation = -1;
-	private int mTransposeInverseViewMatrixUniformLocation = -1;
-	private int mSnowAmountUniformLocation = -1;
-	
 	public BlinnPhongMaterial()
 	{
 		/* Default constructor. */
@@ -163,30 +148,6 @@ public class BlinnPhongMaterial extends Material
 			mExponentTexture.bind(gl, 2);
 		}
 		
-		gl.glUniform1i(mRenderSnowUniformLocation, (renderSnow) ? 1 : 0);
-		if (renderSnow) {
-			gl.glUniform1f(mSnowMapWidthUniformLocation, snowMapWidth);
-			gl.glUniform1f(mSnowMapHeightUniformLocation, snowMapHeight);
-			
-			float[] f = Util.fromMatrix4f(occlMapMatrix);
-			FloatBuffer fb = FloatBuffer.wrap(f);
-			gl.glUniformMatrix4fv(mOcclMapMatrixUniformLocation, 1, false, fb);
-			
-			f = Util.fromMatrix4f(viewMatrix);
-			fb = FloatBuffer.wrap(f);
-			gl.glUniformMatrix4fv(mViewMatrixUniformLocation, 1, false, fb);
-			
-			f = Util.fromMatrix4f(inverseViewMatrix);
-			fb = FloatBuffer.wrap(f);
-			gl.glUniformMatrix4fv(mInverseViewMatrixUniformLocation, 1, false, fb);
-			
-			f = Util.fromMatrix4f(transposeInverseViewMatrix);
-			fb = FloatBuffer.wrap(f);
-			gl.glUniformMatrix4fv(mTransposeInverseViewMatrixUniformLocation, 1, false, fb);
-			
-			gl.glUniform1f(mSnowAmountUniformLocation, snowAmount);
-			
-		}
 		if (occlMapTexture != null) {
 			occlMapTexture.bind(gl, 3);
 		}
@@ -211,15 +172,27 @@ public class BlinnPhongMaterial extends Material
 		gl.glUniform1i(shader.getUniformLocation(gl, "ExponentTexture"), 2);
 		gl.glUniform1i(shader.getUniformLocation(gl, "SnowOcclMap"), 3);
 		shader.unbind(gl);
+	}
+
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		super.releaseGPUResources(gl);
 		
-		mRenderSnowUniformLocation = shader.getUniformLocation(gl, "RenderSnow");
-		mSnowMapWidthUniformLocation = shader.getUniformLocation(gl, "SnowMapWidth");
-		mSnowMapHeightUniformLocation = shader.getUniformLocation(gl, "SnowMapHeight");
-		mOcclMapMatrixUniformLocation = shader.getUniformLocation(gl, "OcclMapMatrix");
-		mViewMatrixUniformLocation = shader.getUniformLocation(gl, "ViewMatrix");
-		mInverseViewMatrixUniformLocation = shader.getUniformLocation(gl, "InverseViewMatrix");
-		mTransposeInverseViewMatrixUniformLocation = shader.getUniformLocation(gl, "TransposeInverseViewMatrix");
-		mSnowAmountUniformLocation = shader.getUniformLocation(gl, "SnowAmount");
+		/* Give back textures shared through the texture cache (once); others belong to whoever set them. */
+		TextureCache cache = TextureCache.getShared();
+		if (cache.release(gl, mDiffuseTexture))
+		{
+			mDiffuseTexture = null;
+		}
+		if (cache.release(gl, mSpecularTexture))
+		{
+			mSpecularTexture = null;
+		}
+		if (cache.release(gl, mExponentTexture))
+		{
+			mExponentTexture = null;
+		}
 	}
 
 	@Override
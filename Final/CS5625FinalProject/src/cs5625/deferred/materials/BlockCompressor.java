@@ -0,0 +1,738 @@
+package cs5625.deferred.materials;
+
+import cs5625.deferred.materials.Texture.Format;
+
+/**
+ * BlockCompressor.java
+ *
+ * Encodes and decodes the S3TC block compressed formats, DXT1 (BC1) and DXT5 (BC3), on the CPU.
+ *
+ * Both formats store each 4x4 block of texels in a fixed number of bytes: DXT1 in 8 (two RGB565 end
+ * points and a 2-bit index per texel, a 1-bit alpha if the block has any transparency), DXT5 in 16 (an
+ * 8-bit alpha block with two end points and 3-bit indices, followed by a DXT1-style color block). Blocks
+ * are stored row by row, and rows of texels within a block in the same order as the image's rows, so
+ * compressing bottom-first RGBA data gives bottom-first blocks, as OpenGL expects.
+ *
+ * The color encoder picks end points along the principal axis of each block's colors, then refits them
+ * by least squares to the chosen indices, keeping whichever of the two has less error; blocks of a single
+ * color use end points looked up to blend to it exactly or nearly so. Texels outside the image in blocks
+ * on its right or top edge repeat the nearest texel inside.
+ *
+ * Decoding is used where the driver lacks S3TC support, and to measure encoder quality.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class BlockCompressor
+{
+	/** Bytes per block of DXT1 data. */
+	public static final int DXT1_BLOCK_BYTES = 8;
+
+	/** Bytes per block of DXT5 data. */
+	public static final int DXT5_BLOCK_BYTES = 16;
+
+	/* Texels with alpha below this are transparent in DXT1. */
+	private static final int DXT1_ALPHA_THRESHOLD = 128;
+
+	/*
+	 * For each 8-bit value, the 5- and 6-bit end points (end0 << 8 | end1) whose 2/3 : 1/3 blend comes
+	 * closest to it, so blocks of one color are reproduced far better than by rounding to 565.
+	 */
+	private static final int SINGLE_COLOR_5[] = computeSingleColorTable(5);
+	private static final int SINGLE_COLOR_6[] = computeSingleColorTable(6);
+
+	/**
+	 * Returns the size of an image in a compressed format, in bytes.
+	 */
+	public static int getCompressedSize(Format format, int width, int height)
+	{
+		return ((width + 3) / 4) * ((height + 3) / 4) * format.getBlockBytes();
+	}
+
+	/**
+	 * Compresses RGBA8 pixels to DXT1 or DXT5. For DXT1, texels with alpha below 128 become transparent
+	 * and the rest opaque.
+	 */
+	public static byte[] encode(Format format, byte rgba[], int width, int height)
+	{
+		byte result[] = new byte[getCompressedSize(format, width, height)];
+		encodeBlockRows(format, rgba, width, height, result, 0, (height + 3) / 4);
+		return result;
+	}
+
+	/**
+	 * Compresses rows [first, end) of 4x4 blocks of RGBA8 pixels into their place in `result`, which holds
+	 * the whole compressed image. Separate ranges of rows can be compressed in parallel.
+	 */
+	public static void encodeBlockRows(Format format, byte rgba[], int width, int height, byte result[], int first, int end)
+	{
+		checkFormat(format);
+
+		int blockBytes = format.getBlockBytes();
+		int block[] = new int[16 * 4];
+		int offset = first * ((width + 3) / 4) * blockBytes;
+
+		for (int by = first * 4; by < end * 4; by += 4)
+		{
+			for (int bx = 0; bx < width; bx += 4)
+			{
+				gatherBlock(rgba, width, height, bx, by, block);
+
+				if (format == Format.DXT1)
+				{
+					encodeColorBlock(block, true, result, offset);
+				}
+				else
+				{
+					encodeAlphaBlock(block, result, offset);
+					encodeColorBlock(block, false, result, offset + 8);
+				}
+
+				offset += blockBytes;
+			}
+		}
+	}
+
+	/**
+	 * Decompresses DXT1 or DXT5 data to RGBA8 pixels.
+	 */
+	public static byte[] decode(Format format, byte blocks[], int width, int height)
+	{
+		checkFormat(format);
+
+		byte result[] = new byte[width * height * 4];
+		int blockBytes = format.getBlockBytes();
+		int block[] = new int[16 * 4];
+		int offset = 0;
+
+		for (int by = 0; by < height; by += 4)
+		{
+			for (int bx = 0; bx < width; bx += 4)
+			{
+				if (format == Format.DXT1)
+				{
+					decodeColorBlock(blocks, offset, true, block);
+				}
+				else
+				{
+					decodeColorBlock(blocks, offset + 8, false, block);
+					decodeAlphaBlock(blocks, offset, block);
+				}
+
+				scatterBlock(block, result, width, height, bx, by);
+				offset += blockBytes;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns compressed data with its rows in the opposite order, e.g. to turn the top-first images of
+	 * DDS files into the bottom-first images OpenGL takes.
+	 *
+	 * Blocks are moved and their index rows reversed, which is lossless, unless the height is above 4 and
+	 * not a multiple of it: then the padding in the last row of blocks would end up in the first, so the
+	 * image is decompressed, flipped and compressed again.
+	 */
+	public static byte[] flipVertically(Format format, byte blocks[], int width, int height)
+	{
+		checkFormat(format);
+
+		if (height > 4 && height % 4 != 0)
+		{
+			byte rgba[] = decode(format, blocks, width, height);
+			byte flipped[] = new byte[rgba.length];
+			int rowBytes = width * 4;
+
+			for (int y = 0; y < height; ++y)
+			{
+				System.arraycopy(rgba, y * rowBytes, flipped, (height - 1 - y) * rowBytes, rowBytes);
+			}
+
+			return encode(format, flipped, width, height);
+		}
+
+		int blockBytes = format.getBlockBytes();
+		int blockRowBytes = ((width + 3) / 4) * blockBytes;
+		int blockRows = (height + 3) / 4;
+		int rows = Math.min(4, height);
+		byte result[] = new byte[blocks.length];
+
+		for (int by = 0; by < blockRows; ++by)
+		{
+			System.arraycopy(blocks, by * blockRowBytes, result, (blockRows - 1 - by) * blockRowBytes, blockRowBytes);
+		}
+
+		for (int offset = 0; offset < result.length; offset += blockBytes)
+		{
+			int colorOffset = offset;
+
+			if (format == Format.DXT5)
+			{
+				/* 16 3-bit alpha indices, 12 bits per row. */
+				long bits = 0;
+				for (int i = 5; i >= 0; --i)
+				{
+					bits = (bits << 8) | (result[offset + 2 + i] & 0xff);
+				}
+
+				long flippedBits = bits;
+				for (int y = 0; y < rows; ++y)
+				{
+					long row = (bits >>> (12 * y)) & 0xfff;
+					int shift = 12 * (rows - 1 - y);
+					flippedBits = (flippedBits & ~(0xfffL << shift)) | (row << shift);
+				}
+
+				for (int i = 0; i < 6; ++i)
+				{
+					result[offset + 2 + i] = (byte)(flippedBits >>> (8 * i));
+				}
+
+				colorOffset += 8;
+			}
+
+			/* 16 2-bit color indices, a byte per row. */
+			for (int y = 0; y < rows / 2; ++y)
+			{
+				byte swap = result[colorOffset + 4 + y];
+				result[colorOffset + 4 + y] = result[colorOffset + 4 + rows - 1 - y];
+				result[colorOffset + 4 + rows - 1 - y] = swap;
+			}
+		}
+
+		return result;
+	}
+
+	private static void checkFormat(Format format)
+	{
+		if (!format.isCompressed())
+		{
+			throw new IllegalArgumentException(format + " is not a block compressed format.");
+		}
+	}
+
+	/**
+	 * Copies the 4x4 block at (bx, by) into `block` as 16 RGBA ints per channel, clamping at the image's edges.
+	 */
+	private static void gatherBlock(byte rgba[], int width, int height, int bx, int by, int block[])
+	{
+		for (int y = 0; y < 4; ++y)
+		{
+			int row = Math.min(by + y, height - 1) * width;
+
+			for (int x = 0; x < 4; ++x)
+			{
+				int src = (row + Math.min(bx + x, width - 1)) * 4;
+				int dst = (y * 4 + x) * 4;
+
+				block[dst] = rgba[src] & 0xff;
+				block[dst + 1] = rgba[src + 1] & 0xff;
+				block[dst + 2] = rgba[src + 2] & 0xff;
+				block[dst + 3] = rgba[src + 3] & 0xff;
+			}
+		}
+	}
+
+	/**
+	 * Copies the parts of a decoded block that lie inside the image into it.
+	 */
+	private static void scatterBlock(int block[], byte rgba[], int width, int height, int bx, int by)
+	{
+		for (int y = 0; y < 4 && by + y < height; ++y)
+		{
+			for (int x = 0; x < 4 && bx + x < width; ++x)
+			{
+				int src = (y * 4 + x) * 4;
+				int dst = ((by + y) * width + bx + x) * 4;
+
+				rgba[dst] = (byte)block[src];
+				rgba[dst + 1] = (byte)block[src + 1];
+				rgba[dst + 2] = (byte)block[src + 2];
+				rgba[dst + 3] = (byte)block[src + 3];
+			}
+		}
+	}
+
+	/**
+	 * Encodes the colors of a block as 8 bytes at `offset`. With `dxt1`, transparent texels put the block in
+	 * 3-color mode; otherwise the block always uses 4-color mode, as DXT5 color blocks do.
+	 */
+	private static void encodeColorBlock(int block[], boolean dxt1, byte result[], int offset)
+	{
+		boolean transparent = false;
+		if (dxt1)
+		{
+			for (int i = 0; i < 16; ++i)
+			{
+				transparent |= (block[i * 4 + 3] < DXT1_ALPHA_THRESHOLD);
+			}
+		}
+
+		/* Average and covariance of the colors that count. */
+		float mean[] = new float[3];
+		int count = 0;
+		for (int i = 0; i < 16; ++i)
+		{
+			if (!transparent || block[i * 4 + 3] >= DXT1_ALPHA_THRESHOLD)
+			{
+				mean[0] += block[i * 4];
+				mean[1] += block[i * 4 + 1];
+				mean[2] += block[i * 4 + 2];
+				++count;
+			}
+		}
+
+		if (count == 0)
+		{
+			/* Fully transparent DXT1 block: both end points equal (3-color mode), every index 3. */
+			writeColorBlock(result, offset, 0, 0, 0xffffffff);
+			return;
+		}
+
+		mean[0] /= count;
+		mean[1] /= count;
+		mean[2] /= count;
+
+		float cov[] = new float[6];
+		for (int i = 0; i < 16; ++i)
+		{
+			if (!transparent || block[i * 4 + 3] >= DXT1_ALPHA_THRESHOLD)
+			{
+				float r = block[i * 4] - mean[0], g = block[i * 4 + 1] - mean[1], b = block[i * 4 + 2] - mean[2];
+				cov[0] += r * r;
+				cov[1] += r * g;
+				cov[2] += r * b;
+				cov[3] += g * g;
+				cov[4] += g * b;
+				cov[5] += b * b;
+			}
+		}
+
+		/* Principal axis by power iteration. */
+		float axis[] = { 1.0f, 1.0f, 1.0f };
+		for (int iteration = 0; iteration < 8; ++iteration)
+		{
+			float x = cov[0] * axis[0] + cov[1] * axis[1] + cov[2] * axis[2];
+			float y = cov[1] * axis[0] + cov[3] * axis[1] + cov[4] * axis[2];
+			float z = cov[2] * axis[0] + cov[4] * axis[1] + cov[5] * axis[2];
+			float length = Math.max(Math.abs(x), Math.max(Math.abs(y), Math.abs(z)));
+
+			if (length < 1e-6f)
+			{
+				break;
+			}
+
+			axis[0] = x / length;
+			axis[1] = y / length;
+			axis[2] = z / length;
+		}
+
+		/* End points: the colors furthest along the axis in either direction. */
+		float minDot = Float.MAX_VALUE, maxDot = -Float.MAX_VALUE;
+		int minIndex = 0, maxIndex = 0;
+		for (int i = 0; i < 16; ++i)
+		{
+			if (!transparent || block[i * 4 + 3] >= DXT1_ALPHA_THRESHOLD)
+			{
+				float dot = block[i * 4] * axis[0] + block[i * 4 + 1] * axis[1] + block[i * 4 + 2] * axis[2];
+				if (dot < minDot)
+				{
+					minDot = dot;
+					minIndex = i;
+				}
+				if (dot > maxDot)
+				{
+					maxDot = dot;
+					maxIndex = i;
+				}
+			}
+		}
+
+		int color0 = packRGB565(block[maxIndex * 4], block[maxIndex * 4 + 1], block[maxIndex * 4 + 2]);
+		int color1 = packRGB565(block[minIndex * 4], block[minIndex * 4 + 1], block[minIndex * 4 + 2]);
+
+		int palette[] = new int[16];
+		int indices[] = new int[16];
+		long error = fitIndices(block, color0, color1, transparent, palette, indices);
+
+		boolean single = true;
+		for (int i = 0; i < 16 && single; ++i)
+		{
+			single = (block[i * 4] == block[minIndex * 4] && block[i * 4 + 1] == block[minIndex * 4 + 1] && block[i * 4 + 2] == block[minIndex * 4 + 2]);
+		}
+
+		if (!transparent && single)
+		{
+			/* One color: blend the end points which come closest to it. */
+			int r = SINGLE_COLOR_5[block[minIndex * 4]], g = SINGLE_COLOR_6[block[minIndex * 4 + 1]], b = SINGLE_COLOR_5[block[minIndex * 4 + 2]];
+			int single0 = ((r >> 8) << 11) | ((g >> 8) << 5) | (b >> 8);
+			int single1 = ((r & 0xff) << 11) | ((g & 0xff) << 5) | (b & 0xff);
+
+			int singleIndices[] = new int[16];
+			long singleError = fitIndices(block, single0, single1, false, palette, singleIndices);
+			if (singleError < error)
+			{
+				color0 = single0;
+				color1 = single1;
+				System.arraycopy(singleIndices, 0, indices, 0, 16);
+			}
+		}
+		else if (!transparent)
+		{
+			/* Refit the end points to the indices by least squares; keep the result if it's better. */
+			int refit[] = new int[2];
+			if (refitEndPoints(block, indices, refit))
+			{
+				int refitIndices[] = new int[16];
+				long refitError = fitIndices(block, refit[0], refit[1], false, palette, refitIndices);
+				if (refitError < error)
+				{
+					color0 = refit[0];
+					color1 = refit[1];
+					System.arraycopy(refitIndices, 0, indices, 0, 16);
+				}
+			}
+		}
+
+		/* Order the end points for the mode: color0 > color1 is 4-color mode, color0 <= color1 3-color. */
+		if (transparent ? color0 > color1 : color0 < color1)
+		{
+			int swap = color0;
+			color0 = color1;
+			color1 = swap;
+
+			for (int i = 0; i < 16; ++i)
+			{
+				/* Swapping the end points swaps indices 0 and 1, and in 4-color mode 2 and 3. */
+				if (indices[i] < 2 || !transparent)
+				{
+					indices[i] ^= 1;
+				}
+			}
+		}
+		else if (!transparent && color0 == color1)
+		{
+			/* Equal end points read as 3-color mode; index 0 is the same color in both modes. */
+			for (int i = 0; i < 16; ++i)
+			{
+				indices[i] = 0;
+			}
+		}
+
+		int bits = 0;
+		for (int i = 15; i >= 0; --i)
+		{
+			bits = (bits << 2) | indices[i];
+		}
+
+		writeColorBlock(result, offset, color0, color1, bits);
+	}
+
+	/**
+	 * Chooses the nearest palette entry for each texel, and returns the total squared error.
+	 * `palette` receives the 4 RGBA palette entries.
+	 */
+	private static long fitIndices(int block[], int color0, int color1, boolean threeColor, int palette[], int indices[])
+	{
+		buildPalette(color0, color1, threeColor, palette);
+		long total = 0;
+
+		for (int i = 0; i < 16; ++i)
+		{
+			int r = block[i * 4], g = block[i * 4 + 1], b = block[i * 4 + 2];
+
+			if (threeColor && block[i * 4 + 3] < DXT1_ALPHA_THRESHOLD)
+			{
+				indices[i] = 3;
+				continue;
+			}
+
+			int best = 0;
+			int bestError = Integer.MAX_VALUE;
+			for (int entry = 0; entry < (threeColor ? 3 : 4); ++entry)
+			{
+				int dr = r - palette[entry * 4], dg = g - palette[entry * 4 + 1], db = b - palette[entry * 4 + 2];
+				int error = dr * dr + dg * dg + db * db;
+				if (error < bestError)
+				{
+					bestError = error;
+					best = entry;
+				}
+			}
+
+			indices[i] = best;
+			total += bestError;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Solves for the 4-color mode end points which best reproduce the block with the given indices.
+	 * Returns false if the indices don't determine them (all texels on one entry).
+	 */
+	private static boolean refitEndPoints(int block[], int indices[], int result[])
+	{
+		/* Weight of color0 for each 4-color index. */
+		final float weights[] = { 1.0f, 0.0f, 2.0f / 3.0f, 1.0f / 3.0f };
+
+		float aa = 0.0f, ab = 0.0f, bb = 0.0f;
+		float ax[] = new float[3], bx[] = new float[3];
+
+		for (int i = 0; i < 16; ++i)
+		{
+			float a = weights[indices[i]];
+			float b = 1.0f - a;
+
+			aa += a * a;
+			ab += a * b;
+			bb += b * b;
+
+			for (int channel = 0; channel < 3; ++channel)
+			{
+				ax[channel] += a * block[i * 4 + channel];
+				bx[channel] += b * block[i * 4 + channel];
+			}
+		}
+
+		float determinant = aa * bb - ab * ab;
+		if (Math.abs(determinant) < 1e-6f)
+		{
+			return false;
+		}
+
+		int end0[] = new int[3], end1[] = new int[3];
+		for (int channel = 0; channel < 3; ++channel)
+		{
+			end0[channel] = Math.round((ax[channel] * bb - bx[channel] * ab) / determinant);
+			end1[channel] = Math.round((bx[channel] * aa - ax[channel] * ab) / determinant);
+		}
+
+		result[0] = packRGB565(end0[0], end0[1], end0[2]);
+		result[1] = packRGB565(end1[0], end1[1], end1[2]);
+		return true;
+	}
+
+	/**
+	 * Fills `palette` with the 4 RGBA colors a color block with the given end points decodes to.
+	 */
+	private static void buildPalette(int color0, int color1, boolean threeColor, int palette[])
+	{
+		unpackRGB565(color0, palette, 0);
+		unpackRGB565(color1, palette, 4);
+
+		for (int channel = 0; channel < 3; ++channel)
+		{
+			int c0 = palette[channel], c1 = palette[4 + channel];
+
+			if (threeColor)
+			{
+				palette[8 + channel] = (c0 + c1) / 2;
+				palette[12 + channel] = 0;
+			}
+			else
+			{
+				palette[8 + channel] = (2 * c0 + c1) / 3;
+				palette[12 + channel] = (c0 + 2 * c1) / 3;
+			}
+		}
+
+		palette[3] = 255;
+		palette[7] = 255;
+		palette[11] = 255;
+		palette[15] = (threeColor ? 0 : 255);
+	}
+
+	/**
+	 * Decodes the color block at `offset` into `block`'s RGBA values. DXT1 blocks switch to 3-color mode
+	 * when color0 <= color1; DXT5 color blocks are always 4-color.
+	 */
+	private static void decodeColorBlock(byte blocks[], int offset, boolean dxt1, int block[])
+	{
+		int color0 = (blocks[offset] & 0xff) | ((blocks[offset + 1] & 0xff) << 8);
+		int color1 = (blocks[offset + 2] & 0xff) | ((blocks[offset + 3] & 0xff) << 8);
+		int bits = (blocks[offset + 4] & 0xff) | ((blocks[offset + 5] & 0xff) << 8) | ((blocks[offset + 6] & 0xff) << 16) | ((blocks[offset + 7] & 0xff) << 24);
+
+		int palette[] = new int[16];
+		buildPalette(color0, color1, dxt1 && color0 <= color1, palette);
+
+		for (int i = 0; i < 16; ++i)
+		{
+			int entry = (bits >>> (2 * i)) & 3;
+			System.arraycopy(palette, entry * 4, block, i * 4, 4);
+		}
+	}
+
+	/**
+	 * Encodes the alphas of a block as an 8-byte DXT5 alpha block at `offset`, in 8-alpha mode.
+	 */
+	private static void encodeAlphaBlock(int block[], byte result[], int offset)
+	{
+		int min = 255, max = 0;
+		for (int i = 0; i < 16; ++i)
+		{
+			min = Math.min(min, block[i * 4 + 3]);
+			max = Math.max(max, block[i * 4 + 3]);
+		}
+
+		int palette[] = new int[8];
+		buildAlphaPalette(max, min, palette);
+
+		long bits = 0;
+		for (int i = 15; i >= 0; --i)
+		{
+			int alpha = block[i * 4 + 3];
+			int best = 0;
+
+			if (max != min)
+			{
+				int bestError = Integer.MAX_VALUE;
+				for (int entry = 0; entry < 8; ++entry)
+				{
+					int error = Math.abs(alpha - palette[entry]);
+					if (error < bestError)
+					{
+						bestError = error;
+						best = entry;
+					}
+				}
+			}
+
+			bits = (bits << 3) | best;
+		}
+
+		result[offset] = (byte)max;
+		result[offset + 1] = (byte)min;
+		for (int i = 0; i < 6; ++i)
+		{
+			result[offset + 2 + i] = (byte)(bits >>> (8 * i));
+		}
+	}
+
+	/**
+	 * Decodes the DXT5 alpha block at `offset` into `block`'s alpha values.
+	 */
+	private static void decodeAlphaBlock(byte blocks[], int offset, int block[])
+	{
+		int alpha0 = blocks[offset] & 0xff;
+		int alpha1 = blocks[offset + 1] & 0xff;
+
+		long bits = 0;
+		for (int i = 5; i >= 0; --i)
+		{
+			bits = (bits << 8) | (blocks[offset + 2 + i] & 0xff);
+		}
+
+		int palette[] = new int[8];
+		buildAlphaPalette(alpha0, alpha1, palette);
+
+		for (int i = 0; i < 16; ++i)
+		{
+			block[i * 4 + 3] = palette[(int)(bits >>> (3 * i)) & 7];
+		}
+	}
+
+	/**
+	 * Fills `palette` with the 8 alphas of a DXT5 alpha block: 8-alpha mode if alpha0 > alpha1, else
+	 * 6 interpolated alphas plus 0 and 255.
+	 */
+	private static void buildAlphaPalette(int alpha0, int alpha1, int palette[])
+	{
+		palette[0] = alpha0;
+		palette[1] = alpha1;
+
+		if (alpha0 > alpha1)
+		{
+			for (int i = 1; i <= 6; ++i)
+			{
+				palette[i + 1] = ((7 - i) * alpha0 + i * alpha1) / 7;
+			}
+		}
+		else
+		{
+			for (int i = 1; i <= 4; ++i)
+			{
+				palette[i + 1] = ((5 - i) * alpha0 + i * alpha1) / 5;
+			}
+			palette[6] = 0;
+			palette[7] = 255;
+		}
+	}
+
+	private static void writeColorBlock(byte result[], int offset, int color0, int color1, int bits)
+	{
+		result[offset] = (byte)color0;
+		result[offset + 1] = (byte)(color0 >> 8);
+		result[offset + 2] = (byte)color1;
+		result[offset + 3] = (byte)(color1 >> 8);
+		result[offset + 4] = (byte)bits;
+		result[offset + 5] = (byte)(bits >> 8);
+		result[offset + 6] = (byte)(bits >> 16);
+		result[offset + 7] = (byte)(bits >>> 24);
+	}
+
+	/**
+	 * Finds, for each 8-bit value, the end points of the given bit depth whose 2/3 : 1/3 blend (as the
+	 * decoder computes it) comes closest.
+	 */
+	private static int[] computeSingleColorTable(int bits)
+	{
+		int table[] = new int[256];
+		int count = 1 << bits;
+
+		for (int value = 0; value < 256; ++value)
+		{
+			int bestError = Integer.MAX_VALUE;
+
+			for (int end0 = 0; end0 < count; ++end0)
+			{
+				for (int end1 = 0; end1 < count; ++end1)
+				{
+					int blend = (2 * expand(end0, bits) + expand(end1, bits)) / 3;
+					int error = Math.abs(blend - value);
+
+					if (error < bestError)
+					{
+						bestError = error;
+						table[value] = (end0 << 8) | end1;
+					}
+				}
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * Expands a 5- or 6-bit channel to 8 bits, replicating high bits.
+	 */
+	private static int expand(int value, int bits)
+	{
+		return (value << (8 - bits)) | (value >> (2 * bits - 8));
+	}
+
+	/**
+	 * Rounds an 8-bit color to RGB565, clamping each channel to [0, 255] first.
+	 */
+	private static int packRGB565(int r, int g, int b)
+	{
+		r = Math.max(0, Math.min(255, r));
+		g = Math.max(0, Math.min(255, g));
+		b = Math.max(0, Math.min(255, b));
+
+		return ((r * 31 + 127) / 255 << 11) | ((g * 63 + 127) / 255 << 5) | ((b * 31 + 127) / 255);
+	}
+
+	/**
+	 * Expands an RGB565 color to 8 bits per channel into `rgba` at `offset`, replicating high bits.
+	 */
+	private static void unpackRGB565(int color, int rgba[], int offset)
+	{
+		rgba[offset] = expand((color >> 11) & 31, 5);
+		rgba[offset + 1] = expand((color >> 5) & 63, 6);
+		rgba[offset + 2] = expand(color & 31, 5);
+		rgba[offset + 3] = 255;
+	}
+}
@@ -0,0 +1,202 @@
+package cs5625.deferred.materials;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+import cs5625.deferred.materials.Texture.Format;
+
+/**
+ * DDSFile.java
+ *
+ * Converts between DDS images and mip chains, so textures can be loaded from precompressed DDS files
+ * with all their levels, and baked chains cached as DDS files.
+ *
+ * DXT1, DXT5, A8R8G8B8, X8R8G8B8 and R8G8B8 images are supported; the uncompressed ones become RGBA8
+ * chains, and DXT1 and DXT5 stay compressed. DDS files made by other tools store the top row first,
+ * so their levels are flipped to the bottom-first order OpenGL takes.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class DDSFile
+{
+	/**
+	 * Reads a DDS file with the top row first, as other tools write them, with all its levels.
+	 *
+	 * @throws IOException If the file can't be read, or isn't a supported 2D DDS image.
+	 */
+	public static MipChain read(URL url) throws IOException
+	{
+		InputStream stream = url.openStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try
+		{
+			byte buffer[] = new byte[64 * 1024];
+			int count;
+
+			while ((count = stream.read(buffer)) > 0)
+			{
+				bytes.write(buffer, 0, count);
+			}
+		}
+		finally
+		{
+			stream.close();
+		}
+
+		DDSImage image = DDSImage.read(ByteBuffer.wrap(bytes.toByteArray()));
+		try
+		{
+			return toMipChain(image, true, url.toString());
+		}
+		finally
+		{
+			image.close();
+		}
+	}
+
+	/**
+	 * Copies the levels of a DDS image into a mip chain.
+	 *
+	 * @param image The image.
+	 * @param topFirst If true, the image stores its top row first, and its levels are flipped.
+	 * @param description Name of the image for error messages.
+	 * @throws IOException If the image isn't a supported 2D image.
+	 */
+	static MipChain toMipChain(DDSImage image, boolean topFirst, String description) throws IOException
+	{
+		if (image.isCubemap())
+		{
+			throw new IOException("DDS image '" + description + "' is a cube map; load its faces from separate files.");
+		}
+
+		int pixelFormat = image.getPixelFormat();
+		Format format;
+
+		switch (pixelFormat)
+		{
+		case DDSImage.D3DFMT_DXT1:     format = Format.DXT1; break;
+		case DDSImage.D3DFMT_DXT5:     format = Format.DXT5; break;
+		case DDSImage.D3DFMT_A8R8G8B8:
+		case DDSImage.D3DFMT_X8R8G8B8:
+		case DDSImage.D3DFMT_R8G8B8:   format = Format.RGBA; break;
+		default:
+			String name = (image.isCompressed() ? DDSImage.getCompressionFormatName(image.getCompressionFormat()) : "uncompressed " + image.getDepth() + "-bit");
+			throw new IOException("DDS image '" + description + "' has unsupported format " + name + ".");
+		}
+
+		DDSImage.ImageInfo infos[] = image.getAllMipMaps();
+		int count = Math.min(infos.length, MipChain.computeLevelCount(image.getWidth(), image.getHeight()));
+		ByteBuffer levels[] = new ByteBuffer[count];
+
+		for (int level = 0; level < count; ++level)
+		{
+			int width = infos[level].getWidth();
+			int height = infos[level].getHeight();
+
+			ByteBuffer data = infos[level].getData().duplicate();
+			data.rewind();
+
+			byte source[] = new byte[data.remaining()];
+			data.get(source);
+
+			byte result[];
+			if (format.isCompressed())
+			{
+				result = (topFirst ? BlockCompressor.flipVertically(format, source, width, height) : source);
+			}
+			else
+			{
+				result = toRGBA(source, pixelFormat, width, height, topFirst);
+			}
+
+			levels[level] = Buffers.newDirectByteBuffer(result);
+		}
+
+		return new MipChain(format, image.getWidth(), image.getHeight(), levels);
+	}
+
+	/**
+	 * Creates a DDS image holding a chain's levels as they are, bottom row first: DXT1 and DXT5 chains
+	 * as such, and RGBA8 chains as A8R8G8B8. The chain must pass `MipCache.canStore()`.
+	 */
+	static DDSImage fromMipChain(MipChain chain)
+	{
+		int d3dFormat;
+
+		switch (chain.getFormat())
+		{
+		case DXT1: d3dFormat = DDSImage.D3DFMT_DXT1; break;
+		case DXT5: d3dFormat = DDSImage.D3DFMT_DXT5; break;
+		default:   d3dFormat = DDSImage.D3DFMT_A8R8G8B8; break;
+		}
+
+		ByteBuffer levels[] = new ByteBuffer[chain.getLevelCount()];
+		for (int level = 0; level < levels.length; ++level)
+		{
+			ByteBuffer data = chain.getData(level).duplicate();
+			data.rewind();
+
+			byte bytes[] = new byte[data.remaining()];
+			data.get(bytes);
+
+			if (!chain.getFormat().isCompressed())
+			{
+				swapRedBlue(bytes);
+			}
+
+			levels[level] = ByteBuffer.wrap(bytes);
+		}
+
+		return DDSImage.createFromData(d3dFormat, chain.getWidth(0), chain.getHeight(0), levels);
+	}
+
+	/**
+	 * Converts a level of an uncompressed DDS image to RGBA8, flipping it if its top row is first.
+	 */
+	private static byte[] toRGBA(byte source[], int pixelFormat, int width, int height, boolean topFirst)
+	{
+		int sourceBytes = (pixelFormat == DDSImage.D3DFMT_R8G8B8 ? 3 : 4);
+		byte result[] = new byte[width * height * 4];
+
+		for (int y = 0; y < height; ++y)
+		{
+			int src = y * width * sourceBytes;
+			int dst = (topFirst ? height - 1 - y : y) * width * 4;
+
+			for (int x = 0; x < width; ++x)
+			{
+				/* Pixels are stored little-endian: B, G, R, then A or X if present. */
+				result[dst] = source[src + 2];
+				result[dst + 1] = source[src + 1];
+				result[dst + 2] = source[src];
+				result[dst + 3] = (pixelFormat == DDSImage.D3DFMT_A8R8G8B8 ? source[src + 3] : (byte)255);
+
+				src += sourceBytes;
+				dst += 4;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Turns RGBA8 pixels into BGRA8 (A8R8G8B8 stored little-endian) in place.
+	 */
+	private static void swapRedBlue(byte pixels[])
+	{
+		for (int i = 0; i + 3 < pixels.length; i += 4)
+		{
+			byte red = pixels[i];
+			pixels[i] = pixels[i + 2];
+			pixels[i + 2] = red;
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package cs5625.deferred.materials;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * ImageConverter.java
+ *
+ * Converts BufferedImages to the RGBA8 pixel data OpenGL expects (Format.RGBA and Datatype.INT8), with
+ * the rows flipped so that the bottom row of the image comes first.
+ *
+ * The common image types ImageIO produces (TYPE_4BYTE_ABGR, TYPE_3BYTE_BGR, TYPE_INT_ARGB, TYPE_INT_RGB,
+ * TYPE_INT_BGR and TYPE_BYTE_GRAY) are converted straight from the raster's backing array a row at a time.
+ * Anything else (indexed colors, premultiplied alpha, 16-bit samples, other color spaces) goes through
+ * `BufferedImage.getRGB()`, which handles every color model but is an order of magnitude slower.
+ *
+ * Gray images are expanded by copying the gray value into red, green and blue. Note that `getRGB()`
+ * treats TYPE_BYTE_GRAY as linear and brightens it on the way to sRGB; the fast path keeps the stored
+ * values, which is what image files mean by them.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ImageConverter
+{
+	/**
+	 * Returns a new direct buffer holding the image's pixels as flipped RGBA8 data, rewound.
+	 */
+	public static ByteBuffer toRGBA(BufferedImage image)
+	{
+		ByteBuffer result = Buffers.newDirectByteBuffer(image.getWidth() * image.getHeight() * 4);
+		toRGBA(image, result);
+		result.rewind();
+		return result;
+	}
+
+	/**
+	 * Writes the image's pixels as flipped RGBA8 data into `result`, starting at its current position,
+	 * which is advanced past the written data.
+	 */
+	public static void toRGBA(BufferedImage image, ByteBuffer result)
+	{
+		if (!convertBytes(image, result) && !convertInts(image, result))
+		{
+			convertGeneric(image, result);
+		}
+	}
+
+	/**
+	 * Returns true if `toRGBA()` can convert the image without going through `getRGB()`.
+	 */
+	public static boolean hasFastPath(BufferedImage image)
+	{
+		switch (image.getType())
+		{
+		case BufferedImage.TYPE_4BYTE_ABGR:
+		case BufferedImage.TYPE_3BYTE_BGR:
+		case BufferedImage.TYPE_BYTE_GRAY:
+			return image.getRaster().getDataBuffer() instanceof DataBufferByte && image.getSampleModel() instanceof ComponentSampleModel;
+		case BufferedImage.TYPE_INT_ARGB:
+		case BufferedImage.TYPE_INT_RGB:
+		case BufferedImage.TYPE_INT_BGR:
+			return image.getRaster().getDataBuffer() instanceof DataBufferInt && image.getSampleModel() instanceof SinglePixelPackedSampleModel;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Converts byte-interleaved images. Returns false if the image isn't one.
+	 */
+	private static boolean convertBytes(BufferedImage image, ByteBuffer result)
+	{
+		int type = image.getType();
+		if (!hasFastPath(image) || (type != BufferedImage.TYPE_4BYTE_ABGR && type != BufferedImage.TYPE_3BYTE_BGR && type != BufferedImage.TYPE_BYTE_GRAY))
+		{
+			return false;
+		}
+
+		int width = image.getWidth();
+		int height = image.getHeight();
+		Raster raster = image.getRaster();
+		ComponentSampleModel model = (ComponentSampleModel)image.getSampleModel();
+		DataBufferByte dataBuffer = (DataBufferByte)raster.getDataBuffer();
+		byte data[] = dataBuffer.getData();
+
+		/* Locate the image's pixels in the backing array; subimages share their parent's array. */
+		int pixelStride = model.getPixelStride();
+		int scanlineStride = model.getScanlineStride();
+		int bandOffsets[] = model.getBandOffsets();
+		int origin = dataBuffer.getOffset() - raster.getSampleModelTranslateY() * scanlineStride - raster.getSampleModelTranslateX() * pixelStride;
+
+		byte row[] = new byte[width * 4];
+
+		for (int y = 0; y < height; ++y)
+		{
+			int src = origin + (height - 1 - y) * scanlineStride;
+			int dst = 0;
+
+			if (type == BufferedImage.TYPE_4BYTE_ABGR)
+			{
+				int r = bandOffsets[0], g = bandOffsets[1], b = bandOffsets[2], a = bandOffsets[3];
+				for (int x = 0; x < width; ++x, src += pixelStride)
+				{
+					row[dst++] = data[src + r];
+					row[dst++] = data[src + g];
+					row[dst++] = data[src + b];
+					row[dst++] = data[src + a];
+				}
+			}
+			else if (type == BufferedImage.TYPE_3BYTE_BGR)
+			{
+				int r = bandOffsets[0], g = bandOffsets[1], b = bandOffsets[2];
+				for (int x = 0; x < width; ++x, src += pixelStride)
+				{
+					row[dst++] = data[src + r];
+					row[dst++] = data[src + g];
+					row[dst++] = data[src + b];
+					row[dst++] = (byte)0xff;
+				}
+			}
+			else
+			{
+				src += bandOffsets[0];
+				for (int x = 0; x < width; ++x, src += pixelStride)
+				{
+					byte gray = data[src];
+					row[dst++] = gray;
+					row[dst++] = gray;
+					row[dst++] = gray;
+					row[dst++] = (byte)0xff;
+				}
+			}
+
+			result.put(row);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Converts int-packed images. Returns false if the image isn't one.
+	 */
+	private static boolean convertInts(BufferedImage image, ByteBuffer result)
+	{
+		int type = image.getType();
+		if (!hasFastPath(image) || (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_BGR))
+		{
+			return false;
+		}
+
+		int width = image.getWidth();
+		int height = image.getHeight();
+		Raster raster = image.getRaster();
+		SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel)image.getSampleModel();
+		DataBufferInt dataBuffer = (DataBufferInt)raster.getDataBuffer();
+		int data[] = dataBuffer.getData();
+
+		int scanlineStride = model.getScanlineStride();
+		int origin = dataBuffer.getOffset() - raster.getSampleModelTranslateY() * scanlineStride - raster.getSampleModelTranslateX();
+
+		/* Shifts taking each channel to the low byte; TYPE_INT_BGR stores red in the low byte. */
+		boolean bgr = (type == BufferedImage.TYPE_INT_BGR);
+		int redShift = (bgr ? 0 : 16);
+		int blueShift = (bgr ? 16 : 0);
+		boolean hasAlpha = (type == BufferedImage.TYPE_INT_ARGB);
+
+		byte row[] = new byte[width * 4];
+
+		for (int y = 0; y < height; ++y)
+		{
+			int src = origin + (height - 1 - y) * scanlineStride;
+			int dst = 0;
+
+			for (int x = 0; x < width; ++x)
+			{
+				int pixel = data[src++];
+				row[dst++] = (byte)(pixel >> redShift);
+				row[dst++] = (byte)(pixel >> 8);
+				row[dst++] = (byte)(pixel >> blueShift);
+				row[dst++] = (hasAlpha ? (byte)(pixel >>> 24) : (byte)0xff);
+			}
+
+			result.put(row);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Converts any image through `getRGB()`, a row at a time.
+	 */
+	private static void convertGeneric(BufferedImage image, ByteBuffer result)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		int pixels[] = new int[width];
+		byte row[] = new byte[width * 4];
+
+		for (int y = 0; y < height; ++y)
+		{
+			/* getRGB() returns ARGB-packed ints. */
+			image.getRGB(0, height - 1 - y, width, 1, pixels, 0, width);
+
+			int dst = 0;
+			for (int x = 0; x < width; ++x)
+			{
+				int pixel = pixels[x];
+				row[dst++] = (byte)(pixel >> 16);
+				row[dst++] = (byte)(pixel >> 8);
+				row[dst++] = (byte)pixel;
+				row[dst++] = (byte)(pixel >>> 24);
+			}
+
+			result.put(row);
+		}
+	}
+}
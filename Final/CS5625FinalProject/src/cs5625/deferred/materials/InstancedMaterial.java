@@ -0,0 +1,107 @@
+package cs5625.deferred.materials;
+
+import javax.media.opengl.GL2;
+import javax.vecmath.Color3f;
+
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.rendering.ShaderProgram;
+
+/**
+ * InstancedMaterial.java
+ *
+ * The material the renderer draws batches of instanced meshes with: unshaded or untextured Lambertian
+ * meshes, each instance with its own modelview matrix and color, uploaded in uniform arrays. Not meant
+ * to be assigned to meshes; see `InstanceBatcher`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class InstancedMaterial extends Material
+{
+	/** Material IDs written to the gbuffer; must match material_unshaded.fp and material_lambertian.fp. */
+	public static final int UNSHADED_MATERIAL_ID = 1;
+	public static final int LAMBERTIAN_MATERIAL_ID = 2;
+
+	private int mMaterialIDUniformLocation = -1;
+	private int mTransformsUniformLocation = -1;
+	private int mColorsUniformLocation = -1;
+
+	/**
+	 * Returns the material ID a mesh's material is drawn with when instanced, or -1 if meshes with that
+	 * material can't be instanced.
+	 */
+	public static int getInstancedMaterialID(Material material)
+	{
+		if (material instanceof UnshadedMaterial)
+		{
+			return UNSHADED_MATERIAL_ID;
+		}
+		else if (material instanceof LambertianMaterial && ((LambertianMaterial)material).getDiffuseTexture() == null)
+		{
+			return LAMBERTIAN_MATERIAL_ID;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the color instances with the given material are drawn with, as in `getInstancedMaterialID()`.
+	 */
+	public static void getInstanceColor(Material material, float color[], int offset)
+	{
+		Color3f c = (material instanceof UnshadedMaterial ? ((UnshadedMaterial)material).getColor() : ((LambertianMaterial)material).getDiffuseColor());
+		color[offset] = c.x;
+		color[offset + 1] = c.y;
+		color[offset + 2] = c.z;
+		color[offset + 3] = 1.0f;
+	}
+
+	@Override
+	public void bind(GL2 gl) throws OpenGLException
+	{
+		getShaderProgram().bind(gl);
+	}
+
+	/**
+	 * Sets the material ID of the instances drawn next. The material must be bound.
+	 */
+	public void setMaterialID(GL2 gl, int materialID)
+	{
+		gl.glUniform1i(mMaterialIDUniformLocation, materialID);
+	}
+
+	/**
+	 * Uploads the transforms and colors of the instances drawn next. The material must be bound.
+	 *
+	 * @param transforms The first three rows of each instance's modelview matrix, 12 floats per instance.
+	 * @param colors Each instance's color, 4 floats per instance (the last is unused).
+	 * @param first Index of the first instance to upload.
+	 * @param count Number of instances to upload, at most `InstanceBatcher.INSTANCES_PER_DRAW`.
+	 */
+	public void setInstances(GL2 gl, float transforms[], float colors[], int first, int count)
+	{
+		gl.glUniform4fv(mTransformsUniformLocation, 3 * count, transforms, 12 * first);
+		gl.glUniform4fv(mColorsUniformLocation, count, colors, 4 * first);
+	}
+
+	@Override
+	public void unbind(GL2 gl)
+	{
+		getShaderProgram().unbind(gl);
+	}
+
+	@Override
+	protected void initializeShader(GL2 gl, ShaderProgram shader)
+	{
+		/* Get locations of uniforms in this shader. */
+		mMaterialIDUniformLocation = shader.getUniformLocation(gl, "MaterialID");
+		mTransformsUniformLocation = shader.getUniformLocation(gl, "InstanceTransforms");
+		mColorsUniformLocation = shader.getUniformLocation(gl, "InstanceColors");
+	}
+
+	@Override
+	public String getShaderIdentifier()
+	{
+		return "shaders/material_instanced";
+	}
+}
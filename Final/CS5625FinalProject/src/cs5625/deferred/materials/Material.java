@@ -34,6 +34,12 @@ public abstract class Material implements OpenGLResourceObject
 	/** This material's shader, if any. */
 	private ShaderProgram mShaderProgram = null;
 	
+	/* Shared empty attribute list, so `getRequiredVertexAttributes()` doesn't allocate per mesh per frame. */
+	protected static final String NO_ATTRIBUTES[] = new String[0];
+	
+	/* Location of the shader's `CompactVertices` uniform, or -1 if it can't decode compact vertex data. */
+	private int mCompactVerticesUniformLocation = -1;
+	
 	/**
 	 * Activates this material, causing it to be applied to all subsequent rendering until deactivated.
 	 * 
@@ -70,7 +76,7 @@ public abstract class Material implements OpenGLResourceObject
 	 */
 	public String[] getRequiredVertexAttributes()
 	{
-		return new String[0];
+		return NO_ATTRIBUTES;
 	}
 	
 	/**
@@ -104,10 +110,32 @@ public abstract class Material implements OpenGLResourceObject
 		if (mShaderProgram != shader)
 		{
 			mShaderProgram = shader;
+			mCompactVerticesUniformLocation = shader.getUniformLocation(gl, "CompactVertices");
 			initializeShader(gl, shader);
 		}
 	}
 	
+	/**
+	 * Returns true if this material's shader can decode compact vertex data (see `CompactVertexData`), 
+	 * which it does by declaring a `CompactVertices` uniform. Only valid after `retrieveShader()`.
+	 */
+	public boolean supportsCompactVertices()
+	{
+		return mCompactVerticesUniformLocation >= 0;
+	}
+	
+	/**
+	 * Tells this material's shader whether the mesh about to be drawn supplies compact vertex data. Must be 
+	 * called between `bind()` and drawing, if `supportsCompactVertices()` is true.
+	 */
+	public void setCompactVertices(GL2 gl, boolean compact)
+	{
+		if (mCompactVerticesUniformLocation >= 0)
+		{
+			gl.glUniform1i(mCompactVerticesUniformLocation, compact ? 1 : 0);
+		}
+	}
+	
 	/**
 	 * Initializes a newly retrieved shader. 
 	 * 
@@ -135,6 +163,9 @@ public abstract class Material implements OpenGLResourceObject
 	/**
 	 * Loads materials from a .mtl file. 
 	 * 
+	 * Texture maps are shared through `TextureCache.getShared()`, and given back when the material's
+	 * GPU resources are released.
+	 * 
 	 * @param identifier The identifier of the material file to load. Of the form 'models/my_materials.mtl'. 
 	 * 
 	 * @return A map containing the named materials loaded from the file, keyed on material name. 
@@ -200,7 +231,7 @@ public abstract class Material implements OpenGLResourceObject
 					String textureName = line.substring("map_Kd".length()).trim();
 					try
 					{
-						currentMaterial.setDiffuseTexture(Texture2D.load(GLU.getCurrentGL().getGL2(), Util.makeIdentifierOfSibling(identifier, textureName)));
+						currentMaterial.setDiffuseTexture(TextureCache.getShared().load(GLU.getCurrentGL().getGL2(), Util.makeIdentifierOfSibling(identifier, textureName)));
 					}
 					catch (OpenGLException err)
 					{
@@ -214,7 +245,7 @@ public abstract class Material implements OpenGLResourceObject
 					String textureName = line.substring("map_Ks".length()).trim();
 					try
 					{
-						currentMaterial.setSpecularTexture(Texture2D.load(GLU.getCurrentGL().getGL2(), Util.makeIdentifierOfSibling(identifier, textureName)));
+						currentMaterial.setSpecularTexture(TextureCache.getShared().load(GLU.getCurrentGL().getGL2(), Util.makeIdentifierOfSibling(identifier, textureName)));
 					}
 					catch (OpenGLException err)
 					{
@@ -0,0 +1,532 @@
+package cs5625.deferred.materials;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Texture.Format;
+
+/**
+ * MipBaker.java
+ *
+ * Computes mip chains on the CPU, so textures can be uploaded with all their levels instead of having
+ * the driver generate them on every load.
+ *
+ * Each level is computed from the one above it with one of two filters:
+ *
+ * - BOX averages each 2x2 block of texels. Without sRGB, this rounds exactly like the GLU kernel
+ *   `HalveImage.halveImage_ubyte()`, so the levels match what `gluBuild2DMipmaps()` would make.
+ * - KAISER applies a separable 6-tap Kaiser-windowed sinc, which keeps distant levels noticeably
+ *   sharper than the box filter does without ringing much.
+ *
+ * With sRGB on, color channels are averaged in linear space and re-encoded, so that distant levels keep
+ * the brightness of the texture instead of darkening its contrasty parts; alpha is always linear. Use
+ * it for color textures, not for normal maps or other data.
+ *
+ * Chains can also be block compressed to DXT1 or DXT5 as they're baked, which cuts their size to an
+ * eighth or a quarter; levels smaller than 4x4 are then left out.
+ *
+ * Levels are computed one after another, with the rows of each level split into bands which run on a
+ * shared fork/join pool. `load()` keeps baked chains in a `MipCache`, so each image is only baked once,
+ * which matters most for compressed chains, as compressing takes much longer than filtering.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MipBaker
+{
+	/**
+	 * The filter used to compute each level from the one above.
+	 */
+	public enum Filter
+	{
+		BOX,
+		KAISER
+	}
+
+	/* Output rows per band; levels with fewer pixels than the threshold run on the calling thread. */
+	private static final int BAND_ROWS = 16;
+	private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+	/* Kaiser window: half-width in output texels, and alpha, as commonly used for mipmapping. */
+	private static final double KAISER_WIDTH = 1.5;
+	private static final double KAISER_ALPHA = 4.0;
+
+	/* Kaiser taps, for source texels 2x - 2 to 2x + 3 of output texel x. */
+	private static final float KAISER_WEIGHTS[] = computeKaiserWeights();
+
+	/* 8-bit values to [0, 1], decoding sRGB or not. */
+	private static final float SRGB_TO_LINEAR[] = new float[256];
+	private static final float UNORM_TO_FLOAT[] = new float[256];
+
+	/* Linear [0, 1] (in steps of 1 / LINEAR_STEPS) to 8-bit sRGB. */
+	private static final int LINEAR_STEPS = 8192;
+	private static final byte LINEAR_TO_SRGB[] = new byte[LINEAR_STEPS + 1];
+
+	static
+	{
+		for (int i = 0; i < 256; ++i)
+		{
+			double value = i / 255.0;
+			SRGB_TO_LINEAR[i] = (float)(value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4));
+			UNORM_TO_FLOAT[i] = (float)value;
+		}
+
+		for (int i = 0; i <= LINEAR_STEPS; ++i)
+		{
+			double value = (double)i / LINEAR_STEPS;
+			double encoded = (value <= 0.0031308 ? value * 12.92 : 1.055 * Math.pow(value, 1.0 / 2.4) - 0.055);
+			LINEAR_TO_SRGB[i] = (byte)Math.round(encoded * 255.0);
+		}
+	}
+
+	/* Pool shared by all bakers, created on first use. */
+	private static ForkJoinPool sPool = null;
+
+	private final Filter mFilter;
+	private final boolean mSRGB;
+	private Format mCompression = Format.RGBA;
+	private MipCache mCache = MipCache.getShared();
+
+	/**
+	 * Creates a baker.
+	 *
+	 * @param filter The filter to compute levels with.
+	 * @param srgb If true, color channels hold sRGB values and are filtered in linear space.
+	 */
+	public MipBaker(Filter filter, boolean srgb)
+	{
+		mFilter = filter;
+		mSRGB = srgb;
+	}
+
+	public Filter getFilter()
+	{
+		return mFilter;
+	}
+
+	public boolean isSRGB()
+	{
+		return mSRGB;
+	}
+
+	/**
+	 * Returns the format chains are baked to: RGBA (uncompressed), DXT1 or DXT5.
+	 */
+	public Format getCompression()
+	{
+		return mCompression;
+	}
+
+	/**
+	 * Sets the format chains are baked to: RGBA to leave them uncompressed (the default), DXT1 for
+	 * opaque or cut-out textures, or DXT5 for textures with smooth alpha.
+	 */
+	public void setCompression(Format compression)
+	{
+		if (compression != Format.RGBA && !compression.isCompressed())
+		{
+			throw new IllegalArgumentException("Can't bake mip chains to " + compression + ".");
+		}
+
+		mCompression = compression;
+	}
+
+	/**
+	 * Returns a short name for this baker's settings, which tells apart chains baked with different ones.
+	 */
+	public String getKey()
+	{
+		String key = mFilter.name().toLowerCase() + (mSRGB ? "-srgb" : "-linear");
+		return (mCompression.isCompressed() ? key + "-" + mCompression.name().toLowerCase() : key);
+	}
+
+	public MipCache getCache()
+	{
+		return mCache;
+	}
+
+	/**
+	 * Sets the cache `load()` uses, or null to always bake.
+	 */
+	public void setCache(MipCache cache)
+	{
+		mCache = cache;
+	}
+
+	/**
+	 * Returns the mip chain of an image file, from the cache if it's there and up to date, and baked
+	 * (and then cached) otherwise.
+	 *
+	 * @throws IOException If the file can't be read or isn't an image.
+	 */
+	public MipChain load(URL url) throws IOException
+	{
+		if (mCache != null)
+		{
+			MipChain cached = mCache.read(url, getKey());
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+
+		MipChain chain = bake(TextureData.read(url));
+
+		if (mCache != null)
+		{
+			mCache.write(url, getKey(), chain);
+		}
+
+		return chain;
+	}
+
+	/**
+	 * Computes the mip chain of an image, compressed if this baker compresses. Uncompressed chains are
+	 * full, and level 0 shares the image's data.
+	 */
+	public MipChain bake(TextureData image)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		ByteBuffer levels[] = new ByteBuffer[MipChain.computeLevelCount(width, height)];
+
+		ByteBuffer base = image.getData().duplicate();
+		base.rewind();
+		levels[0] = base;
+
+		byte current[] = new byte[width * height * 4];
+		base.get(current);
+		base.rewind();
+
+		for (int level = 1; level < levels.length; ++level)
+		{
+			current = halve(current, width, height);
+			width = MipChain.getLevelSize(width, 1);
+			height = MipChain.getLevelSize(height, 1);
+
+			levels[level] = Buffers.newDirectByteBuffer(current.length);
+			levels[level].put(current);
+			levels[level].rewind();
+		}
+
+		MipChain chain = new MipChain(image.getWidth(), image.getHeight(), levels);
+		return (mCompression.isCompressed() ? compress(chain) : chain);
+	}
+
+	/**
+	 * Block compresses the levels of a full RGBA8 chain which are at least 4x4, in bands of block rows.
+	 */
+	private MipChain compress(MipChain chain)
+	{
+		final Format format = mCompression;
+		ByteBuffer levels[] = new ByteBuffer[MipChain.computeCompressedLevelCount(chain.getWidth(0), chain.getHeight(0))];
+
+		for (int level = 0; level < levels.length; ++level)
+		{
+			final int width = chain.getWidth(level);
+			final int height = chain.getHeight(level);
+			final byte source[] = new byte[width * height * 4];
+			final byte result[] = new byte[BlockCompressor.getCompressedSize(format, width, height)];
+
+			ByteBuffer data = chain.getData(level).duplicate();
+			data.rewind();
+			data.get(source);
+
+			runRows((height + 3) / 4, width * 4, new RowKernel() {
+				@Override
+				public void run(int first, int end)
+				{
+					BlockCompressor.encodeBlockRows(format, source, width, height, result, first, end);
+				}
+			});
+
+			levels[level] = Buffers.newDirectByteBuffer(result);
+		}
+
+		return new MipChain(format, chain.getWidth(0), chain.getHeight(0), levels);
+	}
+
+	/**
+	 * Computes the level below a level of the given size.
+	 */
+	private byte[] halve(final byte source[], final int width, final int height)
+	{
+		final int newWidth = MipChain.getLevelSize(width, 1);
+		final int newHeight = MipChain.getLevelSize(height, 1);
+		final byte result[] = new byte[newWidth * newHeight * 4];
+
+		if (mFilter == Filter.BOX)
+		{
+			runRows(newHeight, newWidth, new RowKernel() {
+				@Override
+				public void run(int first, int end)
+				{
+					boxRows(source, width, height, result, newWidth, first, end);
+				}
+			});
+		}
+		else
+		{
+			/* Filter horizontally into linear floats, then vertically back to bytes. */
+			final float horizontal[] = new float[newWidth * height * 4];
+
+			runRows(height, newWidth, new RowKernel() {
+				@Override
+				public void run(int first, int end)
+				{
+					kaiserRowsHorizontal(source, width, horizontal, newWidth, first, end);
+				}
+			});
+
+			runRows(newHeight, newWidth, new RowKernel() {
+				@Override
+				public void run(int first, int end)
+				{
+					kaiserRowsVertical(horizontal, newWidth, height, result, first, end);
+				}
+			});
+		}
+
+		return result;
+	}
+
+	/**
+	 * Box-filters output rows [first, end). Reads past the last row or column of odd-sized levels are
+	 * clamped, so 1-texel-wide levels average pairs.
+	 */
+	private void boxRows(byte source[], int width, int height, byte result[], int newWidth, int first, int end)
+	{
+		int rowBytes = width * 4;
+
+		for (int y = first; y < end; ++y)
+		{
+			int row0 = Math.min(2 * y, height - 1) * rowBytes;
+			int row1 = Math.min(2 * y + 1, height - 1) * rowBytes;
+			int dst = y * newWidth * 4;
+
+			for (int x = 0; x < newWidth; ++x)
+			{
+				int col0 = Math.min(2 * x, width - 1) * 4;
+				int col1 = Math.min(2 * x + 1, width - 1) * 4;
+				int a = row0 + col0, b = row0 + col1, c = row1 + col0, d = row1 + col1;
+
+				if (mSRGB)
+				{
+					for (int channel = 0; channel < 3; ++channel)
+					{
+						float sum = SRGB_TO_LINEAR[source[a + channel] & 0xff] + SRGB_TO_LINEAR[source[b + channel] & 0xff]
+								  + SRGB_TO_LINEAR[source[c + channel] & 0xff] + SRGB_TO_LINEAR[source[d + channel] & 0xff];
+						result[dst + channel] = encodeSRGB(0.25f * sum);
+					}
+
+					result[dst + 3] = (byte)(((source[a + 3] & 0xff) + (source[b + 3] & 0xff) + (source[c + 3] & 0xff) + (source[d + 3] & 0xff) + 2) >> 2);
+				}
+				else
+				{
+					for (int channel = 0; channel < 4; ++channel)
+					{
+						result[dst + channel] = (byte)(((source[a + channel] & 0xff) + (source[b + channel] & 0xff)
+													  + (source[c + channel] & 0xff) + (source[d + channel] & 0xff) + 2) >> 2);
+					}
+				}
+
+				dst += 4;
+			}
+		}
+	}
+
+	/**
+	 * Filters source rows [first, end) horizontally, to half width, into linear floats.
+	 */
+	private void kaiserRowsHorizontal(byte source[], int width, float horizontal[], int newWidth, int first, int end)
+	{
+		float colorTable[] = (mSRGB ? SRGB_TO_LINEAR : UNORM_TO_FLOAT);
+
+		for (int y = first; y < end; ++y)
+		{
+			int row = y * width * 4;
+			int dst = y * newWidth * 4;
+
+			for (int x = 0; x < newWidth; ++x)
+			{
+				float r = 0.0f, g = 0.0f, b = 0.0f, a = 0.0f;
+
+				for (int tap = 0; tap < KAISER_WEIGHTS.length; ++tap)
+				{
+					int src = row + Math.max(0, Math.min(width - 1, 2 * x - 2 + tap)) * 4;
+					float weight = KAISER_WEIGHTS[tap];
+
+					r += weight * colorTable[source[src] & 0xff];
+					g += weight * colorTable[source[src + 1] & 0xff];
+					b += weight * colorTable[source[src + 2] & 0xff];
+					a += weight * UNORM_TO_FLOAT[source[src + 3] & 0xff];
+				}
+
+				horizontal[dst++] = r;
+				horizontal[dst++] = g;
+				horizontal[dst++] = b;
+				horizontal[dst++] = a;
+			}
+		}
+	}
+
+	/**
+	 * Filters output rows [first, end) vertically from the horizontally filtered level, back to bytes.
+	 */
+	private void kaiserRowsVertical(float horizontal[], int newWidth, int height, byte result[], int first, int end)
+	{
+		int rowFloats = newWidth * 4;
+
+		for (int y = first; y < end; ++y)
+		{
+			int dst = y * rowFloats;
+
+			for (int i = 0; i < rowFloats; ++i)
+			{
+				float sum = 0.0f;
+
+				for (int tap = 0; tap < KAISER_WEIGHTS.length; ++tap)
+				{
+					int row = Math.max(0, Math.min(height - 1, 2 * y - 2 + tap));
+					sum += KAISER_WEIGHTS[tap] * horizontal[row * rowFloats + i];
+				}
+
+				/* Every fourth value is alpha, which is stored linearly. */
+				if (mSRGB && (i & 3) != 3)
+				{
+					result[dst + i] = encodeSRGB(sum);
+				}
+				else
+				{
+					result[dst + i] = (byte)Math.round(255.0f * Math.max(0.0f, Math.min(1.0f, sum)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Encodes a linear value as 8-bit sRGB, clamping to [0, 1].
+	 */
+	private static byte encodeSRGB(float linear)
+	{
+		int index = (int)(linear * LINEAR_STEPS + 0.5f);
+		return LINEAR_TO_SRGB[Math.max(0, Math.min(LINEAR_STEPS, index))];
+	}
+
+	/**
+	 * Computes the normalized Kaiser-windowed sinc weights for 2:1 downsampling. Tap t reads the source
+	 * texel whose center is t - 2.5 source texels, or (t - 2.5) / 2 output texels, from the output texel's.
+	 */
+	private static float[] computeKaiserWeights()
+	{
+		double weights[] = new double[6];
+		double total = 0.0;
+
+		for (int tap = 0; tap < weights.length; ++tap)
+		{
+			double x = (tap - 2.5) / 2.0;
+			double sinc = Math.sin(Math.PI * x) / (Math.PI * x);
+			double t = x / KAISER_WIDTH;
+			double window = besselI0(KAISER_ALPHA * Math.sqrt(Math.max(0.0, 1.0 - t * t))) / besselI0(KAISER_ALPHA);
+
+			weights[tap] = sinc * window;
+			total += weights[tap];
+		}
+
+		float result[] = new float[weights.length];
+		for (int tap = 0; tap < weights.length; ++tap)
+		{
+			result[tap] = (float)(weights[tap] / total);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The zeroth-order modified Bessel function of the first kind, by its power series.
+	 */
+	private static double besselI0(double x)
+	{
+		double sum = 1.0;
+		double term = 1.0;
+		double halfX = x / 2.0;
+
+		for (int k = 1; k < 32; ++k)
+		{
+			term *= halfX / k;
+			sum += term * term;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Work on a range of rows of a level.
+	 */
+	private interface RowKernel
+	{
+		public void run(int first, int end);
+	}
+
+	/**
+	 * Splits a range of rows in half until each part is a band, and runs the bands in parallel.
+	 */
+	private static class BandTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final RowKernel mKernel;
+		private final int mFirst, mEnd;
+
+		BandTask(RowKernel kernel, int first, int end)
+		{
+			mKernel = kernel;
+			mFirst = first;
+			mEnd = end;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (mEnd - mFirst <= BAND_ROWS)
+			{
+				mKernel.run(mFirst, mEnd);
+			}
+			else
+			{
+				int middle = (mFirst + mEnd) >>> 1;
+				invokeAll(new BandTask(mKernel, mFirst, middle), new BandTask(mKernel, middle, mEnd));
+			}
+		}
+	}
+
+	/**
+	 * Runs a kernel over rows [0, rowCount) of a level `width` pixels wide, in parallel if it's large.
+	 */
+	private static void runRows(int rowCount, int width, RowKernel kernel)
+	{
+		if ((long)rowCount * width < PARALLEL_THRESHOLD)
+		{
+			kernel.run(0, rowCount);
+		}
+		else
+		{
+			getPool().invoke(new BandTask(kernel, 0, rowCount));
+		}
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (sPool == null)
+		{
+			sPool = new ForkJoinPool();
+		}
+
+		return sPool;
+	}
+}
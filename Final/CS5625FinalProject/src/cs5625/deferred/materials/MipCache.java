@@ -0,0 +1,200 @@
+package cs5625.deferred.materials;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * MipCache.java
+ *
+ * Keeps baked mip chains on disk as DDS files, so textures are only baked once rather than on every run.
+ * A cached chain is used as long as its file is newer than the image it was baked from.
+ *
+ * Chains are stored with every level they have, as D3DFMT_A8R8G8B8 if uncompressed and as DXT1 or DXT5
+ * if compressed (see `DDSFile`). Rows are stored bottom first, as OpenGL takes them, so other DDS viewers
+ * show the images upside down. DDS requires each level to be a quarter of the one above, which only holds
+ * for square power-of-two images; other chains are simply not cached.
+ *
+ * Failing to read or write the cache is never an error; the chain is baked instead.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MipCache
+{
+	/* The cache bakers use by default, created by `getShared()`. */
+	private static MipCache sShared = null;
+
+	private final File mDirectory;
+
+	private int mHitCount = 0;
+	private int mMissCount = 0;
+
+	/**
+	 * Creates a cache keeping its files in the given directory, which is created when first written to.
+	 */
+	public MipCache(File directory)
+	{
+		mDirectory = directory;
+	}
+
+	/**
+	 * Returns the cache shared by all bakers, in "cs5625-mip-cache" under the system's temporary directory.
+	 */
+	public static synchronized MipCache getShared()
+	{
+		if (sShared == null)
+		{
+			sShared = new MipCache(new File(System.getProperty("java.io.tmpdir"), "cs5625-mip-cache"));
+		}
+
+		return sShared;
+	}
+
+	public File getDirectory()
+	{
+		return mDirectory;
+	}
+
+	/**
+	 * Returns the cached chain baked from the given image with the given baker settings, or null if
+	 * there is none or it's older than the image.
+	 */
+	public synchronized MipChain read(URL source, String bakerKey)
+	{
+		File file = getFile(source, bakerKey);
+		if (!file.isFile() || file.lastModified() < getLastModified(source))
+		{
+			++mMissCount;
+			return null;
+		}
+
+		DDSImage image = null;
+		try
+		{
+			image = DDSImage.read(file);
+
+			MipChain chain = DDSFile.toMipChain(image, false, file.getPath());
+			++mHitCount;
+			return chain;
+		}
+		catch (Exception err)
+		{
+			/* Unreadable or from an incompatible version; bake again. */
+			++mMissCount;
+			return null;
+		}
+		finally
+		{
+			if (image != null)
+			{
+				image.close();
+			}
+		}
+	}
+
+	/**
+	 * Stores a chain baked from the given image with the given baker settings.
+	 *
+	 * @return False if the chain can't be stored as DDS, or the file couldn't be written.
+	 */
+	public synchronized boolean write(URL source, String bakerKey, MipChain chain)
+	{
+		if (!canStore(chain))
+		{
+			return false;
+		}
+
+		try
+		{
+			if (!mDirectory.isDirectory() && !mDirectory.mkdirs())
+			{
+				return false;
+			}
+
+			/* Write next to the final file and rename, so a reader never sees a partial file. */
+			File file = getFile(source, bakerKey);
+			File temporary = new File(file.getPath() + ".tmp");
+
+			DDSFile.fromMipChain(chain).write(temporary);
+
+			if (file.exists() && !file.delete())
+			{
+				temporary.delete();
+				return false;
+			}
+			return temporary.renameTo(file);
+		}
+		catch (IOException err)
+		{
+			System.out.println("Could not cache mip chain of '" + source + "': " + err.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true if the chain can be stored as DDS: every level must be exactly a quarter of the one above.
+	 */
+	public static boolean canStore(MipChain chain)
+	{
+		for (int level = 1; level < chain.getLevelCount(); ++level)
+		{
+			if (chain.getWidth(level) * 2 != chain.getWidth(level - 1) || chain.getHeight(level) * 2 != chain.getHeight(level - 1))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the number of `read()` calls which found an up-to-date chain.
+	 */
+	public synchronized int getHitCount()
+	{
+		return mHitCount;
+	}
+
+	/**
+	 * Returns the number of `read()` calls which didn't.
+	 */
+	public synchronized int getMissCount()
+	{
+		return mMissCount;
+	}
+
+	/**
+	 * Returns the cache file for an image and baker settings, named after the image's URL.
+	 */
+	private File getFile(URL source, String bakerKey)
+	{
+		String name = source.toString();
+		int hash = name.hashCode();
+
+		/* Keep the end of the path readable, and make the name unique with the hash of the whole URL. */
+		name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+		return new File(mDirectory, name + "-" + Integer.toHexString(hash) + "-" + bakerKey + ".dds");
+	}
+
+	/**
+	 * Returns when the resource at a URL was last modified, or 0 if unknown.
+	 */
+	private static long getLastModified(URL url)
+	{
+		try
+		{
+			URLConnection connection = url.openConnection();
+			long modified = connection.getLastModified();
+			connection.getInputStream().close();
+			return modified;
+		}
+		catch (IOException err)
+		{
+			return 0;
+		}
+	}
+}
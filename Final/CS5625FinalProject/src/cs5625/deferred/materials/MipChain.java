@@ -0,0 +1,187 @@
+package cs5625.deferred.materials;
+
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Texture.Format;
+
+/**
+ * MipChain.java
+ *
+ * The mipmap levels of a texture as RGBA8 or block compressed (DXT1 or DXT5) data, bottom row first,
+ * ready to be uploaded level by level. Level 0 is the full image; each further level halves the width
+ * and height (rounding down, but not below 1), as OpenGL expects. A full chain goes down to 1x1, but a
+ * chain may stop earlier; compressed chains stop at the last level both of whose sides are at least 4,
+ * since smaller levels still take a whole block and can't be stored in DDS files.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MipChain
+{
+	private final Format mFormat;
+	private final int mWidths[];
+	private final int mHeights[];
+	private final ByteBuffer mLevels[];
+
+	/**
+	 * Wraps an already computed full chain of RGBA8 levels.
+	 *
+	 * @param width Width of level 0, in pixels.
+	 * @param height Height of level 0, in pixels.
+	 * @param levels Direct buffers holding each level, rewound; there must be `computeLevelCount(width, height)`.
+	 */
+	public MipChain(int width, int height, ByteBuffer levels[])
+	{
+		this(Format.RGBA, width, height, levels);
+
+		if (levels.length != computeLevelCount(width, height))
+		{
+			throw new IllegalArgumentException("A " + width + "x" + height + " image has " + computeLevelCount(width, height) + " mip levels, not " + levels.length + ".");
+		}
+	}
+
+	/**
+	 * Wraps already computed levels.
+	 *
+	 * @param format RGBA (8 bits per channel), DXT1 or DXT5.
+	 * @param width Width of level 0, in pixels.
+	 * @param height Height of level 0, in pixels.
+	 * @param levels Direct buffers holding each level, rewound; at least 1 and at most `computeLevelCount(width, height)`.
+	 */
+	public MipChain(Format format, int width, int height, ByteBuffer levels[])
+	{
+		int count = levels.length;
+		if (count < 1 || count > computeLevelCount(width, height))
+		{
+			throw new IllegalArgumentException("A " + width + "x" + height + " image has at most " + computeLevelCount(width, height) + " mip levels, not " + count + ".");
+		}
+		if (format != Format.RGBA && !format.isCompressed())
+		{
+			throw new IllegalArgumentException("Mip chains can't hold " + format + " data.");
+		}
+
+		mFormat = format;
+		mWidths = new int[count];
+		mHeights = new int[count];
+		mLevels = levels;
+
+		for (int level = 0; level < count; ++level)
+		{
+			mWidths[level] = getLevelSize(width, level);
+			mHeights[level] = getLevelSize(height, level);
+		}
+	}
+
+	/**
+	 * Returns the number of levels in a full mip chain for an image of the given size.
+	 */
+	public static int computeLevelCount(int width, int height)
+	{
+		int count = 1;
+		int size = Math.max(width, height);
+
+		while (size > 1)
+		{
+			size /= 2;
+			++count;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the size of a level along a dimension whose size is `size` at level 0.
+	 */
+	public static int getLevelSize(int size, int level)
+	{
+		return Math.max(1, size >> level);
+	}
+
+	/**
+	 * Returns the number of levels a chain compressed from a full chain of the given size keeps: those
+	 * at least 4 texels wide and high, or just level 0 if it's smaller.
+	 */
+	public static int computeCompressedLevelCount(int width, int height)
+	{
+		int count = 1;
+
+		while (getLevelSize(width, count) >= 4 && getLevelSize(height, count) >= 4)
+		{
+			++count;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the format of the levels' data: RGBA (8 bits per channel), DXT1 or DXT5.
+	 */
+	public Format getFormat()
+	{
+		return mFormat;
+	}
+
+	public int getLevelCount()
+	{
+		return mLevels.length;
+	}
+
+	public int getWidth(int level)
+	{
+		return mWidths[level];
+	}
+
+	public int getHeight(int level)
+	{
+		return mHeights[level];
+	}
+
+	/**
+	 * Returns the data of a level in the chain's format, with the bottom row first.
+	 */
+	public ByteBuffer getData(int level)
+	{
+		return mLevels[level];
+	}
+
+	/**
+	 * Returns the total size of all levels, in bytes.
+	 */
+	public long getByteSize()
+	{
+		long total = 0;
+		for (ByteBuffer level : mLevels)
+		{
+			total += level.capacity();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns this chain decompressed to RGBA8, e.g. for drivers without S3TC support, or this chain
+	 * if it isn't compressed.
+	 */
+	public MipChain decompress()
+	{
+		if (!mFormat.isCompressed())
+		{
+			return this;
+		}
+
+		ByteBuffer levels[] = new ByteBuffer[mLevels.length];
+		for (int level = 0; level < levels.length; ++level)
+		{
+			ByteBuffer data = mLevels[level].duplicate();
+			data.rewind();
+
+			byte blocks[] = new byte[data.remaining()];
+			data.get(blocks);
+
+			levels[level] = Buffers.newDirectByteBuffer(BlockCompressor.decode(mFormat, blocks, mWidths[level], mHeights[level]));
+		}
+
+		return new MipChain(Format.RGBA, mWidths[0], mHeights[0], levels);
+	}
+}
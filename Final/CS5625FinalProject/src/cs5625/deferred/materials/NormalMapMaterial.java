@@ -31,6 +31,9 @@ public class NormalMapMaterial extends Material{
 	/* Normal map */
 	private Texture2D mNormalTexture = null;
 	
+	/* Returned by `getRequiredVertexAttributes()`; callers must not modify it. */
+	private static final String REQUIRED_ATTRIBUTES[] = new String[] {"VertexTangent"};
+	
 	/* Uniform locations for the shader. */
 	private int mDiffuseUniformLocation = -1;
 	private int mSpecularUniformLocation = -1;
@@ -194,7 +197,7 @@ public class NormalMapMaterial extends Material{
 
 	@Override
 	public String[] getRequiredVertexAttributes() {
-		return new String[] {"VertexTangent"};
+		return REQUIRED_ATTRIBUTES;
 	}
 	
 	@Override
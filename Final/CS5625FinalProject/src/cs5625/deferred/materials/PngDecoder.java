@@ -0,0 +1,171 @@
+package cs5625.deferred.materials;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngjException;
+import jogamp.opengl.util.pngj.chunks.ChunkHelper;
+import jogamp.opengl.util.pngj.chunks.PngChunkPLTE;
+import jogamp.opengl.util.pngj.chunks.PngChunkTRNS;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * PngDecoder.java
+ *
+ * Decodes PNG files straight into RGBA8 texture data with pngj, skipping the BufferedImage ImageIO
+ * would build. Rows come out of the file top first and are each written to their place from the bottom
+ * of the buffer, so no separate flip pass is needed.
+ *
+ * Handles every non-interlaced PNG: gray, gray with alpha, RGB, RGBA and palette images, at any bit
+ * depth. 16-bit samples keep their high byte, 1/2/4-bit gray is scaled up to the full range, and tRNS
+ * transparency (per palette entry, or a transparent gray or RGB value) becomes alpha.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class PngDecoder
+{
+	/**
+	 * Decodes a PNG file from the stream, which is not closed.
+	 *
+	 * @param stream The PNG file.
+	 * @param description Name of the file, for error messages.
+	 * @throws IOException If the stream can't be read, isn't a PNG file, or is interlaced.
+	 */
+	public static TextureData decode(InputStream stream, String description) throws IOException
+	{
+		try
+		{
+			PngReader reader = new PngReader(stream, description);
+			ImageInfo info = reader.imgInfo;
+			int width = info.cols;
+			int height = info.rows;
+
+			/* Palette and transparency come before the pixels. */
+			reader.readFirstChunks();
+			int palette[] = (info.indexed ? readPalette(reader) : null);
+			PngChunkTRNS transparency = (PngChunkTRNS)reader.getMetadata().getChunk1(ChunkHelper.tRNS);
+
+			/* 16-bit samples are shifted down to their high byte; packed gray is scaled up to 8 bits. */
+			int shift = (info.bitDepth == 16 ? 8 : 0);
+			int scale = (info.bitDepth < 8 && !info.indexed ? 255 / ((1 << info.bitDepth) - 1) : 1);
+
+			/* Raw sample values which are transparent, or -1. */
+			int transparentGray = -1;
+			int transparentRGB[] = null;
+			if (transparency != null && info.greyscale)
+			{
+				transparentGray = transparency.getGray();
+			}
+			else if (transparency != null && !info.indexed && !info.alpha)
+			{
+				transparentRGB = transparency.getRGB();
+			}
+
+			ByteBuffer result = Buffers.newDirectByteBuffer(width * height * 4);
+			byte row[] = new byte[width * 4];
+			int unpacked[] = null;
+
+			for (int y = 0; y < height; ++y)
+			{
+				ImageLine line = reader.readRow(y);
+				int samples[] = line.scanline;
+				if (info.packed)
+				{
+					unpacked = line.tf_unpack(unpacked, false);
+					samples = unpacked;
+				}
+
+				int src = 0;
+				int dst = 0;
+
+				if (info.indexed)
+				{
+					for (int x = 0; x < width; ++x)
+					{
+						int color = palette[samples[src++] & 0xff];
+						row[dst++] = (byte)(color >> 24);
+						row[dst++] = (byte)(color >> 16);
+						row[dst++] = (byte)(color >> 8);
+						row[dst++] = (byte)color;
+					}
+				}
+				else if (info.greyscale)
+				{
+					for (int x = 0; x < width; ++x)
+					{
+						int sample = samples[src++];
+						byte gray = (byte)((sample >> shift) * scale);
+						row[dst++] = gray;
+						row[dst++] = gray;
+						row[dst++] = gray;
+						row[dst++] = (info.alpha ? (byte)(samples[src++] >> shift) : (sample == transparentGray ? 0 : (byte)0xff));
+					}
+				}
+				else
+				{
+					for (int x = 0; x < width; ++x)
+					{
+						int r = samples[src++], g = samples[src++], b = samples[src++];
+						row[dst++] = (byte)(r >> shift);
+						row[dst++] = (byte)(g >> shift);
+						row[dst++] = (byte)(b >> shift);
+
+						if (info.alpha)
+						{
+							row[dst++] = (byte)(samples[src++] >> shift);
+						}
+						else
+						{
+							boolean transparent = (transparentRGB != null && r == transparentRGB[0] && g == transparentRGB[1] && b == transparentRGB[2]);
+							row[dst++] = (transparent ? 0 : (byte)0xff);
+						}
+					}
+				}
+
+				/* Row y from the top is row (height - 1 - y) from the bottom. */
+				result.position((height - 1 - y) * width * 4);
+				result.put(row);
+			}
+
+			reader.end();
+			result.rewind();
+			return new TextureData(width, height, result);
+		}
+		catch (PngjException err)
+		{
+			throw new IOException("Could not decode PNG file '" + description + "'.", err);
+		}
+	}
+
+	/**
+	 * Returns the image's palette as 256 RGBA-packed ints (red in the high byte), with entries
+	 * past the end of the palette black and entries past the end of the tRNS alphas opaque.
+	 */
+	private static int[] readPalette(PngReader reader)
+	{
+		int palette[] = new int[256];
+		PngChunkPLTE colors = (PngChunkPLTE)reader.getMetadata().getChunk1(ChunkHelper.PLTE);
+		PngChunkTRNS transparency = (PngChunkTRNS)reader.getMetadata().getChunk1(ChunkHelper.tRNS);
+		int alphas[] = (transparency != null ? transparency.getPalletteAlpha() : null);
+
+		int count = (colors != null ? Math.min(256, colors.getNentries()) : 0);
+		for (int i = 0; i < count; ++i)
+		{
+			int alpha = (alphas != null && i < alphas.length ? alphas[i] & 0xff : 0xff);
+			palette[i] = (colors.getEntry(i) << 8) | alpha;
+		}
+
+		for (int i = count; i < 256; ++i)
+		{
+			palette[i] = 0xff;
+		}
+
+		return palette;
+	}
+}
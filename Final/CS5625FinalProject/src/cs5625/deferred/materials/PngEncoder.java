@@ -0,0 +1,538 @@
+package cs5625.deferred.materials;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import jogamp.opengl.util.pngj.FilterType;
+
+/**
+ * PngEncoder.java
+ *
+ * Encodes RGB8 and RGBA8 images as PNG files on several threads, for large screenshots and bakes which
+ * pngj's `PngWriter` (one thread, one Deflater) is slow on. The image is split into bands of rows, and
+ * each band is filtered and deflated on its own thread:
+ *
+ *   - Each band gets one filter type, picked by trying all five on a sample of its rows and keeping the
+ *     one with the smallest sum of absolute filtered bytes (unless a fixed filter is set).
+ *   - Each band is deflated separately, primed with the last 32 KB of the band before it so little
+ *     compression is lost, and ended with a sync flush so the bands join into one deflate stream.
+ *   - The zlib Adler-32 checksum is computed per band and combined, and each band is written as its
+ *     own IDAT chunk, whose CRC is also computed on the band's thread.
+ *
+ * This is how pigz compresses in parallel. The result is an ordinary PNG file that any decoder reads,
+ * pngj's `PngReader` included.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class PngEncoder
+{
+	/** Default number of raw bytes per band; smaller bands share out better, but compress a little worse. */
+	public static final int DEFAULT_BAND_BYTES = 256 * 1024;
+
+	/** Default zlib compression level. */
+	public static final int DEFAULT_COMP_LEVEL = 6;
+
+	private static final byte SIGNATURE[] = { (byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+	/* Deflate's window: how much of the previous band each band may refer back to. */
+	private static final int DICTIONARY_BYTES = 32 * 1024;
+
+	/* The largest prime below 2^16, which Adler-32 sums are taken modulo. */
+	private static final int ADLER_BASE = 65521;
+
+	/* Adaptive filtering tries every filter on one row in this many. */
+	private static final int FILTER_SAMPLE_ROWS = 4;
+
+	private final ExecutorService mThreads;
+	private final int mThreadCount;
+	private int mCompLevel = DEFAULT_COMP_LEVEL;
+	private FilterType mFilterType = FilterType.FILTER_DEFAULT;
+	private int mBandBytes = DEFAULT_BAND_BYTES;
+
+	/* A filtered band, and what deflating it produced. */
+	private static class Band
+	{
+		final int firstRow;
+		final int rowCount;
+		byte filtered[];
+		int filteredLength;
+		long adler;
+		int filterType;
+		byte chunk[];
+		int chunkLength;
+
+		Band(int firstRow, int rowCount)
+		{
+			this.firstRow = firstRow;
+			this.rowCount = rowCount;
+		}
+	}
+
+	/**
+	 * Creates an encoder.
+	 *
+	 * @param threadCount Number of threads bands are encoded on.
+	 */
+	public PngEncoder(int threadCount)
+	{
+		mThreadCount = Math.max(1, threadCount);
+		mThreads = Executors.newFixedThreadPool(mThreadCount, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "PNG encoder");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Creates an encoder with one thread per processor.
+	 */
+	public PngEncoder()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Sets the zlib compression level, 0 (stored) to 9 (smallest), as `PngWriter.setCompLevel()`.
+	 */
+	public void setCompLevel(int compLevel)
+	{
+		mCompLevel = Math.max(0, Math.min(9, compLevel));
+	}
+
+	public int getCompLevel()
+	{
+		return mCompLevel;
+	}
+
+	/**
+	 * Sets the row filter of every band; FILTER_DEFAULT, FILTER_AGGRESSIVE and the other strategies pick
+	 * one per band.
+	 */
+	public void setFilterType(FilterType filterType)
+	{
+		mFilterType = filterType;
+	}
+
+	public FilterType getFilterType()
+	{
+		return mFilterType;
+	}
+
+	/**
+	 * Sets the number of raw bytes per band; bands always hold whole rows, at least one.
+	 */
+	public void setBandBytes(int bandBytes)
+	{
+		mBandBytes = Math.max(1, bandBytes);
+	}
+
+	public int getBandBytes()
+	{
+		return mBandBytes;
+	}
+
+	public int getThreadCount()
+	{
+		return mThreadCount;
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, as a PNG file to a stream, which is not closed.
+	 */
+	public void encode(OutputStream stream, ByteBuffer pixels, int width, int height, boolean alpha) throws IOException
+	{
+		if (width < 1 || height < 1)
+		{
+			throw new IOException("Can't encode a " + width + "x" + height + " PNG image.");
+		}
+
+		final int channels = (alpha ? 4 : 3);
+		final int rowBytes = width * channels;
+		final ByteBuffer source = pixels.duplicate();
+		final int imageHeight = height;
+
+		/* Split the image into bands of whole rows. */
+		int bandRows = Math.max(1, mBandBytes / rowBytes);
+		final List<Band> bands = new ArrayList<Band>();
+		for (int row = 0; row < height; row += bandRows)
+		{
+			bands.add(new Band(row, Math.min(bandRows, height - row)));
+		}
+
+		final FilterType filterType = mFilterType;
+		final int compLevel = mCompLevel;
+
+		/* Filter every band, and sum its Adler-32; filtering only reads the image, so bands don't wait on each other. */
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (final Band band : bands)
+		{
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call()
+				{
+					filterBand(band, source, rowBytes, channels, imageHeight, filterType);
+					return null;
+				}
+			});
+		}
+		run(tasks);
+
+		/* Deflate every band, primed with the end of the one before. */
+		tasks.clear();
+		for (int i = 0; i < bands.size(); ++i)
+		{
+			final Band band = bands.get(i);
+			final Band previous = (i > 0 ? bands.get(i - 1) : null);
+			final boolean last = (i == bands.size() - 1);
+
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call()
+				{
+					deflateBand(band, previous, last, compLevel);
+					return null;
+				}
+			});
+		}
+		run(tasks);
+
+		/* Stitch: the zlib header goes before the first band, and the combined checksum after the last. */
+		long adler = 1;
+		for (Band band : bands)
+		{
+			adler = combineAdler32(adler, band.adler, band.filteredLength);
+		}
+
+		byte header[] = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8;
+		header[9] = (byte)(alpha ? 6 : 2);
+
+		stream.write(SIGNATURE);
+		writeChunk(stream, "IHDR", header, header.length);
+		writeChunk(stream, "IDAT", zlibHeader(compLevel), 2);
+
+		for (Band band : bands)
+		{
+			stream.write(band.chunk, 0, band.chunkLength);
+			band.chunk = null;
+		}
+
+		byte trailer[] = new byte[4];
+		putInt(trailer, 0, (int)adler);
+		writeChunk(stream, "IDAT", trailer, 4);
+		writeChunk(stream, "IEND", trailer, 0);
+		stream.flush();
+	}
+
+	/**
+	 * Stops the encoding threads.
+	 */
+	public void shutdown()
+	{
+		mThreads.shutdown();
+	}
+
+	/**
+	 * Runs tasks on the encoding threads and waits for all of them.
+	 */
+	private void run(List<Callable<Object>> tasks) throws IOException
+	{
+		try
+		{
+			for (Future<Object> future : mThreads.invokeAll(tasks))
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException err)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while encoding PNG image.", err);
+		}
+		catch (ExecutionException err)
+		{
+			throw new IOException("Could not encode PNG image.", err.getCause());
+		}
+	}
+
+	/**
+	 * Filters a band's rows, each prefixed with its filter type byte as PNG stores them.
+	 */
+	private static void filterBand(Band band, ByteBuffer source, int rowBytes, int channels, int imageHeight, FilterType filterType)
+	{
+		byte rows[] = new byte[(band.rowCount + 1) * rowBytes];
+
+		/* PNG rows go top first; row y of the file is row (height - 1 - y) of the buffer. Read the band
+		 * and the row above it, which the first row is filtered against (zeros above the top row). */
+		for (int i = 0; i <= band.rowCount; ++i)
+		{
+			int fileRow = band.firstRow - 1 + i;
+			if (fileRow >= 0)
+			{
+				ByteBuffer row = source.duplicate();
+				row.position((imageHeight - 1 - fileRow) * rowBytes);
+				row.get(rows, i * rowBytes, rowBytes);
+			}
+		}
+
+		band.filterType = (filterType.val >= 0 ? filterType.val : chooseFilter(rows, band.rowCount, rowBytes, channels));
+		band.filteredLength = band.rowCount * (rowBytes + 1);
+		band.filtered = new byte[band.filteredLength];
+
+		for (int i = 0; i < band.rowCount; ++i)
+		{
+			int dst = i * (rowBytes + 1);
+			band.filtered[dst] = (byte)band.filterType;
+			filterRow(band.filterType, rows, (i + 1) * rowBytes, i * rowBytes, rowBytes, channels, band.filtered, dst + 1);
+		}
+
+		Adler32 adler = new Adler32();
+		adler.update(band.filtered, 0, band.filteredLength);
+		band.adler = adler.getValue();
+	}
+
+	/**
+	 * Returns the filter whose output over a sample of the band's rows has the smallest sum of absolute
+	 * values (taking bytes as signed), the usual guess at what deflates best.
+	 */
+	private static int chooseFilter(byte rows[], int rowCount, int rowBytes, int channels)
+	{
+		byte scratch[] = new byte[rowBytes];
+		long best = Long.MAX_VALUE;
+		int bestType = 0;
+
+		for (int type = 0; type < 5; ++type)
+		{
+			long sum = 0;
+			for (int i = 0; i < rowCount; i += FILTER_SAMPLE_ROWS)
+			{
+				filterRow(type, rows, (i + 1) * rowBytes, i * rowBytes, rowBytes, channels, scratch, 0);
+				for (int x = 0; x < rowBytes; ++x)
+				{
+					sum += Math.abs(scratch[x]);
+				}
+			}
+
+			if (sum < best)
+			{
+				best = sum;
+				bestType = type;
+			}
+		}
+
+		return bestType;
+	}
+
+	/**
+	 * Applies one of the five PNG filters to a row.
+	 *
+	 * @param rows Holds the row at `row` and the row above it at `above`.
+	 */
+	private static void filterRow(int type, byte rows[], int row, int above, int rowBytes, int channels, byte result[], int dst)
+	{
+		switch (type)
+		{
+		case 0:
+			System.arraycopy(rows, row, result, dst, rowBytes);
+			break;
+		case 1:
+			for (int x = 0; x < rowBytes; ++x)
+			{
+				int left = (x >= channels ? rows[row + x - channels] : 0);
+				result[dst + x] = (byte)(rows[row + x] - left);
+			}
+			break;
+		case 2:
+			for (int x = 0; x < rowBytes; ++x)
+			{
+				result[dst + x] = (byte)(rows[row + x] - rows[above + x]);
+			}
+			break;
+		case 3:
+			for (int x = 0; x < rowBytes; ++x)
+			{
+				int left = (x >= channels ? rows[row + x - channels] & 0xff : 0);
+				int up = rows[above + x] & 0xff;
+				result[dst + x] = (byte)(rows[row + x] - ((left + up) >> 1));
+			}
+			break;
+		default:
+			for (int x = 0; x < rowBytes; ++x)
+			{
+				int left = (x >= channels ? rows[row + x - channels] & 0xff : 0);
+				int up = rows[above + x] & 0xff;
+				int upLeft = (x >= channels ? rows[above + x - channels] & 0xff : 0);
+				result[dst + x] = (byte)(rows[row + x] - paeth(left, up, upLeft));
+			}
+			break;
+		}
+	}
+
+	private static int paeth(int a, int b, int c)
+	{
+		int p = a + b - c;
+		int pa = Math.abs(p - a);
+		int pb = Math.abs(p - b);
+		int pc = Math.abs(p - c);
+
+		if (pa <= pb && pa <= pc)
+		{
+			return a;
+		}
+		return (pb <= pc ? b : c);
+	}
+
+	/**
+	 * Deflates a band into a complete IDAT chunk. Every band but the last ends with a sync flush, so the
+	 * next band's deflate blocks can follow it; the last one ends the deflate stream.
+	 */
+	private static void deflateBand(Band band, Band previous, boolean last, int compLevel)
+	{
+		Deflater deflater = new Deflater(compLevel, true);
+
+		try
+		{
+			if (previous != null && compLevel > 0)
+			{
+				int length = Math.min(DICTIONARY_BYTES, previous.filteredLength);
+				deflater.setDictionary(previous.filtered, previous.filteredLength - length, length);
+			}
+
+			deflater.setInput(band.filtered, 0, band.filteredLength);
+			if (last)
+			{
+				deflater.finish();
+			}
+
+			/* Leave room for the chunk's length and type in front. */
+			byte chunk[] = new byte[8 + band.filteredLength / 2 + 64];
+			int length = 8;
+
+			while (true)
+			{
+				if (length == chunk.length)
+				{
+					byte larger[] = new byte[chunk.length * 2];
+					System.arraycopy(chunk, 0, larger, 0, length);
+					chunk = larger;
+				}
+
+				int space = chunk.length - length;
+				int count = (last ? deflater.deflate(chunk, length, space) : deflater.deflate(chunk, length, space, Deflater.SYNC_FLUSH));
+				length += count;
+
+				/* Done when the stream is finished, or a sync flush didn't fill the space it was given. */
+				if (last ? deflater.finished() : count < space)
+				{
+					break;
+				}
+			}
+
+			/* Length, type, data, then the CRC of type and data. Room for the CRC was left by the loop,
+			 * or is made here. */
+			if (chunk.length < length + 4)
+			{
+				byte larger[] = new byte[length + 4];
+				System.arraycopy(chunk, 0, larger, 0, length);
+				chunk = larger;
+			}
+
+			putInt(chunk, 0, length - 8);
+			chunk[4] = 'I';
+			chunk[5] = 'D';
+			chunk[6] = 'A';
+			chunk[7] = 'T';
+
+			CRC32 crc = new CRC32();
+			crc.update(chunk, 4, length - 4);
+			putInt(chunk, length, (int)crc.getValue());
+
+			band.chunk = chunk;
+			band.chunkLength = length + 4;
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Returns the Adler-32 checksum of two byte sequences joined, from the checksum of each and the
+	 * length of the second, as zlib's adler32_combine() does.
+	 */
+	static long combineAdler32(long adler1, long adler2, long length2)
+	{
+		long remainder = length2 % ADLER_BASE;
+		long sum1 = adler1 & 0xffff;
+		long sum2 = (remainder * sum1) % ADLER_BASE;
+
+		sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+		sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + ADLER_BASE - remainder;
+
+		if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+		if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+		if (sum2 >= 2L * ADLER_BASE) sum2 -= 2L * ADLER_BASE;
+		if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+
+		return sum1 | (sum2 << 16);
+	}
+
+	/**
+	 * Returns the two zlib header bytes for a deflate stream with a 32 KB window, at a compression level.
+	 */
+	private static byte[] zlibHeader(int compLevel)
+	{
+		int levelFlag = (compLevel < 2 ? 0 : compLevel < 6 ? 1 : compLevel == 6 ? 2 : 3);
+		int header = (0x78 << 8) | (levelFlag << 6);
+		header += 31 - header % 31;
+		return new byte[] { (byte)(header >> 8), (byte)header };
+	}
+
+	private static void writeChunk(OutputStream stream, String type, byte data[], int length) throws IOException
+	{
+		byte head[] = new byte[8];
+		putInt(head, 0, length);
+		for (int i = 0; i < 4; ++i)
+		{
+			head[4 + i] = (byte)type.charAt(i);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(head, 4, 4);
+		crc.update(data, 0, length);
+
+		byte tail[] = new byte[4];
+		putInt(tail, 0, (int)crc.getValue());
+
+		stream.write(head);
+		stream.write(data, 0, length);
+		stream.write(tail);
+	}
+
+	private static void putInt(byte bytes[], int offset, int value)
+	{
+		bytes[offset] = (byte)(value >>> 24);
+		bytes[offset + 1] = (byte)(value >>> 16);
+		bytes[offset + 2] = (byte)(value >>> 8);
+		bytes[offset + 3] = (byte)value;
+	}
+}
@@ -45,17 +45,35 @@ public abstract class Texture implements OpenGLResourceObject
 			
 			throw new OpenGLException("Unknown Datatype enum: " + this + ".");
 		}
+		
+		/**
+		 * Returns the number of bytes each channel takes on the GPU.
+		 */
+		public int getByteSize()
+		{
+			switch(this)
+			{
+			case INT8:    return 1;
+			case INT16:   return 2;
+			case FLOAT16: return 2;
+			default:      return 4;
+			}
+		}
 	}
 
 	/**
 	 * The Format enum specifies what color or depth channels a texture contains.
+	 * DXT1 and DXT5 are S3TC block compressed RGBA (see `BlockCompressor`), and require
+	 * GL_EXT_texture_compression_s3tc; their data is uploaded with `glCompressedTexImage2D()`.
 	 */
 	public enum Format
 	{
 		RGB, 
 		RGBA, 
 		LUMINANCE, 
-		DEPTH;
+		DEPTH,
+		DXT1,
+		DXT5;
 		
 		public int toGLformat() throws OpenGLException
 		{
@@ -65,10 +83,48 @@ public abstract class Texture implements OpenGLResourceObject
 			case RGBA:      return GL2.GL_RGBA;
 			case LUMINANCE: return GL2.GL_LUMINANCE;
 			case DEPTH:     return GL2.GL_DEPTH_COMPONENT;
+			case DXT1:      return GL2.GL_RGBA;
+			case DXT5:      return GL2.GL_RGBA;
 			}
 			
 			throw new OpenGLException("Unknown Format enum: " + this + ".");
 		}
+		
+		/**
+		 * Returns the number of channels in this format.
+		 */
+		public int getChannelCount()
+		{
+			switch(this)
+			{
+			case RGB:  return 3;
+			case RGBA: return 4;
+			case DXT1: return 4;
+			case DXT5: return 4;
+			default:   return 1;
+			}
+		}
+		
+		/**
+		 * Returns true if this is a block compressed format.
+		 */
+		public boolean isCompressed()
+		{
+			return (this == DXT1 || this == DXT5);
+		}
+		
+		/**
+		 * Returns the number of bytes each 4x4 block of texels takes in a compressed format, or 0 if uncompressed.
+		 */
+		public int getBlockBytes()
+		{
+			switch(this)
+			{
+			case DXT1: return BlockCompressor.DXT1_BLOCK_BYTES;
+			case DXT5: return BlockCompressor.DXT5_BLOCK_BYTES;
+			default:   return 0;
+			}
+		}
 
 		public int toGLinternalformat(Datatype type) throws OpenGLException
 		{
@@ -80,6 +136,8 @@ public abstract class Texture implements OpenGLResourceObject
 				case RGB:  		return GL2.GL_RGB8;
 				case RGBA: 		return GL2.GL_RGBA8;
 				case LUMINANCE: return GL2.GL_LUMINANCE8;
+				case DXT1:      return GL2.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+				case DXT5:      return GL2.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
 				default:        break;
 				}
 				break;
@@ -160,6 +218,12 @@ public abstract class Texture implements OpenGLResourceObject
 	private int mBoundUnit = -1;
 	private int mMaxMipMapLevel = 4;
 	
+	/* Scratch for querying the active texture unit in `bind()` and `unbind()`, which run every frame. */
+	private int mActiveTextureQuery[] = new int[1];
+	
+	/* Cached result of `getNumTextureUnits()`, or -1 if it hasn't been queried yet. */
+	private static int mNumTextureUnits = -1;
+	
 	/**
 	 * Texture constructor creates an OpenGL texture object.
 	 */
@@ -215,6 +279,24 @@ public abstract class Texture implements OpenGLResourceObject
 		}
 	}
 	
+	/**
+	 * Releases this object's OpenGL texture and takes over the one of `other`, which is left without
+	 * a texture, as if released. Lets a texture whose data was prepared elsewhere replace one that
+	 * materials already reference.
+	 */
+	protected void replaceWith(GL2 gl, Texture other)
+	{
+		unbind(gl);
+		other.unbind(gl);
+		releaseGPUResources(gl);
+		
+		mHandle = other.mHandle;
+		mFormat = other.mFormat;
+		mDatatype = other.mDatatype;
+		mWrapMode = other.mWrapMode;
+		other.mHandle = -1;
+	}
+	
 	/**
 	 * Subclasses implement this to describe what target (e.g. GL_TEXTURE_2D) they require.
 	 */
@@ -236,8 +318,9 @@ public abstract class Texture implements OpenGLResourceObject
 		}
 		
 		/* Save the currently active texture, and then activate the requested one. */
-		int previousActive[] = new int[1];
+		int previousActive[] = mActiveTextureQuery;
 		gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
+		int previousActiveUnit = previousActive[0];
 		gl.glActiveTexture(GL2.GL_TEXTURE0 + textureUnit);
 
 		/* Unbind any previous binding. */
@@ -251,7 +334,7 @@ public abstract class Texture implements OpenGLResourceObject
 		mBoundUnit = textureUnit;
 				
 		/* Restore the previously active texture unit. */
-		gl.glActiveTexture(previousActive[0]);
+		gl.glActiveTexture(previousActiveUnit);
 		
 		OpenGLException.checkOpenGLError(gl);
 	}
@@ -280,7 +363,7 @@ public abstract class Texture implements OpenGLResourceObject
 		if (isBound())
 		{
 			/* Save the currently active texture, and then activate the requested one. */
-			int previousActive[] = new int[1];
+			int previousActive[] = mActiveTextureQuery;
 			gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
 			gl.glActiveTexture(GL2.GL_TEXTURE0 + mBoundUnit);
 
@@ -415,8 +498,14 @@ public abstract class Texture implements OpenGLResourceObject
 	 */
 	public static int getNumTextureUnits(GL2 gl)
 	{
-		int result[] = new int[1];
-		gl.glGetIntegerv(GL2.GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS, result, 0);
-		return result[0];
+		/* Only query once; bind() calls this every time a texture is bound. */
+		if (mNumTextureUnits < 0)
+		{
+			int result[] = new int[1];
+			gl.glGetIntegerv(GL2.GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS, result, 0);
+			mNumTextureUnits = result[0];
+		}
+		
+		return mNumTextureUnits;
 	}
 }
@@ -1,12 +1,9 @@
 package cs5625.deferred.materials;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.Buffer;
-import java.nio.ByteBuffer;
 
-import javax.imageio.ImageIO;
 import javax.media.opengl.GL2;
 
 import com.jogamp.common.nio.Buffers;
@@ -72,6 +69,19 @@ public class Texture2D extends Texture
 		initialize(gl, format, datatype, width, height, rectTexture, data);
 	}
 	
+	/**
+	 * Creates a new GL_TEXTURE_2D texture object with every level of a mip chain, filtered trilinearly
+	 * if there is more than one.
+	 *
+	 * @param gl The OpenGL context in which this texture lives.
+	 * @param chain The levels; compressed chains are decompressed if the driver can't take them.
+	 */
+	public Texture2D(GL2 gl, MipChain chain) throws OpenGLException
+	{
+		super(gl);
+		initialize(gl, chain);
+	}
+	
 	/**
 	 * Private constructor used by the static function `load()`.
 	 */
@@ -84,6 +94,9 @@ public class Texture2D extends Texture
 	 * Creates a new texture object with data loaded from an image file.
 	 * The "rectangularness" of the texture is chosen automatically.
 	 * 
+	 * DDS files (see `isDDS()`) are loaded with all the mip levels they contain, compressed if they are,
+	 * and are never rectangular.
+	 * 
 	 * @param gl The OpenGL context in which this texture lives.
 	 * @param identifier The name of the image to load.
 	 * 
@@ -97,13 +110,18 @@ public class Texture2D extends Texture
 			throw new IOException("Could not find texture file '" + identifier + "'.");
 		}
 		
+		if (isDDS(identifier))
+		{
+			return loadDDS(gl, url);
+		}
+		
 		Texture2D result = new Texture2D(gl);
-		BufferedImage image;
+		TextureData image;
 		
 		/* Try to load image. */
 		try
 		{
-			image = ImageIO.read(url);
+			image = TextureData.read(url);
 		}
 		catch (IOException err)
 		{
@@ -111,8 +129,8 @@ public class Texture2D extends Texture
 			throw err;
 		}
 		
-		/* Create buffer of image data. */
-		Buffer imageData = createBufferFromImage(image);
+		/* The decoded data is ready to upload. */
+		Buffer imageData = image.getData();
 		int width = image.getWidth();
 		int height = image.getHeight();
 
@@ -128,6 +146,7 @@ public class Texture2D extends Texture
 	 * @param identifier The name of the image to load.
 	 * @param rectTexture If true, the texture will be a rectangular texture. If false, it will not
 	 * 		  be (requires GL_EXT_texture_non_power_of_two for non-power-of-two textures in this case).
+	 * 		  Ignored for DDS files, which can't be loaded as rectangular textures.
 	 *
 	 * @return The new texture, or null if the file doesn't exist.
 	 */
@@ -139,13 +158,18 @@ public class Texture2D extends Texture
 			throw new IOException("Could not find texture file '" + identifier + "'.");
 		}
 		
+		if (isDDS(identifier))
+		{
+			return loadDDS(gl, url);
+		}
+		
 		Texture2D result = new Texture2D(gl);
-		BufferedImage image;
+		TextureData image;
 		
 		/* Try to load image. */
 		try
 		{
-			image = ImageIO.read(url);
+			image = TextureData.read(url);
 		}
 		catch (IOException err)
 		{
@@ -153,8 +177,8 @@ public class Texture2D extends Texture
 			throw err;
 		}
 
-		/* Create buffer of image data. */
-		Buffer imageData = createBufferFromImage(image);
+		/* The decoded data is ready to upload. */
+		Buffer imageData = image.getData();
 		int width = image.getWidth();
 		int height = image.getHeight();
 
@@ -163,6 +187,78 @@ public class Texture2D extends Texture
 		return result;
 	}
 
+	/**
+	 * Creates a new mipmapped texture object from an image file, uploading every level of the mip chain
+	 * `baker` computes (or finds in its cache) instead of generating them on the GPU. The texture is
+	 * never rectangular, so non-power-of-two images require GL_EXT_texture_non_power_of_two.
+	 * DDS files are loaded with the levels they contain, and aren't baked.
+	 * 
+	 * @param gl The OpenGL context in which this texture lives.
+	 * @param identifier The name of the image to load.
+	 * @param baker Computes the mip chain.
+	 */
+	public static Texture2D load(GL2 gl, String identifier, MipBaker baker) throws OpenGLException, IOException
+	{
+		URL url = Texture2D.class.getClassLoader().getResource(identifier);
+		if (url == null)
+		{
+			throw new IOException("Could not find texture file '" + identifier + "'.");
+		}
+		
+		if (isDDS(identifier))
+		{
+			return loadDDS(gl, url);
+		}
+		
+		Texture2D result = new Texture2D(gl);
+		MipChain chain;
+		
+		/* Try to load and bake the image. */
+		try
+		{
+			chain = baker.load(url);
+		}
+		catch (IOException err)
+		{
+			result.releaseGPUResources(gl);
+			throw err;
+		}
+		
+		result.initialize(gl, chain);
+		return result;
+	}
+	
+	/**
+	 * Creates a new texture object from a DDS file, with every level it contains.
+	 */
+	private static Texture2D loadDDS(GL2 gl, URL url) throws OpenGLException, IOException
+	{
+		Texture2D result = new Texture2D(gl);
+		MipChain chain;
+		
+		try
+		{
+			chain = DDSFile.read(url);
+		}
+		catch (IOException err)
+		{
+			result.releaseGPUResources(gl);
+			throw err;
+		}
+		
+		result.initialize(gl, chain);
+		return result;
+	}
+	
+	/**
+	 * Returns true if the named image is a DDS file, which `load()` reads with its own mip levels,
+	 * e.g. precompressed DXT1 or DXT5 textures.
+	 */
+	public static boolean isDDS(String identifier)
+	{
+		return identifier.toLowerCase().endsWith(".dds");
+	}
+
 	/**
 	 * Initializes a new texture object with the passed attributes and data.
 	 *
@@ -220,41 +316,72 @@ public class Texture2D extends Texture
 	}
 	
 	/**
-	 * Create a buffer of raw pixel data from the passed image.
-	 * The returned data is RGBA8 formatted (Format.RGBA and Datatype.INT8).
+	 * Initializes a new GL_TEXTURE_2D texture object with every level of a mip chain, filtered trilinearly
+	 * if there is more than one. Compressed chains are decompressed if the driver can't take them.
 	 */
-	private static Buffer createBufferFromImage(BufferedImage image)
+	private void initialize(GL2 gl, MipChain chain) throws OpenGLException
 	{
-		int width = image.getWidth();
-		int height = image.getHeight();
-		
-		/* Allocate space to hold data. */
-		ByteBuffer result = Buffers.newDirectByteBuffer(width * height * 4);
-
-		/* Loop over pixels and fill buffer. */
-		for (int y = 0; y < height; ++y)
+		try
 		{
-			for (int x = 0; x < width; ++x)
+			if (chain.getFormat().isCompressed() && !gl.isExtensionAvailable("GL_EXT_texture_compression_s3tc"))
+			{
+				chain = chain.decompress();
+			}
+			
+			int glinternalformat = chain.getFormat().toGLinternalformat(Datatype.INT8);
+			
+			mTarget = GL2.GL_TEXTURE_2D;
+			mWidth = chain.getWidth(0);
+			mHeight = chain.getHeight(0);
+			mFormat = chain.getFormat();
+			mDatatype = Datatype.INT8;
+			setMaxMipMapLevel(chain.getLevelCount() - 1);
+
+			bind(gl, 0);
+
+			int previousActive[] = new int[1];
+			gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
+			gl.glActiveTexture(GL2.GL_TEXTURE0 + getBoundTextureUnit());
+
+			for (int level = 0; level < chain.getLevelCount(); ++level)
 			{
-				int pixel = image.getRGB(x, height - 1 - y);
-				
-				/* getRGB() returns an ARGB-packed int */
-				int alpha = (pixel >> 24) & 0xff;
-				int red   = (pixel >> 16) & 0xff;
-				int green = (pixel >> 8)  & 0xff;
-				int blue  = (pixel >> 0)  & 0xff;
-					
-				/* Repack into RGBA order for OpenGL. */
-				result.put((byte)red);
-				result.put((byte)green);
-				result.put((byte)blue);
-				result.put((byte)alpha);
+				if (mFormat.isCompressed())
+				{
+					gl.glCompressedTexImage2D(mTarget, level, glinternalformat, chain.getWidth(level), chain.getHeight(level), 0, chain.getData(level).capacity(), chain.getData(level));
+				}
+				else
+				{
+					gl.glTexImage2D(mTarget, level, glinternalformat, chain.getWidth(level), chain.getHeight(level), 0, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, chain.getData(level));
+				}
 			}
+			
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_BASE_LEVEL, 0);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MAX_LEVEL, chain.getLevelCount() - 1);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MIN_FILTER, chain.getLevelCount() > 1 ? GL2.GL_LINEAR_MIPMAP_LINEAR : GL2.GL_LINEAR);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MAG_FILTER, GL2.GL_LINEAR);
+			
+			gl.glActiveTexture(previousActive[0]);
+
+			unbind(gl);
+			OpenGLException.checkOpenGLError(gl);
+		}
+		catch (OpenGLException err)
+		{
+			releaseGPUResources(gl);
+			throw err;
 		}
+	}
+	
+	/**
+	 * Releases this texture's data and takes over that of `other`, which is left released.
+	 */
+	public void replaceWith(GL2 gl, Texture2D other)
+	{
+		super.replaceWith(gl, other);
 		
-		/* All done. */
-		result.rewind();
-		return result;
+		mWidth = other.mWidth;
+		mHeight = other.mHeight;
+		mTarget = other.mTarget;
 	}
 	
 	/**
@@ -285,7 +412,8 @@ public class Texture2D extends Texture
 	 * Copies the texture image from the GPU and returns it in a buffer.
 	 *
 	 * The format of the returned data is described by `getFormat()` and `getDatatype()`, with the exception
-	 * that 16-bit floating-point textures are read onto the CPU as regular 32-bit floats.
+	 * that 16-bit floating-point textures are read onto the CPU as regular 32-bit floats, and compressed
+	 * textures are read decompressed, as RGBA8.
 	 */
 	public Buffer copyTextureImage(GL2 gl) throws OpenGLException
 	{
@@ -309,6 +437,8 @@ public class Texture2D extends Texture
 		case RGBA:      numChannels = 4; break;
 		case LUMINANCE: numChannels = 1; break; 
 		case DEPTH:     numChannels = 1; break;
+		case DXT1:      numChannels = 4; break;
+		case DXT5:      numChannels = 4; break;
 		default:		throw new OpenGLException("Invalid Format enum " + format + ".");
 		}
 		
@@ -0,0 +1,400 @@
+package cs5625.deferred.materials;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.media.opengl.GL2;
+import javax.vecmath.Color3f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.OpenGLResourceObject;
+import cs5625.deferred.scenegraph.Mesh;
+
+/**
+ * TextureAtlas.java
+ *
+ * The uploaded pages of an `AtlasBuilder`, and `build()`, which collapses the textured Blinn-Phong
+ * materials of a set of meshes into a few materials sharing atlas pages.
+ *
+ * `build()` reads back the diffuse and specular maps of every eligible material, packs them (as layers
+ * 0 and 1 of one entry) into pages, and gives each mesh a material reading the page its maps ended up
+ * on, with texture coordinates remapped to their region. Material colors are baked into the maps where
+ * they're at most 1, so materials which only differed in color (and in maps) become one; meshes which
+ * now share a material can then be drawn with one binding. A missing specular map is a white one.
+ *
+ * A mesh is eligible if its material is a `BlinnPhongMaterial` with an RGBA8, non-rectangular diffuse
+ * map, no exponent map, and a specular map (if any) of the same size, and if all its texture coordinates
+ * are within [0, 1]. Other meshes are left alone. An original material which none of the meshes use any
+ * more gives its maps back to the `TextureCache` (if they came from it), since nothing would release them
+ * later; so pass every mesh sharing those materials, or keep a reference to the maps of your own.
+ *
+ * Maps still being streamed would be read back as their 1x1 placeholders, so `build()` first flushes the
+ * cache's `TextureStreamer`, if it has one.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TextureAtlas implements OpenGLResourceObject
+{
+	/* Texture coordinates this far outside [0, 1] still count as inside, for rounding in exporters. */
+	private static final float TEXCOORD_EPSILON = 1e-4f;
+
+	private final AtlasBuilder mBuilder;
+
+	/* Page textures, by layer then page. */
+	private final Texture2D mPages[][];
+
+	/* Materials created by `build()`, and the meshes it remapped. */
+	private final List<BlinnPhongMaterial> mMaterials = new ArrayList<BlinnPhongMaterial>();
+	private int mRemappedMeshCount = 0;
+
+	/**
+	 * Uploads the pages of a builder's layout, each with as many mip levels as its gutter allows.
+	 */
+	public TextureAtlas(GL2 gl, AtlasBuilder builder) throws OpenGLException
+	{
+		mBuilder = builder;
+		mPages = new Texture2D[builder.getLayerCount()][builder.getPageCount()];
+
+		MipBaker baker = new MipBaker(MipBaker.Filter.BOX, false);
+		int levelCount = Math.min(builder.getMipLevelCount(), MipChain.computeLevelCount(builder.getPageSize(), builder.getPageSize()));
+
+		try
+		{
+			for (int layer = 0; layer < mPages.length; ++layer)
+			{
+				for (int page = 0; page < mPages[layer].length; ++page)
+				{
+					ByteBuffer pixels = builder.composePage(page, layer);
+					MipChain full = baker.bake(new TextureData(builder.getPageSize(), builder.getPageSize(), pixels));
+
+					ByteBuffer levels[] = new ByteBuffer[levelCount];
+					for (int level = 0; level < levelCount; ++level)
+					{
+						levels[level] = full.getData(level);
+					}
+
+					mPages[layer][page] = new Texture2D(gl, new MipChain(Format.RGBA, builder.getPageSize(), builder.getPageSize(), levels));
+				}
+			}
+		}
+		catch (OpenGLException err)
+		{
+			releaseGPUResources(gl);
+			throw err;
+		}
+	}
+
+	/**
+	 * Atlases the textured Blinn-Phong materials of the given meshes; see the class comment.
+	 *
+	 * @param gl The OpenGL state, for reading back textures and uploading pages.
+	 * @param meshes The meshes to remap; ineligible ones are skipped.
+	 * @param pageSize Width and height of each page; see `AtlasBuilder`.
+	 * @param gutter Texels of gutter around each map; see `AtlasBuilder`.
+	 * @return The atlas, which owns the pages and the new materials, or null if no mesh was eligible.
+	 */
+	public static TextureAtlas build(GL2 gl, List<Mesh> meshes, int pageSize, int gutter) throws OpenGLException
+	{
+		TextureStreamer streamer = TextureCache.getShared().getStreamer();
+		if (streamer != null)
+		{
+			streamer.flush(gl);
+		}
+
+		AtlasBuilder builder = new AtlasBuilder(pageSize, gutter, 2);
+		IdentityHashMap<Material, Boolean> packed = new IdentityHashMap<Material, Boolean>();
+		List<Mesh> eligible = new ArrayList<Mesh>();
+
+		/* Read back and pack the maps of every eligible material once. */
+		for (Mesh mesh : meshes)
+		{
+			if (!isEligible(mesh))
+			{
+				continue;
+			}
+
+			BlinnPhongMaterial material = (BlinnPhongMaterial)mesh.getMaterial();
+			if (!packed.containsKey(material))
+			{
+				TextureData layers[] = readLayers(gl, material);
+				packed.put(material, builder.add(material, layers));
+			}
+
+			if (packed.get(material))
+			{
+				eligible.add(mesh);
+			}
+		}
+
+		if (eligible.isEmpty())
+		{
+			return null;
+		}
+
+		TextureAtlas atlas = new TextureAtlas(gl, builder);
+
+		/* One material per page and remaining (unbaked) color and exponent. */
+		Map<String, BlinnPhongMaterial> shared = new HashMap<String, BlinnPhongMaterial>();
+
+		/* Remapped texture coordinates, by material and original buffer, since clones share buffers. */
+		IdentityHashMap<Material, IdentityHashMap<FloatBuffer, FloatBuffer>> remapped = new IdentityHashMap<Material, IdentityHashMap<FloatBuffer, FloatBuffer>>();
+
+		for (Mesh mesh : eligible)
+		{
+			BlinnPhongMaterial material = (BlinnPhongMaterial)mesh.getMaterial();
+			AtlasBuilder.Region region = builder.getRegion(material);
+
+			Color3f diffuse = (canBake(material.getDiffuseColor()) ? new Color3f(1.0f, 1.0f, 1.0f) : material.getDiffuseColor());
+			Color3f specular = (canBake(material.getSpecularColor()) ? new Color3f(1.0f, 1.0f, 1.0f) : material.getSpecularColor());
+			String key = region.getPage() + " " + diffuse + " " + specular + " " + material.getPhongExponent();
+
+			BlinnPhongMaterial target = shared.get(key);
+			if (target == null)
+			{
+				target = new BlinnPhongMaterial(diffuse);
+				target.setSpecularColor(new Color3f(specular));
+				target.setPhongExponent(material.getPhongExponent());
+				target.setDiffuseTexture(atlas.getPage(0, region.getPage()));
+				target.setSpecularTexture(atlas.getPage(1, region.getPage()));
+
+				shared.put(key, target);
+				atlas.mMaterials.add(target);
+			}
+
+			IdentityHashMap<FloatBuffer, FloatBuffer> buffers = remapped.get(material);
+			if (buffers == null)
+			{
+				buffers = new IdentityHashMap<FloatBuffer, FloatBuffer>();
+				remapped.put(material, buffers);
+			}
+
+			FloatBuffer texcoords = buffers.get(mesh.getTexCoordData());
+			if (texcoords == null)
+			{
+				texcoords = remap(mesh.getTexCoordData(), region);
+				buffers.put(mesh.getTexCoordData(), texcoords);
+			}
+
+			mesh.setTexCoordData(texcoords);
+			mesh.setMaterial(target);
+			++atlas.mRemappedMeshCount;
+		}
+
+		/* Meshes release their material's cached maps, so the references of the materials they left behind 
+		 * would never be given back. Keep the maps of materials some mesh (e.g. one with texture coordinates 
+		 * outside [0, 1]) still draws with. */
+		IdentityHashMap<Material, Boolean> inUse = new IdentityHashMap<Material, Boolean>();
+		for (Mesh mesh : meshes)
+		{
+			inUse.put(mesh.getMaterial(), Boolean.TRUE);
+		}
+
+		TextureCache cache = TextureCache.getShared();
+		for (Material original : packed.keySet())
+		{
+			if (!packed.get(original) || inUse.containsKey(original))
+			{
+				continue;
+			}
+
+			BlinnPhongMaterial material = (BlinnPhongMaterial)original;
+			if (cache.release(gl, material.getDiffuseTexture()))
+			{
+				material.setDiffuseTexture(null);
+			}
+			if (cache.release(gl, material.getSpecularTexture()))
+			{
+				material.setSpecularTexture(null);
+			}
+		}
+
+		return atlas;
+	}
+
+	/**
+	 * Returns a page texture: layer 0 holds diffuse maps, layer 1 specular maps, for atlases from `build()`.
+	 */
+	public Texture2D getPage(int layer, int page)
+	{
+		return mPages[layer][page];
+	}
+
+	public int getPageCount()
+	{
+		return mBuilder.getPageCount();
+	}
+
+	public AtlasBuilder getBuilder()
+	{
+		return mBuilder;
+	}
+
+	/**
+	 * Returns the materials `build()` created, which share the pages.
+	 */
+	public List<BlinnPhongMaterial> getMaterials()
+	{
+		return mMaterials;
+	}
+
+	/**
+	 * Returns the number of meshes `build()` moved onto the atlas.
+	 */
+	public int getRemappedMeshCount()
+	{
+		return mRemappedMeshCount;
+	}
+
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		for (BlinnPhongMaterial material : mMaterials)
+		{
+			material.releaseGPUResources(gl);
+		}
+		mMaterials.clear();
+
+		for (Texture2D layer[] : mPages)
+		{
+			for (int page = 0; page < layer.length; ++page)
+			{
+				if (layer[page] != null)
+				{
+					layer[page].releaseGPUResources(gl);
+					layer[page] = null;
+				}
+			}
+		}
+	}
+
+	private static boolean isEligible(Mesh mesh)
+	{
+		if (!(mesh.getMaterial() instanceof BlinnPhongMaterial) || mesh.getTexCoordData() == null)
+		{
+			return false;
+		}
+
+		BlinnPhongMaterial material = (BlinnPhongMaterial)mesh.getMaterial();
+		Texture2D diffuse = material.getDiffuseTexture();
+		Texture2D specular = material.getSpecularTexture();
+
+		if (diffuse == null || material.getExponentTexture() != null || !isReadable(diffuse))
+		{
+			return false;
+		}
+		if (specular != null && (!isReadable(specular) || specular.getWidth() != diffuse.getWidth() || specular.getHeight() != diffuse.getHeight()))
+		{
+			return false;
+		}
+
+		FloatBuffer texcoords = mesh.getTexCoordData();
+		for (int i = 0; i < texcoords.capacity(); ++i)
+		{
+			float value = texcoords.get(i);
+			if (value < -TEXCOORD_EPSILON || value > 1.0f + TEXCOORD_EPSILON)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if `copyTextureImage()` gives RGBA8 data for the texture, and its coordinates are normalized.
+	 */
+	private static boolean isReadable(Texture2D texture)
+	{
+		return !texture.isRectTexture() && texture.getDatatype() == Datatype.INT8 && (texture.getFormat() == Format.RGBA || texture.getFormat().isCompressed());
+	}
+
+	/**
+	 * Reads back a material's diffuse and specular maps, with its colors baked in where possible.
+	 */
+	private static TextureData[] readLayers(GL2 gl, BlinnPhongMaterial material) throws OpenGLException
+	{
+		Texture2D diffuse = material.getDiffuseTexture();
+		Texture2D specular = material.getSpecularTexture();
+		int width = diffuse.getWidth();
+		int height = diffuse.getHeight();
+
+		ByteBuffer diffuseData = (ByteBuffer)diffuse.copyTextureImage(gl, Format.RGBA, Datatype.INT8);
+		ByteBuffer specularData;
+
+		if (specular != null)
+		{
+			specularData = (ByteBuffer)specular.copyTextureImage(gl, Format.RGBA, Datatype.INT8);
+		}
+		else
+		{
+			specularData = Buffers.newDirectByteBuffer(width * height * 4);
+			for (int i = 0; i < specularData.capacity(); ++i)
+			{
+				specularData.put(i, (byte)255);
+			}
+		}
+
+		if (canBake(material.getDiffuseColor()))
+		{
+			multiply(diffuseData, material.getDiffuseColor());
+		}
+		if (canBake(material.getSpecularColor()))
+		{
+			multiply(specularData, material.getSpecularColor());
+		}
+
+		return new TextureData[] { new TextureData(width, height, diffuseData), new TextureData(width, height, specularData) };
+	}
+
+	/**
+	 * Returns true if a color can be multiplied into 8-bit texels without clamping.
+	 */
+	private static boolean canBake(Color3f color)
+	{
+		return color.x >= 0.0f && color.x <= 1.0f && color.y >= 0.0f && color.y <= 1.0f && color.z >= 0.0f && color.z <= 1.0f;
+	}
+
+	private static void multiply(ByteBuffer pixels, Color3f color)
+	{
+		float factors[] = { color.x, color.y, color.z };
+
+		for (int i = 0; i < pixels.capacity(); ++i)
+		{
+			if ((i & 3) != 3)
+			{
+				pixels.put(i, (byte)Math.round((pixels.get(i) & 0xff) * factors[i & 3]));
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of texture coordinates mapped into a region.
+	 */
+	private static FloatBuffer remap(FloatBuffer texcoords, AtlasBuilder.Region region)
+	{
+		FloatBuffer result = Buffers.newDirectFloatBuffer(texcoords.capacity());
+		float mapped[] = new float[2];
+
+		for (int i = 0; i + 1 < texcoords.capacity(); i += 2)
+		{
+			float u = Math.max(0.0f, Math.min(1.0f, texcoords.get(i)));
+			float v = Math.max(0.0f, Math.min(1.0f, texcoords.get(i + 1)));
+
+			region.map(u, v, mapped);
+			result.put(i, mapped[0]);
+			result.put(i + 1, mapped[1]);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,187 @@
+package cs5625.deferred.materials;
+
+import java.io.IOException;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.ResourceCache;
+
+/**
+ * TextureCache.java
+ *
+ * Shares textures loaded from image files, so that a file used by many materials (or by a model loaded
+ * many times) is only decoded and uploaded once. Textures are keyed by identifier and rectangularness.
+ *
+ * Every texture returned by `load()` holds a reference, given back with `release()`; materials loaded
+ * by `Material.load()` do that in their `releaseGPUResources()`. See `ResourceCache` for the eviction
+ * policy. Do not call `releaseGPUResources()` on a cached texture directly.
+ *
+ * With a streamer set, `load()` returns a placeholder right away and the image arrives over the
+ * following frames; see `TextureStreamer`. DDS files are always loaded synchronously, as they are
+ * uploaded as they are stored and need no decoding.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TextureCache extends ResourceCache<Texture2D>
+{
+	/** Default budget of the shared cache, in bytes. */
+	public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+	/* The cache `Material.load()` uses. */
+	private static TextureCache sShared = null;
+
+	/* Loads textures asynchronously if set. */
+	private TextureStreamer mStreamer = null;
+
+	/* Records the real size of streamed textures once they arrive. */
+	private final TextureStreamer.Listener mStreamListener = new TextureStreamer.Listener() {
+		@Override
+		public void textureStreamed(GL2 gl, Texture2D texture)
+		{
+			resize(gl, texture, getByteSize(texture));
+		}
+	};
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param budget Number of bytes of texture memory the cache may keep.
+	 */
+	public TextureCache(long budget)
+	{
+		super(budget);
+	}
+
+	/**
+	 * Returns the cache shared by all materials loaded from files.
+	 */
+	public static synchronized TextureCache getShared()
+	{
+		if (sShared == null)
+		{
+			sShared = new TextureCache(DEFAULT_BUDGET);
+		}
+
+		return sShared;
+	}
+
+	/**
+	 * Returns the texture for an image file, loading it if it isn't cached. The rectangularness of the
+	 * texture is chosen automatically, as in `Texture2D.load(GL2, String)`.
+	 *
+	 * @param gl The OpenGL context in which the texture lives.
+	 * @param identifier The name of the image to load.
+	 */
+	public Texture2D load(GL2 gl, String identifier) throws OpenGLException, IOException
+	{
+		String key = identifier + "#auto";
+
+		Texture2D texture = acquire(key);
+		if (texture == null)
+		{
+			if (mStreamer != null && !Texture2D.isDDS(identifier))
+			{
+				texture = mStreamer.load(gl, identifier, mStreamListener);
+				add(gl, key, texture, getByteSize(texture));
+			}
+			else
+			{
+				texture = Texture2D.load(gl, identifier);
+				add(gl, key, texture, getLoadedByteSize(identifier, texture));
+			}
+		}
+
+		return texture;
+	}
+
+	/**
+	 * Returns the texture for an image file, loading it if it isn't cached.
+	 *
+	 * @param gl The OpenGL context in which the texture lives.
+	 * @param identifier The name of the image to load.
+	 * @param rectTexture If true, the texture will be a rectangular texture; see `Texture2D.load()`.
+	 */
+	public Texture2D load(GL2 gl, String identifier, boolean rectTexture) throws OpenGLException, IOException
+	{
+		String key = identifier + (rectTexture ? "#rect" : "#2d");
+
+		Texture2D texture = acquire(key);
+		if (texture == null)
+		{
+			if (mStreamer != null && !Texture2D.isDDS(identifier))
+			{
+				texture = mStreamer.load(gl, identifier, rectTexture, mStreamListener);
+				add(gl, key, texture, getByteSize(texture));
+			}
+			else
+			{
+				texture = Texture2D.load(gl, identifier, rectTexture);
+				add(gl, key, texture, getLoadedByteSize(identifier, texture));
+			}
+		}
+
+		return texture;
+	}
+
+	/**
+	 * Returns the mipmapped texture for an image file, loading it with all levels baked by `baker` if
+	 * it isn't cached. Mipmapped textures are always loaded synchronously.
+	 *
+	 * @param gl The OpenGL context in which the texture lives.
+	 * @param identifier The name of the image to load.
+	 * @param baker Computes the mip chain; see `Texture2D.load(GL2, String, MipBaker)`.
+	 */
+	public Texture2D load(GL2 gl, String identifier, MipBaker baker) throws OpenGLException, IOException
+	{
+		String key = identifier + "#mip-" + baker.getKey();
+
+		Texture2D texture = acquire(key);
+		if (texture == null)
+		{
+			texture = Texture2D.load(gl, identifier, baker);
+
+			/* The levels below the base add up to a third of it. */
+			add(gl, key, texture, getByteSize(texture) * 4 / 3);
+		}
+
+		return texture;
+	}
+
+	public TextureStreamer getStreamer()
+	{
+		return mStreamer;
+	}
+
+	/**
+	 * Makes textures loaded from now on stream in asynchronously through the given streamer, or load
+	 * synchronously if it's null.
+	 */
+	public void setStreamer(TextureStreamer streamer)
+	{
+		mStreamer = streamer;
+	}
+
+	/**
+	 * Returns the GPU memory taken by a texture's base level, in bytes.
+	 */
+	public static long getByteSize(Texture2D texture)
+	{
+		if (texture.getFormat().isCompressed())
+		{
+			return BlockCompressor.getCompressedSize(texture.getFormat(), texture.getWidth(), texture.getHeight());
+		}
+
+		return (long)texture.getWidth() * texture.getHeight() * texture.getFormat().getChannelCount() * texture.getDatatype().getByteSize();
+	}
+
+	/**
+	 * Returns the GPU memory taken by a texture loaded synchronously from the named file, counting the
+	 * levels below the base of DDS files as a third of it.
+	 */
+	private static long getLoadedByteSize(String identifier, Texture2D texture)
+	{
+		return (Texture2D.isDDS(identifier) ? getByteSize(texture) * 4 / 3 : getByteSize(texture));
+	}
+}
@@ -4,9 +4,14 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.Buffer;
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import javax.imageio.ImageIO;
 import javax.media.opengl.GL2;
 
 import com.jogamp.common.nio.Buffers;
@@ -14,6 +19,7 @@ import com.jogamp.common.nio.Buffers;
 import cs5625.deferred.misc.OpenGLException;
 import cs5625.deferred.misc.Util;
 import cs5625.deferred.rendering.FramebufferObject;
+import cs5625.deferred.rendering.GaussianKernel;
 import cs5625.deferred.rendering.ShaderProgram;
 
 /**
@@ -43,7 +49,8 @@ public class TextureCubeMap extends Texture
 	/* The blur shader FBO. */
 	protected FramebufferObject mBlurTextureFBO;
 	
-	/* Gaussian blur width and variance on the X and Y axes. */
+	/* Gaussian blur width and variance on the X and Y axes. A width of w reaches 2w + 1 texels to each 
+	 * side of the center, up to GaussianKernel.MAX_RADIUS. */
 	int mBlurWidthX = -1;
 	float mBlurVarianceX = 1.0f;
 	
@@ -68,6 +75,9 @@ public class TextureCubeMap extends Texture
 	 * The cube map files should be named "identifier{left, right, top, bottom, front, back}extension"
 	 * e.g. for identifier = "base_" and extension = ".png" we will look for "base_{left, right, top, bottom, front, back}.png"
 	 * 
+	 * With extension ".dds", the faces are DDS files (e.g. precompressed DXT1 or DXT5), all in the same format,
+	 * which are uploaded as they are stored; with mipMapOn, the mip levels the files contain are used.
+	 * Compressed cube maps can't be blurred.
 	 * 
 	 * @param gl The OpenGL context in which this texture lives.
 	 * @param identifier The common base name of the image files to load.
@@ -77,39 +87,44 @@ public class TextureCubeMap extends Texture
 	 */
 	public static TextureCubeMap load(GL2 gl, String identifier, String extension, boolean mipMapOn) throws OpenGLException, IOException
 	{
+		if (Texture2D.isDDS(extension))
+		{
+			return loadDDS(gl, identifier, extension, mipMapOn);
+		}
 				
 		TextureCubeMap result = new TextureCubeMap(gl);
+		TextureData[] images = new TextureData[6];
 		Buffer[] buffers = new Buffer[6];
 		int common_size = -1;
 		
-		/* Load all cube map data */
+		/* Find all cube map files before doing any work. */
+		URL[] urls = new URL[6];
 		for (int i = 0; i < 6; ++i) {
 			String curr_identifier = identifier + mCubeMapPostfix[i] + extension;
 			
-			URL url = TextureCubeMap.class.getClassLoader().getResource(curr_identifier);
-			if (url == null)
+			urls[i] = TextureCubeMap.class.getClassLoader().getResource(curr_identifier);
+			if (urls[i] == null)
 			{
 				result.releaseGPUResources(gl);
 				throw new IOException("Could not find texture file '" + curr_identifier + "'.");
 			}
+		}
 		
-			BufferedImage image;
-		
-			/* Try to load image. */
-			try
-			{
-				image = ImageIO.read(url);
-			}
-			catch (IOException err)
-			{
-				result.releaseGPUResources(gl);
-				throw err;
-			}
+		/* Decode and convert the faces in parallel; decoding is most of the cost of loading. */
+		try
+		{
+			loadFaces(urls, images, buffers);
+		}
+		catch (IOException err)
+		{
+			result.releaseGPUResources(gl);
+			throw err;
+		}
 		
-			/* Create buffer of image data. */
-			buffers[i] = createBufferFromImage(image);
-			int width = image.getWidth();
-			int height = image.getHeight();
+		for (int i = 0; i < 6; ++i) {
+			String curr_identifier = identifier + mCubeMapPostfix[i] + extension;
+			int width = images[i].getWidth();
+			int height = images[i].getHeight();
 		
 			/* Check the dimensions. */
 			if (width != height) 
@@ -134,6 +149,103 @@ public class TextureCubeMap extends Texture
 	}
 
 	
+	/**
+	 * Creates a new cube map from six DDS files, named as for `load()`.
+	 */
+	private static TextureCubeMap loadDDS(GL2 gl, String identifier, String extension, boolean mipMapOn) throws OpenGLException, IOException
+	{
+		TextureCubeMap result = new TextureCubeMap(gl);
+		MipChain chains[] = new MipChain[6];
+		
+		for (int i = 0; i < 6; ++i) {
+			String curr_identifier = identifier + mCubeMapPostfix[i] + extension;
+			
+			URL url = TextureCubeMap.class.getClassLoader().getResource(curr_identifier);
+			if (url == null)
+			{
+				result.releaseGPUResources(gl);
+				throw new IOException("Could not find texture file '" + curr_identifier + "'.");
+			}
+			
+			try
+			{
+				chains[i] = DDSFile.read(url);
+			}
+			catch (IOException err)
+			{
+				result.releaseGPUResources(gl);
+				throw err;
+			}
+			
+			/* Faces must be square, and agree in size and format with the first. */
+			if (chains[i].getWidth(0) != chains[i].getHeight(0) 
+				|| chains[i].getWidth(0) != chains[0].getWidth(0) || chains[i].getFormat() != chains[0].getFormat()) 
+			{
+				result.releaseGPUResources(gl);
+				throw new OpenGLException("Cube map file " + curr_identifier + " is " + chains[i].getWidth(0) + "x" + chains[i].getHeight(0) + " " + chains[i].getFormat() 
+						+ ", not " + chains[0].getWidth(0) + "x" + chains[0].getWidth(0) + " " + chains[0].getFormat() + ".");
+			}
+		}
+		
+		result.initialize(gl, chains, mipMapOn);
+		return result;
+	}
+	
+	/**
+	 * Reads each image URL and converts it to RGBA8 data, one face per thread.
+	 * 
+	 * @param urls The image of each face.
+	 * @param images Receives the decoded image of each face.
+	 * @param buffers Receives the pixel data of each face.
+	 * @throws IOException If any image can't be read.
+	 */
+	private static void loadFaces(final URL urls[], final TextureData images[], final Buffer buffers[]) throws IOException
+	{
+		int threadCount = Math.max(1, Math.min(urls.length, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		
+		try
+		{
+			List<Future<Void>> faces = new ArrayList<Future<Void>>();
+			for (int i = 0; i < urls.length; ++i)
+			{
+				final int face = i;
+				faces.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException
+					{
+						TextureData image = TextureData.read(urls[face]);
+						images[face] = image;
+						buffers[face] = image.getData();
+						return null;
+					}
+				}));
+			}
+			
+			for (Future<Void> face : faces)
+			{
+				face.get();
+			}
+		}
+		catch (InterruptedException err)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading cube map.", err);
+		}
+		catch (ExecutionException err)
+		{
+			if (err.getCause() instanceof IOException)
+			{
+				throw (IOException)err.getCause();
+			}
+			throw new IOException("Failed to load cube map.", err.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
 	/**
 	 * Initializes a new texture object with the passed attributes and data.
 	 *
@@ -162,8 +274,11 @@ public class TextureCubeMap extends Texture
 			mFormat = format;
 			mDatatype = datatype;
 			
-			/* Create the blur texture FBO. */
-			mBlurTextureFBO = new FramebufferObject(gl, getFormat(), getDatatype(), getSize(), getSize(), 1, true, false);
+			/* Create the blur texture FBO; compressed textures can't be rendered to, so can't be blurred. */
+			if (!format.isCompressed())
+			{
+				mBlurTextureFBO = new FramebufferObject(gl, getFormat(), getDatatype(), getSize(), getSize(), 1, true, false);
+			}
 
 			/* Bind and send texture data to OpenGL. */
 			bind(gl, 0);
@@ -211,6 +326,86 @@ public class TextureCubeMap extends Texture
 		}
 	}
 	
+	/**
+	 * Initializes a new texture object with the faces' mip chains, which must be square and agree in size
+	 * and format. Compressed chains are decompressed if the driver can't take them.
+	 *
+	 * @param mipMapOn Use every level the chains have, filtered trilinearly; otherwise only level 0.
+	 */
+	protected void initialize(GL2 gl, MipChain chains[], boolean mipMapOn) throws OpenGLException
+	{
+		try
+		{
+			if (chains[0].getFormat().isCompressed() && !gl.isExtensionAvailable("GL_EXT_texture_compression_s3tc"))
+			{
+				for (int i = 0; i < 6; ++i) {
+					chains[i] = chains[i].decompress();
+				}
+			}
+			
+			int levelCount = 1;
+			if (mipMapOn) {
+				levelCount = chains[0].getLevelCount();
+				for (int i = 1; i < 6; ++i) {
+					levelCount = Math.min(levelCount, chains[i].getLevelCount());
+				}
+			}
+			
+			mTarget = GL2.GL_TEXTURE_CUBE_MAP;
+			mSize = chains[0].getWidth(0);
+			mFormat = chains[0].getFormat();
+			mDatatype = Datatype.INT8;
+			setMaxMipMapLevel(levelCount - 1);
+			
+			int glinternalformat = mFormat.toGLinternalformat(mDatatype);
+			
+			if (!mFormat.isCompressed())
+			{
+				mBlurTextureFBO = new FramebufferObject(gl, getFormat(), getDatatype(), getSize(), getSize(), 1, true, false);
+			}
+			
+			bind(gl, 0);
+			
+			int previousActive[] = new int[1];
+			gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
+			gl.glActiveTexture(GL2.GL_TEXTURE0 + getBoundTextureUnit());
+			
+			for (int i = 0; i < 6; ++i) {
+				for (int level = 0; level < levelCount; ++level) {
+					int size = chains[i].getWidth(level);
+					
+					if (mFormat.isCompressed()) {
+						gl.glCompressedTexImage2D(GL2.GL_TEXTURE_CUBE_MAP_POSITIVE_X + i, level, glinternalformat, 
+							size, size, 0, chains[i].getData(level).capacity(), chains[i].getData(level));
+					} else {
+						gl.glTexImage2D(GL2.GL_TEXTURE_CUBE_MAP_POSITIVE_X + i, level, glinternalformat, 
+							size, size, 0, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, chains[i].getData(level));
+					}
+				}
+			}
+			
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_BASE_LEVEL, 0);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MAX_LEVEL, levelCount - 1);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MIN_FILTER, levelCount > 1 ? GL2.GL_LINEAR_MIPMAP_LINEAR : GL2.GL_LINEAR);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_MAG_FILTER, GL2.GL_LINEAR);
+			
+			/* GL_CLAMP_TO_EDGE gives seamless transition between the cube faces. */
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_WRAP_S, GL2.GL_CLAMP_TO_EDGE);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_WRAP_T, GL2.GL_CLAMP_TO_EDGE);
+			gl.glTexParameteri(mTarget, GL2.GL_TEXTURE_WRAP_R, GL2.GL_CLAMP_TO_EDGE);
+			
+			gl.glActiveTexture(previousActive[0]);
+			
+			unbind(gl);
+			OpenGLException.checkOpenGLError(gl);
+		}
+		catch (OpenGLException err)
+		{
+			releaseGPUResources(gl);
+			throw err;
+		}
+	}
+	
 	/**
 	 * Blur all faces of the cube map, using the current width and variances on X and Y.
 	 * Note that this is a destructive function, that will overwrite the content of the texture map.
@@ -223,6 +418,10 @@ public class TextureCubeMap extends Texture
 			throw new OpenGLException("You haven't specified a blur shader");
 		}
 		
+		if (mFormat.isCompressed()) {
+			throw new OpenGLException("Compressed cube maps can't be rendered to, so can't be blurred");
+		}
+		
 		/* First, blur horizontally. */
 		if (mBlurWidthX >= 0) {
 			BlurAxis(gl, 0);
@@ -242,6 +441,7 @@ public class TextureCubeMap extends Texture
 	{
 		int width = ((axis == 0) ? mBlurWidthX : mBlurWidthY);
 		float variance = ((axis == 0) ? mBlurVarianceX : mBlurVarianceY);
+		GaussianKernel kernel = GaussianKernel.get(2 * width + 1, variance);
 		
 		/* Go through all of the cube map faces. */
 		for (int i = 0; i < 6; ++i) {
@@ -262,9 +462,10 @@ public class TextureCubeMap extends Texture
 			
 			/* Set the program shader uniforms */
 			gl.glUniform1i(mBlurShader.getUniformLocation(gl, "Axis"), axis);
-			gl.glUniform1i(mBlurShader.getUniformLocation(gl, "KernelWidth"), width);
-			gl.glUniform1f(mBlurShader.getUniformLocation(gl, "KernelVariance"), variance);
 			gl.glUniform1f(mBlurShader.getUniformLocation(gl, "TextureSize"), getSize());
+			kernel.upload(gl, mBlurShader.getUniformLocation(gl, "KernelWeights"), 
+					mBlurShader.getUniformLocation(gl, "KernelOffsets"), 
+					mBlurShader.getUniformLocation(gl, "KernelTapCount"));
 						
 			/* Render the texture on a quad. This will call the shader program, which on
 			 * the other hand will produce a blur version of the current cube face texture. */
@@ -273,7 +474,8 @@ public class TextureCubeMap extends Texture
 			/* Unbind the blur shader and the textures. */
 			mBlurShader.unbind(gl);		
 			mBlurTextureFBO.unbind(gl);
-			cubeFaceTexture.unbind(gl);			
+			cubeFaceTexture.unbind(gl);
+			cubeFaceTexture.releaseGPUResources(gl);
 		}		
 	}
 	
@@ -283,36 +485,7 @@ public class TextureCubeMap extends Texture
 	 */
 	protected static Buffer createBufferFromImage(BufferedImage image)
 	{
-		int width = image.getWidth();
-		int height = image.getHeight();
-		
-		/* Allocate space to hold data. */
-		ByteBuffer result = Buffers.newDirectByteBuffer(width * height * 4);
-
-		/* Loop over pixels and fill buffer. */
-		for (int y = 0; y < height; ++y)
-		{
-			for (int x = 0; x < width; ++x)
-			{
-				int pixel = image.getRGB(x, height - 1 - y);
-				
-				/* getRGB() returns an ARGB-packed int */
-				int alpha = (pixel >> 24) & 0xff;
-				int red   = (pixel >> 16) & 0xff;
-				int green = (pixel >> 8)  & 0xff;
-				int blue  = (pixel >> 0)  & 0xff;
-					
-				/* Repack into RGBA order for OpenGL. */
-				result.put((byte)red);
-				result.put((byte)green);
-				result.put((byte)blue);
-				result.put((byte)alpha);
-			}
-		}
-		
-		/* All done. */
-		result.rewind();
-		return result;
+		return ImageConverter.toRGBA(image);
 	}
 	
 	/** 
@@ -427,6 +600,8 @@ public class TextureCubeMap extends Texture
 		case RGBA:      numChannels = 4; break;
 		case LUMINANCE: numChannels = 1; break; 
 		case DEPTH:     numChannels = 1; break;
+		case DXT1:      numChannels = 4; break;
+		case DXT5:      numChannels = 4; break;
 		default:		throw new OpenGLException("Invalid Format enum " + format + ".");
 		}
 		
@@ -0,0 +1,92 @@
+package cs5625.deferred.materials;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+/**
+ * TextureData.java
+ *
+ * The decoded pixels of an image file, as the RGBA8 data textures are created from (Format.RGBA and
+ * Datatype.INT8), with the bottom row first.
+ *
+ * `read()` decodes PNG files with `PngDecoder`, which writes rows straight into the upload buffer, and
+ * everything else (or PNG files it doesn't support) through ImageIO and `ImageConverter`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TextureData
+{
+	private final int mWidth, mHeight;
+	private final ByteBuffer mData;
+
+	/**
+	 * Wraps already decoded pixel data.
+	 *
+	 * @param width Width of the image, in pixels.
+	 * @param height Height of the image, in pixels.
+	 * @param data Direct buffer of width * height RGBA8 pixels, bottom row first, rewound.
+	 */
+	public TextureData(int width, int height, ByteBuffer data)
+	{
+		mWidth = width;
+		mHeight = height;
+		mData = data;
+	}
+
+	/**
+	 * Reads and decodes the image at the given URL.
+	 *
+	 * @throws IOException If the file can't be read or isn't an image.
+	 */
+	public static TextureData read(URL url) throws IOException
+	{
+		if (url.getPath().toLowerCase().endsWith(".png"))
+		{
+			InputStream stream = url.openStream();
+			try
+			{
+				return PngDecoder.decode(stream, url.toString());
+			}
+			catch (IOException err)
+			{
+				/* Interlaced or otherwise unsupported; ImageIO reads everything. */
+			}
+			finally
+			{
+				stream.close();
+			}
+		}
+
+		BufferedImage image = ImageIO.read(url);
+		if (image == null)
+		{
+			throw new IOException("Could not decode texture file '" + url + "'.");
+		}
+
+		return new TextureData(image.getWidth(), image.getHeight(), ImageConverter.toRGBA(image));
+	}
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+	/**
+	 * Returns the pixel data, RGBA8 with the bottom row first.
+	 */
+	public ByteBuffer getData()
+	{
+		return mData;
+	}
+}
@@ -4,7 +4,9 @@ import java.io.IOException;
 import java.nio.Buffer;
 
 import javax.media.opengl.GL2;
+import javax.vecmath.AxisAngle4f;
 import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
 
 import com.jogamp.common.nio.Buffers;
 
@@ -31,6 +33,25 @@ public class TextureDynamicCubeMap extends TextureCubeMap
 	SceneObject mCenterObject = null;
 	Point3f mCenterPoint = new Point3f(0.0f, 0.0f, 0.0f);
 	
+	private static final Point3f ORIGIN = new Point3f(0.0f, 0.0f, 0.0f);
+	
+	/* Camera orientations for the 6 faces, computed once instead of per face per frame. */
+	private static final Quat4f FACE_ORIENTATIONS[] = new Quat4f[] {
+		faceOrientation(0.0f, 1.0f, 0.0f, (float)(Math.PI / 2.0)),
+		faceOrientation(0.0f, 1.0f, 0.0f, (float)(3.0 * Math.PI / 2.0)),
+		faceOrientation(1.0f, 0.0f, 0.0f, (float)(3.0 * Math.PI / 2.0)),
+		faceOrientation(1.0f, 0.0f, 0.0f, (float)(Math.PI / 2.0)),
+		faceOrientation(0.0f, 1.0f, 0.0f, 0.0f),
+		faceOrientation(0.0f, 1.0f, 0.0f, (float)Math.PI)
+	};
+	
+	private static Quat4f faceOrientation(float x, float y, float z, float angle)
+	{
+		Quat4f result = new Quat4f();
+		result.set(new AxisAngle4f(x, y, z, angle));
+		return result;
+	}
+	
 	/**
 	 * Private constructor used by the static function `load()`.
 	 */
@@ -110,6 +131,26 @@ public class TextureDynamicCubeMap extends TextureCubeMap
 			return mCenterObject.transformPointToWorldSpace(new Point3f(0,0,0));
 	}
 	
+	/** 
+	 * Same as `getCenterPoint()`, but writes into `result` instead of allocating.
+	 */
+	public void getCenterPoint(Point3f result)
+	{
+		if (mCenterObject == null)
+			result.set(mCenterPoint);
+		else
+			mCenterObject.transformPointToWorldSpace(ORIGIN, result);
+	}
+	
+	/**
+	 * Writes the camera orientation used to render the given cube map face into `result`.
+	 * Faces are in GL order: +X, -X, +Y, -Y, +Z, -Z.
+	 */
+	public static void getFaceOrientation(int face, Quat4f result)
+	{
+		result.set(FACE_ORIENTATIONS[face]);
+	}
+	
 	/** 
 	 * Set the point from which we are rendering the scene.
 	 * This will be set to the position of the object, if setCenterObject is used.
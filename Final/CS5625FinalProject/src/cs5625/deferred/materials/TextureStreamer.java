@@ -0,0 +1,480 @@
+package cs5625.deferred.materials;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GL2;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.OpenGLResourceObject;
+
+/**
+ * TextureStreamer.java
+ *
+ * Loads textures without stalling the GL thread. `load()` returns at once with a 1x1 white placeholder
+ * texture, and queues the image file to be decoded on a worker thread. Each frame, `update()` (called by
+ * the renderer on the GL thread) uploads decoded images a band of rows at a time, through a pixel buffer
+ * object, without exceeding a per-frame byte budget (see `UploadScheduler`). Once the last band of an
+ * image is in, its texture takes the place of the placeholder, so materials holding the placeholder
+ * start showing the image.
+ *
+ * Images which fail to decode keep their placeholder, and the error is printed.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TextureStreamer implements OpenGLResourceObject
+{
+	/** Default number of bytes uploaded per frame. */
+	public static final long DEFAULT_FRAME_BUDGET = 4L * 1024 * 1024;
+
+	/**
+	 * Receives streamed textures once their data has replaced the placeholder.
+	 */
+	public interface Listener
+	{
+		public void textureStreamed(GL2 gl, Texture2D texture);
+	}
+
+	/* A texture being streamed. */
+	private static class Request
+	{
+		final Texture2D texture;
+		final URL url;
+		final int rectMode;
+		final Listener listener;
+
+		/* Set by the worker thread. */
+		TextureData data = null;
+		IOException error = null;
+
+		/* The texture the data is uploaded into, created on the GL thread once the data is decoded. */
+		Texture2D staging = null;
+
+		Request(Texture2D texture, URL url, int rectMode, Listener listener)
+		{
+			this.texture = texture;
+			this.url = url;
+			this.rectMode = rectMode;
+			this.listener = listener;
+		}
+	}
+
+	/* Values of `Request.rectMode`. */
+	private static final int RECT_AUTO = -1;
+	private static final int RECT_OFF = 0;
+	private static final int RECT_ON = 1;
+
+	/* The streamer the texture cache uses, created by `getShared()`. */
+	private static TextureStreamer sShared = null;
+
+	private final ExecutorService mDecoder;
+	private final ConcurrentLinkedQueue<Request> mDecoded = new ConcurrentLinkedQueue<Request>();
+	private final AtomicInteger mDecodeQueueDepth = new AtomicInteger(0);
+	private final UploadScheduler<Request> mScheduler;
+
+	/* Pixel buffer object bands are staged in, or -1 if not created yet, and whether pixel buffer objects
+	 * are available, which is asked once; see `uploadBand()`. */
+	private int mPixelBuffer = -1;
+	private long mPixelBufferSize = 0;
+	private Boolean mPixelBuffersAvailable = null;
+
+	/* Scratch for buffer names and GL state queries. */
+	private final int mIntegerQuery[] = new int[1];
+
+	private int mCompletedCount = 0;
+	private int mFailedCount = 0;
+
+	/**
+	 * Creates a streamer.
+	 *
+	 * @param threadCount Number of threads decoding images.
+	 * @param frameBudget Number of bytes to upload per frame.
+	 */
+	public TextureStreamer(int threadCount, long frameBudget)
+	{
+		mDecoder = Executors.newFixedThreadPool(Math.max(1, threadCount), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				/* Daemon threads, so pending decodes don't keep the application alive. */
+				Thread thread = new Thread(runnable, "Texture decoder");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		mScheduler = new UploadScheduler<Request>(frameBudget);
+	}
+
+	/**
+	 * Returns the streamer shared by the whole application, with one decoding thread per spare processor.
+	 */
+	public static synchronized TextureStreamer getShared()
+	{
+		if (sShared == null)
+		{
+			int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			sShared = new TextureStreamer(threadCount, DEFAULT_FRAME_BUDGET);
+		}
+
+		return sShared;
+	}
+
+	/**
+	 * Returns a placeholder texture which will receive the image once it's loaded. The "rectangularness"
+	 * of the texture is chosen automatically, as in `Texture2D.load(GL2, String)`.
+	 *
+	 * @param gl The OpenGL context in which the texture lives.
+	 * @param identifier The name of the image to load.
+	 * @param listener Notified when the image has arrived; may be null.
+	 */
+	public Texture2D load(GL2 gl, String identifier, Listener listener) throws OpenGLException, IOException
+	{
+		return load(gl, identifier, RECT_AUTO, listener);
+	}
+
+	/**
+	 * Returns a placeholder texture which will receive the image once it's loaded.
+	 *
+	 * @param gl The OpenGL context in which the texture lives.
+	 * @param identifier The name of the image to load.
+	 * @param rectTexture If true, the texture will be a rectangular texture; see `Texture2D.load()`.
+	 * @param listener Notified when the image has arrived; may be null.
+	 */
+	public Texture2D load(GL2 gl, String identifier, boolean rectTexture, Listener listener) throws OpenGLException, IOException
+	{
+		return load(gl, identifier, (rectTexture ? RECT_ON : RECT_OFF), listener);
+	}
+
+	private Texture2D load(GL2 gl, String identifier, int rectMode, Listener listener) throws OpenGLException, IOException
+	{
+		/* Missing files are reported right away, like `Texture2D.load()` does. */
+		URL url = TextureStreamer.class.getClassLoader().getResource(identifier);
+		if (url == null)
+		{
+			throw new IOException("Could not find texture file '" + identifier + "'.");
+		}
+
+		ByteBuffer white = Buffers.newDirectByteBuffer(new byte[] { (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff });
+		Texture2D placeholder = new Texture2D(gl, Format.RGBA, Datatype.INT8, 1, 1, white, rectMode == RECT_ON);
+
+		final Request request = new Request(placeholder, url, rectMode, listener);
+		mDecodeQueueDepth.incrementAndGet();
+
+		mDecoder.execute(new Runnable() {
+			@Override
+			public void run()
+			{
+				try
+				{
+					request.data = TextureData.read(request.url);
+				}
+				catch (IOException err)
+				{
+					request.error = err;
+				}
+				catch (RuntimeException err)
+				{
+					request.error = new IOException("Could not decode texture file '" + request.url + "'.", err);
+				}
+
+				mDecoded.add(request);
+				mDecodeQueueDepth.decrementAndGet();
+			}
+		});
+
+		return placeholder;
+	}
+
+	/**
+	 * Uploads decoded images within this frame's budget, and swaps finished ones in for their
+	 * placeholders. Call once per frame on the GL thread.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void update(GL2 gl) throws OpenGLException
+	{
+		/* Queue newly decoded images for upload. */
+		Request request;
+		while ((request = mDecoded.poll()) != null)
+		{
+			if (request.error != null)
+			{
+				++mFailedCount;
+				System.out.println("Error streaming texture '" + request.url + "'; keeping the placeholder.");
+				request.error.printStackTrace();
+				continue;
+			}
+
+			TextureData data = request.data;
+			if (request.rectMode == RECT_AUTO)
+			{
+				request.staging = new Texture2D(gl, Format.RGBA, Datatype.INT8, data.getWidth(), data.getHeight(), null);
+			}
+			else
+			{
+				request.staging = new Texture2D(gl, Format.RGBA, Datatype.INT8, data.getWidth(), data.getHeight(), null, request.rectMode == RECT_ON);
+			}
+
+			mScheduler.enqueue(request, data.getHeight(), data.getWidth() * 4);
+		}
+
+		/* Send bands until the budget is spent. */
+		mScheduler.beginFrame();
+
+		UploadScheduler.Upload<Request> upload;
+		while ((upload = mScheduler.nextBand()) != null)
+		{
+			request = upload.getTarget();
+			uploadBand(gl, request, upload.getBandFirstRow(), upload.getBandRowCount());
+
+			if (upload.isComplete())
+			{
+				finish(gl, request);
+			}
+		}
+
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	/**
+	 * Waits until every image loaded so far is decoded, and uploads them all at once, whatever the
+	 * frame budget. For code which needs the real images rather than placeholders before the first frame,
+	 * e.g. `TextureAtlas.build()`, which reads textures back. Call on the GL thread.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void flush(GL2 gl) throws OpenGLException
+	{
+		long frameBudget = mScheduler.getFrameBudget();
+		mScheduler.setFrameBudget(Long.MAX_VALUE);
+
+		try
+		{
+			while (!isIdle())
+			{
+				update(gl);
+
+				if (mDecodeQueueDepth.get() > 0 && mDecoded.isEmpty())
+				{
+					Thread.sleep(1);
+				}
+			}
+		}
+		catch (InterruptedException err)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			mScheduler.setFrameBudget(frameBudget);
+		}
+	}
+
+	/**
+	 * Copies rows of a request's data into its staging texture.
+	 */
+	private void uploadBand(GL2 gl, Request request, int firstRow, int rowCount) throws OpenGLException
+	{
+		TextureData data = request.data;
+		Texture2D staging = request.staging;
+		int rowBytes = data.getWidth() * 4;
+
+		/* Only this thread reads the decoded data, so select the band in place rather than through a duplicate. */
+		ByteBuffer band = data.getData();
+		band.limit(band.capacity());
+		band.position(firstRow * rowBytes);
+		band.limit((firstRow + rowCount) * rowBytes);
+
+		if (mPixelBuffersAvailable == null)
+		{
+			mPixelBuffersAvailable = Boolean.valueOf(gl.isExtensionAvailable("GL_ARB_pixel_buffer_object"));
+		}
+
+		boolean usePixelBuffer = mPixelBuffersAvailable.booleanValue();
+		if (usePixelBuffer)
+		{
+			/* Copy the band into the pixel buffer (orphaning its previous contents), so the driver can
+			 * transfer it to the texture without blocking on our memory. */
+			if (mPixelBuffer < 0)
+			{
+				gl.glGenBuffers(1, mIntegerQuery, 0);
+				mPixelBuffer = mIntegerQuery[0];
+			}
+
+			long size = Math.max(band.remaining(), mPixelBufferSize);
+			gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, mPixelBuffer);
+			gl.glBufferData(GL2.GL_PIXEL_UNPACK_BUFFER, size, null, GL2.GL_STREAM_DRAW);
+			mPixelBufferSize = size;
+
+			ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, GL2.GL_WRITE_ONLY);
+			if (mapped == null)
+			{
+				gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, 0);
+				usePixelBuffer = false;
+			}
+			else
+			{
+				mapped.put(band);
+				gl.glUnmapBuffer(GL2.GL_PIXEL_UNPACK_BUFFER);
+				band.position(firstRow * rowBytes);
+			}
+		}
+
+		staging.bind(gl, 0);
+
+		int previousActive[] = mIntegerQuery;
+		gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
+		gl.glActiveTexture(GL2.GL_TEXTURE0 + staging.getBoundTextureUnit());
+
+		if (usePixelBuffer)
+		{
+			gl.glTexSubImage2D(staging.getTextureTarget(), 0, 0, firstRow, data.getWidth(), rowCount, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, 0L);
+			gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, 0);
+		}
+		else
+		{
+			gl.glTexSubImage2D(staging.getTextureTarget(), 0, 0, firstRow, data.getWidth(), rowCount, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, band);
+		}
+
+		gl.glActiveTexture(previousActive[0]);
+		staging.unbind(gl);
+	}
+
+	/**
+	 * Swaps a fully uploaded texture in for its placeholder.
+	 */
+	private void finish(GL2 gl, Request request)
+	{
+		if (request.texture.getHandle() < 0)
+		{
+			/* The placeholder was released while streaming; nobody wants the data anymore. */
+			request.staging.releaseGPUResources(gl);
+		}
+		else
+		{
+			request.texture.replaceWith(gl, request.staging);
+
+			if (request.listener != null)
+			{
+				request.listener.textureStreamed(gl, request.texture);
+			}
+		}
+
+		request.staging = null;
+		request.data = null;
+		++mCompletedCount;
+	}
+
+	/**
+	 * Returns true if no image is being decoded or uploaded.
+	 */
+	public boolean isIdle()
+	{
+		return mDecodeQueueDepth.get() == 0 && mDecoded.isEmpty() && mScheduler.getPendingCount() == 0;
+	}
+
+	/**
+	 * Returns the number of images queued for or being decoded.
+	 */
+	public int getDecodeQueueDepth()
+	{
+		return mDecodeQueueDepth.get();
+	}
+
+	/**
+	 * Returns the number of decoded images waiting for or partway through upload, as of the last `update()`.
+	 */
+	public int getPendingUploadCount()
+	{
+		return mScheduler.getPendingCount();
+	}
+
+	/**
+	 * Returns the number of bytes uploaded by the last `update()`.
+	 */
+	public long getFrameUploadBytes()
+	{
+		return mScheduler.getFrameBytes();
+	}
+
+	/**
+	 * Returns the number of bytes uploaded since this streamer was created.
+	 */
+	public long getTotalUploadBytes()
+	{
+		return mScheduler.getTotalBytes();
+	}
+
+	public long getFrameBudget()
+	{
+		return mScheduler.getFrameBudget();
+	}
+
+	/**
+	 * Sets the number of bytes to upload per frame.
+	 */
+	public void setFrameBudget(long frameBudget)
+	{
+		mScheduler.setFrameBudget(frameBudget);
+	}
+
+	/**
+	 * Returns the number of textures which have received their image.
+	 */
+	public int getCompletedCount()
+	{
+		return mCompletedCount;
+	}
+
+	/**
+	 * Returns the number of textures whose image couldn't be decoded.
+	 */
+	public int getFailedCount()
+	{
+		return mFailedCount;
+	}
+
+	/**
+	 * Stops decoding and releases the pixel buffer and any half-uploaded textures. Placeholders
+	 * still waiting stay as they are.
+	 */
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		mDecoder.shutdownNow();
+
+		synchronized (TextureStreamer.class)
+		{
+			if (sShared == this)
+			{
+				sShared = null;
+			}
+		}
+
+		for (UploadScheduler.Upload<Request> upload : mScheduler.removeAll())
+		{
+			upload.getTarget().staging.releaseGPUResources(gl);
+			upload.getTarget().staging = null;
+		}
+
+		if (mPixelBuffer >= 0)
+		{
+			gl.glDeleteBuffers(1, new int[] { mPixelBuffer }, 0);
+			mPixelBuffer = -1;
+			mPixelBufferSize = 0;
+		}
+		mPixelBuffersAvailable = null;
+	}
+}
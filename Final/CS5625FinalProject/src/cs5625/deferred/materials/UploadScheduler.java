@@ -0,0 +1,210 @@
+package cs5625.deferred.materials;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * UploadScheduler.java
+ *
+ * Splits queued image uploads into bands of rows so that no more than a fixed number of bytes is sent
+ * to the GPU per frame. Uploads are served in the order they were queued.
+ *
+ * Each frame, call `beginFrame()` and then `nextBand()` until it returns null, uploading the band it
+ * describes each time. A band always has at least one row, so an upload whose rows are larger than the
+ * budget still gets one row per frame.
+ *
+ * This class does no OpenGL work, so it can be exercised without a GPU; `TextureStreamer` does the
+ * uploading.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class UploadScheduler<T>
+{
+	/**
+	 * An image being uploaded, and the band of it to upload next.
+	 */
+	public static class Upload<T>
+	{
+		private final T mTarget;
+		private final int mRowCount;
+		private final int mRowBytes;
+		private int mRowsScheduled = 0;
+		private int mBandFirstRow = 0;
+		private int mBandRowCount = 0;
+
+		private Upload(T target, int rowCount, int rowBytes)
+		{
+			mTarget = target;
+			mRowCount = rowCount;
+			mRowBytes = rowBytes;
+		}
+
+		/**
+		 * Returns the object this upload was queued for.
+		 */
+		public T getTarget()
+		{
+			return mTarget;
+		}
+
+		public int getRowCount()
+		{
+			return mRowCount;
+		}
+
+		public int getRowBytes()
+		{
+			return mRowBytes;
+		}
+
+		/**
+		 * Returns true once every row has been handed out in a band.
+		 */
+		public boolean isComplete()
+		{
+			return mRowsScheduled >= mRowCount;
+		}
+
+		/**
+		 * Returns the first row of the band returned by the last `nextBand()`.
+		 */
+		public int getBandFirstRow()
+		{
+			return mBandFirstRow;
+		}
+
+		/**
+		 * Returns the number of rows in the band returned by the last `nextBand()`.
+		 */
+		public int getBandRowCount()
+		{
+			return mBandRowCount;
+		}
+
+		public long getBandBytes()
+		{
+			return (long)mBandRowCount * mRowBytes;
+		}
+	}
+
+	private final LinkedList<Upload<T>> mQueue = new LinkedList<Upload<T>>();
+
+	private long mFrameBudget;
+	private long mFrameBytes = 0;
+	private long mTotalBytes = 0;
+
+	/**
+	 * Creates an empty scheduler.
+	 *
+	 * @param frameBudget Number of bytes to upload per frame.
+	 */
+	public UploadScheduler(long frameBudget)
+	{
+		mFrameBudget = frameBudget;
+	}
+
+	/**
+	 * Queues an image for upload.
+	 *
+	 * @param target The object the image is for, returned by `Upload.getTarget()`.
+	 * @param rowCount Number of rows in the image.
+	 * @param rowBytes Size of each row, in bytes.
+	 */
+	public Upload<T> enqueue(T target, int rowCount, int rowBytes)
+	{
+		Upload<T> upload = new Upload<T>(target, rowCount, rowBytes);
+		mQueue.add(upload);
+		return upload;
+	}
+
+	/**
+	 * Starts a new frame, resetting the bytes left to upload to the frame budget.
+	 */
+	public void beginFrame()
+	{
+		mFrameBytes = 0;
+	}
+
+	/**
+	 * Returns the upload to send a band of next, with the band's rows set, or null if nothing is queued
+	 * or this frame's budget is spent. The rows are counted as uploaded; an upload is removed from the
+	 * queue when its last band is returned.
+	 */
+	public Upload<T> nextBand()
+	{
+		if (mQueue.isEmpty())
+		{
+			return null;
+		}
+
+		Upload<T> upload = mQueue.getFirst();
+		long remaining = mFrameBudget - mFrameBytes;
+
+		if (mFrameBytes > 0 && remaining < upload.mRowBytes)
+		{
+			return null;
+		}
+
+		int rows = (int)Math.min(upload.mRowCount - upload.mRowsScheduled, Math.max(1, remaining / Math.max(1, upload.mRowBytes)));
+
+		upload.mBandFirstRow = upload.mRowsScheduled;
+		upload.mBandRowCount = rows;
+		upload.mRowsScheduled += rows;
+
+		mFrameBytes += upload.getBandBytes();
+		mTotalBytes += upload.getBandBytes();
+
+		if (upload.isComplete())
+		{
+			mQueue.removeFirst();
+		}
+
+		return upload;
+	}
+
+	/**
+	 * Removes every queued upload, and returns them.
+	 */
+	public List<Upload<T>> removeAll()
+	{
+		List<Upload<T>> removed = new ArrayList<Upload<T>>(mQueue);
+		mQueue.clear();
+		return removed;
+	}
+
+	/**
+	 * Returns the number of uploads that still have rows to send.
+	 */
+	public int getPendingCount()
+	{
+		return mQueue.size();
+	}
+
+	public long getFrameBudget()
+	{
+		return mFrameBudget;
+	}
+
+	public void setFrameBudget(long frameBudget)
+	{
+		mFrameBudget = frameBudget;
+	}
+
+	/**
+	 * Returns the number of bytes scheduled since the last `beginFrame()`.
+	 */
+	public long getFrameBytes()
+	{
+		return mFrameBytes;
+	}
+
+	/**
+	 * Returns the number of bytes scheduled since this scheduler was created.
+	 */
+	public long getTotalBytes()
+	{
+		return mTotalBytes;
+	}
+}
@@ -0,0 +1,290 @@
+package cs5625.deferred.misc;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javax.media.opengl.GL2;
+
+/**
+ * ResourceCache.java
+ *
+ * Shares OpenGL resources by key, counting references to each, and keeps unreferenced ones around
+ * for reuse until they no longer fit in a byte budget.
+ *
+ * `acquire()` returns the cached resource for a key (a hit) and adds a reference to it, or null (a
+ * miss), in which case the caller creates the resource and `add()`s it holding the first reference.
+ * Every reference is given back with `release()`. A resource whose last reference is released stays
+ * resident, so acquiring it again is still a hit, until the cache needs its bytes: whenever the
+ * resident total is over budget, the least recently used unreferenced resources are released until
+ * it isn't. Referenced resources are never evicted, so the budget can be exceeded while they are all
+ * in use.
+ *
+ * The policy never touches OpenGL itself; the passed GL2 is only handed to `releaseGPUResources()`
+ * of evicted resources.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ResourceCache<V extends OpenGLResourceObject>
+{
+	private static class Entry<V>
+	{
+		final String key;
+		final V value;
+		long bytes;
+		int references;
+
+		Entry(String key, V value, long bytes)
+		{
+			this.key = key;
+			this.value = value;
+			this.bytes = bytes;
+		}
+	}
+
+	/* Entries by key, least recently used first. */
+	private final LinkedHashMap<String, Entry<V>> mEntries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true);
+
+	/* The same entries by resource, for `release()`. */
+	private final IdentityHashMap<V, Entry<V>> mEntriesByValue = new IdentityHashMap<V, Entry<V>>();
+
+	private long mBudget;
+	private long mResidentBytes = 0;
+
+	private int mHitCount = 0;
+	private int mMissCount = 0;
+	private int mEvictionCount = 0;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param budget Number of bytes unreferenced resources may occupy together with referenced ones.
+	 */
+	public ResourceCache(long budget)
+	{
+		mBudget = budget;
+	}
+
+	/**
+	 * Returns the resource cached under the given key with a new reference to it, or null if there is none.
+	 */
+	public synchronized V acquire(String key)
+	{
+		Entry<V> entry = mEntries.get(key);
+		if (entry == null)
+		{
+			++mMissCount;
+			return null;
+		}
+
+		++mHitCount;
+		++entry.references;
+		return entry.value;
+	}
+
+	/**
+	 * Caches a new resource under the given key, holding one reference for the caller, and evicts
+	 * unreferenced resources if that puts the cache over budget.
+	 *
+	 * @param gl The OpenGL state, for releasing evicted resources.
+	 * @param key Key to cache the resource under; must not already be cached.
+	 * @param value The resource.
+	 * @param bytes Memory the resource occupies, in bytes.
+	 */
+	public synchronized void add(GL2 gl, String key, V value, long bytes)
+	{
+		if (mEntries.containsKey(key))
+		{
+			throw new IllegalArgumentException("Resource '" + key + "' is already cached.");
+		}
+
+		Entry<V> entry = new Entry<V>(key, value, bytes);
+		entry.references = 1;
+
+		mEntries.put(key, entry);
+		mEntriesByValue.put(value, entry);
+		mResidentBytes += bytes;
+
+		trim(gl);
+	}
+
+	/**
+	 * Gives back a reference obtained from `acquire()` or `add()`. Once a resource has no references left
+	 * it may be evicted.
+	 *
+	 * @return False if the resource isn't in this cache, in which case nothing is done.
+	 */
+	public synchronized boolean release(GL2 gl, V value)
+	{
+		Entry<V> entry = (value != null ? mEntriesByValue.get(value) : null);
+		if (entry == null)
+		{
+			return false;
+		}
+
+		if (entry.references > 0)
+		{
+			--entry.references;
+		}
+
+		if (entry.references == 0)
+		{
+			trim(gl);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Changes the recorded size of a cached resource, e.g. once data has been streamed into it, and
+	 * evicts unreferenced resources if the cache no longer fits.
+	 */
+	public synchronized void resize(GL2 gl, V value, long bytes)
+	{
+		Entry<V> entry = mEntriesByValue.get(value);
+		if (entry != null)
+		{
+			mResidentBytes += bytes - entry.bytes;
+			entry.bytes = bytes;
+			trim(gl);
+		}
+	}
+
+	/**
+	 * Returns true if the resource is in this cache.
+	 */
+	public synchronized boolean contains(V value)
+	{
+		return mEntriesByValue.containsKey(value);
+	}
+
+	/**
+	 * Returns the number of references held to the resource, or 0 if it isn't cached.
+	 */
+	public synchronized int getReferenceCount(V value)
+	{
+		Entry<V> entry = mEntriesByValue.get(value);
+		return (entry != null ? entry.references : 0);
+	}
+
+	/**
+	 * Evicts the least recently used unreferenced resources until the cache is within budget, or only
+	 * referenced resources remain.
+	 */
+	public synchronized void trim(GL2 gl)
+	{
+		Iterator<Entry<V>> entries = mEntries.values().iterator();
+		while (mResidentBytes > mBudget && entries.hasNext())
+		{
+			Entry<V> entry = entries.next();
+			if (entry.references == 0)
+			{
+				entries.remove();
+				evict(gl, entry);
+			}
+		}
+	}
+
+	/**
+	 * Evicts every unreferenced resource.
+	 */
+	public synchronized void evictUnreferenced(GL2 gl)
+	{
+		Iterator<Entry<V>> entries = mEntries.values().iterator();
+		while (entries.hasNext())
+		{
+			Entry<V> entry = entries.next();
+			if (entry.references == 0)
+			{
+				entries.remove();
+				evict(gl, entry);
+			}
+		}
+	}
+
+	/**
+	 * Releases every resource, referenced or not, and empties the cache. Counters are kept.
+	 */
+	public synchronized void clear(GL2 gl)
+	{
+		for (Entry<V> entry : mEntries.values())
+		{
+			entry.value.releaseGPUResources(gl);
+		}
+
+		mEntries.clear();
+		mEntriesByValue.clear();
+		mResidentBytes = 0;
+	}
+
+	private void evict(GL2 gl, Entry<V> entry)
+	{
+		mEntriesByValue.remove(entry.value);
+		mResidentBytes -= entry.bytes;
+		++mEvictionCount;
+
+		entry.value.releaseGPUResources(gl);
+	}
+
+	public synchronized long getBudget()
+	{
+		return mBudget;
+	}
+
+	/**
+	 * Sets the byte budget, evicting unreferenced resources if the cache no longer fits.
+	 */
+	public synchronized void setBudget(GL2 gl, long budget)
+	{
+		mBudget = budget;
+		trim(gl);
+	}
+
+	/**
+	 * Returns the total size of all cached resources, referenced or not, in bytes.
+	 */
+	public synchronized long getResidentBytes()
+	{
+		return mResidentBytes;
+	}
+
+	public synchronized int getEntryCount()
+	{
+		return mEntries.size();
+	}
+
+	/**
+	 * Returns the number of `acquire()` calls which found their resource.
+	 */
+	public synchronized int getHitCount()
+	{
+		return mHitCount;
+	}
+
+	/**
+	 * Returns the number of `acquire()` calls which didn't find their resource.
+	 */
+	public synchronized int getMissCount()
+	{
+		return mMissCount;
+	}
+
+	/**
+	 * Returns the number of resources released to stay within budget.
+	 */
+	public synchronized int getEvictionCount()
+	{
+		return mEvictionCount;
+	}
+
+	/**
+	 * Sets the hit, miss and eviction counters back to 0.
+	 */
+	public synchronized void resetCounters()
+	{
+		mHitCount = 0;
+		mMissCount = 0;
+		mEvictionCount = 0;
+	}
+}
@@ -1,5 +1,6 @@
 package cs5625.deferred.misc;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 
 import javax.media.opengl.GL2;
@@ -33,24 +34,59 @@ public class Util
 	 *        output, `tuple` has been rotated by `quat`.
 	 */
 	public static void rotateTuple(Quat4f quat, Tuple3f tuple)
+	{
+		rotateTuple(quat.x, quat.y, quat.z, quat.w, tuple);
+	}
+	
+	/**
+	 * Rotates the tuple (vector or point) by the inverse of a quaternion.
+	 * 
+	 * Same as `rotateTuple()` with the inverse quaternion, but without allocating it.
+	 * 
+	 * @param quat The quaternion whose inverse to rotate by.
+	 * @param tuple The tuple to rotate, in-place.
+	 */
+	public static void rotateTupleInverse(Quat4f quat, Tuple3f tuple)
+	{
+		rotateTuple(-quat.x, -quat.y, -quat.z, quat.w, tuple);
+	}
+	
+	/**
+	 * Rotates the tuple by the quaternion (x, y, z, w), which need not be normalized.
+	 * 
+	 * This expands `quat * tuple * inverse(quat)` by hand so that no temporary quaternions are 
+	 * allocated; it is called for every scenegraph transform on every frame.
+	 */
+	private static void rotateTuple(float x, float y, float z, float w, Tuple3f tuple)
 	{
 		if (tuple.x == 0.0f && tuple.y == 0.0f && tuple.z == 0.0f)
 		{
 			return;
 		}
 		
-		/* Quat4f.mul() implicitly normalizes the result, so remember the length. */
-		float length = (float)Math.sqrt(tuple.x * tuple.x + tuple.y * tuple.y + tuple.z * tuple.z);
-		tuple.scale(1.0f / length);
+		/* Rotation by q is the same as rotation by q / |q|, so normalize first. */
+		float norm = x * x + y * y + z * z + w * w;
+		if (norm != 1.0f)
+		{
+			float invLength = 1.0f / (float)Math.sqrt(norm);
+			x *= invLength;
+			y *= invLength;
+			z *= invLength;
+			w *= invLength;
+		}
+		
+		/* v' = v + w * t + q.xyz cross t, where t = 2 * (q.xyz cross v). */
+		float tx = 2.0f * (y * tuple.z - z * tuple.y);
+		float ty = 2.0f * (z * tuple.x - x * tuple.z);
+		float tz = 2.0f * (x * tuple.y - y * tuple.x);
 		
-		/* quat * tuple * inverse(quat) */
-		Quat4f temp = new Quat4f(quat);
-		temp.mul(new Quat4f(tuple.x, tuple.y, tuple.z, 0.0f));
-		temp.mulInverse(quat);
+		float rx = tuple.x + w * tx + (y * tz - z * ty);
+		float ry = tuple.y + w * ty + (z * tx - x * tz);
+		float rz = tuple.z + w * tz + (x * ty - y * tx);
 		
-		tuple.x = temp.x * length;
-		tuple.y = temp.y * length;
-		tuple.z = temp.z * length;
+		tuple.x = rx;
+		tuple.y = ry;
+		tuple.z = rz;
 	}
 	
 	/**
@@ -61,12 +97,25 @@ public class Util
 	 * @return The 3-by-3 (rotation) matrix, representing the quaternion.
 	 */
 	public static Matrix3f getRotationMatrix3f(Quat4f quat)
+	{
+		Matrix3f result = new Matrix3f();
+		getRotationMatrix3f(quat, result);
+		return result;
+	}
+	
+	/**
+	 * Get the 3-by-3 matrix, representing the quaternion, without allocating.
+	 * 
+	 * @param quat The quaternion to transform to a matrix. 
+	 * @param result Receives the 3-by-3 (rotation) matrix.
+	 */
+	public static void getRotationMatrix3f(Quat4f quat, Matrix3f result)
 	{
 		float x = quat.x, y = quat.y, z = quat.z, w = quat.w;
 		
-		return new Matrix3f(1 - 2*y*y - 2*z*z, 2*x*y + 2*w*z, 2*x*z - 2*w*y,
-				2*x*y - 2*w*z, 1 - 2*x*x - 2*z*z, 2*y*z + 2*w*x,
-				2*x*z + 2*w*y, 2*y*z - 2*w*x, 1-2*x*x - 2*y*y);
+		result.m00 = 1 - 2*y*y - 2*z*z; result.m01 = 2*x*y + 2*w*z;     result.m02 = 2*x*z - 2*w*y;
+		result.m10 = 2*x*y - 2*w*z;     result.m11 = 1 - 2*x*x - 2*z*z; result.m12 = 2*y*z + 2*w*x;
+		result.m20 = 2*x*z + 2*w*y;     result.m21 = 2*y*z - 2*w*x;     result.m22 = 1-2*x*x - 2*y*y;
 	}
 	
 	/**
@@ -114,6 +163,71 @@ public class Util
 		};
 	}
 	
+	/**
+	 * Writes the passed matrix into `buffer` in column-major order, suitable for `glUniformMatrix4fv()` 
+	 * with `transpose = false`. The buffer is rewound before and after, so it can be reused every frame 
+	 * instead of wrapping a new array like `fromMatrix4f()` does.
+	 */
+	public static FloatBuffer putMatrix4f(FloatBuffer buffer, Matrix4f m)
+	{
+		buffer.rewind();
+		buffer.put(m.m00).put(m.m10).put(m.m20).put(m.m30);
+		buffer.put(m.m01).put(m.m11).put(m.m21).put(m.m31);
+		buffer.put(m.m02).put(m.m12).put(m.m22).put(m.m32);
+		buffer.put(m.m03).put(m.m13).put(m.m23).put(m.m33);
+		buffer.rewind();
+		return buffer;
+	}
+	
+	/**
+	 * Reads a matrix stored in `buffer` in column-major order (e.g. by `glGetFloatv()`) into `result`. 
+	 * The buffer is rewound before and after.
+	 */
+	public static Matrix4f getMatrix4f(FloatBuffer buffer, Matrix4f result)
+	{
+		buffer.rewind();
+		result.m00 = buffer.get(); result.m10 = buffer.get(); result.m20 = buffer.get(); result.m30 = buffer.get();
+		result.m01 = buffer.get(); result.m11 = buffer.get(); result.m21 = buffer.get(); result.m31 = buffer.get();
+		result.m02 = buffer.get(); result.m12 = buffer.get(); result.m22 = buffer.get(); result.m32 = buffer.get();
+		result.m03 = buffer.get(); result.m13 = buffer.get(); result.m23 = buffer.get(); result.m33 = buffer.get();
+		buffer.rewind();
+		return result;
+	}
+	
+	/**
+	 * Writes the passed matrix into `buffer` in column-major order, suitable for `glUniformMatrix3fv()` 
+	 * with `transpose = false`. The buffer is rewound before and after.
+	 */
+	public static FloatBuffer putMatrix3f(FloatBuffer buffer, Matrix3f m)
+	{
+		buffer.rewind();
+		buffer.put(m.m00).put(m.m10).put(m.m20);
+		buffer.put(m.m01).put(m.m11).put(m.m21);
+		buffer.put(m.m02).put(m.m12).put(m.m22);
+		buffer.rewind();
+		return buffer;
+	}
+	
+	/**
+	 * Inverts a rigid (rotation + translation) transformation without the temporary arrays 
+	 * `Matrix4f.invert()` allocates. The inverse of [R t] is [R^T -R^T t].
+	 * 
+	 * @param m The rigid transformation to invert. The bottom row must be (0, 0, 0, 1).
+	 * @param result Receives the inverse. May not be the same object as `m`.
+	 */
+	public static void invertRigid(Matrix4f m, Matrix4f result)
+	{
+		result.m00 = m.m00; result.m01 = m.m10; result.m02 = m.m20;
+		result.m10 = m.m01; result.m11 = m.m11; result.m12 = m.m21;
+		result.m20 = m.m02; result.m21 = m.m12; result.m22 = m.m22;
+		
+		result.m03 = -(result.m00 * m.m03 + result.m01 * m.m13 + result.m02 * m.m23);
+		result.m13 = -(result.m10 * m.m03 + result.m11 * m.m13 + result.m12 * m.m23);
+		result.m23 = -(result.m20 * m.m03 + result.m21 * m.m13 + result.m22 * m.m23);
+		
+		result.m30 = 0.0f; result.m31 = 0.0f; result.m32 = 0.0f; result.m33 = 1.0f;
+	}
+	
 	/**
 	 * Splits the passed string into words separated by any one of a list of characters.
 	 * 
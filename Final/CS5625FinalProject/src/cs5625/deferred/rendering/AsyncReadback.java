@@ -0,0 +1,659 @@
+package cs5625.deferred.rendering;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import javax.media.opengl.GL2;
+import javax.media.opengl.GL3;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Texture;
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.materials.TextureCubeMap;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.OpenGLResourceObject;
+
+/**
+ * AsyncReadback.java
+ *
+ * Reads textures (e.g. G-buffer attachments, or cube map faces) back to the CPU without stalling the
+ * GL thread. A readback copies the texture into one of a ring of pixel pack buffers and returns at once;
+ * a few frames later, when the GPU has finished the copy, `update()` (called by the renderer on the GL
+ * thread once per frame) maps the buffer and hands its contents to the readback's listener.
+ *
+ * Completion is detected with a fence after each copy: a sync object where OpenGL 3.2 is available,
+ * otherwise an NV_fence, and otherwise none, in which case a readback is assumed complete after a
+ * couple of frames. See `ReadbackRing` for the bookkeeping. If every buffer is still in flight, new
+ * readbacks are dropped (and counted) rather than waiting.
+ *
+ * The direct buffers data is copied into come from a pool: listeners which are done with a readback's
+ * data call `Readback.recycle()` (from any thread), and later readbacks reuse the buffer instead of
+ * allocating another.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class AsyncReadback implements OpenGLResourceObject
+{
+	/** Default number of readbacks in flight at once. */
+	public static final int DEFAULT_SLOT_COUNT = 4;
+
+	/** Default number of frames after which a readback without a fence is collected. */
+	public static final int DEFAULT_MIN_LATENCY = 2;
+
+	/** Default number of frames after which a readback is collected even if the GPU hasn't signaled it. */
+	public static final int DEFAULT_MAX_LATENCY = 8;
+
+	/* Data buffers pooled per slot: one for each readback in flight, and as many again for listeners
+	 * which hold on to theirs for a while (e.g. `FrameRecorder`'s encoders). */
+	private static final int MAX_POOLED_BUFFERS_PER_SLOT = 2;
+
+	/**
+	 * Receives the data of completed readbacks, on the GL thread.
+	 */
+	public interface Listener
+	{
+		public void readbackCompleted(GL2 gl, Readback readback);
+	}
+
+	/**
+	 * A completed readback.
+	 */
+	public static class Readback
+	{
+		private final Texture mTexture;
+		private final int mFace;
+		private final int mWidth, mHeight;
+		private final Format mFormat;
+		private final Datatype mDatatype;
+		private final long mFrame;
+		private final Listener mListener;
+		private final AsyncReadback mOwner;
+		private ByteBuffer mData = null;
+
+		private Readback(AsyncReadback owner, Texture texture, int face, int width, int height, Format format, Datatype datatype, long frame, Listener listener)
+		{
+			mOwner = owner;
+			mTexture = texture;
+			mFace = face;
+			mWidth = width;
+			mHeight = height;
+			mFormat = format;
+			mDatatype = datatype;
+			mFrame = frame;
+			mListener = listener;
+		}
+
+		/**
+		 * Returns the texture which was read.
+		 */
+		public Texture getTexture()
+		{
+			return mTexture;
+		}
+
+		/**
+		 * Returns the cube map face which was read (0 to 5, in the order of GL_TEXTURE_CUBE_MAP_POSITIVE_X
+		 * and on), or -1 for 2D textures.
+		 */
+		public int getFace()
+		{
+			return mFace;
+		}
+
+		public int getWidth()
+		{
+			return mWidth;
+		}
+
+		public int getHeight()
+		{
+			return mHeight;
+		}
+
+		public Format getFormat()
+		{
+			return mFormat;
+		}
+
+		/**
+		 * Returns the datatype of the data; FLOAT16 textures are read as FLOAT32.
+		 */
+		public Datatype getDatatype()
+		{
+			return mDatatype;
+		}
+
+		/**
+		 * Returns the value of `AsyncReadback.getFrame()` when the readback was started.
+		 */
+		public long getFrame()
+		{
+			return mFrame;
+		}
+
+		/**
+		 * Returns the pixels, bottom row first and tightly packed, in a direct buffer in native byte order
+		 * which belongs to the listener until it calls `recycle()`. The buffer may be larger than the 
+		 * pixels; its limit is their size.
+		 */
+		public ByteBuffer getData()
+		{
+			return mData;
+		}
+
+		/**
+		 * Gives the data buffer back to the readback service, for a later readback to reuse. The data
+		 * must not be used afterwards. May be called from any thread, once.
+		 */
+		public void recycle()
+		{
+			ByteBuffer data = mData;
+			mData = null;
+			if (data != null)
+			{
+				mOwner.recycleBuffer(data);
+			}
+		}
+	}
+
+	/* Ways of knowing when a copy is done. */
+	private enum FenceMode
+	{
+		UNCHECKED, SYNC, NV_FENCE, NONE
+	}
+
+	/* A sync object, from OpenGL 3.2 or ARB_sync. */
+	private static class SyncFence implements ReadbackRing.Fence
+	{
+		private final GL3 mGL;
+		private final long mSync;
+		private final IntBuffer mStatus;
+
+		/* `status` is scratch space shared by the service's fences, all of which are tested on the GL thread. */
+		SyncFence(GL3 gl, IntBuffer status)
+		{
+			mGL = gl;
+			mStatus = status;
+			mSync = gl.glFenceSync(GL3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		}
+
+		@Override
+		public boolean isSignaled()
+		{
+			mGL.glGetSynciv(mSync, GL3.GL_SYNC_STATUS, 1, null, mStatus);
+			return mStatus.get(0) == GL3.GL_SIGNALED;
+		}
+
+		@Override
+		public void release()
+		{
+			mGL.glDeleteSync(mSync);
+		}
+	}
+
+	/* An NV_fence, reused for the slot it was made for. */
+	private static class NVFence implements ReadbackRing.Fence
+	{
+		private final GL2 mGL;
+		private final int mFence;
+
+		NVFence(GL2 gl, int fence)
+		{
+			mGL = gl;
+			mFence = fence;
+			gl.glSetFenceNV(fence, GL2.GL_ALL_COMPLETED_NV);
+		}
+
+		@Override
+		public boolean isSignaled()
+		{
+			return mGL.glTestFenceNV(mFence);
+		}
+
+		@Override
+		public void release()
+		{
+			/* The fence name belongs to the slot, and is deleted with it. */
+		}
+	}
+
+	private final ReadbackRing<Readback> mRing;
+
+	/* One pixel pack buffer (and NV fence name, if used) per ring slot; created on first use. */
+	private int mPixelBuffers[] = null;
+	private long mPixelBufferSizes[] = null;
+	private int mNVFences[] = null;
+
+	private FenceMode mFenceMode = FenceMode.UNCHECKED;
+	private long mFrame = 0;
+	private long mCompletedBytes = 0;
+
+	/* Data buffers given back by listeners, guarded by themselves. */
+	private final ByteBuffer mBufferPool[];
+	private int mPooledBufferCount = 0;
+	private long mAllocatedBufferCount = 0;
+
+	/* Scratch for GL state queries, and the pack alignment to restore after a copy; it is read once, as 
+	 * nothing else in the renderer changes it. */
+	private final int mIntegerQuery[] = new int[1];
+	private final IntBuffer mSyncStatus = Buffers.newDirectIntBuffer(1);
+	private int mPackAlignment = 4;
+
+	/**
+	 * Creates a readback service with `DEFAULT_SLOT_COUNT` buffers.
+	 */
+	public AsyncReadback()
+	{
+		this(DEFAULT_SLOT_COUNT);
+	}
+
+	/**
+	 * Creates a readback service.
+	 *
+	 * @param slotCount Number of readbacks which can be in flight at once.
+	 */
+	public AsyncReadback(int slotCount)
+	{
+		mRing = new ReadbackRing<Readback>(slotCount, DEFAULT_MIN_LATENCY, DEFAULT_MAX_LATENCY);
+		mBufferPool = new ByteBuffer[Math.max(1, slotCount) * MAX_POOLED_BUFFERS_PER_SLOT];
+	}
+
+	/**
+	 * Starts reading a 2D texture in its own format and datatype (RGBA8 for compressed textures).
+	 *
+	 * @return False if every buffer was in flight, so the readback was dropped.
+	 */
+	public boolean readTexture(GL2 gl, Texture2D texture, Listener listener) throws OpenGLException
+	{
+		return readTexture(gl, texture, texture.getFormat(), texture.getDatatype(), listener);
+	}
+
+	/**
+	 * Starts reading a 2D texture, converted to the given format and datatype.
+	 *
+	 * @return False if every buffer was in flight, so the readback was dropped.
+	 */
+	public boolean readTexture(GL2 gl, Texture2D texture, Format format, Datatype datatype, Listener listener) throws OpenGLException
+	{
+		return read(gl, texture, texture.getTextureTarget(), -1, texture.getWidth(), texture.getHeight(), format, datatype, listener);
+	}
+
+	/**
+	 * Starts reading a cube map face in the cube map's own format and datatype.
+	 *
+	 * @param face The face, 0 to 5, in the order of GL_TEXTURE_CUBE_MAP_POSITIVE_X and on.
+	 * @return False if every buffer was in flight, so the readback was dropped.
+	 */
+	public boolean readCubeMapFace(GL2 gl, TextureCubeMap cubeMap, int face, Listener listener) throws OpenGLException
+	{
+		return readCubeMapFace(gl, cubeMap, face, cubeMap.getFormat(), cubeMap.getDatatype(), listener);
+	}
+
+	/**
+	 * Starts reading a cube map face, converted to the given format and datatype.
+	 *
+	 * @param face The face, 0 to 5, in the order of GL_TEXTURE_CUBE_MAP_POSITIVE_X and on.
+	 * @return False if every buffer was in flight, so the readback was dropped.
+	 */
+	public boolean readCubeMapFace(GL2 gl, TextureCubeMap cubeMap, int face, Format format, Datatype datatype, Listener listener) throws OpenGLException
+	{
+		if (face < 0 || face > 5)
+		{
+			throw new OpenGLException("Invalid cube map face " + face + ".");
+		}
+
+		return read(gl, cubeMap, GL2.GL_TEXTURE_CUBE_MAP_POSITIVE_X + face, face, cubeMap.getSize(), cubeMap.getSize(), format, datatype, listener);
+	}
+
+	private boolean read(GL2 gl, Texture texture, int imageTarget, int face, int width, int height, Format format, Datatype datatype, Listener listener) throws OpenGLException
+	{
+		/* Compressed textures are read decompressed, and half floats as floats, as `copyTextureImage()` does. */
+		if (format.isCompressed())
+		{
+			format = Format.RGBA;
+			datatype = Datatype.INT8;
+		}
+		if (datatype == Datatype.FLOAT16)
+		{
+			datatype = Datatype.FLOAT32;
+		}
+
+		if (mPixelBuffers == null)
+		{
+			createBuffers(gl);
+		}
+
+		int slot = mRing.acquire();
+		if (slot < 0)
+		{
+			return false;
+		}
+
+		/* Grow the slot's buffer if needed; contents are only read once the copy is done. */
+		long size = (long)width * height * format.getChannelCount() * datatype.getByteSize();
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, mPixelBuffers[slot]);
+		if (size > mPixelBufferSizes[slot])
+		{
+			gl.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, size, null, GL2.GL_STREAM_READ);
+			mPixelBufferSizes[slot] = size;
+		}
+
+		/* Bound if we weren't already, and copy tightly packed rows into the buffer. */
+		boolean wasBound = texture.isBound();
+		if (!wasBound)
+		{
+			texture.bind(gl, 0);
+		}
+
+		int previousActive[] = mIntegerQuery;
+		gl.glGetIntegerv(GL2.GL_ACTIVE_TEXTURE, previousActive, 0);
+		gl.glActiveTexture(GL2.GL_TEXTURE0 + texture.getBoundTextureUnit());
+		gl.glPixelStorei(GL2.GL_PACK_ALIGNMENT, 1);
+
+		gl.glGetTexImage(imageTarget, 0, format.toGLformat(), datatype.toGLtype(), 0L);
+
+		gl.glPixelStorei(GL2.GL_PACK_ALIGNMENT, mPackAlignment);
+		gl.glActiveTexture(previousActive[0]);
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+		if (!wasBound)
+		{
+			texture.unbind(gl);
+		}
+
+		mRing.submit(createFence(gl, slot), new Readback(this, texture, face, width, height, format, datatype, mFrame, listener));
+
+		OpenGLException.checkOpenGLError(gl);
+		return true;
+	}
+
+	/**
+	 * Hands every completed readback to its listener. Call once per frame on the GL thread.
+	 */
+	public void update(GL2 gl) throws OpenGLException
+	{
+		++mFrame;
+		mRing.beginFrame();
+
+		/* Make sure the fences of the last frame's readbacks reach the GPU. */
+		if (mRing.getPendingCount() > 0)
+		{
+			gl.glFlush();
+		}
+
+		int slot;
+		while ((slot = mRing.poll()) >= 0)
+		{
+			collect(gl, slot);
+		}
+
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	/**
+	 * Hands the oldest pending readback to its listener now, waiting for the GPU if it isn't done.
+	 * Callers which can't drop a readback call this when `isFull()`, to make room for it.
+	 *
+	 * @return False if no readback was pending.
+	 */
+	public boolean collectOldest(GL2 gl) throws OpenGLException
+	{
+		int slot = mRing.pollOldest();
+		if (slot < 0)
+		{
+			return false;
+		}
+
+		collect(gl, slot);
+		OpenGLException.checkOpenGLError(gl);
+		return true;
+	}
+
+	/**
+	 * Copies a finished readback out of its buffer and calls its listener.
+	 */
+	private void collect(GL2 gl, int slot) throws OpenGLException
+	{
+		Readback readback = mRing.getRequest(slot);
+		long size = (long)readback.mWidth * readback.mHeight * readback.mFormat.getChannelCount() * readback.mDatatype.getByteSize();
+
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, mPixelBuffers[slot]);
+		ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+
+		if (mapped == null)
+		{
+			gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+			OpenGLException.checkOpenGLError(gl);
+			throw new OpenGLException("Could not map readback buffer.");
+		}
+
+		ByteBuffer data = takeBuffer((int)size);
+		mapped.limit((int)size);
+		data.put(mapped);
+		data.rewind();
+
+		gl.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+		readback.mData = data;
+		mCompletedBytes += size;
+
+		if (readback.mListener != null)
+		{
+			readback.mListener.readbackCompleted(gl, readback);
+		}
+	}
+
+	/**
+	 * Returns a direct buffer with room for `size` bytes and its limit set to `size`: the smallest pooled
+	 * one which is big enough, or a new one.
+	 */
+	private ByteBuffer takeBuffer(int size)
+	{
+		synchronized (mBufferPool)
+		{
+			int best = -1;
+			for (int i = 0; i < mPooledBufferCount; ++i)
+			{
+				if (mBufferPool[i].capacity() >= size && (best < 0 || mBufferPool[i].capacity() < mBufferPool[best].capacity()))
+				{
+					best = i;
+				}
+			}
+
+			if (best >= 0)
+			{
+				ByteBuffer buffer = mBufferPool[best];
+				mBufferPool[best] = mBufferPool[--mPooledBufferCount];
+				mBufferPool[mPooledBufferCount] = null;
+
+				buffer.clear();
+				buffer.limit(size);
+				return buffer;
+			}
+
+			++mAllocatedBufferCount;
+		}
+
+		return Buffers.newDirectByteBuffer(size);
+	}
+
+	/**
+	 * Pools a buffer given back with `Readback.recycle()`. When the pool is full, the smallest pooled
+	 * buffer (or this one) is left to the garbage collector.
+	 */
+	private void recycleBuffer(ByteBuffer buffer)
+	{
+		synchronized (mBufferPool)
+		{
+			if (mPooledBufferCount < mBufferPool.length)
+			{
+				mBufferPool[mPooledBufferCount++] = buffer;
+				return;
+			}
+
+			int smallest = 0;
+			for (int i = 1; i < mPooledBufferCount; ++i)
+			{
+				if (mBufferPool[i].capacity() < mBufferPool[smallest].capacity())
+				{
+					smallest = i;
+				}
+			}
+
+			if (mBufferPool[smallest].capacity() < buffer.capacity())
+			{
+				mBufferPool[smallest] = buffer;
+			}
+		}
+	}
+
+	/**
+	 * Creates the ring's pixel buffers, and picks how copies are fenced.
+	 */
+	private void createBuffers(GL2 gl)
+	{
+		int count = mRing.getSlotCount();
+		mPixelBuffers = new int[count];
+		mPixelBufferSizes = new long[count];
+		gl.glGenBuffers(count, mPixelBuffers, 0);
+
+		gl.glGetIntegerv(GL2.GL_PACK_ALIGNMENT, mIntegerQuery, 0);
+		mPackAlignment = mIntegerQuery[0];
+
+		if (gl.isGL3() && (gl.isExtensionAvailable("GL_ARB_sync") || gl.isExtensionAvailable("GL_VERSION_3_2")))
+		{
+			mFenceMode = FenceMode.SYNC;
+		}
+		else if (gl.isExtensionAvailable("GL_NV_fence"))
+		{
+			mFenceMode = FenceMode.NV_FENCE;
+			mNVFences = new int[count];
+			gl.glGenFencesNV(count, mNVFences, 0);
+		}
+		else
+		{
+			mFenceMode = FenceMode.NONE;
+		}
+	}
+
+	private ReadbackRing.Fence createFence(GL2 gl, int slot)
+	{
+		switch (mFenceMode)
+		{
+		case SYNC:     return new SyncFence(gl.getGL3(), mSyncStatus);
+		case NV_FENCE: return new NVFence(gl, mNVFences[slot]);
+		default:       return null;
+		}
+	}
+
+	/**
+	 * Returns the number of `update()` calls so far.
+	 */
+	public long getFrame()
+	{
+		return mFrame;
+	}
+
+	/**
+	 * Returns the number of readbacks started but not yet handed to their listener.
+	 */
+	public int getPendingCount()
+	{
+		return mRing.getPendingCount();
+	}
+
+	/**
+	 * Returns true if every buffer is in flight, so a readback started now would be dropped.
+	 */
+	public boolean isFull()
+	{
+		return mRing.getPendingCount() == mRing.getSlotCount();
+	}
+
+	/**
+	 * Returns the number of readbacks handed to their listener.
+	 */
+	public long getCompletedCount()
+	{
+		return mRing.getCompletedCount();
+	}
+
+	/**
+	 * Returns the number of readbacks dropped because every buffer was in flight.
+	 */
+	public long getDroppedCount()
+	{
+		return mRing.getDroppedCount();
+	}
+
+	/**
+	 * Returns the number of readbacks collected before the GPU signaled them, which waited for the GPU.
+	 */
+	public long getStalledCount()
+	{
+		return mRing.getStalledCount();
+	}
+
+	/**
+	 * Returns the number of data buffers allocated because none given back with `Readback.recycle()`
+	 * was free and big enough.
+	 */
+	public long getAllocatedBufferCount()
+	{
+		synchronized (mBufferPool)
+		{
+			return mAllocatedBufferCount;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes handed to listeners since this service was created.
+	 */
+	public long getCompletedBytes()
+	{
+		return mCompletedBytes;
+	}
+
+	public int getSlotCount()
+	{
+		return mRing.getSlotCount();
+	}
+
+	/**
+	 * Sets the number of frames after which readbacks are collected without a fence, and after which
+	 * they are collected even if their fence isn't signaled.
+	 */
+	public void setLatency(int minLatency, int maxLatency)
+	{
+		mRing.setLatency(minLatency, maxLatency);
+	}
+
+	/**
+	 * Drops pending readbacks, and releases the buffers and fences.
+	 */
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		mRing.removeAll();
+
+		if (mPixelBuffers != null)
+		{
+			gl.glDeleteBuffers(mPixelBuffers.length, mPixelBuffers, 0);
+			mPixelBuffers = null;
+			mPixelBufferSizes = null;
+		}
+
+		if (mNVFences != null)
+		{
+			gl.glDeleteFencesNV(mNVFences.length, mNVFences, 0);
+			mNVFences = null;
+		}
+
+		mFenceMode = FenceMode.UNCHECKED;
+	}
+}
@@ -0,0 +1,264 @@
+package cs5625.deferred.rendering;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.OpenGLResourceObject;
+import cs5625.deferred.misc.Util;
+
+/**
+ * BloomPipeline.java
+ *
+ * Computes the bloom of a scene at reduced resolution, so that wide blooms stay cheap:
+ *
+ * 1. The bright parts of the scene are extracted into a half-size buffer (level 0).
+ * 2. Each further level halves the previous one, down to `getLevelCount()` levels.
+ * 3. Every level is blurred with the same small separable Gaussian (in its own texels). Since each level
+ *    has a quarter of the pixels of the one above, blurring all of them costs at most 4/3 of blurring
+ *    level 0, while the blur on level i reaches 2^i times as far across the screen.
+ * 4. Going back up, each level is upsampled and added onto the level above it.
+ *
+ * Level 0 then holds the bloom, which the renderer adds onto the scene. The bloom gets wider with more
+ * levels, at almost no extra cost; the kernel radius only shapes the falloff.
+ *
+ * The renderer owns the shaders; this class holds the render targets for one scene size.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class BloomPipeline implements OpenGLResourceObject
+{
+	/** Largest supported number of levels. */
+	public static final int MAX_LEVELS = 8;
+
+	/* Levels stop once they would be smaller than this, in pixels. */
+	private static final int MIN_LEVEL_SIZE = 4;
+
+	private final int mWidth, mHeight;
+	private final int mLevelCount;
+
+	/* Per level: the level itself, and the intermediate result between the horizontal and vertical blurs. */
+	private final FramebufferObject mLevels[];
+	private final FramebufferObject mBlurred[];
+
+	/* Shaders and their uniform locations. */
+	private final ShaderProgram mThresholdShader, mResampleShader, mBlurShader;
+	private final int mThresholdLocation;
+	private final int mSourceTexelSizeLocation, mSpreadLocation;
+	private final int mAxisLocation, mTextureSizeLocation;
+	private final int mKernelWeightsLocation, mKernelOffsetsLocation, mKernelTapCountLocation;
+
+	/**
+	 * Creates the render targets for bloom on a scene of the given size.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param width Width of the scene, in pixels.
+	 * @param height Height of the scene, in pixels.
+	 * @param levelCount Number of levels to use, clamped to [1, MAX_LEVELS] and to what the size allows.
+	 * @param thresholdShader The "bloom_threshold" shader.
+	 * @param resampleShader The "bloom_resample" shader.
+	 * @param blurShader The "gaussian_blur" shader.
+	 */
+	public BloomPipeline(GL2 gl, int width, int height, int levelCount, ShaderProgram thresholdShader, ShaderProgram resampleShader, ShaderProgram blurShader) throws OpenGLException
+	{
+		mWidth = width;
+		mHeight = height;
+		mLevelCount = computeLevelCount(width, height, levelCount);
+
+		mThresholdShader = thresholdShader;
+		mResampleShader = resampleShader;
+		mBlurShader = blurShader;
+
+		mThresholdLocation = thresholdShader.getUniformLocation(gl, "Threshold");
+		mSourceTexelSizeLocation = resampleShader.getUniformLocation(gl, "SourceTexelSize");
+		mSpreadLocation = resampleShader.getUniformLocation(gl, "Spread");
+		mAxisLocation = blurShader.getUniformLocation(gl, "Axis");
+		mTextureSizeLocation = blurShader.getUniformLocation(gl, "TextureSize");
+		mKernelWeightsLocation = blurShader.getUniformLocation(gl, "KernelWeights");
+		mKernelOffsetsLocation = blurShader.getUniformLocation(gl, "KernelOffsets");
+		mKernelTapCountLocation = blurShader.getUniformLocation(gl, "KernelTapCount");
+
+		mLevels = new FramebufferObject[mLevelCount];
+		mBlurred = new FramebufferObject[mLevelCount];
+
+		try
+		{
+			for (int i = 0; i < mLevelCount; ++i)
+			{
+				mLevels[i] = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, getLevelWidth(i), getLevelHeight(i), 1, false, false);
+				mBlurred[i] = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, getLevelWidth(i), getLevelHeight(i), 1, false, false);
+			}
+		}
+		catch (OpenGLException err)
+		{
+			/* Clean up on error. */
+			releaseGPUResources(gl);
+			throw err;
+		}
+	}
+
+	/**
+	 * Returns how many levels a scene of the given size can have, up to `requested`.
+	 */
+	public static int computeLevelCount(int width, int height, int requested)
+	{
+		int count = 1;
+		int size = Math.min(width, height) / 2;
+
+		while (count < Math.min(requested, MAX_LEVELS) && size / 2 >= MIN_LEVEL_SIZE)
+		{
+			size /= 2;
+			++count;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns true if this pipeline was made for the given scene size and level count.
+	 */
+	public boolean matches(int width, int height, int levelCount)
+	{
+		return mWidth == width && mHeight == height && mLevelCount == computeLevelCount(width, height, levelCount);
+	}
+
+	public int getLevelCount()
+	{
+		return mLevelCount;
+	}
+
+	/**
+	 * Returns the width of the given level, in pixels; level 0 is half the scene's width.
+	 */
+	public int getLevelWidth(int level)
+	{
+		return Math.max(1, mWidth >> (level + 1));
+	}
+
+	/**
+	 * Returns the height of the given level, in pixels; level 0 is half the scene's height.
+	 */
+	public int getLevelHeight(int level)
+	{
+		return Math.max(1, mHeight >> (level + 1));
+	}
+
+	/**
+	 * Computes the bloom of a scene. Afterwards, `getResult()` holds it.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param scene The scene, as a rectangle texture of the size this pipeline was made for.
+	 * @param threshold Brightness above which the scene blooms.
+	 * @param kernel Blur applied to every level, in that level's texels.
+	 */
+	public void apply(GL2 gl, Texture2D scene, float threshold, GaussianKernel kernel) throws OpenGLException
+	{
+		gl.glPushAttrib(GL2.GL_ENABLE_BIT | GL2.GL_COLOR_BUFFER_BIT);
+		gl.glDisable(GL2.GL_DEPTH_TEST);
+		gl.glDisable(GL2.GL_BLEND);
+
+		/* 1. Extract the bright parts of the scene into level 0. */
+		mLevels[0].bindAll(gl);
+		scene.bind(gl, 0);
+		mThresholdShader.bind(gl);
+		gl.glUniform1f(mThresholdLocation, threshold);
+		Util.drawFullscreenQuad(gl, 1.0f, 1.0f);
+		mThresholdShader.unbind(gl);
+		scene.unbind(gl);
+		mLevels[0].unbind(gl);
+
+		/* 2. Downsample each level into the next. */
+		mResampleShader.bind(gl);
+		gl.glUniform1f(mSpreadLocation, 1.0f);
+		for (int i = 1; i < mLevelCount; ++i)
+		{
+			resample(gl, mLevels[i - 1], mLevels[i]);
+		}
+		mResampleShader.unbind(gl);
+
+		/* 3. Blur each level, horizontally into the intermediate buffer and vertically back. */
+		mBlurShader.bind(gl);
+		kernel.upload(gl, mKernelWeightsLocation, mKernelOffsetsLocation, mKernelTapCountLocation);
+		for (int i = 0; i < mLevelCount; ++i)
+		{
+			blur(gl, mLevels[i], mBlurred[i], 0, getLevelWidth(i));
+			blur(gl, mBlurred[i], mLevels[i], 1, getLevelHeight(i));
+		}
+		mBlurShader.unbind(gl);
+
+		/* 4. Add each level onto the one above it, from the bottom up. */
+		gl.glEnable(GL2.GL_BLEND);
+		gl.glBlendFunc(GL2.GL_ONE, GL2.GL_ONE);
+		mResampleShader.bind(gl);
+		gl.glUniform1f(mSpreadLocation, 0.5f);
+		for (int i = mLevelCount - 1; i > 0; --i)
+		{
+			resample(gl, mLevels[i], mLevels[i - 1]);
+		}
+		mResampleShader.unbind(gl);
+
+		gl.glPopAttrib();
+
+		/* Make sure nothing went wrong. */
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	/**
+	 * Draws `source` into `target` with the bound resample shader.
+	 */
+	private void resample(GL2 gl, FramebufferObject source, FramebufferObject target) throws OpenGLException
+	{
+		Texture2D texture = source.getColorTexture(0);
+
+		target.bindAll(gl);
+		texture.bind(gl, 0);
+		gl.glUniform2f(mSourceTexelSizeLocation, 1.0f / source.getWidth(), 1.0f / source.getHeight());
+		Util.drawFullscreenQuad(gl, 1.0f, 1.0f);
+		texture.unbind(gl);
+		target.unbind(gl);
+	}
+
+	/**
+	 * Blurs `source` into `target` along one axis with the bound blur shader.
+	 */
+	private void blur(GL2 gl, FramebufferObject source, FramebufferObject target, int axis, int textureSize) throws OpenGLException
+	{
+		Texture2D texture = source.getColorTexture(0);
+
+		target.bindAll(gl);
+		texture.bind(gl, 0);
+		gl.glUniform1i(mAxisLocation, axis);
+		gl.glUniform1f(mTextureSizeLocation, textureSize);
+		Util.drawFullscreenQuad(gl, 1.0f, 1.0f);
+		texture.unbind(gl);
+		target.unbind(gl);
+	}
+
+	/**
+	 * Returns the bloom computed by the last `apply()`, at half the scene's size.
+	 */
+	public Texture2D getResult()
+	{
+		return mLevels[0].getColorTexture(0);
+	}
+
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		for (int i = 0; i < mLevelCount; ++i)
+		{
+			if (mLevels[i] != null)
+			{
+				mLevels[i].releaseGPUResources(gl);
+			}
+
+			if (mBlurred[i] != null)
+			{
+				mBlurred[i].releaseGPUResources(gl);
+			}
+		}
+	}
+}
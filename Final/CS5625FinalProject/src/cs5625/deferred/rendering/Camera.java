@@ -2,6 +2,7 @@ package cs5625.deferred.rendering;
 
 import javax.vecmath.Matrix4f;
 
+import cs5625.deferred.misc.Util;
 import cs5625.deferred.scenegraph.SceneObject;
 
 /**
@@ -164,6 +165,16 @@ public class Camera extends SceneObject
 		return mView;
 	}
 	
+	/**
+	 * Same as `getViewMatrix()`, but writes into `result` and uses `scratch` for the 
+	 * world space transformation, so that nothing is allocated. The camera transformation 
+	 * is rigid, so the inverse is computed directly rather than through `Matrix4f.invert()`.
+	 */
+	public void getViewMatrix(Matrix4f result, Matrix4f scratch) {
+		getWorldSpaceTransformationMatrix4f(scratch);
+		Util.invertRigid(scratch, result);
+	}
+	
 	/**
 	 * Projection matrix of perspective camera
 	 * @param width viewport width
@@ -180,6 +191,20 @@ public class Camera extends SceneObject
 				0f, 0f, -1f, 0f);
 	}
 	
+	/**
+	 * Same as `getProjectionMatrix(width, height)`, but writes into `result`.
+	 */
+	public void getProjectionMatrix(float width, float height, Matrix4f result) {
+		float aspect = width/ height;
+		float s = (float) (1f / (Math.tan(mFOV * 0.5 * Math.PI / 180)));
+		result.setZero();
+		result.m00 = s/aspect;
+		result.m11 = s;
+		result.m22 = -(mFar + mNear) / (mFar - mNear);
+		result.m23 = -2 * mFar * mNear / (mFar - mNear);
+		result.m32 = -1f;
+	}
+	
 	/**
 	 * Projection matrix of orthographic camera
 	 * @return projection matrix for the orthographic camera
@@ -195,5 +220,15 @@ public class Camera extends SceneObject
 				0f		 , 0f		 , /*-2/(mFar-mNear)*/0f, /*-(mFar+mNear)/(mFar-mNear)*/0f,
 				0f		 , 0f		 , 0f			  , 1f);
 	}
+	
+	/**
+	 * Same as `getProjectionMatrix()`, but writes into `result`.
+	 */
+	public void getProjectionMatrix(Matrix4f result) {
+		result.setZero();
+		result.m00 = 2f/mWidth;
+		result.m11 = 2f/mHeight;
+		result.m33 = 1f;
+	}
 
 }
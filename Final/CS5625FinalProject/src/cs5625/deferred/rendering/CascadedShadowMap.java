@@ -0,0 +1,441 @@
+package cs5625.deferred.rendering;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL2;
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.misc.OpenGLResourceObject;
+
+/**
+ * CascadedShadowMap.java
+ *
+ * A depth-only shadow map for one light, split into up to four cascades. Each cascade covers one
+ * depth range of the view camera's frustum and is rendered into its own square tile of a single
+ * depth texture (a 2x2 atlas), so the ubershader only needs one sampler.
+ *
+ * Casters are split into static and dynamic ones (see `SceneObject.setStatic()`). Static casters are
+ * rendered into a separate cached atlas, which is only re-rendered for a cascade when its light matrix
+ * changes (the light moved, or the view camera moved far enough to change the snapped crop) or when
+ * static geometry moved. Every frame, the cached atlas is copied into the shadow atlas and dynamic
+ * casters are drawn on top of it.
+ *
+ * The renderer does the drawing; this class holds the render targets, computes the cascade matrices
+ * (with `ShadowCascades`), and tracks which cached cascades are out of date.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class CascadedShadowMap implements OpenGLResourceObject
+{
+	/** Largest supported number of cascades; must match MAX_SHADOW_CASCADES in the ubershader. */
+	public static final int MAX_CASCADES = 4;
+
+	/* Maps clip space [-1, 1] to texture space [0, 1]. */
+	private static final Matrix4f BIAS_MATRIX = new Matrix4f(
+			0.5f, 0.0f, 0.0f, 0.5f,
+			0.0f, 0.5f, 0.0f, 0.5f,
+			0.0f, 0.0f, 0.5f, 0.5f,
+			0.0f, 0.0f, 0.0f, 1.0f);
+
+	private final int mCascadeCount;
+	private final int mTileSize;
+	private final int mTilesPerRow;
+
+	/* The atlas sampled by the ubershader, and the cached atlas of static casters. */
+	private FramebufferObject mShadowFBO;
+	private FramebufferObject mStaticFBO;
+
+	/* Cascade settings. */
+	private boolean mFitToCamera = true;
+	private float mSplitLambda = 0.75f;
+	private float mShadowDistance = 50.0f;
+
+	/* Per-frame light and cascade matrices. */
+	private final Matrix4f mLightView = new Matrix4f();
+	private final Matrix4f mLightProjection = new Matrix4f();
+	private final Matrix4f mLightViewProjection = new Matrix4f();
+	private final Matrix4f mCascadeProjections[] = new Matrix4f[MAX_CASCADES];
+	private final Matrix4f mCascadeViewProjections[] = new Matrix4f[MAX_CASCADES];
+	private final float mSplits[] = new float[MAX_CASCADES + 1];
+
+	/* Static cache state: the matrix each cached cascade was rendered with, and the scene signature. */
+	private final Matrix4f mStaticViewProjections[] = new Matrix4f[MAX_CASCADES];
+	private final boolean mStaticValid[] = new boolean[MAX_CASCADES];
+	private long mStaticSignature = 0;
+	private int mStaticRenderCount = 0;
+
+	/* Frame in which the shadow atlas was last filled, so passes sharing a map can skip re-rendering. */
+	private long mRenderedFrame = -1;
+
+	/* Scratch objects. */
+	private final Point3f mCorners[] = new Point3f[8];
+	private final Matrix4f mCameraToWorld = new Matrix4f();
+	private final Matrix4f mTemp = new Matrix4f();
+	private final Matrix4f mTile = new Matrix4f();
+	private final int mPreviousBinding[] = new int[1];
+
+	/**
+	 * Creates the shadow map and its render targets.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param tileSize Width and height of each cascade, in texels.
+	 * @param cascadeCount Number of cascades, 1 to MAX_CASCADES.
+	 */
+	public CascadedShadowMap(GL2 gl, int tileSize, int cascadeCount) throws OpenGLException
+	{
+		if (cascadeCount < 1 || cascadeCount > MAX_CASCADES)
+		{
+			throw new OpenGLException("Cascade count must be between 1 and " + MAX_CASCADES + ", got " + cascadeCount + ".");
+		}
+
+		mCascadeCount = cascadeCount;
+		mTileSize = tileSize;
+		mTilesPerRow = (cascadeCount == 1 ? 1 : 2);
+
+		int atlasSize = getAtlasSize();
+		mShadowFBO = new FramebufferObject(gl, Format.DEPTH, Datatype.INT32, atlasSize, atlasSize, 0, true, false);
+		mStaticFBO = new FramebufferObject(gl, Format.DEPTH, Datatype.INT32, atlasSize, atlasSize, 0, true, false);
+
+		for (int i = 0; i < MAX_CASCADES; ++i)
+		{
+			mCascadeProjections[i] = new Matrix4f();
+			mCascadeViewProjections[i] = new Matrix4f();
+			mStaticViewProjections[i] = new Matrix4f();
+		}
+
+		for (int i = 0; i < mCorners.length; ++i)
+		{
+			mCorners[i] = new Point3f();
+		}
+	}
+
+	public int getCascadeCount()
+	{
+		return mCascadeCount;
+	}
+
+	/**
+	 * Returns the width and height of each cascade's tile, in texels.
+	 */
+	public int getTileSize()
+	{
+		return mTileSize;
+	}
+
+	/**
+	 * Returns the width and height of the whole atlas, in texels.
+	 */
+	public int getAtlasSize()
+	{
+		return mTileSize * mTilesPerRow;
+	}
+
+	/**
+	 * If true (the default), cascades are fitted to the view camera's frustum. If false, the single
+	 * cascade covers the light's whole frustum, independently of the view camera; this is what
+	 * dynamic cube map faces use, so one map can be shared by all faces.
+	 */
+	public void setFitToCamera(boolean fitToCamera)
+	{
+		mFitToCamera = fitToCamera;
+	}
+
+	public boolean getFitToCamera()
+	{
+		return mFitToCamera;
+	}
+
+	/**
+	 * Sets the blend between uniform (0) and logarithmic (1) cascade splits.
+	 */
+	public void setSplitLambda(float lambda)
+	{
+		mSplitLambda = lambda;
+	}
+
+	public float getSplitLambda()
+	{
+		return mSplitLambda;
+	}
+
+	/**
+	 * Sets how far from the view camera shadows are drawn (clamped to the camera's far plane).
+	 */
+	public void setShadowDistance(float distance)
+	{
+		mShadowDistance = distance;
+	}
+
+	public float getShadowDistance()
+	{
+		return mShadowDistance;
+	}
+
+	/**
+	 * Computes the light and cascade matrices for this frame, and invalidates cached static cascades
+	 * whose matrix changed or, if `staticSignature` differs from last time, all of them.
+	 *
+	 * @param camera The view camera.
+	 * @param aspect Width over height of the view camera's viewport.
+	 * @param lightCamera The camera describing the light's view and (perspective) projection.
+	 * @param staticSignature A value which changes whenever static casters move, appear, or disappear.
+	 */
+	public void update(Camera camera, float aspect, Camera lightCamera, long staticSignature)
+	{
+		/* Square tiles, so the light projection has an aspect ratio of 1. */
+		lightCamera.getViewMatrix(mLightView, mTemp);
+		lightCamera.getProjectionMatrix(1.0f, 1.0f, mLightProjection);
+		mLightViewProjection.mul(mLightProjection, mLightView);
+
+		if (mFitToCamera)
+		{
+			float far = Math.min(camera.getFar(), mShadowDistance);
+			ShadowCascades.computeSplitDistances(camera.getNear(), far, mCascadeCount, mSplitLambda, mSplits);
+			camera.getWorldSpaceTransformationMatrix4f(mCameraToWorld);
+		}
+		else
+		{
+			/* Every cascade covers everything; normally there is just one. */
+			mSplits[0] = 0.0f;
+			for (int i = 1; i <= mCascadeCount; ++i)
+			{
+				mSplits[i] = Float.MAX_VALUE;
+			}
+		}
+
+		for (int i = 0; i < mCascadeCount; ++i)
+		{
+			Matrix4f crop = mTemp;
+
+			if (mFitToCamera)
+			{
+				ShadowCascades.computeFrustumCorners(camera.getFOV(), aspect, mSplits[i], mSplits[i + 1], mCameraToWorld, mCorners);
+				ShadowCascades.computeCropMatrix(mLightViewProjection, mCorners, mCorners.length, mTileSize, crop);
+			}
+			else
+			{
+				crop.setIdentity();
+			}
+
+			mCascadeProjections[i].mul(crop, mLightProjection);
+			mCascadeViewProjections[i].mul(mCascadeProjections[i], mLightView);
+		}
+
+		/* Invalidate the static cache where needed. */
+		if (staticSignature != mStaticSignature)
+		{
+			invalidateStaticCache();
+			mStaticSignature = staticSignature;
+		}
+
+		for (int i = 0; i < mCascadeCount; ++i)
+		{
+			if (!mCascadeViewProjections[i].epsilonEquals(mStaticViewProjections[i], 1e-6f))
+			{
+				mStaticValid[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Marks every cached static cascade as out of date.
+	 */
+	public void invalidateStaticCache()
+	{
+		for (int i = 0; i < MAX_CASCADES; ++i)
+		{
+			mStaticValid[i] = false;
+		}
+	}
+
+	/**
+	 * Returns true if the given cascade's static casters must be re-rendered.
+	 */
+	public boolean isStaticCascadeDirty(int cascade)
+	{
+		return !mStaticValid[cascade];
+	}
+
+	/**
+	 * Records that the given cascade's static casters were just rendered with the current matrices.
+	 */
+	public void markStaticCascadeRendered(int cascade)
+	{
+		mStaticViewProjections[cascade].set(mCascadeViewProjections[cascade]);
+		mStaticValid[cascade] = true;
+		++mStaticRenderCount;
+	}
+
+	/**
+	 * Returns how many times a cascade's static casters have been rendered, for profiling the cache.
+	 */
+	public int getStaticRenderCount()
+	{
+		return mStaticRenderCount;
+	}
+
+	/**
+	 * Returns true if the shadow atlas was already filled during the given frame.
+	 */
+	public boolean isRenderedForFrame(long frame)
+	{
+		return mRenderedFrame == frame;
+	}
+
+	/**
+	 * Records that the shadow atlas was filled during the given frame.
+	 */
+	public void setRenderedForFrame(long frame)
+	{
+		mRenderedFrame = frame;
+	}
+
+	/**
+	 * Returns the light's view matrix (world to light space).
+	 */
+	public Matrix4f getLightViewMatrix()
+	{
+		return mLightView;
+	}
+
+	/**
+	 * Returns the projection to render a cascade with: the crop matrix times the light's projection.
+	 */
+	public Matrix4f getCascadeProjectionMatrix(int cascade)
+	{
+		return mCascadeProjections[cascade];
+	}
+
+	/**
+	 * Returns the distance from the view camera at which the given cascade ends.
+	 */
+	public float getCascadeFar(int cascade)
+	{
+		return mSplits[cascade + 1];
+	}
+
+	/**
+	 * Returns the x offset, in texels, of the given cascade's tile in the atlas.
+	 */
+	public int getTileX(int cascade)
+	{
+		return (cascade % mTilesPerRow) * mTileSize;
+	}
+
+	/**
+	 * Returns the y offset, in texels, of the given cascade's tile in the atlas.
+	 */
+	public int getTileY(int cascade)
+	{
+		return (cascade / mTilesPerRow) * mTileSize;
+	}
+
+	/**
+	 * Writes, for every cascade, the matrix taking eye space points of the view camera to atlas texture
+	 * coordinates (xy) and shadow map depth (z), in column-major order. The buffer is rewound before and after.
+	 *
+	 * @param cameraToWorld The view camera's world space transformation (its inverse view matrix).
+	 * @param buffer Receives 16 floats per cascade.
+	 */
+	public FloatBuffer putShadowMatrices(Matrix4f cameraToWorld, FloatBuffer buffer)
+	{
+		float scale = 1.0f / mTilesPerRow;
+		buffer.rewind();
+
+		for (int i = 0; i < mCascadeCount; ++i)
+		{
+			/* tile * bias * cascade view projection * camera to world */
+			mTile.setIdentity();
+			mTile.m00 = scale;
+			mTile.m11 = scale;
+			mTile.m03 = (float)getTileX(i) / getAtlasSize();
+			mTile.m13 = (float)getTileY(i) / getAtlasSize();
+			mTile.mul(BIAS_MATRIX);
+			mTile.mul(mCascadeViewProjections[i]);
+			mTile.mul(cameraToWorld);
+
+			Matrix4f m = mTile;
+			buffer.put(m.m00).put(m.m10).put(m.m20).put(m.m30);
+			buffer.put(m.m01).put(m.m11).put(m.m21).put(m.m31);
+			buffer.put(m.m02).put(m.m12).put(m.m22).put(m.m32);
+			buffer.put(m.m03).put(m.m13).put(m.m23).put(m.m33);
+		}
+
+		buffer.rewind();
+		return buffer;
+	}
+
+	/**
+	 * Writes, for every cascade, its tile's rectangle in atlas texture coordinates (min x, min y, max x,
+	 * max y), inset by half a texel so that filtering never reads a neighbouring tile.
+	 *
+	 * @param result Receives 4 floats per cascade.
+	 */
+	public void getTileRects(float result[])
+	{
+		float atlas = getAtlasSize();
+
+		for (int i = 0; i < mCascadeCount; ++i)
+		{
+			result[4 * i + 0] = (getTileX(i) + 0.5f) / atlas;
+			result[4 * i + 1] = (getTileY(i) + 0.5f) / atlas;
+			result[4 * i + 2] = (getTileX(i) + mTileSize - 0.5f) / atlas;
+			result[4 * i + 3] = (getTileY(i) + mTileSize - 0.5f) / atlas;
+		}
+	}
+
+	/**
+	 * Returns the render target holding static and dynamic casters, which the ubershader samples.
+	 */
+	public FramebufferObject getShadowFBO()
+	{
+		return mShadowFBO;
+	}
+
+	/**
+	 * Returns the render target caching static casters.
+	 */
+	public FramebufferObject getStaticFBO()
+	{
+		return mStaticFBO;
+	}
+
+	/**
+	 * Returns the depth texture the ubershader samples.
+	 */
+	public Texture2D getDepthTexture()
+	{
+		return mShadowFBO.getDepthTexture();
+	}
+
+	/**
+	 * Copies the cached static depth atlas into the shadow atlas, ready for dynamic casters to be drawn on top.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void copyStaticToShadow(GL2 gl) throws OpenGLException
+	{
+		int atlasSize = getAtlasSize();
+
+		gl.glGetIntegerv(GL2.GL_FRAMEBUFFER_BINDING, mPreviousBinding, 0);
+		gl.glBindFramebuffer(GL2.GL_READ_FRAMEBUFFER, mStaticFBO.getHandle());
+		gl.glBindFramebuffer(GL2.GL_DRAW_FRAMEBUFFER, mShadowFBO.getHandle());
+		gl.glBlitFramebuffer(0, 0, atlasSize, atlasSize, 0, 0, atlasSize, atlasSize, GL2.GL_DEPTH_BUFFER_BIT, GL2.GL_NEAREST);
+		gl.glBindFramebuffer(GL2.GL_FRAMEBUFFER, mPreviousBinding[0]);
+
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		mShadowFBO.releaseGPUResources(gl);
+		mStaticFBO.releaseGPUResources(gl);
+	}
+}
@@ -0,0 +1,150 @@
+package cs5625.deferred.rendering;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * FrameAllocationMonitor.java
+ *
+ * Measures how many bytes of heap the rendering thread allocates between `beginFrame()` and
+ * `endFrame()`, using the HotSpot per-thread allocation counter. After a few warm-up frames
+ * (class loading, shader compilation, lazily created caches), a steady-state frame should
+ * allocate nothing; any frame that does is reported, or fails outright in strict mode.
+ *
+ * If the running JVM doesn't expose per-thread allocation counts, the monitor is inert and
+ * `isSupported()` returns false.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameAllocationMonitor
+{
+	/* Number of frames to ignore before checking. */
+	private int mWarmupFrames = 10;
+
+	/* If true, allocating frames throw instead of printing a warning. */
+	private boolean mStrict = false;
+
+	private com.sun.management.ThreadMXBean mThreadBean = null;
+	private long mThreadId = -1;
+	private long mFrameStart = 0;
+	private long mOverhead = 0;
+	private long mLastFrameBytes = 0;
+	private long mAllocatingFrames = 0;
+	private long mFrameCount = 0;
+
+	public FrameAllocationMonitor()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean)
+		{
+			mThreadBean = (com.sun.management.ThreadMXBean)bean;
+
+			if (!mThreadBean.isThreadAllocatedMemorySupported())
+			{
+				mThreadBean = null;
+			}
+			else if (!mThreadBean.isThreadAllocatedMemoryEnabled())
+			{
+				mThreadBean.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if this JVM can report per-thread allocations.
+	 */
+	public boolean isSupported()
+	{
+		return mThreadBean != null;
+	}
+
+	/**
+	 * Sets the number of initial frames which are measured but never reported.
+	 */
+	public void setWarmupFrames(int frames)
+	{
+		mWarmupFrames = frames;
+	}
+
+	/**
+	 * In strict mode, `endFrame()` throws an IllegalStateException when a frame allocates.
+	 */
+	public void setStrict(boolean strict)
+	{
+		mStrict = strict;
+	}
+
+	/**
+	 * Call at the start of a frame, on the rendering thread.
+	 */
+	public void beginFrame()
+	{
+		if (mThreadBean == null)
+		{
+			return;
+		}
+
+		long threadId = Thread.currentThread().getId();
+		if (threadId != mThreadId)
+		{
+			/* First frame on this thread: measure what the counter itself costs. */
+			mThreadId = threadId;
+			long a = mThreadBean.getThreadAllocatedBytes(mThreadId);
+			long b = mThreadBean.getThreadAllocatedBytes(mThreadId);
+			mOverhead = b - a;
+		}
+
+		mFrameStart = mThreadBean.getThreadAllocatedBytes(mThreadId);
+	}
+
+	/**
+	 * Call at the end of a frame, on the same thread as `beginFrame()`.
+	 *
+	 * @throws IllegalStateException In strict mode, if the frame allocated after warm-up.
+	 */
+	public void endFrame()
+	{
+		if (mThreadBean == null || mThreadId != Thread.currentThread().getId())
+		{
+			return;
+		}
+
+		long bytes = mThreadBean.getThreadAllocatedBytes(mThreadId) - mFrameStart - mOverhead;
+		mLastFrameBytes = Math.max(bytes, 0);
+		++mFrameCount;
+
+		if (mFrameCount <= mWarmupFrames || mLastFrameBytes == 0)
+		{
+			return;
+		}
+
+		++mAllocatingFrames;
+
+		String message = "Frame " + mFrameCount + " allocated " + mLastFrameBytes + " bytes.";
+		if (mStrict)
+		{
+			throw new IllegalStateException(message);
+		}
+		else
+		{
+			System.err.println(message);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the most recent frame.
+	 */
+	public long getLastFrameAllocatedBytes()
+	{
+		return mLastFrameBytes;
+	}
+
+	/**
+	 * Returns how many frames after warm-up allocated anything.
+	 */
+	public long getAllocatingFrameCount()
+	{
+		return mAllocatingFrames;
+	}
+}
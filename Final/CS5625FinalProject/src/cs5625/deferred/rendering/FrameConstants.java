@@ -0,0 +1,169 @@
+package cs5625.deferred.rendering;
+
+import java.nio.ByteBuffer;
+
+import javax.media.opengl.GL2;
+import javax.vecmath.Matrix4f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.misc.OpenGLResourceObject;
+
+/**
+ * FrameConstants.java
+ *
+ * Per-pass state shared by every shader: the camera matrices and the snow parameters. The renderer
+ * fills this in once per pass and uploads it into a uniform buffer object, which is attached to the
+ * `FrameConstants` uniform block of every shader that declares one. Materials then only upload their
+ * own parameters in `bind()`.
+ *
+ * The GLSL declaration must match `write()` member for member:
+ *
+ *     layout(std140) uniform FrameConstants
+ *     {
+ *         mat4 ViewMatrix;
+ *         mat4 InverseViewMatrix;
+ *         mat4 TransposeInverseViewMatrix;
+ *         mat4 OcclMapMatrix;
+ *         float SnowAmount;
+ *         float SnowMapWidth;
+ *         float SnowMapHeight;
+ *         int RenderSnow;
+ *     };
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameConstants implements OpenGLResourceObject
+{
+	/** Name of the uniform block in GLSL. */
+	public static final String BLOCK_NAME = "FrameConstants";
+
+	/** Uniform buffer binding point the block is attached to. */
+	public static final int BINDING_POINT = 0;
+
+	/** Size in bytes of the block, as laid out by `write()`. */
+	public static final int BLOCK_SIZE = 4 * 64 + 16;
+
+	/* Camera matrices. */
+	public final Matrix4f viewMatrix = new Matrix4f();
+	public final Matrix4f inverseViewMatrix = new Matrix4f();
+	public final Matrix4f transposeInverseViewMatrix = new Matrix4f();
+
+	/* Snow parameters. */
+	public final Matrix4f occlMapMatrix = new Matrix4f();
+	public float snowAmount = 0.0f;
+	public float snowMapWidth = 1.0f;
+	public float snowMapHeight = 1.0f;
+	public boolean renderSnow = false;
+
+	/* CPU copy of the block, and the GL buffer object holding it. */
+	private final Std140Writer mWriter = new Std140Writer(Buffers.newDirectByteBuffer(BLOCK_SIZE));
+	private int mHandle = -1;
+
+	/* Number of uploads performed, for profiling. */
+	private int mUploadCount = 0;
+
+	public FrameConstants()
+	{
+		viewMatrix.setIdentity();
+		inverseViewMatrix.setIdentity();
+		transposeInverseViewMatrix.setIdentity();
+		occlMapMatrix.setIdentity();
+	}
+
+	/**
+	 * Packs the current values into the std140 layout and returns the packed buffer, ready to upload.
+	 * Doesn't touch OpenGL.
+	 */
+	public ByteBuffer write()
+	{
+		mWriter.reset();
+		mWriter.putMat4(viewMatrix);
+		mWriter.putMat4(inverseViewMatrix);
+		mWriter.putMat4(transposeInverseViewMatrix);
+		mWriter.putMat4(occlMapMatrix);
+		mWriter.putFloat(snowAmount);
+		mWriter.putFloat(snowMapWidth);
+		mWriter.putFloat(snowMapHeight);
+		mWriter.putBool(renderSnow);
+
+		ByteBuffer buffer = mWriter.getBuffer();
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Packs the current values, uploads them to the uniform buffer (creating it on first use),
+	 * and binds it to `BINDING_POINT`.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void upload(GL2 gl)
+	{
+		ByteBuffer data = write();
+
+		if (mHandle < 0)
+		{
+			int names[] = new int[1];
+			gl.glGenBuffers(1, names, 0);
+			mHandle = names[0];
+
+			gl.glBindBuffer(GL2.GL_UNIFORM_BUFFER, mHandle);
+			gl.glBufferData(GL2.GL_UNIFORM_BUFFER, BLOCK_SIZE, null, GL2.GL_DYNAMIC_DRAW);
+		}
+		else
+		{
+			gl.glBindBuffer(GL2.GL_UNIFORM_BUFFER, mHandle);
+		}
+
+		gl.glBufferSubData(GL2.GL_UNIFORM_BUFFER, 0, data.remaining(), data);
+		gl.glBindBuffer(GL2.GL_UNIFORM_BUFFER, 0);
+		gl.glBindBufferBase(GL2.GL_UNIFORM_BUFFER, BINDING_POINT, mHandle);
+
+		++mUploadCount;
+	}
+
+	/**
+	 * Returns the number of times `upload()` has been called.
+	 */
+	public int getUploadCount()
+	{
+		return mUploadCount;
+	}
+
+	/**
+	 * Attaches the shader's `FrameConstants` block, if it declares one, to `BINDING_POINT`.
+	 * Called once when a shader is linked.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param shaderHandle The linked program.
+	 * @return True if the shader uses the block.
+	 */
+	public static boolean attachBlock(GL2 gl, int shaderHandle)
+	{
+		if (!gl.isFunctionAvailable("glGetUniformBlockIndex"))
+		{
+			return false;
+		}
+
+		int index = gl.glGetUniformBlockIndex(shaderHandle, BLOCK_NAME);
+		if (index == GL2.GL_INVALID_INDEX)
+		{
+			return false;
+		}
+
+		gl.glUniformBlockBinding(shaderHandle, index, BINDING_POINT);
+		return true;
+	}
+
+	@Override
+	public void releaseGPUResources(GL2 gl)
+	{
+		if (mHandle >= 0)
+		{
+			gl.glDeleteBuffers(1, new int[]{mHandle}, 0);
+			mHandle = -1;
+		}
+	}
+}
@@ -0,0 +1,705 @@
+package cs5625.deferred.rendering;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import javax.media.opengl.GL2;
+
+/**
+ * FrameProfiler.java
+ *
+ * Measures where frame time goes, on both the CPU and the GPU. Code to be measured is wrapped in
+ * named scopes, which may nest:
+ *
+ *     profiler.beginFrame(gl);
+ *     profiler.beginScope(gl, "gbuffer");
+ *     ...
+ *     profiler.endScope(gl);
+ *     profiler.endFrame(gl);
+ *
+ * Each scope records a CPU time with System.nanoTime() and a GPU time with a pair of timestamp
+ * queries. (Timestamps are used rather than GL_TIME_ELAPSED queries because elapsed-time queries
+ * cannot be nested.) GPU results are read back RING_SIZE frames later, by which time the GPU has
+ * normally finished with them; if it hasn't, that frame's GPU times are dropped rather than waiting,
+ * so the profiler never stalls the pipeline.
+ *
+ * A scope which runs several times in one frame (e.g. once per cube map face) is reported as the
+ * sum of its runs. Statistics are kept over the last `windowSize` frames per scope.
+ *
+ * If timer queries are unsupported, only CPU times are recorded. The query calls go through
+ * protected methods, so the ring buffer logic can also be driven without a GL context.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameProfiler
+{
+	/** Number of frames in flight before GPU results are read back. */
+	public static final int RING_SIZE = 3;
+
+	/** Name of the scope enclosing the whole frame. */
+	public static final String FRAME_SCOPE = "frame";
+
+	/**
+	 * A node in the tree of scopes seen so far, holding the statistics for that scope.
+	 * Scopes with the same name under different parents are different nodes.
+	 */
+	public static class Scope
+	{
+		private final String mName;
+		private final Scope mParent;
+		private final int mDepth;
+		private final ArrayList<Scope> mChildren = new ArrayList<Scope>();
+		private final RollingStatistics mCPUTimes;
+		private final RollingStatistics mGPUTimes;
+
+		/* Per-frame accumulators, so repeated runs of a scope in one frame add up to one sample. */
+		private double mFrameCPUTime = 0.0;
+		private double mFrameGPUTime = 0.0;
+		private boolean mHasFrameCPUTime = false;
+		private boolean mHasFrameGPUTime = false;
+
+		private Scope(String name, Scope parent, int windowSize)
+		{
+			mName = name;
+			mParent = parent;
+			mDepth = (parent == null ? 0 : parent.mDepth + 1);
+			mCPUTimes = new RollingStatistics(windowSize);
+			mGPUTimes = new RollingStatistics(windowSize);
+		}
+
+		public String getName()
+		{
+			return mName;
+		}
+
+		public Scope getParent()
+		{
+			return mParent;
+		}
+
+		/**
+		 * Returns the nesting depth; the frame scope has depth 0.
+		 */
+		public int getDepth()
+		{
+			return mDepth;
+		}
+
+		public ArrayList<Scope> getChildren()
+		{
+			return mChildren;
+		}
+
+		/**
+		 * Returns the CPU times of this scope, in milliseconds.
+		 */
+		public RollingStatistics getCPUTimes()
+		{
+			return mCPUTimes;
+		}
+
+		/**
+		 * Returns the GPU times of this scope, in milliseconds.
+		 */
+		public RollingStatistics getGPUTimes()
+		{
+			return mGPUTimes;
+		}
+
+		/**
+		 * Returns the names of this scope and its ancestors joined by '/', e.g. "frame/main/gbuffer".
+		 */
+		public String getPath()
+		{
+			return (mParent == null ? mName : mParent.getPath() + "/" + mName);
+		}
+
+		private Scope getChild(String name, int windowSize)
+		{
+			for (int i = 0; i < mChildren.size(); ++i)
+			{
+				Scope child = mChildren.get(i);
+				if (child.mName == name || child.mName.equals(name))
+				{
+					return child;
+				}
+			}
+
+			Scope child = new Scope(name, this, windowSize);
+			mChildren.add(child);
+			return child;
+		}
+	}
+
+	/*
+	 * Everything recorded during one frame. Each slot of the ring owns its query objects,
+	 * so queries are only reused once their results have been read.
+	 */
+	private static class FrameRecord
+	{
+		Scope scopes[] = new Scope[16];
+		long cpuStart[] = new long[16];
+		long cpuEnd[] = new long[16];
+		int startQuery[] = new int[16];
+		int endQuery[] = new int[16];
+		int count = 0;
+
+		int queries[] = new int[0];
+		int queriesUsed = 0;
+		boolean pending = false;
+
+		void grow()
+		{
+			int size = scopes.length * 2;
+			Scope newScopes[] = new Scope[size];
+			System.arraycopy(scopes, 0, newScopes, 0, count);
+			scopes = newScopes;
+			cpuStart = copyOf(cpuStart, size);
+			cpuEnd = copyOf(cpuEnd, size);
+			startQuery = copyOf(startQuery, size);
+			endQuery = copyOf(endQuery, size);
+		}
+
+		private static long[] copyOf(long array[], int size)
+		{
+			long result[] = new long[size];
+			System.arraycopy(array, 0, result, 0, array.length);
+			return result;
+		}
+
+		private static int[] copyOf(int array[], int size)
+		{
+			int result[] = new int[size];
+			System.arraycopy(array, 0, result, 0, array.length);
+			return result;
+		}
+	}
+
+	private final int mWindowSize;
+	private final Scope mRoot;
+	private final FrameRecord mFrames[] = new FrameRecord[RING_SIZE];
+	private FrameRecord mCurrentFrame = null;
+	private long mFrameIndex = 0;
+
+	/* Stack of record indices of the open scopes in the current frame. */
+	private int mOpenScopes[] = new int[16];
+	private int mOpenScopeCount = 0;
+	private Scope mCurrentScope = null;
+
+	/* GPU timing is used when enabled and supported; support is checked on the first frame. */
+	private boolean mGPUTimingEnabled = true;
+	private boolean mGPUTimingChecked = false;
+	private boolean mGPUTimingSupported = false;
+
+	private long mDroppedFrames = 0;
+	private final long mTimestampScratch[] = new long[1];
+	private final int mAvailableScratch[] = new int[1];
+
+	/**
+	 * Creates a profiler which keeps statistics over the last 240 frames.
+	 */
+	public FrameProfiler()
+	{
+		this(240);
+	}
+
+	/**
+	 * Creates a profiler which keeps statistics over the last `windowSize` frames.
+	 */
+	public FrameProfiler(int windowSize)
+	{
+		mWindowSize = windowSize;
+		mRoot = new Scope(FRAME_SCOPE, null, windowSize);
+
+		for (int i = 0; i < RING_SIZE; ++i)
+		{
+			mFrames[i] = new FrameRecord();
+		}
+	}
+
+	/**
+	 * Enables or disables GPU timing. When disabled (or unsupported), only CPU times are recorded.
+	 */
+	public void setGPUTimingEnabled(boolean enabled)
+	{
+		mGPUTimingEnabled = enabled;
+	}
+
+	/**
+	 * Returns true if GPU times are being recorded.
+	 */
+	public boolean isGPUTimingActive()
+	{
+		return mGPUTimingEnabled && mGPUTimingSupported;
+	}
+
+	/**
+	 * Returns the root scope, which encloses whole frames.
+	 */
+	public Scope getRootScope()
+	{
+		return mRoot;
+	}
+
+	/**
+	 * Returns the number of frames profiled so far.
+	 */
+	public long getFrameCount()
+	{
+		return mFrameIndex;
+	}
+
+	/**
+	 * Returns the number of frames whose GPU results weren't ready in time and were discarded.
+	 */
+	public long getDroppedFrameCount()
+	{
+		return mDroppedFrames;
+	}
+
+	/**
+	 * Starts a frame. Reads back the GPU results of the frame which last used this ring slot.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void beginFrame(GL2 gl)
+	{
+		if (!mGPUTimingChecked)
+		{
+			mGPUTimingSupported = isTimerQuerySupported(gl);
+			mGPUTimingChecked = true;
+		}
+
+		if (mCurrentFrame != null)
+		{
+			/* The previous frame was never ended; close it out so the scope stack is consistent. */
+			endFrame(gl);
+		}
+
+		FrameRecord frame = mFrames[(int)(mFrameIndex % RING_SIZE)];
+		if (frame.pending)
+		{
+			resolveGPUTimes(gl, frame);
+		}
+
+		frame.count = 0;
+		frame.queriesUsed = 0;
+		frame.pending = false;
+
+		mCurrentFrame = frame;
+		mOpenScopeCount = 0;
+		mCurrentScope = null;
+
+		openScope(gl, mRoot);
+	}
+
+	/**
+	 * Starts a scope nested in the current one. Must be matched by `endScope()` in the same frame.
+	 * Does nothing outside of a frame.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param name The scope name. Constant strings are best, since names are compared every call.
+	 */
+	public void beginScope(GL2 gl, String name)
+	{
+		if (mCurrentFrame == null)
+		{
+			return;
+		}
+
+		openScope(gl, mCurrentScope.getChild(name, mWindowSize));
+	}
+
+	/**
+	 * Ends the innermost open scope. Does nothing outside of a frame, or if only the frame scope is open.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void endScope(GL2 gl)
+	{
+		if (mCurrentFrame == null || mOpenScopeCount <= 1)
+		{
+			return;
+		}
+
+		closeScope(gl);
+	}
+
+	/**
+	 * Ends the frame, closing any scopes left open (e.g. because an exception skipped their `endScope()`),
+	 * and records the CPU times of all scopes.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void endFrame(GL2 gl)
+	{
+		if (mCurrentFrame == null)
+		{
+			return;
+		}
+
+		while (mOpenScopeCount > 0)
+		{
+			closeScope(gl);
+		}
+
+		FrameRecord frame = mCurrentFrame;
+		for (int i = 0; i < frame.count; ++i)
+		{
+			Scope scope = frame.scopes[i];
+			scope.mFrameCPUTime += (frame.cpuEnd[i] - frame.cpuStart[i]) * 1e-6;
+			scope.mHasFrameCPUTime = true;
+		}
+
+		for (int i = 0; i < frame.count; ++i)
+		{
+			Scope scope = frame.scopes[i];
+			if (scope.mHasFrameCPUTime)
+			{
+				scope.mCPUTimes.add(scope.mFrameCPUTime);
+				scope.mFrameCPUTime = 0.0;
+				scope.mHasFrameCPUTime = false;
+			}
+		}
+
+		frame.pending = isGPUTimingActive() && frame.count > 0;
+		mCurrentFrame = null;
+		mCurrentScope = null;
+		++mFrameIndex;
+	}
+
+	/**
+	 * Forgets all statistics, keeping the scope tree.
+	 */
+	public void clearStatistics()
+	{
+		clearStatistics(mRoot);
+		mDroppedFrames = 0;
+	}
+
+	private void clearStatistics(Scope scope)
+	{
+		scope.mCPUTimes.clear();
+		scope.mGPUTimes.clear();
+
+		for (int i = 0; i < scope.mChildren.size(); ++i)
+		{
+			clearStatistics(scope.mChildren.get(i));
+		}
+	}
+
+	/**
+	 * Deletes the query objects. The profiler can still be used afterwards; queries are re-created as needed.
+	 *
+	 * @param gl The OpenGL state.
+	 */
+	public void releaseGPUResources(GL2 gl)
+	{
+		for (int i = 0; i < RING_SIZE; ++i)
+		{
+			FrameRecord frame = mFrames[i];
+			if (frame.queries.length > 0)
+			{
+				deleteQueries(gl, frame.queries, frame.queries.length);
+				frame.queries = new int[0];
+			}
+			frame.queriesUsed = 0;
+			frame.pending = false;
+		}
+	}
+
+	/**
+	 * Returns all scopes in depth-first order, starting with the frame scope.
+	 */
+	public ArrayList<Scope> getScopes()
+	{
+		ArrayList<Scope> result = new ArrayList<Scope>();
+		collectScopes(mRoot, result);
+		return result;
+	}
+
+	private void collectScopes(Scope scope, ArrayList<Scope> result)
+	{
+		result.add(scope);
+
+		for (int i = 0; i < scope.mChildren.size(); ++i)
+		{
+			collectScopes(scope.mChildren.get(i), result);
+		}
+	}
+
+	/**
+	 * Returns a human-readable table of the statistics, one scope per line, indented by depth.
+	 */
+	public String getSummary()
+	{
+		StringBuilder result = new StringBuilder();
+		result.append(String.format(Locale.US, "%-28s %8s %8s %8s   %8s %8s %8s%n",
+				"scope (ms)", "cpu min", "cpu avg", "cpu p99", "gpu min", "gpu avg", "gpu p99"));
+
+		for (Scope scope : getScopes())
+		{
+			StringBuilder name = new StringBuilder();
+			for (int i = 0; i < scope.getDepth(); ++i)
+			{
+				name.append("  ");
+			}
+			name.append(scope.getName());
+
+			RollingStatistics cpu = scope.getCPUTimes();
+			RollingStatistics gpu = scope.getGPUTimes();
+			result.append(String.format(Locale.US, "%-28s %8.3f %8.3f %8.3f   %8.3f %8.3f %8.3f%n", name,
+					cpu.getMin(), cpu.getAverage(), cpu.getP99(), gpu.getMin(), gpu.getAverage(), gpu.getP99()));
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Writes the statistics as CSV, one row per scope.
+	 */
+	public void writeCSV(Writer out) throws IOException
+	{
+		out.write("scope,depth,samples,cpu_min_ms,cpu_avg_ms,cpu_p99_ms,gpu_samples,gpu_min_ms,gpu_avg_ms,gpu_p99_ms\n");
+
+		for (Scope scope : getScopes())
+		{
+			RollingStatistics cpu = scope.getCPUTimes();
+			RollingStatistics gpu = scope.getGPUTimes();
+			out.write(String.format(Locale.US, "%s,%d,%d,%.4f,%.4f,%.4f,%d,%.4f,%.4f,%.4f\n",
+					scope.getPath(), scope.getDepth(),
+					cpu.getCount(), cpu.getMin(), cpu.getAverage(), cpu.getP99(),
+					gpu.getCount(), gpu.getMin(), gpu.getAverage(), gpu.getP99()));
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * Writes the statistics as JSON, with scopes nested as in the scope tree.
+	 */
+	public void writeJSON(Writer out) throws IOException
+	{
+		out.write(String.format(Locale.US, "{\"frames\": %d, \"droppedGPUFrames\": %d, \"gpuTiming\": %b, \"root\": ",
+				mFrameIndex, mDroppedFrames, isGPUTimingActive()));
+		writeJSON(out, mRoot);
+		out.write("}\n");
+		out.flush();
+	}
+
+	private void writeJSON(Writer out, Scope scope) throws IOException
+	{
+		out.write("{\"name\": \"");
+		out.write(scope.getName().replace("\\", "\\\\").replace("\"", "\\\""));
+		out.write("\", \"cpu\": ");
+		writeJSON(out, scope.getCPUTimes());
+		out.write(", \"gpu\": ");
+		writeJSON(out, scope.getGPUTimes());
+		out.write(", \"children\": [");
+
+		for (int i = 0; i < scope.mChildren.size(); ++i)
+		{
+			if (i > 0)
+			{
+				out.write(", ");
+			}
+			writeJSON(out, scope.mChildren.get(i));
+		}
+
+		out.write("]}");
+	}
+
+	private void writeJSON(Writer out, RollingStatistics stats) throws IOException
+	{
+		out.write(String.format(Locale.US, "{\"samples\": %d, \"min\": %.4f, \"avg\": %.4f, \"p99\": %.4f, \"max\": %.4f}",
+				stats.getCount(), stats.getMin(), stats.getAverage(), stats.getP99(), stats.getMax()));
+	}
+
+	/**
+	 * Writes the statistics to a file: JSON if the name ends in ".json", CSV otherwise.
+	 */
+	public void dump(String filename) throws IOException
+	{
+		Writer out = new FileWriter(filename);
+		try
+		{
+			if (filename.toLowerCase(Locale.US).endsWith(".json"))
+			{
+				writeJSON(out);
+			}
+			else
+			{
+				writeCSV(out);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns true if the context supports timestamp queries. Called once, on the first frame.
+	 */
+	protected boolean isTimerQuerySupported(GL2 gl)
+	{
+		return gl.isFunctionAvailable("glQueryCounter") && gl.isFunctionAvailable("glGetQueryObjectui64v");
+	}
+
+	/**
+	 * Creates `count` query objects, storing their names in `names` starting at `offset`.
+	 */
+	protected void createQueries(GL2 gl, int names[], int offset, int count)
+	{
+		gl.glGenQueries(count, names, offset);
+	}
+
+	/**
+	 * Deletes the first `count` query objects in `names`.
+	 */
+	protected void deleteQueries(GL2 gl, int names[], int count)
+	{
+		gl.glDeleteQueries(count, names, 0);
+	}
+
+	/**
+	 * Asks the GPU to record a timestamp into the query once all previous commands have completed.
+	 */
+	protected void recordTimestamp(GL2 gl, int query)
+	{
+		gl.glQueryCounter(query, GL2.GL_TIMESTAMP);
+	}
+
+	/**
+	 * Returns true if the query's result can be read without waiting.
+	 */
+	protected boolean isResultAvailable(GL2 gl, int query)
+	{
+		mAvailableScratch[0] = 0;
+		gl.glGetQueryObjectiv(query, GL2.GL_QUERY_RESULT_AVAILABLE, mAvailableScratch, 0);
+		return mAvailableScratch[0] != 0;
+	}
+
+	/**
+	 * Returns the query's timestamp in nanoseconds.
+	 */
+	protected long getTimestamp(GL2 gl, int query)
+	{
+		mTimestampScratch[0] = 0;
+		gl.glGetQueryObjectui64v(query, GL2.GL_QUERY_RESULT, mTimestampScratch, 0);
+		return mTimestampScratch[0];
+	}
+
+	private void openScope(GL2 gl, Scope scope)
+	{
+		FrameRecord frame = mCurrentFrame;
+		if (frame.count == frame.scopes.length)
+		{
+			frame.grow();
+		}
+
+		int index = frame.count++;
+		frame.scopes[index] = scope;
+		frame.startQuery[index] = timestamp(gl, frame);
+		frame.endQuery[index] = -1;
+		frame.cpuStart[index] = System.nanoTime();
+		frame.cpuEnd[index] = frame.cpuStart[index];
+
+		if (mOpenScopeCount == mOpenScopes.length)
+		{
+			int grown[] = new int[mOpenScopes.length * 2];
+			System.arraycopy(mOpenScopes, 0, grown, 0, mOpenScopeCount);
+			mOpenScopes = grown;
+		}
+
+		mOpenScopes[mOpenScopeCount++] = index;
+		mCurrentScope = scope;
+	}
+
+	private void closeScope(GL2 gl)
+	{
+		FrameRecord frame = mCurrentFrame;
+		int index = mOpenScopes[--mOpenScopeCount];
+
+		frame.cpuEnd[index] = System.nanoTime();
+		frame.endQuery[index] = timestamp(gl, frame);
+		mCurrentScope = frame.scopes[index].mParent;
+	}
+
+	/*
+	 * Records a GPU timestamp into the next free query of the frame and returns the query's index
+	 * in `frame.queries`, or -1 if GPU timing is off.
+	 */
+	private int timestamp(GL2 gl, FrameRecord frame)
+	{
+		if (!isGPUTimingActive())
+		{
+			return -1;
+		}
+
+		if (frame.queriesUsed == frame.queries.length)
+		{
+			/* Grow the pool; this only happens until the number of scopes per frame settles. */
+			int oldSize = frame.queries.length;
+			int newSize = Math.max(32, oldSize * 2);
+			int grown[] = new int[newSize];
+			System.arraycopy(frame.queries, 0, grown, 0, oldSize);
+			createQueries(gl, grown, oldSize, newSize - oldSize);
+			frame.queries = grown;
+		}
+
+		int index = frame.queriesUsed++;
+		recordTimestamp(gl, frame.queries[index]);
+		return index;
+	}
+
+	/*
+	 * Reads back a finished frame's timestamps and adds the GPU times to the statistics. If the last
+	 * query of the frame isn't ready yet, the frame is dropped instead of waiting on the GPU.
+	 */
+	private void resolveGPUTimes(GL2 gl, FrameRecord frame)
+	{
+		frame.pending = false;
+
+		if (frame.queriesUsed == 0)
+		{
+			return;
+		}
+
+		if (!isResultAvailable(gl, frame.queries[frame.queriesUsed - 1]))
+		{
+			++mDroppedFrames;
+			return;
+		}
+
+		for (int i = 0; i < frame.count; ++i)
+		{
+			if (frame.startQuery[i] < 0 || frame.endQuery[i] < 0)
+			{
+				continue;
+			}
+
+			long start = getTimestamp(gl, frame.queries[frame.startQuery[i]]);
+			long end = getTimestamp(gl, frame.queries[frame.endQuery[i]]);
+
+			Scope scope = frame.scopes[i];
+			scope.mFrameGPUTime += Math.max(0L, end - start) * 1e-6;
+			scope.mHasFrameGPUTime = true;
+		}
+
+		for (int i = 0; i < frame.count; ++i)
+		{
+			Scope scope = frame.scopes[i];
+			if (scope.mHasFrameGPUTime)
+			{
+				scope.mGPUTimes.add(scope.mFrameGPUTime);
+				scope.mFrameGPUTime = 0.0;
+				scope.mHasFrameGPUTime = false;
+			}
+		}
+	}
+}
@@ -0,0 +1,432 @@
+package cs5625.deferred.rendering;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.util.pngj.FilterType;
+
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.Texture2D;
+import cs5625.deferred.misc.OpenGLException;
+
+/**
+ * FrameRecorder.java
+ *
+ * Saves every rendered frame as a numbered PNG file (prefix000000.png, prefix000001.png, ...), for
+ * offline renders and regression images. The renderer hands the final scene texture to `capture()`
+ * each frame; it is read back with `AsyncReadback`, and each frame is then encoded with pngj on one of
+ * a pool of threads, so several frames encode at once.
+ *
+ * No frame is dropped: if every readback buffer is in flight, the oldest is collected right away, and
+ * if more than `maxQueuedFrames` frames are waiting to be encoded, `capture()` waits for the encoders.
+ * Both slow the frame rate down to what the machine can save, and are counted.
+ *
+ * The PNG filter and compression level come from a ladder of settings, strongest (smallest files)
+ * first. With a throughput target set, the recorder measures how many bytes of raw frames per second
+ * each setting sustains, and uses the strongest one which keeps up with the target.
+ *
+ * Frames are read as RGB8, so HDR values are clamped to [0, 1]; bloom, which is drawn straight to the
+ * screen, isn't included.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameRecorder implements AsyncReadback.Listener
+{
+	/** Default number of frames read back but not yet encoded before `capture()` waits. */
+	public static final int DEFAULT_MAX_QUEUED_FRAMES = 8;
+
+	/* Encoder settings from strongest to fastest: the row filter, and the zlib compression level. Trying
+	 * each filter every few rows costs little next to deflating, and a fixed filter was no faster at the
+	 * same level on test frames; the last setting stores rows unfiltered and uncompressed. */
+	private static final FilterType LADDER_FILTERS[] = { FilterType.FILTER_AGGRESSIVE, FilterType.FILTER_AGGRESSIVE, FilterType.FILTER_AGGRESSIVE, FilterType.FILTER_NONE };
+	private static final int LADDER_COMPRESSION[] = { 6, 3, 1, 0 };
+
+	/* Weight of each new measurement in the throughput averages. */
+	private static final double THROUGHPUT_SMOOTHING = 0.25;
+
+	private final File mDirectory;
+	private final String mPrefix;
+	private final int mThreadCount;
+	private final ExecutorService mEncoders;
+	private final Semaphore mQueueSlots;
+	private final int mMaxQueuedFrames;
+
+	/* Encoder settings and throughput measurements; guarded by `this`, as encoders update them. */
+	private int mLadderIndex = 0;
+	private double mThroughputTarget = 0.0;
+	private final double mLadderThroughputs[] = new double[LADDER_FILTERS.length];
+
+	private int mNextFrame = 0;
+	private long mQueueWaitCount = 0;
+
+	/* Totals, guarded by `this`. */
+	private int mWrittenCount = 0;
+	private int mFailedCount = 0;
+	private long mRawBytes = 0;
+	private long mFileBytes = 0;
+	private long mFirstEncodeStart = -1;
+	private long mLastEncodeEnd = -1;
+
+	/**
+	 * Creates a recorder writing frames into a directory, which is created if needed.
+	 *
+	 * @param directory The directory files go in.
+	 * @param prefix The start of each file name, before the frame number.
+	 * @param threadCount Number of frames encoded at once.
+	 * @param maxQueuedFrames Number of frames which may wait to be encoded before `capture()` waits.
+	 */
+	public FrameRecorder(File directory, String prefix, int threadCount, int maxQueuedFrames) throws IOException
+	{
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("Could not create frame directory '" + directory + "'.");
+		}
+
+		mDirectory = directory;
+		mPrefix = prefix;
+		mThreadCount = Math.max(1, threadCount);
+		mMaxQueuedFrames = Math.max(1, maxQueuedFrames);
+		mQueueSlots = new Semaphore(mMaxQueuedFrames);
+
+		mEncoders = Executors.newFixedThreadPool(mThreadCount, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "Frame encoder");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Creates a recorder with one encoding thread per processor.
+	 */
+	public FrameRecorder(File directory, String prefix) throws IOException
+	{
+		this(directory, prefix, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUED_FRAMES);
+	}
+
+	/**
+	 * Starts reading back a finished frame. Call once per frame on the GL thread.
+	 *
+	 * @param readback The readback service; its `update()` delivers the frame a few frames later.
+	 * @param scene The texture holding the frame.
+	 */
+	public void capture(GL2 gl, AsyncReadback readback, Texture2D scene) throws OpenGLException
+	{
+		if (readback.isFull())
+		{
+			readback.collectOldest(gl);
+		}
+
+		readback.readTexture(gl, scene, Format.RGB, Datatype.INT8, this);
+	}
+
+	/**
+	 * Queues a read back frame to be encoded, in capture order. Its buffer goes back to the readback
+	 * service's pool once encoded.
+	 */
+	@Override
+	public void readbackCompleted(GL2 gl, AsyncReadback.Readback readback)
+	{
+		submit(readback.getData(), readback.getWidth(), readback.getHeight(), readback);
+	}
+
+	/**
+	 * Queues RGB8 pixels, bottom row first, to be saved as the next frame; waits if `maxQueuedFrames`
+	 * frames are already queued.
+	 *
+	 * @return The frame's number.
+	 */
+	public int submit(ByteBuffer pixels, int width, int height)
+	{
+		return submit(pixels, width, height, null);
+	}
+
+	/**
+	 * Same as `submit(ByteBuffer, int, int)`, recycling `readback` (whose data `pixels` is) once encoded, if not null.
+	 */
+	private int submit(final ByteBuffer pixels, final int width, final int height, final AsyncReadback.Readback readback)
+	{
+		if (!mQueueSlots.tryAcquire())
+		{
+			++mQueueWaitCount;
+			mQueueSlots.acquireUninterruptibly();
+		}
+
+		final int frame = mNextFrame++;
+		mEncoders.execute(new Runnable() {
+			@Override
+			public void run()
+			{
+				try
+				{
+					encode(pixels, width, height, frame);
+				}
+				finally
+				{
+					if (readback != null)
+					{
+						readback.recycle();
+					}
+					mQueueSlots.release();
+				}
+			}
+		});
+
+		return frame;
+	}
+
+	/**
+	 * Encodes a frame with the current ladder setting, and updates the throughput measurements.
+	 */
+	private void encode(ByteBuffer pixels, int width, int height, int frame)
+	{
+		int ladderIndex;
+		synchronized (this)
+		{
+			ladderIndex = mLadderIndex;
+		}
+
+		File file = getFile(frame);
+		long start = System.nanoTime();
+
+		try
+		{
+			OutputStream stream = new BufferedOutputStream(new FileOutputStream(file), 256 * 1024);
+			try
+			{
+				ReadbackWriter.writePNG(stream, pixels, width, height, false, LADDER_COMPRESSION[ladderIndex], LADDER_FILTERS[ladderIndex], file.getName());
+			}
+			finally
+			{
+				stream.close();
+			}
+		}
+		catch (IOException err)
+		{
+			synchronized (this)
+			{
+				++mFailedCount;
+			}
+			System.out.println("Error saving frame " + frame + " to '" + file + "'.");
+			err.printStackTrace();
+			return;
+		}
+
+		long end = System.nanoTime();
+		long rawBytes = (long)width * height * 3;
+
+		synchronized (this)
+		{
+			++mWrittenCount;
+			mRawBytes += rawBytes;
+			mFileBytes += file.length();
+			if (mFirstEncodeStart < 0)
+			{
+				mFirstEncodeStart = start;
+			}
+			mLastEncodeEnd = Math.max(mLastEncodeEnd, end);
+
+			/* Frames encode side by side, so the recorder sustains about one thread's rate per thread. */
+			int parallelism = Math.min(mThreadCount, Runtime.getRuntime().availableProcessors());
+			double throughput = rawBytes / ((end - start) * 1e-9) * parallelism;
+
+			double previous = mLadderThroughputs[ladderIndex];
+			mLadderThroughputs[ladderIndex] = (previous == 0.0 ? throughput : previous + THROUGHPUT_SMOOTHING * (throughput - previous));
+
+			if (mThroughputTarget > 0.0 && ladderIndex == mLadderIndex)
+			{
+				chooseLadderIndex();
+			}
+		}
+	}
+
+	/**
+	 * Moves one step toward faster settings if the current one can't keep up with the target, or one
+	 * step toward stronger ones if that one is known to keep up. Called with `this` locked.
+	 */
+	private void chooseLadderIndex()
+	{
+		if (mLadderThroughputs[mLadderIndex] < mThroughputTarget)
+		{
+			mLadderIndex = Math.min(mLadderIndex + 1, LADDER_FILTERS.length - 1);
+		}
+		else if (mLadderIndex > 0 && mLadderThroughputs[mLadderIndex - 1] >= mThroughputTarget)
+		{
+			mLadderIndex = mLadderIndex - 1;
+		}
+	}
+
+	/**
+	 * Collects every pending readback and waits until every queued frame is saved.
+	 *
+	 * @param readback The readback service frames were captured with, or null to only wait for encoding.
+	 * @param timeoutMillis How long to wait for encoding.
+	 * @return False if encoding didn't finish in time.
+	 */
+	public boolean finish(GL2 gl, AsyncReadback readback, long timeoutMillis) throws OpenGLException, InterruptedException
+	{
+		if (readback != null)
+		{
+			while (readback.getPendingCount() > 0)
+			{
+				readback.collectOldest(gl);
+			}
+		}
+
+		if (!mQueueSlots.tryAcquire(mMaxQueuedFrames, timeoutMillis, TimeUnit.MILLISECONDS))
+		{
+			return false;
+		}
+
+		mQueueSlots.release(mMaxQueuedFrames);
+		return true;
+	}
+
+	/**
+	 * Stops the encoding threads once the frames queued so far are saved.
+	 */
+	public void shutdown()
+	{
+		mEncoders.shutdown();
+	}
+
+	/**
+	 * Returns the file a frame is saved to.
+	 */
+	public File getFile(int frame)
+	{
+		return new File(mDirectory, mPrefix + String.format(Locale.US, "%06d", frame) + ".png");
+	}
+
+	/**
+	 * Uses a fixed encoder setting, turning off the throughput target.
+	 *
+	 * @param ladderIndex 0 for the strongest (slowest) setting, up to `getLadderSize() - 1` for the fastest.
+	 */
+	public synchronized void setLadderIndex(int ladderIndex)
+	{
+		mThroughputTarget = 0.0;
+		mLadderIndex = Math.max(0, Math.min(LADDER_FILTERS.length - 1, ladderIndex));
+	}
+
+	public synchronized int getLadderIndex()
+	{
+		return mLadderIndex;
+	}
+
+	public int getLadderSize()
+	{
+		return LADDER_FILTERS.length;
+	}
+
+	/**
+	 * Returns the PNG filter of a ladder setting.
+	 */
+	public FilterType getLadderFilter(int ladderIndex)
+	{
+		return LADDER_FILTERS[ladderIndex];
+	}
+
+	/**
+	 * Returns the zlib compression level of a ladder setting.
+	 */
+	public int getLadderCompression(int ladderIndex)
+	{
+		return LADDER_COMPRESSION[ladderIndex];
+	}
+
+	/**
+	 * Returns the measured throughput of a ladder setting in raw bytes per second, or 0 if it hasn't
+	 * been used.
+	 */
+	public synchronized double getLadderThroughput(int ladderIndex)
+	{
+		return mLadderThroughputs[ladderIndex];
+	}
+
+	/**
+	 * Makes the recorder pick the strongest setting which encodes at least this many bytes of raw
+	 * frames per second (e.g. width * height * 3 * frames per second); 0 keeps the current setting.
+	 */
+	public synchronized void setThroughputTarget(double bytesPerSecond)
+	{
+		mThroughputTarget = Math.max(0.0, bytesPerSecond);
+	}
+
+	public synchronized double getThroughputTarget()
+	{
+		return mThroughputTarget;
+	}
+
+	/**
+	 * Returns the number of frames queued for encoding so far.
+	 */
+	public int getFrameCount()
+	{
+		return mNextFrame;
+	}
+
+	public synchronized int getWrittenCount()
+	{
+		return mWrittenCount;
+	}
+
+	public synchronized int getFailedCount()
+	{
+		return mFailedCount;
+	}
+
+	/**
+	 * Returns the number of times `capture()` or `submit()` waited for the encoders to catch up.
+	 */
+	public long getQueueWaitCount()
+	{
+		return mQueueWaitCount;
+	}
+
+	/**
+	 * Returns the number of bytes of raw (RGB8) frames encoded.
+	 */
+	public synchronized long getRawBytes()
+	{
+		return mRawBytes;
+	}
+
+	/**
+	 * Returns the number of bytes of PNG files written.
+	 */
+	public synchronized long getFileBytes()
+	{
+		return mFileBytes;
+	}
+
+	/**
+	 * Returns the raw bytes encoded per second, from the start of the first encode to the end of the last.
+	 */
+	public synchronized double getSustainedThroughput()
+	{
+		if (mFirstEncodeStart < 0 || mLastEncodeEnd <= mFirstEncodeStart)
+		{
+			return 0.0;
+		}
+
+		return mRawBytes / ((mLastEncodeEnd - mFirstEncodeStart) * 1e-9);
+	}
+}
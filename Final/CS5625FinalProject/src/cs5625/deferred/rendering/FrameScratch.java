@@ -0,0 +1,49 @@
+package cs5625.deferred.rendering;
+
+import java.nio.FloatBuffer;
+
+import javax.vecmath.AxisAngle4f;
+import javax.vecmath.Matrix3f;
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * FrameScratch.java
+ *
+ * A per-frame arena of reusable vecmath objects and direct buffers. The renderer owns one
+ * of these and overwrites its contents while drawing each frame, instead of allocating
+ * short-lived matrices, points, and buffers, so that steady-state rendering produces no garbage.
+ *
+ * Nothing in here survives from one use to the next; each slot is only valid until the next
+ * piece of code that writes to it. Slots are named by what they hold to make that easy to follow.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FrameScratch
+{
+	/* Camera matrices. */
+	public final Matrix4f view = new Matrix4f();
+	public final Matrix4f inverseView = new Matrix4f();
+	public final Matrix4f projection = new Matrix4f();
+	public final Matrix4f temp = new Matrix4f();
+	public final Matrix3f rotation = new Matrix3f();
+
+	/* Transform components. */
+	public final Point3f point = new Point3f();
+	public final Point3f origin = new Point3f(0.0f, 0.0f, 0.0f);
+	public final Quat4f quat = new Quat4f();
+	public final Quat4f identity = new Quat4f(0.0f, 0.0f, 0.0f, 1.0f);
+	public final AxisAngle4f axisAngle = new AxisAngle4f();
+
+	/* Saved camera state, restored after rendering the dynamic cube maps. */
+	public final Point3f savedPosition = new Point3f();
+	public final Quat4f savedOrientation = new Quat4f();
+
+	/* Direct buffers for uploading matrices to OpenGL. */
+	public final FloatBuffer matrix4Buffer = Buffers.newDirectFloatBuffer(16);
+	public final FloatBuffer matrix3Buffer = Buffers.newDirectFloatBuffer(9);
+}
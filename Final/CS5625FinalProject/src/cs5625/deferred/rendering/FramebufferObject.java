@@ -34,6 +34,9 @@ public class FramebufferObject implements OpenGLResourceObject
 	private boolean mIsBound = false;
 	private int mPreviousBinding[] = new int[1];
 	
+	/* Draw buffer list reused by `bindSome()` and `bindAll()`, which are called several times per frame. */
+	private int mDrawBuffers[] = null;
+	
 	/**
 	 * Creates a new FBO with the passed attributes and number of render targets.
 	 *
@@ -109,6 +112,13 @@ public class FramebufferObject implements OpenGLResourceObject
 //			}
 		}
 
+		/* A depth-only FBO has nothing to draw or read colors to; without this, some drivers report it incomplete. */
+		if (colorTextureCount == 0)
+		{
+			gl.glDrawBuffer(GL2.GL_NONE);
+			gl.glReadBuffer(GL2.GL_NONE);
+		}
+		
 		/* Make sure everything is set up properly. */
 		int status = gl.glCheckFramebufferStatus(GL2.GL_FRAMEBUFFER);
 		if (status != GL2.GL_FRAMEBUFFER_COMPLETE)
@@ -228,7 +238,7 @@ public class FramebufferObject implements OpenGLResourceObject
 		}
 		
 		/* Set draw buffers to all color attachments. */
-		int bindings[] = new int[indices.length];
+		int bindings[] = getDrawBuffers(indices.length);
 		
 		for (int i = 0; i < indices.length; ++i)
 		{
@@ -265,19 +275,39 @@ public class FramebufferObject implements OpenGLResourceObject
 		}
 		
 		/* Set draw buffers to all color attachments. */
-		int bindings[] = new int[getColorTextureCount()];
+		int bindings[] = getDrawBuffers(getColorTextureCount());
 		
 		for (int i = 0; i < getColorTextureCount(); ++i)
 		{
 			bindings[i] = GL2.GL_COLOR_ATTACHMENT0 + i;
 		}
 		
-		gl.glDrawBuffers(getColorTextureCount(), bindings, 0);
+		if (getColorTextureCount() > 0)
+		{
+			gl.glDrawBuffers(getColorTextureCount(), bindings, 0);
+		}
+		else
+		{
+			gl.glDrawBuffer(GL2.GL_NONE);
+		}
 
 		/* Make sure it worked. */
 		OpenGLException.checkOpenGLError(gl);
 	}
 	
+	/**
+	 * Returns the draw buffer scratch array, grown to hold at least `count` entries.
+	 */
+	private int[] getDrawBuffers(int count)
+	{
+		if (mDrawBuffers == null || mDrawBuffers.length < count)
+		{
+			mDrawBuffers = new int[count];
+		}
+		
+		return mDrawBuffers;
+	}
+	
 	/**
 	 * Unbinds all color textures for rendering. You can now use them for texturing operations. 
 	 */
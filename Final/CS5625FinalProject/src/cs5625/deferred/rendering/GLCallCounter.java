@@ -0,0 +1,187 @@
+package cs5625.deferred.rendering;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLPipelineFactory;
+
+/**
+ * GLCallCounter.java
+ *
+ * Wraps a GL2 object so that every call made through it is counted before being forwarded, with
+ * `glUniform*()` and draw calls counted separately. This is a profiling aid for measuring how many state
+ * changes a frame issues; the wrapper itself is slow, so only enable it while measuring.
+ *
+ * The wrapper is JOGL's trace pipeline (TraceGL2), which prints every call it forwards; instead of
+ * going to the console, that output is fed to a stream which just counts call names. (A
+ * java.lang.reflect.Proxy can't be used here: GL2 has too many methods for the JVM to generate one.)
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class GLCallCounter
+{
+	private GL2 mDelegate = null;
+	private GL2 mWrapper = null;
+
+	private long mTotalCalls = 0;
+	private long mUniformCalls = 0;
+	private long mDrawCalls = 0;
+
+	private final PrintStream mTraceStream = new PrintStream(new CountingStream(), false);
+
+	/**
+	 * Returns a GL2 which counts calls and forwards them to `gl`. The wrapper is reused as long
+	 * as the same `gl` object is passed in. If the trace pipeline isn't available, `gl` itself
+	 * is returned and nothing is counted.
+	 */
+	public GL2 wrap(GL2 gl)
+	{
+		if (gl != mDelegate)
+		{
+			mDelegate = gl;
+
+			try
+			{
+				mWrapper = (GL2)GLPipelineFactory.create("javax.media.opengl.Trace", GL2.class, gl, new Object[]{ mTraceStream });
+			}
+			catch (RuntimeException err)
+			{
+				err.printStackTrace();
+				mWrapper = null;
+			}
+
+			if (mWrapper == null || mWrapper == gl)
+			{
+				System.err.println("GL call counting is unavailable: no TraceGL2 pipeline.");
+				mWrapper = gl;
+			}
+		}
+
+		return mWrapper;
+	}
+
+	/**
+	 * Zeroes the counters.
+	 */
+	public void reset()
+	{
+		mTraceStream.flush();
+		mTotalCalls = 0;
+		mUniformCalls = 0;
+		mDrawCalls = 0;
+	}
+
+	/**
+	 * Returns the number of GL calls since the last `reset()`.
+	 */
+	public long getTotalCalls()
+	{
+		mTraceStream.flush();
+		return mTotalCalls;
+	}
+
+	/**
+	 * Returns the number of `glUniform*()` calls since the last `reset()`.
+	 */
+	public long getUniformCalls()
+	{
+		mTraceStream.flush();
+		return mUniformCalls;
+	}
+
+	/**
+	 * Returns the number of draw calls (`glDraw*()`, e.g. glDrawElements() or glDrawElementsInstanced()) 
+	 * since the last `reset()`.
+	 */
+	public long getDrawCalls()
+	{
+		mTraceStream.flush();
+		return mDrawCalls;
+	}
+
+	/**
+	 * Counts one traced call, given the start of its name.
+	 */
+	private void countCall(byte name[], int length)
+	{
+		++mTotalCalls;
+
+		if (startsWith(name, length, "glUniform") && !startsWith(name, length, "glUniformBlockBinding"))
+		{
+			++mUniformCalls;
+		}
+		else if (startsWith(name, length, "glDraw") && !startsWith(name, length, "glDrawBuffer"))
+		{
+			++mDrawCalls;
+		}
+	}
+
+	private static boolean startsWith(byte name[], int length, String prefix)
+	{
+		if (length < prefix.length())
+		{
+			return false;
+		}
+
+		for (int i = 0; i < prefix.length(); ++i)
+		{
+			if (name[i] != prefix.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * Receives the trace output, which is one line per call of the form "  glName(args) = result".
+	 * Only the name at the start of each line is looked at; everything else is discarded.
+	 */
+	private class CountingStream extends OutputStream
+	{
+		private final byte mName[] = new byte[32];
+		private int mNameLength = 0;
+
+		/* True while reading the name at the start of a line. */
+		private boolean mInName = true;
+
+		@Override
+		public void write(int b)
+		{
+			if (b == '\n')
+			{
+				endName();
+				mInName = true;
+				mNameLength = 0;
+			}
+			else if (mInName)
+			{
+				if (mNameLength == 0 && (b == ' ' || b == '\t' || b == '\r'))
+				{
+					/* Skip the indentation. */
+				}
+				else if (b == '(' || b == ' ')
+				{
+					endName();
+				}
+				else if (mNameLength < mName.length)
+				{
+					mName[mNameLength++] = (byte)b;
+				}
+			}
+		}
+
+		private void endName()
+		{
+			if (mInName && mNameLength > 2 && mName[0] == 'g' && mName[1] == 'l')
+			{
+				countCall(mName, mNameLength);
+			}
+
+			mInName = false;
+		}
+	}
+}
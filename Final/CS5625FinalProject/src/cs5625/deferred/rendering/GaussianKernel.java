@@ -0,0 +1,184 @@
+package cs5625.deferred.rendering;
+
+import java.util.HashMap;
+
+import javax.media.opengl.GL2;
+
+/**
+ * GaussianKernel.java
+ *
+ * The weights of a 1D Gaussian blur, precomputed on the CPU so shaders don't evaluate `exp()` per tap.
+ *
+ * A kernel of radius r covers the 2r + 1 texels from -r to r, with weights normalized to sum to 1. Since
+ * the blur shaders sample with bilinear filtering, each pair of neighbouring texels (i, i + 1) on either
+ * side of the center is read with a single tap placed between them, at the offset where the filter mixes
+ * the two texels in the ratio of their weights. This takes a blur from 2r + 1 texture reads to r + 1.
+ *
+ * Tap 0 is the center texel (offset 0). Every other tap t is read twice, at offsets +o[t] and -o[t].
+ *
+ * Kernels are cached per (radius, variance), and are immutable.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class GaussianKernel
+{
+	/** Largest supported radius; larger radii are clamped. This covers the cube map blur up to a width
+	 *  of 32, which reaches 2 * width + 1 texels to each side (see `TextureCubeMap.BlurAxis()`). */
+	public static final int MAX_RADIUS = 65;
+
+	/** Most taps a kernel can have; must match MAX_KERNEL_TAPS in gaussian_blur.fp. */
+	public static final int MAX_TAPS = 1 + (MAX_RADIUS + 1) / 2;
+
+	/* Kernels computed so far, keyed by radius and variance; see `getKey()`. */
+	private static final HashMap<Long, GaussianKernel> sCache = new HashMap<Long, GaussianKernel>();
+
+	/* The kernel returned last, checked first so asking for the same kernel every frame doesn't allocate a key. */
+	private static GaussianKernel sLast = null;
+
+	private final int mRadius;
+	private final float mVariance;
+
+	/* Per-texel weights for offsets 0 to radius. */
+	private final float mTexelWeights[];
+
+	/* Bilinear taps. */
+	private final float mTapWeights[];
+	private final float mTapOffsets[];
+
+	/**
+	 * Returns the kernel with the given radius and variance, computing it on first use.
+	 *
+	 * @param radius Number of texels on each side of the center, clamped to [0, MAX_RADIUS].
+	 * @param variance Variance of the Gaussian, in texels squared. If not positive, the kernel is
+	 *        just the center texel.
+	 */
+	public static synchronized GaussianKernel get(int radius, float variance)
+	{
+		radius = Math.max(0, Math.min(MAX_RADIUS, radius));
+
+		if (sLast != null && sLast.mRadius == radius && sLast.mVariance == variance)
+		{
+			return sLast;
+		}
+
+		Long key = getKey(radius, variance);
+		GaussianKernel kernel = sCache.get(key);
+
+		if (kernel == null)
+		{
+			kernel = new GaussianKernel(radius, variance);
+			sCache.put(key, kernel);
+		}
+
+		sLast = kernel;
+		return kernel;
+	}
+
+	private static long getKey(int radius, float variance)
+	{
+		return ((long)radius << 32) | (Float.floatToIntBits(variance) & 0xffffffffL);
+	}
+
+	private GaussianKernel(int radius, float variance)
+	{
+		mRadius = radius;
+		mVariance = variance;
+
+		/* Sample the Gaussian at each texel and normalize, counting every off-center texel twice. */
+		mTexelWeights = new float[radius + 1];
+		double total = 0.0;
+
+		for (int i = 0; i <= radius; ++i)
+		{
+			double weight = (variance > 0.0f ? Math.exp(-(double)i * i / (2.0 * variance)) : (i == 0 ? 1.0 : 0.0));
+			mTexelWeights[i] = (float)weight;
+			total += (i == 0 ? weight : 2.0 * weight);
+		}
+
+		for (int i = 0; i <= radius; ++i)
+		{
+			mTexelWeights[i] = (float)(mTexelWeights[i] / total);
+		}
+
+		/* Merge texel pairs (1, 2), (3, 4), ... into single bilinear taps; an odd texel out at the end
+		 * gets a tap of its own. */
+		int tapCount = 1 + (radius + 1) / 2;
+		mTapWeights = new float[tapCount];
+		mTapOffsets = new float[tapCount];
+
+		mTapWeights[0] = mTexelWeights[0];
+		mTapOffsets[0] = 0.0f;
+
+		for (int t = 1; t < tapCount; ++t)
+		{
+			int first = 2 * t - 1;
+			int second = first + 1;
+
+			float firstWeight = mTexelWeights[first];
+			float secondWeight = (second <= radius ? mTexelWeights[second] : 0.0f);
+			float weight = firstWeight + secondWeight;
+
+			mTapWeights[t] = weight;
+			mTapOffsets[t] = (weight > 0.0f ? (first * firstWeight + second * secondWeight) / weight : first);
+		}
+	}
+
+	public int getRadius()
+	{
+		return mRadius;
+	}
+
+	public float getVariance()
+	{
+		return mVariance;
+	}
+
+	/**
+	 * Returns the normalized weight of the texel at the given offset from the center, in [-radius, radius].
+	 */
+	public float getTexelWeight(int offset)
+	{
+		offset = Math.abs(offset);
+		return (offset <= mRadius ? mTexelWeights[offset] : 0.0f);
+	}
+
+	/**
+	 * Returns the number of bilinear taps on each side, including the center tap.
+	 */
+	public int getTapCount()
+	{
+		return mTapWeights.length;
+	}
+
+	/**
+	 * Returns the weight of each bilinear tap. Do not modify the returned array.
+	 */
+	public float[] getTapWeights()
+	{
+		return mTapWeights;
+	}
+
+	/**
+	 * Returns the offset of each bilinear tap from the center, in texels. Do not modify the returned array.
+	 */
+	public float[] getTapOffsets()
+	{
+		return mTapOffsets;
+	}
+
+	/**
+	 * Sends the taps to the `KernelWeights`, `KernelOffsets`, and `KernelTapCount` uniforms of the bound shader.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param weightsLocation Location of the `float KernelWeights[MAX_KERNEL_TAPS]` uniform.
+	 * @param offsetsLocation Location of the `float KernelOffsets[MAX_KERNEL_TAPS]` uniform.
+	 * @param tapCountLocation Location of the `int KernelTapCount` uniform.
+	 */
+	public void upload(GL2 gl, int weightsLocation, int offsetsLocation, int tapCountLocation)
+	{
+		gl.glUniform1fv(weightsLocation, mTapWeights.length, mTapWeights, 0);
+		gl.glUniform1fv(offsetsLocation, mTapOffsets.length, mTapOffsets, 0);
+		gl.glUniform1i(tapCountLocation, mTapWeights.length);
+	}
+}
@@ -0,0 +1,233 @@
+package cs5625.deferred.rendering;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import javax.media.opengl.GL2;
+import javax.vecmath.Matrix4f;
+
+import cs5625.deferred.materials.InstancedMaterial;
+import cs5625.deferred.materials.Material;
+import cs5625.deferred.misc.OpenGLException;
+import cs5625.deferred.scenegraph.Mesh;
+
+/**
+ * InstanceBatcher.java
+ *
+ * Collects the meshes drawn while the renderer walks the scene into batches of instances which share
+ * mesh data (see `Mesh.sharesDataWith()` and `MeshRegistry`), and draws each batch with as few
+ * instanced draw calls as possible: one per `INSTANCES_PER_DRAW` instances. Only meshes whose material
+ * `InstancedMaterial` can stand in for are batched (unshaded and untextured Lambertian); others are
+ * left to be drawn one by one.
+ *
+ * Since batched meshes are drawn after the walk, each is added with its modelview matrix, taken from the
+ * renderer's `TransformStack`. Nothing is allocated once the batches have grown to the size of the scene.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class InstanceBatcher
+{
+	/** Number of instances drawn per draw call; must match material_instanced.vp. */
+	public static final int INSTANCES_PER_DRAW = 64;
+
+	/** Number of vertex shader uniform components the instanced material needs. */
+	public static final int REQUIRED_UNIFORM_COMPONENTS = 4 * 4 * INSTANCES_PER_DRAW + 64;
+
+	/* Instances of one mesh with one kind of material. */
+	private static class Batch
+	{
+		Mesh mesh;
+		int materialID;
+		int count;
+		float transforms[] = new float[12 * INSTANCES_PER_DRAW];
+		float colors[] = new float[4 * INSTANCES_PER_DRAW];
+
+		void ensureCapacity(int instances)
+		{
+			if (colors.length < 4 * instances)
+			{
+				int capacity = Math.max(instances, 2 * colors.length / 4);
+				float newTransforms[] = new float[12 * capacity];
+				float newColors[] = new float[4 * capacity];
+				System.arraycopy(transforms, 0, newTransforms, 0, 12 * count);
+				System.arraycopy(colors, 0, newColors, 0, 4 * count);
+				transforms = newTransforms;
+				colors = newColors;
+			}
+		}
+	}
+
+	/* Batches of the current pass are the first mActiveBatchCount; the rest are kept for reuse. */
+	private final ArrayList<Batch> mBatches = new ArrayList<Batch>();
+	private int mActiveBatchCount = 0;
+
+	/* Counts of the last flush, and since the last reset. */
+	private int mLastDrawCount = 0;
+	private int mLastInstanceCount = 0;
+	private long mDrawCount = 0;
+	private long mInstanceCount = 0;
+
+	/**
+	 * Starts collecting a pass, with no batches.
+	 */
+	public void beginPass()
+	{
+		for (int i = 0; i < mActiveBatchCount; ++i)
+		{
+			mBatches.get(i).mesh = null;
+		}
+		mActiveBatchCount = 0;
+	}
+
+	/**
+	 * Adds an instance of a mesh to the batch of meshes sharing its data.
+	 *
+	 * @param modelview The instance's modelview matrix.
+	 * @return False if the mesh can't be instanced, and must be drawn now instead.
+	 */
+	public boolean add(Mesh mesh, Matrix4f modelview)
+	{
+		Material material = mesh.getMaterial();
+		int materialID = InstancedMaterial.getInstancedMaterialID(material);
+		if (materialID < 0 || mesh.getVerticesPerPolygon() < 3 || mesh.getVertexData() == null || mesh.getNormalData() == null)
+		{
+			return false;
+		}
+
+		/* Find this mesh's batch; there are few enough shared meshes that a linear search is fastest. */
+		Batch batch = null;
+		for (int i = 0; i < mActiveBatchCount; ++i)
+		{
+			Batch candidate = mBatches.get(i);
+			if (candidate.materialID == materialID && candidate.mesh.sharesDataWith(mesh))
+			{
+				batch = candidate;
+				break;
+			}
+		}
+
+		if (batch == null)
+		{
+			if (mActiveBatchCount == mBatches.size())
+			{
+				mBatches.add(new Batch());
+			}
+
+			batch = mBatches.get(mActiveBatchCount++);
+			batch.mesh = mesh;
+			batch.materialID = materialID;
+			batch.count = 0;
+		}
+
+		batch.ensureCapacity(batch.count + 1);
+
+		Matrix4f m = modelview;
+		float t[] = batch.transforms;
+		int i = 12 * batch.count;
+		t[i] = m.m00;  t[i + 1] = m.m01;  t[i + 2] = m.m02;  t[i + 3] = m.m03;
+		t[i + 4] = m.m10;  t[i + 5] = m.m11;  t[i + 6] = m.m12;  t[i + 7] = m.m13;
+		t[i + 8] = m.m20;  t[i + 9] = m.m21;  t[i + 10] = m.m22;  t[i + 11] = m.m23;
+
+		InstancedMaterial.getInstanceColor(material, batch.colors, 4 * batch.count);
+		++batch.count;
+		return true;
+	}
+
+	/**
+	 * Draws every batch collected since `beginPass()`, and empties them.
+	 *
+	 * @param gl The OpenGL state, with the pass's projection matrix and render target set.
+	 * @param material The material to draw instances with.
+	 * @param shaderCache The renderer's shader cache.
+	 */
+	public void flush(GL2 gl, InstancedMaterial material, Map<Class<? extends Material>, ShaderProgram> shaderCache) throws OpenGLException
+	{
+		mLastDrawCount = 0;
+		mLastInstanceCount = 0;
+
+		if (mActiveBatchCount == 0)
+		{
+			return;
+		}
+
+		gl.glPushClientAttrib((int)GL2.GL_CLIENT_ALL_ATTRIB_BITS);
+		material.retrieveShader(gl, shaderCache);
+		material.bind(gl);
+
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+
+		for (int b = 0; b < mActiveBatchCount; ++b)
+		{
+			Batch batch = mBatches.get(b);
+			Mesh mesh = batch.mesh;
+			int mode = (mesh.getVerticesPerPolygon() == 3 ? GL2.GL_TRIANGLES : GL2.GL_QUADS);
+			int indexCount = mesh.getVerticesPerPolygon() * mesh.getPolygonCount();
+
+			material.setMaterialID(gl, batch.materialID);
+			gl.glVertexPointer(3, GL2.GL_FLOAT, 0, mesh.getVertexData());
+			gl.glNormalPointer(GL2.GL_FLOAT, 0, mesh.getNormalData());
+
+			for (int first = 0; first < batch.count; first += INSTANCES_PER_DRAW)
+			{
+				int count = Math.min(INSTANCES_PER_DRAW, batch.count - first);
+				material.setInstances(gl, batch.transforms, batch.colors, first, count);
+				gl.glDrawElementsInstanced(mode, indexCount, GL2.GL_UNSIGNED_INT, mesh.getPolygonData(), count);
+				++mLastDrawCount;
+			}
+
+			mLastInstanceCount += batch.count;
+			batch.mesh = null;
+		}
+
+		material.unbind(gl);
+		gl.glPopClientAttrib();
+		mActiveBatchCount = 0;
+
+		mDrawCount += mLastDrawCount;
+		mInstanceCount += mLastInstanceCount;
+
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	/**
+	 * Returns the number of instanced draw calls issued by the last `flush()`.
+	 */
+	public int getLastDrawCount()
+	{
+		return mLastDrawCount;
+	}
+
+	/**
+	 * Returns the number of instances drawn by the last `flush()`.
+	 */
+	public int getLastInstanceCount()
+	{
+		return mLastInstanceCount;
+	}
+
+	/**
+	 * Returns the number of instanced draw calls issued since the last `resetCounts()`.
+	 */
+	public long getDrawCount()
+	{
+		return mDrawCount;
+	}
+
+	/**
+	 * Returns the number of instances drawn since the last `resetCounts()`; each would otherwise
+	 * have taken a draw call of its own.
+	 */
+	public long getInstanceCount()
+	{
+		return mInstanceCount;
+	}
+
+	public void resetCounts()
+	{
+		mDrawCount = 0;
+		mInstanceCount = 0;
+	}
+}
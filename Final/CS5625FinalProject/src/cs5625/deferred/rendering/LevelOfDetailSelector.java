@@ -0,0 +1,200 @@
+package cs5625.deferred.rendering;
+
+import java.util.Locale;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+
+import cs5625.deferred.scenegraph.Geometry;
+
+/**
+ * LevelOfDetailSelector.java
+ *
+ * Picks which level of detail (see `Geometry.generateLevelsOfDetail()`) each object is drawn at: the
+ * coarsest level whose error, projected to the screen at the distance of the object's bounds, is at most
+ * `getPixelError()` pixels. To keep objects from popping back and forth at the distance where two levels
+ * meet, an object only switches to a coarser level once that level's error is below the threshold by the
+ * hysteresis fraction, while it switches to a finer level as soon as its current level's error is over it.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class LevelOfDetailSelector
+{
+	/** Default largest error allowed on screen, in pixels. */
+	public static final float DEFAULT_PIXEL_ERROR = 1.0f;
+
+	/** Default fraction below the threshold a coarser level's error must be to switch to it. */
+	public static final float DEFAULT_HYSTERESIS = 0.25f;
+
+	private float mPixelError = DEFAULT_PIXEL_ERROR;
+	private float mHysteresis = DEFAULT_HYSTERESIS;
+
+	/* Pixels per unit of eye space distance at unit distance from the eye. */
+	private float mPixelsPerUnit = 1.0f;
+
+	/* Scratch space. */
+	private final Point3f mMin = new Point3f();
+	private final Point3f mMax = new Point3f();
+
+	/* Statistics of the last pass. */
+	private int mObjectCount = 0;
+	private int mSimplifiedCount = 0;
+	private int mSwitchCount = 0;
+	private long mTriangleCount = 0;
+	private long mFullTriangleCount = 0;
+
+	/**
+	 * Starts a pass.
+	 *
+	 * @param fov The camera's vertical field of view, in degrees.
+	 * @param viewportHeight The viewport's height, in pixels.
+	 */
+	public void beginPass(float fov, float viewportHeight)
+	{
+		mPixelsPerUnit = viewportHeight / (2.0f * (float)Math.tan(Math.toRadians(fov) / 2.0));
+
+		mObjectCount = 0;
+		mSimplifiedCount = 0;
+		mSwitchCount = 0;
+		mTriangleCount = 0;
+		mFullTriangleCount = 0;
+	}
+
+	/**
+	 * Chooses the level of detail to draw an object at, and sets it as the object's level.
+	 *
+	 * @param geometry The object.
+	 * @param modelview The object's modelview matrix.
+	 * @return The chosen level.
+	 */
+	public int select(Geometry geometry, Matrix4f modelview)
+	{
+		int current = geometry.getLevelOfDetail();
+		int level = current;
+
+		int levelCount = geometry.getLevelOfDetailCount();
+		if (levelCount > 1 && geometry.getBounds(mMin, mMax))
+		{
+			/* Size of an object space unit on screen, at the nearest point of the bounds' sphere. */
+			Matrix4f m = modelview;
+			float cx = 0.5f * (mMin.x + mMax.x), cy = 0.5f * (mMin.y + mMax.y), cz = 0.5f * (mMin.z + mMax.z);
+			float ex = m.m00 * cx + m.m01 * cy + m.m02 * cz + m.m03;
+			float ey = m.m10 * cx + m.m11 * cy + m.m12 * cz + m.m13;
+			float ez = m.m20 * cx + m.m21 * cy + m.m22 * cz + m.m23;
+			float scale = (float)Math.sqrt(m.m00 * m.m00 + m.m10 * m.m10 + m.m20 * m.m20);
+			float radius = 0.5f * scale * mMin.distance(mMax);
+			float distance = (float)Math.sqrt(ex * ex + ey * ey + ez * ez) - radius;
+
+			if (distance <= 0.0f)
+			{
+				level = 0;
+			}
+			else
+			{
+				float pixelsPerObjectUnit = scale * mPixelsPerUnit / distance;
+
+				/* Refine while the current level is too coarse, then coarsen while the next level is well within the threshold. */
+				while (level > 0 && geometry.getLevelOfDetailError(level) * pixelsPerObjectUnit > mPixelError)
+				{
+					--level;
+				}
+				while (level + 1 < levelCount && geometry.getLevelOfDetailError(level + 1) * pixelsPerObjectUnit <= mPixelError * (1.0f - mHysteresis))
+				{
+					++level;
+				}
+			}
+		}
+
+		if (level != current)
+		{
+			geometry.setLevelOfDetail(level);
+			++mSwitchCount;
+		}
+
+		++mObjectCount;
+		if (level > 0)
+		{
+			++mSimplifiedCount;
+		}
+		mTriangleCount += geometry.getLevelOfDetailTriangleCount(level);
+		mFullTriangleCount += geometry.getLevelOfDetailTriangleCount(0);
+
+		return level;
+	}
+
+	/**
+	 * Sets the largest error allowed on screen, in pixels.
+	 */
+	public void setPixelError(float pixelError)
+	{
+		mPixelError = pixelError;
+	}
+
+	public float getPixelError()
+	{
+		return mPixelError;
+	}
+
+	/**
+	 * Sets the fraction below the pixel error a coarser level's error must be before switching to it.
+	 */
+	public void setHysteresis(float hysteresis)
+	{
+		mHysteresis = hysteresis;
+	}
+
+	public float getHysteresis()
+	{
+		return mHysteresis;
+	}
+
+	/**
+	 * Returns the number of objects whose level was chosen in the last pass.
+	 */
+	public int getObjectCount()
+	{
+		return mObjectCount;
+	}
+
+	/**
+	 * Returns the number of objects drawn at a simplified level in the last pass.
+	 */
+	public int getSimplifiedCount()
+	{
+		return mSimplifiedCount;
+	}
+
+	/**
+	 * Returns the number of objects which changed level in the last pass.
+	 */
+	public int getSwitchCount()
+	{
+		return mSwitchCount;
+	}
+
+	/**
+	 * Returns the number of triangles drawn in the last pass, at the chosen levels.
+	 */
+	public long getTriangleCount()
+	{
+		return mTriangleCount;
+	}
+
+	/**
+	 * Returns the number of triangles the last pass would have drawn at full resolution.
+	 */
+	public long getFullTriangleCount()
+	{
+		return mFullTriangleCount;
+	}
+
+	/**
+	 * Returns the last pass's statistics on one line.
+	 */
+	public String getSummary()
+	{
+		return String.format(Locale.US, "level of detail: %d of %d triangles drawn, %d of %d objects simplified, %d switched level",
+				mTriangleCount, mFullTriangleCount, mSimplifiedCount, mObjectCount, mSwitchCount);
+	}
+}
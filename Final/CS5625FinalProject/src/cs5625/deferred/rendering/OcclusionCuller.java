@@ -0,0 +1,718 @@
+package cs5625.deferred.rendering;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+
+import cs5625.deferred.scenegraph.CompactVertexData;
+import cs5625.deferred.scenegraph.Geometry;
+import cs5625.deferred.scenegraph.Mesh;
+
+/**
+ * OcclusionCuller.java
+ *
+ * Hierarchical-Z occlusion culling on the CPU. Each pass, the renderer offers every visible Geometry
+ * object as an occluder candidate; the few with the largest projected bounds are rasterized in software
+ * into a low resolution depth buffer, from which a mip pyramid of maximum depths is built. Objects are
+ * then tested before their meshes are drawn: an object is occluded if the nearest point of its bounding
+ * box is farther than the farthest depth in the pyramid texels covering its screen rectangle. Objects
+ * entirely outside the view frustum are rejected along the way.
+ *
+ * Occluders are rasterized at pixel centers, which can cover a little more than the occluder at the
+ * edges of its silhouette; tested rectangles are grown by one texel to make up for it. Boxes crossing
+ * the near plane are never culled. Nothing here touches OpenGL, so it can be run and checked headless.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class OcclusionCuller
+{
+	/** Default width of the depth buffer, in texels; the height follows the viewport's aspect ratio. */
+	public static final int DEFAULT_WIDTH = 256;
+
+	/** Default number of occluders rasterized per pass. */
+	public static final int DEFAULT_MAX_OCCLUDERS = 16;
+
+	/** Default size of the largest occluder considered, in polygons; detailed meshes make poor occluders. */
+	public static final int DEFAULT_MAX_OCCLUDER_POLYGONS = 4096;
+
+	/** Default fraction of the screen an object's bounds must cover to be considered as an occluder. */
+	public static final float DEFAULT_MIN_OCCLUDER_AREA = 0.01f;
+
+	private final int mWidth;
+	private int mHeight = 0;
+	private int mMaxOccluders = DEFAULT_MAX_OCCLUDERS;
+	private int mMaxOccluderPolygons = DEFAULT_MAX_OCCLUDER_POLYGONS;
+	private float mMinOccluderArea = DEFAULT_MIN_OCCLUDER_AREA;
+
+	/* Depth pyramid: level 0 is the rasterized depth buffer, each further level the maximum of 2x2 texels
+	 * of the last. Depths are window depths in [0, 1], row-major, with y up. */
+	private float mLevels[][] = new float[0][];
+	private int mLevelWidths[] = new int[0];
+	private int mLevelHeights[] = new int[0];
+	private int mLevelCount = 0;
+
+	/* The pass's projection matrix, and the modelview-projection matrix of the object being looked at. */
+	private final Matrix4f mProjection = new Matrix4f();
+	private final Matrix4f mMVP = new Matrix4f();
+
+	/* Occluder candidates of this pass, sorted by decreasing projected area. */
+	private Geometry mCandidates[] = new Geometry[0];
+	private Matrix4f mCandidateTransforms[] = new Matrix4f[0];
+	private float mCandidateAreas[] = new float[0];
+	private int mCandidateCount = 0;
+
+	/* Scratch space for bounds, projected corners (x, y, z, w per corner), and clipped triangles. */
+	private final Point3f mMin = new Point3f();
+	private final Point3f mMax = new Point3f();
+	private final float mCorners[] = new float[4 * 8];
+	private final int mOutside[] = new int[6];
+	private final float mClipped[] = new float[4 * 4];
+	private final float mTriangle[] = new float[4 * 3];
+	private final float mScreen[] = new float[3 * 4];
+
+	/* Statistics of the last pass. */
+	private boolean mRasterized = false;
+	private long mPassStart = 0;
+	private long mCPUNanos = 0;
+	private int mOccluderCount = 0;
+	private int mOccluderTriangles = 0;
+	private int mTestedCount = 0;
+	private int mOccludedCount = 0;
+	private int mFrustumCulledCount = 0;
+
+	public OcclusionCuller()
+	{
+		this(DEFAULT_WIDTH);
+	}
+
+	/**
+	 * @param width Width of the depth buffer, in texels.
+	 */
+	public OcclusionCuller(int width)
+	{
+		mWidth = width;
+	}
+
+	/**
+	 * Starts a pass, with no occluders.
+	 *
+	 * @param projection The pass's projection matrix.
+	 * @param aspect The viewport's width over its height, which sets the depth buffer's height.
+	 */
+	public void beginPass(Matrix4f projection, float aspect)
+	{
+		mPassStart = System.nanoTime();
+		mProjection.set(projection);
+
+		resize(Math.max(1, Math.round(mWidth / aspect)));
+		Arrays.fill(mLevels[0], 0, mWidth * mHeight, 1.0f);
+
+		for (int i = 0; i < mCandidateCount; ++i)
+		{
+			mCandidates[i] = null;
+		}
+		mCandidateCount = 0;
+
+		mRasterized = false;
+		mCPUNanos = 0;
+		mOccluderCount = 0;
+		mOccluderTriangles = 0;
+		mTestedCount = 0;
+		mOccludedCount = 0;
+		mFrustumCulledCount = 0;
+	}
+
+	private void resize(int height)
+	{
+		if (height == mHeight && mLevelCount > 0)
+		{
+			return;
+		}
+
+		mHeight = height;
+
+		mLevelCount = 1;
+		for (int w = mWidth, h = mHeight; w > 1 || h > 1; w = (w + 1) / 2, h = (h + 1) / 2)
+		{
+			++mLevelCount;
+		}
+
+		mLevels = new float[mLevelCount][];
+		mLevelWidths = new int[mLevelCount];
+		mLevelHeights = new int[mLevelCount];
+		for (int level = 0, w = mWidth, h = mHeight; level < mLevelCount; ++level, w = (w + 1) / 2, h = (h + 1) / 2)
+		{
+			mLevels[level] = new float[w * h];
+			mLevelWidths[level] = w;
+			mLevelHeights[level] = h;
+		}
+	}
+
+	/**
+	 * Offers an object as an occluder for this pass. It's kept if its bounds are among the
+	 * `getMaxOccluders()` largest on screen so far.
+	 *
+	 * @param geometry The object, whose meshes (not children) are the occluder.
+	 * @param modelview The object's modelview matrix; copied.
+	 */
+	public void addOccluderCandidate(Geometry geometry, Matrix4f modelview)
+	{
+		if (mMaxOccluders <= 0 || !geometry.getBounds(mMin, mMax))
+		{
+			return;
+		}
+
+		int polygons = 0;
+		List<Mesh> meshes = geometry.getMeshes();
+		for (int i = 0; i < meshes.size(); ++i)
+		{
+			if (meshes.get(i).getVerticesPerPolygon() >= 3)
+			{
+				polygons += meshes.get(i).getPolygonCount();
+			}
+		}
+		if (polygons == 0 || polygons > mMaxOccluderPolygons)
+		{
+			return;
+		}
+
+		mMVP.mul(mProjection, modelview);
+		float area = projectBounds();
+		if (area < mMinOccluderArea || (mCandidateCount == mMaxOccluders && area <= mCandidateAreas[mCandidateCount - 1]))
+		{
+			return;
+		}
+
+		ensureCandidateCapacity();
+
+		/* Insert in order of decreasing area, dropping the smallest if full. */
+		int index = Math.min(mCandidateCount, mMaxOccluders - 1);
+		Matrix4f transform = mCandidateTransforms[index];
+		while (index > 0 && mCandidateAreas[index - 1] < area)
+		{
+			mCandidates[index] = mCandidates[index - 1];
+			mCandidateTransforms[index] = mCandidateTransforms[index - 1];
+			mCandidateAreas[index] = mCandidateAreas[index - 1];
+			--index;
+		}
+
+		mCandidates[index] = geometry;
+		mCandidateTransforms[index] = transform;
+		mCandidateTransforms[index].set(modelview);
+		mCandidateAreas[index] = area;
+		mCandidateCount = Math.min(mCandidateCount + 1, mMaxOccluders);
+	}
+
+	private void ensureCandidateCapacity()
+	{
+		if (mCandidates.length < mMaxOccluders)
+		{
+			Geometry candidates[] = new Geometry[mMaxOccluders];
+			Matrix4f transforms[] = new Matrix4f[mMaxOccluders];
+			float areas[] = new float[mMaxOccluders];
+			System.arraycopy(mCandidates, 0, candidates, 0, mCandidateCount);
+			System.arraycopy(mCandidateTransforms, 0, transforms, 0, mCandidateTransforms.length);
+			System.arraycopy(mCandidateAreas, 0, areas, 0, mCandidateCount);
+			for (int i = mCandidateTransforms.length; i < transforms.length; ++i)
+			{
+				transforms[i] = new Matrix4f();
+			}
+
+			mCandidates = candidates;
+			mCandidateTransforms = transforms;
+			mCandidateAreas = areas;
+		}
+	}
+
+	/**
+	 * Projects the corners of the box mMin-mMax by mMVP into mCorners, returning the fraction of the
+	 * screen its rectangle covers: 0 if it's outside the frustum, 1 if it crosses the near plane.
+	 */
+	private float projectBounds()
+	{
+		int outside[] = mOutside;
+		Arrays.fill(outside, 0);
+		boolean crossesNear = false;
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+
+		for (int i = 0; i < 8; ++i)
+		{
+			float x = ((i & 1) == 0 ? mMin.x : mMax.x);
+			float y = ((i & 2) == 0 ? mMin.y : mMax.y);
+			float z = ((i & 4) == 0 ? mMin.z : mMax.z);
+
+			float cx = mMVP.m00 * x + mMVP.m01 * y + mMVP.m02 * z + mMVP.m03;
+			float cy = mMVP.m10 * x + mMVP.m11 * y + mMVP.m12 * z + mMVP.m13;
+			float cz = mMVP.m20 * x + mMVP.m21 * y + mMVP.m22 * z + mMVP.m23;
+			float cw = mMVP.m30 * x + mMVP.m31 * y + mMVP.m32 * z + mMVP.m33;
+			mCorners[4 * i] = cx;
+			mCorners[4 * i + 1] = cy;
+			mCorners[4 * i + 2] = cz;
+			mCorners[4 * i + 3] = cw;
+
+			if (cx < -cw) ++outside[0];
+			if (cx > cw) ++outside[1];
+			if (cy < -cw) ++outside[2];
+			if (cy > cw) ++outside[3];
+			if (cz < -cw) ++outside[4];
+			if (cz > cw) ++outside[5];
+
+			if (cz < -cw || cw <= 0.0f)
+			{
+				crossesNear = true;
+			}
+			else
+			{
+				minX = Math.min(minX, cx / cw);
+				maxX = Math.max(maxX, cx / cw);
+				minY = Math.min(minY, cy / cw);
+				maxY = Math.max(maxY, cy / cw);
+			}
+		}
+
+		for (int plane = 0; plane < 6; ++plane)
+		{
+			if (outside[plane] == 8)
+			{
+				return 0.0f;
+			}
+		}
+
+		if (crossesNear)
+		{
+			return 1.0f;
+		}
+
+		float width = Math.min(maxX, 1.0f) - Math.max(minX, -1.0f);
+		float height = Math.min(maxY, 1.0f) - Math.max(minY, -1.0f);
+		return Math.max(0.0f, width) * Math.max(0.0f, height) / 4.0f;
+	}
+
+	/**
+	 * Rasterizes the occluders kept since `beginPass()`, and builds the depth pyramid. Objects can be
+	 * tested once this is done.
+	 */
+	public void rasterizeOccluders()
+	{
+		for (int i = 0; i < mCandidateCount; ++i)
+		{
+			mMVP.mul(mProjection, mCandidateTransforms[i]);
+
+			List<Mesh> meshes = mCandidates[i].getMeshes();
+			for (int m = 0; m < meshes.size(); ++m)
+			{
+				rasterizeMesh(meshes.get(m));
+			}
+
+			mCandidates[i] = null;
+		}
+
+		mOccluderCount = mCandidateCount;
+		mCandidateCount = 0;
+
+		buildPyramid();
+		mRasterized = true;
+
+		mCPUNanos += System.nanoTime() - mPassStart;
+	}
+
+	private void rasterizeMesh(Mesh mesh)
+	{
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		if (verticesPerPolygon < 3 || mesh.getVertexCount() == 0 || mesh.getPolygonData() == null)
+		{
+			return;
+		}
+
+		IntBuffer polygons = mesh.getPolygonData();
+		int polygonCount = mesh.getPolygonCount();
+
+		/* Polygons are fans: (0, 1, 2), (0, 2, 3), ... */
+		for (int p = 0; p < polygonCount; ++p)
+		{
+			int base = p * verticesPerPolygon;
+			for (int t = 1; t + 1 < verticesPerPolygon; ++t)
+			{
+				transformVertex(mesh, polygons.get(base), 0);
+				transformVertex(mesh, polygons.get(base + t), 1);
+				transformVertex(mesh, polygons.get(base + t + 1), 2);
+				rasterizeClippedTriangle();
+			}
+		}
+	}
+
+	private void transformVertex(Mesh mesh, int index, int slot)
+	{
+		float x, y, z;
+		FloatBuffer vertices = mesh.getVertexData();
+		if (vertices != null)
+		{
+			x = vertices.get(3 * index);
+			y = vertices.get(3 * index + 1);
+			z = vertices.get(3 * index + 2);
+		}
+		else
+		{
+			/* The float positions were discarded; undo the quantization of the compact ones. */
+			CompactVertexData compact = mesh.getCompactVertexData();
+			ShortBuffer positions = compact.getPositions();
+			Point3f offset = compact.getPositionOffset();
+			float scale = compact.getPositionScale();
+			x = offset.x + scale * positions.get(3 * index);
+			y = offset.y + scale * positions.get(3 * index + 1);
+			z = offset.z + scale * positions.get(3 * index + 2);
+		}
+
+		mTriangle[4 * slot] = mMVP.m00 * x + mMVP.m01 * y + mMVP.m02 * z + mMVP.m03;
+		mTriangle[4 * slot + 1] = mMVP.m10 * x + mMVP.m11 * y + mMVP.m12 * z + mMVP.m13;
+		mTriangle[4 * slot + 2] = mMVP.m20 * x + mMVP.m21 * y + mMVP.m22 * z + mMVP.m23;
+		mTriangle[4 * slot + 3] = mMVP.m30 * x + mMVP.m31 * y + mMVP.m32 * z + mMVP.m33;
+	}
+
+	/**
+	 * Clips the clip space triangle in mTriangle against the near plane (z >= -w), and rasterizes the
+	 * resulting triangle or quad.
+	 */
+	private void rasterizeClippedTriangle()
+	{
+		int count = 0;
+		for (int i = 0; i < 3; ++i)
+		{
+			int j = (i + 1) % 3;
+			float di = mTriangle[4 * i + 2] + mTriangle[4 * i + 3];
+			float dj = mTriangle[4 * j + 2] + mTriangle[4 * j + 3];
+
+			if (di >= 0.0f)
+			{
+				System.arraycopy(mTriangle, 4 * i, mClipped, 4 * count++, 4);
+			}
+			if ((di >= 0.0f) != (dj >= 0.0f))
+			{
+				float t = di / (di - dj);
+				for (int k = 0; k < 4; ++k)
+				{
+					mClipped[4 * count + k] = mTriangle[4 * i + k] + t * (mTriangle[4 * j + k] - mTriangle[4 * i + k]);
+				}
+				++count;
+			}
+		}
+
+		if (count < 3)
+		{
+			return;
+		}
+
+		/* To window coordinates, with depth in [0, 1]. */
+		for (int i = 0; i < count; ++i)
+		{
+			float w = Math.max(mClipped[4 * i + 3], 1e-6f);
+			mScreen[3 * i] = (0.5f * mClipped[4 * i] / w + 0.5f) * mWidth;
+			mScreen[3 * i + 1] = (0.5f * mClipped[4 * i + 1] / w + 0.5f) * mHeight;
+			mScreen[3 * i + 2] = 0.5f * mClipped[4 * i + 2] / w + 0.5f;
+		}
+
+		rasterizeTriangle(0, 1, 2);
+		if (count == 4)
+		{
+			rasterizeTriangle(0, 2, 3);
+		}
+	}
+
+	/**
+	 * Rasterizes a triangle of mScreen into the depth buffer, at texel centers, keeping the nearest depth.
+	 */
+	private void rasterizeTriangle(int a, int b, int c)
+	{
+		float x0 = mScreen[3 * a], y0 = mScreen[3 * a + 1], z0 = mScreen[3 * a + 2];
+		float x1 = mScreen[3 * b], y1 = mScreen[3 * b + 1], z1 = mScreen[3 * b + 2];
+		float x2 = mScreen[3 * c], y2 = mScreen[3 * c + 1], z2 = mScreen[3 * c + 2];
+
+		float area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+		if (Math.abs(area) < 1e-8f)
+		{
+			return;
+		}
+
+		++mOccluderTriangles;
+
+		int minX = Math.max(0, (int)Math.floor(Math.min(x0, Math.min(x1, x2))));
+		int maxX = Math.min(mWidth - 1, (int)Math.ceil(Math.max(x0, Math.max(x1, x2))));
+		int minY = Math.max(0, (int)Math.floor(Math.min(y0, Math.min(y1, y2))));
+		int maxY = Math.min(mHeight - 1, (int)Math.ceil(Math.max(y0, Math.max(y1, y2))));
+		if (minX > maxX || minY > maxY)
+		{
+			return;
+		}
+
+		/* Edge functions, scaled so they're barycentric coordinates whatever the winding. */
+		float inverseArea = 1.0f / area;
+		float a0 = (y1 - y2) * inverseArea, b0 = (x2 - x1) * inverseArea, c0 = (x1 * y2 - x2 * y1) * inverseArea;
+		float a1 = (y2 - y0) * inverseArea, b1 = (x0 - x2) * inverseArea, c1 = (x2 * y0 - x0 * y2) * inverseArea;
+		float a2 = (y0 - y1) * inverseArea, b2 = (x1 - x0) * inverseArea, c2 = (x0 * y1 - x1 * y0) * inverseArea;
+
+		/* Depth is affine in window coordinates too, so it's stepped along with the edge functions. */
+		float az = a0 * z0 + a1 * z1 + a2 * z2;
+		float bz = b0 * z0 + b1 * z1 + b2 * z2;
+		float cz = c0 * z0 + c1 * z1 + c2 * z2;
+
+		float depth[] = mLevels[0];
+		float px = minX + 0.5f;
+		for (int y = minY; y <= maxY; ++y)
+		{
+			float py = y + 0.5f;
+			float w0 = a0 * px + b0 * py + c0;
+			float w1 = a1 * px + b1 * py + c1;
+			float w2 = a2 * px + b2 * py + c2;
+			float z = az * px + bz * py + cz;
+
+			for (int i = y * mWidth + minX, end = y * mWidth + maxX; i <= end; ++i)
+			{
+				if (w0 >= 0.0f && w1 >= 0.0f && w2 >= 0.0f && z < depth[i])
+				{
+					depth[i] = Math.max(z, 0.0f);
+				}
+
+				w0 += a0;
+				w1 += a1;
+				w2 += a2;
+				z += az;
+			}
+		}
+	}
+
+	private void buildPyramid()
+	{
+		for (int level = 1; level < mLevelCount; ++level)
+		{
+			float source[] = mLevels[level - 1];
+			float target[] = mLevels[level];
+			int sourceWidth = mLevelWidths[level - 1];
+			int sourceHeight = mLevelHeights[level - 1];
+			int width = mLevelWidths[level];
+			int height = mLevelHeights[level];
+
+			for (int y = 0; y < height; ++y)
+			{
+				int y0 = 2 * y;
+				int y1 = Math.min(y0 + 1, sourceHeight - 1);
+				for (int x = 0; x < width; ++x)
+				{
+					int x0 = 2 * x;
+					int x1 = Math.min(x0 + 1, sourceWidth - 1);
+					target[y * width + x] = Math.max(
+							Math.max(source[y0 * sourceWidth + x0], source[y0 * sourceWidth + x1]),
+							Math.max(source[y1 * sourceWidth + x0], source[y1 * sourceWidth + x1]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if an object's meshes can be skipped this pass, because their bounds are outside the
+	 * view frustum or behind the occluders. Only valid after `rasterizeOccluders()`.
+	 *
+	 * @param geometry The object to test; its children are not considered.
+	 * @param modelview The object's modelview matrix.
+	 */
+	public boolean isCulled(Geometry geometry, Matrix4f modelview)
+	{
+		if (!mRasterized || !geometry.getBounds(mMin, mMax))
+		{
+			return false;
+		}
+
+		long start = System.nanoTime();
+		++mTestedCount;
+
+		boolean culled = false;
+		mMVP.mul(mProjection, modelview);
+		float area = projectBounds();
+		if (area == 0.0f)
+		{
+			++mFrustumCulledCount;
+			culled = true;
+		}
+		else if (area < 1.0f && isRectangleOccluded())
+		{
+			++mOccludedCount;
+			culled = true;
+		}
+
+		mCPUNanos += System.nanoTime() - start;
+		return culled;
+	}
+
+	/**
+	 * Tests the box projected into mCorners (entirely in front of the near plane) against the pyramid.
+	 */
+	private boolean isRectangleOccluded()
+	{
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		float minZ = Float.MAX_VALUE;
+		for (int i = 0; i < 8; ++i)
+		{
+			float w = mCorners[4 * i + 3];
+			minX = Math.min(minX, mCorners[4 * i] / w);
+			maxX = Math.max(maxX, mCorners[4 * i] / w);
+			minY = Math.min(minY, mCorners[4 * i + 1] / w);
+			maxY = Math.max(maxY, mCorners[4 * i + 1] / w);
+			minZ = Math.min(minZ, mCorners[4 * i + 2] / w);
+		}
+		minZ = 0.5f * minZ + 0.5f;
+
+		/* Texel range at level 0, grown by a texel (see the class comment). */
+		int x0 = Math.max(0, (int)Math.floor((0.5f * minX + 0.5f) * mWidth) - 1);
+		int x1 = Math.min(mWidth - 1, (int)Math.floor((0.5f * maxX + 0.5f) * mWidth) + 1);
+		int y0 = Math.max(0, (int)Math.floor((0.5f * minY + 0.5f) * mHeight) - 1);
+		int y1 = Math.min(mHeight - 1, (int)Math.floor((0.5f * maxY + 0.5f) * mHeight) + 1);
+
+		/* The finest level where the rectangle spans at most about 2x2 texels. */
+		int level = 0;
+		while (level < mLevelCount - 1 && Math.max(x1 - x0, y1 - y0) >> level > 1)
+		{
+			++level;
+		}
+
+		float depth[] = mLevels[level];
+		int width = mLevelWidths[level];
+		for (int y = y0 >> level; y <= y1 >> level; ++y)
+		{
+			for (int x = x0 >> level; x <= x1 >> level; ++x)
+			{
+				if (depth[y * width + x] >= minZ)
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the depth buffer's window depth at a texel, for debugging.
+	 */
+	public float getDepth(int level, int x, int y)
+	{
+		return mLevels[level][y * mLevelWidths[level] + x];
+	}
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+	public int getLevelCount()
+	{
+		return mLevelCount;
+	}
+
+	/**
+	 * Sets how many of the largest objects on screen are rasterized as occluders each pass.
+	 */
+	public void setMaxOccluders(int maxOccluders)
+	{
+		mMaxOccluders = maxOccluders;
+	}
+
+	public int getMaxOccluders()
+	{
+		return mMaxOccluders;
+	}
+
+	/**
+	 * Sets the most polygons an object may have and still be rasterized as an occluder.
+	 */
+	public void setMaxOccluderPolygons(int maxOccluderPolygons)
+	{
+		mMaxOccluderPolygons = maxOccluderPolygons;
+	}
+
+	public int getMaxOccluderPolygons()
+	{
+		return mMaxOccluderPolygons;
+	}
+
+	/**
+	 * Sets the fraction of the screen an object's bounds must cover to be considered as an occluder.
+	 */
+	public void setMinOccluderArea(float minOccluderArea)
+	{
+		mMinOccluderArea = minOccluderArea;
+	}
+
+	public float getMinOccluderArea()
+	{
+		return mMinOccluderArea;
+	}
+
+	/**
+	 * Returns the number of occluders rasterized in the last pass.
+	 */
+	public int getOccluderCount()
+	{
+		return mOccluderCount;
+	}
+
+	/**
+	 * Returns the number of occluder triangles rasterized in the last pass, after near plane clipping.
+	 */
+	public int getOccluderTriangleCount()
+	{
+		return mOccluderTriangles;
+	}
+
+	/**
+	 * Returns the number of objects tested in the last pass.
+	 */
+	public int getTestedCount()
+	{
+		return mTestedCount;
+	}
+
+	/**
+	 * Returns the number of objects culled by the occluders in the last pass.
+	 */
+	public int getOccludedCount()
+	{
+		return mOccludedCount;
+	}
+
+	/**
+	 * Returns the number of objects culled for being outside the view frustum in the last pass.
+	 */
+	public int getFrustumCulledCount()
+	{
+		return mFrustumCulledCount;
+	}
+
+	/**
+	 * Returns the CPU time spent culling in the last pass, in milliseconds: choosing and rasterizing
+	 * occluders, building the pyramid, and testing objects.
+	 */
+	public double getCPUTime()
+	{
+		return mCPUNanos / 1.0e6;
+	}
+
+	/**
+	 * Returns the last pass's statistics on one line.
+	 */
+	public String getSummary()
+	{
+		return String.format(Locale.US, "occlusion culling: %d of %d objects culled (%d occluded, %d outside the frustum), %d occluders (%d triangles), %.3f ms",
+				mOccludedCount + mFrustumCulledCount, mTestedCount, mOccludedCount, mFrustumCulledCount, mOccluderCount, mOccluderTriangles, getCPUTime());
+	}
+}
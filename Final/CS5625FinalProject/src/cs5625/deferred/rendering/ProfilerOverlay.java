@@ -0,0 +1,176 @@
+package cs5625.deferred.rendering;
+
+import java.util.ArrayList;
+
+import javax.media.opengl.GL2;
+
+import cs5625.deferred.misc.OpenGLException;
+
+/**
+ * ProfilerOverlay.java
+ *
+ * Draws a FrameProfiler's statistics on top of the rendered frame as a bar chart, one row per
+ * scope in the same order as `FrameProfiler.getSummary()`. In each row, the thin grey bar is the
+ * average CPU time and the thick coloured bar is the average GPU time, with a white tick at the
+ * GPU 99th percentile. Vertical lines mark every millisecond, and the red line marks the 60 Hz
+ * frame budget.
+ *
+ * There is no text rendering in this framework, so print `getSummary()` to see the scope names
+ * and exact numbers.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ProfilerOverlay
+{
+	/* Frame budget marked on the chart, in milliseconds. */
+	private static final float FRAME_BUDGET = 1000.0f / 60.0f;
+
+	/* Bar colours for each nesting depth. */
+	private static final float DEPTH_COLORS[][] = {
+		{0.9f, 0.6f, 0.1f},
+		{0.2f, 0.7f, 0.9f},
+		{0.3f, 0.9f, 0.3f},
+		{0.9f, 0.3f, 0.8f},
+	};
+
+	private final FrameProfiler mProfiler;
+
+	/* Reused list of scopes, refilled every draw. */
+	private final ArrayList<FrameProfiler.Scope> mScopes = new ArrayList<FrameProfiler.Scope>();
+
+	/* Layout, in pixels. */
+	private float mPixelsPerMillisecond = 16.0f;
+	private float mRowHeight = 10.0f;
+	private float mMargin = 10.0f;
+
+	public ProfilerOverlay(FrameProfiler profiler)
+	{
+		mProfiler = profiler;
+	}
+
+	/**
+	 * Sets the horizontal scale of the chart.
+	 */
+	public void setPixelsPerMillisecond(float pixels)
+	{
+		mPixelsPerMillisecond = pixels;
+	}
+
+	public float getPixelsPerMillisecond()
+	{
+		return mPixelsPerMillisecond;
+	}
+
+	/**
+	 * Draws the chart in the top-left corner of the current framebuffer.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param width Width of the viewport, in pixels.
+	 * @param height Height of the viewport, in pixels.
+	 */
+	public void draw(GL2 gl, float width, float height) throws OpenGLException
+	{
+		mScopes.clear();
+		collectScopes(mProfiler.getRootScope());
+
+		/* Draw with plain colours in pixel coordinates, on top of everything. */
+		gl.glPushAttrib(GL2.GL_ENABLE_BIT | GL2.GL_TRANSFORM_BIT | GL2.GL_CURRENT_BIT | GL2.GL_COLOR_BUFFER_BIT);
+		gl.glDisable(GL2.GL_DEPTH_TEST);
+		gl.glDisable(GL2.GL_TEXTURE_2D);
+		gl.glDisable(GL2.GL_TEXTURE_RECTANGLE_ARB);
+		gl.glDisable(GL2.GL_LIGHTING);
+		gl.glEnable(GL2.GL_BLEND);
+		gl.glBlendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
+
+		gl.glMatrixMode(GL2.GL_PROJECTION);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+		gl.glOrtho(0.0, width, height, 0.0, -1.0, 1.0);
+
+		gl.glMatrixMode(GL2.GL_MODELVIEW);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+
+		float chartWidth = Math.min(width - 2.0f * mMargin, 2.0f * FRAME_BUDGET * mPixelsPerMillisecond);
+		float chartHeight = mScopes.size() * mRowHeight;
+		float left = mMargin;
+		float top = mMargin;
+
+		/* Translucent background. */
+		gl.glBegin(GL2.GL_QUADS);
+		gl.glColor4f(0.0f, 0.0f, 0.0f, 0.6f);
+		quad(gl, left - 4.0f, top - 4.0f, chartWidth + 8.0f, chartHeight + 8.0f);
+
+		for (int i = 0; i < mScopes.size(); ++i)
+		{
+			FrameProfiler.Scope scope = mScopes.get(i);
+			float y = top + i * mRowHeight;
+			float indent = 4.0f * scope.getDepth();
+			float color[] = DEPTH_COLORS[scope.getDepth() % DEPTH_COLORS.length];
+
+			float gpu = barLength(scope.getGPUTimes().getAverage(), chartWidth - indent);
+			gl.glColor4f(color[0], color[1], color[2], 0.9f);
+			quad(gl, left + indent, y + 1.0f, gpu, mRowHeight - 4.0f);
+
+			float cpu = barLength(scope.getCPUTimes().getAverage(), chartWidth - indent);
+			gl.glColor4f(0.7f, 0.7f, 0.7f, 0.9f);
+			quad(gl, left + indent, y + mRowHeight - 3.0f, cpu, 2.0f);
+
+			float p99 = barLength(scope.getGPUTimes().getP99(), chartWidth - indent);
+			gl.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+			quad(gl, left + indent + p99 - 1.0f, y, 2.0f, mRowHeight - 2.0f);
+		}
+		gl.glEnd();
+
+		/* Millisecond grid and frame budget line. */
+		gl.glBegin(GL2.GL_LINES);
+		for (int ms = 1; ms * mPixelsPerMillisecond <= chartWidth; ++ms)
+		{
+			gl.glColor4f(1.0f, 1.0f, 1.0f, 0.15f);
+			gl.glVertex2f(left + ms * mPixelsPerMillisecond, top);
+			gl.glVertex2f(left + ms * mPixelsPerMillisecond, top + chartHeight);
+		}
+
+		if (FRAME_BUDGET * mPixelsPerMillisecond <= chartWidth)
+		{
+			gl.glColor4f(1.0f, 0.2f, 0.2f, 1.0f);
+			gl.glVertex2f(left + FRAME_BUDGET * mPixelsPerMillisecond, top - 4.0f);
+			gl.glVertex2f(left + FRAME_BUDGET * mPixelsPerMillisecond, top + chartHeight + 4.0f);
+		}
+		gl.glEnd();
+
+		/* Restore matrices and state. */
+		gl.glPopMatrix();
+		gl.glMatrixMode(GL2.GL_PROJECTION);
+		gl.glPopMatrix();
+		gl.glPopAttrib();
+
+		/* Make sure nothing went wrong. */
+		OpenGLException.checkOpenGLError(gl);
+	}
+
+	private void collectScopes(FrameProfiler.Scope scope)
+	{
+		mScopes.add(scope);
+
+		ArrayList<FrameProfiler.Scope> children = scope.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			collectScopes(children.get(i));
+		}
+	}
+
+	private float barLength(double milliseconds, float maxLength)
+	{
+		return Math.max(0.0f, Math.min(maxLength, (float)milliseconds * mPixelsPerMillisecond));
+	}
+
+	private static void quad(GL2 gl, float x, float y, float w, float h)
+	{
+		gl.glVertex2f(x, y);
+		gl.glVertex2f(x + w, y);
+		gl.glVertex2f(x + w, y + h);
+		gl.glVertex2f(x, y + h);
+	}
+}
@@ -0,0 +1,280 @@
+package cs5625.deferred.rendering;
+
+/**
+ * ReadbackRing.java
+ *
+ * Keeps track of a fixed ring of readback slots (e.g. pixel pack buffers), each of which holds one
+ * readback until its data has been collected. Readbacks complete in the order they were submitted.
+ *
+ * To start a readback, call `acquire()` for a free slot, issue the copy into that slot, and call
+ * `submit()` with a fence marking the end of the copy. Each frame, call `beginFrame()` and then `poll()`
+ * until it returns -1, collecting the data of the slot it returns each time.
+ *
+ * A readback is complete once its fence is signaled. Without a fence, it is assumed complete after
+ * `minLatency` frames, by which time the GPU has normally caught up. A readback still pending after
+ * `maxLatency` frames is returned anyway, and counted as a stall, since collecting it will wait for
+ * the GPU. If every slot is pending, `acquire()` returns -1 and the readback is counted as dropped,
+ * rather than waiting.
+ *
+ * This class does no OpenGL work, so it can be exercised without a GPU; `AsyncReadback` does the
+ * copying.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ReadbackRing<T>
+{
+	/**
+	 * Marks the point in the command stream where a readback ends.
+	 */
+	public interface Fence
+	{
+		/**
+		 * Returns true once the GPU has passed the fence, without waiting.
+		 */
+		public boolean isSignaled();
+
+		/**
+		 * Frees the fence; called once when its readback is returned by `poll()` or removed.
+		 */
+		public void release();
+	}
+
+	private final int mSlotCount;
+	private final Object mRequests[];
+	private final Fence mFences[];
+	private final long mSubmitFrames[];
+
+	/* Pending readbacks occupy slots mFirstPending, mFirstPending + 1, ... (mod mSlotCount). */
+	private int mFirstPending = 0;
+	private int mPendingCount = 0;
+
+	private int mMinLatency;
+	private int mMaxLatency;
+	private long mFrame = 0;
+
+	private long mSubmittedCount = 0;
+	private long mCompletedCount = 0;
+	private long mDroppedCount = 0;
+	private long mStalledCount = 0;
+
+	/**
+	 * Creates a ring with every slot free.
+	 *
+	 * @param slotCount Number of readbacks which can be pending at once.
+	 * @param minLatency Number of frames after which a readback without a fence is complete.
+	 * @param maxLatency Number of frames after which a readback is returned even if its fence isn't signaled.
+	 */
+	public ReadbackRing(int slotCount, int minLatency, int maxLatency)
+	{
+		if (slotCount < 1 || minLatency < 0 || maxLatency < minLatency)
+		{
+			throw new IllegalArgumentException("A readback ring needs a slot, and 0 <= minLatency <= maxLatency.");
+		}
+
+		mSlotCount = slotCount;
+		mRequests = new Object[slotCount];
+		mFences = new Fence[slotCount];
+		mSubmitFrames = new long[slotCount];
+		mMinLatency = minLatency;
+		mMaxLatency = maxLatency;
+	}
+
+	public int getSlotCount()
+	{
+		return mSlotCount;
+	}
+
+	/**
+	 * Starts a new frame, aging every pending readback.
+	 */
+	public void beginFrame()
+	{
+		++mFrame;
+	}
+
+	/**
+	 * Returns the slot the next readback should be copied into, or -1 (counting a dropped readback) if
+	 * every slot is pending. The slot stays free until `submit()`.
+	 */
+	public int acquire()
+	{
+		if (mPendingCount == mSlotCount)
+		{
+			++mDroppedCount;
+			return -1;
+		}
+
+		return (mFirstPending + mPendingCount) % mSlotCount;
+	}
+
+	/**
+	 * Marks the slot returned by the last `acquire()` as pending.
+	 *
+	 * @param fence Signaled when the copy into the slot is done; null to rely on `minLatency`.
+	 * @param request The readback, returned by `getRequest()`.
+	 * @return The slot.
+	 */
+	public int submit(Fence fence, T request)
+	{
+		if (mPendingCount == mSlotCount)
+		{
+			throw new IllegalStateException("Every readback slot is pending; acquire() a slot first.");
+		}
+
+		int slot = (mFirstPending + mPendingCount) % mSlotCount;
+		mRequests[slot] = request;
+		mFences[slot] = fence;
+		mSubmitFrames[slot] = mFrame;
+
+		++mPendingCount;
+		++mSubmittedCount;
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of the oldest readback if it is complete (or overdue), or -1. The slot is freed,
+	 * so its data must be collected before the next `acquire()`; its request stays readable with
+	 * `getRequest()` until then.
+	 */
+	public int poll()
+	{
+		return poll(false);
+	}
+
+	/**
+	 * Returns the slot of the oldest readback whether or not it is complete (counting a stall if it
+	 * isn't), or -1 if none is pending. Used to make room when a readback must not be dropped. The slot
+	 * is freed, as by `poll()`.
+	 */
+	public int pollOldest()
+	{
+		return poll(true);
+	}
+
+	private int poll(boolean force)
+	{
+		if (mPendingCount == 0)
+		{
+			return -1;
+		}
+
+		int slot = mFirstPending;
+		Fence fence = mFences[slot];
+		long age = mFrame - mSubmitFrames[slot];
+
+		boolean complete = (fence == null ? age >= mMinLatency : fence.isSignaled());
+		if (!complete)
+		{
+			if (!force && age < mMaxLatency)
+			{
+				return -1;
+			}
+
+			++mStalledCount;
+		}
+
+		if (fence != null)
+		{
+			fence.release();
+			mFences[slot] = null;
+		}
+
+		mFirstPending = (mFirstPending + 1) % mSlotCount;
+		--mPendingCount;
+		++mCompletedCount;
+		return slot;
+	}
+
+	/**
+	 * Returns the readback submitted into a slot.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getRequest(int slot)
+	{
+		return (T)mRequests[slot];
+	}
+
+	/**
+	 * Frees every pending readback without completing it, releasing its fence.
+	 *
+	 * @return The number of readbacks removed.
+	 */
+	public int removeAll()
+	{
+		int removed = mPendingCount;
+
+		for (int i = 0; i < mSlotCount; ++i)
+		{
+			if (mFences[i] != null)
+			{
+				mFences[i].release();
+				mFences[i] = null;
+			}
+			mRequests[i] = null;
+		}
+
+		mFirstPending = 0;
+		mPendingCount = 0;
+		return removed;
+	}
+
+	/**
+	 * Returns the number of readbacks submitted but not yet returned by `poll()`.
+	 */
+	public int getPendingCount()
+	{
+		return mPendingCount;
+	}
+
+	public int getMinLatency()
+	{
+		return mMinLatency;
+	}
+
+	public int getMaxLatency()
+	{
+		return mMaxLatency;
+	}
+
+	/**
+	 * Sets the number of frames after which readbacks without a fence are complete, and after which
+	 * any readback is returned regardless of its fence.
+	 */
+	public void setLatency(int minLatency, int maxLatency)
+	{
+		if (minLatency < 0 || maxLatency < minLatency)
+		{
+			throw new IllegalArgumentException("Readback latencies need 0 <= minLatency <= maxLatency.");
+		}
+
+		mMinLatency = minLatency;
+		mMaxLatency = maxLatency;
+	}
+
+	public long getSubmittedCount()
+	{
+		return mSubmittedCount;
+	}
+
+	public long getCompletedCount()
+	{
+		return mCompletedCount;
+	}
+
+	/**
+	 * Returns the number of readbacks refused by `acquire()` because every slot was pending.
+	 */
+	public long getDroppedCount()
+	{
+		return mDroppedCount;
+	}
+
+	/**
+	 * Returns the number of readbacks returned by `poll()` before their fence was signaled.
+	 */
+	public long getStalledCount()
+	{
+		return mStalledCount;
+	}
+}
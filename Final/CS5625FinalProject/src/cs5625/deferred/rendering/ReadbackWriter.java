@@ -0,0 +1,345 @@
+package cs5625.deferred.rendering;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.PngjException;
+
+import com.jogamp.opengl.util.TGAWriter;
+
+import cs5625.deferred.materials.PngEncoder;
+import cs5625.deferred.materials.Texture.Datatype;
+import cs5625.deferred.materials.Texture.Format;
+
+/**
+ * ReadbackWriter.java
+ *
+ * Saves readbacks from `AsyncReadback` as PNG (with pngj) or TGA files, encoding on a worker thread so
+ * the GL thread only pays for handing the data over. The file type follows the file name's extension.
+ *
+ *     readback.readTexture(gl, texture, Format.RGBA, Datatype.INT8, writer.writeTo(new File("shot.png")));
+ *
+ * Only RGB and RGBA readbacks of INT8 data can be saved. Errors are printed, and counted. Large PNG
+ * files encode faster with a `PngEncoder`, which splits each image across several threads; see
+ * `setPngEncoder()`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ReadbackWriter
+{
+	/** Default zlib compression level of PNG files; lower is faster, and larger. */
+	public static final int DEFAULT_PNG_COMPRESSION = 6;
+
+	private final ExecutorService mEncoder;
+	private final AtomicInteger mPendingCount = new AtomicInteger(0);
+	private final AtomicLong mWrittenCount = new AtomicLong(0);
+	private final AtomicLong mFailedCount = new AtomicLong(0);
+	private volatile int mPNGCompression = DEFAULT_PNG_COMPRESSION;
+	private volatile PngEncoder mPngEncoder = null;
+
+	/**
+	 * Creates a writer with one encoding thread.
+	 */
+	public ReadbackWriter()
+	{
+		mEncoder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "Readback writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Returns a listener which saves the readback it receives to a file.
+	 */
+	public AsyncReadback.Listener writeTo(final File file)
+	{
+		return new AsyncReadback.Listener() {
+			@Override
+			public void readbackCompleted(GL2 gl, AsyncReadback.Readback readback)
+			{
+				write(readback, file);
+			}
+		};
+	}
+
+	/**
+	 * Queues a completed readback to be saved to a file. Its data is recycled once saved (see 
+	 * `AsyncReadback.Readback.recycle()`), so don't use it afterwards.
+	 */
+	public void write(final AsyncReadback.Readback readback, final File file)
+	{
+		if (readback.getDatatype() != Datatype.INT8 || (readback.getFormat() != Format.RGB && readback.getFormat() != Format.RGBA))
+		{
+			mFailedCount.incrementAndGet();
+			System.out.println("Can't save a " + readback.getFormat() + " " + readback.getDatatype() + " readback to '" + file + "'; only RGB and RGBA INT8 can be saved.");
+			readback.recycle();
+			return;
+		}
+
+		mPendingCount.incrementAndGet();
+		mEncoder.execute(new Runnable() {
+			@Override
+			public void run()
+			{
+				try
+				{
+					boolean alpha = (readback.getFormat() == Format.RGBA);
+					if (file.getName().toLowerCase().endsWith(".tga"))
+					{
+						writeTGA(file, readback.getData(), readback.getWidth(), readback.getHeight(), alpha);
+					}
+					else if (mPngEncoder != null)
+					{
+						writePNG(file, readback.getData(), readback.getWidth(), readback.getHeight(), alpha, mPngEncoder);
+					}
+					else
+					{
+						writePNG(file, readback.getData(), readback.getWidth(), readback.getHeight(), alpha, mPNGCompression);
+					}
+
+					mWrittenCount.incrementAndGet();
+				}
+				catch (IOException err)
+				{
+					mFailedCount.incrementAndGet();
+					System.out.println("Error saving readback to '" + file + "'.");
+					err.printStackTrace();
+				}
+				finally
+				{
+					readback.recycle();
+					mPendingCount.decrementAndGet();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, to a PNG file.
+	 *
+	 * @param compression The zlib compression level, 0 to 9.
+	 */
+	public static void writePNG(File file, ByteBuffer pixels, int width, int height, boolean alpha, int compression) throws IOException
+	{
+		OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+
+		try
+		{
+			writePNG(stream, pixels, width, height, alpha, compression, file.getName());
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, to a PNG file with a parallel encoder, at its
+	 * compression level and filter type.
+	 */
+	public static void writePNG(File file, ByteBuffer pixels, int width, int height, boolean alpha, PngEncoder encoder) throws IOException
+	{
+		OutputStream stream = new BufferedOutputStream(new FileOutputStream(file), 256 * 1024);
+
+		try
+		{
+			encoder.encode(stream, pixels, width, height, alpha);
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, as a PNG file to a stream, which is not closed.
+	 *
+	 * @param compression The zlib compression level, 0 to 9.
+	 * @param description Name of the file, for error messages.
+	 */
+	public static void writePNG(OutputStream stream, ByteBuffer pixels, int width, int height, boolean alpha, int compression, String description) throws IOException
+	{
+		writePNG(stream, pixels, width, height, alpha, compression, FilterType.FILTER_DEFAULT, description);
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, as a PNG file to a stream, which is not closed.
+	 *
+	 * @param compression The zlib compression level, 0 to 9.
+	 * @param filter The row filter, or strategy for choosing one; simpler ones are faster, and compress less.
+	 * @param description Name of the file, for error messages.
+	 */
+	public static void writePNG(OutputStream stream, ByteBuffer pixels, int width, int height, boolean alpha, int compression, FilterType filter, String description) throws IOException
+	{
+		int channels = (alpha ? 4 : 3);
+
+		try
+		{
+			ImageInfo info = new ImageInfo(width, height, 8, alpha);
+			PngWriter writer = new PngWriter(new NonClosingStream(stream), info, description);
+			writer.setCompLevel(compression);
+			writer.setFilterType(filter);
+
+			ImageLine line = new ImageLine(info);
+			int samples[] = line.scanline;
+
+			/* PNG rows go top first. */
+			for (int y = 0; y < height; ++y)
+			{
+				int src = (height - 1 - y) * width * channels;
+				for (int i = 0; i < width * channels; ++i)
+				{
+					samples[i] = pixels.get(src + i) & 0xff;
+				}
+
+				writer.writeRow(line, y);
+			}
+
+			writer.end();
+		}
+		catch (PngjException err)
+		{
+			throw new IOException("Could not encode PNG file '" + description + "'.", err);
+		}
+	}
+
+	/**
+	 * Writes RGB8 or RGBA8 pixels, bottom row first, to an uncompressed TGA file.
+	 */
+	public static void writeTGA(File file, ByteBuffer pixels, int width, int height, boolean alpha) throws IOException
+	{
+		int channels = (alpha ? 4 : 3);
+
+		TGAWriter writer = new TGAWriter();
+		writer.open(file, width, height, alpha);
+
+		try
+		{
+			/* TGA rows go bottom first too, but in BGR(A) order. */
+			ByteBuffer data = writer.getImageData();
+			int count = width * height * channels;
+
+			for (int i = 0; i < count; i += channels)
+			{
+				data.put(i, pixels.get(i + 2));
+				data.put(i + 1, pixels.get(i + 1));
+				data.put(i + 2, pixels.get(i));
+				if (alpha)
+				{
+					data.put(i + 3, pixels.get(i + 3));
+				}
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/**
+	 * Returns the number of readbacks queued for or being saved.
+	 */
+	public int getPendingCount()
+	{
+		return mPendingCount.get();
+	}
+
+	/**
+	 * Returns the number of files saved.
+	 */
+	public long getWrittenCount()
+	{
+		return mWrittenCount.get();
+	}
+
+	/**
+	 * Returns the number of readbacks which couldn't be saved.
+	 */
+	public long getFailedCount()
+	{
+		return mFailedCount.get();
+	}
+
+	public int getPNGCompression()
+	{
+		return mPNGCompression;
+	}
+
+	/**
+	 * Sets the zlib compression level of PNG files queued from now on, 0 to 9.
+	 */
+	public void setPNGCompression(int compression)
+	{
+		mPNGCompression = Math.max(0, Math.min(9, compression));
+	}
+
+	public PngEncoder getPngEncoder()
+	{
+		return mPngEncoder;
+	}
+
+	/**
+	 * Sets the encoder PNG files queued from now on are encoded with, at its own compression level
+	 * (rather than `getPNGCompression()`); null to encode with pngj on the writer's thread.
+	 */
+	public void setPngEncoder(PngEncoder encoder)
+	{
+		mPngEncoder = encoder;
+	}
+
+	/**
+	 * Saves everything queued, then stops the encoding thread.
+	 *
+	 * @param timeoutMillis How long to wait for the queue to drain.
+	 * @return False if the queue didn't drain in time.
+	 */
+	public boolean shutdown(long timeoutMillis) throws InterruptedException
+	{
+		mEncoder.shutdown();
+		return mEncoder.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/* PngWriter closes its stream when it ends; callers passing a stream keep it open. */
+	private static class NonClosingStream extends FilterOutputStream
+	{
+		NonClosingStream(OutputStream stream)
+		{
+			super(stream);
+		}
+
+		@Override
+		public void write(byte bytes[], int offset, int length) throws IOException
+		{
+			out.write(bytes, offset, length);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			flush();
+		}
+	}
+}
@@ -2,34 +2,41 @@ package cs5625.deferred.rendering;
 
 import java.io.IOException;
 import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.glu.GLU;
 import javax.vecmath.AxisAngle4f;
 import javax.vecmath.Color3f;
-import javax.vecmath.Matrix3f;
-import javax.vecmath.Matrix4f;
 import javax.vecmath.Point3f;
 import javax.vecmath.Quat4f;
 
+import com.jogamp.common.nio.Buffers;
+
 import cs5625.deferred.custom.ParticleSystem;
 import cs5625.deferred.materials.BlinnPhongMaterial;
+import cs5625.deferred.materials.InstancedMaterial;
 import cs5625.deferred.materials.LambertianMaterial;
 import cs5625.deferred.materials.Material;
+import cs5625.deferred.materials.TextureCache;
 import cs5625.deferred.materials.TextureCubeMap;
 import cs5625.deferred.materials.TextureDynamicCubeMap;
 import cs5625.deferred.materials.Texture.Datatype;
 import cs5625.deferred.materials.Texture.Format;
+import cs5625.deferred.materials.TextureStreamer;
 import cs5625.deferred.materials.UnshadedMaterial;
 import cs5625.deferred.misc.OpenGLException;
 import cs5625.deferred.misc.ScenegraphException;
 import cs5625.deferred.misc.Util;
+import cs5625.deferred.scenegraph.CompactVertexData;
 import cs5625.deferred.scenegraph.Geometry;
 import cs5625.deferred.scenegraph.Light;
 import cs5625.deferred.scenegraph.Mesh;
+import cs5625.deferred.scenegraph.MeshRegistry;
 import cs5625.deferred.scenegraph.PointLight;
 import cs5625.deferred.scenegraph.SceneObject;
 
@@ -62,12 +69,32 @@ public class Renderer
 	/* The GBuffer FBO. */
 	protected FramebufferObject mGBufferFBO;
 	
-	/* The shadow map FBOs */
-	protected FramebufferObject mShadowMapFBO;
+	/* Cascaded shadow maps for the main pass, and a single unfitted one shared by all dynamic cube map 
+	 * faces. Created on first use, and recreated when the cascade settings change. */
+	private CascadedShadowMap mShadowMap = null, mCubeMapShadowMap = null;
+	private CascadedShadowMap mActiveShadowMap = null;
+	private int mShadowCascadeCount = 4;
+	private int mShadowMapSize = 1024;
+	private float mShadowDistance = 50.0f;
+	
+	/* Changes whenever static shadow casters change; see `computeStaticSignature()`. */
+	private long mStaticShadowSignature = 0;
+	private long mFrameNumber = 0;
+	
+	/* Which shadow casters `renderObject()` draws. Anything but CASTERS_ALL renders depth only. */
+	private static final int CASTERS_ALL = 0;
+	private static final int CASTERS_STATIC = 1;
+	private static final int CASTERS_DYNAMIC = 2;
+	private int mCasterFilter = CASTERS_ALL;
 	
 	/* The dynamic cube map FBO. */
 	protected FramebufferObject mDynamicCubeMapFBO;
 	
+	/* Gbuffer FBO at the dynamic cube map size. This is swapped in for the cube map passes, 
+	 * rather than recreating the screen-sized FBO twice per frame. Created on first use. */
+	private FramebufferObject mCubeMapGBufferFBO;
+	private FramebufferObject mScreenGBufferFBO;
+	
 	/* The snow rendering FBO */
 	protected FramebufferObject mSnowOcclusionMapFBO;
 	
@@ -80,6 +107,36 @@ public class Renderer
 	protected final int GBuffer_FinalSceneIndex = 5;
 	protected final int GBuffer_Count = 6;
 	
+	/* The gbuffer textures written while filling the gbuffer, passed to `bindSome()` every frame. */
+	private final int mGBufferFillIndices[] = new int[]{GBuffer_DiffuseIndex, GBuffer_PositionIndex, GBuffer_MaterialIndex1, GBuffer_MaterialIndex2};
+	
+	/* Reusable per-frame math objects and buffers, so steady-state frames don't allocate. */
+	private final FrameScratch mScratch = new FrameScratch();
+	
+	/* Optional check that frames don't allocate; null when disabled. */
+	private FrameAllocationMonitor mAllocationMonitor = null;
+	
+	/* Optional GL call counting for the last rendered frame; null when disabled. */
+	private GLCallCounter mCallCounter = null;
+	private long mLastFrameGLCalls = 0;
+	private long mLastFrameUniformCalls = 0;
+	private long mLastFrameDrawCalls = 0;
+	
+	/* Per-pass CPU and GPU timing; the profiler is created the first time profiling is enabled. */
+	private FrameProfiler mProfiler = null;
+	private ProfilerOverlay mProfilerOverlay = null;
+	private boolean mProfilingEnabled = false;
+	private boolean mShowProfilerOverlay = false;
+	
+	/* Streams in textures loaded through the shared texture cache, a budgeted amount per frame. */
+	private TextureStreamer mTextureStreamer = null;
+	
+	/* Reads textures back to the CPU a few frames after they're requested, without stalling. */
+	private AsyncReadback mReadback = null;
+	
+	/* Saves every finished frame when set; null when not recording. */
+	private FrameRecorder mFrameRecorder = null;
+	
 	/* The index of the texture to preview in GBufferFBO, or -1 for no preview. */
 	protected int mPreviewIndex = -1;
 	
@@ -100,12 +157,47 @@ public class Renderer
 	private Material mWireframeMaterial, mWireframeMarkedEdgeMaterial;
 	private boolean mRenderWireframes = false;
 	
+	/* Draws meshes which share data (see MeshRegistry) in instanced batches while filling the gbuffer; 
+	 * null if instanced drawing isn't supported. mBatching is true while the scene is walked into it. */
+	private InstanceBatcher mInstanceBatcher = null;
+	private InstancedMaterial mInstancedMaterial = null;
+	private boolean mEnableInstancing = true;
+	private boolean mBatching = false;
+	
+	/* CPU copy of the modelview stack, kept while filling the gbuffer if batching or culling needs it. */
+	private final TransformStack mTransformStack = new TransformStack();
+	private boolean mTrackTransforms = false;
+	
+	/* Skips drawing objects hidden behind the largest ones, in the main camera's gbuffer pass. */
+	private final OcclusionCuller mOcclusionCuller = new OcclusionCuller();
+	private boolean mEnableOcclusionCulling = true;
+	private boolean mCulling = false;
+	
+	/* Draws objects with simplified levels of detail at a distance; levels are chosen in the main camera's 
+	 * gbuffer pass, and other passes draw the levels last chosen. */
+	private final LevelOfDetailSelector mLevelOfDetailSelector = new LevelOfDetailSelector();
+	private boolean mEnableLevelOfDetail = true;
+	private boolean mSelectingLevels = false;
+	
+	/* Draws meshes from their compact vertex data (see CompactVertexData) when they have it; half float 
+	 * texture coordinates need GL 3 or ARB_half_float_vertex, without which only positions are compact. */
+	private boolean mEnableCompactVertices = true;
+	private boolean mHalfFloatVertices = false;
+	
 	/* Used to control the bloom post-processing stage. */
 	private ShaderProgram mBloomShader = null;
+	private ShaderProgram mBloomThresholdShader = null, mBloomResampleShader = null;
 	private boolean mEnableBloom = false;
 	private float mKernelVariance = 16.0f;
 	private int mKernelWidth = 3;
 	private float mThreshold = 0.80f;
+	private int mBloomLevels = 5;
+	private float mBloomIntensity = 1.0f;
+	
+	/* Bloom render targets for the screen and for the dynamic cube map faces. Created on first use. */
+	private BloomPipeline mBloomPipeline = null, mCubeMapBloomPipeline = null;
+	private int mBloomScreenSizeUniformLocation = -1;
+	private int mBloomIntensityUniformLocation = -1;
 	
 	/* Used to control gbuffer data vizualization. */
 	private ShaderProgram mVisShader = null;
@@ -118,8 +210,12 @@ public class Renderer
 	private int mEnableToonShadingUniformLocation = -1;
 	
 	// Shadow mapping uniforms
-	private int mLightMatrixUniformLocation = -1;
-	private int mInverseViewMatrixUniformLocation = -1;
+	private int mShadowCascadeCountUniformLocation = -1;
+	private int mShadowCascadeSplitsUniformLocation = -1;
+	private int mShadowCascadeMatricesUniformLocation = -1;
+	private int mShadowCascadeRectsUniformLocation = -1;
+	private final FloatBuffer mShadowMatrixBuffer = Buffers.newDirectFloatBuffer(16 * CascadedShadowMap.MAX_CASCADES);
+	private final float mShadowTileRects[] = new float[4 * CascadedShadowMap.MAX_CASCADES];
 	private int mShadowMapWidthUniformLocation = -1;
 	private int mShadowMapHeightUniformLocation = -1;
 	
@@ -148,14 +244,10 @@ public class Renderer
 	private boolean mRenderSnow = false;
 	private float mSnowAmount = 0.1f;
 	
-	private int mRenderSnowUniformLocation = -1;
-	private int mTransposeInverseViewMatrixUniformLocation = -1;
 	private int mSnowOcclusionTextureLocation = GBuffer_FinalSceneIndex + 2;
-	private int mSnowMapWidthUniformLocation = -1;
-	private int mSnowMapHeightUniformLocation = -1;
-	private int mOcclMapMatrixUniformLocation = -1;
-	private int mViewMatrixUniformLocation = -1;
-	private int mSnowAmountUniformLocation = -1;
+	
+	/* Per-pass camera and snow state shared by all shaders through a uniform buffer. */
+	private FrameConstants mFrameConstants = new FrameConstants();
 	
 	private int mSnowCameraWidth = 15;
 	private int mSnowCameraHeight = 15;
@@ -179,6 +271,10 @@ public class Renderer
 	/* The number of currently used dynamic cube maps */
 	private int mNumDynamicCubeMaps = 0;
 	
+	/* Particle geometry and per-frame position copy, loaded on first use. */
+	private Geometry mParticleGeometry = null;
+	private float mParticlePositions[] = null;
+	
 	/* The dynamic cube maps blur settings */
 	private boolean mBlurDynamicCubeMaps = false;
 //	private int mBlurWidthX = 16;
@@ -198,17 +294,53 @@ public class Renderer
 	{
 		GL2 gl = drawable.getGL().getGL2();		
 		
+		if (mAllocationMonitor != null)
+		{
+			mAllocationMonitor.beginFrame();
+		}
+		
+		if (mCallCounter != null)
+		{
+			mCallCounter.reset();
+			gl = mCallCounter.wrap(gl);
+		}
+		
+		if (mProfilingEnabled)
+		{
+			mProfiler.beginFrame(gl);
+		}
+		
 		try
 		{
 			/* The number of times we should render the scene */
 			int numPasses = 1;
 			boolean isFinalPass = false;
 			
+			++mFrameNumber;
+			
+			/* Upload this frame's share of any textures still streaming in. */
+			if (mTextureStreamer != null)
+			{
+				mTextureStreamer.update(gl);
+			}
+			
+			/* Deliver readbacks the GPU has finished. */
+			if (mReadback != null)
+			{
+				mReadback.update(gl);
+			}
+			
+			if (shadowCamera != null) {
+				mStaticShadowSignature = computeStaticSignature(sceneRoot, false, 17, 17);
+			}
+			
 			/* Save the original camera parameters and view port size */
 			float originalWidth = mViewportWidth, originalHeight = mViewportHeight;
 			Point3f originalPosition = camera.getPosition();
 			Quat4f originalOrientation = camera.getOrientation();
 			float originalFov = camera.getFOV();
+			mScratch.savedPosition.set(originalPosition);
+			mScratch.savedOrientation.set(originalOrientation);
 			
 			
 						
@@ -220,7 +352,9 @@ public class Renderer
 								
 				// TO DO PA2: Resize the g-buffer to the size of the dynamic cube maps,
 				// using the mDynamicCubeMapSize variable.
-				resize(drawable, mDynamicCubeMapSize, mDynamicCubeMapSize);
+				if (mNumDynamicCubeMaps > 0) {
+					useCubeMapRenderTargets(gl, true);
+				}
 			}
 			
 			for (int i = 0; i < numPasses; ++i) {
@@ -234,6 +368,8 @@ public class Renderer
 					isFinalPass = true;
 				}
 				
+				beginProfilerScope(gl, isFinalPass ? "main" : "cubemap");
+				
 				/* This is the final render pass, so we render using the screen FBO. */
 				if (isFinalPass) {
 
@@ -241,7 +377,15 @@ public class Renderer
 					// (2) If mBlurDynamicCubeMaps is set to true, blur all dynamic
 					// cube maps, using the mBlur* variables to get the horizontal
 					// and vertical blur width and variance.		
-					resize(drawable, (int)originalWidth, (int)originalHeight);
+					if (numPasses > 1) {
+						useCubeMapRenderTargets(gl, false);
+						mViewportWidth = originalWidth;
+						mViewportHeight = originalHeight;
+					}
+					
+					/* The cube map passes overwrote the camera's own position and orientation objects. */
+					originalPosition.set(mScratch.savedPosition);
+					originalOrientation.set(mScratch.savedOrientation);
 					camera.setPosition(originalPosition);
 					camera.setFOV(originalFov);
 					camera.setOrientation(originalOrientation);
@@ -264,102 +408,64 @@ public class Renderer
 					//leftrighttopbottomfrontback
 					camera.setFOV(90);
 					camera.setIsCubeMapCamera(true);
-					switch(dynamicCubeMapFace) {
-					case 0: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(0f,1f,0f,(float) (Math.PI/2));
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					case 1: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(0f,1f,0f,(float) (3*Math.PI/2));
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					case 2: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(1f,0f,0f,(float) (3*Math.PI/2));
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					case 3: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(1f,0f,0f,(float) (Math.PI/2));
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					case 4: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(0f,1f,0f,0f);
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					case 5: {camera.setPosition(mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint());
-						AxisAngle4f a = new AxisAngle4f(0f,1f,0f,(float) (Math.PI));
-						Quat4f q = new Quat4f();
-						q.set(a);
-						camera.setOrientation(q);
-						break;
-						}
-					}
+					mDynamicCubeMaps.get(dynamicCubeMapIndex).getCenterPoint(originalPosition);
+					TextureDynamicCubeMap.getFaceOrientation(dynamicCubeMapFace, originalOrientation);
 				}
 				
 				if (snowCamera != null) {
 					snowCamera.setWidth(mViewportWidth);
 					snowCamera.setHeight(mViewportHeight);
+					beginProfilerScope(gl, "snowmap");
 					fillGBuffer(gl, sceneRoot, snowCamera);
+					endProfilerScope(gl);
 				}
 				
-				BlinnPhongMaterial.renderSnow = mRenderSnow;
-				if (mRenderSnow) {
-					BlinnPhongMaterial.snowAmount = mSnowAmount;
+				/* Update the per-pass constants shared by all shaders, and upload them once for this pass. */
+				mFrameConstants.renderSnow = mRenderSnow;
+				camera.getWorldSpaceTransformationMatrix4f(mFrameConstants.inverseViewMatrix);
+				Util.invertRigid(mFrameConstants.inverseViewMatrix, mFrameConstants.viewMatrix);
+				mFrameConstants.transposeInverseViewMatrix.transpose(mFrameConstants.inverseViewMatrix);
+				
+				BlinnPhongMaterial.occlMapTexture = null;
+				if (mRenderSnow && snowCamera != null) {
+					mFrameConstants.snowAmount = mSnowAmount;
+					mFrameConstants.snowMapWidth = mViewportWidth;// snowCamera.getWidth();
+					mFrameConstants.snowMapHeight = mViewportHeight;// snowCamera.getHeight();
 					BlinnPhongMaterial.occlMapTexture = mSnowOcclusionMapFBO.getDepthTexture();
-					BlinnPhongMaterial.snowMapWidth = mViewportWidth;// snowCamera.getWidth();
-					BlinnPhongMaterial.snowMapHeight = mViewportHeight;// snowCamera.getHeight();
 					
 					// set OcclMapMatrix uniform
-					Matrix4f snowProjection = snowCamera.getProjectionMatrix();
-					Matrix4f snowView = snowCamera.getViewMatrix();
-					Matrix4f l = new Matrix4f();
-					l.mul(snowProjection, snowView);
-					BlinnPhongMaterial.occlMapMatrix = l;
-					
-					// set the ViewMatrix uniform
-					Matrix4f v = new Matrix4f(camera.getViewMatrix());
-					BlinnPhongMaterial.viewMatrix = v;
-					
-					Matrix4f v_i = new Matrix4f();
-					v_i.invert(v);
-					BlinnPhongMaterial.inverseViewMatrix = v_i;
-					
-					Matrix4f ti_v = new Matrix4f();
-					ti_v.invert(v);
-					ti_v.transpose();
-					BlinnPhongMaterial.transposeInverseViewMatrix = ti_v;
+					snowCamera.getProjectionMatrix(mScratch.projection);
+					snowCamera.getViewMatrix(mScratch.view, mScratch.temp);
+					mFrameConstants.occlMapMatrix.mul(mScratch.projection, mScratch.view);
 				}
 				
+				mFrameConstants.upload(gl);
+				
 				
 				if (shadowCamera != null) {
-					fillGBuffer(gl, sceneRoot, shadowCamera);
+					beginProfilerScope(gl, "shadowmap");
+					renderShadowMap(gl, sceneRoot, camera, shadowCamera, isFinalPass);
+					endProfilerScope(gl);
 				}
 				
 				/* 1. Fill the gbuffer given this scene and camera. */ 
+				beginProfilerScope(gl, "gbuffer");
 				fillGBuffer(gl, sceneRoot, camera);
+				endProfilerScope(gl);
 				
 				/* 2. Compute gradient buffer based on positions and normals, used for toon shading. */
+				beginProfilerScope(gl, "silhouette");
 				computeGradientBuffer(gl);
+				endProfilerScope(gl);
 				
 				/* 3. Apply deferred lighting to the g-buffer. At this point, the opaque scene has been rendered. */
+				beginProfilerScope(gl, "lighting");
 				lightGBuffer(gl, camera, shadowCamera, snowCamera);
+				endProfilerScope(gl);
 	
 				/* 4. If we're supposed to preview one gbuffer texture, do that now. 
 				 *    Otherwise, envoke the final render pass (optional post-processing). */
+				beginProfilerScope(gl, "post");
 				if (mPreviewIndex >= 0 && mPreviewIndex < GBuffer_FinalSceneIndex)
 				{
 					Util.renderTextureFullscreen(gl, mGBufferFBO.getColorTexture(mPreviewIndex));
@@ -368,6 +474,21 @@ public class Renderer
 				{			
 					finalPass(gl);
 				}
+				endProfilerScope(gl);
+				
+				/* Read the finished frame back for the recorder. */
+				if (isFinalPass && mFrameRecorder != null)
+				{
+					mFrameRecorder.capture(gl, mReadback, mGBufferFBO.getColorTexture(GBuffer_FinalSceneIndex));
+				}
+				
+				endProfilerScope(gl);
+			}
+			
+			/* Draw the profiler statistics on top of the finished frame. */
+			if (mProfilingEnabled && mShowProfilerOverlay)
+			{
+				mProfilerOverlay.draw(gl, mViewportWidth, mViewportHeight);
 			}
 		}
 		catch (Exception err)
@@ -375,6 +496,70 @@ public class Renderer
 			/* If an error occurs in all that, print it, but don't kill the whole program. */
 			err.printStackTrace();
 		}
+		
+		if (mProfilingEnabled)
+		{
+			mProfiler.endFrame(gl);
+		}
+		
+		if (mAllocationMonitor != null)
+		{
+			mAllocationMonitor.endFrame();
+		}
+		
+		if (mCallCounter != null)
+		{
+			mLastFrameGLCalls = mCallCounter.getTotalCalls();
+			mLastFrameUniformCalls = mCallCounter.getUniformCalls();
+			mLastFrameDrawCalls = mCallCounter.getDrawCalls();
+		}
+	}
+	
+	/**
+	 * Starts a named profiler scope around a pass, if profiling is enabled.
+	 */
+	private void beginProfilerScope(GL2 gl, String name)
+	{
+		if (mProfilingEnabled)
+		{
+			mProfiler.beginScope(gl, name);
+		}
+	}
+	
+	/**
+	 * Ends the innermost profiler scope, if profiling is enabled.
+	 */
+	private void endProfilerScope(GL2 gl)
+	{
+		if (mProfilingEnabled)
+		{
+			mProfiler.endScope(gl);
+		}
+	}
+	
+	/**
+	 * Switches the gbuffer FBO between the screen-sized ones and ones the size 
+	 * of the dynamic cube maps. Both sets are kept around, so switching doesn't touch OpenGL.
+	 */
+	private void useCubeMapRenderTargets(GL2 gl, boolean useCubeMapSize) throws OpenGLException
+	{
+		if (useCubeMapSize)
+		{
+			if (mCubeMapGBufferFBO == null)
+			{
+				mCubeMapGBufferFBO = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, mDynamicCubeMapSize, mDynamicCubeMapSize, GBuffer_Count, true, true);
+			}
+			
+			mScreenGBufferFBO = mGBufferFBO;
+			mGBufferFBO = mCubeMapGBufferFBO;
+			mViewportWidth = mDynamicCubeMapSize;
+			mViewportHeight = mDynamicCubeMapSize;
+		}
+		else if (mScreenGBufferFBO != null)
+		{
+			mGBufferFBO = mScreenGBufferFBO;
+			mScreenGBufferFBO = null;
+		}
 	}
 	
 	
@@ -388,6 +573,12 @@ public class Renderer
 	{
 		if(mEnableBloom)
 		{
+			beginProfilerScope(gl, "bloom");
+			
+			/* Compute the blurred bright parts of the scene at reduced resolution. */
+			BloomPipeline bloom = getBloomPipeline(gl);
+			bloom.apply(gl, mGBufferFBO.getColorTexture(GBuffer_FinalSceneIndex), mThreshold, GaussianKernel.get(mKernelWidth, mKernelVariance));
+			
 			/* Save state before we disable depth testing for blitting. */
 			gl.glPushAttrib(GL2.GL_ENABLE_BIT);
 			
@@ -397,20 +588,21 @@ public class Renderer
 			gl.glDisable(GL2.GL_DEPTH_TEST);
 			gl.glDisable(GL2.GL_BLEND);
 			
-			/* Bind the final scene texture for post-processing. */
+			/* Bind the final scene texture and its bloom. */
 			mGBufferFBO.getColorTexture(GBuffer_FinalSceneIndex).bind(gl, 0);
+			bloom.getResult().bind(gl, 1);
 			
 			/* Set all bloom shader uniforms. */
 			mBloomShader.bind(gl);
-			gl.glUniform1i(mBloomShader.getUniformLocation(gl, "KernelWidth"), mKernelWidth);
-			gl.glUniform1f(mBloomShader.getUniformLocation(gl, "KernelVariance"), mKernelVariance);
-			gl.glUniform1f(mBloomShader.getUniformLocation(gl, "Threshold"), mThreshold);
+			gl.glUniform2f(mBloomScreenSizeUniformLocation, mViewportWidth, mViewportHeight);
+			gl.glUniform1f(mBloomIntensityUniformLocation, mBloomIntensity);
 			
 			/* Draw a full-screen quad to the framebuffer. */
 			Util.drawFullscreenQuad(gl, mViewportWidth, mViewportHeight);
 			
 			/* Unbind everything. */
 			mBloomShader.unbind(gl);
+			bloom.getResult().unbind(gl);
 			mGBufferFBO.getColorTexture(GBuffer_FinalSceneIndex).unbind(gl);
 
 			/* Restore attributes (blending and depth-testing) to as they were before. */
@@ -418,6 +610,8 @@ public class Renderer
 			
 			/* Make sure nothing went wrong. */
 			OpenGLException.checkOpenGLError(gl);
+			
+			endProfilerScope(gl);
 		}
 		else if (mPreviewIndex >= 6 && mPreviewIndex <= 8)
 		{
@@ -464,6 +658,220 @@ public class Renderer
 		}
 	}
 	
+	/**
+	 * Returns the bloom render targets for the current pass (the screen or a dynamic cube map face), 
+	 * (re)creating them if they don't exist yet or no longer match the size or level count.
+	 */
+	private BloomPipeline getBloomPipeline(GL2 gl) throws OpenGLException
+	{
+		int width = (int)mViewportWidth, height = (int)mViewportHeight;
+		boolean cubeMapPass = (mCubeMapGBufferFBO != null && mGBufferFBO == mCubeMapGBufferFBO);
+		BloomPipeline pipeline = (cubeMapPass ? mCubeMapBloomPipeline : mBloomPipeline);
+		
+		if (pipeline == null || !pipeline.matches(width, height, mBloomLevels))
+		{
+			if (pipeline != null)
+			{
+				pipeline.releaseGPUResources(gl);
+			}
+			
+			pipeline = new BloomPipeline(gl, width, height, mBloomLevels, mBloomThresholdShader, mBloomResampleShader, mBlurShader);
+			
+			if (cubeMapPass)
+			{
+				mCubeMapBloomPipeline = pipeline;
+			}
+			else
+			{
+				mBloomPipeline = pipeline;
+			}
+		}
+		
+		return pipeline;
+	}
+	
+	/**
+	 * Fills the shadow map for this pass. Static casters are only re-rendered into the cached atlas for 
+	 * cascades whose matrix changed (or when static geometry changed); dynamic casters are drawn on top 
+	 * of a copy of the cache every time. The cube map passes share one shadow map which isn't fitted to 
+	 * the view camera, so it is filled once per frame.
+	 *
+	 * @param gl The OpenGL state.
+	 * @param sceneRoot The root node of the scene to render.
+	 * @param camera The camera of this pass.
+	 * @param shadowCamera The camera describing the light.
+	 * @param isFinalPass True for the main pass, false for dynamic cube map passes.
+	 */
+	private void renderShadowMap(GL2 gl, SceneObject sceneRoot, Camera camera, Camera shadowCamera, boolean isFinalPass) throws OpenGLException
+	{
+		mActiveShadowMap = getShadowMap(gl, isFinalPass);
+		CascadedShadowMap shadowMap = mActiveShadowMap;
+		
+		if (!isFinalPass && shadowMap.isRenderedForFrame(mFrameNumber))
+		{
+			return;
+		}
+		
+		shadowMap.update(camera, mViewportWidth / mViewportHeight, shadowCamera, mStaticShadowSignature);
+		
+		gl.glPushAttrib(GL2.GL_ENABLE_BIT | GL2.GL_SCISSOR_BIT | GL2.GL_VIEWPORT_BIT | GL2.GL_DEPTH_BUFFER_BIT);
+		gl.glEnable(GL2.GL_DEPTH_TEST);
+		gl.glEnable(GL2.GL_SCISSOR_TEST);
+		gl.glDepthMask(true);
+		
+		/* Re-render the static casters of any out-of-date cascades into the cache. */
+		boolean bound = false;
+		for (int i = 0; i < shadowMap.getCascadeCount(); ++i)
+		{
+			if (!shadowMap.isStaticCascadeDirty(i))
+			{
+				continue;
+			}
+			
+			if (!bound)
+			{
+				shadowMap.getStaticFBO().bindAll(gl);
+				bound = true;
+			}
+			
+			renderShadowCascade(gl, sceneRoot, camera, shadowMap, i, CASTERS_STATIC, true);
+			shadowMap.markStaticCascadeRendered(i);
+		}
+		
+		if (bound)
+		{
+			shadowMap.getStaticFBO().unbind(gl);
+		}
+		
+		/* Start from the cached static casters, and add the dynamic ones. */
+		shadowMap.copyStaticToShadow(gl);
+		shadowMap.getShadowFBO().bindAll(gl);
+		for (int i = 0; i < shadowMap.getCascadeCount(); ++i)
+		{
+			renderShadowCascade(gl, sceneRoot, camera, shadowMap, i, CASTERS_DYNAMIC, false);
+		}
+		shadowMap.getShadowFBO().unbind(gl);
+		
+		gl.glPopAttrib();
+		shadowMap.setRenderedForFrame(mFrameNumber);
+		
+		/* Make sure nothing went wrong. */
+		OpenGLException.checkOpenGLError(gl);
+	}
+	
+	/**
+	 * Renders one kind of shadow caster into one cascade's tile of the currently bound shadow atlas.
+	 */
+	private void renderShadowCascade(GL2 gl, SceneObject sceneRoot, Camera camera, CascadedShadowMap shadowMap, int cascade, int casterFilter, boolean clear) throws OpenGLException
+	{
+		int size = shadowMap.getTileSize();
+		gl.glViewport(shadowMap.getTileX(cascade), shadowMap.getTileY(cascade), size, size);
+		gl.glScissor(shadowMap.getTileX(cascade), shadowMap.getTileY(cascade), size, size);
+		
+		if (clear)
+		{
+			gl.glClear(GL2.GL_DEPTH_BUFFER_BIT);
+		}
+		
+		gl.glMatrixMode(GL2.GL_PROJECTION);
+		gl.glLoadMatrixf(Util.putMatrix4f(mScratch.matrix4Buffer, shadowMap.getCascadeProjectionMatrix(cascade)));
+		gl.glMatrixMode(GL2.GL_MODELVIEW);
+		gl.glLoadMatrixf(Util.putMatrix4f(mScratch.matrix4Buffer, shadowMap.getLightViewMatrix()));
+		
+		mCasterFilter = casterFilter;
+		try
+		{
+			renderObject(gl, camera, sceneRoot, false);
+		}
+		finally
+		{
+			mCasterFilter = CASTERS_ALL;
+		}
+	}
+	
+	/**
+	 * Returns the shadow map for the main pass or the cube map passes, (re)creating it if it doesn't 
+	 * exist yet or the cascade settings changed.
+	 */
+	private CascadedShadowMap getShadowMap(GL2 gl, boolean fitToCamera) throws OpenGLException
+	{
+		if (fitToCamera)
+		{
+			if (mShadowMap == null || mShadowMap.getCascadeCount() != mShadowCascadeCount || mShadowMap.getTileSize() != mShadowMapSize)
+			{
+				if (mShadowMap != null)
+				{
+					mShadowMap.releaseGPUResources(gl);
+				}
+				mShadowMap = new CascadedShadowMap(gl, mShadowMapSize, mShadowCascadeCount);
+			}
+			mShadowMap.setShadowDistance(mShadowDistance);
+			return mShadowMap;
+		}
+		else
+		{
+			if (mCubeMapShadowMap == null || mCubeMapShadowMap.getTileSize() != mShadowMapSize)
+			{
+				if (mCubeMapShadowMap != null)
+				{
+					mCubeMapShadowMap.releaseGPUResources(gl);
+				}
+				mCubeMapShadowMap = new CascadedShadowMap(gl, mShadowMapSize, 1);
+				mCubeMapShadowMap.setFitToCamera(false);
+			}
+			return mCubeMapShadowMap;
+		}
+	}
+	
+	/**
+	 * Computes a value which changes whenever a static shadow caster moves, is shown or hidden, 
+	 * gains or loses meshes, or switches level of detail, so the cached static shadow cascades can 
+	 * be invalidated.
+	 * 
+	 * A static node can still be moved or hidden by a non-static ancestor, so each node's transform and 
+	 * visibility are folded into `pathHash` on the way down, and a static node contributes the hash of 
+	 * its whole path from the root (in effect, its world transform) rather than its local transform.
+	 */
+	private long computeStaticSignature(SceneObject obj, boolean parentIsStatic, long pathHash, long hash)
+	{
+		boolean isStatic = parentIsStatic || obj.isStatic();
+		
+		/* Use the transform renderObject() draws with. */
+		Point3f position = obj.getRenderPosition();
+		Quat4f orientation = obj.getRenderOrientation();
+		pathHash = 31 * pathHash + (obj.isVisible() ? 1 : 0);
+		pathHash = 31 * pathHash + Float.floatToIntBits(position.x);
+		pathHash = 31 * pathHash + Float.floatToIntBits(position.y);
+		pathHash = 31 * pathHash + Float.floatToIntBits(position.z);
+		pathHash = 31 * pathHash + Float.floatToIntBits(orientation.x);
+		pathHash = 31 * pathHash + Float.floatToIntBits(orientation.y);
+		pathHash = 31 * pathHash + Float.floatToIntBits(orientation.z);
+		pathHash = 31 * pathHash + Float.floatToIntBits(orientation.w);
+		pathHash = 31 * pathHash + Float.floatToIntBits(obj.getRenderScale());
+		
+		if (isStatic)
+		{
+			hash = 31 * hash + pathHash;
+			
+			if (obj instanceof Geometry)
+			{
+				/* The shadow passes draw whichever level of detail the view last selected. */
+				hash = 31 * hash + ((Geometry)obj).getMeshes().size();
+				hash = 31 * hash + (mEnableLevelOfDetail ? ((Geometry)obj).getLevelOfDetail() : 0);
+			}
+			
+			hash = 31 * hash + obj.getChildren().size();
+		}
+		
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			hash = computeStaticSignature(children.get(i), isStatic, pathHash, hash);
+		}
+		
+		return hash;
+	}
+	
 	/**
 	 * Clears the gbuffer and renders scene objects.
 	 *
@@ -472,16 +880,14 @@ public class Renderer
 	 * @param camera The camera describing the perspective to render from.
 	 */
 	private void fillGBuffer(GL2 gl, SceneObject sceneRoot, Camera camera) throws OpenGLException {
-		/* Reset lights array. It will be re-filled as the scene is traversed. */
-		mLights.clear();
+		/* Find this frame's lights up front, from the scene index, rather than while drawing. */
+		collectLights(sceneRoot);
 		
 		/* First, bind and clear the gbuffer. */
-		if (camera.getIsShadowMapCamera()) {
-			mShadowMapFBO.bindAll(gl);
-		} else if (camera.getIsSnowOcclusionMapCamera()) {
+		if (camera.getIsSnowOcclusionMapCamera()) {
 			mSnowOcclusionMapFBO.bindAll(gl);
 		} else {		
-			mGBufferFBO.bindSome(gl, new int[]{GBuffer_DiffuseIndex, GBuffer_PositionIndex, GBuffer_MaterialIndex1, GBuffer_MaterialIndex2});
+			mGBufferFBO.bindSome(gl, mGBufferFillIndices);
 		}
 		gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
 		gl.glClear(GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT);
@@ -503,10 +909,8 @@ public class Renderer
 			/* Swap the top and bottom, when we render from a perspective camera */
 			gl.glFrustum( fW, -fW, -fH, fH, zNear, zFar );
 		} else if (camera.getIsSnowOcclusionMapCamera()) {
-			Matrix4f projection = camera.getProjectionMatrix();
-			float[] f = Util.fromMatrix4f(projection);
-			FloatBuffer fb = FloatBuffer.wrap(f);
-			gl.glLoadMatrixf(fb);
+			camera.getProjectionMatrix(mScratch.projection);
+			gl.glLoadMatrixf(Util.putMatrix4f(mScratch.matrix4Buffer, mScratch.projection));
 			//GLU glu = GLU.createGLU(gl);
 			//glu.gluOrtho2D(-camera.getWidth()/2, camera.getWidth()/2, -camera.getHeight()/2, camera.getHeight()/2);
 			//gl.glOrthof(-camera.getWidth()/2, camera.getWidth()/2, -camera.getHeight()/2, camera.getHeight()/2, zNear, zFar);
@@ -521,9 +925,11 @@ public class Renderer
 		/* Find the inverse of the camera scale, position, and orientation in world space, accounting
 		 * for the fact that the camera might be nested inside other objects in the scenegraph.*/
 		float cameraScale = 1.0f / camera.transformDistanceToWorldSpace(1.0f);
-		Point3f cameraPosition = camera.transformPointToWorldSpace(new Point3f(0.0f, 0.0f, 0.0f));
-		AxisAngle4f cameraOrientation = new AxisAngle4f();
-		cameraOrientation.set(camera.transformOrientationToWorldSpace(new Quat4f(0.0f, 0.0f, 0.0f, 1.0f)));
+		Point3f cameraPosition = mScratch.point;
+		camera.transformPointToWorldSpace(mScratch.origin, cameraPosition);
+		AxisAngle4f cameraOrientation = mScratch.axisAngle;
+		camera.transformOrientationToWorldSpace(mScratch.identity, mScratch.quat);
+		cameraOrientation.set(mScratch.quat);
 		
 		/* Apply the camera transform to OpenGL. */
 		gl.glScalef(cameraScale, cameraScale, cameraScale);
@@ -533,14 +939,57 @@ public class Renderer
 		/* Check for errors before rendering, to help isolate. */
 		OpenGLException.checkOpenGLError(gl);
 		
-		/* Render the scene. */
-		renderObject(gl, camera, sceneRoot);
+		/* Render the scene, collecting meshes which can be drawn together into instanced batches. */
+		mBatching = (mInstanceBatcher != null && mEnableInstancing && !mRenderWireframes);
+		
+		/* Cull occluded objects from the main camera's view only. Snow moves vertices outside their 
+		 * meshes' bounds, so culling is skipped while it's rendered. */
+		mCulling = (mEnableOcclusionCulling && !mRenderSnow && !camera.getIsCubeMapCamera() && !camera.getIsSnowOcclusionMapCamera());
+		mSelectingLevels = (mEnableLevelOfDetail && !camera.getIsCubeMapCamera() && !camera.getIsSnowOcclusionMapCamera());
+		
+		mTrackTransforms = (mBatching || mCulling || mSelectingLevels);
+		if (mTrackTransforms)
+		{
+			mScratch.matrix4Buffer.rewind();
+			gl.glGetFloatv(GL2.GL_MODELVIEW_MATRIX, mScratch.matrix4Buffer);
+			mTransformStack.reset(Util.getMatrix4f(mScratch.matrix4Buffer, mScratch.temp));
+		}
+		if (mBatching)
+		{
+			mInstanceBatcher.beginPass();
+		}
+		if (mCulling)
+		{
+			camera.getProjectionMatrix(mViewportWidth, mViewportHeight, mScratch.projection);
+			mOcclusionCuller.beginPass(mScratch.projection, aspect);
+			collectOccluders(sceneRoot);
+			mOcclusionCuller.rasterizeOccluders();
+		}
+		if (mSelectingLevels)
+		{
+			mLevelOfDetailSelector.beginPass(camera.getFOV(), mViewportHeight);
+		}
+		
+		try
+		{
+			renderObject(gl, camera, sceneRoot, false);
+		}
+		finally
+		{
+			mBatching = false;
+			mCulling = false;
+			mSelectingLevels = false;
+			mTrackTransforms = false;
+		}
+		
+		if (mInstanceBatcher != null)
+		{
+			mInstanceBatcher.flush(gl, mInstancedMaterial, mShaderCache);
+		}
 		
 
 		/* GBuffer is filled, so unbind it. */
-		if (camera.getIsShadowMapCamera()) {
-			mShadowMapFBO.unbind(gl);
-		} else if (camera.getIsSnowOcclusionMapCamera()) {
+		if (camera.getIsSnowOcclusionMapCamera()) {
 			mSnowOcclusionMapFBO.unbind(gl);
 		} else {
 			mGBufferFBO.unbind(gl);
@@ -635,9 +1084,11 @@ public class Renderer
 		/* Update all the ubershader uniforms with up-to-date light information. */
 		for (int i = 0; i < mLights.size(); ++i)
 		{
-			/* Transform each light position to eye space. */
+			/* Transform each light position to eye space, as of the applied simulation snapshot, if any. */
 			Light light = mLights.get(i);
-			Point3f eyespacePosition = camera.transformPointFromWorldSpace(light.transformPointToWorldSpace(new Point3f()));
+			Point3f eyespacePosition = mScratch.point;
+			light.transformPointToWorldSpace(mScratch.origin, eyespacePosition);
+			camera.transformPointFromWorldSpace(eyespacePosition, eyespacePosition);
 			
 			/* Send light color and eyespace position to the ubershader. */
 			gl.glUniform3f(mLightPositionsUniformLocation + i, eyespacePosition.x, eyespacePosition.y, eyespacePosition.z);
@@ -664,12 +1115,11 @@ public class Renderer
 		// and the active dynamic cube maps (given by mNumDynamicCubeMaps).
 		// Hint: Make sure you upload the inverse world space camera rotation matrix,
 		// using glUniformMatrix3fv.
-		FloatBuffer bf = FloatBuffer.allocate(9);
-		Matrix3f rotation = new Matrix3f();
-		rotation.invert(camera.getWorldSpaceRotationMatrix3f());
-		float f[] = new float[]{rotation.m00,rotation.m01,rotation.m02,rotation.m10,rotation.m11,rotation.m12,rotation.m20,rotation.m21,rotation.m22};
-		bf = FloatBuffer.wrap(f);
-		gl.glUniformMatrix3fv(mCameraInverseRotationUniformLocation, 1, true, bf);
+		/* The inverse of a rotation is its transpose, so upload the world space rotation matrix with 
+		 * transpose = true instead of inverting it. */
+		camera.transformOrientationToWorldSpace(mScratch.identity, mScratch.quat);
+		Util.getRotationMatrix3f(mScratch.quat, mScratch.rotation);
+		gl.glUniformMatrix3fv(mCameraInverseRotationUniformLocation, 1, true, Util.putMatrix3f(mScratch.matrix3Buffer, mScratch.rotation));
 		
 		if(mStaticCubeMap != null)
 			mStaticCubeMap.bind(gl, mStaticCubeMapIndex);
@@ -683,77 +1133,33 @@ public class Renderer
 		if (shadowCamera != null) {
 			// TO DO PA3: Set the LightMatrix and InverseViewMatrix uniforms.
 			
-			/* Set LightMatrix, which sends points from world space into (light) camera clip coordinates space. */
-			
-			// projection takes camera space to clip space [-1, 1]
-			// view takes world to camera space
-			Matrix4f lightProjection = shadowCamera.getProjectionMatrix(mViewportWidth, mViewportHeight);
-			Matrix4f lightView = shadowCamera.getViewMatrix();
-			Matrix4f l = new Matrix4f();
-			l.mul(lightProjection, lightView);
-			float f1[] = new float[]{l.m00, l.m01, l.m02, l.m03, l.m10, l.m11, l.m12, l.m13, l.m20, l.m21, l.m22, l.m23, l.m30, l.m31, l.m32, l.m33};
-			FloatBuffer fb = FloatBuffer.wrap(f1);
-			gl.glUniformMatrix4fv(mLightMatrixUniformLocation, 1, true, fb);
+			/* Each cascade matrix sends points from eye space straight to the cascade's tile of the shadow 
+			 * atlas; the cascade is picked by eye space depth, so the shader also needs the split distances. */
+			CascadedShadowMap shadowMap = mActiveShadowMap;
+			int cascadeCount = shadowMap.getCascadeCount();
+			shadowMap.putShadowMatrices(mFrameConstants.inverseViewMatrix, mShadowMatrixBuffer);
+			shadowMap.getTileRects(mShadowTileRects);
+			gl.glUniform1i(mShadowCascadeCountUniformLocation, cascadeCount);
+			gl.glUniformMatrix4fv(mShadowCascadeMatricesUniformLocation, cascadeCount, false, mShadowMatrixBuffer);
+			gl.glUniform4fv(mShadowCascadeRectsUniformLocation, cascadeCount, mShadowTileRects, 0);
+			gl.glUniform4f(mShadowCascadeSplitsUniformLocation, 
+					shadowMap.getCascadeFar(0), 
+					cascadeCount > 1 ? shadowMap.getCascadeFar(1) : 0.0f, 
+					cascadeCount > 2 ? shadowMap.getCascadeFar(2) : 0.0f, 
+					cascadeCount > 3 ? shadowMap.getCascadeFar(3) : 0.0f);
 			
 			gl.glUniform1f(mBiasUniformLocation, mBias);
-			gl.glUniform1f(mShadowMapWidthUniformLocation, mViewportWidth);
-			gl.glUniform1f(mShadowMapHeightUniformLocation, mViewportHeight);
+			gl.glUniform1f(mShadowMapWidthUniformLocation, shadowMap.getAtlasSize());
+			gl.glUniform1f(mShadowMapHeightUniformLocation, shadowMap.getAtlasSize());
 			gl.glUniform1f(mShadowSampleWidthUniformLocation, (float) mShadowSampleWidth);
 			gl.glUniform1f(mLightWidthUniformLocation, (float) mLightWidth);
 			
-			mShadowMapFBO.getDepthTexture().bind(gl, mShadowTextureLocation);
+			shadowMap.getDepthTexture().bind(gl, mShadowTextureLocation);
 		}
 		OpenGLException.checkOpenGLError(gl);
 		
-		gl.glUniform1i(mRenderSnowUniformLocation, (mRenderSnow ? 1 : 0));
-		if (snowCamera != null) {
-			// TODO: set any uniforms here
-//			mSnowOcclusionMapFBO.getDepthTexture().bind(gl, mSnowOcclusionTextureLocation);
-//			gl.glUniform1f(mSnowMapWidthUniformLocation, snowCamera.getWidth());
-//			gl.glUniform1f(mSnowMapHeightUniformLocation, snowCamera.getHeight());
-//			
-//			// set OcclMapMatrix uniform
-//			Matrix4f snowProjection = snowCamera.getProjectionMatrix();
-//			Matrix4f snowView = snowCamera.getViewMatrix();
-//			Matrix4f l = new Matrix4f();
-//			l.mul(snowProjection, snowView);
-//			//float f1[] = Util.fromMatrix4f(l);
-//			float f1[] = new float[]{l.m00, l.m01, l.m02, l.m03, l.m10, l.m11, l.m12, l.m13, l.m20, l.m21, l.m22, l.m23, l.m30, l.m31, l.m32, l.m33};
-//			FloatBuffer fb = FloatBuffer.wrap(f1);
-//			gl.glUniformMatrix4fv(mOcclMapMatrixUniformLocation, 1, true, fb);
-//			
-//			// set the ViewMatrix uniform
-//			Matrix4f v = camera.getViewMatrix();
-//			//float f2[] = Util.fromMatrix4f(v);
-//			float f2[] = new float[]{v.m00, v.m01, v.m02, v.m03, v.m10, v.m11, v.m12, v.m13, v.m20, v.m21, v.m22, v.m23, v.m30, v.m31, v.m32, v.m33};
-//			FloatBuffer fb2 = FloatBuffer.wrap(f2);
-//			gl.glUniformMatrix4fv(mViewMatrixUniformLocation, 1, true, fb2);
-//			
-			
-			
-			Matrix4f v = camera.getViewMatrix();
-			Matrix4f ti_v = new Matrix4f();
-			ti_v.invert(v);
-			ti_v.transpose();
-			float f1[] = Util.fromMatrix4f(ti_v);
-			FloatBuffer fb1 = FloatBuffer.wrap(f1);
-			gl.glUniformMatrix4fv(mTransposeInverseViewMatrixUniformLocation, 1, false, fb1);
-			
-//			gl.glUniform1f(mSnowAmountUniformLocation, mSnowAmount);
-		}
-		OpenGLException.checkOpenGLError(gl);
-
-		if (shadowCamera != null /*|| snowCamera != null*/) {
-			/* Set InverseViewMatrix, which sends points from the (eye) camera local space into world space. */
-			Matrix4f v = camera.getViewMatrix();
-			v.invert();
-			//float f2[] = Util.fromMatrix4f(v);
-			float f2[] = new float[]{v.m00, v.m01, v.m02, v.m03, v.m10, v.m11, v.m12, v.m13, v.m20, v.m21, v.m22, v.m23, v.m30, v.m31, v.m32, v.m33};
-			FloatBuffer fb2 = FloatBuffer.wrap(f2);
-			gl.glUniformMatrix4fv(mInverseViewMatrixUniformLocation, 1, true, fb2);
-		}
-		OpenGLException.checkOpenGLError(gl);
-
+		/* RenderSnow, InverseViewMatrix and TransposeInverseViewMatrix come from the FrameConstants block. */
+		
 		/* Let there be light! */
 		Util.drawFullscreenQuad(gl, mViewportWidth, mViewportHeight);
 		
@@ -761,7 +1167,7 @@ public class Renderer
 		mUberShader.unbind(gl);
 		
 		if (shadowCamera != null) {
-			mShadowMapFBO.getDepthTexture().unbind(gl);
+			mActiveShadowMap.getDepthTexture().unbind(gl);
 		}
 		
 		/*if (snowCamera != null) {
@@ -792,110 +1198,210 @@ public class Renderer
 	 * @param gl The OpenGL state.
 	 * @param camera The camera rendering the scene.
 	 * @param obj The object to render. If this is a Geometry object, its meshes are rendered.
-	 *        If this is a Light object, it is added to the list of lights. Other objects are ignored.
-	 * @param dcm The dynamic cub map that we are rendering to. If it is not equal to null, we check to
-	 *        see if the object being rendered is the same as the one stored in the DCM. If it is, then
-	 *        we don't render it.
+	 *        Other objects are ignored, apart from particle systems.
+	 * @param parentIsStatic True if an ancestor of `obj` is marked static, which makes `obj` static too.
+	 *        Only matters while rendering shadow casters; see `mCasterFilter`.
 	 */
-	private void renderObject(GL2 gl, Camera camera, SceneObject obj) throws OpenGLException
+	private void renderObject(GL2 gl, Camera camera, SceneObject obj, boolean parentIsStatic) throws OpenGLException
 	{
 		/* If the object is not visible, we skip the rendition of it and all its children */
 		if (!obj.isVisible()) {
 			return;
 		}
 		
+		boolean isStatic = parentIsStatic || obj.isStatic();
+		boolean passesFilter = (mCasterFilter == CASTERS_ALL) || 
+				(mCasterFilter == CASTERS_STATIC) == isStatic;
+		
 		/* Save matrix before applying this object's transformation. */
 		gl.glPushMatrix();
 		
-		/* Get this object's transformation. */
-		float scale = obj.getScale();
-		Point3f position = obj.getPosition();
-		AxisAngle4f orientation = new AxisAngle4f();
-		orientation.set(obj.getOrientation());
+		/* Get this object's transformation (interpolated from simulation snapshots, if it's animated that way). */
+		float scale = obj.getRenderScale();
+		Point3f position = obj.getRenderPosition();
+		AxisAngle4f orientation = mScratch.axisAngle;
+		orientation.set(obj.getRenderOrientation());
 		
 		/* Apply this object's transformation. */
 		gl.glTranslatef(position.x, position.y, position.z);
 		gl.glRotatef(orientation.angle * 180.0f / (float)Math.PI, orientation.x, orientation.y, orientation.z);
 		gl.glScalef(scale, scale, scale);
 		
+		if (mTrackTransforms)
+		{
+			mTransformStack.push(position, obj.getRenderOrientation(), scale);
+		}
+		
 		/* Render this object as appropriate for its type. */
 		if (obj instanceof Geometry)
 		{
-			for (Mesh mesh : ((Geometry)obj).getMeshes())
+			/* Objects hidden behind occluders are skipped, but not their children, which have their own bounds. */
+			if (passesFilter && !(mCulling && mOcclusionCuller.isCulled((Geometry)obj, mTransformStack.peek())))
 			{
-				renderMesh(gl, mesh);
+				Geometry geometry = (Geometry)obj;
+				int level = 0;
+				if (mSelectingLevels)
+				{
+					level = mLevelOfDetailSelector.select(geometry, mTransformStack.peek());
+				}
+				else if (mEnableLevelOfDetail)
+				{
+					level = geometry.getLevelOfDetail();
+				}
+				
+				/* Indexed loops, since an iterator per node per frame adds up. Meshes the batcher takes are 
+				 * drawn after the walk. */
+				List<Mesh> meshes = geometry.getLevelOfDetailMeshes(level);
+				for (int i = 0; i < meshes.size(); ++i)
+				{
+					if (!mBatching || !mInstanceBatcher.add(meshes.get(i), mTransformStack.peek()))
+					{
+						renderMesh(gl, meshes.get(i));
+					}
+				}
 			}
 		}
-		else if (obj instanceof Light)
-		{
-			mLights.add((Light)obj);
-		}
 		else if (obj instanceof ParticleSystem) 
 		{
-			renderParticles(gl, camera, (ParticleSystem) obj);
+			if (passesFilter)
+			{
+				renderParticles(gl, camera, (ParticleSystem) obj, isStatic);
+			}
 		}
 		
 		/* Render this object's children. */
-		for (SceneObject child : obj.getChildren())
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
 		{
-			renderObject(gl, camera, child);
+			renderObject(gl, camera, children.get(i), isStatic);
 		}
 		
 		/* Restore transformation matrix and check for errors. */
+		if (mTrackTransforms)
+		{
+			mTransformStack.pop();
+		}
 		gl.glPopMatrix();
 		OpenGLException.checkOpenGLError(gl);
 	}
 
 	/**
-	 * Renders a single trimesh.
-	 * 
-	 * @param gl The OpenGL state.
-	 * @param mesh The mesh to render.
+	 * Fills the list of lights with the lights under `sceneRoot` which are drawn, i.e. which have no 
+	 * invisible ancestor, using the scene index instead of a walk over the whole scene.
 	 */
-	private void renderMesh(GL2 gl, Mesh mesh) throws OpenGLException
+	private void collectLights(SceneObject sceneRoot)
 	{
-		/* Save all state to isolate any changes made by this mesh's material. */
-		gl.glPushAttrib(GL2.GL_ALL_ATTRIB_BITS);
-		gl.glPushClientAttrib((int)GL2.GL_CLIENT_ALL_ATTRIB_BITS);
-		
-		/* Activate the material. */
-		mesh.getMaterial().retrieveShader(gl, mShaderCache);
-		mesh.getMaterial().bind(gl);
+		mLights.clear();
 		
+		List<Light> lights = sceneRoot.getSceneIndex().getObjectsOfType(Light.class);
+		for (int i = 0; i < lights.size(); ++i)
+		{
+			Light light = lights.get(i);
 			
-		/* Enable the required vertex arrays and send data. */
-		if (mesh.getVertexData() == null)
+			SceneObject node = light;
+			while (node != null && node.isVisible() && node != sceneRoot)
+			{
+				node = node.getParent();
+			}
+			
+			if (node == sceneRoot && sceneRoot.isVisible())
+			{
+				mLights.add(light);
+			}
+		}
+	}
+
+	/**
+	 * Offers the visible Geometry objects under `obj` to the occlusion culler as occluders, tracking 
+	 * their modelview matrices the same way `renderObject()` does.
+	 */
+	private void collectOccluders(SceneObject obj)
+	{
+		if (!obj.isVisible())
 		{
-			throw new OpenGLException("Mesh must have non-null vertex data to render!");
+			return;
 		}
-		else
+		
+		mTransformStack.push(obj.getRenderPosition(), obj.getRenderOrientation(), obj.getRenderScale());
+		
+		if (obj instanceof Geometry)
 		{
-			gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
-			gl.glVertexPointer(3, GL2.GL_FLOAT, 0, mesh.getVertexData());
+			mOcclusionCuller.addOccluderCandidate((Geometry)obj, mTransformStack.peek());
+		}
+		
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			collectOccluders(children.get(i));
 		}
+		
+		mTransformStack.pop();
+	}
 
-		if (mesh.getNormalData() == null)
+	/**
+	 * Renders a single trimesh.
+	 * 
+	 * @param gl The OpenGL state.
+	 * @param mesh The mesh to render.
+	 */
+	private void renderMesh(GL2 gl, Mesh mesh) throws OpenGLException
+	{
+		if (mCasterFilter != CASTERS_ALL)
 		{
-			gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+			renderMeshDepthOnly(gl, mesh);
+			return;
 		}
-		else
+		
+		/* Save all state to isolate any changes made by this mesh's material. */
+		gl.glPushAttrib(GL2.GL_ALL_ATTRIB_BITS);
+		gl.glPushClientAttrib((int)GL2.GL_CLIENT_ALL_ATTRIB_BITS);
+		
+		/* Activate the material. */
+		mesh.getMaterial().retrieveShader(gl, mShaderCache);
+		mesh.getMaterial().bind(gl);
+		
+		/* Draw from compact vertex data if the material can decode it, undoing the position quantization in the modelview. */
+		CompactVertexData compact = getCompactVertexData(mesh, true);
+		if (compact == null && mesh.getVertexData() == null)
 		{
-			gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
-			gl.glNormalPointer(GL2.GL_FLOAT, 0, mesh.getNormalData());
+			throw new OpenGLException(mesh.getCompactVertexData() == null ? "Mesh must have non-null vertex data to render!" : 
+				"Mesh '" + mesh.getName() + "' has only compact vertex data, which its material can't draw!");
 		}
+		mesh.getMaterial().setCompactVertices(gl, compact != null);
 		
-		if (mesh.getTexCoordData() == null)
+		/* Enable the required vertex arrays and send data. */
+		if (compact != null)
 		{
-			gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			bindCompactVertexData(gl, mesh, compact);
 		}
 		else
 		{
-			gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
-			gl.glTexCoordPointer(2, GL2.GL_FLOAT, 0, mesh.getTexCoordData());
-		}
+			gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+			gl.glVertexPointer(3, GL2.GL_FLOAT, 0, mesh.getVertexData());
 
-		/* Send custom vertex attributes (if any) to OpenGL. */
-		bindRequiredMeshAttributes(gl, mesh);
+			if (mesh.getNormalData() == null)
+			{
+				gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+			}
+			else
+			{
+				gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+				gl.glNormalPointer(GL2.GL_FLOAT, 0, mesh.getNormalData());
+			}
+			
+			if (mesh.getTexCoordData() == null)
+			{
+				gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			}
+			else
+			{
+				gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+				gl.glTexCoordPointer(2, GL2.GL_FLOAT, 0, mesh.getTexCoordData());
+			}
+	
+			/* Send custom vertex attributes (if any) to OpenGL. */
+			bindRequiredMeshAttributes(gl, mesh);
+		}
 		
 		/* Render polygons. */
 		gl.glDrawElements(getOpenGLPrimitiveType(mesh.getVerticesPerPolygon()), 
@@ -941,6 +1447,11 @@ public class Renderer
 			mWireframeMarkedEdgeMaterial.unbind(gl);
 		}
 		
+		if (compact != null)
+		{
+			gl.glPopMatrix();
+		}
+		
 		gl.glPopClientAttrib();
 		gl.glPopAttrib();
 		
@@ -948,19 +1459,174 @@ public class Renderer
 		OpenGLException.checkOpenGLError(gl);
 	}
 	
-	private void renderParticles(GL2 gl, Camera camera, ParticleSystem p) throws OpenGLException {
-		Geometry sphere = null;
-		try {
-			sphere = Geometry.load("models/lowpolysphere.obj", false, false).get(0);
-		} catch (IOException e) {
-			e.printStackTrace();
+	/**
+	 * Renders a trimesh's depth only, without its material, for shadow casters. Points and lines don't 
+	 * cast shadows, so they are skipped.
+	 * 
+	 * @param gl The OpenGL state.
+	 * @param mesh The mesh to render.
+	 */
+	private void renderMeshDepthOnly(GL2 gl, Mesh mesh) throws OpenGLException
+	{
+		if (mesh.getVerticesPerPolygon() < 3)
+		{
+			return;
 		}
-		sphere.setScale(0.03f);
-		sphere.getMeshes().get(0).setMaterial(new LambertianMaterial(new Color3f(1.45f,1.45f,1.5f)));
-		float[] arr =  p.getParticlePositions().array();
-		for (int i = 0; i < arr.length/3; i++) {
-			sphere.setPosition(new Point3f(arr[3*i],arr[3*i+1],arr[3*i+2]));
-			renderObject(gl,camera,sphere);
+		
+		if (mesh.getVertexData() == null && mesh.getCompactVertexData() == null)
+		{
+			throw new OpenGLException("Mesh must have non-null vertex data to render!");
+		}
+		
+		/* Depth only needs positions, which any shader reads compactly through the modelview. */
+		CompactVertexData compact = getCompactVertexData(mesh, false);
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		if (compact != null)
+		{
+			pushCompactPositionTransform(gl, compact);
+			gl.glVertexPointer(3, GL2.GL_SHORT, 0, compact.getPositions());
+		}
+		else
+		{
+			gl.glVertexPointer(3, GL2.GL_FLOAT, 0, mesh.getVertexData());
+		}
+		
+		gl.glDrawElements(getOpenGLPrimitiveType(mesh.getVerticesPerPolygon()), 
+						  mesh.getVerticesPerPolygon() * mesh.getPolygonCount(), 
+						  GL2.GL_UNSIGNED_INT, 
+						  mesh.getPolygonData());
+		
+		if (compact != null)
+		{
+			gl.glPopMatrix();
+		}
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+	}
+	
+	/**
+	 * Returns the compact vertex data to draw a mesh from, or null to draw it from its float buffers. Meshes 
+	 * whose float buffers were discarded (see `Mesh.discardFloatVertexData()`) draw compactly even while 
+	 * compact vertices are turned off.
+	 * 
+	 * @param mesh The mesh, whose material's shader has been retrieved if `shaded` is true.
+	 * @param shaded True if the mesh is drawn with its material, which must then be able to decode every 
+	 *        attribute it reads; false if only positions are needed.
+	 */
+	private CompactVertexData getCompactVertexData(Mesh mesh, boolean shaded)
+	{
+		CompactVertexData compact = mesh.getCompactVertexData();
+		if (compact == null || (!mEnableCompactVertices && mesh.getVertexData() != null))
+		{
+			return null;
+		}
+		else if (!shaded)
+		{
+			return compact;
+		}
+		
+		Material material = mesh.getMaterial();
+		if (!material.supportsCompactVertices() || (compact.getTexCoords() != null && !mHalfFloatVertices) || 
+				!compact.hasAttributesFor(material))
+		{
+			return null;
+		}
+		
+		return compact;
+	}
+	
+	/**
+	 * Pushes the modelview matrix and multiplies it by the transform from a mesh's quantized positions 
+	 * to object space. The caller pops it after drawing.
+	 */
+	private void pushCompactPositionTransform(GL2 gl, CompactVertexData compact)
+	{
+		Point3f offset = compact.getPositionOffset();
+		float scale = compact.getPositionScale();
+		
+		gl.glPushMatrix();
+		gl.glTranslatef(offset.x, offset.y, offset.z);
+		gl.glScalef(scale, scale, scale);
+	}
+	
+	/**
+	 * Sends a mesh's compact vertex data to OpenGL for its material's shader: positions as the built in 
+	 * vertex array (see `pushCompactPositionTransform()`), and normals, texture coordinates and required 
+	 * attributes as the shader's "Compact" attributes. Pushes the modelview matrix, which the caller pops.
+	 */
+	private void bindCompactVertexData(GL2 gl, Mesh mesh, CompactVertexData compact)
+	{
+		pushCompactPositionTransform(gl, compact);
+		
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glVertexPointer(3, GL2.GL_SHORT, 0, compact.getPositions());
+		gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+		
+		ShaderProgram shader = mesh.getMaterial().getShaderProgram();
+		bindCompactAttribute(gl, shader, "CompactNormal", compact.getNormals(), GL2.GL_SHORT, true);
+		bindCompactAttribute(gl, shader, "CompactTexCoord", compact.getTexCoords(), GL2.GL_HALF_FLOAT, false);
+		
+		/* getCompactVertexData() checked that every required attribute has a compact encoding. */
+		String requiredAttributes[] = mesh.getMaterial().getRequiredVertexAttributes();
+		for (int i = 0; i < requiredAttributes.length; ++i)
+		{
+			String name = CompactVertexData.getCompactAttributeName(requiredAttributes[i]);
+			if (name != null)
+			{
+				bindCompactAttribute(gl, shader, name, compact.getAttribData(requiredAttributes[i]), GL2.GL_SHORT, true);
+			}
+		}
+	}
+	
+	/**
+	 * Binds 2 component compact data to the named attribute of a shader, if the shader uses it; missing 
+	 * data leaves the attribute at its current value, like a missing float buffer does.
+	 */
+	private void bindCompactAttribute(GL2 gl, ShaderProgram shader, String name, ShortBuffer data, int type, boolean normalized)
+	{
+		int location = shader.getAttribLocation(gl, name);
+		if (location < 0)
+		{
+			return;
+		}
+		
+		if (data == null)
+		{
+			gl.glDisableVertexAttribArray(location);
+		}
+		else
+		{
+			gl.glEnableVertexAttribArray(location);
+			gl.glVertexAttribPointer(location, 2, type, normalized, 0, data);
+		}
+	}
+	
+	private void renderParticles(GL2 gl, Camera camera, ParticleSystem p, boolean isStatic) throws OpenGLException {
+		/* Load the particle sphere once, rather than every frame. */
+		if (mParticleGeometry == null) {
+			try {
+				mParticleGeometry = MeshRegistry.getShared().loadFirst("models/lowpolysphere.obj");
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			mParticleGeometry.setScale(0.03f);
+			mParticleGeometry.getMeshes().get(0).setMaterial(new LambertianMaterial(new Color3f(1.45f,1.45f,1.5f)));
+		}
+		
+		Geometry sphere = mParticleGeometry;
+		
+		/* Draw the last published snapshot if a simulation thread steps the particles, else copy them now. */
+		float[] arr = p.getRenderPositions();
+		int count = p.getRenderCount();
+		if (arr == null) {
+			mParticlePositions = p.copyParticlePositions(mParticlePositions);
+			arr = mParticlePositions;
+			count = p.getNumCopied();
+		}
+		for (int i = 0; i < count; i++) {
+			sphere.getPosition().set(arr[3*i],arr[3*i+1],arr[3*i+2]);
+			renderObject(gl, camera, sphere, isStatic);
 		}
 	}
 	
@@ -978,8 +1644,11 @@ public class Renderer
 	{
 		ShaderProgram shader = mesh.getMaterial().getShaderProgram();
 		
-		for (String attrib : mesh.getMaterial().getRequiredVertexAttributes())
+		String requiredAttributes[] = mesh.getMaterial().getRequiredVertexAttributes();
+		for (int i = 0; i < requiredAttributes.length; ++i)
 		{
+			String attrib = requiredAttributes[i];
+			
 			/* Ignore attributes which aren't actually used in the shader. */
 			int location = shader.getAttribLocation(gl, attrib);
 			if (location < 0)
@@ -1073,6 +1742,107 @@ public class Renderer
 		return mRenderWireframes;
 	}
 	
+	/**
+	 * Enables or disables drawing meshes which share data in instanced batches. Has no effect if the 
+	 * context can't draw instanced; batching is also skipped while rendering wireframes.
+	 */
+	public void setInstancing(boolean instancing)
+	{
+		mEnableInstancing = instancing;
+	}
+	
+	/**
+	 * Returns true if meshes which share data are drawn in instanced batches.
+	 */
+	public boolean getInstancing()
+	{
+		return mEnableInstancing && mInstanceBatcher != null;
+	}
+	
+	/**
+	 * Returns the instance batcher, for its draw and instance counts, or null if instanced drawing isn't supported.
+	 */
+	public InstanceBatcher getInstanceBatcher()
+	{
+		return mInstanceBatcher;
+	}
+	
+	/**
+	 * Enables or disables skipping objects hidden behind the largest objects on screen; see `OcclusionCuller`.
+	 * Culling only applies to the main camera's view, and is skipped while snow is rendered.
+	 */
+	public void setOcclusionCulling(boolean occlusionCulling)
+	{
+		mEnableOcclusionCulling = occlusionCulling;
+	}
+	
+	/**
+	 * Returns true if occlusion culling is enabled.
+	 */
+	public boolean getOcclusionCulling()
+	{
+		return mEnableOcclusionCulling;
+	}
+	
+	/**
+	 * Returns the occlusion culler, for the culled counts and CPU time of the last frame.
+	 */
+	public OcclusionCuller getOcclusionCuller()
+	{
+		return mOcclusionCuller;
+	}
+	
+	/**
+	 * Enables or disables drawing objects with simplified levels of detail (see `Geometry.generateLevelsOfDetail()`)
+	 * when the difference is too small to see; see `LevelOfDetailSelector`.
+	 */
+	public void setLevelOfDetail(boolean levelOfDetail)
+	{
+		mEnableLevelOfDetail = levelOfDetail;
+	}
+	
+	/**
+	 * Returns true if objects are drawn with simplified levels of detail when the difference is too small to see.
+	 */
+	public boolean getLevelOfDetail()
+	{
+		return mEnableLevelOfDetail;
+	}
+	
+	/**
+	 * Returns the level of detail selector, for its error threshold and the last frame's triangle counts.
+	 */
+	public LevelOfDetailSelector getLevelOfDetailSelector()
+	{
+		return mLevelOfDetailSelector;
+	}
+	
+	/**
+	 * Enables or disables drawing meshes from their compact vertex data (see `CompactVertexData` and 
+	 * `SceneObject.compactVertexDataForAllGeometry()`), where their materials can decode it.
+	 */
+	public void setCompactVertices(boolean compactVertices)
+	{
+		mEnableCompactVertices = compactVertices;
+	}
+	
+	/**
+	 * Returns true if meshes are drawn from their compact vertex data where possible.
+	 */
+	public boolean getCompactVertices()
+	{
+		return mEnableCompactVertices;
+	}
+	
+	/**
+	 * Returns true if OpenGL takes half float vertex attributes, which compact texture coordinates need. 
+	 * Valid after `init()`.
+	 */
+	public boolean getHalfFloatVertices()
+	{
+		return mHalfFloatVertices;
+	}
+	
 	/**
 	 * Enables or disables bloom.
 	 */
@@ -1122,16 +1892,16 @@ public class Renderer
 	}
 	
 	/**
-	 * Sets the half-width of the Gaussian kernel (in pixels).
+	 * Sets the half-width of the Gaussian kernel (in pixels of each bloom level, at most GaussianKernel.MAX_RADIUS).
 	 * The end-to-end width of the kernel is actually 2*width + 1 pixels.
 	 */
 	public void setBloomWidth(int width)
 	{
-		mKernelWidth = width;
+		mKernelWidth = Math.min(width, GaussianKernel.MAX_RADIUS);
 	}
 	
 	/**
-	 * Gets the half-width of the Gaussian kernel (in pixels).
+	 * Gets the half-width of the Gaussian kernel (in pixels of each bloom level).
 	 * The end-to-end width of the kernel is actually 2*width + 1 pixels.
 	 */
 	public int getBloomWidth()
@@ -1139,6 +1909,33 @@ public class Renderer
 		return mKernelWidth;
 	}
 	
+	/**
+	 * Sets the number of downsampled levels bloom is computed on. Each extra level doubles how far 
+	 * the bloom reaches, for a quarter of the cost of the level above it.
+	 */
+	public void setBloomLevels(int levels)
+	{
+		mBloomLevels = Math.max(1, Math.min(BloomPipeline.MAX_LEVELS, levels));
+	}
+	
+	public int getBloomLevels()
+	{
+		return mBloomLevels;
+	}
+	
+	/**
+	 * Sets how strongly the bloom is added onto the scene.
+	 */
+	public void setBloomIntensity(float intensity)
+	{
+		mBloomIntensity = intensity;
+	}
+	
+	public float getBloomIntensity()
+	{
+		return mBloomIntensity;
+	}
+	
 
 	/**
 	 * Gets the static Cube Map
@@ -1240,6 +2037,202 @@ public class Renderer
 		return mLightWidth;
 	}
 	
+	/**
+	 * Sets the number of shadow cascades for the main pass, 1 to `CascadedShadowMap.MAX_CASCADES`.
+	 * More cascades give sharper shadows near the camera at the cost of more caster draws.
+	 */
+	public void setShadowCascadeCount(int count)
+	{
+		mShadowCascadeCount = Math.max(1, Math.min(CascadedShadowMap.MAX_CASCADES, count));
+	}
+	
+	public int getShadowCascadeCount()
+	{
+		return mShadowCascadeCount;
+	}
+	
+	/** Getter and setter for the width and height of each shadow cascade, in texels. */
+	public void setShadowMapSize(int size)
+	{
+		mShadowMapSize = size;
+	}
+	
+	public int getShadowMapSize()
+	{
+		return mShadowMapSize;
+	}
+	
+	/** Getter and setter for how far from the camera the shadow cascades reach. */
+	public void setShadowDistance(float distance)
+	{
+		mShadowDistance = distance;
+	}
+	
+	public float getShadowDistance()
+	{
+		return mShadowDistance;
+	}
+	
+	/**
+	 * Forces static shadow casters to be re-rendered next frame. Moving static objects is detected 
+	 * automatically; this is only needed for changes it can't see, such as edited mesh data.
+	 */
+	public void invalidateStaticShadows()
+	{
+		if (mShadowMap != null)
+		{
+			mShadowMap.invalidateStaticCache();
+		}
+		
+		if (mCubeMapShadowMap != null)
+		{
+			mCubeMapShadowMap.invalidateStaticCache();
+		}
+	}
+	
+	/**
+	 * Returns how many times a cascade's static shadow casters have been rendered, to check that 
+	 * the static shadow cache is doing its job.
+	 */
+	public int getStaticShadowRenderCount()
+	{
+		return (mShadowMap == null ? 0 : mShadowMap.getStaticRenderCount()) + 
+				(mCubeMapShadowMap == null ? 0 : mCubeMapShadowMap.getStaticRenderCount());
+	}
+
+	/**
+	 * Enables or disables checking that each frame allocates no heap memory once warmed up.
+	 *
+	 * @param enabled Whether to measure per-frame allocations.
+	 * @param strict If true, an allocating frame throws instead of printing a warning.
+	 */
+	public void setAllocationCheck(boolean enabled, boolean strict)
+	{
+		if (enabled)
+		{
+			mAllocationMonitor = new FrameAllocationMonitor();
+			mAllocationMonitor.setStrict(strict);
+		}
+		else
+		{
+			mAllocationMonitor = null;
+		}
+	}
+
+	/**
+	 * Returns the allocation monitor, or null if the allocation check is disabled.
+	 */
+	public FrameAllocationMonitor getAllocationMonitor()
+	{
+		return mAllocationMonitor;
+	}
+
+	/**
+	 * Enables or disables counting the GL calls made by each frame. Counting routes every call 
+	 * through a proxy, so it slows rendering down noticeably; only enable it while measuring.
+	 */
+	public void setCountGLCalls(boolean enabled)
+	{
+		mCallCounter = (enabled ? new GLCallCounter() : null);
+		mLastFrameGLCalls = 0;
+		mLastFrameUniformCalls = 0;
+		mLastFrameDrawCalls = 0;
+	}
+
+	/**
+	 * Returns the number of GL calls made by the last frame, or 0 if counting is disabled.
+	 */
+	public long getLastFrameGLCalls()
+	{
+		return mLastFrameGLCalls;
+	}
+
+	/**
+	 * Returns the number of `glUniform*()` calls made by the last frame, or 0 if counting is disabled.
+	 */
+	public long getLastFrameUniformCalls()
+	{
+		return mLastFrameUniformCalls;
+	}
+
+	/**
+	 * Returns the number of draw calls (`glDraw*()`) made by the last frame, or 0 if counting is disabled.
+	 */
+	public long getLastFrameDrawCalls()
+	{
+		return mLastFrameDrawCalls;
+	}
+
+	/**
+	 * Enables or disables per-pass CPU and GPU timing. Statistics are kept while profiling is off.
+	 */
+	public void setProfiling(boolean enabled)
+	{
+		if (enabled && mProfiler == null)
+		{
+			mProfiler = new FrameProfiler();
+			mProfilerOverlay = new ProfilerOverlay(mProfiler);
+		}
+		
+		mProfilingEnabled = enabled;
+	}
+	
+	/**
+	 * Returns the streamer loading textures for materials, for its queue and upload statistics.
+	 */
+	public TextureStreamer getTextureStreamer()
+	{
+		return mTextureStreamer;
+	}
+	
+	/**
+	 * Returns the service reading textures (e.g. gbuffer attachments) back without stalling; readbacks
+	 * are delivered at the start of later frames.
+	 */
+	public AsyncReadback getReadback()
+	{
+		return mReadback;
+	}
+	
+	/**
+	 * Starts saving every frame's final scene texture with the given recorder, or stops if null.
+	 */
+	public void setFrameRecorder(FrameRecorder recorder)
+	{
+		mFrameRecorder = recorder;
+	}
+	
+	public FrameRecorder getFrameRecorder()
+	{
+		return mFrameRecorder;
+	}
+	
+	public boolean getProfiling()
+	{
+		return mProfilingEnabled;
+	}
+	
+	/**
+	 * Returns the frame profiler, or null if profiling has never been enabled.
+	 */
+	public FrameProfiler getProfiler()
+	{
+		return mProfiler;
+	}
+	
+	/**
+	 * Shows or hides the profiler bar chart on top of the frame (only drawn while profiling).
+	 */
+	public void setShowProfilerOverlay(boolean show)
+	{
+		mShowProfilerOverlay = show;
+	}
+	
+	public boolean getShowProfilerOverlay()
+	{
+		return mShowProfilerOverlay;
+	}
+
 	
 	/**
 	 * Performs one-time initialization of OpenGL state and shaders used by this renderer.
@@ -1249,12 +2242,25 @@ public class Renderer
 	{
 		GL2 gl = drawable.getGL().getGL2();
 		
+		/* Textures materials load from here on decode in the background and upload over several frames. */
+		mTextureStreamer = TextureStreamer.getShared();
+		TextureCache.getShared().setStreamer(mTextureStreamer);
+		
+		mReadback = new AsyncReadback();
+		
 		/* Enable depth testing. */
 		gl.glEnable(GL2.GL_DEPTH_TEST);
 		gl.glDepthFunc(GL2.GL_LEQUAL);
 
 		try
 		{
+			/* The ubershader and BlinnPhong shaders read the camera and snow parameters from the
+			 * FrameConstants uniform block; there is no fallback to loose uniforms. */
+			if (!gl.isGL3() && !gl.isExtensionAvailable("GL_ARB_uniform_buffer_object"))
+			{
+				throw new OpenGLException("This renderer requires GL_ARB_uniform_buffer_object (OpenGL 3.1), which this context doesn't support.");
+			}
+
 			/* Load the ubershader. */
 			mUberShader = new ShaderProgram(gl, "shaders/ubershader");
 
@@ -1291,8 +2297,10 @@ public class Renderer
 			
 			/* Shadow map uniforms */
 			mHasShadowMapsUniformLocation = mUberShader.getUniformLocation(gl, "HasShadowMaps");
-			mLightMatrixUniformLocation = mUberShader.getUniformLocation(gl, "LightMatrix");
-			mInverseViewMatrixUniformLocation = mUberShader.getUniformLocation(gl, "InverseViewMatrix");
+			mShadowCascadeCountUniformLocation = mUberShader.getUniformLocation(gl, "ShadowCascadeCount");
+			mShadowCascadeSplitsUniformLocation = mUberShader.getUniformLocation(gl, "ShadowCascadeSplits");
+			mShadowCascadeMatricesUniformLocation = mUberShader.getUniformLocation(gl, "ShadowCascadeMatrices");
+			mShadowCascadeRectsUniformLocation = mUberShader.getUniformLocation(gl, "ShadowCascadeRects");
 			mBiasUniformLocation = mUberShader.getUniformLocation(gl, "bias");
 			mShadowModeUniformLocation = mUberShader.getUniformLocation(gl, "ShadowMode");
 			mShadowMapWidthUniformLocation = mUberShader.getUniformLocation(gl, "ShadowMapWidth");
@@ -1300,16 +2308,6 @@ public class Renderer
 			mShadowSampleWidthUniformLocation = mUberShader.getUniformLocation(gl, "ShadowSampleWidth");
 			mLightWidthUniformLocation = mUberShader.getUniformLocation(gl, "LightWidth");
 			
-			/* snow rendering uniforms */
-			mRenderSnowUniformLocation = mUberShader.getUniformLocation(gl, "RenderSnow");
-			mTransposeInverseViewMatrixUniformLocation = mUberShader.getUniformLocation(gl, "TransposeInverseViewMatrix");
-//			mSnowMapWidthUniformLocation = mUberShader.getUniformLocation(gl, "SnowMapWidth");
-//			mSnowMapHeightUniformLocation = mUberShader.getUniformLocation(gl, "SnowMapHeight");
-//			mOcclMapMatrixUniformLocation = mUberShader.getUniformLocation(gl, "OcclMapMatrix");
-//			mViewMatrixUniformLocation = mUberShader.getUniformLocation(gl, "ViewMatrix");
-//			mSnowAmountUniformLocation = mUberShader.getUniformLocation(gl, "SnowAmount");
-			
-			
 			/* Get the maximum number of lights the shader supports. */
 			int count[] = new int[1];
 			int maxLen[] = new int[1];
@@ -1350,8 +2348,24 @@ public class Renderer
 			
 			mBloomShader.bind(gl);
 			gl.glUniform1i(mBloomShader.getUniformLocation(gl, "FinalSceneBuffer"), 0);
+			gl.glUniform1i(mBloomShader.getUniformLocation(gl, "BloomBuffer"), 1);
+			mBloomScreenSizeUniformLocation = mBloomShader.getUniformLocation(gl, "ScreenSize");
+			mBloomIntensityUniformLocation = mBloomShader.getUniformLocation(gl, "BloomIntensity");
 			mBloomShader.unbind(gl);
 			
+			/* Load the shaders computing the bloom at reduced resolution (see BloomPipeline). */
+			mBloomThresholdShader = new ShaderProgram(gl, "shaders/bloom_threshold");
+			
+			mBloomThresholdShader.bind(gl);
+			gl.glUniform1i(mBloomThresholdShader.getUniformLocation(gl, "FinalSceneBuffer"), 0);
+			mBloomThresholdShader.unbind(gl);
+			
+			mBloomResampleShader = new ShaderProgram(gl, "shaders/bloom_resample");
+			
+			mBloomResampleShader.bind(gl);
+			gl.glUniform1i(mBloomResampleShader.getUniformLocation(gl, "SourceTexture"), 0);
+			mBloomResampleShader.unbind(gl);
+			
 			/* Load the visualization shader. */
 			mVisShader = new ShaderProgram(gl, "shaders/visualize");
 			
@@ -1372,6 +2386,24 @@ public class Renderer
 			mWireframeMaterial = new UnshadedMaterial(new Color3f(0.8f, 0.8f, 0.8f));
 			mWireframeMarkedEdgeMaterial = new UnshadedMaterial(new Color3f(1.0f, 0.0f, 1.0f));
 			
+			/* Draw shared meshes instanced if the context can (instance IDs, and room for a batch's uniforms). */
+			int maxVertexUniforms[] = new int[1];
+			gl.glGetIntegerv(GL2.GL_MAX_VERTEX_UNIFORM_COMPONENTS, maxVertexUniforms, 0);
+			if (gl.isFunctionAvailable("glDrawElementsInstanced") && 
+				(gl.isExtensionAvailable("GL_ARB_draw_instanced") || gl.isGL3()) && 
+				maxVertexUniforms[0] >= InstanceBatcher.REQUIRED_UNIFORM_COMPONENTS)
+			{
+				mInstanceBatcher = new InstanceBatcher();
+				mInstancedMaterial = new InstancedMaterial();
+			}
+			else
+			{
+				System.out.println("Instanced drawing is unavailable; shared meshes are drawn one by one.");
+			}
+			
+			/* Compact texture coordinates are half floats. */
+			mHalfFloatVertices = (gl.isGL3() || gl.isExtensionAvailable("GL_ARB_half_float_vertex"));
+			
 			/* Load the static cube map images */
 			mStaticCubeMap = TextureCubeMap.load(gl, "textures/cubemap/backyard_", ".png", false);
 			mStaticCubeMap.setCubeMapIndex(1); /* The static cube map has index 1. */
@@ -1419,6 +2451,12 @@ public class Renderer
 	{
 		GL2 gl = drawable.getGL().getGL2();
 		
+		/* Nothing to do if the size didn't change. */
+		if (mGBufferFBO != null && width == (int)mViewportWidth && height == (int)mViewportHeight)
+		{
+			return;
+		}
+		
 		/* Store viewport size. */
 		mViewportWidth = width;
 		mViewportHeight = height;
@@ -1427,7 +2465,6 @@ public class Renderer
 		if (mGBufferFBO != null)
 		{
 			mGBufferFBO.releaseGPUResources(gl);
-			mShadowMapFBO.releaseGPUResources(gl);
 			//mSnowOcclusionMapFBO.releaseGPUResources(gl);
 		}
 		
@@ -1435,7 +2472,6 @@ public class Renderer
 		try
 		{
 			mGBufferFBO = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, width, height, GBuffer_Count, true, true);
-			mShadowMapFBO = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, width, height, GBuffer_Count, true, false);
 			//mSnowOcclusionMapFBO = new FramebufferObject(gl, Format.RGBA, Datatype.FLOAT16, width, height, GBuffer_Count, true, false);
 		}
 		catch (OpenGLException err)
@@ -1456,8 +2492,65 @@ public class Renderer
 		mUberShader.releaseGPUResources(gl);
 		mSilhouetteShader.releaseGPUResources(gl);
 		mBloomShader.releaseGPUResources(gl);
+		mBloomThresholdShader.releaseGPUResources(gl);
+		mBloomResampleShader.releaseGPUResources(gl);
 		mVisShader.releaseGPUResources(gl);
-		mShadowMapFBO.releaseGPUResources(gl);
 		mSnowOcclusionMapFBO.releaseGPUResources(gl);
+		mFrameConstants.releaseGPUResources(gl);
+		
+		if (mProfiler != null)
+		{
+			mProfiler.releaseGPUResources(gl);
+		}
+		
+		if (mCubeMapGBufferFBO != null)
+		{
+			mCubeMapGBufferFBO.releaseGPUResources(gl);
+		}
+		
+		if (mShadowMap != null)
+		{
+			mShadowMap.releaseGPUResources(gl);
+		}
+		
+		if (mCubeMapShadowMap != null)
+		{
+			mCubeMapShadowMap.releaseGPUResources(gl);
+		}
+		
+		if (mBloomPipeline != null)
+		{
+			mBloomPipeline.releaseGPUResources(gl);
+		}
+		
+		if (mCubeMapBloomPipeline != null)
+		{
+			mCubeMapBloomPipeline.releaseGPUResources(gl);
+		}
+		
+		if (mTextureStreamer != null)
+		{
+			TextureCache.getShared().setStreamer(null);
+			mTextureStreamer.releaseGPUResources(gl);
+		}
+		
+		/* Save the frames still being read back before the readback buffers go away. */
+		if (mFrameRecorder != null)
+		{
+			try
+			{
+				mFrameRecorder.finish(gl, mReadback, 60000);
+			}
+			catch (Exception err)
+			{
+				err.printStackTrace();
+			}
+			mFrameRecorder.shutdown();
+		}
+		
+		if (mReadback != null)
+		{
+			mReadback.releaseGPUResources(gl);
+		}
 	}
 }
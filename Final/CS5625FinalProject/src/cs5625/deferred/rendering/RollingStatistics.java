@@ -0,0 +1,151 @@
+package cs5625.deferred.rendering;
+
+import java.util.Arrays;
+
+/**
+ * RollingStatistics.java
+ *
+ * Keeps the most recent N samples of some measurement (e.g. a pass time in milliseconds) and
+ * reports their minimum, maximum, average, and percentiles. Adding a sample and querying the
+ * statistics never allocate, so this can be updated every frame.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class RollingStatistics
+{
+	private final double mSamples[];
+	private final double mSorted[];
+	private int mCount = 0;
+	private int mNext = 0;
+	private double mLast = 0.0;
+
+	/* True when mSorted doesn't reflect mSamples anymore. */
+	private boolean mSortedDirty = true;
+
+	/**
+	 * Creates an empty window holding up to `capacity` samples.
+	 */
+	public RollingStatistics(int capacity)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("Capacity must be positive, got " + capacity + ".");
+		}
+
+		mSamples = new double[capacity];
+		mSorted = new double[capacity];
+	}
+
+	/**
+	 * Adds a sample, evicting the oldest one if the window is full.
+	 */
+	public void add(double sample)
+	{
+		mSamples[mNext] = sample;
+		mNext = (mNext + 1) % mSamples.length;
+		mCount = Math.min(mCount + 1, mSamples.length);
+		mLast = sample;
+		mSortedDirty = true;
+	}
+
+	/**
+	 * Removes all samples.
+	 */
+	public void clear()
+	{
+		mCount = 0;
+		mNext = 0;
+		mLast = 0.0;
+		mSortedDirty = true;
+	}
+
+	/**
+	 * Returns the number of samples currently in the window.
+	 */
+	public int getCount()
+	{
+		return mCount;
+	}
+
+	/**
+	 * Returns the maximum number of samples kept.
+	 */
+	public int getCapacity()
+	{
+		return mSamples.length;
+	}
+
+	/**
+	 * Returns the most recently added sample, or 0 if there are none.
+	 */
+	public double getLast()
+	{
+		return mLast;
+	}
+
+	/**
+	 * Returns the smallest sample in the window, or 0 if there are none.
+	 */
+	public double getMin()
+	{
+		return getPercentile(0.0);
+	}
+
+	/**
+	 * Returns the largest sample in the window, or 0 if there are none.
+	 */
+	public double getMax()
+	{
+		return getPercentile(100.0);
+	}
+
+	/**
+	 * Returns the mean of the samples in the window, or 0 if there are none.
+	 */
+	public double getAverage()
+	{
+		if (mCount == 0)
+		{
+			return 0.0;
+		}
+
+		double sum = 0.0;
+		for (int i = 0; i < mCount; ++i)
+		{
+			sum += mSamples[i];
+		}
+
+		return sum / mCount;
+	}
+
+	/**
+	 * Returns the 99th percentile of the samples in the window.
+	 */
+	public double getP99()
+	{
+		return getPercentile(99.0);
+	}
+
+	/**
+	 * Returns the given percentile (0 to 100) of the samples in the window, using the nearest-rank
+	 * method, or 0 if there are none.
+	 */
+	public double getPercentile(double percentile)
+	{
+		if (mCount == 0)
+		{
+			return 0.0;
+		}
+
+		if (mSortedDirty)
+		{
+			System.arraycopy(mSamples, 0, mSorted, 0, mCount);
+			Arrays.sort(mSorted, 0, mCount);
+			mSortedDirty = false;
+		}
+
+		int rank = (int)Math.ceil(percentile / 100.0 * mCount);
+		return mSorted[Math.max(0, Math.min(mCount - 1, rank - 1))];
+	}
+}
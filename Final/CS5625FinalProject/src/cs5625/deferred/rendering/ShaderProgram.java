@@ -95,6 +95,9 @@ public class ShaderProgram implements OpenGLResourceObject
 			/* Throw an exception explaining what broke. */
 			throw new OpenGLException("Failed to link shader '" + identifier + "': " + new String(infoLog));
 		}
+		
+		/* Attach the shared per-pass uniform block, if this shader uses it. */
+		FrameConstants.attachBlock(gl, mHandle);
 	}
 	
 	/**
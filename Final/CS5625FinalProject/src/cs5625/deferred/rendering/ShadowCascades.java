@@ -0,0 +1,170 @@
+package cs5625.deferred.rendering;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+
+/**
+ * ShadowCascades.java
+ *
+ * The math behind cascaded shadow maps: splitting the view frustum into depth ranges, finding the
+ * corners of each range, and fitting a crop matrix so that the light's shadow map covers just that
+ * range. None of this touches OpenGL, and none of it allocates.
+ *
+ * A crop matrix is applied after the light's projection (`crop * lightProjection * lightView`). It
+ * scales and translates the light's clip space in x and y so that the part of the view frustum being
+ * fitted fills the shadow map, and leaves depth alone so that casters outside the frustum still cast.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class ShadowCascades
+{
+	/* Crop sizes are rounded up to steps of 2^(1/8), so the crop (and thus texel size) only changes
+	 * when the fitted region grows or shrinks by about 9%, rather than on every camera rotation. */
+	private static final float CROP_SIZE_STEPS_PER_OCTAVE = 8.0f;
+
+	/**
+	 * Splits the depth range [near, far] into `count` ranges, blending between logarithmic splits
+	 * (lambda = 1), which give each range the same ratio of far to near, and uniform splits (lambda = 0).
+	 *
+	 * @param near Near plane distance of the view camera.
+	 * @param far Distance to cover with shadows (at most the view camera's far plane distance).
+	 * @param count Number of ranges.
+	 * @param lambda Blend between uniform (0) and logarithmic (1) splits; 0.5 to 0.8 works well.
+	 * @param result Receives `count + 1` distances: result[0] = near, result[count] = far, and
+	 *        range i covers [result[i], result[i + 1]].
+	 */
+	public static void computeSplitDistances(float near, float far, int count, float lambda, float result[])
+	{
+		result[0] = near;
+
+		for (int i = 1; i < count; ++i)
+		{
+			float s = (float)i / count;
+			float logarithmic = near * (float)Math.pow(far / near, s);
+			float uniform = near + (far - near) * s;
+			result[i] = lambda * logarithmic + (1.0f - lambda) * uniform;
+		}
+
+		result[count] = far;
+	}
+
+	/**
+	 * Computes the world space corners of the part of a perspective view frustum between two distances.
+	 *
+	 * @param fov Vertical field of view of the camera, in degrees.
+	 * @param aspect Width over height of the camera's viewport.
+	 * @param near Distance to the near end of the range.
+	 * @param far Distance to the far end of the range.
+	 * @param cameraToWorld The camera's world space transformation (the inverse of its view matrix).
+	 * @param result Receives 8 corners: 4 on the near plane, then 4 on the far plane.
+	 */
+	public static void computeFrustumCorners(float fov, float aspect, float near, float far, Matrix4f cameraToWorld, Point3f result[])
+	{
+		float tanHalfFov = (float)Math.tan(fov * 0.5 * Math.PI / 180.0);
+
+		for (int plane = 0; plane < 2; ++plane)
+		{
+			float distance = (plane == 0 ? near : far);
+			float halfHeight = distance * tanHalfFov;
+			float halfWidth = halfHeight * aspect;
+
+			for (int corner = 0; corner < 4; ++corner)
+			{
+				/* The camera looks down -z in its own space. */
+				Point3f p = result[plane * 4 + corner];
+				p.set((corner == 0 || corner == 3) ? -halfWidth : halfWidth, (corner < 2) ? -halfHeight : halfHeight, -distance);
+				cameraToWorld.transform(p);
+			}
+		}
+	}
+
+	/**
+	 * Computes the crop matrix which makes the light's shadow map cover the given points as tightly as
+	 * possible, keeping texels square and snapping the crop to whole texels so that shadow edges don't
+	 * shimmer as the view camera moves.
+	 *
+	 * If any point is behind the light (possible with a perspective light), the region can't be bounded
+	 * in the light's clip space, so the crop is the identity (the whole light frustum) and false is returned.
+	 *
+	 * @param lightViewProjection The light's projection times its view matrix.
+	 * @param points World space points to cover, e.g. from `computeFrustumCorners()`.
+	 * @param count Number of points to use.
+	 * @param resolution Width (and height) of the shadow map in texels.
+	 * @param result Receives the crop matrix.
+	 * @return True if the crop was fitted, false if it fell back to the identity.
+	 */
+	public static boolean computeCropMatrix(Matrix4f lightViewProjection, Point3f points[], int count, int resolution, Matrix4f result)
+	{
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		Matrix4f m = lightViewProjection;
+
+		for (int i = 0; i < count; ++i)
+		{
+			Point3f p = points[i];
+			float w = m.m30 * p.x + m.m31 * p.y + m.m32 * p.z + m.m33;
+
+			if (w <= 1e-6f)
+			{
+				result.setIdentity();
+				return false;
+			}
+
+			float x = (m.m00 * p.x + m.m01 * p.y + m.m02 * p.z + m.m03) / w;
+			float y = (m.m10 * p.x + m.m11 * p.y + m.m12 * p.z + m.m13) / w;
+
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+
+		/* Nothing outside the light's frustum can be shadowed, so don't spend texels on it. */
+		minX = Math.max(minX, -1.0f);
+		minY = Math.max(minY, -1.0f);
+		maxX = Math.min(maxX, 1.0f);
+		maxY = Math.min(maxY, 1.0f);
+
+		if (minX >= maxX || minY >= maxY)
+		{
+			/* The region is entirely outside the light; any crop will do. */
+			result.setIdentity();
+			return true;
+		}
+
+		/* Square crop with a texel of margin on each side, so snapping can't push points out. */
+		float size = Math.max(maxX - minX, maxY - minY) * (1.0f + 2.0f / resolution);
+		size = Math.min(2.0f, quantizeSize(size));
+
+		/* Snap the crop center to whole texels of the cropped map. */
+		float texel = size / resolution;
+		float centerX = snap(0.5f * (minX + maxX), texel);
+		float centerY = snap(0.5f * (minY + maxY), texel);
+
+		float scale = 2.0f / size;
+		result.setIdentity();
+		result.m00 = scale;
+		result.m11 = scale;
+		result.m03 = -scale * centerX;
+		result.m13 = -scale * centerY;
+		return true;
+	}
+
+	/**
+	 * Rounds a crop size up to the next of a fixed set of sizes, spaced evenly on a log scale.
+	 */
+	public static float quantizeSize(float size)
+	{
+		double steps = Math.ceil(Math.log(size) / Math.log(2.0) * CROP_SIZE_STEPS_PER_OCTAVE - 1e-4);
+		return (float)Math.pow(2.0, steps / CROP_SIZE_STEPS_PER_OCTAVE);
+	}
+
+	/**
+	 * Rounds `value` to the nearest multiple of `step`.
+	 */
+	public static float snap(float value, float step)
+	{
+		return (float)Math.floor(value / step + 0.5f) * step;
+	}
+}
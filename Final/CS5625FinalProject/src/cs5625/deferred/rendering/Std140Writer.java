@@ -0,0 +1,188 @@
+package cs5625.deferred.rendering;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.vecmath.Matrix3f;
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Tuple3f;
+
+/**
+ * Std140Writer.java
+ *
+ * Packs values into a byte buffer following the GLSL `std140` uniform block layout rules,
+ * so the buffer can be uploaded as-is into a uniform buffer object. Members must be written
+ * in the order they are declared in the block.
+ *
+ * The rules implemented here (GL 3.1 spec, section 2.11.4):
+ *   - float, int, bool: 4 bytes, aligned to 4.
+ *   - vec2: 8 bytes, aligned to 8.
+ *   - vec3: 12 bytes, aligned to 16 (the next scalar may pack into the last 4 bytes).
+ *   - vec4: 16 bytes, aligned to 16.
+ *   - matN: N column vectors, each padded to a vec4 (so mat3 is 48 bytes and mat4 is 64).
+ *   - The size of the whole block is rounded up to a multiple of 16.
+ *
+ * This class doesn't touch OpenGL.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class Std140Writer
+{
+	private final ByteBuffer mBuffer;
+
+	/**
+	 * Creates a writer which packs into the given buffer, starting at position 0.
+	 * The buffer's byte order is set to the native order, which is what OpenGL expects.
+	 */
+	public Std140Writer(ByteBuffer buffer)
+	{
+		mBuffer = buffer;
+		mBuffer.order(ByteOrder.nativeOrder());
+		mBuffer.clear();
+	}
+
+	/**
+	 * Returns the buffer being written to.
+	 */
+	public ByteBuffer getBuffer()
+	{
+		return mBuffer;
+	}
+
+	/**
+	 * Returns the current offset, i.e. the number of bytes written including padding.
+	 */
+	public int getOffset()
+	{
+		return mBuffer.position();
+	}
+
+	/**
+	 * Returns the std140 size of everything written so far, rounded up to a multiple of 16.
+	 */
+	public int getBlockSize()
+	{
+		return align(mBuffer.position(), 16);
+	}
+
+	/**
+	 * Rewinds to offset 0, so the same block can be written again.
+	 */
+	public void reset()
+	{
+		mBuffer.clear();
+	}
+
+	/**
+	 * Rounds `offset` up to the next multiple of `alignment`.
+	 */
+	public static int align(int offset, int alignment)
+	{
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	/**
+	 * Writes a float member and returns its offset.
+	 */
+	public int putFloat(float value)
+	{
+		int offset = pad(4);
+		mBuffer.putFloat(value);
+		return offset;
+	}
+
+	/**
+	 * Writes an int member and returns its offset.
+	 */
+	public int putInt(int value)
+	{
+		int offset = pad(4);
+		mBuffer.putInt(value);
+		return offset;
+	}
+
+	/**
+	 * Writes a bool member (stored as a 4-byte int) and returns its offset.
+	 */
+	public int putBool(boolean value)
+	{
+		return putInt(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a vec2 member and returns its offset.
+	 */
+	public int putVec2(float x, float y)
+	{
+		int offset = pad(8);
+		mBuffer.putFloat(x).putFloat(y);
+		return offset;
+	}
+
+	/**
+	 * Writes a vec3 member and returns its offset.
+	 */
+	public int putVec3(float x, float y, float z)
+	{
+		int offset = pad(16);
+		mBuffer.putFloat(x).putFloat(y).putFloat(z);
+		return offset;
+	}
+
+	/**
+	 * Writes a vec3 member from a tuple and returns its offset.
+	 */
+	public int putVec3(Tuple3f value)
+	{
+		return putVec3(value.x, value.y, value.z);
+	}
+
+	/**
+	 * Writes a vec4 member and returns its offset.
+	 */
+	public int putVec4(float x, float y, float z, float w)
+	{
+		int offset = pad(16);
+		mBuffer.putFloat(x).putFloat(y).putFloat(z).putFloat(w);
+		return offset;
+	}
+
+	/**
+	 * Writes a mat3 member (3 columns, each padded to a vec4) and returns its offset.
+	 */
+	public int putMat3(Matrix3f m)
+	{
+		int offset = pad(16);
+		mBuffer.putFloat(m.m00).putFloat(m.m10).putFloat(m.m20).putFloat(0.0f);
+		mBuffer.putFloat(m.m01).putFloat(m.m11).putFloat(m.m21).putFloat(0.0f);
+		mBuffer.putFloat(m.m02).putFloat(m.m12).putFloat(m.m22).putFloat(0.0f);
+		return offset;
+	}
+
+	/**
+	 * Writes a mat4 member (column-major) and returns its offset.
+	 */
+	public int putMat4(Matrix4f m)
+	{
+		int offset = pad(16);
+		mBuffer.putFloat(m.m00).putFloat(m.m10).putFloat(m.m20).putFloat(m.m30);
+		mBuffer.putFloat(m.m01).putFloat(m.m11).putFloat(m.m21).putFloat(m.m31);
+		mBuffer.putFloat(m.m02).putFloat(m.m12).putFloat(m.m22).putFloat(m.m32);
+		mBuffer.putFloat(m.m03).putFloat(m.m13).putFloat(m.m23).putFloat(m.m33);
+		return offset;
+	}
+
+	/**
+	 * Zero-fills up to the given alignment and returns the aligned offset.
+	 */
+	private int pad(int alignment)
+	{
+		int offset = align(mBuffer.position(), alignment);
+		while (mBuffer.position() < offset)
+		{
+			mBuffer.put((byte)0);
+		}
+		return offset;
+	}
+}
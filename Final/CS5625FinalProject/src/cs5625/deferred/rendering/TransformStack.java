@@ -0,0 +1,80 @@
+package cs5625.deferred.rendering;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
+
+/**
+ * TransformStack.java
+ *
+ * A CPU copy of the modelview matrix stack, kept by the renderer while it walks the scene for the
+ * passes which need each object's modelview matrix without reading it back from OpenGL (instance
+ * batching, occlusion culling). `push()` and `pop()` mirror glPushMatrix() with glTranslatef(),
+ * glRotatef(), and glScalef(), and glPopMatrix(). Nothing is allocated once the stack has grown to
+ * the depth of the scene.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TransformStack
+{
+	/* mStack[mDepth] is the current matrix. */
+	private Matrix4f mStack[] = new Matrix4f[0];
+	private int mDepth = 0;
+	private final Matrix4f mLocal = new Matrix4f();
+	private final Vector3f mTranslation = new Vector3f();
+
+	/**
+	 * Empties the stack, leaving `root` (e.g. the camera's view matrix) as the current matrix.
+	 */
+	public void reset(Matrix4f root)
+	{
+		mDepth = 0;
+		ensureDepth(0);
+		mStack[0].set(root);
+	}
+
+	/**
+	 * Multiplies the current matrix by an object's transform, pushing the result.
+	 */
+	public void push(Point3f position, Quat4f orientation, float scale)
+	{
+		ensureDepth(mDepth + 1);
+
+		mTranslation.set(position);
+		mLocal.set(orientation, mTranslation, scale);
+		mStack[mDepth + 1].mul(mStack[mDepth], mLocal);
+		++mDepth;
+	}
+
+	/**
+	 * Pops the matrix pushed by the last `push()`.
+	 */
+	public void pop()
+	{
+		--mDepth;
+	}
+
+	/**
+	 * Returns the current matrix. Only valid until the next `push()` or `pop()`.
+	 */
+	public Matrix4f peek()
+	{
+		return mStack[mDepth];
+	}
+
+	private void ensureDepth(int depth)
+	{
+		if (depth >= mStack.length)
+		{
+			Matrix4f stack[] = new Matrix4f[Math.max(depth + 1, 2 * mStack.length)];
+			System.arraycopy(mStack, 0, stack, 0, mStack.length);
+			for (int i = mStack.length; i < stack.length; ++i)
+			{
+				stack[i] = new Matrix4f();
+			}
+			mStack = stack;
+		}
+	}
+}
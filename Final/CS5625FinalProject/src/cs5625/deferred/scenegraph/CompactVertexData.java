@@ -0,0 +1,512 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+
+import javax.vecmath.Point3f;
+
+import com.jogamp.common.nio.Buffers;
+
+import cs5625.deferred.materials.Material;
+
+/**
+ * CompactVertexData.java
+ *
+ * Compact copies of a mesh's vertex data, which the renderer draws from instead of the float buffers
+ * when the mesh's material can decode them (see `Material.supportsCompactVertices()`):
+ *
+ *  - Positions are 3 signed shorts, quantized to the cube around the mesh's bounding box. The cube is
+ *    the same size along each axis, so that the renderer can undo the quantization in the modelview
+ *    matrix (`getPositionOffset()`, `getPositionScale()`) without changing the normal matrix's directions.
+ *  - Normals are 2 normalized signed shorts holding the octahedral encoding of the normal; the vertex
+ *    shader decodes them with the inverse of `encodeOctahedral()`, as `decodeOctahedral()` does here.
+ *  - Texture coordinates are 2 half floats.
+ *  - Tangents ("VertexTangent" attributes) are octahedral encoded like normals, with the handedness in
+ *    the sign of the second component, which costs that component one bit of precision.
+ *
+ * That is 6 + 4 + 4 + 4 = 18 bytes per vertex, rather than 12 + 12 + 8 + 16 = 48. The float buffers
+ * stay in the mesh for everything that reads vertex data on the CPU (simplification, tangent generation,
+ * texture atlasing), until `Mesh.discardFloatVertexData()` drops them; after that, the mesh's bounds come
+ * from here, and the occlusion culler reads the quantized positions.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class CompactVertexData
+{
+	/** Largest magnitude of a quantized position or normalized short. */
+	public static final int SHORT_SCALE = 32767;
+
+	/* Number of steps of the second tangent component, which gives up a bit to the handedness. */
+	private static final int TANGENT_STEPS = SHORT_SCALE - 1;
+
+	/* Shader attribute names of the generic attributes with a compact encoding; see `getCompactAttributeName()`. */
+	private static final HashMap<String, String> COMPACT_ATTRIBUTE_NAMES = new HashMap<String, String>();
+
+	static
+	{
+		COMPACT_ATTRIBUTE_NAMES.put("VertexTangent", "CompactVertexTangent");
+	}
+
+	private final ShortBuffer mPositions, mNormals, mTexCoords;
+	private final HashMap<String, ShortBuffer> mAttribs = new HashMap<String, ShortBuffer>();
+	private final Point3f mPositionOffset = new Point3f();
+	private final Point3f mBoundsMin = new Point3f(), mBoundsMax = new Point3f();
+	private float mPositionScale = 1.0f;
+	private int mFloatByteCount = 0;
+
+	private CompactVertexData(ShortBuffer positions, ShortBuffer normals, ShortBuffer texcoords)
+	{
+		mPositions = positions;
+		mNormals = normals;
+		mTexCoords = texcoords;
+	}
+
+	/**
+	 * Encodes a mesh's vertex data. Generic attributes other than "VertexTangent" have no compact
+	 * encoding, so a material which requires one will draw the mesh from its float buffers.
+	 *
+	 * @return The compact data, or null if the mesh has no vertices.
+	 */
+	public static CompactVertexData encode(Mesh mesh)
+	{
+		int vertexCount = mesh.getVertexCount();
+		Point3f min = new Point3f(), max = new Point3f();
+		if (!mesh.getBounds(min, max))
+		{
+			return null;
+		}
+
+		/* Quantize positions to the cube around the bounds, centered on them. */
+		Point3f offset = new Point3f();
+		offset.interpolate(min, max, 0.5f);
+		float halfSize = 0.5f * Math.max(max.x - min.x, Math.max(max.y - min.y, max.z - min.z));
+		if (halfSize <= 0.0f)
+		{
+			halfSize = 1.0f;
+		}
+
+		FloatBuffer vertices = mesh.getVertexData();
+		short positions[] = new short[3 * vertexCount];
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			positions[3 * v + 0] = encodeSNorm((vertices.get(3 * v + 0) - offset.x) / halfSize);
+			positions[3 * v + 1] = encodeSNorm((vertices.get(3 * v + 1) - offset.y) / halfSize);
+			positions[3 * v + 2] = encodeSNorm((vertices.get(3 * v + 2) - offset.z) / halfSize);
+		}
+
+		ShortBuffer normals = null;
+		if (mesh.getNormalData() != null)
+		{
+			FloatBuffer data = mesh.getNormalData();
+			short encoded[] = new short[2 * vertexCount];
+			for (int v = 0; v < vertexCount; ++v)
+			{
+				encodeOctahedral(data.get(3 * v + 0), data.get(3 * v + 1), data.get(3 * v + 2), encoded, 2 * v);
+			}
+			normals = Buffers.newDirectShortBuffer(encoded);
+		}
+
+		ShortBuffer texcoords = null;
+		if (mesh.getTexCoordData() != null)
+		{
+			FloatBuffer data = mesh.getTexCoordData();
+			short encoded[] = new short[2 * vertexCount];
+			for (int i = 0; i < encoded.length; ++i)
+			{
+				encoded[i] = encodeHalf(data.get(i));
+			}
+			texcoords = Buffers.newDirectShortBuffer(encoded);
+		}
+
+		CompactVertexData result = new CompactVertexData(Buffers.newDirectShortBuffer(positions), normals, texcoords);
+		result.mPositionOffset.set(offset);
+		result.mBoundsMin.set(min);
+		result.mBoundsMax.set(max);
+		result.mPositionScale = halfSize / SHORT_SCALE;
+		result.mFloatByteCount = 4 * (3 + (normals == null ? 0 : 3) + (texcoords == null ? 0 : 2)) * vertexCount;
+
+		FloatBuffer tangents = mesh.vertexAttribData.get("VertexTangent");
+		if (tangents != null && tangents.capacity() == 4 * vertexCount)
+		{
+			short encoded[] = new short[2 * vertexCount];
+			for (int v = 0; v < vertexCount; ++v)
+			{
+				encodeTangent(tangents.get(4 * v + 0), tangents.get(4 * v + 1), tangents.get(4 * v + 2), tangents.get(4 * v + 3), encoded, 2 * v);
+			}
+			result.mAttribs.put("VertexTangent", Buffers.newDirectShortBuffer(encoded));
+			result.mFloatByteCount += 4 * tangents.capacity();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns quantized positions, 3 shorts per vertex; object space positions are
+	 * `getPositionOffset() + getPositionScale() * position`.
+	 */
+	public ShortBuffer getPositions()
+	{
+		return mPositions;
+	}
+
+	public Point3f getPositionOffset()
+	{
+		return mPositionOffset;
+	}
+
+	/**
+	 * Returns the number of vertices encoded.
+	 */
+	public int getVertexCount()
+	{
+		return mPositions.capacity() / 3;
+	}
+
+	/**
+	 * Gets the exact bounding box of the mesh's float positions, as it was when encoded.
+	 */
+	public void getBounds(Point3f min, Point3f max)
+	{
+		min.set(mBoundsMin);
+		max.set(mBoundsMax);
+	}
+
+	/**
+	 * Returns true if every generic attribute a material requires has a compact encoding here. (Whether
+	 * the material's shader decodes compact data at all is only known once it is loaded; see
+	 * `Material.supportsCompactVertices()`.)
+	 */
+	public boolean hasAttributesFor(Material material)
+	{
+		String requiredAttributes[] = material.getRequiredVertexAttributes();
+		for (int i = 0; i < requiredAttributes.length; ++i)
+		{
+			if (mAttribs.get(requiredAttributes[i]) == null)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public float getPositionScale()
+	{
+		return mPositionScale;
+	}
+
+	/**
+	 * Returns octahedral encoded normals, 2 normalized shorts per vertex, or null if the mesh has no normals.
+	 */
+	public ShortBuffer getNormals()
+	{
+		return mNormals;
+	}
+
+	/**
+	 * Returns texture coordinates, 2 half floats per vertex, or null if the mesh has no texture coordinates.
+	 */
+	public ShortBuffer getTexCoords()
+	{
+		return mTexCoords;
+	}
+
+	/**
+	 * Returns the compact encoding of the named generic attribute, 2 normalized shorts per vertex, or null
+	 * if there isn't one. Shaders read it as the attribute named "Compact" followed by the attribute's name.
+	 */
+	public ShortBuffer getAttribData(String name)
+	{
+		return mAttribs.get(name);
+	}
+
+	/**
+	 * Returns the name shaders read the compact encoding of a generic attribute as ("Compact" followed by
+	 * the attribute's name), or null if the attribute has no compact encoding. The names are kept in a
+	 * table, so that looking one up while drawing doesn't build a string.
+	 */
+	public static String getCompactAttributeName(String name)
+	{
+		return COMPACT_ATTRIBUTE_NAMES.get(name);
+	}
+
+	/**
+	 * Returns the number of bytes of vertex data held here.
+	 */
+	public int getByteCount()
+	{
+		int count = 2 * mPositions.capacity();
+		count += (mNormals == null ? 0 : 2 * mNormals.capacity());
+		count += (mTexCoords == null ? 0 : 2 * mTexCoords.capacity());
+		for (ShortBuffer attrib : mAttribs.values())
+		{
+			count += 2 * attrib.capacity();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of bytes the same attributes take as floats in the mesh, for comparison with
+	 * `getByteCount()`.
+	 */
+	public int getFloatByteCount()
+	{
+		return mFloatByteCount;
+	}
+
+	/**
+	 * Returns a one line report of the vertex memory of a model's meshes, at every level of detail: what it
+	 * would take as float buffers alone, and what is actually resident, i.e. the compact copies plus the float
+	 * buffers still kept (all of them, unless `Mesh.discardFloatVertexData()` was called). Buffers shared by
+	 * several meshes, such as those of clones, count once.
+	 *
+	 * @param name The model's name, for the report.
+	 * @param objects The model's objects, e.g. as returned by `Geometry.load()`.
+	 */
+	public static String getMemorySummary(String name, List<? extends SceneObject> objects)
+	{
+		/* {mesh count, bytes as floats, compact bytes, float bytes kept} */
+		long counts[] = new long[4];
+		IdentityHashMap<Object, Boolean> counted = new IdentityHashMap<Object, Boolean>();
+		for (SceneObject object : objects)
+		{
+			countBytes(object, counted, counts);
+		}
+
+		long resident = counts[2] + counts[3];
+		return String.format(Locale.US, "%s: %d meshes, %.1f KB of vertex data as floats; %.1f KB resident (%.0f%%): %.1f KB compact, %.1f KB of float buffers kept",
+				name, counts[0], counts[1] / 1024.0, resident / 1024.0, 100.0 * resident / Math.max(counts[1], 1), counts[2] / 1024.0, counts[3] / 1024.0);
+	}
+
+	/* Adds {mesh count, bytes as floats, compact bytes, float bytes kept} of the meshes under an object to `counts`. */
+	private static void countBytes(SceneObject object, IdentityHashMap<Object, Boolean> counted, long counts[])
+	{
+		if (object instanceof Geometry)
+		{
+			Geometry geometry = (Geometry)object;
+			for (int level = 0; level < geometry.getLevelOfDetailCount(); ++level)
+			{
+				for (Mesh mesh : geometry.getLevelOfDetailMeshes(level))
+				{
+					if (counted.put(mesh, Boolean.TRUE) != null)
+					{
+						continue;
+					}
+					++counts[0];
+
+					long kept = countFloatBytes(mesh.getVertexData(), counted) + countFloatBytes(mesh.getNormalData(), counted) + 
+							countFloatBytes(mesh.getTexCoordData(), counted);
+					for (FloatBuffer attrib : mesh.vertexAttribData.values())
+					{
+						kept += countFloatBytes(attrib, counted);
+					}
+					counts[3] += kept;
+
+					/* Once the float buffers are gone, the compact data is the record of what they held. */
+					CompactVertexData compact = mesh.getCompactVertexData();
+					boolean newCompact = (compact != null && counted.put(compact, Boolean.TRUE) == null);
+					counts[1] += kept + (newCompact && mesh.getVertexData() == null ? compact.getFloatByteCount() : 0);
+					counts[2] += (newCompact ? compact.getByteCount() : 0);
+				}
+			}
+		}
+
+		for (SceneObject child : object.getChildren())
+		{
+			countBytes(child, counted, counts);
+		}
+	}
+
+	/* Returns the size of a float buffer, the first time it is seen, or 0. */
+	private static long countFloatBytes(FloatBuffer buffer, IdentityHashMap<Object, Boolean> counted)
+	{
+		return (buffer != null && counted.put(buffer, Boolean.TRUE) == null ? 4L * buffer.capacity() : 0);
+	}
+
+	/**
+	 * Quantizes a value in [-1, 1] to a normalized short, as OpenGL reads them (value * 32767).
+	 */
+	public static short encodeSNorm(float value)
+	{
+		return (short)Math.round(Math.max(-1.0f, Math.min(1.0f, value)) * SHORT_SCALE);
+	}
+
+	public static float decodeSNorm(short value)
+	{
+		return Math.max(-1.0f, (float)value / SHORT_SCALE);
+	}
+
+	/**
+	 * Encodes a direction as 2 normalized shorts: the direction is projected onto the octahedron
+	 * |x| + |y| + |z| = 1, whose lower half is folded over the upper half and flattened onto the square [-1, 1]^2.
+	 *
+	 * @param x, y, z The direction; need not be normalized.
+	 * @param out Receives the 2 shorts.
+	 * @param offset Index in `out` of the first short.
+	 */
+	public static void encodeOctahedral(float x, float y, float z, short out[], int offset)
+	{
+		float u[] = new float[2];
+		project(x, y, z, u);
+		out[offset] = encodeSNorm(u[0]);
+		out[offset + 1] = encodeSNorm(u[1]);
+	}
+
+	/**
+	 * Decodes a direction encoded by `encodeOctahedral()`, the same way the vertex shaders do.
+	 *
+	 * @param out Receives the normalized direction's 3 components, starting at index `offset`.
+	 */
+	public static void decodeOctahedral(short encoded[], int offset, float out[], int outOffset)
+	{
+		unproject(decodeSNorm(encoded[offset]), decodeSNorm(encoded[offset + 1]), out, outOffset);
+	}
+
+	/**
+	 * Encodes a tangent and its handedness as 2 shorts; see the class comment.
+	 *
+	 * @param w The handedness; only its sign is kept.
+	 */
+	public static void encodeTangent(float x, float y, float z, float w, short out[], int offset)
+	{
+		float u[] = new float[2];
+		project(x, y, z, u);
+
+		/* Map the second component to [1, 32767] steps, so its sign is free to hold the handedness. */
+		int second = 1 + Math.round((0.5f * u[1] + 0.5f) * TANGENT_STEPS);
+		out[offset] = encodeSNorm(u[0]);
+		out[offset + 1] = (short)(w < 0.0f ? -second : second);
+	}
+
+	/**
+	 * Decodes a tangent encoded by `encodeTangent()`, the same way the vertex shaders do.
+	 *
+	 * @param out Receives the normalized tangent and the handedness (1 or -1), starting at index `outOffset`.
+	 */
+	public static void decodeTangent(short encoded[], int offset, float out[], int outOffset)
+	{
+		float second = decodeSNorm(encoded[offset + 1]);
+		float v = (Math.abs(second) * SHORT_SCALE - 1.0f) / TANGENT_STEPS * 2.0f - 1.0f;
+		unproject(decodeSNorm(encoded[offset]), v, out, outOffset);
+		out[outOffset + 3] = (second < 0.0f ? -1.0f : 1.0f);
+	}
+
+	/**
+	 * Converts a float to the nearest half float (1 sign, 5 exponent and 10 mantissa bits), rounding
+	 * ties to even. Values too large become infinity, and values too small become (signed) zero.
+	 */
+	public static short encodeHalf(float value)
+	{
+		int bits = Float.floatToIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int exponent = (bits >>> 23) & 0xff;
+		int mantissa = bits & 0x7fffff;
+
+		if (exponent == 0xff)
+		{
+			/* Infinity or NaN; keep NaNs NaN. */
+			return (short)(sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+		}
+
+		int halfExponent = exponent - 127 + 15;
+		if (halfExponent >= 0x1f)
+		{
+			return (short)(sign | 0x7c00);
+		}
+
+		int shift;
+		if (halfExponent <= 0)
+		{
+			/* Denormal half, or zero; shift the mantissa (with its implicit 1) into place. */
+			if (halfExponent < -10)
+			{
+				return (short)sign;
+			}
+			mantissa |= 0x800000;
+			shift = 14 - halfExponent;
+			halfExponent = 0;
+		}
+		else
+		{
+			shift = 13;
+		}
+
+		int half = mantissa >>> shift;
+		int remainder = mantissa & ((1 << shift) - 1);
+		int halfway = 1 << (shift - 1);
+
+		/* A mantissa carry rounds up into the exponent, which is what we want. */
+		int result = (halfExponent << 10) + half;
+		if (remainder > halfway || (remainder == halfway && (half & 1) != 0))
+		{
+			++result;
+		}
+		return (short)(sign | result);
+	}
+
+	public static float decodeHalf(short value)
+	{
+		int bits = value & 0xffff;
+		int sign = (bits & 0x8000) << 16;
+		int exponent = (bits >>> 10) & 0x1f;
+		int mantissa = bits & 0x3ff;
+
+		if (exponent == 0x1f)
+		{
+			return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+		}
+		else if (exponent == 0)
+		{
+			float magnitude = mantissa * (1.0f / (1 << 24));
+			return (sign != 0 ? -magnitude : magnitude);
+		}
+		else
+		{
+			return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+		}
+	}
+
+	/* Projects a direction onto the octahedron, and folds it onto the square [-1, 1]^2. */
+	private static void project(float x, float y, float z, float out[])
+	{
+		float norm = Math.abs(x) + Math.abs(y) + Math.abs(z);
+		if (norm == 0.0f)
+		{
+			/* Zero vectors (e.g. tangents of untextured vertices) decode as +z. */
+			out[0] = 0.0f;
+			out[1] = 0.0f;
+			return;
+		}
+		
+		float u = x / norm, v = y / norm;
+		if (z < 0.0f)
+		{
+			float foldedU = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+			float foldedV = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+			u = foldedU;
+			v = foldedV;
+		}
+		out[0] = u;
+		out[1] = v;
+	}
+
+	/* Inverse of `project()`, followed by normalization. */
+	private static void unproject(float u, float v, float out[], int offset)
+	{
+		float x = u, y = v, z = 1.0f - Math.abs(u) - Math.abs(v);
+		if (z < 0.0f)
+		{
+			x = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+			y = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+		}
+		float length = (float)Math.sqrt(x * x + y * y + z * z);
+		out[offset] = x / length;
+		out[offset + 1] = y / length;
+		out[offset + 2] = z / length;
+	}
+}
@@ -0,0 +1,482 @@
+package cs5625.deferred.scenegraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Quat4f;
+
+/**
+ * FlatSceneGraph.java
+ *
+ * A data-oriented copy of the hierarchy under a scenegraph node: the nodes in depth-first order, with
+ * parallel arrays of parent indices, local transforms (position, orientation, scale), and local-to-world
+ * matrices. Since every parent comes before its children, `update()` computes all world matrices in one
+ * linear pass, without recursion or pointer chasing through child lists; the nodes stay the place where
+ * transforms are edited, and are read once per pass. Each node knows its index (`SceneObject.getFlatIndex()`),
+ * so it acts as a handle into the arrays.
+ *
+ * The subtree of a node is the contiguous range [index, `getSubtreeEnd(index)`). Big graphs are split
+ * into ranges of whole subtrees, small enough to balance, whose ancestors (the "spine") are updated
+ * first; the ranges are then updated in parallel on a shared fork/join pool. Adding or removing a child
+ * anywhere in the graph marks it as changed, and the next `update()` flattens it again.
+ *
+ * If the root has a parent, its world matrix is found by walking up from the parent once per update.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class FlatSceneGraph
+{
+	/* Graphs with fewer nodes than this are updated on the calling thread. */
+	private static final int PARALLEL_THRESHOLD = 16384;
+
+	/* Smallest range worth a task of its own. */
+	private static final int MIN_RANGE_SIZE = 2048;
+
+	/* Ranges per pool thread, so that uneven subtrees still balance. */
+	private static final int RANGES_PER_THREAD = 4;
+
+	/* Floats per world matrix: the top 3 rows, row-major; the bottom row is always (0, 0, 0, 1). */
+	private static final int MATRIX_SIZE = 12;
+
+	private static ForkJoinPool sPool = null;
+
+	private final SceneObject mRoot;
+	private boolean mChanged = true;
+
+	/* Per node, in depth-first order. */
+	private SceneObject mObjects[] = new SceneObject[0];
+	private int mParents[] = new int[0];
+	private int mSubtreeEnds[] = new int[0];
+	private float mPositions[] = new float[0];
+	private float mOrientations[] = new float[0];
+	private float mScales[] = new float[0];
+	private float mWorldMatrices[] = new float[0];
+	private int mNodeCount = 0;
+
+	/* World matrix of the root's parent, in the same layout; identity if the root has none. */
+	private final float mRootParentMatrix[] = new float[MATRIX_SIZE];
+	private final Matrix4f mScratch = new Matrix4f();
+
+	/* Nodes updated serially before the ranges, and [first, end) pairs of the ranges updated in parallel. */
+	private int mSpine[] = new int[0];
+	private int mRanges[] = new int[0];
+
+	/**
+	 * Creates a flattened graph of `root` and its descendants. Nothing is flattened until the first `update()`.
+	 */
+	public FlatSceneGraph(SceneObject root)
+	{
+		mRoot = root;
+	}
+
+	public SceneObject getRoot()
+	{
+		return mRoot;
+	}
+
+	/**
+	 * Marks the hierarchy as changed, so that the next `update()` flattens it again. Called by
+	 * `SceneObject.addChild()` and `removeChild()` on nodes of this graph.
+	 */
+	public void invalidate()
+	{
+		mChanged = true;
+	}
+
+	/**
+	 * Returns true if the hierarchy changed since the last `update()`, which makes indices and matrices stale.
+	 */
+	public boolean isChanged()
+	{
+		return mChanged;
+	}
+
+	/**
+	 * Flattens the hierarchy again if it changed, then reads every node's local transform and computes
+	 * every world matrix.
+	 */
+	public void update()
+	{
+		if (mChanged)
+		{
+			flatten();
+		}
+
+		SceneObject rootParent = mRoot.getParent();
+		if (rootParent == null)
+		{
+			mScratch.setIdentity();
+		}
+		else
+		{
+			rootParent.getLocalToWorldMatrix(mScratch);
+		}
+
+		float m[] = mRootParentMatrix;
+		m[0] = mScratch.m00; m[1] = mScratch.m01; m[2] = mScratch.m02;  m[3] = mScratch.m03;
+		m[4] = mScratch.m10; m[5] = mScratch.m11; m[6] = mScratch.m12;  m[7] = mScratch.m13;
+		m[8] = mScratch.m20; m[9] = mScratch.m21; m[10] = mScratch.m22; m[11] = mScratch.m23;
+
+		if (mRanges.length == 0)
+		{
+			updateRange(0, mNodeCount);
+		}
+		else
+		{
+			for (int i = 0; i < mSpine.length; ++i)
+			{
+				updateRange(mSpine[i], mSpine[i] + 1);
+			}
+			getPool().invoke(new UpdateTask(this));
+		}
+	}
+
+	/**
+	 * Returns the number of nodes as of the last `update()`.
+	 */
+	public int getNodeCount()
+	{
+		return mNodeCount;
+	}
+
+	/**
+	 * Returns the node at an index; the root is at index 0.
+	 */
+	public SceneObject getObject(int index)
+	{
+		return mObjects[index];
+	}
+
+	/**
+	 * Returns the index of a node's parent, or -1 for the root.
+	 */
+	public int getParentIndex(int index)
+	{
+		return mParents[index];
+	}
+
+	/**
+	 * Returns the index after the last descendant of a node.
+	 */
+	public int getSubtreeEnd(int index)
+	{
+		return mSubtreeEnds[index];
+	}
+
+	/**
+	 * Returns the nodes in depth-first order, so that passes over the scene can be simple loops.
+	 */
+	public List<SceneObject> getObjects()
+	{
+		List<SceneObject> result = new ArrayList<SceneObject>(mNodeCount);
+		for (int i = 0; i < mNodeCount; ++i)
+		{
+			result.add(mObjects[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the world matrices: for each node, the top 3 rows of its matrix, row-major.
+	 */
+	public float[] getWorldMatrices()
+	{
+		return mWorldMatrices;
+	}
+
+	/**
+	 * Copies a node's local-to-world matrix, as of the last `update()`, into `result`.
+	 */
+	public void getWorldMatrix(int index, Matrix4f result)
+	{
+		float m[] = mWorldMatrices;
+		int i = MATRIX_SIZE * index;
+		result.m00 = m[i];     result.m01 = m[i + 1]; result.m02 = m[i + 2];  result.m03 = m[i + 3];
+		result.m10 = m[i + 4]; result.m11 = m[i + 5]; result.m12 = m[i + 6];  result.m13 = m[i + 7];
+		result.m20 = m[i + 8]; result.m21 = m[i + 9]; result.m22 = m[i + 10]; result.m23 = m[i + 11];
+		result.m30 = 0.0f;     result.m31 = 0.0f;     result.m32 = 0.0f;      result.m33 = 1.0f;
+	}
+
+	/**
+	 * Rebuilds the depth-first arrays and the parallel split from the nodes.
+	 */
+	private void flatten()
+	{
+		/* Release the nodes of the old layout; the ones still here are claimed again below. */
+		for (int i = 0; i < mNodeCount; ++i)
+		{
+			if (mObjects[i].getFlatGraph() == this)
+			{
+				mObjects[i].setFlatGraph(null, -1);
+			}
+		}
+
+		int count = countNodes(mRoot);
+		if (count > mObjects.length)
+		{
+			mObjects = new SceneObject[count];
+			mParents = new int[count];
+			mSubtreeEnds = new int[count];
+			mPositions = new float[3 * count];
+			mOrientations = new float[4 * count];
+			mScales = new float[count];
+			mWorldMatrices = new float[MATRIX_SIZE * count];
+		}
+		else
+		{
+			for (int i = count; i < mNodeCount; ++i)
+			{
+				mObjects[i] = null;
+			}
+		}
+		mNodeCount = count;
+
+		/* Depth-first walk with an explicit stack of nodes and of how many of their children were visited,
+		 * so that deep chains don't overflow the call stack. */
+		int stack[] = new int[16];
+		int visited[] = new int[16];
+		int depth = 0;
+		int next = 0;
+
+		mObjects[0] = mRoot;
+		mParents[0] = -1;
+		mRoot.setFlatGraph(this, 0);
+		stack[0] = 0;
+		visited[0] = 0;
+		++next;
+
+		while (depth >= 0)
+		{
+			int index = stack[depth];
+			List<SceneObject> children = mObjects[index].getChildren();
+
+			if (visited[depth] < children.size())
+			{
+				SceneObject child = children.get(visited[depth]++);
+				mObjects[next] = child;
+				mParents[next] = index;
+				mSubtreeEnds[next] = next + 1;
+				child.setFlatGraph(this, next);
+
+				if (++depth == stack.length)
+				{
+					int grown[] = new int[2 * stack.length];
+					System.arraycopy(stack, 0, grown, 0, stack.length);
+					stack = grown;
+					grown = new int[2 * visited.length];
+					System.arraycopy(visited, 0, grown, 0, visited.length);
+					visited = grown;
+				}
+				stack[depth] = next;
+				visited[depth] = 0;
+				++next;
+			}
+			else
+			{
+				mSubtreeEnds[index] = next;
+				--depth;
+			}
+		}
+
+		split();
+		mChanged = false;
+	}
+
+	/**
+	 * Splits the nodes into ranges of whole subtrees for parallel updates, and the spine of nodes above them.
+	 * Walking in depth-first order, a node whose subtree is small enough becomes (part of) a range and is
+	 * skipped over; a bigger one joins the spine, and the walk goes on into its children.
+	 */
+	private void split()
+	{
+		if (mNodeCount < PARALLEL_THRESHOLD)
+		{
+			mSpine = new int[0];
+			mRanges = new int[0];
+			return;
+		}
+
+		int grain = Math.max(MIN_RANGE_SIZE, mNodeCount / (RANGES_PER_THREAD * getPool().getParallelism()));
+		int spine[] = new int[16];
+		int spineCount = 0;
+		int ranges[] = new int[16];
+		int rangeCount = 0;
+
+		int i = 0;
+		while (i < mNodeCount)
+		{
+			int end = mSubtreeEnds[i];
+			if (end - i <= grain)
+			{
+				/* Grow the last range if this subtree follows it and still fits; start a new one otherwise. */
+				if (rangeCount > 0 && ranges[2 * rangeCount - 1] == i && end - ranges[2 * rangeCount - 2] <= grain)
+				{
+					ranges[2 * rangeCount - 1] = end;
+				}
+				else
+				{
+					if (2 * rangeCount + 2 > ranges.length)
+					{
+						int grown[] = new int[2 * ranges.length];
+						System.arraycopy(ranges, 0, grown, 0, ranges.length);
+						ranges = grown;
+					}
+					ranges[2 * rangeCount] = i;
+					ranges[2 * rangeCount + 1] = end;
+					++rangeCount;
+				}
+				i = end;
+			}
+			else
+			{
+				if (spineCount == spine.length)
+				{
+					int grown[] = new int[2 * spine.length];
+					System.arraycopy(spine, 0, grown, 0, spine.length);
+					spine = grown;
+				}
+				spine[spineCount++] = i;
+				++i;
+			}
+		}
+
+		mSpine = new int[spineCount];
+		System.arraycopy(spine, 0, mSpine, 0, spineCount);
+		mRanges = new int[2 * rangeCount];
+		System.arraycopy(ranges, 0, mRanges, 0, 2 * rangeCount);
+	}
+
+	private static int countNodes(SceneObject root)
+	{
+		int count = 0;
+		List<SceneObject> pending = new ArrayList<SceneObject>();
+		pending.add(root);
+		while (!pending.isEmpty())
+		{
+			SceneObject obj = pending.remove(pending.size() - 1);
+			++count;
+			pending.addAll(obj.getChildren());
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the local transforms of nodes [first, end) and computes their world matrices. The parent of
+	 * every node in the range must come before it, or be in the range.
+	 */
+	private void updateRange(int first, int end)
+	{
+		float positions[] = mPositions, orientations[] = mOrientations, scales[] = mScales, world[] = mWorldMatrices;
+
+		for (int i = first; i < end; ++i)
+		{
+			SceneObject obj = mObjects[i];
+			Point3f position = obj.getPosition();
+			Quat4f orientation = obj.getOrientation();
+			float scale = obj.getScale();
+
+			float px = position.x, py = position.y, pz = position.z;
+			float x = orientation.x, y = orientation.y, z = orientation.z, w = orientation.w;
+			positions[3 * i] = px;
+			positions[3 * i + 1] = py;
+			positions[3 * i + 2] = pz;
+			orientations[4 * i] = x;
+			orientations[4 * i + 1] = y;
+			orientations[4 * i + 2] = z;
+			orientations[4 * i + 3] = w;
+			scales[i] = scale;
+
+			/* Rotation by q is the same as rotation by q / |q|, as in Util.rotateTuple(). */
+			float norm = x * x + y * y + z * z + w * w;
+			if (norm != 1.0f && norm > 0.0f)
+			{
+				float invLength = 1.0f / (float)Math.sqrt(norm);
+				x *= invLength;
+				y *= invLength;
+				z *= invLength;
+				w *= invLength;
+			}
+
+			/* Local matrix: translate * rotate * scale. */
+			float l00 = scale * (1 - 2*y*y - 2*z*z), l01 = scale * (2*x*y - 2*w*z),     l02 = scale * (2*x*z + 2*w*y);
+			float l10 = scale * (2*x*y + 2*w*z),     l11 = scale * (1 - 2*x*x - 2*z*z), l12 = scale * (2*y*z - 2*w*x);
+			float l20 = scale * (2*x*z - 2*w*y),     l21 = scale * (2*y*z + 2*w*x),     l22 = scale * (1 - 2*x*x - 2*y*y);
+
+			/* world = parent world * local, both affine. */
+			int parent = mParents[i];
+			float source[] = (parent < 0 ? mRootParentMatrix : world);
+			int p = (parent < 0 ? 0 : MATRIX_SIZE * parent);
+			int o = MATRIX_SIZE * i;
+			for (int row = 0; row < 3; ++row, p += 4, o += 4)
+			{
+				float a0 = source[p], a1 = source[p + 1], a2 = source[p + 2], a3 = source[p + 3];
+				world[o] = a0 * l00 + a1 * l10 + a2 * l20;
+				world[o + 1] = a0 * l01 + a1 * l11 + a2 * l21;
+				world[o + 2] = a0 * l02 + a1 * l12 + a2 * l22;
+				world[o + 3] = a0 * px + a1 * py + a2 * pz + a3;
+			}
+		}
+	}
+
+	/* Updates every range of subtrees in parallel. */
+	private static class UpdateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final FlatSceneGraph mGraph;
+
+		public UpdateTask(FlatSceneGraph graph)
+		{
+			mGraph = graph;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int ranges[] = mGraph.mRanges;
+			RangeTask tasks[] = new RangeTask[ranges.length / 2];
+			for (int r = 0; r < tasks.length; ++r)
+			{
+				tasks[r] = new RangeTask(mGraph, ranges[2 * r], ranges[2 * r + 1]);
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/* Updates one range of subtrees. */
+	private static class RangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final FlatSceneGraph mGraph;
+		private final int mFirst, mEnd;
+
+		public RangeTask(FlatSceneGraph graph, int first, int end)
+		{
+			mGraph = graph;
+			mFirst = first;
+			mEnd = end;
+		}
+
+		@Override
+		protected void compute()
+		{
+			mGraph.updateRange(mFirst, mEnd);
+		}
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (sPool == null)
+		{
+			sPool = new ForkJoinPool();
+		}
+
+		return sPool;
+	}
+}
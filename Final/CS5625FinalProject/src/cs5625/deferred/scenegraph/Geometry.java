@@ -8,6 +8,7 @@ import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.media.opengl.GL2;
@@ -41,6 +42,16 @@ public class Geometry extends SceneObject
 	/* List of meshes in this object. */
 	private ArrayList<Mesh> mMeshes = new ArrayList<Mesh>();
 	
+	/* Simplified versions of mMeshes, finest first (level 0 is mMeshes itself), with the error of each 
+	 * level in object space; null until generated. mLevelOfDetail is the level being drawn. */
+	private ArrayList<List<Mesh>> mLevelsOfDetail = null;
+	private float mLevelOfDetailErrors[] = null;
+	private int mLevelOfDetailTriangleCounts[] = null;
+	private int mLevelOfDetail = 0;
+	
+	/* Meshes aren't simplified below this many triangles, where every collapse changes the shape a lot. */
+	private static final int MIN_SIMPLIFIED_TRIANGLES = 8;
+	
 	/**
 	 * Returns the list of meshes in this geometry object.
 	 */
@@ -58,6 +69,7 @@ public class Geometry extends SceneObject
 	public void addMesh(Mesh mesh)
 	{
 		mMeshes.add(mesh);
+		clearLevelsOfDetail();
 	}
 
 	/**
@@ -69,6 +81,7 @@ public class Geometry extends SceneObject
 	public void addMeshes(List<Mesh> meshes)
 	{
 		mMeshes.addAll(meshes);
+		clearLevelsOfDetail();
 	}
 	
 	/**
@@ -82,6 +95,7 @@ public class Geometry extends SceneObject
 		{
 			throw new ScenegraphException("Mesh to remove is not in this Geometry object.");
 		}
+		clearLevelsOfDetail();
 	}
 	
 	/**
@@ -99,15 +113,269 @@ public class Geometry extends SceneObject
 		
 		return null;
 	}
+	
+	/**
+	 * Gets the axis-aligned bounding box of all meshes in this object (not its children), in object space.
+	 * 
+	 * @return False (leaving `min` and `max` unchanged) if this object has no vertices.
+	 */
+	public boolean getBounds(Point3f min, Point3f max)
+	{
+		boolean found = false;
+		float minX = 0.0f, minY = 0.0f, minZ = 0.0f, maxX = 0.0f, maxY = 0.0f, maxZ = 0.0f;
+		
+		/* Indexed, since culling calls this for every object every frame and an iterator would be garbage. */
+		for (int i = 0; i < mMeshes.size(); ++i)
+		{
+			Mesh mesh = mMeshes.get(i);
+			if (!mesh.getBounds(min, max))
+			{
+				continue;
+			}
+			
+			if (!found)
+			{
+				minX = min.x; minY = min.y; minZ = min.z;
+				maxX = max.x; maxY = max.y; maxZ = max.z;
+				found = true;
+			}
+			else
+			{
+				minX = Math.min(minX, min.x); minY = Math.min(minY, min.y); minZ = Math.min(minZ, min.z);
+				maxX = Math.max(maxX, max.x); maxY = Math.max(maxY, max.y); maxZ = Math.max(maxZ, max.z);
+			}
+		}
+		
+		if (found)
+		{
+			min.set(minX, minY, minZ);
+			max.set(maxX, maxY, maxZ);
+		}
+		
+		return found;
+	}
+
+	/**
+	 * Generates simplified versions of this object's meshes with `MeshSimplifier`, each level with 
+	 * `reduction` times the triangles of the last. Quad meshes are simplified as triangles, so their 
+	 * simplified levels are triangle meshes; meshes of points or lines are left as they are. Levels are only 
+	 * kept while they remove at least a tenth of the last level's triangles, so simple objects may get 
+	 * fewer levels than asked for, or none. Adding or removing meshes discards the levels. Once a mesh's 
+	 * float vertex data has been discarded (see `Mesh.discardFloatVertexData()`), the levels are left as they are.
+	 * 
+	 * @param maxLevels The most levels to keep, counting the full resolution meshes as level 0.
+	 * @param reduction The fraction of triangles each level keeps from the last, e.g. 0.5.
+	 */
+	public void generateLevelsOfDetail(int maxLevels, float reduction)
+	{
+		for (Mesh mesh : mMeshes)
+		{
+			if (mesh.getVertexData() == null && mesh.getCompactVertexData() != null)
+			{
+				return;
+			}
+		}
+		
+		clearLevelsOfDetail();
+		
+		ArrayList<List<Mesh>> levels = new ArrayList<List<Mesh>>();
+		levels.add(mMeshes);
+		for (int level = 1; level < maxLevels; ++level)
+		{
+			levels.add(new ArrayList<Mesh>());
+		}
+		
+		float errors[] = new float[maxLevels];
+		MeshSimplifier simplifier = new MeshSimplifier();
+		
+		for (Mesh mesh : mMeshes)
+		{
+			Mesh simplified[] = null;
+			if (mesh.getVerticesPerPolygon() >= 3 && maxLevels > 1)
+			{
+				Trimesh triangulated = MeshSimplifier.triangulate(mesh);
+				int targets[] = new int[maxLevels - 1];
+				float target = triangulated.getPolygonCount();
+				for (int level = 1; level < maxLevels; ++level)
+				{
+					target *= reduction;
+					targets[level - 1] = Math.max((int)target, MIN_SIMPLIFIED_TRIANGLES);
+				}
+				
+				simplified = simplifier.simplify(triangulated, targets);
+				for (Mesh levelMesh : simplified)
+				{
+					MeshOptimizer.getShared().optimize(levelMesh);
+				}
+				for (int level = 1; level < maxLevels; ++level)
+				{
+					errors[level] = Math.max(errors[level], simplifier.getLastErrors()[level - 1]);
+				}
+			}
+			
+			for (int level = 1; level < maxLevels; ++level)
+			{
+				levels.get(level).add(simplified != null ? simplified[level - 1] : mesh);
+			}
+		}
+		
+		/* Keep levels while they make a difference. */
+		int triangleCounts[] = new int[maxLevels];
+		int levelCount = 0;
+		for (int level = 0; level < maxLevels; ++level)
+		{
+			for (Mesh mesh : levels.get(level))
+			{
+				triangleCounts[level] += getTriangleCount(mesh);
+			}
+			
+			if (level > 0 && triangleCounts[level] > 0.9f * triangleCounts[level - 1])
+			{
+				break;
+			}
+			levelCount = level + 1;
+		}
+		
+		if (levelCount > 1)
+		{
+			mLevelsOfDetail = new ArrayList<List<Mesh>>(levels.subList(0, levelCount));
+			mLevelOfDetailErrors = new float[levelCount];
+			mLevelOfDetailTriangleCounts = new int[levelCount];
+			System.arraycopy(errors, 0, mLevelOfDetailErrors, 0, levelCount);
+			System.arraycopy(triangleCounts, 0, mLevelOfDetailTriangleCounts, 0, levelCount);
+		}
+	}
+	
+	/**
+	 * Discards the simplified levels of detail, if any.
+	 */
+	public void clearLevelsOfDetail()
+	{
+		mLevelsOfDetail = null;
+		mLevelOfDetailErrors = null;
+		mLevelOfDetailTriangleCounts = null;
+		mLevelOfDetail = 0;
+	}
+	
+	/**
+	 * Returns the number of levels of detail, including the full resolution meshes; 1 if none were generated.
+	 */
+	public int getLevelOfDetailCount()
+	{
+		return (mLevelsOfDetail == null ? 1 : mLevelsOfDetail.size());
+	}
+	
+	/**
+	 * Returns the meshes of a level of detail, 0 being the full resolution meshes (`getMeshes()`).
+	 */
+	public List<Mesh> getLevelOfDetailMeshes(int level)
+	{
+		return (mLevelsOfDetail == null ? mMeshes : mLevelsOfDetail.get(level));
+	}
+	
+	/**
+	 * Returns the error of a level of detail: roughly how far, in object space, its surface may be from the 
+	 * full resolution surface. 0 for level 0.
+	 */
+	public float getLevelOfDetailError(int level)
+	{
+		return (mLevelOfDetailErrors == null ? 0.0f : mLevelOfDetailErrors[level]);
+	}
+	
+	/**
+	 * Returns the number of triangles in a level of detail, counting each quad as two.
+	 */
+	public int getLevelOfDetailTriangleCount(int level)
+	{
+		if (mLevelOfDetailTriangleCounts == null)
+		{
+			int count = 0;
+			for (int i = 0; i < mMeshes.size(); ++i)
+			{
+				count += getTriangleCount(mMeshes.get(i));
+			}
+			return count;
+		}
+		
+		return mLevelOfDetailTriangleCounts[level];
+	}
+	
+	private static int getTriangleCount(Mesh mesh)
+	{
+		return mesh.getPolygonCount() * Math.max(0, mesh.getVerticesPerPolygon() - 2);
+	}
+	
+	/**
+	 * Returns the level of detail being drawn, as chosen by the renderer.
+	 */
+	public int getLevelOfDetail()
+	{
+		return mLevelOfDetail;
+	}
+	
+	/**
+	 * Sets the level of detail to draw. Out of range levels are clamped.
+	 */
+	public void setLevelOfDetail(int level)
+	{
+		mLevelOfDetail = Math.max(0, Math.min(level, getLevelOfDetailCount() - 1));
+	}
+	
+	@Override
+	public void generateLevelsOfDetailForAllGeometry(int maxLevels, float reduction)
+	{
+		super.generateLevelsOfDetailForAllGeometry(maxLevels, reduction);
+		generateLevelsOfDetail(maxLevels, reduction);
+	}
+
+	@Override
+	public void compactVertexDataForAllGeometry()
+	{
+		super.compactVertexDataForAllGeometry();
+		
+		for (int level = 0; level < getLevelOfDetailCount(); ++level)
+		{
+			for (Mesh mesh : getLevelOfDetailMeshes(level))
+			{
+				/* Levels share unsimplified meshes, and clones share compact data; encode each once. */
+				if (mesh.getCompactVertexData() == null)
+				{
+					mesh.compactVertexData();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void discardFloatVertexDataForAllGeometry()
+	{
+		super.discardFloatVertexDataForAllGeometry();
+		
+		for (int level = 0; level < getLevelOfDetailCount(); ++level)
+		{
+			for (Mesh mesh : getLevelOfDetailMeshes(level))
+			{
+				mesh.discardFloatVertexData();
+			}
+		}
+	}
 
 	@Override
 	public void releaseGPUResources(GL2 gl)
 	{
 		super.releaseGPUResources(gl);
 		
-		for (Mesh mesh : mMeshes)
+		/* Levels share the meshes simplification left alone; release each once. */
+		HashSet<Mesh> released = new HashSet<Mesh>();
+		for (int level = 0; level < getLevelOfDetailCount(); ++level)
 		{
-			mesh.releaseGPUResources(gl);
+			for (Mesh mesh : getLevelOfDetailMeshes(level))
+			{
+				if (released.add(mesh))
+				{
+					mesh.releaseGPUResources(gl);
+				}
+			}
 		}
 	}
 	
@@ -116,11 +384,14 @@ public class Geometry extends SceneObject
 	{
 		super.calculateTangentVectorsForAllGeometry();
 		
-		for (Mesh mesh : mMeshes)
+		for (int level = 0; level < getLevelOfDetailCount(); ++level)
 		{
-			if (!mesh.vertexAttribData.containsKey("VertexTangent"))
+			for (Mesh mesh : getLevelOfDetailMeshes(level))
 			{
-				mesh.vertexAttribData.put("VertexTangent", mesh.calculateTangentVectors());
+				if (!mesh.vertexAttribData.containsKey("VertexTangent") && mesh.getVertexData() != null)
+				{
+					mesh.vertexAttribData.put("VertexTangent", mesh.calculateTangentVectors());
+				}
 			}
 		}
 	}
@@ -132,7 +403,8 @@ public class Geometry extends SceneObject
 	 * and each material (specified with the 'mtllib' and 'usemtl' commands) will be loaded as a separate 
 	 * mesh. This loader does not support relative (negative) indexing.
 	 * 
-	 * Polygons specified using the 'f' command will be triangulated and stored in the triangle mesh.
+	 * Polygons specified using the 'f' command will be triangulated and stored in the triangle mesh, then 
+	 * reordered for the vertex cache by `MeshOptimizer.getShared()`.
 	 * Edges (specified with the 'f' command followed by only 2 vertices) will be stored in the corresponding 
 	 * mesh's edge data buffer.
 	 * 
@@ -379,6 +651,9 @@ public class Geometry extends SceneObject
 					mesh.setEdgeData(meshEdges);
 				}
 				
+				/* Reorder polygons and vertices for the GPU's vertex cache; .obj face order is rarely good for it. */
+				MeshOptimizer.getShared().optimize(mesh);
+				
 				/* Assign the mesh's name and material. */
 				mesh.setName(meshMaterialNames.get(meshIndex));
 				
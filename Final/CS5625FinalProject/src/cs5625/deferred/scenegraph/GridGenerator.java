@@ -0,0 +1,110 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * GridGenerator.java
+ *
+ * Generates a flat grid of quads in the XZ plane, centered on the origin and facing +y. Texture
+ * coordinates run from 0 to 1 across the grid. Each row of vertices is one piece; it writes the row,
+ * and the row of quads between it and the next one.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class GridGenerator extends MeshGenerator
+{
+	private final float mWidth, mDepth;
+	private final int mColumns, mRows;
+
+	/**
+	 * Creates a grid generator.
+	 *
+	 * @param width Size of the grid along x.
+	 * @param depth Size of the grid along z.
+	 * @param columns Number of quads along x.
+	 * @param rows Number of quads along z.
+	 */
+	public GridGenerator(float width, float depth, int columns, int rows)
+	{
+		if (columns < 1 || rows < 1)
+		{
+			throw new IllegalArgumentException("A grid needs at least 1 column and 1 row, not " + columns + " by " + rows + ".");
+		}
+
+		mWidth = width;
+		mDepth = depth;
+		mColumns = columns;
+		mRows = rows;
+	}
+
+	@Override
+	public int getVerticesPerPolygon()
+	{
+		return 4;
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return (mColumns + 1) * (mRows + 1);
+	}
+
+	@Override
+	public int getPolygonCount()
+	{
+		return mColumns * mRows;
+	}
+
+	@Override
+	protected int getPieceCount()
+	{
+		return mRows + 1;
+	}
+
+	@Override
+	protected void count(int first, int end, int counts[])
+	{
+		counts[0] += (end - first) * (mColumns + 1);
+		counts[1] += (Math.min(end, mRows) - Math.min(first, mRows)) * mColumns;
+	}
+
+	@Override
+	protected void fill(int first, int end, int vertex, int polygon, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons)
+	{
+		int stride = mColumns + 1;
+
+		for (int k = first; k < end; ++k)
+		{
+			float v = (float)k / mRows;
+			float z = (v - 0.5f) * mDepth;
+
+			for (int i = 0; i <= mColumns; ++i, ++vertex)
+			{
+				float u = (float)i / mColumns;
+
+				vertices.put(3 * vertex, (u - 0.5f) * mWidth);
+				vertices.put(3 * vertex + 1, 0.0f);
+				vertices.put(3 * vertex + 2, z);
+				normals.put(3 * vertex, 0.0f);
+				normals.put(3 * vertex + 1, 1.0f);
+				normals.put(3 * vertex + 2, 0.0f);
+				texcoords.put(2 * vertex, u);
+				texcoords.put(2 * vertex + 1, v);
+			}
+
+			if (k < mRows)
+			{
+				for (int i = 0; i < mColumns; ++i, ++polygon)
+				{
+					int corner = k * stride + i;
+					polygons.put(4 * polygon, corner);
+					polygons.put(4 * polygon + 1, corner + stride);
+					polygons.put(4 * polygon + 2, corner + stride + 1);
+					polygons.put(4 * polygon + 3, corner + 1);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package cs5625.deferred.scenegraph;
+
+/**
+ * MengerSponge.java
+ * 
+ * A fun little procedural mesh, filling the cube [-1, 1]^3. Useful for viewing how SSAO shadowing 
+ * works in tight areas. The faces shared by neighboring subcubes are left out; see `MengerSpongeGenerator`.
+ * 
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MengerSponge extends Quadmesh
+{
+	/**
+	 * Creates a sponge.
+	 * 
+	 * @param steps Number of subdivision steps, from 0 (a cube) to `MengerSpongeGenerator.MAX_DEPTH`.
+	 */
+	public MengerSponge(int steps)
+	{
+		setName("MengerSponge");
+		new MengerSpongeGenerator(steps).generate(this);
+	}
+}
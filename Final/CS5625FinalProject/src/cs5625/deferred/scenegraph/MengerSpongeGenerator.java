@@ -0,0 +1,248 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * MengerSpongeGenerator.java
+ *
+ * Generates a Menger sponge of quads, filling the cube [-1, 1]^3. At depth n the sponge is made of
+ * 20^n cells of a 3^n grid; each cell is one piece, and only writes the faces its neighbor in that
+ * direction doesn't cover, so faces shared by two cells are culled rather than written twice. That
+ * leaves exactly 2 * 20^n + 4 * 8^n faces, each with 4 vertices of its own so that normals and
+ * texture coordinates stay flat.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MengerSpongeGenerator extends MeshGenerator
+{
+	/** Deepest sponge whose vertex data still fits in a direct buffer (2 GB). */
+	public static final int MAX_DEPTH = 5;
+
+	/* Grid positions of the 20 subcubes kept at each step: those with at most one coordinate in the middle. */
+	private static final int SUBCUBES[][] = new int[20][];
+
+	/* For each face: its axis, its direction, and its corners on the unit cube, counterclockwise from outside. */
+	private static final int FACE_AXES[] = {0, 0, 1, 1, 2, 2};
+	private static final int FACE_DIRECTIONS[] = {1, -1, 1, -1, 1, -1};
+	private static final float FACE_CORNERS[][] = {
+		{1, 0, 0,  1, 1, 0,  1, 1, 1,  1, 0, 1},
+		{0, 0, 0,  0, 0, 1,  0, 1, 1,  0, 1, 0},
+		{0, 1, 0,  0, 1, 1,  1, 1, 1,  1, 1, 0},
+		{0, 0, 0,  1, 0, 0,  1, 0, 1,  0, 0, 1},
+		{0, 0, 1,  1, 0, 1,  1, 1, 1,  0, 1, 1},
+		{0, 0, 0,  0, 1, 0,  1, 1, 0,  1, 0, 0}};
+	private static final float CORNER_TEXCOORDS[] = {0, 0,  1, 0,  1, 1,  0, 1};
+
+	static
+	{
+		int count = 0;
+		for (int x = 0; x < 3; ++x)
+		{
+			for (int y = 0; y < 3; ++y)
+			{
+				for (int z = 0; z < 3; ++z)
+				{
+					if ((x == 1 ? 1 : 0) + (y == 1 ? 1 : 0) + (z == 1 ? 1 : 0) <= 1)
+					{
+						SUBCUBES[count++] = new int[] {x, y, z};
+					}
+				}
+			}
+		}
+	}
+
+	private final int mDepth;
+	private final int mCellCount;
+	private final int mGridSize;
+
+	/**
+	 * Creates a sponge generator.
+	 *
+	 * @param depth Number of subdivision steps, from 0 (a cube) to `MAX_DEPTH`.
+	 */
+	public MengerSpongeGenerator(int depth)
+	{
+		if (depth < 0 || depth > MAX_DEPTH)
+		{
+			throw new IllegalArgumentException("Menger sponge depth must be between 0 and " + MAX_DEPTH + ", not " + depth + ".");
+		}
+
+		mDepth = depth;
+
+		int cellCount = 1, gridSize = 1;
+		for (int i = 0; i < depth; ++i)
+		{
+			cellCount *= 20;
+			gridSize *= 3;
+		}
+		mCellCount = cellCount;
+		mGridSize = gridSize;
+	}
+
+	public int getDepth()
+	{
+		return mDepth;
+	}
+
+	/**
+	 * Returns the number of faces of the sponge: 2 * 20^n + 4 * 8^n.
+	 */
+	public int getFaceCount()
+	{
+		int eights = 1;
+		for (int i = 0; i < mDepth; ++i)
+		{
+			eights *= 8;
+		}
+
+		return 2 * mCellCount + 4 * eights;
+	}
+
+	@Override
+	public int getVerticesPerPolygon()
+	{
+		return 4;
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return 4 * getFaceCount();
+	}
+
+	@Override
+	public int getPolygonCount()
+	{
+		return getFaceCount();
+	}
+
+	@Override
+	protected int getPieceCount()
+	{
+		return mCellCount;
+	}
+
+	@Override
+	protected void count(int first, int end, int counts[])
+	{
+		int cell[] = new int[3];
+
+		for (int c = first; c < end; ++c)
+		{
+			getCellPosition(c, cell);
+			for (int face = 0; face < 6; ++face)
+			{
+				if (isFaceVisible(cell, face))
+				{
+					counts[0] += 4;
+					counts[1] += 1;
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void fill(int first, int end, int vertex, int polygon, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons)
+	{
+		int cell[] = new int[3];
+		float size = 2.0f / mGridSize;
+
+		for (int c = first; c < end; ++c)
+		{
+			getCellPosition(c, cell);
+			float x = -1.0f + cell[0] * size, y = -1.0f + cell[1] * size, z = -1.0f + cell[2] * size;
+
+			for (int face = 0; face < 6; ++face)
+			{
+				if (!isFaceVisible(cell, face))
+				{
+					continue;
+				}
+
+				float corners[] = FACE_CORNERS[face];
+				int axis = FACE_AXES[face];
+
+				for (int k = 0; k < 4; ++k)
+				{
+					int v = vertex + k;
+					vertices.put(3 * v, x + corners[3 * k] * size);
+					vertices.put(3 * v + 1, y + corners[3 * k + 1] * size);
+					vertices.put(3 * v + 2, z + corners[3 * k + 2] * size);
+					normals.put(3 * v, (axis == 0 ? FACE_DIRECTIONS[face] : 0.0f));
+					normals.put(3 * v + 1, (axis == 1 ? FACE_DIRECTIONS[face] : 0.0f));
+					normals.put(3 * v + 2, (axis == 2 ? FACE_DIRECTIONS[face] : 0.0f));
+					texcoords.put(2 * v, CORNER_TEXCOORDS[2 * k]);
+					texcoords.put(2 * v + 1, CORNER_TEXCOORDS[2 * k + 1]);
+					polygons.put(4 * polygon + k, v);
+				}
+
+				vertex += 4;
+				++polygon;
+			}
+		}
+	}
+
+	/**
+	 * Finds the grid position of a cell from its index, whose base 20 digits pick a subcube at each step.
+	 */
+	private void getCellPosition(int index, int cell[])
+	{
+		cell[0] = 0;
+		cell[1] = 0;
+		cell[2] = 0;
+
+		int scale = 1;
+		for (int i = 0; i < mDepth; ++i)
+		{
+			int subcube[] = SUBCUBES[index % 20];
+			cell[0] += subcube[0] * scale;
+			cell[1] += subcube[1] * scale;
+			cell[2] += subcube[2] * scale;
+			index /= 20;
+			scale *= 3;
+		}
+	}
+
+	/**
+	 * Returns true if the cell's neighbor across the given face is outside the sponge or one of its holes.
+	 */
+	private boolean isFaceVisible(int cell[], int face)
+	{
+		int x = cell[0], y = cell[1], z = cell[2];
+		switch (FACE_AXES[face])
+		{
+			case 0: x += FACE_DIRECTIONS[face]; break;
+			case 1: y += FACE_DIRECTIONS[face]; break;
+			default: z += FACE_DIRECTIONS[face]; break;
+		}
+
+		return !isFilled(x, y, z);
+	}
+
+	/**
+	 * Returns true if a grid cell is part of the sponge: it's inside the grid, and at no step are two of
+	 * its coordinates in the middle third.
+	 */
+	private boolean isFilled(int x, int y, int z)
+	{
+		if (x < 0 || y < 0 || z < 0 || x >= mGridSize || y >= mGridSize || z >= mGridSize)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < mDepth; ++i)
+		{
+			if ((x % 3 == 1 ? 1 : 0) + (y % 3 == 1 ? 1 : 0) + (z % 3 == 1 ? 1 : 0) > 1)
+			{
+				return false;
+			}
+			x /= 3;
+			y /= 3;
+			z /= 3;
+		}
+
+		return true;
+	}
+}
@@ -5,11 +5,7 @@ import java.nio.IntBuffer;
 import java.util.HashMap;
 
 import javax.media.opengl.GL2;
-import javax.vecmath.GMatrix;
-import javax.vecmath.GVector;
-import javax.vecmath.Vector3f;
-
-import com.jogamp.common.nio.Buffers;
+import javax.vecmath.Point3f;
 
 import cs5625.deferred.materials.BlinnPhongMaterial;
 import cs5625.deferred.materials.Material;
@@ -40,6 +36,12 @@ public abstract class Mesh implements OpenGLResourceObject
 	protected FloatBuffer mVertexData, mNormalData, mTexCoordData;
 	protected IntBuffer mPolygonData, mEdgeData;
 	
+	/* Bounding box of the vertex data {minX, minY, minZ, maxX, maxY, maxZ}, computed when first asked for. */
+	private float mBounds[] = null;
+	
+	/* Compact copy of the vertex data to draw from, or null; see `compactVertexData()`. */
+	private CompactVertexData mCompactVertexData = null;
+	
 	/**
 	 * Map of generic vertex attribute name -> generic vertex attribute buffer. The number of elements in 
 	 * each buffer must match the number of vertices; each buffer's dimensionality (float, vec2, vec3, vec4) 
@@ -61,151 +63,23 @@ public abstract class Mesh implements OpenGLResourceObject
 	 */
 	public abstract FloatBuffer calculateTangentVectors();
 	
-	/**
-	 * Computes the tangent and bitangent vectors of triangle with vertex indices (i1, i2, i3). 
-	 * using the idea described in  http://www.terathon.com/code/tangent.html
-	 * 
-	 * The computed tangent vectors should be accumulated in the array tan1[], and the
-	 * computed bitangent vectors should be accumulated in the array tan2[].	 
-	 */
-	protected void computeAndAccumulateTangentVectors(int i1, int i2, int i3, float tan1[], float[] tan2) {
-		/* Get vertex coordinates of this triangle. */
-		Vector3f p0 = new Vector3f(mVertexData.get(3 * i1 + 0), mVertexData.get(3 * i1 + 1), mVertexData.get(3 * i1 + 2));
-		Vector3f p1 = new Vector3f(mVertexData.get(3 * i2 + 0), mVertexData.get(3 * i2 + 1), mVertexData.get(3 * i2 + 2));
-		Vector3f p2 = new Vector3f(mVertexData.get(3 * i3 + 0), mVertexData.get(3 * i3 + 1), mVertexData.get(3 * i3 + 2));		
-
-		/* Get texture coordinates of this triangle. */
-		float u1 = mTexCoordData.get(2 * i1 + 0);
-		float v1 = mTexCoordData.get(2 * i1 + 1);
-
-		float u2 = mTexCoordData.get(2 * i2 + 0);
-		float v2 = mTexCoordData.get(2 * i2 + 1);
-
-		float u3 = mTexCoordData.get(2 * i3 + 0);
-		float v3 = mTexCoordData.get(2 * i3 + 1);			
-		
-		/* Get positions of vertices relative to the first vertex. */
-		Vector3f q1 = new Vector3f();
-		Vector3f q2 = new Vector3f();
-		
-		q1.sub(p1, p0);
-		q2.sub(p2, p0);
-
-		/* TODO PA3 Prereq (Optional): Construct the Q matrix */
-		GMatrix matQ = new GMatrix(2, 3);
-
-		/* Get texture coordinates relative to the first vertex. */
-        float s1 = u2 - u1;
-        float s2 = u3 - u1;
-        float t1 = v2 - v1;
-        float t2 = v3 - v1;
-        
-        /* This can happen because of (1) missing texture
-         * (2) broken texture coordinates, so we skip it. */
-        if (Math.abs(s1 * t2 - s2 * t1) < EPS) {
-        	return;
-        }
-
-		/* TODO PA3 Prereq (Optional): Construct the inverse (s,t) matrix, and compute 
-		 * tangent and bitangent vectors as explained on Lengyel's site. */       
-        
-        /* Allocate space for the tangent and bitangent vectors */
-		GVector tangent = new GVector(3);
-		GVector bi_tangent = new GVector(3);
-		
-		/* Accumulate into temporary arrays. */
-		tan1[3 * i1 + 0] += tangent.getElement(0);
-		tan1[3 * i1 + 1] += tangent.getElement(1);
-		tan1[3 * i1 + 2] += tangent.getElement(2);
-		
-		tan1[3 * i2 + 0] += tangent.getElement(0);
-		tan1[3 * i2 + 1] += tangent.getElement(1);
-		tan1[3 * i2 + 2] += tangent.getElement(2);
-
-		tan1[3 * i3 + 0] += tangent.getElement(0);
-		tan1[3 * i3 + 1] += tangent.getElement(1);
-		tan1[3 * i3 + 2] += tangent.getElement(2);
-
-		tan2[3 * i1 + 0] += bi_tangent.getElement(0);
-		tan2[3 * i1 + 1] += bi_tangent.getElement(1);
-		tan2[3 * i1 + 2] += bi_tangent.getElement(2);
-		
-		tan2[3 * i2 + 0] += bi_tangent.getElement(0);
-		tan2[3 * i2 + 1] += bi_tangent.getElement(1);
-		tan2[3 * i2 + 2] += bi_tangent.getElement(2);
-
-		tan2[3 * i3 + 0] += bi_tangent.getElement(0);
-		tan2[3 * i3 + 1] += bi_tangent.getElement(1);
-		tan2[3 * i3 + 2] += bi_tangent.getElement(2);
-	}
-	
-	/**
-	 * Averages and normalizes all tangent vectors, previously accumulated by computeAndAccumulateTangentVectors()
-	 * for every triangle. The input arrays tan1 and tan2 should be the same arrays, passed to the above function.
-	 * 	 
-	 * The output is a 4-vector for each vertex, storing the handedness in the w component. Bitangents 
-	 * can be computed from normals and tangents as `cross(normal, tangent.xyz) * tangent.w`. 	 
-	 */
-	protected FloatBuffer averageAndNormalizeAllTangentVectors(float tan1[], float[] tan2) {
-		/* Allocate result buffer and loop over vertices. */
-		FloatBuffer result = Buffers.newDirectFloatBuffer(4 * getVertexCount());
-		
-		for (int vIndex = 0; vIndex < getVertexCount(); ++vIndex)
-		{
-			/* Get vertex normal. */
-			Vector3f normal = new Vector3f(mNormalData.get(3 * vIndex + 0), mNormalData.get(3 * vIndex + 1), mNormalData.get(3 * vIndex + 2));
-			normal.normalize();
-			
-			/* Get tentative tangent and bitangent vectors at this vertex. */
-			Vector3f tangent = new Vector3f(tan1[3 * vIndex + 0], tan1[3 * vIndex + 1], tan1[3 * vIndex + 2]);
-			Vector3f bitangent = new Vector3f(tan2[3 * vIndex + 0], tan2[3 * vIndex + 1], tan2[3 * vIndex + 2]);
-						
-			/* If the tangent is the zero vector, then there were no valid texture coordinates,
-			 * so we generate a tangent space starting from an arbitrary vector: e.g. (1, 0, 0) */			
-			if (tangent.length() < EPS) {
-				/* This computes 'n cross (1, 0, 0)' */
-				tangent = new Vector3f(0, normal.z, -normal.y);				
-				
-				/* If this coincides with the normal, pick (0, 1, 0) */
-				if (tangent.length() < EPS) {
-					/* This computes 'n cross (0, 1, 0)' */
-					tangent = new Vector3f(-normal.z, 0, normal.x);				
-				}
-				
-				/* Make sure this is all zeros as well */
-				bitangent = new Vector3f(0, 0, 0);
-			}
-			
-			tangent.normalize();
-			bitangent.normalize();
-			
-			/* TODO PA3 Prereq (Optional): Orthogonalize and normalize (aka. create orthonormal basis), based on
-			 * the current normal and tangent vectors, as explained on Lengyel's site. */   
-			
-			Vector3f tangent_orth = new Vector3f();
-			
-			
-			/* TODO PA3 Prereq (Optional): Compute handedness of bitangent, as explained on Lengyel's site. */			
-			float handedness = 1.0f;
-			
-			/* Store the normalized result in the first 3 components, and the handedness in the last one */		
-			result.put(4 * vIndex + 0, tangent_orth.x);
-			result.put(4 * vIndex + 1, tangent_orth.y);
-			result.put(4 * vIndex + 2, tangent_orth.z);
-			result.put(4 * vIndex + 3, handedness);			
-		}
-		
-		return result;
-	}
-	
-	
-	
 	/**
 	 * Creates a shallow copy of the given mesh (it will share references to all member data).
 	 * This allows us to do useful things like create many instances of some object with
 	 * different names and materials but only one set of float buffers for all instances.
 	 */
 	public abstract Mesh clone();
+	
+	/**
+	 * Returns true if this mesh draws the same polygons from the same buffers as another, e.g. because 
+	 * one is a clone of the other, so that both can be drawn in one instanced draw call.
+	 */
+	public boolean sharesDataWith(Mesh other)
+	{
+		return other.mVertexData == mVertexData && other.mPolygonData == mPolygonData && 
+				other.mNormalData == mNormalData && other.mTexCoordData == mTexCoordData && 
+				other.mCompactVertexData == mCompactVertexData && other.getVerticesPerPolygon() == getVerticesPerPolygon();
+	}
 
 	/**
 	 * Returns the name of this mesh, which can be specified by a model file or set in code.
@@ -243,13 +117,14 @@ public abstract class Mesh implements OpenGLResourceObject
 	/**
 	 * Returns the number of vertices in this mesh.
 	 * 
-	 * This is computed from the size of the vertex data buffer.
+	 * This is computed from the size of the vertex data buffer, or of the compact copy once the 
+	 * float buffers have been discarded.
 	 */
 	public int getVertexCount()
 	{
 		if (mVertexData == null)
 		{
-			return 0;
+			return (mCompactVertexData == null ? 0 : mCompactVertexData.getVertexCount());
 		}
 		else
 		{
@@ -273,6 +148,48 @@ public abstract class Mesh implements OpenGLResourceObject
 	public void setVertexData(FloatBuffer vertices)
 	{
 		mVertexData = vertices;
+		mBounds = null;
+		mCompactVertexData = null;
+	}
+	
+	/**
+	 * Gets the axis-aligned bounding box of this mesh's vertices, in object space. The box is computed 
+	 * once and kept, so call `setVertexData()` again after changing vertex data in place.
+	 * 
+	 * @return False (leaving `min` and `max` unchanged) if this mesh has no vertices.
+	 */
+	public boolean getBounds(Point3f min, Point3f max)
+	{
+		if (mVertexData == null && mCompactVertexData != null)
+		{
+			mCompactVertexData.getBounds(min, max);
+			return true;
+		}
+		
+		if (mBounds == null)
+		{
+			int vertexCount = getVertexCount();
+			if (vertexCount == 0)
+			{
+				return false;
+			}
+			
+			float bounds[] = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+			for (int i = 0; i < 3 * vertexCount; i += 3)
+			{
+				for (int j = 0; j < 3; ++j)
+				{
+					float value = mVertexData.get(i + j);
+					bounds[j] = Math.min(bounds[j], value);
+					bounds[j + 3] = Math.max(bounds[j + 3], value);
+				}
+			}
+			mBounds = bounds;
+		}
+		
+		min.set(mBounds[0], mBounds[1], mBounds[2]);
+		max.set(mBounds[3], mBounds[4], mBounds[5]);
+		return true;
 	}
 
 	/**
@@ -291,6 +208,7 @@ public abstract class Mesh implements OpenGLResourceObject
 	public void setNormalData(FloatBuffer normals)
 	{
 		mNormalData = normals;
+		mCompactVertexData = null;
 	}
 
 	/**
@@ -309,6 +227,7 @@ public abstract class Mesh implements OpenGLResourceObject
 	public void setTexCoordData(FloatBuffer texcoords)
 	{
 		mTexCoordData = texcoords;
+		mCompactVertexData = null;
 	}
 
 	/**
@@ -367,6 +286,68 @@ public abstract class Mesh implements OpenGLResourceObject
 		mEdgeData = edges;
 	}
 	
+	/**
+	 * Returns the compact copy of this mesh's vertex data which the renderer draws from when the material 
+	 * can decode it, or null if there isn't one. See `compactVertexData()`.
+	 */
+	public CompactVertexData getCompactVertexData()
+	{
+		return mCompactVertexData;
+	}
+	
+	/**
+	 * Sets the compact copy of this mesh's vertex data. It is cleared whenever the vertex, normal, or texture 
+	 * coordinate buffer is set; after changing data in place, or adding a "VertexTangent" attribute, call 
+	 * `compactVertexData()` again.
+	 */
+	public void setCompactVertexData(CompactVertexData compact)
+	{
+		mCompactVertexData = compact;
+	}
+	
+	/**
+	 * Encodes a compact copy of this mesh's vertex data with `CompactVertexData.encode()`, which the renderer 
+	 * draws from instead of the float buffers when the mesh's material can decode it.
+	 */
+	public void compactVertexData()
+	{
+		if (mVertexData != null)
+		{
+			mCompactVertexData = CompactVertexData.encode(this);
+		}
+	}
+	
+	/**
+	 * Drops the float position, normal, and texture coordinate buffers (and the "VertexTangent" attribute) 
+	 * once they have a compact copy, so that the compact data is all that stays resident. The renderer then 
+	 * draws this mesh from the compact data whatever `Renderer.setCompactVertices()` says, and the mesh 
+	 * can no longer be simplified, atlased, re-compacted, or drawn instanced.
+	 * 
+	 * Only the shaders of some materials decode compact data (see `Material.supportsCompactVertices()`), 
+	 * and half-float texture coordinates need `Renderer.getHalfFloatVertices()`; a mesh left with neither 
+	 * fails to render.
+	 * 
+	 * @return False, keeping the float buffers, if there is no compact copy or it lacks an attribute 
+	 *         the material requires.
+	 */
+	public boolean discardFloatVertexData()
+	{
+		if (mVertexData == null || mCompactVertexData == null || !mCompactVertexData.hasAttributesFor(mMaterial))
+		{
+			return false;
+		}
+		
+		mVertexData = null;
+		mBounds = null;
+		mNormalData = null;
+		mTexCoordData = null;
+		if (mCompactVertexData.getAttribData("VertexTangent") != null)
+		{
+			vertexAttribData.remove("VertexTangent");
+		}
+		return true;
+	}
+	
 	/** 
 	 * Releases OpenGL resources owned by this mesh or its material.
 	 */
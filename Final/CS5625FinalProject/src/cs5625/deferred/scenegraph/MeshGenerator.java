@@ -0,0 +1,279 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * MeshGenerator.java
+ *
+ * Base class of procedural meshes (grids, spheres, tori, sponges) which are written straight into
+ * their final buffers. A generator knows its exact vertex and polygon counts up front, so each buffer
+ * is allocated once, at its final size, and nothing is allocated per vertex.
+ *
+ * The output is split into pieces (rows of a grid, rings of a torus, cells of a sponge), numbered from 0.
+ * Each piece writes a contiguous run of vertices and polygons, whose sizes `count()` reports, so pieces
+ * can be filled independently: big meshes are split into ranges of pieces, which are first counted and
+ * then filled at their offsets in parallel, on a shared fork/join pool.
+ *
+ * Generated meshes are then reordered for the vertex cache by `MeshOptimizer.getShared()`, like loaded
+ * ones: the order pieces are written in (row by row, cell by cell) is simple to fill but leaves every
+ * row's vertices out of the cache by the time the next row uses them. See `setOptimize()`.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public abstract class MeshGenerator
+{
+	/* Meshes with fewer vertices than this are generated on the calling thread. */
+	private static final int PARALLEL_THRESHOLD = 16384;
+
+	/* Ranges per pool thread, so that pieces of uneven size still balance. */
+	private static final int RANGES_PER_THREAD = 4;
+
+	private static ForkJoinPool sPool = null;
+
+	private boolean mOptimize = true;
+
+	/**
+	 * Returns the number of vertices per polygon: 3 for triangles, 4 for quads.
+	 */
+	public abstract int getVerticesPerPolygon();
+
+	/**
+	 * Returns the exact number of vertices of the generated mesh.
+	 */
+	public abstract int getVertexCount();
+
+	/**
+	 * Returns the exact number of polygons of the generated mesh.
+	 */
+	public abstract int getPolygonCount();
+
+	/**
+	 * Returns the number of pieces the output is split into.
+	 */
+	protected abstract int getPieceCount();
+
+	/**
+	 * Adds the number of vertices written by pieces [first, end) to counts[0], and the number of
+	 * polygons to counts[1].
+	 */
+	protected abstract void count(int first, int end, int counts[]);
+
+	/**
+	 * Writes pieces [first, end). Buffers are written with absolute puts only, since other ranges are
+	 * written at the same time; `texcoords` is null if `hasTexCoords()` is false.
+	 *
+	 * @param vertex Index of the first vertex the range writes.
+	 * @param polygon Index of the first polygon the range writes.
+	 */
+	protected abstract void fill(int first, int end, int vertex, int polygon, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons);
+
+	/**
+	 * Returns true if the generated mesh has texture coordinates; the default is true.
+	 */
+	public boolean hasTexCoords()
+	{
+		return true;
+	}
+
+	/**
+	 * Returns true if generated meshes are run through `MeshOptimizer.getShared()`; the default is true.
+	 */
+	public boolean getOptimize()
+	{
+		return mOptimize;
+	}
+
+	/**
+	 * Sets whether generated meshes are run through `MeshOptimizer.getShared()`. The optimizer replaces
+	 * every buffer with a reordered copy, so turn it off to keep the pieces' own order, or the single
+	 * allocation per buffer, e.g. for meshes regenerated every frame.
+	 */
+	public void setOptimize(boolean optimize)
+	{
+		mOptimize = optimize;
+	}
+
+	/**
+	 * Generates a new mesh: a `Trimesh` or a `Quadmesh`, depending on `getVerticesPerPolygon()`.
+	 */
+	public Mesh generate()
+	{
+		Mesh mesh = (getVerticesPerPolygon() == 4 ? new Quadmesh() : new Trimesh());
+		generate(mesh);
+		return mesh;
+	}
+
+	/**
+	 * Generates into an existing mesh, replacing its vertex, normal, texture coordinate and polygon data.
+	 * The mesh must have `getVerticesPerPolygon()` vertices per polygon.
+	 */
+	public void generate(Mesh mesh)
+	{
+		if (mesh.getVerticesPerPolygon() != getVerticesPerPolygon())
+		{
+			throw new IllegalArgumentException("Can't generate " + getVerticesPerPolygon() + "-gons into a mesh of " + mesh.getVerticesPerPolygon() + "-gons.");
+		}
+
+		int vertexCount = getVertexCount();
+		int polygonCount = getPolygonCount();
+
+		FloatBuffer vertices = Buffers.newDirectFloatBuffer(3 * vertexCount);
+		FloatBuffer normals = Buffers.newDirectFloatBuffer(3 * vertexCount);
+		FloatBuffer texcoords = (hasTexCoords() ? Buffers.newDirectFloatBuffer(2 * vertexCount) : null);
+		IntBuffer polygons = Buffers.newDirectIntBuffer(getVerticesPerPolygon() * polygonCount);
+
+		int pieceCount = getPieceCount();
+		int rangeCount = 1;
+		if (vertexCount >= PARALLEL_THRESHOLD)
+		{
+			rangeCount = Math.max(1, Math.min(pieceCount, RANGES_PER_THREAD * getPool().getParallelism()));
+		}
+
+		int offsets[] = new int[2 * (rangeCount + 1)];
+		if (rangeCount == 1)
+		{
+			count(0, pieceCount, offsets);
+			offsets[2] = offsets[0];
+			offsets[3] = offsets[1];
+			offsets[0] = 0;
+			offsets[1] = 0;
+			checkCounts(offsets, rangeCount, vertexCount, polygonCount);
+			fill(0, pieceCount, 0, 0, vertices, normals, texcoords, polygons);
+		}
+		else
+		{
+			getPool().invoke(new GenerateTask(this, offsets, rangeCount, vertices, normals, texcoords, polygons));
+		}
+
+		mesh.setVertexData(vertices);
+		mesh.setNormalData(normals);
+		mesh.setTexCoordData(texcoords);
+		mesh.setPolygonData(polygons);
+
+		if (mOptimize)
+		{
+			MeshOptimizer.getShared().optimize(mesh);
+		}
+	}
+
+	/* First piece of a range. */
+	private static int getRangeStart(int pieceCount, int rangeCount, int range)
+	{
+		return (int)((long)pieceCount * range / rangeCount);
+	}
+
+	/* Makes sure the pieces wrote what the generator said the mesh holds; a mismatch is a bug in the generator. */
+	private void checkCounts(int offsets[], int rangeCount, int vertexCount, int polygonCount)
+	{
+		if (offsets[2 * rangeCount] != vertexCount || offsets[2 * rangeCount + 1] != polygonCount)
+		{
+			throw new IllegalStateException(getClass().getSimpleName() + " pieces hold " + offsets[2 * rangeCount] + " vertices and " +
+					offsets[2 * rangeCount + 1] + " polygons, not " + vertexCount + " and " + polygonCount + ".");
+		}
+	}
+
+	/* Counts every range in parallel, turns the counts into offsets, then fills every range in parallel. */
+	private static class GenerateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final MeshGenerator mGenerator;
+		private final int mOffsets[];
+		private final int mRangeCount;
+		private final FloatBuffer mVertices, mNormals, mTexCoords;
+		private final IntBuffer mPolygons;
+
+		public GenerateTask(MeshGenerator generator, int offsets[], int rangeCount, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons)
+		{
+			mGenerator = generator;
+			mOffsets = offsets;
+			mRangeCount = rangeCount;
+			mVertices = vertices;
+			mNormals = normals;
+			mTexCoords = texcoords;
+			mPolygons = polygons;
+		}
+
+		@Override
+		protected void compute()
+		{
+			RangeTask tasks[] = new RangeTask[mRangeCount];
+			for (int r = 0; r < mRangeCount; ++r)
+			{
+				tasks[r] = new RangeTask(this, r, false);
+			}
+			invokeAll(tasks);
+
+			/* Each range's counts were written to the slot after it; sum them into each range's offsets. */
+			mOffsets[0] = 0;
+			mOffsets[1] = 0;
+			for (int r = 1; r <= mRangeCount; ++r)
+			{
+				mOffsets[2 * r] += mOffsets[2 * r - 2];
+				mOffsets[2 * r + 1] += mOffsets[2 * r - 1];
+			}
+			mGenerator.checkCounts(mOffsets, mRangeCount, mGenerator.getVertexCount(), mGenerator.getPolygonCount());
+
+			for (int r = 0; r < mRangeCount; ++r)
+			{
+				tasks[r] = new RangeTask(this, r, true);
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/* Counts or fills one range of pieces. */
+	private static class RangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final GenerateTask mPass;
+		private final int mRange;
+		private final boolean mFill;
+
+		public RangeTask(GenerateTask pass, int range, boolean fill)
+		{
+			mPass = pass;
+			mRange = range;
+			mFill = fill;
+		}
+
+		@Override
+		protected void compute()
+		{
+			MeshGenerator generator = mPass.mGenerator;
+			int pieceCount = generator.getPieceCount();
+			int first = getRangeStart(pieceCount, mPass.mRangeCount, mRange);
+			int end = getRangeStart(pieceCount, mPass.mRangeCount, mRange + 1);
+			int offsets[] = mPass.mOffsets;
+
+			if (mFill)
+			{
+				generator.fill(first, end, offsets[2 * mRange], offsets[2 * mRange + 1], mPass.mVertices, mPass.mNormals, mPass.mTexCoords, mPass.mPolygons);
+			}
+			else
+			{
+				int counts[] = new int[2];
+				generator.count(first, end, counts);
+				offsets[2 * mRange + 2] = counts[0];
+				offsets[2 * mRange + 3] = counts[1];
+			}
+		}
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (sPool == null)
+		{
+			sPool = new ForkJoinPool();
+		}
+
+		return sPool;
+	}
+}
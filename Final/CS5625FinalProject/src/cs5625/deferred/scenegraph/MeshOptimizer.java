@@ -0,0 +1,519 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * MeshOptimizer.java
+ *
+ * Reorders a mesh's polygons and vertices so the GPU transforms each vertex fewer times and fetches vertex
+ * data in order, without changing what's drawn:
+ *
+ *  1. Polygons are reordered for the post-transform vertex cache with Tipsify (Sander, Nehab, and Barczak,
+ *     "Fast Triangle Reordering for Vertex Locality and Reduced Overdraw", SIGGRAPH 2007), which fans
+ *     around one vertex at a time, moving to the neighbor which will stay in the cache.
+ *  2. Optionally, the clusters Tipsify produces (runs of polygons between jumps to unconnected parts of the
+ *     mesh) are sorted so that those facing away from the mesh's center, which tend to cover the others,
+ *     are drawn first, reducing overdraw.
+ *  3. Vertices are renumbered in the order polygons first use them, and every per-vertex buffer (including
+ *     generic attributes and edge data) is rewritten to match.
+ *
+ * Buffers are replaced rather than written to, so meshes sharing buffers with the optimized mesh are left
+ * alone. The average cache miss ratio (ACMR, vertices transformed per triangle, with a FIFO cache of
+ * `getCacheSize()` entries) of every mesh optimized is totalled before and after, as a measure of the gain.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MeshOptimizer
+{
+	/** Default number of entries in the simulated post-transform vertex cache. */
+	public static final int DEFAULT_CACHE_SIZE = 16;
+
+	/* The optimizer `Geometry.load()` and `MeshGenerator` use. */
+	private static MeshOptimizer sShared = null;
+
+	private int mCacheSize = DEFAULT_CACHE_SIZE;
+	private boolean mOptimizeOverdraw = false;
+
+	/* Totals over every mesh optimized, for the ACMR before and after. */
+	private long mTriangleCount = 0;
+	private long mMissesBefore = 0;
+	private long mMissesAfter = 0;
+	private long mNanos = 0;
+	private int mMeshCount = 0;
+
+	/**
+	 * Returns the optimizer shared by the whole application, which `Geometry.load()` runs on every mesh it loads
+	 * and `MeshGenerator` on every mesh it generates.
+	 */
+	public static synchronized MeshOptimizer getShared()
+	{
+		if (sShared == null)
+		{
+			sShared = new MeshOptimizer();
+		}
+
+		return sShared;
+	}
+
+	/**
+	 * Reorders a mesh's polygons and vertices, as described above.
+	 */
+	public synchronized void optimize(Mesh mesh)
+	{
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		int vertexCount = mesh.getVertexCount();
+		int polygonCount = mesh.getPolygonCount();
+		if (verticesPerPolygon < 3 || vertexCount == 0 || polygonCount == 0)
+		{
+			return;
+		}
+
+		long start = System.nanoTime();
+
+		int indices[] = new int[verticesPerPolygon * polygonCount];
+		mesh.getPolygonData().rewind();
+		mesh.getPolygonData().get(indices);
+		mesh.getPolygonData().rewind();
+
+		mMissesBefore += countCacheMisses(indices, mCacheSize);
+
+		int clusterStarts[] = new int[polygonCount + 1];
+		int order[] = tipsify(indices, verticesPerPolygon, vertexCount, mCacheSize, clusterStarts);
+		if (mOptimizeOverdraw)
+		{
+			order = sortClusters(mesh, indices, verticesPerPolygon, order, clusterStarts);
+		}
+
+		int reordered[] = new int[indices.length];
+		for (int p = 0; p < polygonCount; ++p)
+		{
+			System.arraycopy(indices, verticesPerPolygon * order[p], reordered, verticesPerPolygon * p, verticesPerPolygon);
+		}
+
+		/* Renumber vertices by first use; unused vertices go last, in their old order. */
+		int newIndices[] = new int[vertexCount];
+		Arrays.fill(newIndices, -1);
+		int next = 0;
+		for (int i = 0; i < reordered.length; ++i)
+		{
+			if (newIndices[reordered[i]] < 0)
+			{
+				newIndices[reordered[i]] = next++;
+			}
+		}
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			if (newIndices[v] < 0)
+			{
+				newIndices[v] = next++;
+			}
+		}
+
+		for (int i = 0; i < reordered.length; ++i)
+		{
+			reordered[i] = newIndices[reordered[i]];
+		}
+
+		mesh.setPolygonData(Buffers.newDirectIntBuffer(reordered));
+		mesh.setVertexData(remap(mesh.getVertexData(), newIndices));
+		mesh.setNormalData(remap(mesh.getNormalData(), newIndices));
+		mesh.setTexCoordData(remap(mesh.getTexCoordData(), newIndices));
+		for (Map.Entry<String, FloatBuffer> attrib : mesh.vertexAttribData.entrySet())
+		{
+			attrib.setValue(remap(attrib.getValue(), newIndices));
+		}
+
+		IntBuffer edges = mesh.getEdgeData();
+		if (edges != null)
+		{
+			int newEdges[] = new int[edges.capacity()];
+			for (int i = 0; i < newEdges.length; ++i)
+			{
+				newEdges[i] = newIndices[edges.get(i)];
+			}
+			mesh.setEdgeData(Buffers.newDirectIntBuffer(newEdges));
+		}
+
+		mMissesAfter += countCacheMisses(reordered, mCacheSize);
+		mTriangleCount += polygonCount * (verticesPerPolygon - 2);
+		mNanos += System.nanoTime() - start;
+		++mMeshCount;
+	}
+
+	/**
+	 * Returns the order to draw polygons in, by Tipsify, and fills `clusterStarts` with the index in that
+	 * order of the first polygon of each cluster, followed by the polygon count.
+	 */
+	private static int[] tipsify(int indices[], int verticesPerPolygon, int vertexCount, int cacheSize, int clusterStarts[])
+	{
+		int polygonCount = indices.length / verticesPerPolygon;
+
+		/* Polygons around each vertex, as offsets into one array. */
+		int adjacencyStarts[] = new int[vertexCount + 1];
+		for (int i = 0; i < indices.length; ++i)
+		{
+			++adjacencyStarts[indices[i] + 1];
+		}
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			adjacencyStarts[v + 1] += adjacencyStarts[v];
+		}
+		int adjacency[] = new int[indices.length];
+		int filled[] = new int[vertexCount];
+		for (int i = 0; i < indices.length; ++i)
+		{
+			int v = indices[i];
+			adjacency[adjacencyStarts[v] + filled[v]++] = i / verticesPerPolygon;
+		}
+
+		/* Live polygon counts, cache time stamps, dead-end stack, and emitted flags. */
+		int live[] = new int[vertexCount];
+		for (int v = 0; v < vertexCount; ++v)
+		{
+			live[v] = adjacencyStarts[v + 1] - adjacencyStarts[v];
+		}
+		int cacheTime[] = new int[vertexCount];
+		int deadEnds[] = new int[indices.length];
+		int deadEndCount = 0;
+		boolean emitted[] = new boolean[polygonCount];
+		int candidates[] = new int[indices.length];
+
+		int order[] = new int[polygonCount];
+		int emittedCount = 0;
+		int clusterCount = 0;
+		int time = cacheSize + 1;
+		int cursor = 0;
+		int fanning = 0;
+
+		clusterStarts[clusterCount++] = 0;
+		while (fanning >= 0)
+		{
+			/* Emit every polygon around the fanning vertex. */
+			int candidateCount = 0;
+			for (int a = adjacencyStarts[fanning]; a < adjacencyStarts[fanning + 1]; ++a)
+			{
+				int p = adjacency[a];
+				if (emitted[p])
+				{
+					continue;
+				}
+
+				for (int k = 0; k < verticesPerPolygon; ++k)
+				{
+					int v = indices[verticesPerPolygon * p + k];
+					deadEnds[deadEndCount++] = v;
+					candidates[candidateCount++] = v;
+					--live[v];
+					if (time - cacheTime[v] > cacheSize)
+					{
+						cacheTime[v] = time++;
+					}
+				}
+
+				emitted[p] = true;
+				order[emittedCount++] = p;
+			}
+
+			/* Move to the neighbor which will still be in the cache after fanning around it, preferring the
+			 * one which has been there longest; failing that, to a dead end, or the next unfinished vertex. */
+			int best = -1;
+			int bestPriority = -1;
+			for (int c = 0; c < candidateCount; ++c)
+			{
+				int v = candidates[c];
+				if (live[v] > 0)
+				{
+					int priority = 0;
+					if (time - cacheTime[v] + (verticesPerPolygon - 1) * live[v] <= cacheSize)
+					{
+						priority = time - cacheTime[v];
+					}
+					if (priority > bestPriority)
+					{
+						best = v;
+						bestPriority = priority;
+					}
+				}
+			}
+
+			if (best < 0)
+			{
+				while (deadEndCount > 0 && best < 0)
+				{
+					int v = deadEnds[--deadEndCount];
+					if (live[v] > 0)
+					{
+						best = v;
+					}
+				}
+
+				while (best < 0 && cursor < vertexCount)
+				{
+					if (live[cursor] > 0)
+					{
+						best = cursor;
+					}
+					++cursor;
+				}
+
+				/* A jump to a vertex outside the cache starts a new cluster. */
+				if (best >= 0 && emittedCount > clusterStarts[clusterCount - 1] && time - cacheTime[best] > cacheSize)
+				{
+					clusterStarts[clusterCount++] = emittedCount;
+				}
+			}
+
+			fanning = best;
+		}
+
+		clusterStarts[clusterCount] = polygonCount;
+		if (clusterCount < clusterStarts.length - 1)
+		{
+			clusterStarts[clusterCount + 1] = -1;
+		}
+
+		return order;
+	}
+
+	/**
+	 * Returns the polygon order with Tipsify's clusters sorted by decreasing occlusion potential: how far
+	 * the cluster lies out from the mesh's center along its own normal.
+	 */
+	private static int[] sortClusters(Mesh mesh, int indices[], int verticesPerPolygon, int order[], int clusterStarts[])
+	{
+		int clusterCount = 0;
+		while (clusterCount + 1 < clusterStarts.length && clusterStarts[clusterCount + 1] > clusterStarts[clusterCount])
+		{
+			++clusterCount;
+		}
+		if (clusterCount < 2)
+		{
+			return order;
+		}
+
+		FloatBuffer positions = mesh.getVertexData();
+
+		/* Area weighted centroid of the whole mesh, and of each cluster, with each cluster's normal. */
+		float centroids[] = new float[3 * clusterCount];
+		float normals[] = new float[3 * clusterCount];
+		float areas[] = new float[clusterCount];
+		float center[] = new float[3];
+		float totalArea = 0.0f;
+
+		for (int c = 0; c < clusterCount; ++c)
+		{
+			for (int i = clusterStarts[c]; i < clusterStarts[c + 1]; ++i)
+			{
+				int base = verticesPerPolygon * order[i];
+				int a = 3 * indices[base];
+				for (int k = 2; k < verticesPerPolygon; ++k)
+				{
+					int b = 3 * indices[base + k - 1], d = 3 * indices[base + k];
+					float e1x = positions.get(b) - positions.get(a), e1y = positions.get(b + 1) - positions.get(a + 1), e1z = positions.get(b + 2) - positions.get(a + 2);
+					float e2x = positions.get(d) - positions.get(a), e2y = positions.get(d + 1) - positions.get(a + 1), e2z = positions.get(d + 2) - positions.get(a + 2);
+					float nx = 0.5f * (e1y * e2z - e1z * e2y), ny = 0.5f * (e1z * e2x - e1x * e2z), nz = 0.5f * (e1x * e2y - e1y * e2x);
+					float area = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+					normals[3 * c] += nx;
+					normals[3 * c + 1] += ny;
+					normals[3 * c + 2] += nz;
+					for (int j = 0; j < 3; ++j)
+					{
+						float centroid = (positions.get(a + j) + positions.get(b + j) + positions.get(d + j)) / 3.0f;
+						centroids[3 * c + j] += area * centroid;
+						center[j] += area * centroid;
+					}
+					areas[c] += area;
+					totalArea += area;
+				}
+			}
+		}
+
+		if (totalArea == 0.0f)
+		{
+			return order;
+		}
+
+		final float potentials[] = new float[clusterCount];
+		Integer clusters[] = new Integer[clusterCount];
+		for (int c = 0; c < clusterCount; ++c)
+		{
+			clusters[c] = c;
+			if (areas[c] > 0.0f)
+			{
+				for (int j = 0; j < 3; ++j)
+				{
+					potentials[c] += (centroids[3 * c + j] / areas[c] - center[j] / totalArea) * normals[3 * c + j] / areas[c];
+				}
+			}
+		}
+
+		Arrays.sort(clusters, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				return Float.compare(potentials[b], potentials[a]);
+			}
+		});
+
+		int sorted[] = new int[order.length];
+		int count = 0;
+		for (Integer c : clusters)
+		{
+			for (int i = clusterStarts[c]; i < clusterStarts[c + 1]; ++i)
+			{
+				sorted[count++] = order[i];
+			}
+		}
+
+		return sorted;
+	}
+
+	/**
+	 * Returns a copy of a per-vertex buffer with vertex v moved to newIndices[v], or null if there's no buffer.
+	 */
+	private static FloatBuffer remap(FloatBuffer data, int newIndices[])
+	{
+		if (data == null || data.capacity() % newIndices.length != 0)
+		{
+			return data;
+		}
+
+		int size = data.capacity() / newIndices.length;
+		FloatBuffer result = Buffers.newDirectFloatBuffer(data.capacity());
+		for (int v = 0; v < newIndices.length; ++v)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				result.put(size * newIndices[v] + i, data.get(size * v + i));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Counts the vertices transformed drawing an index stream through a FIFO cache of the given size.
+	 */
+	private static long countCacheMisses(int indices[], int cacheSize)
+	{
+		int maxIndex = 0;
+		for (int i = 0; i < indices.length; ++i)
+		{
+			maxIndex = Math.max(maxIndex, indices[i]);
+		}
+
+		/* A vertex is in the cache if it was inserted within the last `cacheSize` misses. */
+		int insertedAt[] = new int[maxIndex + 1];
+		Arrays.fill(insertedAt, -cacheSize - 1);
+		int misses = 0;
+		for (int i = 0; i < indices.length; ++i)
+		{
+			if (misses - insertedAt[indices[i]] > cacheSize)
+			{
+				insertedAt[indices[i]] = misses++;
+			}
+		}
+
+		return misses;
+	}
+
+	/**
+	 * Returns the ACMR of a mesh as it is: vertices transformed per triangle drawn, with a FIFO cache of
+	 * the given size. Quads count as two triangles. Between 0.5 (ideal, for large meshes) and 3.
+	 */
+	public static float getACMR(Mesh mesh, int cacheSize)
+	{
+		int triangleCount = mesh.getPolygonCount() * Math.max(0, mesh.getVerticesPerPolygon() - 2);
+		if (triangleCount == 0)
+		{
+			return 0.0f;
+		}
+
+		int indices[] = new int[mesh.getPolygonData().capacity()];
+		for (int i = 0; i < indices.length; ++i)
+		{
+			indices[i] = mesh.getPolygonData().get(i);
+		}
+
+		return (float)countCacheMisses(indices, cacheSize) / triangleCount;
+	}
+
+	/**
+	 * Sets the number of entries in the vertex cache polygons are ordered for (and ACMR is measured with).
+	 */
+	public synchronized void setCacheSize(int cacheSize)
+	{
+		mCacheSize = cacheSize;
+	}
+
+	public synchronized int getCacheSize()
+	{
+		return mCacheSize;
+	}
+
+	/**
+	 * Enables or disables sorting clusters of polygons to reduce overdraw. Sorting breaks up the cache
+	 * locality between clusters, so ACMR rises a little.
+	 */
+	public synchronized void setOptimizeOverdraw(boolean optimizeOverdraw)
+	{
+		mOptimizeOverdraw = optimizeOverdraw;
+	}
+
+	public synchronized boolean getOptimizeOverdraw()
+	{
+		return mOptimizeOverdraw;
+	}
+
+	/**
+	 * Returns the ACMR of every mesh optimized (since the last `resetStatistics()`), before optimization.
+	 */
+	public synchronized float getACMRBefore()
+	{
+		return (mTriangleCount == 0 ? 0.0f : (float)mMissesBefore / mTriangleCount);
+	}
+
+	/**
+	 * Returns the ACMR of every mesh optimized (since the last `resetStatistics()`), after optimization.
+	 */
+	public synchronized float getACMRAfter()
+	{
+		return (mTriangleCount == 0 ? 0.0f : (float)mMissesAfter / mTriangleCount);
+	}
+
+	/**
+	 * Returns the time spent optimizing, in milliseconds.
+	 */
+	public synchronized double getTime()
+	{
+		return mNanos / 1.0e6;
+	}
+
+	public synchronized void resetStatistics()
+	{
+		mTriangleCount = 0;
+		mMissesBefore = 0;
+		mMissesAfter = 0;
+		mNanos = 0;
+		mMeshCount = 0;
+	}
+
+	/**
+	 * Returns the statistics on one line.
+	 */
+	public synchronized String getSummary()
+	{
+		return String.format(Locale.US, "mesh optimization: %d meshes, %d triangles, ACMR %.3f -> %.3f (cache size %d), %.1f ms",
+				mMeshCount, mTriangleCount, getACMRBefore(), getACMRAfter(), mCacheSize, getTime());
+	}
+}
@@ -0,0 +1,161 @@
+package cs5625.deferred.scenegraph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * MeshRegistry.java
+ *
+ * Shares the mesh data of model files, so a model placed many times (e.g. a sphere marking each light)
+ * is only parsed once, and all its copies draw from the same vertex and index buffers. The renderer
+ * can then draw those copies together in one instanced draw call; see `InstanceBatcher`.
+ *
+ * `load()` returns new Geometry objects every time, like `Geometry.load()`, but their meshes are
+ * shallow copies (see `Mesh.clone()`) of the meshes loaded the first time. Each copy has its own
+ * name, material, and vertex attribute map, so materials can be overridden per instance; the vertex,
+ * normal, texture coordinate, polygon, and edge buffers are shared, and must be treated as read-only.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MeshRegistry
+{
+	/* The registry scene controllers and the renderer load models through. */
+	private static MeshRegistry sShared = null;
+
+	/* The objects loaded from each model file, keyed by identifier and load options, which are never
+	 * handed out themselves. */
+	private final HashMap<String, List<Geometry>> mTemplates = new HashMap<String, List<Geometry>>();
+
+	private int mHitCount = 0;
+	private int mMissCount = 0;
+	private long mLoadNanos = 0;
+
+	/**
+	 * Returns the registry shared by the whole application.
+	 */
+	public static synchronized MeshRegistry getShared()
+	{
+		if (sShared == null)
+		{
+			sShared = new MeshRegistry();
+		}
+
+		return sShared;
+	}
+
+	/**
+	 * Returns new objects for the models in a wavefront object (.obj) file, loading the file with
+	 * `Geometry.load()` the first time it's asked for with these options.
+	 *
+	 * @param identifier The identifier, or package path, to the model file to load.
+	 * @param loadMaterials If true, material and texture files referenced from the model are loaded;
+	 *        those materials are shared by all instances until overridden.
+	 * @param centerObjects If true, each object is positioned at the average position of its vertices;
+	 *        see `Geometry.load()`.
+	 */
+	public synchronized List<Geometry> load(String identifier, boolean loadMaterials, boolean centerObjects) throws IOException
+	{
+		String key = identifier + (loadMaterials ? "#materials" : "") + (centerObjects ? "#centered" : "");
+
+		List<Geometry> templates = mTemplates.get(key);
+		if (templates == null)
+		{
+			++mMissCount;
+
+			long start = System.nanoTime();
+			templates = Geometry.load(identifier, loadMaterials, centerObjects);
+			mLoadNanos += System.nanoTime() - start;
+
+			mTemplates.put(key, templates);
+		}
+		else
+		{
+			++mHitCount;
+		}
+
+		ArrayList<Geometry> results = new ArrayList<Geometry>(templates.size());
+		for (Geometry template : templates)
+		{
+			results.add(instantiate(template));
+		}
+
+		return results;
+	}
+
+	/**
+	 * Returns a new object for the first model in a file, loaded without materials or centering; e.g.
+	 * a marker sphere whose material is set afterwards.
+	 */
+	public Geometry loadFirst(String identifier) throws IOException
+	{
+		List<Geometry> geometry = load(identifier, false, false);
+		if (geometry.isEmpty())
+		{
+			throw new IOException("Model file '" + identifier + "' contains no geometry.");
+		}
+
+		return geometry.get(0);
+	}
+
+	/**
+	 * Creates an object with the template's name and transform, and shallow copies of its meshes.
+	 */
+	private static Geometry instantiate(Geometry template)
+	{
+		Geometry instance = new Geometry();
+		instance.setName(template.getName());
+		instance.getPosition().set(template.getPosition());
+		instance.getOrientation().set(template.getOrientation());
+		instance.setScale(template.getScale());
+
+		for (Mesh mesh : template.getMeshes())
+		{
+			instance.addMesh(mesh.clone());
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Forgets every loaded model. Objects already handed out keep their data.
+	 */
+	public synchronized void clear()
+	{
+		mTemplates.clear();
+	}
+
+	/**
+	 * Returns the number of model files (with distinct load options) loaded.
+	 */
+	public synchronized int getModelCount()
+	{
+		return mTemplates.size();
+	}
+
+	/**
+	 * Returns the number of `load()` calls served without loading a file.
+	 */
+	public synchronized int getHitCount()
+	{
+		return mHitCount;
+	}
+
+	/**
+	 * Returns the number of `load()` calls which loaded a file.
+	 */
+	public synchronized int getMissCount()
+	{
+		return mMissCount;
+	}
+
+	/**
+	 * Returns the total time spent loading model files, in milliseconds.
+	 */
+	public synchronized double getLoadTime()
+	{
+		return mLoadNanos / 1.0e6;
+	}
+}
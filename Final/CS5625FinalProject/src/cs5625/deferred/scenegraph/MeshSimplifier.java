@@ -0,0 +1,768 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * MeshSimplifier.java
+ *
+ * Simplifies triangle meshes by repeatedly collapsing the edge which changes the surface least, as
+ * measured by the quadric error metric (Garland and Heckbert, "Surface Simplification Using Quadric
+ * Error Metrics", SIGGRAPH 1997). Edges are collapsed onto one of their endpoints ("half-edge" collapses),
+ * so every vertex of a simplified mesh is a vertex of the original, and keeps its normal, texture
+ * coordinate, and generic attributes without interpolation.
+ *
+ * To keep the simplified meshes whole:
+ *  - Vertices sharing a position with another vertex (texture coordinate seams and hard edges, which the
+ *    .obj loader splits) are never removed, so the two sides of a seam can't pull apart.
+ *  - Open boundaries and edges in the mesh's edge data (e.g. creases) are held in place by constraint
+ *    planes perpendicular to their faces. Edge data is carried over to the simplified meshes.
+ *  - Collapses which would flip a triangle or make the mesh non-manifold are skipped.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class MeshSimplifier
+{
+	/** Default weight of boundary and crease constraint planes, relative to the faces' own planes. */
+	public static final float DEFAULT_BOUNDARY_WEIGHT = 100.0f;
+
+	private float mBoundaryWeight = DEFAULT_BOUNDARY_WEIGHT;
+
+	/* The mesh being simplified: positions, triangles, and each vertex's triangles. */
+	private int mVertexCount;
+	private float mPositions[];
+	private int mTriangles[];
+	private boolean mTriangleAlive[];
+	private int mTriangleCount;
+	private int mVertexTriangles[][];
+	private int mVertexTriangleCounts[];
+
+	/* Per-vertex quadrics (10 coefficients of the symmetric 4x4 matrix each), and their total weights. */
+	private double mQuadrics[];
+	private double mWeights[];
+
+	/* Vertex state: locked vertices are never removed; removed vertices point at the vertex they became. */
+	private boolean mLocked[];
+	private int mCollapsedInto[];
+	private int mVersions[];
+
+	/* Scratch marks for neighborhood tests, and normals for flip tests. */
+	private int mMarks[];
+	private int mMark = 0;
+	private final float mNormalBefore[] = new float[3];
+	private final float mNormalAfter[] = new float[3];
+
+	/* The largest error of a collapse so far, as a distance in object space. */
+	private float mError = 0.0f;
+
+	/* Errors and time of the last `simplify()`. */
+	private float mLastErrors[] = new float[0];
+	private long mLastNanos = 0;
+
+	/* A candidate collapse of `from` onto `to`, valid while neither vertex has changed. */
+	private static class Collapse implements Comparable<Collapse>
+	{
+		double cost;
+		float error;
+		int from, to;
+		int fromVersion, toVersion;
+
+		@Override
+		public int compareTo(Collapse other)
+		{
+			return Double.compare(cost, other.cost);
+		}
+	}
+
+	/**
+	 * Simplifies a triangle mesh to each of several triangle counts in one pass.
+	 *
+	 * @param mesh The mesh to simplify; not modified.
+	 * @param targetTriangleCounts Triangle counts to stop at, in decreasing order. If the mesh can't be
+	 *        simplified that far, the result is the simplest mesh reached.
+	 * @return One new mesh per target count, with the original's name and material. Their errors are
+	 *         returned by `getLastErrors()`.
+	 */
+	public Trimesh[] simplify(Trimesh mesh, int targetTriangleCounts[])
+	{
+		long start = System.nanoTime();
+
+		Trimesh results[] = new Trimesh[targetTriangleCounts.length];
+		mLastErrors = new float[targetTriangleCounts.length];
+
+		initialize(mesh);
+
+		PriorityQueue<Collapse> queue = new PriorityQueue<Collapse>(Math.max(1, 3 * mTriangleCount / 2));
+		for (int t = 0; t < mTriangles.length / 3; ++t)
+		{
+			for (int k = 0; k < 3; ++k)
+			{
+				int a = mTriangles[3 * t + k];
+				int b = mTriangles[3 * t + (k + 1) % 3];
+				if (a < b || !hasEdge(b, a))
+				{
+					offerCollapse(queue, a, b);
+				}
+			}
+		}
+
+		for (int level = 0; level < targetTriangleCounts.length; ++level)
+		{
+			while (mTriangleCount > targetTriangleCounts[level] && !queue.isEmpty())
+			{
+				Collapse collapse = queue.poll();
+				if (mCollapsedInto[collapse.from] >= 0 || mCollapsedInto[collapse.to] >= 0 ||
+					mVersions[collapse.from] != collapse.fromVersion || mVersions[collapse.to] != collapse.toVersion ||
+					!canCollapse(collapse.from, collapse.to))
+				{
+					continue;
+				}
+
+				mError = Math.max(mError, collapse.error);
+				collapse(collapse.from, collapse.to);
+
+				/* Offer the collapses of every edge around the vertex which changed. */
+				int to = collapse.to;
+				for (int i = 0; i < mVertexTriangleCounts[to]; ++i)
+				{
+					int t = mVertexTriangles[to][i];
+					for (int k = 0; k < 3; ++k)
+					{
+						int other = mTriangles[3 * t + k];
+						if (other != to)
+						{
+							offerCollapse(queue, to, other);
+						}
+					}
+				}
+			}
+
+			results[level] = buildMesh(mesh);
+			mLastErrors[level] = mError;
+		}
+
+		mLastNanos = System.nanoTime() - start;
+		return results;
+	}
+
+	private void initialize(Trimesh mesh)
+	{
+		mVertexCount = mesh.getVertexCount();
+		int triangleCount = mesh.getPolygonCount();
+
+		mPositions = new float[3 * mVertexCount];
+		for (int i = 0; i < mPositions.length; ++i)
+		{
+			mPositions[i] = mesh.getVertexData().get(i);
+		}
+
+		mTriangles = new int[3 * triangleCount];
+		mTriangleAlive = new boolean[triangleCount];
+		mTriangleCount = 0;
+		for (int t = 0; t < triangleCount; ++t)
+		{
+			for (int k = 0; k < 3; ++k)
+			{
+				mTriangles[3 * t + k] = mesh.getPolygonData().get(3 * t + k);
+			}
+
+			/* Drop triangles with repeated vertices; they'd confuse the neighborhood tests. */
+			int a = mTriangles[3 * t], b = mTriangles[3 * t + 1], c = mTriangles[3 * t + 2];
+			mTriangleAlive[t] = (a != b && b != c && c != a);
+			if (mTriangleAlive[t])
+			{
+				++mTriangleCount;
+			}
+		}
+
+		mVertexTriangles = new int[mVertexCount][];
+		mVertexTriangleCounts = new int[mVertexCount];
+		for (int v = 0; v < mVertexCount; ++v)
+		{
+			mVertexTriangles[v] = new int[6];
+		}
+		for (int t = 0; t < triangleCount; ++t)
+		{
+			if (mTriangleAlive[t])
+			{
+				for (int k = 0; k < 3; ++k)
+				{
+					addVertexTriangle(mTriangles[3 * t + k], t);
+				}
+			}
+		}
+
+		mQuadrics = new double[10 * mVertexCount];
+		mWeights = new double[mVertexCount];
+		mLocked = new boolean[mVertexCount];
+		mCollapsedInto = new int[mVertexCount];
+		mVersions = new int[mVertexCount];
+		mMarks = new int[mVertexCount];
+		mMark = 0;
+		mError = 0.0f;
+		for (int v = 0; v < mVertexCount; ++v)
+		{
+			mCollapsedInto[v] = -1;
+		}
+
+		/* Each face's plane, weighted by its area. */
+		float normal[] = new float[3];
+		for (int t = 0; t < triangleCount; ++t)
+		{
+			if (!mTriangleAlive[t])
+			{
+				continue;
+			}
+
+			float area = faceNormal(mTriangles[3 * t], mTriangles[3 * t + 1], mTriangles[3 * t + 2], -1, 0, normal);
+			if (area > 0.0f)
+			{
+				for (int k = 0; k < 3; ++k)
+				{
+					addPlane(mTriangles[3 * t + k], normal, mTriangles[3 * t], area);
+				}
+			}
+		}
+
+		/* Count the faces on each edge, to find open boundaries. */
+		HashMap<Long, Integer> edgeFaces = new HashMap<Long, Integer>();
+		for (int t = 0; t < triangleCount; ++t)
+		{
+			if (mTriangleAlive[t])
+			{
+				for (int k = 0; k < 3; ++k)
+				{
+					Long key = edgeKey(mTriangles[3 * t + k], mTriangles[3 * t + (k + 1) % 3]);
+					Integer count = edgeFaces.get(key);
+					edgeFaces.put(key, count == null ? 1 : count + 1);
+				}
+			}
+		}
+
+		/* Crease edges from the edge data. */
+		HashSet<Long> creases = new HashSet<Long>();
+		IntBuffer edges = mesh.getEdgeData();
+		if (edges != null)
+		{
+			for (int i = 0; i + 1 < edges.capacity(); i += 2)
+			{
+				creases.add(edgeKey(edges.get(i), edges.get(i + 1)));
+			}
+		}
+
+		/* Constraint planes through boundary and crease edges, perpendicular to their faces. */
+		for (int t = 0; t < triangleCount; ++t)
+		{
+			if (!mTriangleAlive[t])
+			{
+				continue;
+			}
+
+			for (int k = 0; k < 3; ++k)
+			{
+				int a = mTriangles[3 * t + k];
+				int b = mTriangles[3 * t + (k + 1) % 3];
+				Long key = edgeKey(a, b);
+				if (edgeFaces.get(key) == 1 || creases.contains(key))
+				{
+					addEdgeConstraint(t, a, b);
+				}
+			}
+		}
+
+		/* Lock vertices which share their position with another. */
+		HashMap<Long, Integer> positions = new HashMap<Long, Integer>();
+		for (int v = 0; v < mVertexCount; ++v)
+		{
+			long key = ((long)Float.floatToIntBits(mPositions[3 * v]) * 31L + Float.floatToIntBits(mPositions[3 * v + 1])) * 31L + Float.floatToIntBits(mPositions[3 * v + 2]);
+			Integer first = positions.get(key);
+			if (first == null)
+			{
+				positions.put(key, v);
+			}
+			else if (samePosition(first, v))
+			{
+				mLocked[first] = true;
+				mLocked[v] = true;
+			}
+		}
+	}
+
+	private boolean samePosition(int a, int b)
+	{
+		return mPositions[3 * a] == mPositions[3 * b] && mPositions[3 * a + 1] == mPositions[3 * b + 1] && mPositions[3 * a + 2] == mPositions[3 * b + 2];
+	}
+
+	private static Long edgeKey(int a, int b)
+	{
+		return Math.min(a, b) * 4294967296L + Math.max(a, b);
+	}
+
+	private boolean hasEdge(int a, int b)
+	{
+		for (int i = 0; i < mVertexTriangleCounts[a]; ++i)
+		{
+			int t = mVertexTriangles[a][i];
+			for (int k = 0; k < 3; ++k)
+			{
+				if (mTriangles[3 * t + k] == a && mTriangles[3 * t + (k + 1) % 3] == b)
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void addVertexTriangle(int v, int t)
+	{
+		if (mVertexTriangleCounts[v] == mVertexTriangles[v].length)
+		{
+			int triangles[] = new int[2 * mVertexTriangles[v].length];
+			System.arraycopy(mVertexTriangles[v], 0, triangles, 0, mVertexTriangleCounts[v]);
+			mVertexTriangles[v] = triangles;
+		}
+
+		mVertexTriangles[v][mVertexTriangleCounts[v]++] = t;
+	}
+
+	private void removeVertexTriangle(int v, int t)
+	{
+		for (int i = 0; i < mVertexTriangleCounts[v]; ++i)
+		{
+			if (mVertexTriangles[v][i] == t)
+			{
+				mVertexTriangles[v][i] = mVertexTriangles[v][--mVertexTriangleCounts[v]];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Computes the unit normal of triangle (a, b, c), with vertex `moved` (if any) at the position of
+	 * vertex `movedTo`, returning its area.
+	 */
+	private float faceNormal(int a, int b, int c, int moved, int movedTo, float normal[])
+	{
+		int pa = 3 * (a == moved ? movedTo : a);
+		int pb = 3 * (b == moved ? movedTo : b);
+		int pc = 3 * (c == moved ? movedTo : c);
+
+		float e1x = mPositions[pb] - mPositions[pa], e1y = mPositions[pb + 1] - mPositions[pa + 1], e1z = mPositions[pb + 2] - mPositions[pa + 2];
+		float e2x = mPositions[pc] - mPositions[pa], e2y = mPositions[pc + 1] - mPositions[pa + 1], e2z = mPositions[pc + 2] - mPositions[pa + 2];
+
+		float nx = e1y * e2z - e1z * e2y;
+		float ny = e1z * e2x - e1x * e2z;
+		float nz = e1x * e2y - e1y * e2x;
+		float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (length == 0.0f)
+		{
+			normal[0] = normal[1] = normal[2] = 0.0f;
+			return 0.0f;
+		}
+
+		normal[0] = nx / length;
+		normal[1] = ny / length;
+		normal[2] = nz / length;
+		return 0.5f * length;
+	}
+
+	/**
+	 * Adds the quadric of the plane with unit normal `normal` through vertex `through` to vertex `v`.
+	 */
+	private void addPlane(int v, float normal[], int through, float weight)
+	{
+		double a = normal[0], b = normal[1], c = normal[2];
+		double d = -(a * mPositions[3 * through] + b * mPositions[3 * through + 1] + c * mPositions[3 * through + 2]);
+
+		int q = 10 * v;
+		mQuadrics[q] += weight * a * a;
+		mQuadrics[q + 1] += weight * a * b;
+		mQuadrics[q + 2] += weight * a * c;
+		mQuadrics[q + 3] += weight * a * d;
+		mQuadrics[q + 4] += weight * b * b;
+		mQuadrics[q + 5] += weight * b * c;
+		mQuadrics[q + 6] += weight * b * d;
+		mQuadrics[q + 7] += weight * c * c;
+		mQuadrics[q + 8] += weight * c * d;
+		mQuadrics[q + 9] += weight * d * d;
+		mWeights[v] += weight;
+	}
+
+	/**
+	 * Adds a plane through edge (a, b) of triangle t, perpendicular to the triangle, to both ends of the edge.
+	 */
+	private void addEdgeConstraint(int t, int a, int b)
+	{
+		float faceNormal[] = new float[3];
+		if (faceNormal(mTriangles[3 * t], mTriangles[3 * t + 1], mTriangles[3 * t + 2], -1, 0, faceNormal) == 0.0f)
+		{
+			return;
+		}
+
+		float ex = mPositions[3 * b] - mPositions[3 * a];
+		float ey = mPositions[3 * b + 1] - mPositions[3 * a + 1];
+		float ez = mPositions[3 * b + 2] - mPositions[3 * a + 2];
+		float lengthSquared = ex * ex + ey * ey + ez * ez;
+
+		float normal[] = new float[3];
+		normal[0] = ey * faceNormal[2] - ez * faceNormal[1];
+		normal[1] = ez * faceNormal[0] - ex * faceNormal[2];
+		normal[2] = ex * faceNormal[1] - ey * faceNormal[0];
+		float length = (float)Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1] + normal[2] * normal[2]);
+		if (length == 0.0f)
+		{
+			return;
+		}
+		normal[0] /= length;
+		normal[1] /= length;
+		normal[2] /= length;
+
+		addPlane(a, normal, a, mBoundaryWeight * lengthSquared);
+		addPlane(b, normal, a, mBoundaryWeight * lengthSquared);
+	}
+
+	/**
+	 * Evaluates the sum of the quadrics of vertices a and b at the position of vertex p.
+	 */
+	private double evaluate(int a, int b, int p)
+	{
+		double x = mPositions[3 * p], y = mPositions[3 * p + 1], z = mPositions[3 * p + 2];
+		int qa = 10 * a, qb = 10 * b;
+		double q[] = mQuadrics;
+
+		return (q[qa] + q[qb]) * x * x + 2.0 * (q[qa + 1] + q[qb + 1]) * x * y + 2.0 * (q[qa + 2] + q[qb + 2]) * x * z + 2.0 * (q[qa + 3] + q[qb + 3]) * x +
+				(q[qa + 4] + q[qb + 4]) * y * y + 2.0 * (q[qa + 5] + q[qb + 5]) * y * z + 2.0 * (q[qa + 6] + q[qb + 6]) * y +
+				(q[qa + 7] + q[qb + 7]) * z * z + 2.0 * (q[qa + 8] + q[qb + 8]) * z +
+				(q[qa + 9] + q[qb + 9]);
+	}
+
+	/**
+	 * Queues the cheaper direction of collapsing edge (a, b), if either end can be removed.
+	 */
+	private void offerCollapse(PriorityQueue<Collapse> queue, int a, int b)
+	{
+		double costAB = (mLocked[a] ? Double.MAX_VALUE : Math.max(0.0, evaluate(a, b, b)));
+		double costBA = (mLocked[b] ? Double.MAX_VALUE : Math.max(0.0, evaluate(a, b, a)));
+		if (costAB == Double.MAX_VALUE && costBA == Double.MAX_VALUE)
+		{
+			return;
+		}
+
+		Collapse collapse = new Collapse();
+		collapse.from = (costAB <= costBA ? a : b);
+		collapse.to = (costAB <= costBA ? b : a);
+		collapse.cost = Math.min(costAB, costBA);
+		collapse.fromVersion = mVersions[collapse.from];
+		collapse.toVersion = mVersions[collapse.to];
+
+		/* The root mean square distance to the planes gathered in the merged vertex. */
+		double weight = mWeights[a] + mWeights[b];
+		collapse.error = (weight > 0.0 ? (float)Math.sqrt(collapse.cost / weight) : 0.0f);
+
+		queue.add(collapse);
+	}
+
+	/**
+	 * Returns true if collapsing `from` onto `to` keeps the mesh manifold and flips no triangles.
+	 */
+	private boolean canCollapse(int from, int to)
+	{
+		/* The edge must still exist; count the triangles on it. */
+		int shared = 0;
+		for (int i = 0; i < mVertexTriangleCounts[from]; ++i)
+		{
+			int t = mVertexTriangles[from][i];
+			if (mTriangles[3 * t] == to || mTriangles[3 * t + 1] == to || mTriangles[3 * t + 2] == to)
+			{
+				++shared;
+			}
+		}
+		if (shared == 0)
+		{
+			return false;
+		}
+
+		/* Link condition: the ends may only share the neighbors opposite the edge. */
+		++mMark;
+		for (int i = 0; i < mVertexTriangleCounts[to]; ++i)
+		{
+			int t = mVertexTriangles[to][i];
+			for (int k = 0; k < 3; ++k)
+			{
+				mMarks[mTriangles[3 * t + k]] = mMark;
+			}
+		}
+
+		int common = 0;
+		int counted = ++mMark;
+		for (int i = 0; i < mVertexTriangleCounts[from]; ++i)
+		{
+			int t = mVertexTriangles[from][i];
+			for (int k = 0; k < 3; ++k)
+			{
+				int v = mTriangles[3 * t + k];
+				if (v != from && v != to && mMarks[v] == counted - 1)
+				{
+					mMarks[v] = counted;
+					++common;
+				}
+			}
+		}
+		if (common != shared)
+		{
+			return false;
+		}
+
+		/* No remaining triangle around `from` may flip over, or collapse to a sliver. */
+		float before[] = mNormalBefore, after[] = mNormalAfter;
+		for (int i = 0; i < mVertexTriangleCounts[from]; ++i)
+		{
+			int t = mVertexTriangles[from][i];
+			int a = mTriangles[3 * t], b = mTriangles[3 * t + 1], c = mTriangles[3 * t + 2];
+			if (a == to || b == to || c == to)
+			{
+				continue;
+			}
+
+			faceNormal(a, b, c, -1, 0, before);
+			if (faceNormal(a, b, c, from, to, after) == 0.0f ||
+				before[0] * after[0] + before[1] * after[1] + before[2] * after[2] < 0.2f)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void collapse(int from, int to)
+	{
+		for (int i = mVertexTriangleCounts[from] - 1; i >= 0; --i)
+		{
+			int t = mVertexTriangles[from][i];
+			if (mTriangles[3 * t] == to || mTriangles[3 * t + 1] == to || mTriangles[3 * t + 2] == to)
+			{
+				/* The triangle on the edge disappears. */
+				mTriangleAlive[t] = false;
+				--mTriangleCount;
+				for (int k = 0; k < 3; ++k)
+				{
+					if (mTriangles[3 * t + k] != from)
+					{
+						removeVertexTriangle(mTriangles[3 * t + k], t);
+					}
+				}
+			}
+			else
+			{
+				for (int k = 0; k < 3; ++k)
+				{
+					if (mTriangles[3 * t + k] == from)
+					{
+						mTriangles[3 * t + k] = to;
+					}
+				}
+				addVertexTriangle(to, t);
+			}
+		}
+
+		mVertexTriangleCounts[from] = 0;
+		for (int i = 0; i < 10; ++i)
+		{
+			mQuadrics[10 * to + i] += mQuadrics[10 * from + i];
+		}
+		mWeights[to] += mWeights[from];
+		mCollapsedInto[from] = to;
+		++mVersions[to];
+	}
+
+	/**
+	 * Returns the vertex `v` was collapsed into, following chains of collapses.
+	 */
+	private int resolve(int v)
+	{
+		while (mCollapsedInto[v] >= 0)
+		{
+			v = mCollapsedInto[v];
+		}
+
+		return v;
+	}
+
+	/**
+	 * Builds a mesh from the current state, keeping only vertices still used by triangles.
+	 */
+	private Trimesh buildMesh(Trimesh original)
+	{
+		int newIndices[] = new int[mVertexCount];
+		int newVertexCount = 0;
+		for (int v = 0; v < mVertexCount; ++v)
+		{
+			newIndices[v] = (mVertexTriangleCounts[v] > 0 ? newVertexCount++ : -1);
+		}
+
+		IntBuffer triangles = Buffers.newDirectIntBuffer(3 * mTriangleCount);
+		for (int t = 0; t < mTriangleAlive.length; ++t)
+		{
+			if (mTriangleAlive[t])
+			{
+				for (int k = 0; k < 3; ++k)
+				{
+					triangles.put(newIndices[mTriangles[3 * t + k]]);
+				}
+			}
+		}
+		triangles.rewind();
+
+		Trimesh result = new Trimesh();
+		result.setName(original.getName());
+		result.setMaterial(original.getMaterial());
+		result.setPolygonData(triangles);
+		result.setVertexData(compact(original.getVertexData(), newIndices, newVertexCount));
+		result.setNormalData(compact(original.getNormalData(), newIndices, newVertexCount));
+		result.setTexCoordData(compact(original.getTexCoordData(), newIndices, newVertexCount));
+		for (Map.Entry<String, FloatBuffer> attrib : original.vertexAttribData.entrySet())
+		{
+			FloatBuffer data = compact(attrib.getValue(), newIndices, newVertexCount);
+			if (data != null)
+			{
+				result.vertexAttribData.put(attrib.getKey(), data);
+			}
+		}
+
+		/* Keep edges whose ends survive (or were collapsed into surviving vertices) as distinct vertices. */
+		IntBuffer edges = original.getEdgeData();
+		if (edges != null)
+		{
+			HashSet<Long> kept = new HashSet<Long>();
+			for (int i = 0; i + 1 < edges.capacity(); i += 2)
+			{
+				int a = newIndices[resolve(edges.get(i))];
+				int b = newIndices[resolve(edges.get(i + 1))];
+				if (a >= 0 && b >= 0 && a != b)
+				{
+					kept.add(a * 4294967296L + b);
+				}
+			}
+
+			if (!kept.isEmpty())
+			{
+				IntBuffer newEdges = Buffers.newDirectIntBuffer(2 * kept.size());
+				for (Long edge : kept)
+				{
+					newEdges.put((int)(edge / 4294967296L));
+					newEdges.put((int)(edge % 4294967296L));
+				}
+				newEdges.rewind();
+				result.setEdgeData(newEdges);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copies the entries of a per-vertex buffer for the vertices kept, or returns null if there's no buffer.
+	 */
+	private FloatBuffer compact(FloatBuffer data, int newIndices[], int newVertexCount)
+	{
+		if (data == null || mVertexCount == 0 || data.capacity() % mVertexCount != 0)
+		{
+			return null;
+		}
+
+		int size = data.capacity() / mVertexCount;
+		FloatBuffer result = Buffers.newDirectFloatBuffer(size * newVertexCount);
+		for (int v = 0; v < mVertexCount; ++v)
+		{
+			if (newIndices[v] >= 0)
+			{
+				for (int i = 0; i < size; ++i)
+				{
+					result.put(size * newIndices[v] + i, data.get(size * v + i));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a triangle mesh of a mesh's polygons, split into fans, sharing its vertex data; or the mesh 
+	 * itself if it's already a Trimesh. Quad meshes are simplified through this.
+	 */
+	public static Trimesh triangulate(Mesh mesh)
+	{
+		if (mesh instanceof Trimesh)
+		{
+			return (Trimesh)mesh;
+		}
+		
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		int polygonCount = mesh.getPolygonCount();
+		IntBuffer polygons = mesh.getPolygonData();
+		IntBuffer triangles = Buffers.newDirectIntBuffer(3 * polygonCount * Math.max(0, verticesPerPolygon - 2));
+		for (int p = 0; p < polygonCount; ++p)
+		{
+			int base = p * verticesPerPolygon;
+			for (int k = 2; k < verticesPerPolygon; ++k)
+			{
+				triangles.put(polygons.get(base));
+				triangles.put(polygons.get(base + k - 1));
+				triangles.put(polygons.get(base + k));
+			}
+		}
+		triangles.rewind();
+		
+		Trimesh result = new Trimesh();
+		result.setName(mesh.getName());
+		result.setMaterial(mesh.getMaterial());
+		result.setPolygonData(triangles);
+		result.setVertexData(mesh.getVertexData());
+		result.setNormalData(mesh.getNormalData());
+		result.setTexCoordData(mesh.getTexCoordData());
+		result.setEdgeData(mesh.getEdgeData());
+		result.vertexAttribData.putAll(mesh.vertexAttribData);
+		return result;
+	}
+
+	/**
+	 * Sets the weight of boundary and crease constraint planes, relative to the faces' own planes.
+	 * Higher weights keep boundaries and creases closer to where they are.
+	 */
+	public void setBoundaryWeight(float boundaryWeight)
+	{
+		mBoundaryWeight = boundaryWeight;
+	}
+
+	public float getBoundaryWeight()
+	{
+		return mBoundaryWeight;
+	}
+
+	/**
+	 * Returns the error of each mesh returned by the last `simplify()`: the largest root mean square
+	 * distance, in object space, between a collapsed vertex and the planes of the faces merged into it.
+	 */
+	public float[] getLastErrors()
+	{
+		return mLastErrors;
+	}
+
+	/**
+	 * Returns the time the last `simplify()` took, in milliseconds.
+	 */
+	public double getLastTime()
+	{
+		return mLastNanos / 1.0e6;
+	}
+}
@@ -30,29 +30,7 @@ public class Quadmesh extends Mesh
 			return null;
 		}
 		
-		/* This is a very direct port of Eric Lengyel's code, so I leave most of the explanation
-		 * to him. Go read his page if you don't understand! */
-		
-		/* Allocate temporary buffers and loop over triangles. */
-		float tan1[] = new float[getVertexCount() * 3];
-		float tan2[] = new float[getVertexCount() * 3];
-		
-		for (int quadIndex = 0; quadIndex < getPolygonCount(); ++quadIndex)
-		{
-			/* Treat this quad as being made of two triangles. */
-			for (int triVertex = 1; triVertex <= 2; ++triVertex)
-			{
-				/* Get vertex indices of this triangle. */
-				int i1 = mPolygonData.get(3 * quadIndex + 0);
-				int i2 = mPolygonData.get(3 * quadIndex + triVertex);
-				int i3 = mPolygonData.get(3 * quadIndex + triVertex + 1);				
-				
-				computeAndAccumulateTangentVectors(i1, i2, i3, tan1, tan2);				
-			}
-		}		
-		
-		/* Average and normalize the accumulated tangent vectors. */
-		return averageAndNormalizeAllTangentVectors(tan1, tan2);
+		return TangentGenerator.generate(this);
 	}
 	
 	/**
@@ -72,6 +50,7 @@ public class Quadmesh extends Mesh
 		copy.setVertexData(getVertexData());
 		copy.setNormalData(getNormalData());
 		copy.vertexAttribData = (HashMap<String, FloatBuffer>) vertexAttribData.clone();
+		copy.setCompactVertexData(getCompactVertexData());
 		
 		return copy;
 	}
@@ -0,0 +1,158 @@
+package cs5625.deferred.scenegraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * SceneIndex.java
+ *
+ * Indices of the nodes of a scenegraph by name and by type, so that `SceneObject.findDescendantByName()`
+ * and enumerating e.g. all lights don't have to walk the whole scene. An index belongs to the root of a
+ * hierarchy; it is built the first time it is asked for (`SceneObject.getSceneIndex()`), and from then on
+ * `SceneObject.addChild()`, `removeChild()`, and `setName()` keep it up to date.
+ *
+ * Each node is listed under its class and all superclasses up to `SceneObject`, so the list for `Light`
+ * includes point lights. Lists keep the order nodes were indexed in, which is depth-first for the nodes
+ * present when the index was built.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class SceneIndex
+{
+	private final HashMap<String, ArrayList<SceneObject>> mNames = new HashMap<String, ArrayList<SceneObject>>();
+	private final HashMap<Class<?>, ArrayList<SceneObject>> mTypes = new HashMap<Class<?>, ArrayList<SceneObject>>();
+
+	/**
+	 * Indexes `root` and all its descendants.
+	 */
+	public SceneIndex(SceneObject root)
+	{
+		addSubtree(root);
+	}
+
+	/**
+	 * Returns the nodes with a given name; empty if there are none. Don't modify the list.
+	 */
+	public List<SceneObject> findByName(String name)
+	{
+		List<SceneObject> nodes = mNames.get(name);
+		return (nodes == null ? Collections.<SceneObject>emptyList() : nodes);
+	}
+
+	/**
+	 * Returns the nodes which are instances of a class. The list is live: nodes added to or removed from
+	 * the scene later show up in it, so it can be kept and read every frame. Don't modify it.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends SceneObject> List<T> getObjectsOfType(Class<T> type)
+	{
+		ArrayList<SceneObject> nodes = mTypes.get(type);
+		if (nodes == null)
+		{
+			nodes = new ArrayList<SceneObject>();
+			mTypes.put(type, nodes);
+		}
+
+		return (List<T>)(List<?>)nodes;
+	}
+
+	/**
+	 * Adds a node and its descendants.
+	 */
+	void addSubtree(SceneObject obj)
+	{
+		add(mNames, obj.getName(), obj);
+		for (Class<?> type = obj.getClass(); type != null && SceneObject.class.isAssignableFrom(type); type = type.getSuperclass())
+		{
+			add(mTypes, type, obj);
+		}
+
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			addSubtree(children.get(i));
+		}
+	}
+
+	/**
+	 * Removes a node and its descendants.
+	 */
+	void removeSubtree(SceneObject obj)
+	{
+		/* Gather the subtree first, so that each list is filtered once rather than once per node. */
+		HashSet<SceneObject> removed = new HashSet<SceneObject>();
+		HashSet<String> names = new HashSet<String>();
+		HashSet<Class<?>> types = new HashSet<Class<?>>();
+		gather(obj, removed, names, types);
+
+		for (String name : names)
+		{
+			remove(mNames, name, removed, true);
+		}
+		for (Class<?> type : types)
+		{
+			/* Type lists stay, even empty, since they may be held on to; see getObjectsOfType(). */
+			remove(mTypes, type, removed, false);
+		}
+	}
+
+	/**
+	 * Moves a node from its old name's list to its new name's list.
+	 */
+	void rename(SceneObject obj, String oldName, String newName)
+	{
+		ArrayList<SceneObject> nodes = mNames.get(oldName);
+		if (nodes != null && nodes.remove(obj))
+		{
+			if (nodes.isEmpty())
+			{
+				mNames.remove(oldName);
+			}
+			add(mNames, newName, obj);
+		}
+	}
+
+	private static void gather(SceneObject obj, HashSet<SceneObject> removed, HashSet<String> names, HashSet<Class<?>> types)
+	{
+		removed.add(obj);
+		names.add(obj.getName());
+		for (Class<?> type = obj.getClass(); type != null && SceneObject.class.isAssignableFrom(type); type = type.getSuperclass())
+		{
+			types.add(type);
+		}
+
+		List<SceneObject> children = obj.getChildren();
+		for (int i = 0; i < children.size(); ++i)
+		{
+			gather(children.get(i), removed, names, types);
+		}
+	}
+
+	private static <K> void add(HashMap<K, ArrayList<SceneObject>> map, K key, SceneObject obj)
+	{
+		ArrayList<SceneObject> nodes = map.get(key);
+		if (nodes == null)
+		{
+			nodes = new ArrayList<SceneObject>();
+			map.put(key, nodes);
+		}
+		nodes.add(obj);
+	}
+
+	private static <K> void remove(HashMap<K, ArrayList<SceneObject>> map, K key, HashSet<SceneObject> removed, boolean dropEmpty)
+	{
+		ArrayList<SceneObject> nodes = map.get(key);
+		if (nodes != null)
+		{
+			nodes.removeAll(removed);
+			if (dropEmpty && nodes.isEmpty())
+			{
+				map.remove(key);
+			}
+		}
+	}
+}
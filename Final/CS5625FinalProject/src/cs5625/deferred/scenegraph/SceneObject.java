@@ -36,10 +36,24 @@ public class SceneObject implements OpenGLResourceObject
 	private String mName = "";
 	private SceneObject mParent = null;
 	private boolean mIsVisible = true;
+	private boolean mIsStatic = false;
+	
+	/* The transform the renderer draws this object with, when a simulation snapshot has set one. */
+	private final Point3f mRenderPosition = new Point3f();
+	private final Quat4f mRenderOrientation = new Quat4f(0.0f, 0.0f, 0.0f, 1.0f);
+	private float mRenderScale = 1.0f;
+	private boolean mHasRenderTransform = false;
 	
 	/* List of child nodes. */
 	private ArrayList<SceneObject> mChildren = new ArrayList<SceneObject>();
 	
+	/* Name and type index of the hierarchy, kept by the root once asked for; see getSceneIndex(). */
+	private SceneIndex mIndex = null;
+	
+	/* The flattened graph this object is part of, if any, and its index there. */
+	private FlatSceneGraph mFlatGraph = null;
+	private int mFlatIndex = -1;
+	
 	/**
 	 * Updates any animation for this node at each frame, if any.
 	 * Default implementation calls `animate(dt)` on children.
@@ -75,6 +89,24 @@ public class SceneObject implements OpenGLResourceObject
 		mIsVisible = visible;
 	}
 	
+	/**
+	 * Returns true if this object was marked as static. Descendants of a static object are 
+	 * treated as static too.
+	 */
+	public boolean isStatic()
+	{
+		return mIsStatic;
+	}
+	
+	/**
+	 * Marks this object and its descendants as static, i.e. not expected to move. The renderer 
+	 * caches the shadows of static objects; moving one still works, but costs re-rendering the cache.
+	 */
+	public void setStatic(boolean isStatic)
+	{
+		mIsStatic = isStatic;
+	}
+	
 	/**
 	 * Returns all direct child nodes of this node.
 	 */
@@ -97,6 +129,19 @@ public class SceneObject implements OpenGLResourceObject
 		
 		mChildren.add(child);
 		child.mParent = this;
+		
+		/* The child's subtree joins this hierarchy's index, and no longer needs one of its own. */
+		child.mIndex = null;
+		SceneIndex index = findSceneIndex();
+		if (index != null)
+		{
+			index.addSubtree(child);
+		}
+		
+		if (mFlatGraph != null)
+		{
+			mFlatGraph.invalidate();
+		}
 	}
 
 	/**
@@ -145,6 +190,17 @@ public class SceneObject implements OpenGLResourceObject
 		}
 
 		child.mParent = null;
+		
+		SceneIndex index = findSceneIndex();
+		if (index != null)
+		{
+			index.removeSubtree(child);
+		}
+		
+		if (mFlatGraph != null)
+		{
+			mFlatGraph.invalidate();
+		}
 	}
 	
 	/**
@@ -160,10 +216,111 @@ public class SceneObject implements OpenGLResourceObject
 		}
 	}
 	
+	/**
+	 * Returns the flattened graph this object is part of, or null; see `FlatSceneGraph`.
+	 */
+	public FlatSceneGraph getFlatGraph()
+	{
+		return mFlatGraph;
+	}
+	
+	/**
+	 * Returns this object's index in its flattened graph, or -1 if it isn't part of one.
+	 */
+	public int getFlatIndex()
+	{
+		return mFlatIndex;
+	}
+	
+	/**
+	 * Called by `FlatSceneGraph` when it flattens a hierarchy containing this object.
+	 */
+	void setFlatGraph(FlatSceneGraph graph, int index)
+	{
+		mFlatGraph = graph;
+		mFlatIndex = index;
+	}
+	
+	/**
+	 * Returns the name and type index of the hierarchy this object is in, building it if this is the 
+	 * first time it's asked for; see `SceneIndex`.
+	 */
+	public SceneIndex getSceneIndex()
+	{
+		SceneObject root = this;
+		while (root.mParent != null)
+		{
+			root = root.mParent;
+		}
+		
+		if (root.mIndex == null)
+		{
+			root.mIndex = new SceneIndex(root);
+		}
+		
+		return root.mIndex;
+	}
+	
+	/**
+	 * Returns the index of the hierarchy this object is in, or null if none was built.
+	 */
+	private SceneIndex findSceneIndex()
+	{
+		SceneObject root = this;
+		while (root.mParent != null)
+		{
+			root = root.mParent;
+		}
+		
+		return root.mIndex;
+	}
+	
+	/**
+	 * Returns true if this object is `obj` or one of its ancestors.
+	 */
+	public boolean isAncestorOf(SceneObject obj)
+	{
+		for (SceneObject node = obj; node != null; node = node.mParent)
+		{
+			if (node == this)
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
 	/**
 	 * Returns the first child of this object with the given name, or null if no child has that name.
+	 * 
+	 * Candidates are looked up in the scene index; the children are only searched when several share the name.
 	 */
 	public SceneObject findChildByName(String name)
+	{
+		List<SceneObject> candidates = getSceneIndex().findByName(name);
+		SceneObject found = null;
+		
+		for (int i = 0; i < candidates.size(); ++i)
+		{
+			SceneObject candidate = candidates.get(i);
+			if (candidate.mParent == this)
+			{
+				if (found != null)
+				{
+					return searchChildrenByName(name);
+				}
+				found = candidate;
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Walks the children of this object for the first with the given name.
+	 */
+	private SceneObject searchChildrenByName(String name)
 	{
 		for (SceneObject child : mChildren)
 		{
@@ -179,13 +336,39 @@ public class SceneObject implements OpenGLResourceObject
 	/**
 	 * Returns the first descendant of this object with the given name, or null if no descendant has that name.
 	 * 
-	 * Search order is depth-first.
+	 * Search order is depth-first. Candidates are looked up in the scene index; the hierarchy is only 
+	 * searched when several descendants share the name, to pick the first.
 	 */
 	public SceneObject findDescendantByName(String name)
+	{
+		List<SceneObject> candidates = getSceneIndex().findByName(name);
+		SceneObject found = null;
+		
+		for (int i = 0; i < candidates.size(); ++i)
+		{
+			SceneObject candidate = candidates.get(i);
+			if (candidate != this && isAncestorOf(candidate))
+			{
+				if (found != null)
+				{
+					return searchDescendantsByName(name);
+				}
+				found = candidate;
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Walks the descendants of this object for the first with the given name, in the order 
+	 * `findDescendantByName()` defines.
+	 */
+	private SceneObject searchDescendantsByName(String name)
 	{
 		for (SceneObject child : mChildren)
 		{
-			SceneObject descendant = child.findDescendantByName(name);
+			SceneObject descendant = child.searchDescendantsByName(name);
 			
 			if (descendant != null)
 			{
@@ -214,6 +397,45 @@ public class SceneObject implements OpenGLResourceObject
 			child.calculateTangentVectorsForAllGeometry();
 		}
 	}
+	
+	/**
+	 * Traverses the hierarchy rooted at this node and generates simplified levels of detail for all 
+	 * geometry; see `Geometry.generateLevelsOfDetail()`. Simplification takes time proportional to the 
+	 * number of triangles, so this is best done once, while loading.
+	 */
+	public void generateLevelsOfDetailForAllGeometry(int maxLevels, float reduction)
+	{
+		for (SceneObject child : mChildren)
+		{
+			child.generateLevelsOfDetailForAllGeometry(maxLevels, reduction);
+		}
+	}
+	
+	/**
+	 * Traverses the hierarchy rooted at this node and encodes compact copies of the vertex data of all 
+	 * meshes, at every level of detail; see `CompactVertexData`. Call this after calculating tangent vectors, 
+	 * so that they are encoded too.
+	 */
+	public void compactVertexDataForAllGeometry()
+	{
+		for (SceneObject child : mChildren)
+		{
+			child.compactVertexDataForAllGeometry();
+		}
+	}
+	
+	/**
+	 * Traverses the hierarchy rooted at this node and drops the float vertex buffers of all meshes with 
+	 * compact copies, at every level of detail; see `Mesh.discardFloatVertexData()`. Call this last, 
+	 * after everything that reads vertex data on the CPU (tangents, levels of detail, texture atlases).
+	 */
+	public void discardFloatVertexDataForAllGeometry()
+	{
+		for (SceneObject child : mChildren)
+		{
+			child.discardFloatVertexDataForAllGeometry();
+		}
+	}
 
 	/**
 	 * Returns the position of this object in its parent's space.
@@ -294,6 +516,97 @@ public class SceneObject implements OpenGLResourceObject
 		
 		return mat;
 	}
+	
+	/**
+	 * Same as `getWorldSpaceTransformationMatrix4f()`, but writes into `result` instead of 
+	 * allocating, so the renderer can call it every frame. Like the renderer, it uses render 
+	 * transforms where they are set (see `setRenderTransform()`).
+	 */
+	public void getWorldSpaceTransformationMatrix4f(Matrix4f result)
+	{
+		/* Rotational component: same as getEyeSpaceRotationMatrix3f(), i.e. the matrix of the 
+		 * inverse world space orientation (see Util.getRotationMatrix3f()). */
+		float x = 0.0f, y = 0.0f, z = 0.0f, w = 1.0f;
+		for (SceneObject node = this; node != null; node = node.mParent)
+		{
+			Quat4f q = node.getRenderOrientation();
+			float nx = q.w * x + q.x * w + q.y * z - q.z * y;
+			float ny = q.w * y + q.y * w + q.z * x - q.x * z;
+			float nz = q.w * z + q.z * w + q.x * y - q.y * x;
+			float nw = q.w * w - q.x * x - q.y * y - q.z * z;
+			x = nx; y = ny; z = nz; w = nw;
+		}
+		
+		float invLength = 1.0f / (float)Math.sqrt(x * x + y * y + z * z + w * w);
+		x *= -invLength;
+		y *= -invLength;
+		z *= -invLength;
+		w *= invLength;
+		
+		result.m00 = 1 - 2*y*y - 2*z*z; result.m01 = 2*x*y + 2*w*z;     result.m02 = 2*x*z - 2*w*y;
+		result.m10 = 2*x*y - 2*w*z;     result.m11 = 1 - 2*x*x - 2*z*z; result.m12 = 2*y*z + 2*w*x;
+		result.m20 = 2*x*z + 2*w*y;     result.m21 = 2*y*z - 2*w*x;     result.m22 = 1-2*x*x - 2*y*y;
+		
+		/* Translational component: the world space position of this object. */
+		float px = 0.0f, py = 0.0f, pz = 0.0f;
+		for (SceneObject node = this; node != null; node = node.mParent)
+		{
+			float scale = node.getRenderScale();
+			Quat4f q = node.getRenderOrientation();
+			Point3f position = node.getRenderPosition();
+			
+			float qlen = q.x * q.x + q.y * q.y + q.z * q.z + q.w * q.w;
+			float qs = (qlen == 1.0f ? 1.0f : 1.0f / (float)Math.sqrt(qlen));
+			float qx = q.x * qs, qy = q.y * qs, qz = q.z * qs, qw = q.w * qs;
+			
+			px *= scale; py *= scale; pz *= scale;
+			
+			float tx = 2.0f * (qy * pz - qz * py);
+			float ty = 2.0f * (qz * px - qx * pz);
+			float tz = 2.0f * (qx * py - qy * px);
+			
+			float rx = px + qw * tx + (qy * tz - qz * ty);
+			float ry = py + qw * ty + (qz * tx - qx * tz);
+			float rz = pz + qw * tz + (qx * ty - qy * tx);
+			
+			px = rx + position.x;
+			py = ry + position.y;
+			pz = rz + position.z;
+		}
+		
+		result.m03 = px;
+		result.m13 = py;
+		result.m23 = pz;
+		result.m30 = 0.0f; result.m31 = 0.0f; result.m32 = 0.0f; result.m33 = 1.0f;
+	}
+
+	/**
+	 * Writes the matrix taking points in this object's local space to world space (the scale, rotation, and 
+	 * translation of this object and its ancestors) into `result`. If this object is part of a flattened 
+	 * graph whose hierarchy hasn't changed, this is the matrix computed by the graph's last `update()`; 
+	 * otherwise it is computed by walking up the hierarchy.
+	 */
+	public void getLocalToWorldMatrix(Matrix4f result)
+	{
+		if (mFlatGraph != null && !mFlatGraph.isChanged())
+		{
+			mFlatGraph.getWorldMatrix(mFlatIndex, result);
+			return;
+		}
+		
+		Matrix4f local = new Matrix4f();
+		Vector3f translation = new Vector3f();
+		Quat4f orientation = new Quat4f();
+		
+		result.setIdentity();
+		for (SceneObject node = this; node != null; node = node.mParent)
+		{
+			translation.set(node.mPosition);
+			orientation.normalize(node.mOrientation);
+			local.set(orientation, translation, node.mScale);
+			result.mul(local, result);
+		}
+	}
 
 	/**
 	 * Sets the orientation of this object in its parent's space.
@@ -319,6 +632,52 @@ public class SceneObject implements OpenGLResourceObject
 		mScale = scale;
 	}
 	
+	/**
+	 * Sets the transform the renderer draws this object with, in place of its position, orientation, 
+	 * and scale. Used when a simulation thread owns those and publishes snapshots of them; see 
+	 * `FrameScheduler`. The renderer and the non-allocating world space transforms use it; everything 
+	 * else sees the live transform.
+	 */
+	public void setRenderTransform(Point3f position, Quat4f orientation, float scale)
+	{
+		mRenderPosition.set(position);
+		mRenderOrientation.set(orientation);
+		mRenderScale = scale;
+		mHasRenderTransform = true;
+	}
+	
+	/**
+	 * Makes the renderer draw this object with its live transform again.
+	 */
+	public void clearRenderTransform()
+	{
+		mHasRenderTransform = false;
+	}
+	
+	/**
+	 * Returns the position the renderer draws this object at: the render transform's, if one is set.
+	 */
+	public Point3f getRenderPosition()
+	{
+		return (mHasRenderTransform ? mRenderPosition : mPosition);
+	}
+	
+	/**
+	 * Returns the orientation the renderer draws this object with: the render transform's, if one is set.
+	 */
+	public Quat4f getRenderOrientation()
+	{
+		return (mHasRenderTransform ? mRenderOrientation : mOrientation);
+	}
+	
+	/**
+	 * Returns the scale the renderer draws this object with: the render transform's, if one is set.
+	 */
+	public float getRenderScale()
+	{
+		return (mHasRenderTransform ? mRenderScale : mScale);
+	}
+	
 	/**
 	 * Returns the name of this object. 
 	 * 
@@ -337,6 +696,12 @@ public class SceneObject implements OpenGLResourceObject
 	 */
 	public void setName(String name)
 	{
+		SceneIndex index = findSceneIndex();
+		if (index != null)
+		{
+			index.rename(this, mName, name);
+		}
+		
 		mName = name;
 	}
 
@@ -401,6 +766,47 @@ public class SceneObject implements OpenGLResourceObject
 		}
 	}
 	
+	/**
+	 * Transforms a point in this object's local space into world space, writing into `result` 
+	 * instead of allocating. `result` may be the same object as `point`. 
+	 * 
+	 * This and the other non-allocating world space transforms are the renderer's: they use render 
+	 * transforms where they are set (see `setRenderTransform()`), so that the render thread never reads 
+	 * a transform the simulation thread is writing. Without a render transform they use the live one.
+	 */
+	public void transformPointToWorldSpace(Point3f point, Point3f result)
+	{
+		result.set(point);
+		
+		for (SceneObject node = this; node != null; node = node.mParent)
+		{
+			result.scale(node.getRenderScale());
+			Util.rotateTuple(node.getRenderOrientation(), result);
+			result.add(node.getRenderPosition());
+		}
+	}
+	
+	/**
+	 * Transforms a point in world space into this object's local space, writing into `result` 
+	 * instead of allocating. `result` may be the same object as `point`. Uses render transforms 
+	 * where they are set; see `transformPointToWorldSpace(Point3f, Point3f)`.
+	 */
+	public void transformPointFromWorldSpace(Point3f point, Point3f result)
+	{
+		if (mParent == null)
+		{
+			result.set(point);
+		}
+		else
+		{
+			mParent.transformPointFromWorldSpace(point, result);
+		}
+		
+		result.sub(getRenderPosition());
+		Util.rotateTupleInverse(getRenderOrientation(), result);
+		result.scale(1.0f / getRenderScale());
+	}
+	
 	/**
 	 * Transforms a direction in this object's local space into its parent's space.
 	 */
@@ -556,6 +962,21 @@ public class SceneObject implements OpenGLResourceObject
 			return transformOrientationFromParentSpace(mParent.transformOrientationFromWorldSpace(orientation));
 		}
 	}
+	
+	/**
+	 * Transforms an orientation in this object's local space into world space, writing into 
+	 * `result` instead of allocating. `result` may be the same object as `orientation`. Uses render 
+	 * transforms where they are set; see `transformPointToWorldSpace(Point3f, Point3f)`.
+	 */
+	public void transformOrientationToWorldSpace(Quat4f orientation, Quat4f result)
+	{
+		result.set(orientation);
+		
+		for (SceneObject node = this; node != null; node = node.mParent)
+		{
+			result.mul(node.getRenderOrientation(), result);
+		}
+	}
 
 	/**
 	 * Releases any OpenGL resources owned by descendant objects. 
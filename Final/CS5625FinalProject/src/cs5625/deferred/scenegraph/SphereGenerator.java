@@ -0,0 +1,141 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * SphereGenerator.java
+ *
+ * Generates a UV sphere of triangles, centered on the origin with its poles on the y axis. Each ring of
+ * vertices is one piece; it writes the ring, and the band of triangles between it and the next ring.
+ * The seam and the poles have one vertex per slice so that texture coordinates don't wrap; the
+ * triangles which would collapse at the poles are left out.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class SphereGenerator extends MeshGenerator
+{
+	private final float mRadius;
+	private final int mSlices, mStacks;
+
+	/**
+	 * Creates a sphere generator.
+	 *
+	 * @param radius Radius of the sphere.
+	 * @param slices Number of divisions around the y axis; at least 3.
+	 * @param stacks Number of divisions from pole to pole; at least 2.
+	 */
+	public SphereGenerator(float radius, int slices, int stacks)
+	{
+		if (slices < 3 || stacks < 2)
+		{
+			throw new IllegalArgumentException("A sphere needs at least 3 slices and 2 stacks, not " + slices + " and " + stacks + ".");
+		}
+
+		mRadius = radius;
+		mSlices = slices;
+		mStacks = stacks;
+	}
+
+	@Override
+	public int getVerticesPerPolygon()
+	{
+		return 3;
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return (mSlices + 1) * (mStacks + 1);
+	}
+
+	@Override
+	public int getPolygonCount()
+	{
+		return 2 * mSlices * (mStacks - 1);
+	}
+
+	@Override
+	protected int getPieceCount()
+	{
+		return mStacks + 1;
+	}
+
+	/* Number of triangles in the band below ring j; the bands touching a pole have one per slice. */
+	private int getBandTriangleCount(int j)
+	{
+		if (j >= mStacks)
+		{
+			return 0;
+		}
+
+		return (j == 0 || j == mStacks - 1 ? mSlices : 2 * mSlices);
+	}
+
+	@Override
+	protected void count(int first, int end, int counts[])
+	{
+		counts[0] += (end - first) * (mSlices + 1);
+		for (int j = first; j < end; ++j)
+		{
+			counts[1] += getBandTriangleCount(j);
+		}
+	}
+
+	@Override
+	protected void fill(int first, int end, int vertex, int polygon, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons)
+	{
+		int stride = mSlices + 1;
+
+		for (int j = first; j < end; ++j)
+		{
+			double theta = Math.PI * j / mStacks;
+			float sinTheta = (float)Math.sin(theta);
+			float cosTheta = (float)Math.cos(theta);
+
+			for (int i = 0; i <= mSlices; ++i, ++vertex)
+			{
+				double phi = 2.0 * Math.PI * i / mSlices;
+				float nx = sinTheta * (float)Math.sin(phi);
+				float ny = cosTheta;
+				float nz = sinTheta * (float)Math.cos(phi);
+
+				vertices.put(3 * vertex, mRadius * nx);
+				vertices.put(3 * vertex + 1, mRadius * ny);
+				vertices.put(3 * vertex + 2, mRadius * nz);
+				normals.put(3 * vertex, nx);
+				normals.put(3 * vertex + 1, ny);
+				normals.put(3 * vertex + 2, nz);
+				texcoords.put(2 * vertex, (float)i / mSlices);
+				texcoords.put(2 * vertex + 1, 1.0f - (float)j / mStacks);
+			}
+
+			if (j >= mStacks)
+			{
+				continue;
+			}
+
+			for (int i = 0; i < mSlices; ++i)
+			{
+				int above = j * stride + i;
+				int below = above + stride;
+
+				if (j < mStacks - 1)
+				{
+					polygons.put(3 * polygon, above);
+					polygons.put(3 * polygon + 1, below);
+					polygons.put(3 * polygon + 2, below + 1);
+					++polygon;
+				}
+				if (j > 0)
+				{
+					polygons.put(3 * polygon, above);
+					polygons.put(3 * polygon + 1, below + 1);
+					polygons.put(3 * polygon + 2, above + 1);
+					++polygon;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * TangentGenerator.java
+ *
+ * Computes per-vertex tangent frames for `Mesh.calculateTangentVectors()`, following Eric Lengyel's
+ * method (http://www.terathon.com/code/tangent.html): each triangle's texture space directions are
+ * accumulated at its vertices, and each vertex's sum is then made orthogonal to its normal. The output
+ * is a 4-vector per vertex, with the handedness of the bitangent (1 or -1) in the w component.
+ *
+ * Vertex data is read straight from the mesh's buffers, and nothing is allocated per triangle or per
+ * vertex. Meshes with many triangles are split into as many chunks as the shared fork/join pool has
+ * threads; each chunk accumulates into a buffer of its own, and the buffers are then summed and
+ * normalized in parallel over vertex ranges. Polygons with more than 3 vertices are fanned into triangles.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TangentGenerator
+{
+	/* Meshes with fewer triangles than this are done on the calling thread; chunks are at least half this. */
+	private static final int PARALLEL_THRESHOLD = 32768;
+
+	/* Triangles whose texture coordinates span less area than this don't contribute. */
+	private static final float EPS = 1e-7f;
+
+	private static ForkJoinPool sPool = null;
+
+	/**
+	 * Returns a mesh's tangent vectors, or null if the mesh has no polygons or no normals. Vertices whose
+	 * triangles have no usable texture coordinates get an arbitrary tangent perpendicular to their normal.
+	 */
+	public static FloatBuffer generate(Mesh mesh)
+	{
+		int vertexCount = mesh.getVertexCount();
+		int polygonCount = mesh.getPolygonCount();
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+		if (vertexCount == 0 || polygonCount == 0 || verticesPerPolygon < 3 || mesh.getNormalData() == null)
+		{
+			return null;
+		}
+
+		FloatBuffer result = Buffers.newDirectFloatBuffer(4 * vertexCount);
+
+		int triangleCount = polygonCount * (verticesPerPolygon - 2);
+		int chunkCount = 1;
+		if (triangleCount >= PARALLEL_THRESHOLD)
+		{
+			chunkCount = Math.max(1, Math.min(getPool().getParallelism(), 2 * triangleCount / PARALLEL_THRESHOLD));
+		}
+
+		float accumulators[][] = new float[chunkCount][];
+		if (chunkCount == 1)
+		{
+			accumulators[0] = new float[6 * vertexCount];
+			accumulate(mesh, 0, polygonCount, accumulators[0]);
+			finish(mesh, accumulators, 0, vertexCount, result);
+		}
+		else
+		{
+			getPool().invoke(new GenerateTask(mesh, accumulators, result));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds the texture space directions of polygons [first, end) to their vertices' entries of
+	 * `accumulator`: 6 floats per vertex, the s direction (tangent) and then the t direction (bitangent).
+	 */
+	private static void accumulate(Mesh mesh, int first, int end, float accumulator[])
+	{
+		FloatBuffer vertices = mesh.getVertexData();
+		FloatBuffer texcoords = mesh.getTexCoordData();
+		IntBuffer polygons = mesh.getPolygonData();
+		int verticesPerPolygon = mesh.getVerticesPerPolygon();
+
+		if (texcoords == null)
+		{
+			return;
+		}
+
+		for (int polygon = first; polygon < end; ++polygon)
+		{
+			int base = verticesPerPolygon * polygon;
+			int i1 = polygons.get(base);
+
+			for (int corner = 1; corner + 1 < verticesPerPolygon; ++corner)
+			{
+				int i2 = polygons.get(base + corner);
+				int i3 = polygons.get(base + corner + 1);
+
+				/* Edges of the triangle, in object space and in texture space. */
+				float x0 = vertices.get(3 * i1), y0 = vertices.get(3 * i1 + 1), z0 = vertices.get(3 * i1 + 2);
+				float x1 = vertices.get(3 * i2) - x0, y1 = vertices.get(3 * i2 + 1) - y0, z1 = vertices.get(3 * i2 + 2) - z0;
+				float x2 = vertices.get(3 * i3) - x0, y2 = vertices.get(3 * i3 + 1) - y0, z2 = vertices.get(3 * i3 + 2) - z0;
+
+				float u0 = texcoords.get(2 * i1), v0 = texcoords.get(2 * i1 + 1);
+				float s1 = texcoords.get(2 * i2) - u0, t1 = texcoords.get(2 * i2 + 1) - v0;
+				float s2 = texcoords.get(2 * i3) - u0, t2 = texcoords.get(2 * i3 + 1) - v0;
+
+				/* Missing or broken texture coordinates; skip the triangle. */
+				float determinant = s1 * t2 - s2 * t1;
+				if (Math.abs(determinant) < EPS)
+				{
+					continue;
+				}
+
+				/* Solve [edge1; edge2] = [s1 t1; s2 t2] [sdir; tdir] for the texture space directions. */
+				float r = 1.0f / determinant;
+				float sx = (t2 * x1 - t1 * x2) * r, sy = (t2 * y1 - t1 * y2) * r, sz = (t2 * z1 - t1 * z2) * r;
+				float tx = (s1 * x2 - s2 * x1) * r, ty = (s1 * y2 - s2 * y1) * r, tz = (s1 * z2 - s2 * z1) * r;
+
+				add(accumulator, i1, sx, sy, sz, tx, ty, tz);
+				add(accumulator, i2, sx, sy, sz, tx, ty, tz);
+				add(accumulator, i3, sx, sy, sz, tx, ty, tz);
+			}
+		}
+	}
+
+	private static void add(float accumulator[], int vertex, float sx, float sy, float sz, float tx, float ty, float tz)
+	{
+		int i = 6 * vertex;
+		accumulator[i] += sx;
+		accumulator[i + 1] += sy;
+		accumulator[i + 2] += sz;
+		accumulator[i + 3] += tx;
+		accumulator[i + 4] += ty;
+		accumulator[i + 5] += tz;
+	}
+
+	/**
+	 * Sums the accumulators of vertices [first, end), makes each tangent orthogonal to the vertex's normal
+	 * (Gram-Schmidt), and stores it in `result` with the bitangent's handedness.
+	 */
+	private static void finish(Mesh mesh, float accumulators[][], int first, int end, FloatBuffer result)
+	{
+		FloatBuffer normals = mesh.getNormalData();
+
+		for (int v = first; v < end; ++v)
+		{
+			float sx = 0.0f, sy = 0.0f, sz = 0.0f, tx = 0.0f, ty = 0.0f, tz = 0.0f;
+			for (int c = 0; c < accumulators.length; ++c)
+			{
+				float accumulator[] = accumulators[c];
+				int i = 6 * v;
+				sx += accumulator[i];
+				sy += accumulator[i + 1];
+				sz += accumulator[i + 2];
+				tx += accumulator[i + 3];
+				ty += accumulator[i + 4];
+				tz += accumulator[i + 5];
+			}
+
+			float nx = normals.get(3 * v), ny = normals.get(3 * v + 1), nz = normals.get(3 * v + 2);
+			float normalLength = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			if (normalLength > 0.0f)
+			{
+				nx /= normalLength;
+				ny /= normalLength;
+				nz /= normalLength;
+			}
+
+			/* Remove the normal's component from the tangent. */
+			float dot = nx * sx + ny * sy + nz * sz;
+			float x = sx - nx * dot, y = sy - ny * dot, z = sz - nz * dot;
+			float length = (float)Math.sqrt(x * x + y * y + z * z);
+
+			if (length < EPS)
+			{
+				/* No usable texture coordinates: take n x (1, 0, 0), or n x (0, 1, 0) if that vanishes too. */
+				x = 0.0f;
+				y = nz;
+				z = -ny;
+				length = (float)Math.sqrt(y * y + z * z);
+				if (length < EPS)
+				{
+					x = -nz;
+					y = 0.0f;
+					z = nx;
+					length = (float)Math.sqrt(x * x + z * z);
+				}
+			}
+
+			if (length > 0.0f)
+			{
+				x /= length;
+				y /= length;
+				z /= length;
+			}
+
+			/* The bitangent is cross(normal, tangent) * w; flip it if the accumulated one points the other way. */
+			float cx = ny * z - nz * y, cy = nz * x - nx * z, cz = nx * y - ny * x;
+			float handedness = (cx * tx + cy * ty + cz * tz < 0.0f ? -1.0f : 1.0f);
+
+			result.put(4 * v, x);
+			result.put(4 * v + 1, y);
+			result.put(4 * v + 2, z);
+			result.put(4 * v + 3, handedness);
+		}
+	}
+
+	/* Accumulates every chunk of polygons in parallel, then finishes every range of vertices in parallel. */
+	private static class GenerateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Mesh mMesh;
+		private final float mAccumulators[][];
+		private final FloatBuffer mResult;
+
+		public GenerateTask(Mesh mesh, float accumulators[][], FloatBuffer result)
+		{
+			mMesh = mesh;
+			mAccumulators = accumulators;
+			mResult = result;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int chunkCount = mAccumulators.length;
+			RangeTask tasks[] = new RangeTask[chunkCount];
+
+			int polygonCount = mMesh.getPolygonCount();
+			for (int c = 0; c < chunkCount; ++c)
+			{
+				tasks[c] = new RangeTask(mMesh, mAccumulators, c, mResult, (int)((long)polygonCount * c / chunkCount), (int)((long)polygonCount * (c + 1) / chunkCount));
+			}
+			invokeAll(tasks);
+
+			int vertexCount = mMesh.getVertexCount();
+			for (int c = 0; c < chunkCount; ++c)
+			{
+				tasks[c] = new RangeTask(mMesh, mAccumulators, -1, mResult, (int)((long)vertexCount * c / chunkCount), (int)((long)vertexCount * (c + 1) / chunkCount));
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/* Accumulates polygons [first, end) into the given chunk's buffer, or finishes vertices [first, end) if the chunk is -1. */
+	private static class RangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Mesh mMesh;
+		private final float mAccumulators[][];
+		private final int mChunk;
+		private final FloatBuffer mResult;
+		private final int mFirst, mEnd;
+
+		public RangeTask(Mesh mesh, float accumulators[][], int chunk, FloatBuffer result, int first, int end)
+		{
+			mMesh = mesh;
+			mAccumulators = accumulators;
+			mChunk = chunk;
+			mResult = result;
+			mFirst = first;
+			mEnd = end;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (mChunk >= 0)
+			{
+				/* Each chunk's buffer is allocated by the thread that fills it. */
+				mAccumulators[mChunk] = new float[6 * mMesh.getVertexCount()];
+				accumulate(mMesh, mFirst, mEnd, mAccumulators[mChunk]);
+			}
+			else
+			{
+				finish(mMesh, mAccumulators, mFirst, mEnd, mResult);
+			}
+		}
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (sPool == null)
+		{
+			sPool = new ForkJoinPool();
+		}
+
+		return sPool;
+	}
+}
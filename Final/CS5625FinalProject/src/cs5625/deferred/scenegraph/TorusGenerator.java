@@ -0,0 +1,115 @@
+package cs5625.deferred.scenegraph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * TorusGenerator.java
+ *
+ * Generates a torus of quads, centered on the origin and lying in the XZ plane. Each ring of vertices
+ * around the tube is one piece; it writes the ring, and the ring of quads between it and the next one.
+ * The seams have duplicate vertices so that texture coordinates don't wrap.
+ *
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+public class TorusGenerator extends MeshGenerator
+{
+	private final float mMajorRadius, mMinorRadius;
+	private final int mRings, mSides;
+
+	/**
+	 * Creates a torus generator.
+	 *
+	 * @param majorRadius Distance from the center of the torus to the center of the tube.
+	 * @param minorRadius Radius of the tube.
+	 * @param rings Number of divisions around the y axis; at least 3.
+	 * @param sides Number of divisions around the tube; at least 3.
+	 */
+	public TorusGenerator(float majorRadius, float minorRadius, int rings, int sides)
+	{
+		if (rings < 3 || sides < 3)
+		{
+			throw new IllegalArgumentException("A torus needs at least 3 rings and 3 sides, not " + rings + " and " + sides + ".");
+		}
+
+		mMajorRadius = majorRadius;
+		mMinorRadius = minorRadius;
+		mRings = rings;
+		mSides = sides;
+	}
+
+	@Override
+	public int getVerticesPerPolygon()
+	{
+		return 4;
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return (mRings + 1) * (mSides + 1);
+	}
+
+	@Override
+	public int getPolygonCount()
+	{
+		return mRings * mSides;
+	}
+
+	@Override
+	protected int getPieceCount()
+	{
+		return mRings + 1;
+	}
+
+	@Override
+	protected void count(int first, int end, int counts[])
+	{
+		counts[0] += (end - first) * (mSides + 1);
+		counts[1] += (Math.min(end, mRings) - Math.min(first, mRings)) * mSides;
+	}
+
+	@Override
+	protected void fill(int first, int end, int vertex, int polygon, FloatBuffer vertices, FloatBuffer normals, FloatBuffer texcoords, IntBuffer polygons)
+	{
+		int stride = mSides + 1;
+
+		for (int i = first; i < end; ++i)
+		{
+			double phi = 2.0 * Math.PI * i / mRings;
+			float cosPhi = (float)Math.cos(phi);
+			float sinPhi = (float)Math.sin(phi);
+
+			for (int j = 0; j <= mSides; ++j, ++vertex)
+			{
+				double theta = 2.0 * Math.PI * j / mSides;
+				float cosTheta = (float)Math.cos(theta);
+				float nx = cosTheta * cosPhi;
+				float ny = (float)Math.sin(theta);
+				float nz = -cosTheta * sinPhi;
+
+				vertices.put(3 * vertex, mMajorRadius * cosPhi + mMinorRadius * nx);
+				vertices.put(3 * vertex + 1, mMinorRadius * ny);
+				vertices.put(3 * vertex + 2, -mMajorRadius * sinPhi + mMinorRadius * nz);
+				normals.put(3 * vertex, nx);
+				normals.put(3 * vertex + 1, ny);
+				normals.put(3 * vertex + 2, nz);
+				texcoords.put(2 * vertex, (float)i / mRings);
+				texcoords.put(2 * vertex + 1, (float)j / mSides);
+			}
+
+			if (i < mRings)
+			{
+				for (int j = 0; j < mSides; ++j, ++polygon)
+				{
+					int corner = i * stride + j;
+					polygons.put(4 * polygon, corner);
+					polygons.put(4 * polygon + 1, corner + stride);
+					polygons.put(4 * polygon + 2, corner + stride + 1);
+					polygons.put(4 * polygon + 3, corner + 1);
+				}
+			}
+		}
+	}
+}
@@ -38,25 +38,7 @@ public class Trimesh extends Mesh implements OpenGLResourceObject
 			return null;
 		}
 		
-		/* This is a very direct port of Eric Lengyel's code, so I leave most of the explanation
-		 * to him. Go read his page if you don't understand! */
-		
-		/* Allocate temporary buffers and loop over triangles. */
-		float tan1[] = new float[getVertexCount() * 3];
-		float tan2[] = new float[getVertexCount() * 3];
-		
-		for (int triIndex = 0; triIndex < getPolygonCount(); ++triIndex)
-		{
-			/* Get vertex indices of this triangle. */
-			int i1 = mPolygonData.get(3 * triIndex + 0);
-			int i2 = mPolygonData.get(3 * triIndex + 1);
-			int i3 = mPolygonData.get(3 * triIndex + 2);
-			
-			computeAndAccumulateTangentVectors(i1, i2, i3, tan1, tan2);			
-		}
-
-		/* Average and normalize the accumulated tangent vectors. */
-		return averageAndNormalizeAllTangentVectors(tan1, tan2);
+		return TangentGenerator.generate(this);
 	}
 	
 	/**
@@ -76,6 +58,7 @@ public class Trimesh extends Mesh implements OpenGLResourceObject
 		copy.setVertexData(getVertexData());
 		copy.setNormalData(getNormalData());
 		copy.vertexAttribData = (HashMap<String, FloatBuffer>) vertexAttribData.clone();
+		copy.setCompactVertexData(getCompactVertexData());
 		
 		return copy;
 	}
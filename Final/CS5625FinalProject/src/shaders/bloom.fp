@@ -1,7 +1,9 @@
 /**
  * bloom.fp
  * 
- * Fragment shader for the bloom post-processing algorithm.
+ * Fragment shader for the bloom post-processing algorithm. This is the last step: the bright parts of
+ * the scene have already been extracted, blurred at several resolutions and summed into BloomBuffer
+ * (see BloomPipeline.java), so all that's left is to add them back onto the scene.
  * 
  * Written for Cornell CS 5625 (Interactive Computer Graphics).
  * Copyright (c) 2013, Computer Science Department, Cornell University.
@@ -13,12 +15,18 @@
 /* Sampler for the final scene in the GBuffer. */
 uniform sampler2DRect FinalSceneBuffer;
 
-uniform float KernelVariance;
-uniform int KernelWidth;
-uniform float Threshold;
+/* The blurred bright parts of the scene, at half resolution. */
+uniform sampler2D BloomBuffer;
+
+/* Size of the final scene, in pixels. */
+uniform vec2 ScreenSize;
+
+uniform float BloomIntensity;
 
 // TODO PA3 Prereq (Optional): Fill this in if you like bloom.
 void main()
 {
-    gl_FragColor = vec4(0.0);
+	vec3 scene = texture2DRect(FinalSceneBuffer, gl_TexCoord[0].xy).rgb;
+	vec3 bloom = texture2D(BloomBuffer, gl_TexCoord[0].xy / ScreenSize).rgb;
+	gl_FragColor = vec4(scene + BloomIntensity * bloom, 1.0);
 }
@@ -0,0 +1,28 @@
+/**
+ * bloom_resample.fp
+ * 
+ * Fragment shader for halving or doubling the size of a bloom buffer. Averages four bilinear taps placed
+ * diagonally around the pixel, Spread source texels away: a spread of 1 covers a 4x4 texel tent, which
+ * filters away the aliasing of a plain 2x2 downsample, and a spread of 0.5 gives a smooth upsample.
+ * 
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+
+uniform sampler2D SourceTexture;
+
+/* Size of one texel of SourceTexture, in texture coordinates. */
+uniform vec2 SourceTexelSize;
+
+uniform float Spread;
+
+void main()
+{
+	vec2 d = Spread * SourceTexelSize;
+	vec2 coord = gl_TexCoord[0].xy;
+	
+	gl_FragColor = vec4(0.25 * (texture2D(SourceTexture, coord + vec2(-d.x, -d.y)).rgb +
+	                            texture2D(SourceTexture, coord + vec2( d.x, -d.y)).rgb +
+	                            texture2D(SourceTexture, coord + vec2(-d.x,  d.y)).rgb +
+	                            texture2D(SourceTexture, coord + vec2( d.x,  d.y)).rgb), 1.0);
+}
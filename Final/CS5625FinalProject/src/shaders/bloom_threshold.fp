@@ -0,0 +1,30 @@
+/**
+ * bloom_threshold.fp
+ * 
+ * Fragment shader for extracting the bright parts of the scene for bloom. Renders at half the size
+ * of the scene: each output pixel averages the 2x2 scene pixels it covers, and keeps only the part
+ * of their brightness above Threshold.
+ * 
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+
+/* Sampler for the final scene in the GBuffer. */
+uniform sampler2DRect FinalSceneBuffer;
+
+uniform float Threshold;
+
+void main()
+{
+	/* Centers of the 2x2 scene pixels under this pixel. */
+	vec2 coord = 2.0 * gl_FragCoord.xy;
+	vec3 color = 0.25 * (texture2DRect(FinalSceneBuffer, coord + vec2(-0.5, -0.5)).rgb +
+	                     texture2DRect(FinalSceneBuffer, coord + vec2( 0.5, -0.5)).rgb +
+	                     texture2DRect(FinalSceneBuffer, coord + vec2(-0.5,  0.5)).rgb +
+	                     texture2DRect(FinalSceneBuffer, coord + vec2( 0.5,  0.5)).rgb);
+	
+	/* Scale the color rather than clamping each channel, so bright areas keep their hue. */
+	float brightness = max(color.r, max(color.g, color.b));
+	float bright = max(brightness - Threshold, 0.0);
+	gl_FragColor = vec4(color * (bright / max(brightness, 0.0001)), 1.0);
+}
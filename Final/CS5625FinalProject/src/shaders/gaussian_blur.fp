@@ -14,9 +14,12 @@
 uniform sampler2D SourceTexture;
 uniform float TextureSize;
 
-/* Width and variance of the filter kernel */
-uniform float KernelVariance;
-uniform int KernelWidth;
+/* Bilinear taps of the filter kernel, precomputed by GaussianKernel.java. Tap 0 is the center;
+ * every other tap is read on both sides of it. Offsets are in texels. */
+#define MAX_KERNEL_TAPS 34
+uniform float KernelWeights[MAX_KERNEL_TAPS];
+uniform float KernelOffsets[MAX_KERNEL_TAPS];
+uniform int KernelTapCount;
 
 /* horizontal axis is 0, vertical axis is non-zero */
 uniform int Axis;
@@ -28,19 +31,18 @@ uniform int Axis;
 
 void main()
 {
-	int maxd = 2*KernelWidth + 1;
-	vec3 sum;
-	float weight = 0.0;
+	vec2 center = gl_TexCoord[0].xy;
+	vec2 direction = (Axis == 0 ? vec2(1.0 / TextureSize, 0.0) : vec2(0.0, 1.0 / TextureSize));
 	
-	for (int i = -maxd; i < maxd + 1; i++) {
-		weight = exp(-abs(float(i))*abs(float(i))/(2.0*KernelVariance));
-		if(Axis == 0) {
-			sum += weight*texture2D(SourceTexture, vec2(gl_TexCoord[0].x + float(i)/TextureSize, gl_TexCoord[0].y)).xyz;
-		}
-		else {
-			sum += weight*texture2D(SourceTexture, vec2(gl_TexCoord[0].x, gl_TexCoord[0].y + float(i)/TextureSize)).xyz;
+	vec3 sum = KernelWeights[0] * texture2D(SourceTexture, center).xyz;
+	
+	for (int i = 1; i < MAX_KERNEL_TAPS; i++) {
+		if (i < KernelTapCount) {
+			vec2 offset = KernelOffsets[i] * direction;
+			sum += KernelWeights[i] * (texture2D(SourceTexture, center + offset).xyz + 
+			                           texture2D(SourceTexture, center - offset).xyz);
 		}
 	}
 
     gl_FragColor = vec4(sum, 1.0);
-}
\ No newline at end of file
+}
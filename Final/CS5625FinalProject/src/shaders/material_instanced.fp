@@ -0,0 +1,34 @@
+/**
+ * material_instanced.fp
+ * 
+ * Fragment shader which writes instanced unshaded or Lambertian materials to the gbuffer, the same way 
+ * as material_unshaded.fp and (untextured) material_lambertian.fp do, with the color of each instance.
+ * 
+ * Written for Cornell CS 5625 (Interactive Computer Graphics).
+ * Copyright (c) 2013, Computer Science Department, Cornell University.
+ */
+
+/* ID of the material being drawn (unshaded or Lambertian), so the lighting shader knows what 
+ * material this pixel is. */
+uniform int MaterialID;
+
+/* Fragment position, normal, and color passed from the vertex shader. */
+varying vec3 EyespacePosition;
+varying vec3 EyespaceNormal;
+varying vec3 Color;
+
+/* Encodes a normalized vector as a vec2. See Renderer.java for more info. */
+vec2 encode(vec3 n)
+{
+	return normalize(n.xy) * sqrt(0.5 * n.z + 0.5);
+}
+
+void main()
+{
+	vec2 enc = encode(normalize(EyespaceNormal));
+	
+	gl_FragData[0] = vec4(Color, enc.x);
+	gl_FragData[1] = vec4(EyespacePosition, enc.y);
+	gl_FragData[2] = vec4(float(MaterialID), 0.0, 0.0, 0.0);
+	gl_FragData[3] = vec4(0.0);
+}
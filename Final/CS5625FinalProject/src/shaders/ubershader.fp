@@ -12,6 +12,10 @@
  * @date 2012-03-24
  */
 
+#version 120
+#extension GL_ARB_texture_rectangle : enable
+#extension GL_ARB_uniform_buffer_object : require
+
 /* Copy the IDs of any new materials here. */
 const int UNSHADED_MATERIAL_ID = 1;
 const int LAMBERTIAN_MATERIAL_ID = 2;
@@ -70,17 +74,35 @@ uniform float LightWidth;
 #define PCF_SHADOW_MAP 1
 #define PCSS SHADOW_MAP 2
 
-/* Pass the shadow camera Projection * View matrix to help transform points, as well the Camera inverse-view Matrix */
-uniform mat4 LightMatrix;
-uniform mat4 InverseViewMatrix;
+/* Cascaded shadow maps: all cascades share the ShadowMap atlas, each in its own tile. Cascade i covers
+ * eye space depths up to ShadowCascadeSplits[i], and ShadowCascadeMatrices[i] takes eye space points
+ * to its tile's texture coordinates and depth. ShadowCascadeRects[i] is the tile (min.xy, max.xy). */
+#define MAX_SHADOW_CASCADES 4
+uniform int ShadowCascadeCount;
+uniform vec4 ShadowCascadeSplits;
+uniform mat4 ShadowCascadeMatrices[MAX_SHADOW_CASCADES];
+uniform vec4 ShadowCascadeRects[MAX_SHADOW_CASCADES];
+
+/* The tile of the cascade being sampled; lookups are clamped to it so filters don't read other cascades. */
+vec4 ShadowTileRect;
+
+/* Per-pass camera and snow state, uploaded once per pass by the renderer (see FrameConstants.java). 
+ * InverseViewMatrix is the camera inverse-view matrix. */
+layout(std140) uniform FrameConstants
+{
+	mat4 ViewMatrix;
+	mat4 InverseViewMatrix;
+	mat4 TransposeInverseViewMatrix;
+	mat4 OcclMapMatrix;
+	float SnowAmount;
+	float SnowMapWidth;
+	float SnowMapHeight;
+	int RenderSnow;
+};
 
 /* snow rendering variables */
 const float PI = 3.14159265359;
-uniform int RenderSnow;
 //uniform sampler2D SnowOcclMap;
-//uniform float SnowMapWidth;
-//uniform float SnowMapHeight;
-uniform mat4 TransposeInverseViewMatrix;
 
 //===================================================================================
 //
@@ -323,6 +345,7 @@ float getShadowVal(vec4 shadowCoord, vec2 offset) {
 	textureCoord = textureCoord + offset;
 	// converting back to [0,1] to read from texture
 	textureCoord = vec2(textureCoord.x/ShadowMapWidth, textureCoord.y/ShadowMapHeight);
+	textureCoord = clamp(textureCoord, ShadowTileRect.xy, ShadowTileRect.zw);
 	return texture2D(ShadowMap, textureCoord).x;
 }
 
@@ -337,7 +360,7 @@ float getShadowVal(vec4 shadowCoord, vec2 offset) {
  	float pointZValue = shadowCoord.z;
  	
  	// compare this to shadow map value with bias
- 	float shadowMapZValue = texture2D(ShadowMap, shadowCoord.xy).z;
+ 	float shadowMapZValue = texture2D(ShadowMap, clamp(shadowCoord.xy, ShadowTileRect.xy, ShadowTileRect.zw)).z;
  	if (pointZValue > shadowMapZValue + bias) {
  		return 0.0;
  	} else {
@@ -427,8 +450,21 @@ float getPCSSShadowMapVal(vec4 shadowCoord) {
  */
 float getShadowStrength(vec3 position) {
 	// TODO PA3: Transform position to ShadowCoord
-	mat4 biasMatrix = mat4(0.5, 0.0, 0.0, 0.0, 0.0, 0.5, 0.0, 0.0, 0.0, 0.0, 0.5, 0.0, 0.5, 0.5, 0.5, 1.0);
-	vec4 ShadowCoord = biasMatrix * LightMatrix * InverseViewMatrix * vec4(position, 1.0);
+	/* Pick the first cascade which reaches this far; beyond the last one, nothing is shadowed. */
+	float depth = -position.z;
+	int cascade = -1;
+	for (int i = MAX_SHADOW_CASCADES - 1; i >= 0; --i) {
+		if (i < ShadowCascadeCount && depth <= ShadowCascadeSplits[i]) {
+			cascade = i;
+		}
+	}
+	
+	if (cascade < 0) {
+		return 1.0;
+	}
+	
+	ShadowTileRect = ShadowCascadeRects[cascade];
+	vec4 ShadowCoord = ShadowCascadeMatrices[cascade] * vec4(position, 1.0);
 	ShadowCoord = ShadowCoord/ShadowCoord.w;
 	
 	if (ShadowMode == DEFAULT_SHADOW_MAP) {